@@ -13,10 +13,13 @@
  */
 package com.facebook.presto.hive;
 
+import com.facebook.presto.hive.HiveSplitAffinity.WorkerSnapshot;
 import com.facebook.presto.hive.util.HiveFileIterator;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.TupleDomain;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import io.airlift.units.DataSize;
@@ -45,6 +48,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executor;
@@ -53,6 +57,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import static com.facebook.presto.hadoop.HadoopFileStatus.isDirectory;
 import static com.facebook.presto.hadoop.HadoopFileStatus.isFile;
 import static com.facebook.presto.hive.HiveBucketing.HiveBucket;
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_INVALID_BUCKET_FILES;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_INVALID_METADATA;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_INVALID_PARTITION_VALUE;
 import static com.facebook.presto.hive.HiveType.getSupportedHiveType;
@@ -61,6 +66,7 @@ import static com.facebook.presto.hive.HiveUtil.getInputFormat;
 import static com.facebook.presto.hive.HiveUtil.isSplittable;
 import static com.facebook.presto.hive.UnpartitionedPartition.isUnpartitioned;
 import static com.google.common.base.Preconditions.checkState;
+import static java.lang.String.format;
 
 public class BackgroundHiveSplitLoader
         implements HiveSplitLoader
@@ -68,6 +74,7 @@ public class BackgroundHiveSplitLoader
     private final String connectorId;
     private final Table table;
     private final Optional<HiveBucket> bucket;
+    private final OptionalInt tableBucketCount;
     private final HdfsEnvironment hdfsEnvironment;
     private final NamenodeStats namenodeStats;
     private final DirectoryLister directoryLister;
@@ -81,6 +88,7 @@ public class BackgroundHiveSplitLoader
     private final ConcurrentLazyQueue<HivePartitionMetadata> partitions;
     private final Deque<HiveFileIterator> fileIterators = new ConcurrentLinkedDeque<>();
     private final AtomicInteger remainingInitialSplits;
+    private final WorkerSnapshot workers;
 
     private HiveSplitSource hiveSplitSource;
     private volatile boolean stopped;
@@ -90,6 +98,7 @@ public class BackgroundHiveSplitLoader
             Table table,
             Iterable<HivePartitionMetadata> partitions,
             Optional<HiveBucket> bucket,
+            OptionalInt tableBucketCount,
             DataSize maxSplitSize,
             ConnectorSession session,
             HdfsEnvironment hdfsEnvironment,
@@ -99,11 +108,13 @@ public class BackgroundHiveSplitLoader
             int maxPartitionBatchSize,
             DataSize maxInitialSplitSize,
             int maxInitialSplits,
-            boolean recursiveDirWalkerEnabled)
+            boolean recursiveDirWalkerEnabled,
+            WorkerSnapshot workers)
     {
         this.connectorId = connectorId;
         this.table = table;
         this.bucket = bucket;
+        this.tableBucketCount = tableBucketCount;
         this.maxSplitSize = maxSplitSize;
         this.maxPartitionBatchSize = maxPartitionBatchSize;
         this.session = session;
@@ -115,6 +126,7 @@ public class BackgroundHiveSplitLoader
         this.recursiveDirWalkerEnabled = recursiveDirWalkerEnabled;
         this.executor = executor;
         this.partitions = new ConcurrentLazyQueue<>(partitions);
+        this.workers = workers;
     }
 
     @Override
@@ -215,7 +227,8 @@ public class BackgroundHiveSplitLoader
                         files.getPartitionKeys(),
                         splittable,
                         session,
-                        files.getEffectivePredicate()));
+                        files.getEffectivePredicate(),
+                        Optional.empty()));
                 if (hiveSplitSource.isQueueFull()) {
                     fileIterators.addFirst(files);
                     return;
@@ -260,7 +273,8 @@ public class BackgroundHiveSplitLoader
                         partitionKeys,
                         false,
                         session,
-                        effectivePredicate));
+                        effectivePredicate,
+                        Optional.empty()));
                 if (stopped) {
                     return;
                 }
@@ -270,44 +284,85 @@ public class BackgroundHiveSplitLoader
 
         FileSystem fs = hdfsEnvironment.getFileSystem(path);
         if (bucket.isPresent()) {
-            Optional<FileStatus> bucketFile = getBucketFile(bucket.get(), fs, path);
-            if (bucketFile.isPresent()) {
-                FileStatus file = bucketFile.get();
-                BlockLocation[] blockLocations = fs.getFileBlockLocations(file, 0, file.getLen());
-                boolean splittable = isSplittable(inputFormat, fs, file.getPath());
-
-                hiveSplitSource.addToQueue(createHiveSplits(
-                        partitionName,
-                        file.getPath().toString(),
-                        blockLocations,
-                        0,
-                        file.getLen(),
-                        schema,
-                        partitionKeys,
-                        splittable,
-                        session,
-                        effectivePredicate));
-                return;
+            List<FileStatus> bucketFiles = getBucketFiles(partitionName, bucket.get().getBucketCount(), fs, path);
+            if (!bucketFiles.isEmpty()) {
+                int bucketNumber = bucket.get().getBucketNumber();
+                loadBucketFile(partitionName, fs, bucketFiles.get(bucketNumber), bucketNumber, inputFormat, schema, partitionKeys, effectivePredicate);
+            }
+            return;
+        }
+        if (tableBucketCount.isPresent()) {
+            // tag the splits of each bucket file so the engine can schedule the buckets of joined tables together
+            List<FileStatus> bucketFiles = getBucketFiles(partitionName, tableBucketCount.getAsInt(), fs, path);
+            for (int bucketNumber = 0; bucketNumber < bucketFiles.size(); bucketNumber++) {
+                loadBucketFile(partitionName, fs, bucketFiles.get(bucketNumber), bucketNumber, inputFormat, schema, partitionKeys, effectivePredicate);
+                if (stopped) {
+                    return;
+                }
             }
+            return;
         }
 
         HiveFileIterator iterator = new HiveFileIterator(path, fs, directoryLister, namenodeStats, partitionName, inputFormat, schema, partitionKeys, effectivePredicate);
         fileIterators.addLast(iterator);
     }
 
-    private static Optional<FileStatus> getBucketFile(HiveBucket bucket, FileSystem fs, Path path)
+    private void loadBucketFile(
+            String partitionName,
+            FileSystem fs,
+            FileStatus file,
+            int bucketNumber,
+            InputFormat<?, ?> inputFormat,
+            Properties schema,
+            List<HivePartitionKey> partitionKeys,
+            TupleDomain<HiveColumnHandle> effectivePredicate)
+            throws IOException
+    {
+        BlockLocation[] blockLocations = fs.getFileBlockLocations(file, 0, file.getLen());
+        boolean splittable = isSplittable(inputFormat, fs, file.getPath());
+
+        hiveSplitSource.addToQueue(createHiveSplits(
+                partitionName,
+                file.getPath().toString(),
+                blockLocations,
+                0,
+                file.getLen(),
+                schema,
+                partitionKeys,
+                splittable,
+                session,
+                effectivePredicate,
+                Optional.of(bucketNumber)));
+    }
+
+    /**
+     * Returns the files of a partition of a bucketed table ordered by bucket number, or
+     * an empty list if the partition is empty. The splits of every file are tagged with
+     * its bucket, so a partition that does not have exactly one file per bucket cannot be
+     * read, as the splits would not match the bucketing that the table declares.
+     */
+    @VisibleForTesting
+    static List<FileStatus> getBucketFiles(String partitionName, int bucketCount, FileSystem fs, Path path)
     {
         FileStatus[] statuses = listStatus(fs, path);
+        if (statuses.length == 0) {
+            return ImmutableList.of();
+        }
 
-        if (statuses.length != bucket.getBucketCount()) {
-            return Optional.empty();
+        if (statuses.length != bucketCount) {
+            throw new PrestoException(HIVE_INVALID_BUCKET_FILES, format(
+                    "Partition %s of a bucketed table has %s files, but the table is declared with %s buckets: %s",
+                    partitionName,
+                    statuses.length,
+                    bucketCount,
+                    path));
         }
 
         Map<String, FileStatus> map = new HashMap<>();
         List<String> paths = new ArrayList<>();
         for (FileStatus status : statuses) {
             if (!isFile(status)) {
-                return Optional.empty();
+                throw new PrestoException(HIVE_INVALID_BUCKET_FILES, format("Partition %s of a bucketed table contains a directory: %s", partitionName, status.getPath()));
             }
             String pathString = status.getPath().toString();
             map.put(pathString, status);
@@ -317,8 +372,11 @@ public class BackgroundHiveSplitLoader
         // Hive sorts the paths as strings lexicographically
         Collections.sort(paths);
 
-        String pathString = paths.get(bucket.getBucketNumber());
-        return Optional.of(map.get(pathString));
+        ImmutableList.Builder<FileStatus> files = ImmutableList.builder();
+        for (String pathString : paths) {
+            files.add(map.get(pathString));
+        }
+        return files.build();
     }
 
     private static FileStatus[] listStatus(FileSystem fs, Path path)
@@ -341,7 +399,8 @@ public class BackgroundHiveSplitLoader
             List<HivePartitionKey> partitionKeys,
             boolean splittable,
             ConnectorSession session,
-            TupleDomain<HiveColumnHandle> effectivePredicate)
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            Optional<Integer> bucketNumber)
             throws IOException
     {
         ImmutableList.Builder<HiveSplit> builder = ImmutableList.builder();
@@ -368,19 +427,21 @@ public class BackgroundHiveSplitLoader
                 while (chunkOffset < blockLocation.getLength()) {
                     // adjust the actual chunk size to account for the overrun when chunks are slightly bigger than necessary (see above)
                     long chunkLength = Math.min(targetChunkSize, blockLocation.getLength() - chunkOffset);
+                    long chunkStart = blockLocation.getOffset() + chunkOffset;
 
                     builder.add(new HiveSplit(connectorId,
                             table.getDbName(),
                             table.getTableName(),
                             partitionName,
                             path,
-                            blockLocation.getOffset() + chunkOffset,
+                            chunkStart,
                             chunkLength,
                             schema,
                             partitionKeys,
-                            addresses,
+                            workers.getSplitAddresses(path, chunkStart, addresses),
                             forceLocalScheduling,
-                            effectivePredicate));
+                            effectivePredicate,
+                            bucketNumber));
 
                     chunkOffset += chunkLength;
                     remainingInitialSplits.decrementAndGet();
@@ -404,9 +465,10 @@ public class BackgroundHiveSplitLoader
                     length,
                     schema,
                     partitionKeys,
-                    addresses,
+                    workers.getSplitAddresses(path, start, addresses),
                     forceLocalScheduling,
-                    effectivePredicate));
+                    effectivePredicate,
+                    bucketNumber));
         }
         return builder.build();
     }
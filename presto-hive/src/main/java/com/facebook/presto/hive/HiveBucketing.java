@@ -14,6 +14,7 @@
 package com.facebook.presto.hive;
 
 import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorBucketing;
 import com.google.common.collect.ImmutableList;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
@@ -33,6 +34,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import static com.facebook.presto.hive.HiveType.getHiveType;
+import static com.facebook.presto.hive.HiveType.getType;
 import static com.facebook.presto.hive.HiveUtil.getTableStructFields;
 import static com.facebook.presto.hive.util.Types.checkType;
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -40,6 +43,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.collect.Maps.immutableEntry;
 import static com.google.common.collect.Sets.immutableEnumSet;
 import static java.util.Map.Entry;
+import static java.util.stream.Collectors.joining;
 import static org.apache.hadoop.hive.ql.udf.generic.GenericUDF.DeferredJavaObject;
 import static org.apache.hadoop.hive.ql.udf.generic.GenericUDF.DeferredObject;
 import static org.apache.hadoop.hive.serde2.objectinspector.ObjectInspector.Category;
@@ -65,6 +69,43 @@ final class HiveBucketing
 
     private HiveBucketing() {}
 
+    public static Optional<ConnectorBucketing> getHiveBucketing(String connectorId, Table table)
+    {
+        if (!table.getSd().isSetBucketCols() || table.getSd().getBucketCols().isEmpty() ||
+                !table.getSd().isSetNumBuckets() || (table.getSd().getNumBuckets() <= 0)) {
+            return Optional.empty();
+        }
+
+        Map<String, HiveColumnHandle> columnHandles = new HashMap<>();
+        int hiveColumnIndex = 0;
+        for (StructField field : getTableStructFields(table)) {
+            ObjectInspector inspector = field.getFieldObjectInspector();
+            if ((inspector.getCategory() == Category.PRIMITIVE) && SUPPORTED_TYPES.contains(((PrimitiveObjectInspector) inspector).getPrimitiveCategory())) {
+                HiveType hiveType = getHiveType(inspector);
+                columnHandles.put(field.getFieldName(), new HiveColumnHandle(connectorId, field.getFieldName(), hiveColumnIndex, hiveType, getType(hiveType.getHiveTypeName()).getTypeSignature(), hiveColumnIndex, false));
+            }
+            hiveColumnIndex++;
+        }
+
+        // Verify the bucket column types are supported
+        ImmutableList.Builder<HiveColumnHandle> bucketColumns = ImmutableList.builder();
+        for (String column : table.getSd().getBucketCols()) {
+            HiveColumnHandle columnHandle = columnHandles.get(column);
+            if (columnHandle == null) {
+                return Optional.empty();
+            }
+            bucketColumns.add(columnHandle);
+        }
+        List<HiveColumnHandle> columns = bucketColumns.build();
+
+        // Hive hashes each value by its type, so tables only share buckets when the bucket column types match
+        String bucketFunction = columns.stream()
+                .map(column -> column.getHiveType().getHiveTypeName())
+                .collect(joining(",", "hive(", ")"));
+
+        return Optional.of(new ConnectorBucketing(bucketFunction, table.getSd().getNumBuckets(), ImmutableList.<ColumnHandle>copyOf(columns)));
+    }
+
     public static Optional<HiveBucket> getHiveBucket(Table table, Map<ColumnHandle, ?> bindings)
     {
         if (!table.getSd().isSetBucketCols() || table.getSd().getBucketCols().isEmpty() ||
@@ -23,6 +23,7 @@ import io.airlift.configuration.DefunctConfig;
 import io.airlift.configuration.LegacyConfig;
 import io.airlift.units.DataSize;
 import io.airlift.units.Duration;
+import io.airlift.units.MaxDataSize;
 import io.airlift.units.MinDataSize;
 import io.airlift.units.MinDuration;
 import org.joda.time.DateTimeZone;
@@ -35,6 +36,7 @@ import java.util.List;
 import java.util.TimeZone;
 import java.util.concurrent.TimeUnit;
 
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 @DefunctConfig({
@@ -89,6 +91,7 @@ public class HiveClientConfig
     private DataSize s3MultipartMinFileSize = new DataSize(16, MEGABYTE);
     private DataSize s3MultipartMinPartSize = new DataSize(5, MEGABYTE);
     private boolean useParquetColumnNames;
+    private boolean parquetOptimizedReaderEnabled;
 
     private HiveStorageFormat hiveStorageFormat = HiveStorageFormat.RCBINARY;
 
@@ -101,6 +104,12 @@ public class HiveClientConfig
     private DataSize orcMaxMergeDistance = new DataSize(1, MEGABYTE);
     private DataSize orcMaxBufferSize = new DataSize(8, MEGABYTE);
     private DataSize orcStreamBufferSize = new DataSize(8, MEGABYTE);
+    private DataSize orcFileTailCacheSize = new DataSize(32, MEGABYTE);
+
+    private boolean localCacheEnabled;
+    private File localCacheDirectory = new File(StandardSystemProperty.JAVA_IO_TMPDIR.value(), "presto-hive-cache");
+    private DataSize localCacheMaxSize = new DataSize(10, GIGABYTE);
+    private DataSize localCacheChunkSize = new DataSize(1, MEGABYTE);
 
     public int getMaxInitialSplits()
     {
@@ -691,6 +700,77 @@ public class HiveClientConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getOrcFileTailCacheSize()
+    {
+        return orcFileTailCacheSize;
+    }
+
+    @Config("hive.orc.file-tail-cache-size")
+    @ConfigDescription("Maximum estimated heap size of the decoded ORC file footers and metadata cached by each worker")
+    public HiveClientConfig setOrcFileTailCacheSize(DataSize orcFileTailCacheSize)
+    {
+        this.orcFileTailCacheSize = orcFileTailCacheSize;
+        return this;
+    }
+
+    public boolean isLocalCacheEnabled()
+    {
+        return localCacheEnabled;
+    }
+
+    @Config("hive.local-cache.enabled")
+    @ConfigDescription("Cache file data read by the ORC reader on local disk and schedule splits of a file on the same worker")
+    public HiveClientConfig setLocalCacheEnabled(boolean localCacheEnabled)
+    {
+        this.localCacheEnabled = localCacheEnabled;
+        return this;
+    }
+
+    @NotNull
+    public File getLocalCacheDirectory()
+    {
+        return localCacheDirectory;
+    }
+
+    @Config("hive.local-cache.directory")
+    @ConfigDescription("Local directory for cached file data")
+    public HiveClientConfig setLocalCacheDirectory(File localCacheDirectory)
+    {
+        this.localCacheDirectory = localCacheDirectory;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getLocalCacheMaxSize()
+    {
+        return localCacheMaxSize;
+    }
+
+    @Config("hive.local-cache.max-size")
+    @ConfigDescription("Maximum size of the cached file data on each worker")
+    public HiveClientConfig setLocalCacheMaxSize(DataSize localCacheMaxSize)
+    {
+        this.localCacheMaxSize = localCacheMaxSize;
+        return this;
+    }
+
+    @NotNull
+    @MinDataSize("4kB")
+    @MaxDataSize("64MB")
+    public DataSize getLocalCacheChunkSize()
+    {
+        return localCacheChunkSize;
+    }
+
+    @Config("hive.local-cache.chunk-size")
+    @ConfigDescription("Size of the file ranges that are cached and evicted as a unit")
+    public HiveClientConfig setLocalCacheChunkSize(DataSize localCacheChunkSize)
+    {
+        this.localCacheChunkSize = localCacheChunkSize;
+        return this;
+    }
+
     public boolean isAssumeCanonicalPartitionKeys()
     {
         return assumeCanonicalPartitionKeys;
@@ -715,4 +795,17 @@ public class HiveClientConfig
         this.useParquetColumnNames = useParquetColumnNames;
         return this;
     }
+
+    public boolean isParquetOptimizedReaderEnabled()
+    {
+        return parquetOptimizedReaderEnabled;
+    }
+
+    @Config("hive.parquet-optimized-reader.enabled")
+    @ConfigDescription("Read Parquet files of primitive columns directly into blocks instead of through record materialization")
+    public HiveClientConfig setParquetOptimizedReaderEnabled(boolean parquetOptimizedReaderEnabled)
+    {
+        this.parquetOptimizedReaderEnabled = parquetOptimizedReaderEnabled;
+        return this;
+    }
 }
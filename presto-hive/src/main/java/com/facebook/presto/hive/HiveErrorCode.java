@@ -39,7 +39,8 @@ public enum HiveErrorCode
     HIVE_FILESYSTEM_ERROR(0x0100_0010),
     HIVE_WRITER_ERROR(0x0100_0011),
     HIVE_SERDE_NOT_FOUND(0x0100_0012),
-    HIVE_UNSUPPORTED_FORMAT(0x0100_0013);
+    HIVE_UNSUPPORTED_FORMAT(0x0100_0013),
+    HIVE_INVALID_BUCKET_FILES(0x0100_0014);
 
     private final ErrorCode errorCode;
 
@@ -16,6 +16,7 @@ package com.facebook.presto.hive;
 import com.facebook.presto.hive.metastore.HiveMetastore;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ColumnMetadata;
+import com.facebook.presto.spi.ColumnStatistics;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorMetadata;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
@@ -27,7 +28,9 @@ import com.facebook.presto.spi.SchemaNotFoundException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SchemaTablePrefix;
 import com.facebook.presto.spi.TableNotFoundException;
+import com.facebook.presto.spi.TableStatistics;
 import com.facebook.presto.spi.ViewNotFoundException;
+import com.facebook.presto.spi.type.StandardTypes;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
 import com.google.common.base.Function;
@@ -37,11 +40,18 @@ import com.google.common.collect.ImmutableMap;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
 import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.hive.common.StatsSetupConst;
 import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.api.BooleanColumnStatsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.DoubleColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.SerDeInfo;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
+import org.apache.hadoop.hive.metastore.api.StringColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.Table;
 import org.joda.time.DateTimeZone;
 
@@ -52,6 +62,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.hive.HiveColumnHandle.SAMPLE_WEIGHT_COLUMN_NAME;
@@ -254,6 +265,90 @@ public class HiveMetadata
         return columnHandles.build();
     }
 
+    @Override
+    public TableStatistics getTableStatistics(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        SchemaTableName tableName = schemaTableName(tableHandle);
+        Optional<Table> table = metastore.getTable(tableName.getSchemaName(), tableName.getTableName());
+        if (!table.isPresent()) {
+            throw new TableNotFoundException(tableName);
+        }
+
+        // the row count of partitioned tables is only recorded in the partitions
+        OptionalLong rowCount = getRowCount(table.get().getParameters());
+        if (!rowCount.isPresent()) {
+            return TableStatistics.empty();
+        }
+
+        Map<String, ColumnStatisticsObj> columnStatistics = metastore.getTableColumnStatistics(tableName.getSchemaName(), tableName.getTableName()).orElse(ImmutableMap.of());
+        ImmutableMap.Builder<ColumnHandle, ColumnStatistics> statistics = ImmutableMap.builder();
+        for (HiveColumnHandle columnHandle : hiveColumnHandles(typeManager, connectorId, table.get(), false)) {
+            ColumnStatisticsObj columnStatisticsObj = columnStatistics.get(columnHandle.getName());
+            if (columnStatisticsObj != null) {
+                statistics.put(columnHandle, toColumnStatistics(columnHandle, columnStatisticsObj.getStatsData(), rowCount.getAsLong()));
+            }
+        }
+        return new TableStatistics(rowCount, statistics.build());
+    }
+
+    private static OptionalLong getRowCount(Map<String, String> parameters)
+    {
+        String rowCount = (parameters == null) ? null : parameters.get(StatsSetupConst.ROW_COUNT);
+        if (rowCount == null) {
+            return OptionalLong.empty();
+        }
+        try {
+            long value = Long.parseLong(rowCount);
+            // the metastore reports -1 when the statistics are not available
+            return (value < 0) ? OptionalLong.empty() : OptionalLong.of(value);
+        }
+        catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    private static ColumnStatistics toColumnStatistics(HiveColumnHandle columnHandle, ColumnStatisticsData data, long rowCount)
+    {
+        ColumnStatistics.Builder builder = ColumnStatistics.builder();
+        String type = columnHandle.getTypeSignature().getBase();
+        if (data.isSetLongStats()) {
+            LongColumnStatsData longStats = data.getLongStats();
+            builder.setDistinctValuesCount(longStats.getNumDVs());
+            setNullsFraction(builder, longStats.getNumNulls(), rowCount);
+            if (type.equals(StandardTypes.BIGINT) && longStats.isSetLowValue() && longStats.isSetHighValue()) {
+                builder.setMin(longStats.getLowValue());
+                builder.setMax(longStats.getHighValue());
+            }
+        }
+        else if (data.isSetDoubleStats()) {
+            DoubleColumnStatsData doubleStats = data.getDoubleStats();
+            builder.setDistinctValuesCount(doubleStats.getNumDVs());
+            setNullsFraction(builder, doubleStats.getNumNulls(), rowCount);
+            if (type.equals(StandardTypes.DOUBLE) && doubleStats.isSetLowValue() && doubleStats.isSetHighValue()) {
+                builder.setMin(doubleStats.getLowValue());
+                builder.setMax(doubleStats.getHighValue());
+            }
+        }
+        else if (data.isSetStringStats()) {
+            StringColumnStatsData stringStats = data.getStringStats();
+            builder.setDistinctValuesCount(stringStats.getNumDVs());
+            setNullsFraction(builder, stringStats.getNumNulls(), rowCount);
+        }
+        else if (data.isSetBooleanStats()) {
+            BooleanColumnStatsData booleanStats = data.getBooleanStats();
+            builder.setDistinctValuesCount((booleanStats.getNumTrues() > 0 ? 1 : 0) + (booleanStats.getNumFalses() > 0 ? 1 : 0));
+            setNullsFraction(builder, booleanStats.getNumNulls(), rowCount);
+        }
+        return builder.build();
+    }
+
+    private static void setNullsFraction(ColumnStatistics.Builder builder, long nullsCount, long rowCount)
+    {
+        if (rowCount > 0 && nullsCount >= 0) {
+            builder.setNullsFraction(Math.min(1.0, ((double) nullsCount) / rowCount));
+        }
+    }
+
     @SuppressWarnings("TryWithIdenticalCatches")
     @Override
     public Map<SchemaTableName, List<ColumnMetadata>> listTableColumns(ConnectorSession session, SchemaTablePrefix prefix)
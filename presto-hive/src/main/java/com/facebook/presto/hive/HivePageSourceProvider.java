@@ -67,6 +67,12 @@ public class HivePageSourceProvider
 
     @Override
     public ConnectorPageSource createPageSource(ConnectorSession session, ConnectorSplit split, List<ColumnHandle> columns)
+    {
+        return createPageSource(session, split, columns, TupleDomain.all());
+    }
+
+    @Override
+    public ConnectorPageSource createPageSource(ConnectorSession session, ConnectorSplit split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
     {
         HiveSplit hiveSplit = checkType(split, HiveSplit.class, "split");
 
@@ -78,7 +84,9 @@ public class HivePageSourceProvider
 
         Configuration configuration = hdfsEnvironment.getConfiguration(path);
 
-        TupleDomain<HiveColumnHandle> effectivePredicate = hiveSplit.getEffectivePredicate();
+        // the readers only use the predicate to skip data, so the dynamic filter can be folded into it
+        TupleDomain<HiveColumnHandle> effectivePredicate = hiveSplit.getEffectivePredicate()
+                .intersect(dynamicFilter.transform(HiveColumnHandle::toHiveColumnHandle));
 
         Properties schema = hiveSplit.getSchema();
 
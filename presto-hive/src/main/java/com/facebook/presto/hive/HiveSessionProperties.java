@@ -32,6 +32,7 @@ public final class HiveSessionProperties
     private static final String ORC_MAX_MERGE_DISTANCE = "orc_max_merge_distance";
     private static final String ORC_MAX_BUFFER_SIZE = "orc_max_buffer_size";
     private static final String ORC_STREAM_BUFFER_SIZE = "orc_stream_buffer_size";
+    private static final String PARQUET_OPTIMIZED_READER_ENABLED = "parquet_optimized_reader_enabled";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -63,6 +64,11 @@ public final class HiveSessionProperties
                         ORC_STREAM_BUFFER_SIZE,
                         "ORC: Size of buffer for streaming reads",
                         config.getOrcMaxBufferSize(),
+                        false),
+                booleanSessionProperty(
+                        PARQUET_OPTIMIZED_READER_ENABLED,
+                        "Experimental: Parquet: Enable optimized reader",
+                        config.isParquetOptimizedReaderEnabled(),
                         false));
     }
 
@@ -96,6 +102,11 @@ public final class HiveSessionProperties
         return session.getProperty(ORC_STREAM_BUFFER_SIZE, DataSize.class);
     }
 
+    public static boolean isParquetOptimizedReaderEnabled(ConnectorSession session)
+    {
+        return session.getProperty(PARQUET_OPTIMIZED_READER_ENABLED, Boolean.class);
+    }
+
     public static PropertyMetadata<DataSize> dataSizeSessionProperty(String name, String description, DataSize defaultValue, boolean hidden)
     {
         return new PropertyMetadata<>(
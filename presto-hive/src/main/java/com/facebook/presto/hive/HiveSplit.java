@@ -22,6 +22,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Properties;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
@@ -43,6 +45,7 @@ public class HiveSplit
     private final String partitionName;
     private final TupleDomain<HiveColumnHandle> effectivePredicate;
     private final boolean forceLocalScheduling;
+    private final Optional<Integer> bucket;
 
     @JsonCreator
     public HiveSplit(
@@ -57,7 +60,8 @@ public class HiveSplit
             @JsonProperty("partitionKeys") List<HivePartitionKey> partitionKeys,
             @JsonProperty("addresses") List<HostAddress> addresses,
             @JsonProperty("forceLocalScheduling") boolean forceLocalScheduling,
-            @JsonProperty("effectivePredicate") TupleDomain<HiveColumnHandle> effectivePredicate)
+            @JsonProperty("effectivePredicate") TupleDomain<HiveColumnHandle> effectivePredicate,
+            @JsonProperty("bucket") Optional<Integer> bucket)
     {
         checkNotNull(clientId, "clientId is null");
         checkArgument(start >= 0, "start must be positive");
@@ -70,6 +74,7 @@ public class HiveSplit
         checkNotNull(partitionKeys, "partitionKeys is null");
         checkNotNull(addresses, "addresses is null");
         checkNotNull(effectivePredicate, "tupleDomain is null");
+        checkNotNull(bucket, "bucket is null");
 
         this.clientId = clientId;
         this.database = database;
@@ -83,6 +88,7 @@ public class HiveSplit
         this.addresses = ImmutableList.copyOf(addresses);
         this.forceLocalScheduling = forceLocalScheduling;
         this.effectivePredicate = effectivePredicate;
+        this.bucket = bucket;
     }
 
     @JsonProperty
@@ -158,6 +164,18 @@ public class HiveSplit
         return forceLocalScheduling;
     }
 
+    @JsonProperty
+    public Optional<Integer> getBucket()
+    {
+        return bucket;
+    }
+
+    @Override
+    public OptionalInt getBucketNumber()
+    {
+        return bucket.isPresent() ? OptionalInt.of(bucket.get()) : OptionalInt.empty();
+    }
+
     @Override
     public boolean isRemotelyAccessible()
     {
@@ -177,6 +195,7 @@ public class HiveSplit
                 .put("forceLocalScheduling", forceLocalScheduling)
                 .put("partitionName", partitionName)
                 .put("effectivePredicate", effectivePredicate)
+                .put("bucket", bucket)
                 .build();
     }
 
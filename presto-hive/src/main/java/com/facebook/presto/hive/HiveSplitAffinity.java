@@ -0,0 +1,142 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.Node;
+import com.facebook.presto.spi.NodeManager;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+
+import javax.inject.Inject;
+
+import java.util.List;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Assigns splits of files that have no locality of their own (for example,
+ * files stored in S3) a preferred worker, so that repeated reads of the same
+ * split land on the worker that has its data in the local file cache. The
+ * preference is only a hint to the scheduler, which will still use other
+ * workers when the preferred one is busy.
+ * <p>
+ * Workers are chosen with rendezvous hashing, so adding or removing a worker
+ * only moves the splits that were assigned to that worker.
+ */
+public class HiveSplitAffinity
+{
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private final String connectorId;
+    private final NodeManager nodeManager;
+    private final boolean enabled;
+
+    @Inject
+    public HiveSplitAffinity(HiveConnectorId connectorId, NodeManager nodeManager, HiveClientConfig config)
+    {
+        this(checkNotNull(connectorId, "connectorId is null").toString(), nodeManager, checkNotNull(config, "config is null").isLocalCacheEnabled());
+    }
+
+    public HiveSplitAffinity(String connectorId, NodeManager nodeManager, boolean enabled)
+    {
+        this.connectorId = checkNotNull(connectorId, "connectorId is null");
+        this.nodeManager = checkNotNull(nodeManager, "nodeManager is null");
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns a snapshot of the workers that splits of a query may be
+     * assigned to. The snapshot assigns no preference if split affinity is
+     * disabled.
+     */
+    public WorkerSnapshot getWorkers()
+    {
+        if (!enabled) {
+            return new WorkerSnapshot(ImmutableList.of());
+        }
+
+        Set<Node> coordinators = nodeManager.getCoordinators();
+        Set<Node> nodes = nodeManager.getActiveDatasourceNodes(connectorId);
+        ImmutableList.Builder<Node> workers = ImmutableList.builder();
+        for (Node node : nodes) {
+            if (!coordinators.contains(node)) {
+                workers.add(node);
+            }
+        }
+        List<Node> result = workers.build();
+        if (result.isEmpty()) {
+            // single node cluster where the coordinator does all the work
+            result = ImmutableList.copyOf(nodes);
+        }
+        return new WorkerSnapshot(result);
+    }
+
+    public static class WorkerSnapshot
+    {
+        private final List<Node> workers;
+        private final Set<String> workerHosts;
+
+        public WorkerSnapshot(List<Node> workers)
+        {
+            this.workers = ImmutableList.copyOf(checkNotNull(workers, "workers is null"));
+            this.workerHosts = ImmutableSet.copyOf(workers.stream()
+                    .map(worker -> worker.getHostAndPort().getHostText())
+                    .collect(toList()));
+        }
+
+        /**
+         * Returns the preferred worker for the split if the file system does not
+         * place any of the split's blocks on one of the workers; otherwise the
+         * block addresses are returned unchanged.
+         */
+        public List<HostAddress> getSplitAddresses(String path, long start, List<HostAddress> blockAddresses)
+        {
+            if (workers.isEmpty() || isLocalToWorker(blockAddresses)) {
+                return blockAddresses;
+            }
+
+            Node preferred = null;
+            long maxScore = Long.MIN_VALUE;
+            for (Node worker : workers) {
+                long score = HASH_FUNCTION.newHasher()
+                        .putString(path, UTF_8)
+                        .putLong(start)
+                        .putString(worker.getNodeIdentifier(), UTF_8)
+                        .hash()
+                        .asLong();
+                if (preferred == null || score > maxScore) {
+                    preferred = worker;
+                    maxScore = score;
+                }
+            }
+            return ImmutableList.of(preferred.getHostAndPort());
+        }
+
+        private boolean isLocalToWorker(List<HostAddress> blockAddresses)
+        {
+            for (HostAddress address : blockAddresses) {
+                if (workerHosts.contains(address.getHostText())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -16,6 +16,7 @@ package com.facebook.presto.hive;
 import com.facebook.presto.hive.metastore.HiveMetastore;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorPartition;
+import com.facebook.presto.spi.ConnectorBucketing;
 import com.facebook.presto.spi.ConnectorPartitionResult;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplit;
@@ -56,11 +57,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.RejectedExecutionException;
 
 import static com.facebook.presto.hive.HiveBucketing.getHiveBucket;
+import static com.facebook.presto.hive.HiveBucketing.getHiveBucketing;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_INVALID_METADATA;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_METASTORE_ERROR;
 import static com.facebook.presto.hive.HiveErrorCode.HIVE_PARTITION_SCHEMA_MISMATCH;
@@ -109,6 +112,7 @@ public class HiveSplitManager
     private final boolean recursiveDfsWalkerEnabled;
     private final boolean assumeCanonicalPartitionKeys;
     private final int domainCompactionThreshold;
+    private final HiveSplitAffinity splitAffinity;
 
     @Inject
     public HiveSplitManager(
@@ -118,7 +122,8 @@ public class HiveSplitManager
             NamenodeStats namenodeStats,
             HdfsEnvironment hdfsEnvironment,
             DirectoryLister directoryLister,
-            @ForHiveClient ExecutorService executorService)
+            @ForHiveClient ExecutorService executorService,
+            HiveSplitAffinity splitAffinity)
     {
         this(connectorId,
                 metastore,
@@ -135,7 +140,8 @@ public class HiveSplitManager
                 hiveClientConfig.getMaxInitialSplits(),
                 hiveClientConfig.isAssumeCanonicalPartitionKeys(),
                 hiveClientConfig.getRecursiveDirWalkerEnabled(),
-                hiveClientConfig.getDomainCompactionThreshold());
+                hiveClientConfig.getDomainCompactionThreshold(),
+                splitAffinity);
     }
 
     public HiveSplitManager(
@@ -154,7 +160,8 @@ public class HiveSplitManager
             int maxInitialSplits,
             boolean assumeCanonicalPartitionKeys,
             boolean recursiveDfsWalkerEnabled,
-            int domainCompactionThreshold)
+            int domainCompactionThreshold,
+            HiveSplitAffinity splitAffinity)
     {
         this.connectorId = checkNotNull(connectorId, "connectorId is null").toString();
         this.metastore = checkNotNull(metastore, "metastore is null");
@@ -174,6 +181,7 @@ public class HiveSplitManager
         this.assumeCanonicalPartitionKeys = assumeCanonicalPartitionKeys;
         checkArgument(domainCompactionThreshold >= 1, "domainCompactionThreshold must be at least 1");
         this.domainCompactionThreshold = domainCompactionThreshold;
+        this.splitAffinity = checkNotNull(splitAffinity, "splitAffinity is null");
     }
 
     @Override
@@ -189,11 +197,12 @@ public class HiveSplitManager
         SchemaTableName tableName = schemaTableName(tableHandle);
         Table table = getTable(tableName);
         Optional<HiveBucketing.HiveBucket> bucket = getHiveBucket(table, effectivePredicate.extractFixedValues());
+        Optional<ConnectorBucketing> bucketing = getHiveBucketing(connectorId, table);
 
         TupleDomain<HiveColumnHandle> compactEffectivePredicate = toCompactTupleDomain(effectivePredicate, domainCompactionThreshold);
 
         if (table.getPartitionKeys().isEmpty()) {
-            return new ConnectorPartitionResult(ImmutableList.of(new HivePartition(tableName, compactEffectivePredicate, bucket)), effectivePredicate);
+            return new ConnectorPartitionResult(ImmutableList.of(new HivePartition(tableName, compactEffectivePredicate, bucket)), effectivePredicate, bucketing);
         }
 
         List<HiveColumnHandle> partitionColumns = getPartitionKeyColumnHandles(connectorId, table, 0);
@@ -211,7 +220,7 @@ public class HiveSplitManager
 
         // All partition key domains will be fully evaluated, so we don't need to include those
         TupleDomain<ColumnHandle> remainingTupleDomain = TupleDomain.withColumnDomains(Maps.filterKeys(effectivePredicate.getDomains(), not(Predicates.<ColumnHandle>in(partitionColumns))));
-        return new ConnectorPartitionResult(partitions.build(), remainingTupleDomain);
+        return new ConnectorPartitionResult(partitions.build(), remainingTupleDomain, bucketing);
     }
 
     private static TupleDomain<HiveColumnHandle> toCompactTupleDomain(TupleDomain<ColumnHandle> effectivePredicate, int threshold)
@@ -358,12 +367,14 @@ public class HiveSplitManager
             throw new TableNotFoundException(tableName);
         }
         Iterable<HivePartitionMetadata> hivePartitions = getPartitionMetadata(table.get(), tableName, partitions);
+        Optional<ConnectorBucketing> bucketing = getHiveBucketing(connectorId, table.get());
 
         HiveSplitLoader hiveSplitLoader = new BackgroundHiveSplitLoader(
                 connectorId,
                 table.get(),
                 hivePartitions,
                 bucket,
+                bucketing.isPresent() ? OptionalInt.of(bucketing.get().getBucketCount()) : OptionalInt.empty(),
                 maxSplitSize,
                 session,
                 hdfsEnvironment,
@@ -373,7 +384,8 @@ public class HiveSplitManager
                 maxPartitionBatchSize,
                 maxInitialSplitSize,
                 maxInitialSplits,
-                recursiveDfsWalkerEnabled);
+                recursiveDfsWalkerEnabled,
+                splitAffinity.getWorkers());
 
         HiveSplitSource splitSource = new HiveSplitSource(connectorId, maxOutstandingSplits, hiveSplitLoader);
         hiveSplitLoader.start(splitSource);
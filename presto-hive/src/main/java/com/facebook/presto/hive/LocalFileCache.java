@@ -0,0 +1,358 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.primitives.Ints;
+import io.airlift.log.Logger;
+import io.airlift.stats.CounterStat;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+import org.weakref.jmx.Nested;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * Worker-local read-through cache of remote file data. Files are divided into
+ * fixed size chunks which are stored as individual files in a local directory
+ * and evicted in least recently used order once the configured size is reached.
+ * Chunks are keyed by the file path together with its modification time and
+ * length, so data of a file that is rewritten in place is never returned.
+ * <p>
+ * The chunk index is kept in memory only, so chunk files left behind by a
+ * previous process are deleted when the cache is created. Each catalog uses
+ * its own subdirectory of the configured cache directory.
+ */
+@ThreadSafe
+public class LocalFileCache
+{
+    private static final Logger log = Logger.get(LocalFileCache.class);
+
+    private static final String CHUNK_FILE_SUFFIX = ".chunk";
+
+    private final boolean enabled;
+    private final File directory;
+    private final int chunkSize;
+    private final Cache<ChunkKey, File> chunks;
+    private final AtomicLong nextChunkFileId = new AtomicLong();
+
+    private final CounterStat cachedBytesRead = new CounterStat();
+    private final CounterStat remoteBytesRead = new CounterStat();
+    private final CounterStat writeFailures = new CounterStat();
+
+    @Inject
+    public LocalFileCache(HiveConnectorId connectorId, HiveClientConfig config)
+    {
+        this(checkNotNull(config, "config is null").isLocalCacheEnabled(),
+                new File(config.getLocalCacheDirectory(), checkNotNull(connectorId, "connectorId is null").toString()),
+                config.getLocalCacheMaxSize(),
+                config.getLocalCacheChunkSize());
+    }
+
+    public LocalFileCache(boolean enabled, File directory, DataSize maxSize, DataSize chunkSize)
+    {
+        this.enabled = enabled;
+        this.directory = checkNotNull(directory, "directory is null");
+        checkNotNull(maxSize, "maxSize is null");
+        this.chunkSize = Ints.checkedCast(checkNotNull(chunkSize, "chunkSize is null").toBytes());
+        checkArgument(this.chunkSize > 0, "chunkSize must be positive");
+
+        this.chunks = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<ChunkKey, File>weigher((key, file) -> key.getLength())
+                .removalListener(LocalFileCache::deleteChunkFile)
+                .recordStats()
+                .build();
+
+        if (enabled) {
+            initializeDirectory(directory);
+        }
+    }
+
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Reads {@code length} bytes at {@code position} of the specified file into
+     * the buffer, using cached chunks where possible and reading runs of missing
+     * chunks from the remote source with a single request.
+     */
+    public void read(String path, long modificationTime, long fileSize, long position, byte[] buffer, int bufferOffset, int length, RemoteReader remoteReader)
+            throws IOException
+    {
+        checkArgument(position >= 0 && position + length <= fileSize, "read [%s, %s) is outside of file %s of size %s", position, position + length, path, fileSize);
+        if (length == 0) {
+            return;
+        }
+
+        long firstChunk = position / chunkSize;
+        long lastChunk = (position + length - 1) / chunkSize;
+
+        long missingRunStart = -1;
+        for (long chunk = firstChunk; chunk <= lastChunk; chunk++) {
+            ChunkKey key = createChunkKey(path, modificationTime, fileSize, chunk);
+            if (readCachedChunk(key, position, buffer, bufferOffset, length)) {
+                if (missingRunStart >= 0) {
+                    loadChunks(path, modificationTime, fileSize, missingRunStart, chunk - 1, position, buffer, bufferOffset, length, remoteReader);
+                    missingRunStart = -1;
+                }
+            }
+            else if (missingRunStart < 0) {
+                missingRunStart = chunk;
+            }
+        }
+        if (missingRunStart >= 0) {
+            loadChunks(path, modificationTime, fileSize, missingRunStart, lastChunk, position, buffer, bufferOffset, length, remoteReader);
+        }
+    }
+
+    private boolean readCachedChunk(ChunkKey key, long position, byte[] buffer, int bufferOffset, int length)
+    {
+        File file = chunks.getIfPresent(key);
+        if (file == null) {
+            return false;
+        }
+
+        long start = max(position, key.getOffset());
+        long end = min(position + length, key.getOffset() + key.getLength());
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            input.seek(start - key.getOffset());
+            input.readFully(buffer, bufferOffset + Ints.checkedCast(start - position), Ints.checkedCast(end - start));
+        }
+        catch (IOException e) {
+            // the chunk was evicted concurrently or the local disk failed, so fall back to the remote source
+            chunks.invalidate(key);
+            return false;
+        }
+        cachedBytesRead.update(end - start);
+        return true;
+    }
+
+    private void loadChunks(
+            String path,
+            long modificationTime,
+            long fileSize,
+            long firstChunk,
+            long lastChunk,
+            long position,
+            byte[] buffer,
+            int bufferOffset,
+            int length,
+            RemoteReader remoteReader)
+            throws IOException
+    {
+        long runStart = firstChunk * chunkSize;
+        long runEnd = min((lastChunk + 1) * chunkSize, fileSize);
+        byte[] data = new byte[Ints.checkedCast(runEnd - runStart)];
+        remoteReader.read(runStart, data, 0, data.length);
+        remoteBytesRead.update(data.length);
+
+        long start = max(position, runStart);
+        long end = min(position + length, runEnd);
+        System.arraycopy(data, Ints.checkedCast(start - runStart), buffer, bufferOffset + Ints.checkedCast(start - position), Ints.checkedCast(end - start));
+
+        for (long chunk = firstChunk; chunk <= lastChunk; chunk++) {
+            ChunkKey key = createChunkKey(path, modificationTime, fileSize, chunk);
+            storeChunk(key, data, Ints.checkedCast(key.getOffset() - runStart));
+        }
+    }
+
+    private void storeChunk(ChunkKey key, byte[] data, int dataOffset)
+    {
+        File file = new File(directory, nextChunkFileId.getAndIncrement() + CHUNK_FILE_SUFFIX);
+        File temporaryFile = new File(directory, file.getName() + ".tmp");
+        try {
+            try (FileOutputStream output = new FileOutputStream(temporaryFile)) {
+                output.write(data, dataOffset, key.getLength());
+            }
+            Files.move(temporaryFile.toPath(), file.toPath(), ATOMIC_MOVE);
+        }
+        catch (IOException e) {
+            // caching is best effort, the data has already been read
+            writeFailures.update(1);
+            log.debug(e, "Failed to write cache chunk %s", file);
+            temporaryFile.delete();
+            return;
+        }
+        chunks.put(key, file);
+    }
+
+    private ChunkKey createChunkKey(String path, long modificationTime, long fileSize, long chunk)
+    {
+        long offset = chunk * chunkSize;
+        return new ChunkKey(path, modificationTime, fileSize, offset, Ints.checkedCast(min(chunkSize, fileSize - offset)));
+    }
+
+    private static void deleteChunkFile(RemovalNotification<ChunkKey, File> notification)
+    {
+        File file = notification.getValue();
+        if (file != null && !file.delete() && file.exists()) {
+            log.warn("Failed to delete cache chunk %s", file);
+        }
+    }
+
+    private static void initializeDirectory(File directory)
+    {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalArgumentException("Cannot create local cache directory: " + directory);
+        }
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(CHUNK_FILE_SUFFIX) || name.endsWith(CHUNK_FILE_SUFFIX + ".tmp"));
+        if (files != null) {
+            for (File file : files) {
+                if (!file.delete()) {
+                    log.warn("Failed to delete stale cache chunk %s", file);
+                }
+            }
+        }
+    }
+
+    @Managed
+    public long getChunkCount()
+    {
+        return chunks.size();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return chunks.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return chunks.stats().missCount();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return chunks.stats().evictionCount();
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getCachedBytesRead()
+    {
+        return cachedBytesRead;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getRemoteBytesRead()
+    {
+        return remoteBytesRead;
+    }
+
+    @Managed
+    @Nested
+    public CounterStat getWriteFailures()
+    {
+        return writeFailures;
+    }
+
+    @Managed
+    public void flush()
+    {
+        chunks.invalidateAll();
+    }
+
+    public interface RemoteReader
+    {
+        void read(long position, byte[] buffer, int bufferOffset, int length)
+                throws IOException;
+    }
+
+    private static final class ChunkKey
+    {
+        private final String path;
+        private final long modificationTime;
+        private final long fileSize;
+        private final long offset;
+        private final int length;
+
+        private ChunkKey(String path, long modificationTime, long fileSize, long offset, int length)
+        {
+            this.path = checkNotNull(path, "path is null");
+            this.modificationTime = modificationTime;
+            this.fileSize = fileSize;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        public long getOffset()
+        {
+            return offset;
+        }
+
+        public int getLength()
+        {
+            return length;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(path, modificationTime, fileSize, offset);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            ChunkKey other = (ChunkKey) obj;
+            return Objects.equals(this.path, other.path) &&
+                    this.modificationTime == other.modificationTime &&
+                    this.fileSize == other.fileSize &&
+                    this.offset == other.offset;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("path", path)
+                    .add("modificationTime", modificationTime)
+                    .add("fileSize", fileSize)
+                    .add("offset", offset)
+                    .add("length", length)
+                    .toString();
+        }
+    }
+}
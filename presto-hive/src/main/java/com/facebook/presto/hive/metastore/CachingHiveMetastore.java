@@ -37,13 +37,16 @@ import org.apache.hadoop.hive.common.FileUtils;
 import org.apache.hadoop.hive.metastore.TableType;
 import org.apache.hadoop.hive.metastore.Warehouse;
 import org.apache.hadoop.hive.metastore.api.AlreadyExistsException;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
+import org.apache.hadoop.hive.metastore.api.FieldSchema;
 import org.apache.hadoop.hive.metastore.api.InvalidObjectException;
 import org.apache.hadoop.hive.metastore.api.InvalidOperationException;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.api.TableStatsRequest;
 import org.apache.hadoop.hive.metastore.api.UnknownDBException;
 import org.apache.thrift.TException;
 import org.weakref.jmx.Flatten;
@@ -93,6 +96,7 @@ public class CachingHiveMetastore
     private final LoadingCache<String, Optional<List<String>>> viewNamesCache;
     private final LoadingCache<HiveTableName, Optional<List<String>>> partitionNamesCache;
     private final LoadingCache<HiveTableName, Optional<Table>> tableCache;
+    private final LoadingCache<HiveTableName, Optional<Map<String, ColumnStatisticsObj>>> tableColumnStatisticsCache;
     private final LoadingCache<HivePartitionName, Optional<Partition>> partitionCache;
     private final LoadingCache<PartitionFilter, Optional<List<String>>> partitionFilterCache;
 
@@ -164,6 +168,19 @@ public class CachingHiveMetastore
                     }
                 }, executor));
 
+        tableColumnStatisticsCache = CacheBuilder.newBuilder()
+                .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
+                .refreshAfterWrite(refreshMills, MILLISECONDS)
+                .build(asyncReloading(new CacheLoader<HiveTableName, Optional<Map<String, ColumnStatisticsObj>>>()
+                {
+                    @Override
+                    public Optional<Map<String, ColumnStatisticsObj>> load(HiveTableName hiveTableName)
+                            throws Exception
+                    {
+                        return loadTableColumnStatistics(hiveTableName);
+                    }
+                }, executor));
+
         viewNamesCache = CacheBuilder.newBuilder()
                 .expireAfterWrite(expiresAfterWriteMillis, MILLISECONDS)
                 .refreshAfterWrite(refreshMills, MILLISECONDS)
@@ -241,6 +258,7 @@ public class CachingHiveMetastore
         partitionNamesCache.invalidateAll();
         databaseCache.invalidateAll();
         tableCache.invalidateAll();
+        tableColumnStatisticsCache.invalidateAll();
         partitionCache.invalidateAll();
         partitionFilterCache.invalidateAll();
     }
@@ -461,6 +479,7 @@ public class CachingHiveMetastore
     protected void invalidateTable(String databaseName, String tableName)
     {
         tableCache.invalidate(new HiveTableName(databaseName, tableName));
+        tableColumnStatisticsCache.invalidate(new HiveTableName(databaseName, tableName));
         tableNamesCache.invalidate(databaseName);
         viewNamesCache.invalidate(databaseName);
     }
@@ -533,6 +552,44 @@ public class CachingHiveMetastore
         }
     }
 
+    @Override
+    public Optional<Map<String, ColumnStatisticsObj>> getTableColumnStatistics(String databaseName, String tableName)
+    {
+        return get(tableColumnStatisticsCache, HiveTableName.table(databaseName, tableName));
+    }
+
+    private Optional<Map<String, ColumnStatisticsObj>> loadTableColumnStatistics(HiveTableName hiveTableName)
+            throws Exception
+    {
+        Optional<Table> table = getTable(hiveTableName.getDatabaseName(), hiveTableName.getTableName());
+        if (!table.isPresent()) {
+            return Optional.empty();
+        }
+        List<String> columnNames = ImmutableList.copyOf(transform(table.get().getSd().getCols(), FieldSchema::getName));
+
+        try {
+            return retry()
+                    .stopOn(NoSuchObjectException.class)
+                    .stopOnIllegalExceptions()
+                    .run("getTableStatistics", stats.getGetTableStatistics().wrap(() -> {
+                        try (HiveMetastoreClient client = clientProvider.createMetastoreClient()) {
+                            TableStatsRequest request = new TableStatsRequest(hiveTableName.getDatabaseName(), hiveTableName.getTableName(), columnNames);
+                            ImmutableMap.Builder<String, ColumnStatisticsObj> statistics = ImmutableMap.builder();
+                            for (ColumnStatisticsObj columnStatistics : client.get_table_statistics_req(request).getTableStats()) {
+                                statistics.put(columnStatistics.getColName(), columnStatistics);
+                            }
+                            return Optional.of(statistics.build());
+                        }
+                    }));
+        }
+        catch (NoSuchObjectException e) {
+            return Optional.empty();
+        }
+        catch (TException e) {
+            throw new PrestoException(HIVE_METASTORE_ERROR, e);
+        }
+    }
+
     @Override
     public Optional<List<String>> getPartitionNames(String databaseName, String tableName)
     {
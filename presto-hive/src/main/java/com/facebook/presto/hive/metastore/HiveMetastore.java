@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.hive.metastore;
 
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.Table;
@@ -48,4 +49,10 @@ public interface HiveMetastore
     Optional<Map<String, Partition>> getPartitionsByNames(String databaseName, String tableName, List<String> partitionNames);
 
     Optional<Table> getTable(String databaseName, String tableName);
+
+    /**
+     * Returns the statistics of the columns of the table, keyed by column name.
+     * Columns without statistics are not included.
+     */
+    Optional<Map<String, ColumnStatisticsObj>> getTableColumnStatistics(String databaseName, String tableName);
 }
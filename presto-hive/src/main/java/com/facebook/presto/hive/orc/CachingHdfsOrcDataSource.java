@@ -0,0 +1,57 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.orc;
+
+import com.facebook.presto.hive.LocalFileCache;
+import io.airlift.units.DataSize;
+import org.apache.hadoop.fs.FSDataInputStream;
+
+import java.io.IOException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An ORC data source that serves reads from the worker-local file cache and
+ * only goes to the remote file system for chunks that are not cached yet.
+ */
+public class CachingHdfsOrcDataSource
+        extends HdfsOrcDataSource
+{
+    private final String path;
+    private final long modificationTime;
+    private final LocalFileCache localFileCache;
+
+    public CachingHdfsOrcDataSource(
+            String path,
+            long size,
+            long modificationTime,
+            DataSize maxMergeDistance,
+            DataSize maxReadSize,
+            DataSize streamBufferSize,
+            FSDataInputStream inputStream,
+            LocalFileCache localFileCache)
+    {
+        super(path, size, maxMergeDistance, maxReadSize, streamBufferSize, inputStream);
+        this.path = checkNotNull(path, "path is null");
+        this.modificationTime = modificationTime;
+        this.localFileCache = checkNotNull(localFileCache, "localFileCache is null");
+    }
+
+    @Override
+    protected void readInternal(long position, byte[] buffer, int bufferOffset, int bufferLength)
+            throws IOException
+    {
+        localFileCache.read(path, modificationTime, getSize(), position, buffer, bufferOffset, bufferLength, super::readInternal);
+    }
+}
@@ -14,9 +14,12 @@
 package com.facebook.presto.hive.orc;
 
 import com.facebook.hive.orc.OrcSerde;
+import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveColumnHandle;
+import com.facebook.presto.hive.HiveConnectorId;
 import com.facebook.presto.hive.HivePageSourceFactory;
 import com.facebook.presto.hive.HivePartitionKey;
+import com.facebook.presto.hive.LocalFileCache;
 import com.facebook.presto.orc.metadata.DwrfMetadataReader;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
@@ -44,11 +47,20 @@ public class DwrfPageSourceFactory
         implements HivePageSourceFactory
 {
     private final TypeManager typeManager;
+    private final OrcFileTailCache fileTailCache;
+    private final LocalFileCache localFileCache;
 
-    @Inject
     public DwrfPageSourceFactory(TypeManager typeManager)
+    {
+        this(typeManager, new OrcFileTailCache(new HiveClientConfig()), new LocalFileCache(new HiveConnectorId("dwrf"), new HiveClientConfig()));
+    }
+
+    @Inject
+    public DwrfPageSourceFactory(TypeManager typeManager, OrcFileTailCache fileTailCache, LocalFileCache localFileCache)
     {
         this.typeManager = checkNotNull(typeManager, "typeManager is null");
+        this.fileTailCache = checkNotNull(fileTailCache, "fileTailCache is null");
+        this.localFileCache = checkNotNull(localFileCache, "localFileCache is null");
     }
 
     @Override
@@ -73,6 +85,8 @@ public class DwrfPageSourceFactory
 
         return Optional.of(createOrcPageSource(
                 new DwrfMetadataReader(),
+                fileTailCache,
+                localFileCache,
                 configuration,
                 path,
                 start,
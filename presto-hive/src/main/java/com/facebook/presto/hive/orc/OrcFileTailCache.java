@@ -0,0 +1,161 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.orc;
+
+import com.facebook.presto.hive.HiveClientConfig;
+import com.facebook.presto.orc.OrcFileTail;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
+import static com.google.common.base.Throwables.propagateIfInstanceOf;
+
+/**
+ * Worker-wide cache of decoded ORC and DWRF file tails. Entries are keyed by
+ * the file path together with its modification time and length, so a file
+ * that is rewritten in place is never served a stale tail. The cache is
+ * bounded by the estimated heap size of the decoded tails.
+ */
+@ThreadSafe
+public class OrcFileTailCache
+{
+    private final Cache<FileKey, OrcFileTail> cache;
+
+    @Inject
+    public OrcFileTailCache(HiveClientConfig hiveClientConfig)
+    {
+        this(checkNotNull(hiveClientConfig, "hiveClientConfig is null").getOrcFileTailCacheSize());
+    }
+
+    public OrcFileTailCache(DataSize maxSize)
+    {
+        checkNotNull(maxSize, "maxSize is null");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .<FileKey, OrcFileTail>weigher((key, tail) -> Ints.saturatedCast(tail.getRetainedSizeInBytes()))
+                .recordStats()
+                .build();
+    }
+
+    public OrcFileTail get(String format, String path, long modificationTime, long length, Callable<OrcFileTail> loader)
+            throws IOException
+    {
+        try {
+            return cache.get(new FileKey(format, path, modificationTime, length), loader);
+        }
+        catch (ExecutionException | UncheckedExecutionException e) {
+            propagateIfInstanceOf(e.getCause(), IOException.class);
+            throw propagate(e.getCause());
+        }
+    }
+
+    @Managed
+    public long getSize()
+    {
+        return cache.size();
+    }
+
+    @Managed
+    public long getHitCount()
+    {
+        return cache.stats().hitCount();
+    }
+
+    @Managed
+    public long getMissCount()
+    {
+        return cache.stats().missCount();
+    }
+
+    @Managed
+    public double getHitRate()
+    {
+        return cache.stats().hitRate();
+    }
+
+    @Managed
+    public long getEvictionCount()
+    {
+        return cache.stats().evictionCount();
+    }
+
+    @Managed
+    public void flush()
+    {
+        cache.invalidateAll();
+    }
+
+    private static final class FileKey
+    {
+        private final String format;
+        private final String path;
+        private final long modificationTime;
+        private final long length;
+
+        private FileKey(String format, String path, long modificationTime, long length)
+        {
+            this.format = checkNotNull(format, "format is null");
+            this.path = checkNotNull(path, "path is null");
+            this.modificationTime = modificationTime;
+            this.length = length;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(format, path, modificationTime, length);
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj) {
+                return true;
+            }
+            if (obj == null || getClass() != obj.getClass()) {
+                return false;
+            }
+            FileKey other = (FileKey) obj;
+            return Objects.equals(this.format, other.format) &&
+                    Objects.equals(this.path, other.path) &&
+                    this.modificationTime == other.modificationTime &&
+                    this.length == other.length;
+        }
+
+        @Override
+        public String toString()
+        {
+            return toStringHelper(this)
+                    .add("format", format)
+                    .add("path", path)
+                    .add("modificationTime", modificationTime)
+                    .add("length", length)
+                    .toString();
+        }
+    }
+}
@@ -471,17 +471,36 @@ public class OrcPageSource
             try {
                 SliceVector vector = new SliceVector();
                 recordReader.readVector(hiveColumnIndex, vector);
-                if (vector.dictionary) {
-                    block.setValues(vector.vector, vector.ids, vector.isNull);
-                }
-                else {
-                    block.setValues(vector.vector);
-                }
+                setValues(block, vector);
             }
             catch (IOException e) {
                 throw propagateException(e);
             }
         }
+
+        @Override
+        public void load(LazySliceArrayBlock block, int[] positions, int positionCount)
+        {
+            checkState(batchId == expectedBatchId);
+            try {
+                SliceVector vector = new SliceVector();
+                recordReader.readVector(hiveColumnIndex, vector, positions, positionCount);
+                setValues(block, vector);
+            }
+            catch (IOException e) {
+                throw propagateException(e);
+            }
+        }
+
+        private void setValues(LazySliceArrayBlock block, SliceVector vector)
+        {
+            if (vector.dictionary) {
+                block.setValues(vector.vector, vector.ids, vector.isNull);
+            }
+            else {
+                block.setValues(vector.vector);
+            }
+        }
     }
 
     private final class LazyStructuralBlockLoader
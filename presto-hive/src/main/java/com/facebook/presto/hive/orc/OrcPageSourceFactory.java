@@ -13,10 +13,14 @@
  */
 package com.facebook.presto.hive.orc;
 
+import com.facebook.presto.hive.HiveClientConfig;
 import com.facebook.presto.hive.HiveColumnHandle;
+import com.facebook.presto.hive.HiveConnectorId;
 import com.facebook.presto.hive.HivePageSourceFactory;
 import com.facebook.presto.hive.HivePartitionKey;
+import com.facebook.presto.hive.LocalFileCache;
 import com.facebook.presto.orc.OrcDataSource;
+import com.facebook.presto.orc.OrcFileTail;
 import com.facebook.presto.orc.OrcPredicate;
 import com.facebook.presto.orc.OrcReader;
 import com.facebook.presto.orc.OrcRecordReader;
@@ -35,6 +39,7 @@ import com.google.common.collect.ImmutableMap;
 import io.airlift.units.DataSize;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
@@ -63,11 +68,20 @@ public class OrcPageSourceFactory
         implements HivePageSourceFactory
 {
     private final TypeManager typeManager;
+    private final OrcFileTailCache fileTailCache;
+    private final LocalFileCache localFileCache;
 
-    @Inject
     public OrcPageSourceFactory(TypeManager typeManager)
+    {
+        this(typeManager, new OrcFileTailCache(new HiveClientConfig()), new LocalFileCache(new HiveConnectorId("orc"), new HiveClientConfig()));
+    }
+
+    @Inject
+    public OrcPageSourceFactory(TypeManager typeManager, OrcFileTailCache fileTailCache, LocalFileCache localFileCache)
     {
         this.typeManager = checkNotNull(typeManager, "typeManager is null");
+        this.fileTailCache = checkNotNull(fileTailCache, "fileTailCache is null");
+        this.localFileCache = checkNotNull(localFileCache, "localFileCache is null");
     }
 
     @Override
@@ -93,6 +107,8 @@ public class OrcPageSourceFactory
 
         return Optional.of(createOrcPageSource(
                 new OrcMetadataReader(),
+                fileTailCache,
+                localFileCache,
                 configuration,
                 path,
                 start,
@@ -108,6 +124,8 @@ public class OrcPageSourceFactory
     }
 
     public static OrcPageSource createOrcPageSource(MetadataReader metadataReader,
+            OrcFileTailCache fileTailCache,
+            LocalFileCache localFileCache,
             Configuration configuration,
             Path path,
             long start,
@@ -122,11 +140,25 @@ public class OrcPageSourceFactory
             DataSize streamBufferSize)
     {
         OrcDataSource orcDataSource;
+        FileStatus fileStatus;
         try {
             FileSystem fileSystem = path.getFileSystem(configuration);
-            long size = fileSystem.getFileStatus(path).getLen();
+            fileStatus = fileSystem.getFileStatus(path);
             FSDataInputStream inputStream = fileSystem.open(path);
-            orcDataSource = new HdfsOrcDataSource(path.toString(), size, maxMergeDistance, maxBufferSize, streamBufferSize, inputStream);
+            if (localFileCache.isEnabled()) {
+                orcDataSource = new CachingHdfsOrcDataSource(
+                        path.toString(),
+                        fileStatus.getLen(),
+                        fileStatus.getModificationTime(),
+                        maxMergeDistance,
+                        maxBufferSize,
+                        streamBufferSize,
+                        inputStream,
+                        localFileCache);
+            }
+            else {
+                orcDataSource = new HdfsOrcDataSource(path.toString(), fileStatus.getLen(), maxMergeDistance, maxBufferSize, streamBufferSize, inputStream);
+            }
         }
         catch (Exception e) {
             if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
@@ -149,7 +181,13 @@ public class OrcPageSourceFactory
         OrcPredicate predicate = new TupleDomainOrcPredicate<>(effectivePredicate, columnReferences.build());
 
         try {
-            OrcReader reader = new OrcReader(orcDataSource, metadataReader);
+            OrcFileTail fileTail = fileTailCache.get(
+                    metadataReader.getClass().getName(),
+                    path.toString(),
+                    fileStatus.getModificationTime(),
+                    fileStatus.getLen(),
+                    () -> OrcFileTail.readFileTail(orcDataSource, metadataReader));
+            OrcReader reader = new OrcReader(orcDataSource, metadataReader, fileTail);
             OrcRecordReader recordReader = reader.createRecordReader(
                     includedColumns.build(),
                     predicate,
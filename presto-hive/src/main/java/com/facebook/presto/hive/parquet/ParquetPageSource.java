@@ -0,0 +1,506 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.hive.HiveColumnHandle;
+import com.facebook.presto.hive.HivePartitionKey;
+import com.facebook.presto.hive.HiveUtil;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.LazyBlockLoader;
+import com.facebook.presto.spi.block.LazyFixedWidthBlock;
+import com.facebook.presto.spi.block.LazySliceArrayBlock;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeManager;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+import parquet.column.ColumnDescriptor;
+import parquet.column.ColumnReader;
+import parquet.column.impl.ColumnReadStoreImpl;
+import parquet.column.page.PageReadStore;
+import parquet.hadoop.ParquetFileReader;
+import parquet.hadoop.metadata.BlockMetaData;
+import parquet.io.api.Converter;
+import parquet.io.api.GroupConverter;
+import parquet.io.api.PrimitiveConverter;
+import parquet.schema.MessageType;
+import parquet.schema.PrimitiveType.PrimitiveTypeName;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_CURSOR_ERROR;
+import static com.facebook.presto.hive.HiveUtil.bigintPartitionKey;
+import static com.facebook.presto.hive.HiveUtil.booleanPartitionKey;
+import static com.facebook.presto.hive.HiveUtil.doublePartitionKey;
+import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.collect.Maps.uniqueIndex;
+import static io.airlift.slice.Slices.wrappedBooleanArray;
+import static io.airlift.slice.Slices.wrappedDoubleArray;
+import static io.airlift.slice.Slices.wrappedLongArray;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads the column chunks of a Parquet file column by column into blocks. Each value is
+ * decoded by the Parquet column reader, which handles the plain, dictionary and RLE/bit-packed
+ * encodings, without assembling records. Only top level primitive columns are supported.
+ */
+public class ParquetPageSource
+        implements ConnectorPageSource
+{
+    private static final int MAX_VECTOR_LENGTH = 1024;
+    private static final int NULL_ENTRY_SIZE = 0;
+
+    private final ParquetFileReader fileReader;
+    private final MessageType requestedSchema;
+    private final List<BlockMetaData> rowGroups;
+    private final long totalBytes;
+
+    private final List<String> columnNames;
+    private final List<Type> types;
+
+    private final Block[] constantBlocks;
+    private final ColumnDescriptor[] columnDescriptors;
+    private final ColumnReader[] columnReaders;
+    private final long[] columnPositions;
+
+    private int nextRowGroup;
+    private long rowGroupRowCount;
+    private long rowGroupPosition;
+
+    private long completedBytes;
+    private long readTimeNanos;
+
+    private int batchId;
+    private boolean closed;
+
+    public ParquetPageSource(
+            ParquetFileReader fileReader,
+            MessageType requestedSchema,
+            List<BlockMetaData> rowGroups,
+            Map<HiveColumnHandle, ColumnDescriptor> columnDescriptors,
+            List<HivePartitionKey> partitionKeys,
+            List<HiveColumnHandle> columns,
+            TypeManager typeManager)
+    {
+        this.fileReader = checkNotNull(fileReader, "fileReader is null");
+        this.requestedSchema = checkNotNull(requestedSchema, "requestedSchema is null");
+        this.rowGroups = ImmutableList.copyOf(checkNotNull(rowGroups, "rowGroups is null"));
+        checkNotNull(columnDescriptors, "columnDescriptors is null");
+
+        long totalBytes = 0;
+        for (BlockMetaData rowGroup : rowGroups) {
+            totalBytes += rowGroup.getTotalByteSize();
+        }
+        this.totalBytes = totalBytes;
+
+        Map<String, HivePartitionKey> partitionKeysByName = uniqueIndex(checkNotNull(partitionKeys, "partitionKeys is null"), HivePartitionKey::getName);
+
+        int size = checkNotNull(columns, "columns is null").size();
+
+        this.constantBlocks = new Block[size];
+        this.columnDescriptors = new ColumnDescriptor[size];
+        this.columnReaders = new ColumnReader[size];
+        this.columnPositions = new long[size];
+
+        ImmutableList.Builder<String> namesBuilder = ImmutableList.builder();
+        ImmutableList.Builder<Type> typesBuilder = ImmutableList.builder();
+        for (int columnIndex = 0; columnIndex < columns.size(); columnIndex++) {
+            HiveColumnHandle column = columns.get(columnIndex);
+
+            String name = column.getName();
+            Type type = typeManager.getType(column.getTypeSignature());
+
+            namesBuilder.add(name);
+            typesBuilder.add(type);
+
+            if (column.isPartitionKey()) {
+                HivePartitionKey partitionKey = partitionKeysByName.get(name);
+                checkArgument(partitionKey != null, "No value provided for partition key %s", name);
+
+                byte[] bytes = partitionKey.getValue().getBytes(UTF_8);
+
+                BlockBuilder blockBuilder;
+                if (type instanceof FixedWidthType) {
+                    blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), MAX_VECTOR_LENGTH);
+                }
+                else {
+                    blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), MAX_VECTOR_LENGTH, bytes.length);
+                }
+
+                if (HiveUtil.isHiveNull(bytes)) {
+                    for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
+                        blockBuilder.appendNull();
+                    }
+                }
+                else if (type.equals(BOOLEAN)) {
+                    boolean value = booleanPartitionKey(partitionKey.getValue(), name);
+                    for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
+                        BOOLEAN.writeBoolean(blockBuilder, value);
+                    }
+                }
+                else if (type.equals(BIGINT)) {
+                    long value = bigintPartitionKey(partitionKey.getValue(), name);
+                    for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
+                        BIGINT.writeLong(blockBuilder, value);
+                    }
+                }
+                else if (type.equals(DOUBLE)) {
+                    double value = doublePartitionKey(partitionKey.getValue(), name);
+                    for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
+                        DOUBLE.writeDouble(blockBuilder, value);
+                    }
+                }
+                else if (type.equals(VARCHAR)) {
+                    Slice value = Slices.wrappedBuffer(bytes);
+                    for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
+                        VARCHAR.writeSlice(blockBuilder, value);
+                    }
+                }
+                else {
+                    throw new PrestoException(NOT_SUPPORTED, format("Unsupported column type %s for partition key: %s", type.getDisplayName(), name));
+                }
+
+                constantBlocks[columnIndex] = blockBuilder.build();
+            }
+            else if (!columnDescriptors.containsKey(column)) {
+                BlockBuilder blockBuilder = type.createBlockBuilder(new BlockBuilderStatus(), MAX_VECTOR_LENGTH, NULL_ENTRY_SIZE);
+                for (int i = 0; i < MAX_VECTOR_LENGTH; i++) {
+                    blockBuilder.appendNull();
+                }
+                constantBlocks[columnIndex] = blockBuilder.build();
+            }
+            else {
+                this.columnDescriptors[columnIndex] = columnDescriptors.get(column);
+            }
+        }
+        types = typesBuilder.build();
+        columnNames = namesBuilder.build();
+    }
+
+    @Override
+    public long getTotalBytes()
+    {
+        return totalBytes;
+    }
+
+    @Override
+    public long getCompletedBytes()
+    {
+        return completedBytes;
+    }
+
+    @Override
+    public long getReadTimeNanos()
+    {
+        return readTimeNanos;
+    }
+
+    @Override
+    public boolean isFinished()
+    {
+        return closed;
+    }
+
+    @Override
+    public Page getNextPage()
+    {
+        try {
+            batchId++;
+            while (rowGroupPosition >= rowGroupRowCount) {
+                if (!advanceRowGroup()) {
+                    close();
+                    return null;
+                }
+            }
+
+            int batchSize = (int) min(MAX_VECTOR_LENGTH, rowGroupRowCount - rowGroupPosition);
+
+            Block[] blocks = new Block[columnDescriptors.length];
+            for (int fieldId = 0; fieldId < blocks.length; fieldId++) {
+                Type type = types.get(fieldId);
+                if (constantBlocks[fieldId] != null) {
+                    blocks[fieldId] = constantBlocks[fieldId].getRegion(0, batchSize);
+                }
+                else if (BOOLEAN.equals(type) || BIGINT.equals(type) || DOUBLE.equals(type)) {
+                    blocks[fieldId] = new LazyFixedWidthBlock(((FixedWidthType) type).getFixedSize(), batchSize, new LazyFixedWidthBlockLoader(fieldId, rowGroupPosition, batchSize));
+                }
+                else if (VARCHAR.equals(type)) {
+                    blocks[fieldId] = new LazySliceArrayBlock(batchSize, new LazySliceBlockLoader(fieldId, rowGroupPosition, batchSize));
+                }
+                else {
+                    throw new PrestoException(NOT_SUPPORTED, "Unsupported column type: " + type);
+                }
+            }
+            rowGroupPosition += batchSize;
+
+            return new Page(batchSize, blocks);
+        }
+        catch (PrestoException e) {
+            closeWithSuppression(e);
+            throw e;
+        }
+        catch (IOException | RuntimeException e) {
+            closeWithSuppression(e);
+            throw new PrestoException(HIVE_CURSOR_ERROR, e);
+        }
+    }
+
+    private boolean advanceRowGroup()
+            throws IOException
+    {
+        if (nextRowGroup > 0) {
+            completedBytes += rowGroups.get(nextRowGroup - 1).getTotalByteSize();
+        }
+
+        long start = System.nanoTime();
+        PageReadStore pageReadStore = fileReader.readNextRowGroup();
+        readTimeNanos += System.nanoTime() - start;
+        if (pageReadStore == null) {
+            return false;
+        }
+        nextRowGroup++;
+
+        ColumnReadStoreImpl columnReadStore = new ColumnReadStoreImpl(pageReadStore, new NoOpGroupConverter(requestedSchema), requestedSchema);
+        for (int fieldId = 0; fieldId < columnDescriptors.length; fieldId++) {
+            if (columnDescriptors[fieldId] != null) {
+                columnReaders[fieldId] = columnReadStore.getColumnReader(columnDescriptors[fieldId]);
+                columnPositions[fieldId] = 0;
+            }
+        }
+        rowGroupRowCount = pageReadStore.getRowCount();
+        rowGroupPosition = 0;
+        return true;
+    }
+
+    /**
+     * Returns the reader of the column positioned at the given row of the current row group,
+     * skipping the values of the batches that were never loaded.
+     */
+    private ColumnReader getColumnReader(int fieldId, long position)
+    {
+        ColumnReader columnReader = columnReaders[fieldId];
+        int maxDefinitionLevel = columnDescriptors[fieldId].getMaxDefinitionLevel();
+        for (long row = columnPositions[fieldId]; row < position; row++) {
+            if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+                columnReader.skip();
+            }
+            columnReader.consume();
+        }
+        columnPositions[fieldId] = position;
+        return columnReader;
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            fileReader.close();
+        }
+        catch (IOException e) {
+            throw new PrestoException(HIVE_CURSOR_ERROR, e);
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("columnNames", columnNames)
+                .add("types", types)
+                .toString();
+    }
+
+    protected void closeWithSuppression(Throwable throwable)
+    {
+        checkNotNull(throwable, "throwable is null");
+        try {
+            close();
+        }
+        catch (RuntimeException e) {
+            throwable.addSuppressed(e);
+        }
+    }
+
+    private final class LazyFixedWidthBlockLoader
+            implements LazyBlockLoader<LazyFixedWidthBlock>
+    {
+        private final int expectedBatchId = batchId;
+        private final int fieldId;
+        private final long position;
+        private final int batchSize;
+
+        public LazyFixedWidthBlockLoader(int fieldId, long position, int batchSize)
+        {
+            this.fieldId = fieldId;
+            this.position = position;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void load(LazyFixedWidthBlock block)
+        {
+            checkState(batchId == expectedBatchId);
+
+            ColumnReader columnReader = getColumnReader(fieldId, position);
+            ColumnDescriptor descriptor = columnDescriptors[fieldId];
+            int maxDefinitionLevel = descriptor.getMaxDefinitionLevel();
+            PrimitiveTypeName typeName = descriptor.getType();
+
+            boolean[] isNull = new boolean[batchSize];
+            switch (typeName) {
+                case BOOLEAN: {
+                    boolean[] values = new boolean[batchSize];
+                    for (int i = 0; i < batchSize; i++) {
+                        if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+                            values[i] = columnReader.getBoolean();
+                        }
+                        else {
+                            isNull[i] = true;
+                        }
+                        columnReader.consume();
+                    }
+                    block.setRawSlice(wrappedBooleanArray(values, 0, batchSize));
+                    break;
+                }
+                case INT32:
+                case INT64: {
+                    long[] values = new long[batchSize];
+                    for (int i = 0; i < batchSize; i++) {
+                        if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+                            values[i] = typeName == PrimitiveTypeName.INT32 ? columnReader.getInteger() : columnReader.getLong();
+                        }
+                        else {
+                            isNull[i] = true;
+                        }
+                        columnReader.consume();
+                    }
+                    block.setRawSlice(wrappedLongArray(values, 0, batchSize));
+                    break;
+                }
+                case FLOAT:
+                case DOUBLE: {
+                    double[] values = new double[batchSize];
+                    for (int i = 0; i < batchSize; i++) {
+                        if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+                            values[i] = typeName == PrimitiveTypeName.FLOAT ? columnReader.getFloat() : columnReader.getDouble();
+                        }
+                        else {
+                            isNull[i] = true;
+                        }
+                        columnReader.consume();
+                    }
+                    block.setRawSlice(wrappedDoubleArray(values, 0, batchSize));
+                    break;
+                }
+                default:
+                    throw new PrestoException(NOT_SUPPORTED, "Unsupported Parquet type: " + typeName);
+            }
+            block.setNullVector(isNull);
+            columnPositions[fieldId] += batchSize;
+        }
+    }
+
+    private final class LazySliceBlockLoader
+            implements LazyBlockLoader<LazySliceArrayBlock>
+    {
+        private final int expectedBatchId = batchId;
+        private final int fieldId;
+        private final long position;
+        private final int batchSize;
+
+        public LazySliceBlockLoader(int fieldId, long position, int batchSize)
+        {
+            this.fieldId = fieldId;
+            this.position = position;
+            this.batchSize = batchSize;
+        }
+
+        @Override
+        public void load(LazySliceArrayBlock block)
+        {
+            checkState(batchId == expectedBatchId);
+
+            ColumnReader columnReader = getColumnReader(fieldId, position);
+            int maxDefinitionLevel = columnDescriptors[fieldId].getMaxDefinitionLevel();
+
+            Slice[] values = new Slice[batchSize];
+            for (int i = 0; i < batchSize; i++) {
+                if (columnReader.getCurrentDefinitionLevel() == maxDefinitionLevel) {
+                    values[i] = Slices.wrappedBuffer(columnReader.getBinary().getBytes());
+                }
+                columnReader.consume();
+            }
+            block.setValues(values);
+            columnPositions[fieldId] += batchSize;
+        }
+    }
+
+    /**
+     * The column readers require a converter for every column, but the values are read
+     * directly from the readers, so the converters are never called.
+     */
+    private static final class NoOpGroupConverter
+            extends GroupConverter
+    {
+        private final List<Converter> converters;
+
+        public NoOpGroupConverter(MessageType schema)
+        {
+            ImmutableList.Builder<Converter> converters = ImmutableList.builder();
+            for (int i = 0; i < schema.getFieldCount(); i++) {
+                converters.add(new PrimitiveConverter() {});
+            }
+            this.converters = converters.build();
+        }
+
+        @Override
+        public Converter getConverter(int fieldIndex)
+        {
+            return converters.get(fieldIndex);
+        }
+
+        @Override
+        public void start()
+        {
+        }
+
+        @Override
+        public void end()
+        {
+        }
+    }
+}
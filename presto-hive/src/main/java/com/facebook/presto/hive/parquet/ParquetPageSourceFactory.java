@@ -0,0 +1,216 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.hive.HiveClientConfig;
+import com.facebook.presto.hive.HiveColumnHandle;
+import com.facebook.presto.hive.HivePageSourceFactory;
+import com.facebook.presto.hive.HivePartitionKey;
+import com.facebook.presto.hive.parquet.TupleDomainParquetPredicate.ColumnReference;
+import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spi.type.TypeManager;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.Path;
+import org.joda.time.DateTimeZone;
+import parquet.column.ColumnDescriptor;
+import parquet.hadoop.ParquetFileReader;
+import parquet.hadoop.metadata.BlockMetaData;
+import parquet.hadoop.metadata.ParquetMetadata;
+import parquet.schema.MessageType;
+import parquet.schema.PrimitiveType.PrimitiveTypeName;
+
+import javax.inject.Inject;
+
+import java.io.FileNotFoundException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_CANNOT_OPEN_SPLIT;
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_MISSING_DATA;
+import static com.facebook.presto.hive.HiveSessionProperties.isParquetOptimizedReaderEnabled;
+import static com.facebook.presto.hive.HiveUtil.getDeserializerClassName;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Strings.nullToEmpty;
+import static java.lang.String.format;
+import static parquet.schema.Type.Repetition.REPEATED;
+
+public class ParquetPageSourceFactory
+        implements HivePageSourceFactory
+{
+    private static final Set<String> PARQUET_SERDE_CLASS_NAMES = ImmutableSet.<String>builder()
+            .add("org.apache.hadoop.hive.ql.io.parquet.serde.ParquetHiveSerDe")
+            .add("parquet.hive.serde.ParquetHiveSerDe")
+            .build();
+
+    private final TypeManager typeManager;
+    private final boolean useParquetColumnNames;
+
+    @Inject
+    public ParquetPageSourceFactory(TypeManager typeManager, HiveClientConfig config)
+    {
+        this(typeManager, checkNotNull(config, "hiveClientConfig is null").isUseParquetColumnNames());
+    }
+
+    public ParquetPageSourceFactory(TypeManager typeManager, boolean useParquetColumnNames)
+    {
+        this.typeManager = checkNotNull(typeManager, "typeManager is null");
+        this.useParquetColumnNames = useParquetColumnNames;
+    }
+
+    @Override
+    public Optional<? extends ConnectorPageSource> createPageSource(
+            Configuration configuration,
+            ConnectorSession session,
+            Path path,
+            long start,
+            long length,
+            Properties schema,
+            List<HiveColumnHandle> columns,
+            List<HivePartitionKey> partitionKeys,
+            TupleDomain<HiveColumnHandle> effectivePredicate,
+            DateTimeZone hiveStorageTimeZone)
+    {
+        if (!isParquetOptimizedReaderEnabled(session)) {
+            return Optional.empty();
+        }
+
+        if (!PARQUET_SERDE_CLASS_NAMES.contains(getDeserializerClassName(schema))) {
+            return Optional.empty();
+        }
+
+        ParquetMetadata parquetMetadata;
+        try {
+            parquetMetadata = ParquetFileReader.readFooter(configuration, path);
+        }
+        catch (Exception e) {
+            throw propagate(e, path, start, length);
+        }
+        MessageType fileSchema = parquetMetadata.getFileMetaData().getSchema();
+
+        ImmutableMap.Builder<HiveColumnHandle, ColumnDescriptor> columnDescriptors = ImmutableMap.builder();
+        ImmutableList.Builder<ColumnReference> columnReferences = ImmutableList.builder();
+        List<parquet.schema.Type> fields = new ArrayList<>();
+        for (HiveColumnHandle column : columns) {
+            if (column.isPartitionKey()) {
+                continue;
+            }
+            Type type = typeManager.getType(column.getTypeSignature());
+            parquet.schema.Type parquetType = getParquetType(column, fileSchema);
+            if (parquetType == null) {
+                // column is not in the file and is read as null
+                continue;
+            }
+            if (!isSupported(type, parquetType)) {
+                // nested and repeated columns are only handled by the record cursor
+                return Optional.empty();
+            }
+            fields.add(parquetType);
+            columnDescriptors.put(column, fileSchema.getColumnDescription(new String[] {parquetType.getName()}));
+            columnReferences.add(new ColumnReference(column, parquetType.getName(), type));
+        }
+        MessageType requestedSchema = new MessageType(fileSchema.getName(), fields);
+        Map<HiveColumnHandle, ColumnDescriptor> descriptors = columnDescriptors.build();
+
+        TupleDomainParquetPredicate predicate = new TupleDomainParquetPredicate(effectivePredicate, columnReferences.build());
+        ImmutableList.Builder<BlockMetaData> rowGroups = ImmutableList.builder();
+        for (BlockMetaData rowGroup : parquetMetadata.getBlocks()) {
+            long firstDataPage = rowGroup.getColumns().get(0).getFirstDataPageOffset();
+            if (firstDataPage >= start && firstDataPage < start + length && predicate.matches(rowGroup)) {
+                rowGroups.add(rowGroup);
+            }
+        }
+        List<BlockMetaData> selectedRowGroups = rowGroups.build();
+
+        ParquetFileReader fileReader;
+        try {
+            fileReader = new ParquetFileReader(configuration, path, selectedRowGroups, ImmutableList.copyOf(descriptors.values()));
+        }
+        catch (Exception e) {
+            throw propagate(e, path, start, length);
+        }
+
+        return Optional.of(new ParquetPageSource(
+                fileReader,
+                requestedSchema,
+                selectedRowGroups,
+                descriptors,
+                partitionKeys,
+                columns,
+                typeManager));
+    }
+
+    private parquet.schema.Type getParquetType(HiveColumnHandle column, MessageType messageType)
+    {
+        if (useParquetColumnNames) {
+            if (messageType.containsField(column.getName())) {
+                return messageType.getType(column.getName());
+            }
+            return null;
+        }
+
+        if (column.getHiveColumnIndex() < messageType.getFieldCount()) {
+            return messageType.getType(column.getHiveColumnIndex());
+        }
+        return null;
+    }
+
+    private static boolean isSupported(Type type, parquet.schema.Type parquetType)
+    {
+        if (!parquetType.isPrimitive() || parquetType.isRepetition(REPEATED)) {
+            return false;
+        }
+        PrimitiveTypeName typeName = parquetType.asPrimitiveType().getPrimitiveTypeName();
+        if (type.equals(BOOLEAN)) {
+            return typeName == PrimitiveTypeName.BOOLEAN;
+        }
+        if (type.equals(BIGINT)) {
+            return typeName == PrimitiveTypeName.INT32 || typeName == PrimitiveTypeName.INT64;
+        }
+        if (type.equals(DOUBLE)) {
+            return typeName == PrimitiveTypeName.FLOAT || typeName == PrimitiveTypeName.DOUBLE;
+        }
+        if (type.equals(VARCHAR)) {
+            return typeName == PrimitiveTypeName.BINARY;
+        }
+        return false;
+    }
+
+    private static PrestoException propagate(Exception e, Path path, long start, long length)
+    {
+        if (nullToEmpty(e.getMessage()).trim().equals("Filesystem closed") ||
+                e instanceof FileNotFoundException) {
+            return new PrestoException(HIVE_CANNOT_OPEN_SPLIT, e);
+        }
+        String message = format("Error opening Hive split %s (offset=%s, length=%s): %s", path, start, length, e.getMessage());
+        if (e.getClass().getSimpleName().equals("BlockMissingException")) {
+            return new PrestoException(HIVE_MISSING_DATA, message, e);
+        }
+        return new PrestoException(HIVE_CANNOT_OPEN_SPLIT, message, e);
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.hive.HiveColumnHandle;
+import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.Range;
+import com.facebook.presto.spi.SortedRangeSet;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.primitives.Primitives;
+import parquet.column.statistics.BooleanStatistics;
+import parquet.column.statistics.DoubleStatistics;
+import parquet.column.statistics.FloatStatistics;
+import parquet.column.statistics.IntStatistics;
+import parquet.column.statistics.LongStatistics;
+import parquet.column.statistics.Statistics;
+import parquet.hadoop.metadata.BlockMetaData;
+import parquet.hadoop.metadata.ColumnChunkMetaData;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Decides from the column chunk statistics whether a row group can contain rows matching the predicate.
+ */
+public class TupleDomainParquetPredicate
+{
+    private final TupleDomain<HiveColumnHandle> effectivePredicate;
+    private final List<ColumnReference> columnReferences;
+
+    public TupleDomainParquetPredicate(TupleDomain<HiveColumnHandle> effectivePredicate, List<ColumnReference> columnReferences)
+    {
+        this.effectivePredicate = checkNotNull(effectivePredicate, "effectivePredicate is null");
+        this.columnReferences = ImmutableList.copyOf(checkNotNull(columnReferences, "columnReferences is null"));
+    }
+
+    public boolean matches(BlockMetaData rowGroup)
+    {
+        // only top level columns are referenced, so the path of their chunks has a single element
+        Map<String, ColumnChunkMetaData> chunksByName = new HashMap<>();
+        for (ColumnChunkMetaData chunk : rowGroup.getColumns()) {
+            String[] path = chunk.getPath().toArray();
+            if (path.length == 1) {
+                chunksByName.put(path[0], chunk);
+            }
+        }
+
+        ImmutableMap.Builder<HiveColumnHandle, Domain> domains = ImmutableMap.builder();
+        for (ColumnReference columnReference : columnReferences) {
+            ColumnChunkMetaData chunk = chunksByName.get(columnReference.getParquetName());
+            Statistics<?> statistics = chunk == null ? null : chunk.getStatistics();
+            domains.put(columnReference.getColumn(), getDomain(columnReference.getType(), rowGroup.getRowCount(), statistics));
+        }
+        TupleDomain<HiveColumnHandle> rowGroupDomain = TupleDomain.withColumnDomains(domains.build());
+
+        return effectivePredicate.overlaps(rowGroupDomain);
+    }
+
+    @VisibleForTesting
+    public static Domain getDomain(Type type, long rowCount, Statistics<?> statistics)
+    {
+        Class<?> boxedJavaType = Primitives.wrap(type.getJavaType());
+        if (rowCount == 0) {
+            return Domain.none(boxedJavaType);
+        }
+
+        if (statistics == null) {
+            return Domain.all(boxedJavaType);
+        }
+
+        if (statistics.getNumNulls() == rowCount) {
+            return Domain.onlyNull(boxedJavaType);
+        }
+
+        if (statistics.isEmpty()) {
+            return Domain.all(boxedJavaType);
+        }
+
+        boolean hasNullValue = statistics.getNumNulls() != 0;
+
+        if (boxedJavaType == Boolean.class && statistics instanceof BooleanStatistics) {
+            BooleanStatistics booleanStatistics = (BooleanStatistics) statistics;
+            if (booleanStatistics.getMin() == booleanStatistics.getMax()) {
+                return Domain.create(SortedRangeSet.singleValue(booleanStatistics.getMin()), hasNullValue);
+            }
+        }
+        else if (boxedJavaType == Long.class && statistics instanceof IntStatistics) {
+            IntStatistics intStatistics = (IntStatistics) statistics;
+            return createDomain(hasNullValue, (long) intStatistics.getMin(), (long) intStatistics.getMax());
+        }
+        else if (boxedJavaType == Long.class && statistics instanceof LongStatistics) {
+            LongStatistics longStatistics = (LongStatistics) statistics;
+            return createDomain(hasNullValue, longStatistics.getMin(), longStatistics.getMax());
+        }
+        else if (boxedJavaType == Double.class && statistics instanceof FloatStatistics) {
+            FloatStatistics floatStatistics = (FloatStatistics) statistics;
+            return createDomain(hasNullValue, (double) floatStatistics.getMin(), (double) floatStatistics.getMax());
+        }
+        else if (boxedJavaType == Double.class && statistics instanceof DoubleStatistics) {
+            DoubleStatistics doubleStatistics = (DoubleStatistics) statistics;
+            return createDomain(hasNullValue, doubleStatistics.getMin(), doubleStatistics.getMax());
+        }
+        // binary statistics are not used, because older writers compare the bytes as signed values
+        return Domain.create(SortedRangeSet.all(boxedJavaType), hasNullValue);
+    }
+
+    private static <T extends Comparable<T>> Domain createDomain(boolean hasNullValue, T min, T max)
+    {
+        return Domain.create(SortedRangeSet.of(Range.range(min, true, max, true)), hasNullValue);
+    }
+
+    public static class ColumnReference
+    {
+        private final HiveColumnHandle column;
+        private final String parquetName;
+        private final Type type;
+
+        public ColumnReference(HiveColumnHandle column, String parquetName, Type type)
+        {
+            this.column = checkNotNull(column, "column is null");
+            this.parquetName = checkNotNull(parquetName, "parquetName is null");
+            this.type = checkNotNull(type, "type is null");
+        }
+
+        public HiveColumnHandle getColumn()
+        {
+            return column;
+        }
+
+        public String getParquetName()
+        {
+            return parquetName;
+        }
+
+        public Type getType()
+        {
+            return type;
+        }
+    }
+}
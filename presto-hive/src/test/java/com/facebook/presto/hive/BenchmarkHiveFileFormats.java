@@ -69,6 +69,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.List;
+import java.util.Optional;
 import java.util.Properties;
 
 import static com.facebook.presto.hive.HiveTestUtils.SESSION;
@@ -1675,7 +1676,8 @@ public final class BenchmarkHiveFileFormats
                 ImmutableList.<HivePartitionKey>of(),
                 ImmutableList.<HostAddress>of(),
                 false,
-                TupleDomain.<HiveColumnHandle>all());
+                TupleDomain.<HiveColumnHandle>all(),
+                Optional.empty());
     }
 
     private static List<HiveColumnHandle> getHiveColumnHandles(TpchColumn<?>... tpchColumns)
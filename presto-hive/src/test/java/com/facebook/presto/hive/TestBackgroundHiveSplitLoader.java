@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.spi.PrestoException;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.List;
+
+import static com.facebook.presto.hive.BackgroundHiveSplitLoader.getBucketFiles;
+import static com.facebook.presto.hive.HiveErrorCode.HIVE_INVALID_BUCKET_FILES;
+import static com.google.common.io.Files.createTempDir;
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestBackgroundHiveSplitLoader
+{
+    private File directory;
+    private FileSystem fileSystem;
+
+    @BeforeMethod
+    public void setUp()
+            throws Exception
+    {
+        directory = createTempDir();
+        fileSystem = FileSystem.getLocal(new Configuration());
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        deleteRecursively(directory);
+    }
+
+    @Test
+    public void testBucketFilesAreOrderedByBucket()
+            throws Exception
+    {
+        createFile("000002_0");
+        createFile("000000_0");
+        createFile("000001_0");
+
+        List<FileStatus> files = getBucketFiles("ds=2015-01-01", 3, fileSystem, new Path(directory.toURI()));
+        assertEquals(files.size(), 3);
+        assertEquals(files.get(0).getPath().getName(), "000000_0");
+        assertEquals(files.get(1).getPath().getName(), "000001_0");
+        assertEquals(files.get(2).getPath().getName(), "000002_0");
+    }
+
+    @Test
+    public void testEmptyPartitionHasNoBucketFiles()
+    {
+        assertTrue(getBucketFiles("ds=2015-01-01", 3, fileSystem, new Path(directory.toURI())).isEmpty());
+    }
+
+    @Test
+    public void testBucketFileCountMismatch()
+            throws Exception
+    {
+        // e.g. a partition written before the table was bucketed
+        createFile("000000_0");
+        createFile("000001_0");
+
+        try {
+            getBucketFiles("ds=2015-01-01", 3, fileSystem, new Path(directory.toURI()));
+            fail("expected PrestoException");
+        }
+        catch (PrestoException e) {
+            assertEquals(e.getErrorCode(), HIVE_INVALID_BUCKET_FILES.toErrorCode());
+            assertTrue(e.getMessage().contains("ds=2015-01-01"), e.getMessage());
+            assertTrue(e.getMessage().contains("has 2 files, but the table is declared with 3 buckets"), e.getMessage());
+        }
+    }
+
+    @Test
+    public void testBucketDirectory()
+            throws Exception
+    {
+        createFile("000000_0");
+        assertTrue(new File(directory, "000001_0").mkdir());
+
+        try {
+            getBucketFiles("ds=2015-01-01", 2, fileSystem, new Path(directory.toURI()));
+            fail("expected PrestoException");
+        }
+        catch (PrestoException e) {
+            assertEquals(e.getErrorCode(), HIVE_INVALID_BUCKET_FILES.toErrorCode());
+            assertTrue(e.getMessage().contains("ds=2015-01-01"), e.getMessage());
+        }
+    }
+
+    private void createFile(String name)
+            throws Exception
+    {
+        assertTrue(new File(directory, name).createNewFile());
+    }
+}
@@ -63,6 +63,7 @@ public class TestHiveClientConfig
                 .setResourceConfigFiles((String) null)
                 .setHiveStorageFormat(HiveStorageFormat.RCBINARY)
                 .setUseParquetColumnNames(false)
+                .setParquetOptimizedReaderEnabled(false)
                 .setS3AwsAccessKey(null)
                 .setS3AwsSecretKey(null)
                 .setS3UseInstanceCredentials(true)
@@ -81,7 +82,12 @@ public class TestHiveClientConfig
                 .setAssumeCanonicalPartitionKeys(false)
                 .setOrcMaxMergeDistance(new DataSize(1, Unit.MEGABYTE))
                 .setOrcMaxBufferSize(new DataSize(8, Unit.MEGABYTE))
-                .setOrcStreamBufferSize(new DataSize(8, Unit.MEGABYTE)));
+                .setOrcStreamBufferSize(new DataSize(8, Unit.MEGABYTE))
+                .setOrcFileTailCacheSize(new DataSize(32, Unit.MEGABYTE))
+                .setLocalCacheEnabled(false)
+                .setLocalCacheDirectory(new File(StandardSystemProperty.JAVA_IO_TMPDIR.value(), "presto-hive-cache"))
+                .setLocalCacheMaxSize(new DataSize(10, Unit.GIGABYTE))
+                .setLocalCacheChunkSize(new DataSize(1, Unit.MEGABYTE)));
     }
 
     @Test
@@ -116,6 +122,7 @@ public class TestHiveClientConfig
                 .put("hive.force-local-scheduling", "true")
                 .put("hive.assume-canonical-partition-keys", "true")
                 .put("hive.parquet.use-column-names", "true")
+                .put("hive.parquet-optimized-reader.enabled", "true")
                 .put("hive.s3.aws-access-key", "abc123")
                 .put("hive.s3.aws-secret-key", "secret")
                 .put("hive.s3.use-instance-credentials", "false")
@@ -134,6 +141,11 @@ public class TestHiveClientConfig
                 .put("hive.orc.max-merge-distance", "22kB")
                 .put("hive.orc.max-buffer-size", "44kB")
                 .put("hive.orc.stream-buffer-size", "55kB")
+                .put("hive.orc.file-tail-cache-size", "17MB")
+                .put("hive.local-cache.enabled", "true")
+                .put("hive.local-cache.directory", "/ssd/cache")
+                .put("hive.local-cache.max-size", "100GB")
+                .put("hive.local-cache.chunk-size", "256kB")
                 .build();
 
         HiveClientConfig expected = new HiveClientConfig()
@@ -164,6 +176,7 @@ public class TestHiveClientConfig
                 .setHiveStorageFormat(HiveStorageFormat.SEQUENCEFILE)
                 .setDomainSocketPath("/foo")
                 .setUseParquetColumnNames(true)
+                .setParquetOptimizedReaderEnabled(true)
                 .setS3AwsAccessKey("abc123")
                 .setS3AwsSecretKey("secret")
                 .setS3UseInstanceCredentials(false)
@@ -182,7 +195,12 @@ public class TestHiveClientConfig
                 .setAssumeCanonicalPartitionKeys(true)
                 .setOrcMaxMergeDistance(new DataSize(22, Unit.KILOBYTE))
                 .setOrcMaxBufferSize(new DataSize(44, Unit.KILOBYTE))
-                .setOrcStreamBufferSize(new DataSize(55, Unit.KILOBYTE));
+                .setOrcStreamBufferSize(new DataSize(55, Unit.KILOBYTE))
+                .setOrcFileTailCacheSize(new DataSize(17, Unit.MEGABYTE))
+                .setLocalCacheEnabled(true)
+                .setLocalCacheDirectory(new File("/ssd/cache"))
+                .setLocalCacheMaxSize(new DataSize(100, Unit.GIGABYTE))
+                .setLocalCacheChunkSize(new DataSize(256, Unit.KILOBYTE));
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -17,6 +17,7 @@ import com.facebook.presto.hive.orc.DwrfPageSourceFactory;
 import com.facebook.presto.hive.orc.DwrfRecordCursorProvider;
 import com.facebook.presto.hive.orc.OrcPageSourceFactory;
 import com.facebook.presto.hive.orc.OrcRecordCursorProvider;
+import com.facebook.presto.hive.parquet.ParquetPageSourceFactory;
 import com.facebook.presto.hive.rcfile.RcFilePageSourceFactory;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorSession;
@@ -91,6 +92,13 @@ public class TestHiveFileFormats
             System.currentTimeMillis(),
             new HiveSessionProperties(new HiveClientConfig()).getSessionProperties(),
             ImmutableMap.of());
+    private static final ConnectorSession PARQUET_SESSION = new TestingConnectorSession(
+            "user",
+            TIME_ZONE_KEY,
+            ENGLISH,
+            System.currentTimeMillis(),
+            new HiveSessionProperties(new HiveClientConfig()).getSessionProperties(),
+            ImmutableMap.of("parquet_optimized_reader_enabled", true));
     private static final TypeRegistry TYPE_MANAGER = new TypeRegistry();
 
     @BeforeClass(alwaysRun = true)
@@ -271,6 +279,37 @@ public class TestHiveFileFormats
         }
     }
 
+    @Test
+    public void testParquetPageSource()
+            throws Exception
+    {
+        List<TestColumn> testColumns = ImmutableList.copyOf(filter(TEST_COLUMNS, testColumn -> {
+            // the page source only reads top level primitive columns
+            ObjectInspector objectInspector = testColumn.getObjectInspector();
+            if (!(objectInspector instanceof PrimitiveObjectInspector)) {
+                return false;
+            }
+
+            // Parquet does not support DATE, TIMESTAMP, or BINARY
+            return !hasType(objectInspector, PrimitiveCategory.DATE, PrimitiveCategory.TIMESTAMP, PrimitiveCategory.BINARY);
+        }));
+
+        HiveOutputFormat<?, ?> outputFormat = new MapredParquetOutputFormat();
+        InputFormat<?, ?> inputFormat = new MapredParquetInputFormat();
+        @SuppressWarnings("deprecation")
+        SerDe serde = new ParquetHiveSerDe();
+        File file = File.createTempFile("presto_test", "parquet");
+        file.delete();
+        try {
+            FileSplit split = createTestFile(file.getAbsolutePath(), outputFormat, serde, null, testColumns, NUM_ROWS);
+            testPageSourceFactory(new ParquetPageSourceFactory(TYPE_MANAGER, false), PARQUET_SESSION, split, inputFormat, serde, testColumns);
+        }
+        finally {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+
     @Test
     public void testParquetThrift()
             throws Exception
@@ -422,6 +461,12 @@ public class TestHiveFileFormats
 
     private void testPageSourceFactory(HivePageSourceFactory sourceFactory, FileSplit split, InputFormat<?, ?> inputFormat, SerDe serde, List<TestColumn> testColumns)
             throws IOException
+    {
+        testPageSourceFactory(sourceFactory, SESSION, split, inputFormat, serde, testColumns);
+    }
+
+    private void testPageSourceFactory(HivePageSourceFactory sourceFactory, ConnectorSession session, FileSplit split, InputFormat<?, ?> inputFormat, SerDe serde, List<TestColumn> testColumns)
+            throws IOException
     {
         Properties splitProperties = new Properties();
         splitProperties.setProperty(FILE_INPUT_FORMAT, inputFormat.getClass().getName());
@@ -438,7 +483,7 @@ public class TestHiveFileFormats
 
         ConnectorPageSource pageSource = sourceFactory.createPageSource(
                 new Configuration(),
-                SESSION,
+                session,
                 split.getPath(),
                 split.getStart(),
                 split.getLength(),
@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.HiveSplitAffinity.WorkerSnapshot;
+import com.facebook.presto.metadata.InMemoryNodeManager;
+import com.facebook.presto.metadata.NodeVersion;
+import com.facebook.presto.metadata.PrestoNode;
+import com.facebook.presto.spi.HostAddress;
+import com.facebook.presto.spi.Node;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.Test;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+public class TestHiveSplitAffinity
+{
+    private static final String CONNECTOR_ID = "hive";
+
+    @Test
+    public void testDisabled()
+    {
+        InMemoryNodeManager nodeManager = createNodeManager(3);
+        WorkerSnapshot workers = new HiveSplitAffinity(CONNECTOR_ID, nodeManager, false).getWorkers();
+
+        List<HostAddress> addresses = ImmutableList.of(HostAddress.fromString("localhost"));
+        assertEquals(workers.getSplitAddresses("s3://bucket/file", 0, addresses), addresses);
+    }
+
+    @Test
+    public void testRemoteFileIsAssignedToWorker()
+    {
+        InMemoryNodeManager nodeManager = createNodeManager(5);
+        WorkerSnapshot workers = new HiveSplitAffinity(CONNECTOR_ID, nodeManager, true).getWorkers();
+
+        List<HostAddress> blockAddresses = ImmutableList.of(HostAddress.fromString("localhost"));
+        List<HostAddress> addresses = workers.getSplitAddresses("s3://bucket/file", 1024, blockAddresses);
+        assertEquals(addresses.size(), 1);
+        assertTrue(nodeManager.getActiveDatasourceNodes(CONNECTOR_ID).stream()
+                .anyMatch(node -> node.getHostAndPort().equals(addresses.get(0))));
+
+        // the assignment is stable
+        assertEquals(workers.getSplitAddresses("s3://bucket/file", 1024, blockAddresses), addresses);
+        assertEquals(new HiveSplitAffinity(CONNECTOR_ID, nodeManager, true).getWorkers().getSplitAddresses("s3://bucket/file", 1024, ImmutableList.of()), addresses);
+    }
+
+    @Test
+    public void testLocalBlocksAreNotReassigned()
+    {
+        InMemoryNodeManager nodeManager = createNodeManager(3);
+        WorkerSnapshot workers = new HiveSplitAffinity(CONNECTOR_ID, nodeManager, true).getWorkers();
+
+        List<HostAddress> blockAddresses = ImmutableList.of(HostAddress.fromString("10.0.0.2"), HostAddress.fromString("192.168.1.1"));
+        assertEquals(workers.getSplitAddresses("hdfs://namenode/file", 0, blockAddresses), blockAddresses);
+    }
+
+    @Test
+    public void testRemovingWorkerOnlyMovesItsSplits()
+    {
+        InMemoryNodeManager nodeManager = createNodeManager(4);
+        List<Node> nodes = ImmutableList.copyOf(nodeManager.getActiveDatasourceNodes(CONNECTOR_ID));
+        WorkerSnapshot allWorkers = new WorkerSnapshot(nodes);
+        WorkerSnapshot remainingWorkers = new WorkerSnapshot(nodes.subList(1, nodes.size()));
+        HostAddress removed = nodes.get(0).getHostAndPort();
+
+        for (int i = 0; i < 100; i++) {
+            String path = "s3://bucket/file" + i;
+            HostAddress before = allWorkers.getSplitAddresses(path, 0, ImmutableList.of()).get(0);
+            HostAddress after = remainingWorkers.getSplitAddresses(path, 0, ImmutableList.of()).get(0);
+            if (!before.equals(removed)) {
+                assertEquals(after, before);
+            }
+        }
+    }
+
+    private static InMemoryNodeManager createNodeManager(int workerCount)
+    {
+        InMemoryNodeManager nodeManager = new InMemoryNodeManager();
+        for (int i = 0; i < workerCount; i++) {
+            nodeManager.addNode(CONNECTOR_ID, new PrestoNode("worker" + i, URI.create("http://10.0.0." + (i + 1) + ":8080"), NodeVersion.UNKNOWN));
+        }
+        return nodeManager;
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive;
+
+import com.facebook.presto.hive.LocalFileCache.RemoteReader;
+import io.airlift.units.DataSize;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.google.common.io.Files.createTempDir;
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static org.testng.Assert.assertEquals;
+
+public class TestLocalFileCache
+{
+    private static final String PATH = "s3://bucket/table/file.orc";
+    private static final int CHUNK_SIZE = 100;
+
+    private final byte[] fileData = new byte[1050];
+    private final List<String> remoteReads = new ArrayList<>();
+    private final RemoteReader remoteReader = (position, buffer, bufferOffset, length) -> {
+        remoteReads.add(position + ":" + length);
+        System.arraycopy(fileData, (int) position, buffer, bufferOffset, length);
+    };
+
+    private File directory;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        for (int i = 0; i < fileData.length; i++) {
+            fileData[i] = (byte) i;
+        }
+        remoteReads.clear();
+        directory = createTempDir();
+    }
+
+    @AfterMethod
+    public void tearDown()
+    {
+        deleteRecursively(directory);
+    }
+
+    @Test
+    public void testReadThrough()
+            throws Exception
+    {
+        LocalFileCache cache = createCache(new DataSize(10_000, BYTE));
+
+        // first read loads the chunks [100, 400) with a single remote read
+        assertRead(cache, 1000, 150, 220);
+        assertEquals(remoteReads.size(), 1);
+        assertEquals(remoteReads.get(0), "100:300");
+        assertEquals(cache.getChunkCount(), 3);
+
+        // read within the cached chunks is served locally
+        assertRead(cache, 1000, 120, 250);
+        assertEquals(remoteReads.size(), 1);
+        assertEquals(cache.getCachedBytesRead().getTotalCount(), 250);
+
+        // only the missing chunks on either side are read remotely
+        assertRead(cache, 1000, 50, 400);
+        assertEquals(remoteReads.size(), 3);
+        assertEquals(remoteReads.get(1), "0:100");
+        assertEquals(remoteReads.get(2), "400:100");
+
+        // the last chunk is shorter than the chunk size
+        assertRead(cache, 1000, 1020, 30);
+        assertEquals(remoteReads.get(3), "1000:50");
+    }
+
+    @Test
+    public void testModifiedFileIsNotServedFromCache()
+            throws Exception
+    {
+        LocalFileCache cache = createCache(new DataSize(10_000, BYTE));
+
+        assertRead(cache, 1000, 0, 100);
+        assertRead(cache, 2000, 0, 100);
+        assertEquals(remoteReads.size(), 2);
+    }
+
+    @Test
+    public void testEviction()
+            throws Exception
+    {
+        LocalFileCache cache = createCache(new DataSize(0, BYTE));
+
+        assertRead(cache, 1000, 0, 100);
+        assertRead(cache, 1000, 0, 100);
+        assertEquals(remoteReads.size(), 2);
+        assertEquals(cache.getChunkCount(), 0);
+
+        // evicted chunk files are deleted
+        assertEquals(directory.list().length, 0);
+    }
+
+    @Test
+    public void testStaleChunksAreDeleted()
+            throws Exception
+    {
+        assertEquals(new File(directory, "17.chunk").createNewFile(), true);
+        assertEquals(new File(directory, "other.data").createNewFile(), true);
+
+        createCache(new DataSize(10_000, BYTE));
+        assertEquals(directory.list(), new String[] {"other.data"});
+    }
+
+    private LocalFileCache createCache(DataSize maxSize)
+    {
+        return new LocalFileCache(true, directory, maxSize, new DataSize(CHUNK_SIZE, BYTE));
+    }
+
+    private void assertRead(LocalFileCache cache, long modificationTime, int position, int length)
+            throws Exception
+    {
+        byte[] buffer = new byte[length + 10];
+        cache.read(PATH, modificationTime, fileData.length, position, buffer, 5, length, remoteReader);
+        assertEquals(Arrays.copyOfRange(buffer, 5, 5 + length), Arrays.copyOfRange(fileData, position, position + length));
+    }
+}
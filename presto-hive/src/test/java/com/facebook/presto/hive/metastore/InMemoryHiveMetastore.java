@@ -17,7 +17,9 @@ import com.facebook.presto.hive.TableAlreadyExistsException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.TableNotFoundException;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import org.apache.hadoop.hive.metastore.TableType;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.Partition;
 import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
@@ -184,6 +186,15 @@ public class InMemoryHiveMetastore
         return Optional.ofNullable(relations.get(schemaTableName));
     }
 
+    @Override
+    public Optional<Map<String, ColumnStatisticsObj>> getTableColumnStatistics(String databaseName, String tableName)
+    {
+        if (!getTable(databaseName, tableName).isPresent()) {
+            return Optional.empty();
+        }
+        return Optional.of(ImmutableMap.of());
+    }
+
     @Override
     public void flushCache()
     {
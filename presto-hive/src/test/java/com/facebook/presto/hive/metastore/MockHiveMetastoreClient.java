@@ -19,12 +19,18 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import org.apache.hadoop.hive.metastore.Warehouse;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsData;
+import org.apache.hadoop.hive.metastore.api.ColumnStatisticsObj;
 import org.apache.hadoop.hive.metastore.api.Database;
 import org.apache.hadoop.hive.metastore.api.FieldSchema;
+import org.apache.hadoop.hive.metastore.api.LongColumnStatsData;
 import org.apache.hadoop.hive.metastore.api.MetaException;
 import org.apache.hadoop.hive.metastore.api.NoSuchObjectException;
 import org.apache.hadoop.hive.metastore.api.Partition;
+import org.apache.hadoop.hive.metastore.api.StorageDescriptor;
 import org.apache.hadoop.hive.metastore.api.Table;
+import org.apache.hadoop.hive.metastore.api.TableStatsRequest;
+import org.apache.hadoop.hive.metastore.api.TableStatsResult;
 import org.apache.thrift.TException;
 import org.apache.thrift.transport.TTransport;
 
@@ -37,6 +43,7 @@ public class MockHiveMetastoreClient
     static final String TEST_DATABASE = "testdb";
     static final String BAD_DATABASE = "baddb";
     static final String TEST_TABLE = "testtbl";
+    static final String TEST_COLUMN = "value";
     static final String TEST_PARTITION1 = "key=testpartition1";
     static final String TEST_PARTITION2 = "key=testpartition2";
 
@@ -108,7 +115,27 @@ public class MockHiveMetastoreClient
         if (!dbName.equals(TEST_DATABASE) || !tableName.equals(TEST_TABLE)) {
             throw new NoSuchObjectException();
         }
-        return new Table(TEST_TABLE, TEST_DATABASE, "", 0, 0, 0, null, ImmutableList.of(new FieldSchema("key", "String", null)), null, "", "", "");
+        StorageDescriptor storageDescriptor = new StorageDescriptor();
+        storageDescriptor.setCols(ImmutableList.of(new FieldSchema(TEST_COLUMN, "bigint", null)));
+        return new Table(TEST_TABLE, TEST_DATABASE, "", 0, 0, 0, storageDescriptor, ImmutableList.of(new FieldSchema("key", "String", null)), null, "", "", "");
+    }
+
+    @Override
+    public TableStatsResult get_table_statistics_req(TableStatsRequest request)
+            throws TException
+    {
+        accessCount.incrementAndGet();
+        if (throwException) {
+            throw new RuntimeException();
+        }
+        if (!request.getDbName().equals(TEST_DATABASE) || !request.getTblName().equals(TEST_TABLE)) {
+            throw new NoSuchObjectException();
+        }
+        ImmutableList.Builder<ColumnStatisticsObj> statistics = ImmutableList.builder();
+        if (request.getColNames().contains(TEST_COLUMN)) {
+            statistics.add(new ColumnStatisticsObj(TEST_COLUMN, "bigint", ColumnStatisticsData.longStats(new LongColumnStatsData(5, 100))));
+        }
+        return new TableStatsResult(statistics.build());
     }
 
     @Override
@@ -16,6 +16,7 @@ package com.facebook.presto.hive.metastore;
 import com.facebook.presto.hive.HiveCluster;
 import com.facebook.presto.hive.HiveMetastoreClient;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import io.airlift.units.Duration;
 import org.testng.annotations.BeforeMethod;
@@ -24,6 +25,7 @@ import org.testng.annotations.Test;
 import java.util.concurrent.TimeUnit;
 
 import static com.facebook.presto.hive.metastore.MockHiveMetastoreClient.BAD_DATABASE;
+import static com.facebook.presto.hive.metastore.MockHiveMetastoreClient.TEST_COLUMN;
 import static com.facebook.presto.hive.metastore.MockHiveMetastoreClient.TEST_DATABASE;
 import static com.facebook.presto.hive.metastore.MockHiveMetastoreClient.TEST_PARTITION1;
 import static com.facebook.presto.hive.metastore.MockHiveMetastoreClient.TEST_PARTITION2;
@@ -111,6 +113,32 @@ public class TestCachingHiveMetastore
         assertFalse(metastore.getTable(BAD_DATABASE, TEST_TABLE).isPresent());
     }
 
+    @Test
+    public void testGetTableColumnStatistics()
+            throws Exception
+    {
+        assertEquals(mockClient.getAccessCount(), 0);
+        assertEquals(metastore.getTableColumnStatistics(TEST_DATABASE, TEST_TABLE).get().keySet(), ImmutableSet.of(TEST_COLUMN));
+        // loading the statistics fetches the table for its column names
+        assertEquals(mockClient.getAccessCount(), 2);
+        assertEquals(metastore.getTableColumnStatistics(TEST_DATABASE, TEST_TABLE).get().get(TEST_COLUMN).getStatsData().getLongStats().getNumDVs(), 100);
+        assertEquals(mockClient.getAccessCount(), 2);
+
+        metastore.flushCache();
+
+        assertEquals(metastore.getTableColumnStatistics(TEST_DATABASE, TEST_TABLE).get().keySet(), ImmutableSet.of(TEST_COLUMN));
+        assertEquals(mockClient.getAccessCount(), 4);
+    }
+
+    @Test
+    public void testInvalidGetTableColumnStatistics()
+            throws Exception
+    {
+        assertFalse(metastore.getTableColumnStatistics(BAD_DATABASE, TEST_TABLE).isPresent());
+        // the missing table is found without asking for its statistics
+        assertEquals(mockClient.getAccessCount(), 1);
+    }
+
     @Test
     public void testGetPartitionNames()
             throws Exception
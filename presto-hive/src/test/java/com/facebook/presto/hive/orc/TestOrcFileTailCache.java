@@ -0,0 +1,127 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.orc;
+
+import com.facebook.presto.orc.OrcFileTail;
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.Metadata;
+import com.facebook.presto.orc.metadata.StringStatistics;
+import com.facebook.presto.orc.metadata.StripeInformation;
+import com.facebook.presto.orc.metadata.StripeStatistics;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestOrcFileTailCache
+{
+    private static final String FORMAT = "orc";
+    private static final String PATH = "hdfs://test/file.orc";
+
+    @Test
+    public void testHitAndMiss()
+            throws Exception
+    {
+        OrcFileTailCache cache = new OrcFileTailCache(new DataSize(1, MEGABYTE));
+        AtomicInteger loads = new AtomicInteger();
+
+        OrcFileTail first = cache.get(FORMAT, PATH, 1000, 5000, () -> createTail(loads, 1));
+        OrcFileTail second = cache.get(FORMAT, PATH, 1000, 5000, () -> createTail(loads, 1));
+        assertSame(second, first);
+        assertEquals(loads.get(), 1);
+        assertEquals(cache.getHitCount(), 1);
+        assertEquals(cache.getMissCount(), 1);
+
+        // a rewritten file must not be served the old tail
+        cache.get(FORMAT, PATH, 2000, 5000, () -> createTail(loads, 1));
+        cache.get(FORMAT, PATH, 2000, 6000, () -> createTail(loads, 1));
+        cache.get("dwrf", PATH, 2000, 6000, () -> createTail(loads, 1));
+        assertEquals(loads.get(), 4);
+        assertEquals(cache.getMissCount(), 4);
+        assertEquals(cache.getSize(), 4);
+    }
+
+    @Test
+    public void testEviction()
+            throws Exception
+    {
+        OrcFileTailCache cache = new OrcFileTailCache(new DataSize(1024, BYTE));
+        AtomicInteger loads = new AtomicInteger();
+
+        // a tail larger than the cache is never retained
+        cache.get(FORMAT, PATH, 1000, 5000, () -> createTail(loads, 100));
+        cache.get(FORMAT, PATH, 1000, 5000, () -> createTail(loads, 100));
+        assertEquals(loads.get(), 2);
+        assertEquals(cache.getSize(), 0);
+        assertEquals(cache.getEvictionCount(), 2);
+    }
+
+    @Test
+    public void testLoaderFailure()
+            throws Exception
+    {
+        OrcFileTailCache cache = new OrcFileTailCache(new DataSize(1, MEGABYTE));
+        try {
+            cache.get(FORMAT, PATH, 1000, 5000, () -> {
+                throw new IOException("test");
+            });
+            fail("expected IOException");
+        }
+        catch (IOException e) {
+            assertEquals(e.getMessage(), "test");
+        }
+        assertEquals(cache.getSize(), 0);
+    }
+
+    @Test
+    public void testRetainedSize()
+    {
+        // the decoded statistics take more memory than their serialized form
+        OrcFileTail small = createTail(new AtomicInteger(), 1);
+        OrcFileTail large = createTail(new AtomicInteger(), 100);
+        assertTrue(large.getRetainedSizeInBytes() > small.getRetainedSizeInBytes());
+        assertTrue(large.getRetainedSizeInBytes() > 100 * 2 * utf8Slice("value").length());
+        assertTrue(large.getRetainedSizeInBytes() > large.getSerializedSize());
+    }
+
+    private static OrcFileTail createTail(AtomicInteger loads, int stripeCount)
+    {
+        loads.incrementAndGet();
+        ImmutableList.Builder<StripeInformation> stripes = ImmutableList.builder();
+        ImmutableList.Builder<StripeStatistics> stripeStatistics = ImmutableList.builder();
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.add(new StripeInformation(10_000, i * 1000L, 100, 800, 100));
+            StringStatistics stringStatistics = new StringStatistics(utf8Slice("value"), utf8Slice("value"));
+            stripeStatistics.add(new StripeStatistics(ImmutableList.of(new ColumnStatistics(10_000L, null, null, null, stringStatistics, null))));
+        }
+        return new OrcFileTail(
+                UNCOMPRESSED,
+                256 * 1024,
+                new Footer(10_000L * stripeCount, 10_000, stripes.build(), ImmutableList.of(), ImmutableList.of()),
+                new Metadata(stripeStatistics.build()),
+                20 * stripeCount);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.hive.parquet;
+
+import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.Range;
+import com.facebook.presto.spi.SortedRangeSet;
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+import parquet.column.statistics.BinaryStatistics;
+import parquet.column.statistics.BooleanStatistics;
+import parquet.column.statistics.DoubleStatistics;
+import parquet.column.statistics.IntStatistics;
+import parquet.column.statistics.LongStatistics;
+import parquet.column.statistics.Statistics;
+import parquet.io.api.Binary;
+
+import static com.facebook.presto.hive.parquet.TupleDomainParquetPredicate.getDomain;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestTupleDomainParquetPredicate
+{
+    @Test
+    public void testBigint()
+    {
+        assertEquals(getDomain(BIGINT, 0, null), Domain.none(Long.class));
+        assertEquals(getDomain(BIGINT, 10, null), Domain.all(Long.class));
+
+        assertEquals(getDomain(BIGINT, 10, longStatistics(10, 20, 0)), range(10L, 20L, false));
+        assertEquals(getDomain(BIGINT, 10, longStatistics(10, 20, 3)), range(10L, 20L, true));
+        assertEquals(getDomain(BIGINT, 10, intStatistics(10, 20, 0)), range(10L, 20L, false));
+    }
+
+    @Test
+    public void testDouble()
+    {
+        assertEquals(getDomain(DOUBLE, 10, doubleStatistics(1.5, 2.5, 0)), range(1.5, 2.5, false));
+        assertEquals(getDomain(DOUBLE, 10, doubleStatistics(1.5, 2.5, 1)), range(1.5, 2.5, true));
+    }
+
+    @Test
+    public void testBoolean()
+    {
+        assertEquals(getDomain(BOOLEAN, 10, booleanStatistics(true, true, 0)), Domain.create(SortedRangeSet.singleValue(true), false));
+        assertEquals(getDomain(BOOLEAN, 10, booleanStatistics(false, false, 2)), Domain.create(SortedRangeSet.singleValue(false), true));
+        assertEquals(getDomain(BOOLEAN, 10, booleanStatistics(false, true, 0)), Domain.create(SortedRangeSet.all(Boolean.class), false));
+    }
+
+    @Test
+    public void testAllNulls()
+    {
+        // a column chunk with only nulls has no min and max, and can only match an IS NULL predicate
+        LongStatistics statistics = new LongStatistics();
+        statistics.setNumNulls(10);
+        Domain domain = getDomain(BIGINT, 10, statistics);
+        assertEquals(domain, Domain.onlyNull(Long.class));
+        assertFalse(domain.overlaps(Domain.singleValue(5L)));
+        assertTrue(domain.overlaps(Domain.onlyNull(Long.class)));
+
+        BinaryStatistics binaryStatistics = new BinaryStatistics();
+        binaryStatistics.setNumNulls(10);
+        assertEquals(getDomain(VARCHAR, 10, binaryStatistics), Domain.onlyNull(Slice.class));
+    }
+
+    @Test
+    public void testBinaryStatisticsAreNotUsed()
+    {
+        // older writers order binary statistics as signed bytes, so the min and max can not be trusted
+        BinaryStatistics statistics = new BinaryStatistics();
+        statistics.setMinMax(Binary.fromString("apple"), Binary.fromString("banana"));
+        Domain domain = getDomain(VARCHAR, 10, statistics);
+        assertEquals(domain, Domain.create(SortedRangeSet.all(Slice.class), false));
+        assertTrue(domain.overlaps(Domain.singleValue(utf8Slice("zebra"))));
+
+        statistics.setNumNulls(2);
+        assertEquals(getDomain(VARCHAR, 10, statistics), Domain.all(Slice.class));
+    }
+
+    @Test
+    public void testMismatchedStatistics()
+    {
+        // statistics of a different physical type than the column are ignored
+        assertEquals(getDomain(BIGINT, 10, doubleStatistics(1.5, 2.5, 0)), Domain.create(SortedRangeSet.all(Long.class), false));
+    }
+
+    @Test
+    public void testRowGroupPruning()
+    {
+        Domain rowGroup = getDomain(BIGINT, 100, longStatistics(10, 20, 0));
+
+        // predicates outside of the row group range prune the row group
+        assertFalse(rowGroup.overlaps(Domain.singleValue(5L)));
+        assertFalse(rowGroup.overlaps(Domain.singleValue(21L)));
+        assertFalse(rowGroup.overlaps(Domain.create(SortedRangeSet.of(Range.greaterThan(20L)), false)));
+        assertFalse(rowGroup.overlaps(Domain.onlyNull(Long.class)));
+
+        // predicates touching the row group range keep it, including the bounds
+        assertTrue(rowGroup.overlaps(Domain.singleValue(10L)));
+        assertTrue(rowGroup.overlaps(Domain.singleValue(20L)));
+        assertTrue(rowGroup.overlaps(Domain.create(SortedRangeSet.of(Range.lessThan(11L)), false)));
+
+        // a row group with nulls matches an IS NULL predicate
+        assertTrue(getDomain(BIGINT, 100, longStatistics(10, 20, 1)).overlaps(Domain.onlyNull(Long.class)));
+    }
+
+    private static Domain range(Comparable<?> min, Comparable<?> max, boolean nullAllowed)
+    {
+        return Domain.create(SortedRangeSet.of(Range.range(min, true, max, true)), nullAllowed);
+    }
+
+    private static Statistics<?> longStatistics(long min, long max, long nulls)
+    {
+        LongStatistics statistics = new LongStatistics();
+        statistics.setMinMax(min, max);
+        statistics.setNumNulls(nulls);
+        return statistics;
+    }
+
+    private static Statistics<?> intStatistics(int min, int max, long nulls)
+    {
+        IntStatistics statistics = new IntStatistics();
+        statistics.setMinMax(min, max);
+        statistics.setNumNulls(nulls);
+        return statistics;
+    }
+
+    private static Statistics<?> doubleStatistics(double min, double max, long nulls)
+    {
+        DoubleStatistics statistics = new DoubleStatistics();
+        statistics.setMinMax(min, max);
+        statistics.setNumNulls(nulls);
+        return statistics;
+    }
+
+    private static Statistics<?> booleanStatistics(boolean min, boolean max, long nulls)
+    {
+        BooleanStatistics statistics = new BooleanStatistics();
+        statistics.setMinMax(min, max);
+        statistics.setNumNulls(nulls);
+        return statistics;
+    }
+}
@@ -33,6 +33,9 @@ public final class SystemSessionProperties
 {
     public static final String OPTIMIZE_HASH_GENERATION = "optimize_hash_generation";
     public static final String DISTRIBUTED_JOIN = "distributed_join";
+    public static final String REORDER_JOINS = "reorder_joins";
+    public static final String AUTOMATIC_JOIN_DISTRIBUTION = "automatic_join_distribution";
+    public static final String BROADCAST_JOIN_MAX_BUILD_SIZE = "broadcast_join_max_build_size";
     public static final String HASH_PARTITION_COUNT = "hash_partition_count";
     public static final String PREFER_STREAMING_OPERATORS = "prefer_streaming_operators";
     public static final String TASK_WRITER_COUNT = "task_writer_count";
@@ -42,6 +45,10 @@ public final class SystemSessionProperties
     public static final String TASK_AGGREGATION_CONCURRENCY = "task_aggregation_concurrency";
     public static final String QUERY_MAX_MEMORY = "query_max_memory";
     public static final String REDISTRIBUTE_WRITES = "redistribute_writes";
+    public static final String SPILL_ENABLED = "spill_enabled";
+    public static final String OPERATOR_MEMORY_LIMIT_BEFORE_SPILL = "operator_memory_limit_before_spill";
+    public static final String DYNAMIC_FILTERING_ENABLED = "dynamic_filtering_enabled";
+    public static final String COLOCATED_JOIN = "colocated_join";
 
     private final List<PropertyMetadata<?>> sessionProperties;
 
@@ -68,6 +75,24 @@ public final class SystemSessionProperties
                         "Use a distributed join instead of a broadcast join",
                         featuresConfig.isDistributedJoinsEnabled(),
                         false),
+                booleanSessionProperty(
+                        REORDER_JOINS,
+                        "Reorder inner joins and choose the build side using table statistics",
+                        featuresConfig.isReorderJoins(),
+                        false),
+                booleanSessionProperty(
+                        AUTOMATIC_JOIN_DISTRIBUTION,
+                        "Choose between a broadcast and a distributed join using the estimated size of the build side",
+                        featuresConfig.isAutomaticJoinDistribution(),
+                        false),
+                new PropertyMetadata<>(
+                        BROADCAST_JOIN_MAX_BUILD_SIZE,
+                        "Maximum estimated size of the build side of a broadcast join, when the join distribution is chosen automatically",
+                        VARCHAR,
+                        DataSize.class,
+                        featuresConfig.getBroadcastJoinMaxBuildSize(),
+                        false,
+                        value -> DataSize.valueOf((String) value)),
                 integerSessionProperty(
                         HASH_PARTITION_COUNT,
                         "Number of partitions for distributed joins and aggregations",
@@ -108,6 +133,29 @@ public final class SystemSessionProperties
                         "Experimental: Default number of local parallel aggregation jobs per worker",
                         taskManagerConfig.getTaskDefaultConcurrency(),
                         false),
+                booleanSessionProperty(
+                        SPILL_ENABLED,
+                        "Experimental: Spill operator state to local disk when memory is exhausted",
+                        featuresConfig.isSpillEnabled(),
+                        false),
+                new PropertyMetadata<>(
+                        OPERATOR_MEMORY_LIMIT_BEFORE_SPILL,
+                        "Experimental: Operator memory limit before spill",
+                        VARCHAR,
+                        DataSize.class,
+                        featuresConfig.getOperatorMemoryLimitBeforeSpill(),
+                        false,
+                        value -> DataSize.valueOf((String) value)),
+                booleanSessionProperty(
+                        DYNAMIC_FILTERING_ENABLED,
+                        "Experimental: Filter the probe side scan of a join using values collected from the build side",
+                        featuresConfig.isDynamicFilteringEnabled(),
+                        false),
+                booleanSessionProperty(
+                        COLOCATED_JOIN,
+                        "Experimental: Join tables bucketed the same way on their bucketing columns bucket by bucket, without exchanging any data",
+                        featuresConfig.isColocatedJoinsEnabled(),
+                        false),
                 new PropertyMetadata<>(
                         QUERY_MAX_MEMORY,
                         "Maximum amount of distributed memory a query can use",
@@ -133,6 +181,21 @@ public final class SystemSessionProperties
         return session.getProperty(DISTRIBUTED_JOIN, Boolean.class);
     }
 
+    public static boolean isReorderJoinsEnabled(Session session)
+    {
+        return session.getProperty(REORDER_JOINS, Boolean.class);
+    }
+
+    public static boolean isAutomaticJoinDistribution(Session session)
+    {
+        return session.getProperty(AUTOMATIC_JOIN_DISTRIBUTION, Boolean.class);
+    }
+
+    public static DataSize getBroadcastJoinMaxBuildSize(Session session)
+    {
+        return session.getProperty(BROADCAST_JOIN_MAX_BUILD_SIZE, DataSize.class);
+    }
+
     public static int getHashPartitionCount(Session session)
     {
         return session.getProperty(HASH_PARTITION_COUNT, Integer.class);
@@ -153,6 +216,11 @@ public final class SystemSessionProperties
         return session.getProperty(REDISTRIBUTE_WRITES, Boolean.class);
     }
 
+    public static int getTaskDefaultConcurrency(Session session)
+    {
+        return session.getProperty(TASK_DEFAULT_CONCURRENCY, Integer.class);
+    }
+
     public static int getTaskJoinConcurrency(Session session)
     {
         return getPropertyOr(session, TASK_JOIN_CONCURRENCY, TASK_DEFAULT_CONCURRENCY, Integer.class);
@@ -168,6 +236,26 @@ public final class SystemSessionProperties
         return getPropertyOr(session, TASK_AGGREGATION_CONCURRENCY, TASK_DEFAULT_CONCURRENCY, Integer.class);
     }
 
+    public static boolean isSpillEnabled(Session session)
+    {
+        return session.getProperty(SPILL_ENABLED, Boolean.class);
+    }
+
+    public static DataSize getOperatorMemoryLimitBeforeSpill(Session session)
+    {
+        return session.getProperty(OPERATOR_MEMORY_LIMIT_BEFORE_SPILL, DataSize.class);
+    }
+
+    public static boolean isDynamicFilteringEnabled(Session session)
+    {
+        return session.getProperty(DYNAMIC_FILTERING_ENABLED, Boolean.class);
+    }
+
+    public static boolean isColocatedJoinEnabled(Session session)
+    {
+        return session.getProperty(COLOCATED_JOIN, Boolean.class);
+    }
+
     public static DataSize getQueryMaxMemory(Session session)
     {
         return session.getProperty(QUERY_MAX_MEMORY, DataSize.class);
@@ -13,11 +13,16 @@
  */
 package com.facebook.presto.block;
 
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.LazySliceArrayBlock;
 import com.facebook.presto.spi.type.Type;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
 
+import javax.annotation.Nullable;
+
 public final class BlockUtils
 {
     private BlockUtils()
@@ -55,4 +60,29 @@ public final class BlockUtils
             type.writeObject(blockBuilder, value);
         }
     }
+
+    /**
+     * Returns true if the block is dictionary encoded, either directly or as a dictionary encoded
+     * lazy slice block. Lazy blocks are loaded by this call.
+     */
+    public static boolean isDictionaryEncoded(Block block)
+    {
+        return block instanceof DictionaryBlock || (block instanceof LazySliceArrayBlock && ((LazySliceArrayBlock) block).isDictionary());
+    }
+
+    /**
+     * Returns the block as a dictionary block if it is dictionary encoded, or null otherwise.
+     * Lazy blocks are loaded by this call.
+     */
+    @Nullable
+    public static DictionaryBlock getDictionaryBlock(Block block)
+    {
+        if (block instanceof DictionaryBlock) {
+            return (DictionaryBlock) block;
+        }
+        if (isDictionaryEncoded(block)) {
+            return (DictionaryBlock) ((LazySliceArrayBlock) block).createNonLazyBlock();
+        }
+        return null;
+    }
 }
@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.block;
+
+import org.iq80.snappy.Snappy;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public enum PageCompression
+{
+    NONE(0) {
+        @Override
+        public int maxCompressedLength(int uncompressedLength)
+        {
+            return uncompressedLength;
+        }
+
+        @Override
+        public int compress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset)
+        {
+            System.arraycopy(input, inputOffset, output, outputOffset, inputLength);
+            return inputLength;
+        }
+
+        @Override
+        public void decompress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, int outputLength)
+        {
+            checkArgument(inputLength == outputLength, "Uncompressed page has size %s, but expected %s", inputLength, outputLength);
+            System.arraycopy(input, inputOffset, output, outputOffset, inputLength);
+        }
+    },
+    SNAPPY(1) {
+        @Override
+        public int maxCompressedLength(int uncompressedLength)
+        {
+            return Snappy.maxCompressedLength(uncompressedLength);
+        }
+
+        @Override
+        public int compress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset)
+        {
+            return Snappy.compress(input, inputOffset, inputLength, output, outputOffset);
+        }
+
+        @Override
+        public void decompress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, int outputLength)
+        {
+            int length = Snappy.uncompress(input, inputOffset, inputLength, output, outputOffset);
+            checkArgument(length == outputLength, "Decompressed page has size %s, but expected %s", length, outputLength);
+        }
+    };
+
+    private final byte id;
+
+    PageCompression(int id)
+    {
+        this.id = (byte) id;
+    }
+
+    /**
+     * Identifier of the codec in the serialized page header
+     */
+    public byte getId()
+    {
+        return id;
+    }
+
+    public abstract int maxCompressedLength(int uncompressedLength);
+
+    public abstract int compress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset);
+
+    public abstract void decompress(byte[] input, int inputOffset, int inputLength, byte[] output, int outputOffset, int outputLength);
+
+    public static PageCompression fromId(byte id)
+    {
+        for (PageCompression compression : values()) {
+            if (compression.id == id) {
+                return compression;
+            }
+        }
+        throw new IllegalArgumentException("Unknown page compression id: " + id);
+    }
+
+    /**
+     * Parses the value of the page compression header, returning {@link #NONE}
+     * for a missing or unsupported codec so that peers running an older or
+     * newer version fall back to uncompressed pages.
+     */
+    public static PageCompression fromHeader(String value)
+    {
+        if (value == null) {
+            return NONE;
+        }
+        for (PageCompression compression : values()) {
+            if (compression.name().equalsIgnoreCase(value.trim())) {
+                return compression;
+            }
+        }
+        return NONE;
+    }
+}
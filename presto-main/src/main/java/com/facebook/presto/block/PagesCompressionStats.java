@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.block;
+
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Sizes and CPU time of pages written or read in the compressed pages format. Pages that
+ * were left uncompressed count towards both sizes and take no compression CPU time.
+ */
+@ThreadSafe
+public class PagesCompressionStats
+{
+    private final AtomicLong compressedBytes = new AtomicLong();
+    private final AtomicLong uncompressedBytes = new AtomicLong();
+    private final AtomicLong compressionNanos = new AtomicLong();
+    private final AtomicLong decompressionNanos = new AtomicLong();
+
+    public void recordCompression(long compressedSize, long uncompressedSize, long nanos)
+    {
+        compressedBytes.addAndGet(compressedSize);
+        uncompressedBytes.addAndGet(uncompressedSize);
+        compressionNanos.addAndGet(nanos);
+    }
+
+    public void recordDecompression(long compressedSize, long uncompressedSize, long nanos)
+    {
+        compressedBytes.addAndGet(compressedSize);
+        uncompressedBytes.addAndGet(uncompressedSize);
+        decompressionNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Size of the pages as transferred, whether or not the sender compressed them.
+     */
+    public DataSize getCompressedDataSize()
+    {
+        return new DataSize(compressedBytes.get(), BYTE).convertToMostSuccinctDataSize();
+    }
+
+    public DataSize getUncompressedDataSize()
+    {
+        return new DataSize(uncompressedBytes.get(), BYTE).convertToMostSuccinctDataSize();
+    }
+
+    /**
+     * Ratio of uncompressed to transferred page bytes; 1.0 when no pages were transferred.
+     */
+    public double getCompressionRatio()
+    {
+        long compressed = compressedBytes.get();
+        if (compressed == 0) {
+            return 1.0;
+        }
+        return uncompressedBytes.get() / (double) compressed;
+    }
+
+    public Duration getCompressionCpuTime()
+    {
+        return new Duration(compressionNanos.get(), NANOSECONDS).convertToMostSuccinctTimeUnit();
+    }
+
+    public Duration getDecompressionCpuTime()
+    {
+        return new Duration(decompressionNanos.get(), NANOSECONDS).convertToMostSuccinctTimeUnit();
+    }
+}
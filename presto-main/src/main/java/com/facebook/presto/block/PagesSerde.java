@@ -18,11 +18,16 @@ import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockEncoding;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.google.common.collect.AbstractIterator;
+import io.airlift.slice.DynamicSliceOutput;
 import io.airlift.slice.SliceInput;
 import io.airlift.slice.SliceOutput;
+import io.airlift.slice.Slices;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.util.Iterator;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.Arrays.asList;
 
@@ -32,8 +37,17 @@ import static java.util.Arrays.asList;
 //   - sequence of:
 //       - block encoding
 //       - block
+//
+// compressed layout is:
+//   - position count (int)
+//   - compression codec id (byte), NONE for pages below the compression threshold
+//   - uncompressed size (int)
+//   - size (int)
+//   - number of blocks, block encodings and blocks as above, compressed with the codec
 public final class PagesSerde
 {
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
     private PagesSerde() {}
 
     public static void writePages(BlockEncodingSerde blockEncodingSerde, SliceOutput sliceOutput, Page... pages)
@@ -59,6 +73,40 @@ public final class PagesSerde
         return new PagesReader(blockEncodingSerde, sliceInput);
     }
 
+    public static void writeCompressedPages(BlockEncodingSerde blockEncodingSerde, SliceOutput sliceOutput, PageCompression compression, long minCompressionSize, PagesCompressionStats stats, Iterable<Page> pages)
+    {
+        CompressedPagesWriter pagesWriter = new CompressedPagesWriter(blockEncodingSerde, sliceOutput, compression, minCompressionSize, stats);
+        for (Page page : pages) {
+            pagesWriter.append(page);
+        }
+    }
+
+    public static Iterator<Page> readCompressedPages(BlockEncodingSerde blockEncodingSerde, SliceInput sliceInput, PagesCompressionStats stats)
+    {
+        return new CompressedPagesReader(blockEncodingSerde, sliceInput, stats);
+    }
+
+    private static void writeBlocks(BlockEncodingSerde serde, SliceOutput output, Block[] blocks)
+    {
+        output.writeInt(blocks.length);
+        for (int i = 0; i < blocks.length; i++) {
+            BlockEncoding encoding = blocks[i].getEncoding();
+            serde.writeBlockEncoding(output, encoding);
+            encoding.writeBlock(output, blocks[i]);
+        }
+    }
+
+    private static Block[] readBlocks(BlockEncodingSerde serde, SliceInput input)
+    {
+        int numberOfBlocks = input.readInt();
+        Block[] blocks = new Block[numberOfBlocks];
+        for (int i = 0; i < blocks.length; i++) {
+            BlockEncoding encoding = serde.readBlockEncoding(input);
+            blocks[i] = encoding.readBlock(input);
+        }
+        return blocks;
+    }
+
     private static class PagesWriter
     {
         private final BlockEncodingSerde serde;
@@ -77,12 +125,7 @@ public final class PagesSerde
             Block[] blocks = page.getBlocks();
 
             output.writeInt(page.getPositionCount());
-            output.writeInt(blocks.length);
-            for (int i = 0; i < blocks.length; i++) {
-                BlockEncoding encoding = blocks[i].getEncoding();
-                serde.writeBlockEncoding(output, encoding);
-                encoding.writeBlock(output, blocks[i]);
-            }
+            writeBlocks(serde, output, blocks);
 
             return this;
         }
@@ -108,16 +151,110 @@ public final class PagesSerde
             }
 
             int positions = input.readInt();
-            int numberOfBlocks = input.readInt();
-            Block[] blocks = new Block[numberOfBlocks];
-            for (int i = 0; i < blocks.length; i++) {
-                BlockEncoding encoding = serde.readBlockEncoding(input);
-                blocks[i] = encoding.readBlock(input);
-            }
+            Block[] blocks = readBlocks(serde, input);
 
             @SuppressWarnings("UnnecessaryLocalVariable")
             Page page = new Page(positions, blocks);
             return page;
         }
     }
+
+    private static class CompressedPagesWriter
+    {
+        private final BlockEncodingSerde serde;
+        private final SliceOutput output;
+        private final PageCompression compression;
+        private final long minCompressionSize;
+        private final PagesCompressionStats stats;
+        private final DynamicSliceOutput buffer = new DynamicSliceOutput(64 * 1024);
+
+        private CompressedPagesWriter(BlockEncodingSerde serde, SliceOutput output, PageCompression compression, long minCompressionSize, PagesCompressionStats stats)
+        {
+            this.serde = checkNotNull(serde, "serde is null");
+            this.output = checkNotNull(output, "output is null");
+            this.compression = checkNotNull(compression, "compression is null");
+            checkArgument(minCompressionSize >= 0, "minCompressionSize is negative");
+            this.minCompressionSize = minCompressionSize;
+            this.stats = checkNotNull(stats, "stats is null");
+        }
+
+        public CompressedPagesWriter append(Page page)
+        {
+            checkNotNull(page, "page is null");
+
+            buffer.reset();
+            writeBlocks(serde, buffer, page.getBlocks());
+            byte[] uncompressed = buffer.slice().getBytes();
+
+            PageCompression pageCompression = PageCompression.NONE;
+            byte[] data = uncompressed;
+            int size = uncompressed.length;
+            long compressionNanos = 0;
+            if (compression != PageCompression.NONE && uncompressed.length >= minCompressionSize) {
+                long start = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+                byte[] compressed = new byte[compression.maxCompressedLength(uncompressed.length)];
+                int compressedSize = compression.compress(uncompressed, 0, uncompressed.length, compressed, 0);
+                compressionNanos = THREAD_MX_BEAN.getCurrentThreadCpuTime() - start;
+                // only ship the compressed form when it actually saves space
+                if (compressedSize < uncompressed.length) {
+                    pageCompression = compression;
+                    data = compressed;
+                    size = compressedSize;
+                }
+            }
+            stats.recordCompression(size, uncompressed.length, compressionNanos);
+
+            output.writeInt(page.getPositionCount());
+            output.writeByte(pageCompression.getId());
+            output.writeInt(uncompressed.length);
+            output.writeInt(size);
+            output.writeBytes(data, 0, size);
+
+            return this;
+        }
+    }
+
+    private static class CompressedPagesReader
+            extends AbstractIterator<Page>
+    {
+        private final BlockEncodingSerde serde;
+        private final SliceInput input;
+        private final PagesCompressionStats stats;
+
+        public CompressedPagesReader(BlockEncodingSerde serde, SliceInput input, PagesCompressionStats stats)
+        {
+            this.serde = checkNotNull(serde, "serde is null");
+            this.input = checkNotNull(input, "input is null");
+            this.stats = checkNotNull(stats, "stats is null");
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            if (!input.isReadable()) {
+                return endOfData();
+            }
+
+            int positions = input.readInt();
+            PageCompression compression = PageCompression.fromId(input.readByte());
+            int uncompressedSize = input.readInt();
+            int size = input.readInt();
+
+            byte[] data = new byte[size];
+            input.readBytes(data);
+
+            byte[] uncompressed = data;
+            long decompressionNanos = 0;
+            if (compression != PageCompression.NONE) {
+                long start = THREAD_MX_BEAN.getCurrentThreadCpuTime();
+                uncompressed = new byte[uncompressedSize];
+                compression.decompress(data, 0, size, uncompressed, 0, uncompressedSize);
+                decompressionNanos = THREAD_MX_BEAN.getCurrentThreadCpuTime() - start;
+            }
+            stats.recordDecompression(size, uncompressedSize, decompressionNanos);
+
+            Block[] blocks = readBlocks(serde, Slices.wrappedBuffer(uncompressed).getInput());
+            return new Page(positions, blocks);
+        }
+    }
 }
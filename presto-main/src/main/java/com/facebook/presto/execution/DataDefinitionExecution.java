@@ -30,6 +30,7 @@ import java.util.concurrent.ExecutorService;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class DataDefinitionExecution<T extends Statement>
         implements QueryExecution
@@ -72,6 +73,12 @@ public class DataDefinitionExecution<T extends Statement>
         return 0;
     }
 
+    @Override
+    public Duration getTotalCpuTime()
+    {
+        return new Duration(0, NANOSECONDS);
+    }
+
     @Override
     public Session getSession()
     {
@@ -23,6 +23,7 @@ import java.util.concurrent.Executor;
 
 import static com.facebook.presto.memory.LocalMemoryManager.GENERAL_POOL;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 public class FailedQueryExecution
         implements QueryExecution
@@ -76,6 +77,12 @@ public class FailedQueryExecution
         return 0;
     }
 
+    @Override
+    public Duration getTotalCpuTime()
+    {
+        return new Duration(0, NANOSECONDS);
+    }
+
     @Override
     public Session getSession()
     {
@@ -21,6 +21,7 @@ import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
@@ -37,6 +38,7 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.OptionalDouble;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
@@ -50,6 +52,10 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 public class NodeScheduler
 {
+    // lower bound on the share of maxSplitsPerNode given to a slow node, so it keeps
+    // receiving enough splits to measure when it recovers
+    private static final double MIN_NODE_WEIGHT = 0.1;
+
     private final String coordinatorNodeId;
     private final NodeManager nodeManager;
     private final AtomicLong scheduleLocal = new AtomicLong();
@@ -62,6 +68,7 @@ public class NodeScheduler
     private final int maxSplitsPerNodePerTaskWhenFull;
     private final NodeTaskMap nodeTaskMap;
     private final boolean doubleScheduling;
+    private final boolean adaptiveSplitAssignment;
 
     @Inject
     public NodeScheduler(NodeManager nodeManager, NodeSchedulerConfig config, NodeTaskMap nodeTaskMap)
@@ -74,6 +81,7 @@ public class NodeScheduler
         this.doubleScheduling = config.isMultipleTasksPerNodeEnabled();
         this.maxSplitsPerNode = config.getMaxSplitsPerNode();
         this.maxSplitsPerNodePerTaskWhenFull = config.getMaxPendingSplitsPerNodePerTask();
+        this.adaptiveSplitAssignment = config.isAdaptiveSplitAssignmentEnabled();
         this.nodeTaskMap = checkNotNull(nodeTaskMap, "nodeTaskMap is null");
         checkArgument(maxSplitsPerNode > maxSplitsPerNodePerTaskWhenFull, "maxSplitsPerNode must be > maxSplitsPerNodePerTaskWhenFull");
     }
@@ -211,6 +219,8 @@ public class NodeScheduler
                 assignmentCount.put(node, 0);
             }
 
+            Map<Node, Double> nodeWeights = computeNodeWeights(assignmentCount.keySet());
+
             // maintain a temporary local cache of partitioned splits on the node
             Map<Node, Integer> splitCountByNode = new HashMap<>();
 
@@ -248,12 +258,16 @@ public class NodeScheduler
                 Node chosenNode = null;
                 int min = Integer.MAX_VALUE;
 
+                // pick the node that will drain its splits first, relative to its recent throughput
+                double minLoad = Double.MAX_VALUE;
                 for (Node node : candidateNodes) {
                     int totalSplitCount = assignmentCount.getOrDefault(node, 0) + splitCountByNode.get(node);
+                    double weight = nodeWeights.getOrDefault(node, 1.0);
+                    double load = totalSplitCount / weight;
 
-                    if (totalSplitCount < min && totalSplitCount < maxSplitsPerNode) {
+                    if (load < minLoad && totalSplitCount < maxSplitsPerNode * weight) {
                         chosenNode = node;
-                        min = totalSplitCount;
+                        minLoad = load;
                     }
                 }
                 if (chosenNode == null) {
@@ -272,9 +286,122 @@ public class NodeScheduler
                     assignmentCount.put(chosenNode, assignmentCount.getOrDefault(chosenNode, 0) + 1);
                 }
             }
+
+            if (!nodeWeights.isEmpty()) {
+                reassignSplitsOfLaggingTasks(existingTasks, nodeWeights, splitCountByNode, assignment, assignmentCount);
+            }
             return assignment;
         }
 
+        /**
+         * Takes back the splits a task on a slow node has not started yet, as far as the node holds
+         * more than its share of splits, and assigns them to nodes with room for them.  Every reclaimed
+         * split is added to the assignment, on its original node if no other node can take it.
+         */
+        private void reassignSplitsOfLaggingTasks(
+                Iterable<RemoteTask> existingTasks,
+                Map<Node, Double> nodeWeights,
+                Map<Node, Integer> splitCountByNode,
+                Multimap<Node, Split> assignment,
+                Map<Node, Integer> assignmentCount)
+        {
+            Map<String, Node> nodesById = new HashMap<>();
+            for (Node node : assignmentCount.keySet()) {
+                if (includeCoordinator || !coordinatorNodeId.equals(node.getNodeIdentifier())) {
+                    nodesById.put(node.getNodeIdentifier(), node);
+                    if (!splitCountByNode.containsKey(node)) {
+                        splitCountByNode.put(node, nodeTaskMap.getPartitionedSplitsOnNode(node));
+                    }
+                }
+            }
+
+            for (RemoteTask task : existingTasks) {
+                Node laggingNode = nodesById.get(task.getNodeId());
+                if (laggingNode == null || nodeWeights.getOrDefault(laggingNode, 1.0) >= 1.0) {
+                    continue;
+                }
+
+                int excess = getTotalSplitCount(laggingNode, splitCountByNode, assignmentCount) - getMaxSplitCount(laggingNode, nodeWeights);
+                int freeCapacity = 0;
+                for (Node node : nodesById.values()) {
+                    if (!node.equals(laggingNode)) {
+                        freeCapacity += Math.max(getMaxSplitCount(node, nodeWeights) - getTotalSplitCount(node, splitCountByNode, assignmentCount), 0);
+                    }
+                }
+                int reclaimCount = Math.min(excess, freeCapacity);
+                if (reclaimCount <= 0) {
+                    continue;
+                }
+
+                for (Split split : task.reclaimPartitionedSplits(reclaimCount)) {
+                    List<Node> candidateNodes;
+                    if (locationAwareScheduling || !split.isRemotelyAccessible()) {
+                        candidateNodes = selectCandidateNodes(nodeMap.get().get(), split);
+                    }
+                    else {
+                        candidateNodes = ImmutableList.copyOf(nodesById.values());
+                    }
+
+                    Node chosenNode = laggingNode;
+                    double minLoad = Double.MAX_VALUE;
+                    for (Node node : candidateNodes) {
+                        int totalSplitCount = getTotalSplitCount(node, splitCountByNode, assignmentCount);
+                        double load = totalSplitCount / nodeWeights.getOrDefault(node, 1.0);
+                        if (!node.equals(laggingNode) && load < minLoad && totalSplitCount < getMaxSplitCount(node, nodeWeights)) {
+                            chosenNode = node;
+                            minLoad = load;
+                        }
+                    }
+
+                    assignment.put(chosenNode, split);
+                    if (!chosenNode.equals(laggingNode)) {
+                        assignmentCount.put(chosenNode, assignmentCount.getOrDefault(chosenNode, 0) + 1);
+                        splitCountByNode.put(laggingNode, splitCountByNode.get(laggingNode) - 1);
+                    }
+                }
+            }
+        }
+
+        private int getTotalSplitCount(Node node, Map<Node, Integer> splitCountByNode, Map<Node, Integer> assignmentCount)
+        {
+            return assignmentCount.getOrDefault(node, 0) + splitCountByNode.getOrDefault(node, 0);
+        }
+
+        private int getMaxSplitCount(Node node, Map<Node, Double> nodeWeights)
+        {
+            return (int) Math.ceil(maxSplitsPerNode * nodeWeights.getOrDefault(node, 1.0));
+        }
+
+        /**
+         * Weights each node by its recent split throughput relative to the fastest node.
+         * Nodes without enough history get the full weight of 1.
+         */
+        private Map<Node, Double> computeNodeWeights(Set<Node> nodes)
+        {
+            if (!adaptiveSplitAssignment) {
+                return ImmutableMap.of();
+            }
+
+            Map<Node, Double> throughputs = new HashMap<>();
+            double maxThroughput = 0;
+            for (Node node : nodes) {
+                OptionalDouble throughput = nodeTaskMap.getSplitThroughput(node);
+                if (throughput.isPresent()) {
+                    throughputs.put(node, throughput.getAsDouble());
+                    maxThroughput = Math.max(maxThroughput, throughput.getAsDouble());
+                }
+            }
+            if (maxThroughput <= 0) {
+                return ImmutableMap.of();
+            }
+
+            ImmutableMap.Builder<Node, Double> weights = ImmutableMap.builder();
+            for (Map.Entry<Node, Double> entry : throughputs.entrySet()) {
+                weights.put(entry.getKey(), Math.max(entry.getValue() / maxThroughput, MIN_NODE_WEIGHT));
+            }
+            return weights.build();
+        }
+
         private ResettableRandomizedIterator<Node> randomizedNodes()
         {
             ImmutableList<Node> nodes = nodeMap.get().get().getNodesByHostAndPort().values().stream()
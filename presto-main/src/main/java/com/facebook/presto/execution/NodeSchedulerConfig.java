@@ -26,6 +26,7 @@ public class NodeSchedulerConfig
     private boolean multipleTasksPerNode;
     private int maxSplitsPerNode = 100;
     private int maxPendingSplitsPerNodePerTask = 10;
+    private boolean adaptiveSplitAssignment;
 
     public boolean isMultipleTasksPerNodeEnabled()
     {
@@ -100,4 +101,17 @@ public class NodeSchedulerConfig
         this.maxSplitsPerNode = maxSplitsPerNode;
         return this;
     }
+
+    public boolean isAdaptiveSplitAssignmentEnabled()
+    {
+        return adaptiveSplitAssignment;
+    }
+
+    @ConfigDescription("Assign fewer splits to nodes that recently completed splits more slowly than other nodes")
+    @Config("node-scheduler.adaptive-split-assignment-enabled")
+    public NodeSchedulerConfig setAdaptiveSplitAssignmentEnabled(boolean adaptiveSplitAssignment)
+    {
+        this.adaptiveSplitAssignment = adaptiveSplitAssignment;
+        return this;
+    }
 }
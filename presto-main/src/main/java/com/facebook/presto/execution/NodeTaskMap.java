@@ -14,17 +14,23 @@
 package com.facebook.presto.execution;
 
 import com.facebook.presto.spi.Node;
+import io.airlift.stats.DecayCounter;
+import io.airlift.stats.ExponentialDecay;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.OptionalDouble;
 import java.util.concurrent.ConcurrentHashMap;
 
 @ThreadSafe
 public class NodeTaskMap
 {
+    // number of recently completed splits required before the throughput of a node is trusted
+    private static final double MIN_COMPLETED_SPLITS = 10;
+
     private final ConcurrentHashMap<Node, NodeTasks> nodeTasksMap = new ConcurrentHashMap<>();
 
     public void addTask(Node node, RemoteTask task)
@@ -55,11 +61,61 @@ public class NodeTaskMap
         return nodeTasks.getPartitionedSplitCount();
     }
 
+    /**
+     * Returns the recent split throughput of the node, measured as completed splits
+     * per second a split spent assigned to the node.  This is the inverse of the
+     * average split latency on the node, so it does not depend on how many splits the
+     * node was given.  Returns empty if too few splits completed on the node recently.
+     */
+    public OptionalDouble getSplitThroughput(Node node)
+    {
+        NodeTasks nodeTasks = nodeTasksMap.get(node);
+        if (nodeTasks == null) {
+            return OptionalDouble.empty();
+        }
+        return nodeTasks.getSplitThroughput();
+    }
+
+    void recordSplitProgress(Node node, long completedSplits, double splitSeconds)
+    {
+        NodeTasks nodeTasks = nodeTasksMap.get(node);
+        if (nodeTasks == null) {
+            nodeTasks = addNodeTask(node);
+        }
+        nodeTasks.recordSplitProgress(completedSplits, splitSeconds);
+    }
+
     private static class NodeTasks
     {
         @GuardedBy("this")
         private final List<RemoteTask> remoteTasks = new ArrayList<>();
 
+        @GuardedBy("this")
+        private final DecayCounter completedSplits = new DecayCounter(ExponentialDecay.oneMinute());
+        @GuardedBy("this")
+        private final DecayCounter splitMillis = new DecayCounter(ExponentialDecay.oneMinute());
+
+        private synchronized OptionalDouble getSplitThroughput()
+        {
+            double completed = completedSplits.getCount();
+            double seconds = splitMillis.getCount() / 1000;
+            if (completed < MIN_COMPLETED_SPLITS || seconds <= 0) {
+                return OptionalDouble.empty();
+            }
+            return OptionalDouble.of(completed / seconds);
+        }
+
+        private synchronized void recordSplitProgress(long completed, double seconds)
+        {
+            if (completed > 0) {
+                completedSplits.add(completed);
+            }
+            if (seconds > 0) {
+                // DecayCounter only accepts whole counts, so track milliseconds
+                splitMillis.add((long) (seconds * 1000));
+            }
+        }
+
         private synchronized int getPartitionedSplitCount()
         {
             int partitionedSplitCount = 0;
@@ -72,7 +128,9 @@ public class NodeTaskMap
         private synchronized void addTask(RemoteTask task)
         {
             remoteTasks.add(task);
+            TaskProgress progress = new TaskProgress();
             task.addStateChangeListener(taskInfo -> {
+                progress.update(task, taskInfo);
                 if (taskInfo.getState().isDone()) {
                     synchronized (NodeTasks.this) {
                         remoteTasks.remove(task);
@@ -85,5 +143,34 @@ public class NodeTaskMap
                 remoteTasks.remove(task);
             }
         }
+
+        /**
+         * Tracks how far a single task has progressed since its previous update.
+         */
+        private class TaskProgress
+        {
+            @GuardedBy("this")
+            private long completedSplits;
+            @GuardedBy("this")
+            private long lastUpdateNanos = System.nanoTime();
+
+            private void update(RemoteTask task, TaskInfo taskInfo)
+            {
+                long completed;
+                double seconds;
+                synchronized (this) {
+                    long now = System.nanoTime();
+                    // only drivers of partitioned splits count, the other drivers of the task are not assigned by the scheduler
+                    int newCompletedSplits = taskInfo.getStats().getCompletedPartitionedDrivers();
+                    completed = Math.max(newCompletedSplits - completedSplits, 0);
+                    completedSplits = Math.max(newCompletedSplits, completedSplits);
+
+                    // splits assigned to the task during this interval, including finished ones
+                    seconds = (task.getPartitionedSplitCount() + completed) * ((now - lastUpdateNanos) / 1.0e9);
+                    lastUpdateNanos = now;
+                }
+                recordSplitProgress(completed, seconds);
+            }
+        }
     }
 }
@@ -14,6 +14,7 @@
 package com.facebook.presto.execution;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.configuration.DefunctConfig;
 import io.airlift.units.Duration;
 import io.airlift.units.MinDuration;
@@ -33,6 +34,7 @@ public class QueryManagerConfig
     private int maxConcurrentQueries = 1000;
     private int maxQueuedQueries = 5000;
     private String queueConfigFile;
+    private String resourceGroupConfigFile;
 
     private int initialHashPartitions = 8;
     private Duration maxQueryAge = new Duration(15, TimeUnit.MINUTES);
@@ -57,6 +59,19 @@ public class QueryManagerConfig
         return this;
     }
 
+    public String getResourceGroupConfigFile()
+    {
+        return resourceGroupConfigFile;
+    }
+
+    @Config("query.resource-group-config-file")
+    @ConfigDescription("Resource group configuration, which is used instead of the queue configuration when set")
+    public QueryManagerConfig setResourceGroupConfigFile(String resourceGroupConfigFile)
+    {
+        this.resourceGroupConfigFile = resourceGroupConfigFile;
+        return this;
+    }
+
     @Min(1)
     public int getScheduleSplitBatchSize()
     {
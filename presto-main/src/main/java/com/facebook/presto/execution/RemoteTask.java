@@ -18,22 +18,34 @@ import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 
+import java.util.List;
+
 public interface RemoteTask
 {
     String getNodeId();
 
     TaskInfo getTaskInfo();
 
+    TaskStatus getTaskStatus();
+
     void start();
 
     void addSplits(PlanNodeId sourceId, Iterable<Split> split);
 
     void noMoreSplits(PlanNodeId sourceId);
 
+    /**
+     * Removes up to {@code maxSplits} splits of the partitioned source that have not been
+     * sent to the worker yet, so they can be assigned to another task.
+     */
+    List<Split> reclaimPartitionedSplits(int maxSplits);
+
     void setOutputBuffers(OutputBuffers outputBuffers);
 
     void addStateChangeListener(StateChangeListener<TaskInfo> stateChangeListener);
 
+    void addStatusChangeListener(StateChangeListener<TaskStatus> statusChangeListener);
+
     void cancel();
 
     void abort();
@@ -0,0 +1,381 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.weakref.jmx.Managed;
+
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A node in a tree of resource groups. Queries are only added to leaf groups, but count against the
+ * limits of every group on the path to the root. A queued query is started once all of these groups
+ * are below their running query limit, their soft memory limit, and their CPU limit. When several
+ * sibling groups have queued queries, the group with the fewest running queries relative to its
+ * scheduling weight goes first.
+ * <p>
+ * All groups in a tree share the lock of the root group.
+ */
+@ThreadSafe
+public class ResourceGroup
+{
+    private final ResourceGroup root;
+    @Nullable
+    private final ResourceGroup parent;
+    private final String id;
+    private final Consumer<QueryExecution> queryStarter;
+
+    @GuardedBy("root")
+    private final Map<String, ResourceGroup> subGroups = new LinkedHashMap<>();
+    @GuardedBy("root")
+    private final Set<QueryExecution> queuedQueries = new LinkedHashSet<>();
+    @GuardedBy("root")
+    private final Set<QueryExecution> runningQueries = new HashSet<>();
+
+    @GuardedBy("root")
+    private int maxRunningQueries = Integer.MAX_VALUE;
+    @GuardedBy("root")
+    private int maxQueuedQueries = Integer.MAX_VALUE;
+    @GuardedBy("root")
+    private long softMemoryLimitBytes = Long.MAX_VALUE;
+    @GuardedBy("root")
+    private int schedulingWeight = 1;
+    @GuardedBy("root")
+    private long hardCpuLimitMillis = Long.MAX_VALUE;
+    @GuardedBy("root")
+    private long cpuQuotaGenerationMillisPerSecond = Long.MAX_VALUE;
+
+    // counts include the queries of all descendant groups
+    @GuardedBy("root")
+    private int descendantRunningQueries;
+    @GuardedBy("root")
+    private int descendantQueuedQueries;
+    @GuardedBy("root")
+    private long cachedMemoryUsageBytes;
+    @GuardedBy("root")
+    private long cpuUsageMillis;
+
+    public ResourceGroup(String name, Consumer<QueryExecution> queryStarter)
+    {
+        this.root = this;
+        this.parent = null;
+        this.id = checkNotNull(name, "name is null");
+        this.queryStarter = checkNotNull(queryStarter, "queryStarter is null");
+    }
+
+    private ResourceGroup(ResourceGroup parent, String name)
+    {
+        this.root = parent.root;
+        this.parent = parent;
+        this.id = parent.id + "." + checkNotNull(name, "name is null");
+        this.queryStarter = parent.queryStarter;
+    }
+
+    public String getId()
+    {
+        return id;
+    }
+
+    public ResourceGroup getRoot()
+    {
+        return root;
+    }
+
+    public ResourceGroup getOrCreateSubGroup(String name)
+    {
+        checkArgument(!name.contains("."), "name must not contain '.': %s", name);
+        synchronized (root) {
+            checkState(queuedQueries.isEmpty() && runningQueries.isEmpty(), "Can not add sub group to %s, because it contains queries", id);
+            return subGroups.computeIfAbsent(name, subGroupName -> new ResourceGroup(this, subGroupName));
+        }
+    }
+
+    @Nullable
+    public ResourceGroup getSubGroup(String name)
+    {
+        synchronized (root) {
+            return subGroups.get(name);
+        }
+    }
+
+    public List<ResourceGroup> getSubGroups()
+    {
+        synchronized (root) {
+            return new ArrayList<>(subGroups.values());
+        }
+    }
+
+    public void setMaxRunningQueries(int maxRunningQueries)
+    {
+        checkArgument(maxRunningQueries >= 0, "maxRunningQueries is negative");
+        synchronized (root) {
+            this.maxRunningQueries = maxRunningQueries;
+        }
+    }
+
+    public void setMaxQueuedQueries(int maxQueuedQueries)
+    {
+        checkArgument(maxQueuedQueries >= 0, "maxQueuedQueries is negative");
+        synchronized (root) {
+            this.maxQueuedQueries = maxQueuedQueries;
+        }
+    }
+
+    public void setSoftMemoryLimit(DataSize softMemoryLimit)
+    {
+        synchronized (root) {
+            this.softMemoryLimitBytes = softMemoryLimit.toBytes();
+        }
+    }
+
+    public void setSchedulingWeight(int schedulingWeight)
+    {
+        checkArgument(schedulingWeight > 0, "schedulingWeight must be positive");
+        synchronized (root) {
+            this.schedulingWeight = schedulingWeight;
+        }
+    }
+
+    /**
+     * Stops the group from starting queries once it has used {@code hardCpuLimit} of CPU time.
+     * The used CPU time is reduced by {@code hardCpuLimit} every {@code cpuQuotaPeriod}.
+     */
+    public void setHardCpuLimit(Duration hardCpuLimit, Duration cpuQuotaPeriod)
+    {
+        long limitMillis = hardCpuLimit.toMillis();
+        long periodMillis = cpuQuotaPeriod.toMillis();
+        checkArgument(periodMillis > 0, "cpuQuotaPeriod must be positive");
+        synchronized (root) {
+            this.hardCpuLimitMillis = limitMillis;
+            this.cpuQuotaGenerationMillisPerSecond = Math.max(1, limitMillis * 1000 / periodMillis);
+        }
+    }
+
+    @Managed
+    public int getRunningQueries()
+    {
+        synchronized (root) {
+            return descendantRunningQueries;
+        }
+    }
+
+    @Managed
+    public int getQueuedQueries()
+    {
+        synchronized (root) {
+            return descendantQueuedQueries;
+        }
+    }
+
+    @Managed
+    public long getMemoryUsageBytes()
+    {
+        synchronized (root) {
+            return cachedMemoryUsageBytes;
+        }
+    }
+
+    @Managed
+    public long getCpuUsageMillis()
+    {
+        synchronized (root) {
+            return cpuUsageMillis;
+        }
+    }
+
+    /**
+     * Adds a query to this group. The query is started right away if the group and all its
+     * ancestors have capacity, and queued otherwise.
+     *
+     * @return false if the query was rejected because a queue on the path to the root is full
+     */
+    public boolean add(QueryExecution query)
+    {
+        synchronized (root) {
+            checkState(subGroups.isEmpty(), "Queries can only be added to leaf groups, but %s has sub groups", id);
+            for (ResourceGroup group = this; group != null; group = group.parent) {
+                if (group.descendantQueuedQueries >= group.maxQueuedQueries) {
+                    return false;
+                }
+            }
+            if (queuedQueries.isEmpty() && canRunMore()) {
+                startQuery(query);
+            }
+            else {
+                queuedQueries.add(query);
+                for (ResourceGroup group = this; group != null; group = group.parent) {
+                    group.descendantQueuedQueries++;
+                }
+            }
+            return true;
+        }
+    }
+
+    public void queryFinished(QueryExecution query)
+    {
+        synchronized (root) {
+            if (runningQueries.remove(query)) {
+                for (ResourceGroup group = this; group != null; group = group.parent) {
+                    group.descendantRunningQueries--;
+                }
+            }
+            else if (queuedQueries.remove(query)) {
+                for (ResourceGroup group = this; group != null; group = group.parent) {
+                    group.descendantQueuedQueries--;
+                }
+            }
+        }
+    }
+
+    public void chargeCpu(Duration cpuTime)
+    {
+        long millis = cpuTime.toMillis();
+        synchronized (root) {
+            for (ResourceGroup group = this; group != null; group = group.parent) {
+                group.cpuUsageMillis += millis;
+            }
+        }
+    }
+
+    /**
+     * Refreshes the memory usage of the tree and regenerates CPU quota. Must be called on the root group.
+     */
+    public void updateUsage(Duration elapsed)
+    {
+        checkState(parent == null, "usage can only be updated on the root group");
+        synchronized (root) {
+            internalUpdateUsage(elapsed.roundTo(MILLISECONDS));
+        }
+    }
+
+    @GuardedBy("root")
+    private void internalUpdateUsage(long elapsedMillis)
+    {
+        long memoryUsageBytes = 0;
+        for (QueryExecution query : runningQueries) {
+            memoryUsageBytes += query.getTotalMemoryReservation();
+        }
+        for (ResourceGroup group : subGroups.values()) {
+            group.internalUpdateUsage(elapsedMillis);
+            memoryUsageBytes += group.cachedMemoryUsageBytes;
+        }
+        cachedMemoryUsageBytes = memoryUsageBytes;
+
+        long regenerated = cpuQuotaGenerationMillisPerSecond == Long.MAX_VALUE ? Long.MAX_VALUE : cpuQuotaGenerationMillisPerSecond * elapsedMillis / 1000;
+        cpuUsageMillis = Math.max(0, cpuUsageMillis - regenerated);
+    }
+
+    /**
+     * Starts as many queued queries as the limits allow. Must be called on the root group.
+     */
+    public void processQueuedQueries()
+    {
+        checkState(parent == null, "queued queries can only be processed on the root group");
+        synchronized (root) {
+            while (internalStartNext()) {
+                // start queries until no group can make progress
+            }
+        }
+    }
+
+    @GuardedBy("root")
+    private boolean internalStartNext()
+    {
+        if (descendantQueuedQueries == 0 || !canRunMoreLocally()) {
+            return false;
+        }
+
+        if (subGroups.isEmpty()) {
+            QueryExecution query = queuedQueries.iterator().next();
+            queuedQueries.remove(query);
+            for (ResourceGroup group = this; group != null; group = group.parent) {
+                group.descendantQueuedQueries--;
+            }
+            startQuery(query);
+            return true;
+        }
+
+        // weighted fair sharing of running queries between sibling groups
+        List<ResourceGroup> candidates = new ArrayList<>(subGroups.values());
+        candidates.sort(Comparator.comparingDouble(group -> (double) group.descendantRunningQueries / group.schedulingWeight));
+        for (ResourceGroup group : candidates) {
+            if (group.internalStartNext()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @GuardedBy("root")
+    private void startQuery(QueryExecution query)
+    {
+        runningQueries.add(query);
+        for (ResourceGroup group = this; group != null; group = group.parent) {
+            group.descendantRunningQueries++;
+        }
+        queryStarter.accept(query);
+    }
+
+    @GuardedBy("root")
+    private boolean canRunMore()
+    {
+        for (ResourceGroup group = this; group != null; group = group.parent) {
+            if (!group.canRunMoreLocally()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @GuardedBy("root")
+    private boolean canRunMoreLocally()
+    {
+        return descendantRunningQueries < maxRunningQueries &&
+                cachedMemoryUsageBytes < softMemoryLimitBytes &&
+                cpuUsageMillis < hardCpuLimitMillis;
+    }
+
+    @Override
+    public String toString()
+    {
+        synchronized (root) {
+            return toStringHelper(this)
+                    .add("id", id)
+                    .add("runningQueries", descendantRunningQueries)
+                    .add("queuedQueries", descendantQueuedQueries)
+                    .add("memoryUsageBytes", cachedMemoryUsageBytes)
+                    .add("cpuUsageMillis", cpuUsageMillis)
+                    .toString();
+        }
+    }
+}
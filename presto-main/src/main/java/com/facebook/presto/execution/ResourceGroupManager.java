@@ -0,0 +1,417 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.spi.PrestoException;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.weakref.jmx.MBeanExporter;
+import org.weakref.jmx.ObjectNames;
+
+import javax.annotation.Nullable;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.concurrent.ThreadSafe;
+import javax.inject.Inject;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static com.facebook.presto.execution.QueuedExecution.createQueuedExecution;
+import static com.facebook.presto.execution.SqlQueryManager.addCompletionCallback;
+import static com.facebook.presto.spi.StandardErrorCode.USER_ERROR;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.Duration.nanosSince;
+import static java.lang.String.format;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Admits queries through a tree of {@link ResourceGroup}s. Queries are assigned to a leaf group by the
+ * first matching selector. Memory usage and CPU quota of the groups are refreshed once a second, which
+ * is also when queries held back by the memory and CPU limits are reconsidered.
+ */
+@ThreadSafe
+public class ResourceGroupManager
+        implements QueryQueueManager
+{
+    private static final Logger log = Logger.get(ResourceGroupManager.class);
+
+    private final List<ResourceGroup> rootGroups;
+    private final List<Selector> selectors;
+    private final MBeanExporter mbeanExporter;
+    private final List<String> exportedObjectNames = new ArrayList<>();
+    private final ScheduledExecutorService refreshExecutor = newSingleThreadScheduledExecutor(daemonThreadsNamed("resource-group-manager"));
+
+    private final ConcurrentMap<QueryId, QueuedExecution> pendingExecutions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<QueryExecution, ResourceGroup> queryGroups = new ConcurrentHashMap<>();
+    private final ConcurrentMap<QueryId, AtomicLong> chargedCpuMillis = new ConcurrentHashMap<>();
+    private final AtomicLong lastRefreshNanos = new AtomicLong(System.nanoTime());
+
+    @Inject
+    public ResourceGroupManager(QueryManagerConfig config, ObjectMapper mapper, MBeanExporter mbeanExporter)
+    {
+        this(readSpec(checkNotNull(config, "config is null").getResourceGroupConfigFile(), checkNotNull(mapper, "mapper is null")), mbeanExporter);
+    }
+
+    public ResourceGroupManager(ManagerSpec managerSpec, MBeanExporter mbeanExporter)
+    {
+        checkNotNull(managerSpec, "managerSpec is null");
+        this.mbeanExporter = checkNotNull(mbeanExporter, "mbeanExporter is null");
+
+        Duration cpuQuotaPeriod = managerSpec.getCpuQuotaPeriod().orElse(new Duration(1, HOURS));
+        ImmutableList.Builder<ResourceGroup> rootGroups = ImmutableList.builder();
+        for (GroupSpec spec : managerSpec.getRootGroups()) {
+            ResourceGroup group = new ResourceGroup(spec.getName(), this::startQuery);
+            configureGroup(group, spec, cpuQuotaPeriod);
+            rootGroups.add(group);
+        }
+        this.rootGroups = rootGroups.build();
+
+        ImmutableList.Builder<Selector> selectors = ImmutableList.builder();
+        for (SelectorSpec spec : managerSpec.getSelectors()) {
+            selectors.add(new Selector(spec.getUserRegex(), spec.getSourceRegex(), findLeafGroup(spec.getGroup())));
+        }
+        this.selectors = selectors.build();
+    }
+
+    private static ManagerSpec readSpec(String configFile, ObjectMapper mapper)
+    {
+        checkArgument(configFile != null, "resource group config file is not set");
+        try {
+            return mapper.readValue(new File(configFile), ManagerSpec.class);
+        }
+        catch (IOException e) {
+            throw Throwables.propagate(e);
+        }
+    }
+
+    private static void configureGroup(ResourceGroup group, GroupSpec spec, Duration cpuQuotaPeriod)
+    {
+        group.setMaxRunningQueries(spec.getMaxRunning());
+        group.setMaxQueuedQueries(spec.getMaxQueued());
+        spec.getSoftMemoryLimit().ifPresent(group::setSoftMemoryLimit);
+        spec.getSchedulingWeight().ifPresent(group::setSchedulingWeight);
+        spec.getHardCpuLimit().ifPresent(limit -> group.setHardCpuLimit(limit, cpuQuotaPeriod));
+        for (GroupSpec subGroupSpec : spec.getSubGroups()) {
+            configureGroup(group.getOrCreateSubGroup(subGroupSpec.getName()), subGroupSpec, cpuQuotaPeriod);
+        }
+    }
+
+    private ResourceGroup findLeafGroup(String groupId)
+    {
+        Iterator<String> names = Splitter.on('.').split(groupId).iterator();
+        String rootName = names.next();
+        ResourceGroup group = rootGroups.stream()
+                .filter(rootGroup -> rootGroup.getId().equals(rootName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(format("Selector refers to undefined resource group %s", groupId)));
+        while (names.hasNext()) {
+            group = group.getSubGroup(names.next());
+            checkArgument(group != null, "Selector refers to undefined resource group %s", groupId);
+        }
+        checkArgument(group.getSubGroups().isEmpty(), "Selector must refer to a leaf resource group, but %s has sub groups", groupId);
+        return group;
+    }
+
+    @PostConstruct
+    public void start()
+    {
+        for (ResourceGroup rootGroup : rootGroups) {
+            export(rootGroup);
+        }
+        refreshExecutor.scheduleWithFixedDelay(() -> {
+            try {
+                refreshAndStartQueries();
+            }
+            catch (Throwable e) {
+                log.error(e, "Error refreshing resource groups");
+            }
+        }, 1, 1, SECONDS);
+    }
+
+    private void export(ResourceGroup group)
+    {
+        String objectName = ObjectNames.builder(ResourceGroup.class, group.getId()).build();
+        mbeanExporter.export(objectName, group);
+        exportedObjectNames.add(objectName);
+        group.getSubGroups().forEach(this::export);
+    }
+
+    @PreDestroy
+    public void destroy()
+    {
+        refreshExecutor.shutdownNow();
+        for (String objectName : exportedObjectNames) {
+            mbeanExporter.unexport(objectName);
+        }
+    }
+
+    @Override
+    public boolean submit(QueryExecution queryExecution, Executor executor, SqlQueryManagerStats stats)
+    {
+        ResourceGroup group = selectGroup(queryExecution.getSession());
+        QueryId queryId = queryExecution.getQueryId();
+
+        pendingExecutions.put(queryId, createQueuedExecution(queryExecution, ImmutableList.of(), executor, stats));
+        queryGroups.put(queryExecution, group);
+        if (!group.add(queryExecution)) {
+            pendingExecutions.remove(queryId);
+            queryGroups.remove(queryExecution);
+            return false;
+        }
+
+        addCompletionCallback(queryExecution, () -> {
+            pendingExecutions.remove(queryId);
+            queryGroups.remove(queryExecution);
+            chargeCpu(group, queryExecution);
+            chargedCpuMillis.remove(queryId);
+            group.queryFinished(queryExecution);
+            group.getRoot().processQueuedQueries();
+        });
+        return true;
+    }
+
+    private ResourceGroup selectGroup(Session session)
+    {
+        for (Selector selector : selectors) {
+            if (selector.matches(session)) {
+                return selector.getGroup();
+            }
+        }
+        throw new PrestoException(USER_ERROR, "Query did not match any resource group selector");
+    }
+
+    private void startQuery(QueryExecution queryExecution)
+    {
+        QueuedExecution queuedExecution = pendingExecutions.remove(queryExecution.getQueryId());
+        if (queuedExecution != null) {
+            queuedExecution.start();
+        }
+    }
+
+    @VisibleForTesting
+    void refreshAndStartQueries()
+    {
+        long now = System.nanoTime();
+        Duration elapsed = nanosSince(lastRefreshNanos.getAndSet(now));
+
+        for (Map.Entry<QueryExecution, ResourceGroup> entry : queryGroups.entrySet()) {
+            chargeCpu(entry.getValue(), entry.getKey());
+        }
+        for (ResourceGroup rootGroup : rootGroups) {
+            rootGroup.updateUsage(elapsed);
+            rootGroup.processQueuedQueries();
+        }
+    }
+
+    private void chargeCpu(ResourceGroup group, QueryExecution queryExecution)
+    {
+        long totalCpuMillis = queryExecution.getTotalCpuTime().toMillis();
+        AtomicLong charged = chargedCpuMillis.computeIfAbsent(queryExecution.getQueryId(), queryId -> new AtomicLong());
+        long previous = charged.getAndSet(totalCpuMillis);
+        if (totalCpuMillis > previous) {
+            group.chargeCpu(new Duration(totalCpuMillis - previous, MILLISECONDS));
+        }
+    }
+
+    private static class Selector
+    {
+        @Nullable
+        private final Pattern userRegex;
+        @Nullable
+        private final Pattern sourceRegex;
+        private final ResourceGroup group;
+
+        private Selector(@Nullable Pattern userRegex, @Nullable Pattern sourceRegex, ResourceGroup group)
+        {
+            this.userRegex = userRegex;
+            this.sourceRegex = sourceRegex;
+            this.group = checkNotNull(group, "group is null");
+        }
+
+        public boolean matches(Session session)
+        {
+            if (userRegex != null && !userRegex.matcher(session.getUser()).matches()) {
+                return false;
+            }
+            return sourceRegex == null || sourceRegex.matcher(session.getSource().orElse("")).matches();
+        }
+
+        public ResourceGroup getGroup()
+        {
+            return group;
+        }
+    }
+
+    public static class ManagerSpec
+    {
+        private final List<GroupSpec> rootGroups;
+        private final List<SelectorSpec> selectors;
+        private final Optional<Duration> cpuQuotaPeriod;
+
+        @JsonCreator
+        public ManagerSpec(
+                @JsonProperty("rootGroups") List<GroupSpec> rootGroups,
+                @JsonProperty("selectors") List<SelectorSpec> selectors,
+                @JsonProperty("cpuQuotaPeriod") @Nullable Duration cpuQuotaPeriod)
+        {
+            this.rootGroups = ImmutableList.copyOf(checkNotNull(rootGroups, "rootGroups is null"));
+            this.selectors = ImmutableList.copyOf(checkNotNull(selectors, "selectors is null"));
+            this.cpuQuotaPeriod = Optional.ofNullable(cpuQuotaPeriod);
+        }
+
+        public List<GroupSpec> getRootGroups()
+        {
+            return rootGroups;
+        }
+
+        public List<SelectorSpec> getSelectors()
+        {
+            return selectors;
+        }
+
+        public Optional<Duration> getCpuQuotaPeriod()
+        {
+            return cpuQuotaPeriod;
+        }
+    }
+
+    public static class GroupSpec
+    {
+        private final String name;
+        private final int maxRunning;
+        private final int maxQueued;
+        private final Optional<DataSize> softMemoryLimit;
+        private final Optional<Integer> schedulingWeight;
+        private final Optional<Duration> hardCpuLimit;
+        private final List<GroupSpec> subGroups;
+
+        @JsonCreator
+        public GroupSpec(
+                @JsonProperty("name") String name,
+                @JsonProperty("maxRunning") int maxRunning,
+                @JsonProperty("maxQueued") int maxQueued,
+                @JsonProperty("softMemoryLimit") @Nullable DataSize softMemoryLimit,
+                @JsonProperty("schedulingWeight") @Nullable Integer schedulingWeight,
+                @JsonProperty("hardCpuLimit") @Nullable Duration hardCpuLimit,
+                @JsonProperty("subGroups") @Nullable List<GroupSpec> subGroups)
+        {
+            this.name = checkNotNull(name, "name is null");
+            checkArgument(!name.contains("."), "resource group name must not contain '.': %s", name);
+            this.maxRunning = maxRunning;
+            this.maxQueued = maxQueued;
+            this.softMemoryLimit = Optional.ofNullable(softMemoryLimit);
+            this.schedulingWeight = Optional.ofNullable(schedulingWeight);
+            this.hardCpuLimit = Optional.ofNullable(hardCpuLimit);
+            this.subGroups = subGroups == null ? ImmutableList.of() : ImmutableList.copyOf(subGroups);
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public int getMaxRunning()
+        {
+            return maxRunning;
+        }
+
+        public int getMaxQueued()
+        {
+            return maxQueued;
+        }
+
+        public Optional<DataSize> getSoftMemoryLimit()
+        {
+            return softMemoryLimit;
+        }
+
+        public Optional<Integer> getSchedulingWeight()
+        {
+            return schedulingWeight;
+        }
+
+        public Optional<Duration> getHardCpuLimit()
+        {
+            return hardCpuLimit;
+        }
+
+        public List<GroupSpec> getSubGroups()
+        {
+            return subGroups;
+        }
+    }
+
+    public static class SelectorSpec
+    {
+        @Nullable
+        private final Pattern userRegex;
+        @Nullable
+        private final Pattern sourceRegex;
+        private final String group;
+
+        @JsonCreator
+        public SelectorSpec(
+                @JsonProperty("user") @Nullable Pattern userRegex,
+                @JsonProperty("source") @Nullable Pattern sourceRegex,
+                @JsonProperty("group") String group)
+        {
+            this.userRegex = userRegex;
+            this.sourceRegex = sourceRegex;
+            this.group = checkNotNull(group, "group is null");
+        }
+
+        @Nullable
+        public Pattern getUserRegex()
+        {
+            return userRegex;
+        }
+
+        @Nullable
+        public Pattern getSourceRegex()
+        {
+            return sourceRegex;
+        }
+
+        public String getGroup()
+        {
+            return group;
+        }
+    }
+}
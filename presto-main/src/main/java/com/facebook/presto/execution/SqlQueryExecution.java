@@ -58,6 +58,7 @@ import static com.facebook.presto.spi.StandardErrorCode.USER_CANCELED;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 @ThreadSafe
 public final class SqlQueryExecution
@@ -177,9 +178,28 @@ public final class SqlQueryExecution
         if (queryInfo != null) {
             return queryInfo.getQueryStats().getTotalMemoryReservation().toBytes();
         }
+        if (stage == null) {
+            // query has not been planned yet
+            return 0;
+        }
         return stage.getTotalMemoryReservation();
     }
 
+    @Override
+    public Duration getTotalCpuTime()
+    {
+        // see getTotalMemoryReservation for why the stage is read first
+        SqlStageExecution stage = outputStage.get();
+        QueryInfo queryInfo = finalQueryInfo.get();
+        if (queryInfo != null) {
+            return queryInfo.getQueryStats().getTotalCpuTime();
+        }
+        if (stage == null) {
+            return new Duration(0, NANOSECONDS);
+        }
+        return new Duration(stage.getTotalCpuTimeNanos(), NANOSECONDS);
+    }
+
     @Override
     public Session getSession()
     {
@@ -60,6 +60,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.OptionalInt;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -72,6 +73,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static com.facebook.presto.OutputBuffers.INITIAL_EMPTY_OUTPUT_BUFFERS;
+import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
 import static com.facebook.presto.spi.StandardErrorCode.NO_NODES_AVAILABLE;
 import static com.facebook.presto.util.Failures.checkCondition;
 import static com.facebook.presto.util.ImmutableCollectors.toImmutableList;
@@ -95,6 +97,7 @@ public final class SqlStageExecution
     private final ConcurrentMap<TaskId, RemoteTask> tasks = new ConcurrentHashMap<>();
 
     private final Optional<SplitSource> dataSource;
+    private final Map<PlanNodeId, SplitSource> colocatedDataSources;
     private final RemoteTaskFactory remoteTaskFactory;
     private final int splitBatchSize;
 
@@ -174,16 +177,16 @@ public final class SqlStageExecution
         try (SetThreadName ignored = new SetThreadName("Stage-%s", stageId)) {
             this.fragment = plan.getFragment();
             this.dataSource = plan.getDataSource();
+            this.colocatedDataSources = plan.getColocatedDataSources();
             this.remoteTaskFactory = remoteTaskFactory;
             this.splitBatchSize = splitBatchSize;
             this.initialHashPartitions = initialHashPartitions;
             this.executor = executor;
 
             this.allSources = Stream.concat(
-                    Stream.of(plan.getFragment().getPartitionedSource()),
+                    plan.getFragment().getPartitionedSources().stream(),
                     plan.getFragment().getRemoteSourceNodes().stream()
                             .map(RemoteSourceNode::getId))
-                    .filter(Objects::nonNull)
                     .collect(Collectors.toSet());
 
             ImmutableMap.Builder<PlanFragmentId, SqlStageExecution> subStages = ImmutableMap.builder();
@@ -236,7 +239,7 @@ public final class SqlStageExecution
     {
         long memory = 0;
         for (RemoteTask task : tasks.values()) {
-            memory += task.getTaskInfo().getStats().getMemoryReservation().toBytes();
+            memory += task.getTaskStatus().getMemoryReservation().toBytes();
         }
         for (SqlStageExecution subStage : subStages.values()) {
             memory += subStage.getTotalMemoryReservation();
@@ -244,6 +247,18 @@ public final class SqlStageExecution
         return memory;
     }
 
+    public long getTotalCpuTimeNanos()
+    {
+        long cpuTime = 0;
+        for (RemoteTask task : tasks.values()) {
+            cpuTime += task.getTaskInfo().getStats().getTotalCpuTime().roundTo(TimeUnit.NANOSECONDS);
+        }
+        for (SqlStageExecution subStage : subStages.values()) {
+            cpuTime += subStage.getTotalCpuTimeNanos();
+        }
+        return cpuTime;
+    }
+
     public StageInfo getStageInfo()
     {
         return stateMachine.getStageInfo(
@@ -421,6 +436,9 @@ public final class SqlStageExecution
                 else if (fragment.getDistribution() == PlanDistribution.FIXED) {
                     scheduleFixedNodeCount(initialHashPartitions);
                 }
+                else if (fragment.getDistribution() == PlanDistribution.SOURCE && !fragment.getColocatedSources().isEmpty()) {
+                    scheduleBucketedNodes();
+                }
                 else if (fragment.getDistribution() == PlanDistribution.SOURCE) {
                     scheduleSourcePartitionedNodes();
                 }
@@ -522,6 +540,65 @@ public final class SqlStageExecution
         setNoMoreStageNodes();
     }
 
+    private void scheduleBucketedNodes()
+    {
+        // every bucket must be processed by a single task, so the tasks are created up front and the buckets are spread over them
+        List<Node> nodes = nodeSelector.selectRandomNodes(initialHashPartitions);
+        checkCondition(!nodes.isEmpty(), NO_NODES_AVAILABLE, "No worker nodes available");
+        ImmutableList.Builder<RemoteTask> bucketTasks = ImmutableList.builder();
+        for (int taskId = 0; taskId < nodes.size(); taskId++) {
+            bucketTasks.add(scheduleTask(taskId, nodes.get(taskId)));
+        }
+        List<RemoteTask> tasks = bucketTasks.build();
+
+        // tell sub stages about all nodes and that there will not be more nodes
+        List<TaskId> taskIds = tasks.stream()
+                .map(task -> task.getTaskInfo().getTaskId())
+                .collect(toImmutableList());
+        for (SqlStageExecution subStage : subStages.values()) {
+            subStage.parentTasksAdded(taskIds, true);
+        }
+
+        // the colocated sources are the build sides of the joins, so schedule them before the probe side
+        for (Entry<PlanNodeId, SplitSource> entry : colocatedDataSources.entrySet()) {
+            scheduleBucketedSplits(tasks, entry.getKey(), entry.getValue());
+        }
+        scheduleBucketedSplits(tasks, fragment.getPartitionedSource(), dataSource.get());
+    }
+
+    private void scheduleBucketedSplits(List<RemoteTask> tasks, PlanNodeId sourceId, SplitSource splitSource)
+    {
+        try (SplitSource ignored = splitSource) {
+            while (!splitSource.isFinished()) {
+                // if query has been canceled, exit cleanly; query will never run regardless
+                if (getState().isDone()) {
+                    return;
+                }
+
+                long start = System.nanoTime();
+                List<Split> splits = getFutureValue(splitSource.getNextBatch(splitBatchSize));
+                stateMachine.recordGetSplitTime(start);
+
+                long scheduleSplitStart = System.nanoTime();
+                ImmutableMultimap.Builder<Integer, Split> splitAssignment = ImmutableMultimap.builder();
+                for (Split split : splits) {
+                    OptionalInt bucket = split.getConnectorSplit().getBucketNumber();
+                    checkCondition(bucket.isPresent(), NOT_SUPPORTED, "Split of colocated source %s is not assigned to a bucket: %s", sourceId, split);
+                    splitAssignment.put(bucket.getAsInt() % tasks.size(), split);
+                }
+                for (Entry<Integer, Collection<Split>> taskSplits : splitAssignment.build().asMap().entrySet()) {
+                    tasks.get(taskSplits.getKey()).addSplits(sourceId, taskSplits.getValue());
+                }
+                stateMachine.recordAddSplit(scheduleSplitStart);
+            }
+        }
+
+        for (RemoteTask task : tasks) {
+            task.noMoreSplits(sourceId);
+        }
+        completeSources.add(sourceId);
+    }
+
     private void assignSplits(AtomicInteger nextTaskId, Multimap<Node, Split> splitAssignment)
     {
         for (Entry<Node, Collection<Split>> taskSplits : splitAssignment.asMap().entrySet()) {
@@ -45,6 +45,8 @@ import java.util.concurrent.atomic.AtomicReference;
 import static com.facebook.presto.util.Failures.toFailures;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.Objects.requireNonNull;
 
 public class SqlTask
@@ -219,6 +221,66 @@ public class SqlTask
                 failures);
     }
 
+    public TaskStatus getTaskStatus()
+    {
+        try (SetThreadName ignored = new SetThreadName("Task-%s", taskId)) {
+            return createTaskStatus(taskHolderReference.get());
+        }
+    }
+
+    private TaskStatus createTaskStatus(TaskHolder taskHolder)
+    {
+        // shares the version sequence with the task info, so the client can order both
+        long versionNumber = nextTaskInfoVersion.getAndIncrement();
+
+        TaskState state = taskStateMachine.getState();
+        List<ExecutionFailureInfo> failures = ImmutableList.of();
+        if (state == TaskState.FAILED) {
+            failures = toFailures(taskStateMachine.getFailureCauses());
+        }
+
+        int queuedPartitionedDrivers = 0;
+        int runningPartitionedDrivers = 0;
+        DataSize memoryReservation = new DataSize(0, BYTE);
+
+        TaskStats taskStats = null;
+        TaskInfo finalTaskInfo = taskHolder.getFinalTaskInfo();
+        if (finalTaskInfo != null) {
+            taskStats = finalTaskInfo.getStats();
+        }
+        else if (taskHolder.getTaskExecution() != null) {
+            taskStats = taskHolder.getTaskExecution().getTaskContext().getTaskStats();
+        }
+        if (taskStats != null) {
+            queuedPartitionedDrivers = taskStats.getQueuedPartitionedDrivers();
+            runningPartitionedDrivers = taskStats.getRunningPartitionedDrivers();
+            memoryReservation = taskStats.getMemoryReservation();
+        }
+
+        return new TaskStatus(
+                taskStateMachine.getTaskId(),
+                Optional.of(nodeInstanceId),
+                versionNumber,
+                state,
+                location,
+                failures,
+                queuedPartitionedDrivers,
+                runningPartitionedDrivers,
+                memoryReservation);
+    }
+
+    public ListenableFuture<TaskStatus> getTaskStatus(TaskState callersCurrentState)
+    {
+        checkNotNull(callersCurrentState, "callersCurrentState is null");
+
+        if (callersCurrentState.isDone()) {
+            return Futures.immediateFuture(getTaskStatus());
+        }
+
+        ListenableFuture<TaskState> futureTaskState = taskStateMachine.getStateChange(callersCurrentState);
+        return Futures.transform(futureTaskState, (TaskState input) -> getTaskStatus());
+    }
+
     public ListenableFuture<TaskInfo> getTaskInfo(TaskState callersCurrentState)
     {
         checkNotNull(callersCurrentState, "callersCurrentState is null");
@@ -235,7 +297,7 @@ public class SqlTask
         return Futures.transform(futureTaskState, (TaskState input) -> getTaskInfo());
     }
 
-    public TaskInfo updateTask(Session session, PlanFragment fragment, List<TaskSource> sources, OutputBuffers outputBuffers)
+    public TaskInfo updateTask(Session session, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers)
     {
         try {
             // assure the task execution is only created once
@@ -248,7 +310,9 @@ public class SqlTask
                 }
                 taskExecution = taskHolder.getTaskExecution();
                 if (taskExecution == null) {
-                    taskExecution = sqlTaskExecutionFactory.create(session, queryContext, taskStateMachine, sharedBuffer, fragment, sources);
+                    // the plan is only sent until the coordinator sees the task was created
+                    checkState(fragment.isPresent(), "fragment must be present to create task %s", taskId);
+                    taskExecution = sqlTaskExecutionFactory.create(session, queryContext, taskStateMachine, sharedBuffer, fragment.get(), sources);
                     taskHolderReference.compareAndSet(taskHolder, new TaskHolder(taskExecution));
                 }
             }
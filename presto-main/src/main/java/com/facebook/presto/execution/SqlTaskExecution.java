@@ -36,6 +36,7 @@ import com.facebook.presto.sql.planner.PlanFragment.PlanDistribution;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -60,6 +61,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.facebook.presto.spi.StandardErrorCode.NOT_SUPPORTED;
+import static com.facebook.presto.util.ImmutableCollectors.toImmutableList;
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -95,8 +97,7 @@ public class SqlTaskExecution
     @GuardedBy("this")
     private long maxAcknowledgedSplit = Long.MIN_VALUE;
 
-    private final PlanNodeId partitionedSourceId;
-    private final DriverSplitRunnerFactory partitionedDriverFactory;
+    private final Map<PlanNodeId, DriverSplitRunnerFactory> partitionedDriverFactories;
 
     private final List<DriverSplitRunnerFactory> unpartitionedDriverFactories;
 
@@ -168,6 +169,7 @@ public class SqlTaskExecution
                         fragment.getOutputLayout(),
                         fragment.getSymbols(),
                         fragment.getDistribution(),
+                        fragment.getPartitionedSources(),
                         outputOperatorFactory);
                 driverFactories = localExecutionPlan.getDriverFactories();
             }
@@ -178,24 +180,28 @@ public class SqlTaskExecution
             }
 
             // index driver factories
-            DriverSplitRunnerFactory partitionedDriverFactory = null;
+            Map<PlanNodeId, DriverSplitRunnerFactory> partitionedDriverFactories = new HashMap<>();
             ImmutableList.Builder<DriverSplitRunnerFactory> unpartitionedDriverFactories = ImmutableList.builder();
             for (DriverFactory driverFactory : driverFactories) {
-                if (driverFactory.getSourceIds().contains(fragment.getPartitionedSource())) {
-                    checkState(partitionedDriverFactory == null, "multiple partitioned sources are not supported");
-                    partitionedDriverFactory = new DriverSplitRunnerFactory(driverFactory);
+                List<PlanNodeId> partitionedSources = fragment.getPartitionedSources().stream()
+                        .filter(driverFactory.getSourceIds()::contains)
+                        .collect(toImmutableList());
+                if (!partitionedSources.isEmpty()) {
+                    checkState(partitionedSources.size() == 1, "multiple partitioned sources in one pipeline are not supported");
+                    PlanNodeId partitionedSourceId = partitionedSources.get(0);
+                    checkState(!partitionedDriverFactories.containsKey(partitionedSourceId), "partitioned source %s is read by multiple pipelines", partitionedSourceId);
+                    partitionedDriverFactories.put(partitionedSourceId, new DriverSplitRunnerFactory(driverFactory, partitionedSourceId));
                 }
                 else {
-                    unpartitionedDriverFactories.add(new DriverSplitRunnerFactory(driverFactory));
+                    unpartitionedDriverFactories.add(new DriverSplitRunnerFactory(driverFactory, null));
                 }
             }
             this.unpartitionedDriverFactories = unpartitionedDriverFactories.build();
 
             if (fragment.getDistribution() == PlanDistribution.SOURCE) {
-                checkArgument(partitionedDriverFactory != null, "Fragment is partitioned, but no partitioned driver found");
+                checkArgument(partitionedDriverFactories.keySet().containsAll(fragment.getPartitionedSources()), "Fragment is partitioned, but no partitioned driver found");
             }
-            this.partitionedSourceId = fragment.getPartitionedSource();
-            this.partitionedDriverFactory = partitionedDriverFactory;
+            this.partitionedDriverFactories = ImmutableMap.copyOf(partitionedDriverFactories);
 
             // don't register the task if it is already completed (most likely failed during planning above)
             if (!taskStateMachine.getState().isDone()) {
@@ -279,7 +285,8 @@ public class SqlTaskExecution
 
         for (TaskSource source : sources) {
             PlanNodeId sourceId = source.getPlanNodeId();
-            if (sourceId.equals(partitionedSourceId)) {
+            DriverSplitRunnerFactory partitionedDriverFactory = partitionedDriverFactories.get(sourceId);
+            if (partitionedDriverFactory != null) {
                 // partitioned split
                 ImmutableList.Builder<DriverSplitRunner> runners = ImmutableList.builder();
                 for (ScheduledSplit scheduledSplit : source.getSplits()) {
@@ -389,8 +396,10 @@ public class SqlTaskExecution
     public Set<PlanNodeId> getNoMoreSplits()
     {
         ImmutableSet.Builder<PlanNodeId> noMoreSplits = ImmutableSet.builder();
-        if (partitionedDriverFactory != null && partitionedDriverFactory.isNoMoreSplits()) {
-            noMoreSplits.add(partitionedSourceId);
+        for (Map.Entry<PlanNodeId, DriverSplitRunnerFactory> entry : partitionedDriverFactories.entrySet()) {
+            if (entry.getValue().isNoMoreSplits()) {
+                noMoreSplits.add(entry.getKey());
+            }
         }
         for (TaskSource taskSource : unpartitionedSources.values()) {
             if (taskSource.isNoMoreSplits()) {
@@ -407,8 +416,10 @@ public class SqlTaskExecution
         }
 
         // are there more partition splits expected?
-        if (partitionedDriverFactory != null && !partitionedDriverFactory.isNoMoreSplits()) {
-            return;
+        for (DriverSplitRunnerFactory partitionedDriverFactory : partitionedDriverFactories.values()) {
+            if (!partitionedDriverFactory.isNoMoreSplits()) {
+                return;
+            }
         }
         // do we still have running tasks?
         if (remainingDrivers.get() != 0) {
@@ -455,14 +466,17 @@ public class SqlTaskExecution
     private class DriverSplitRunnerFactory
     {
         private final DriverFactory driverFactory;
+        @Nullable
+        private final PlanNodeId partitionedSourceId;
         private final PipelineContext pipelineContext;
 
         private final AtomicInteger pendingCreation = new AtomicInteger();
         private final AtomicBoolean noMoreSplits = new AtomicBoolean();
 
-        private DriverSplitRunnerFactory(DriverFactory driverFactory)
+        private DriverSplitRunnerFactory(DriverFactory driverFactory, @Nullable PlanNodeId partitionedSourceId)
         {
             this.driverFactory = driverFactory;
+            this.partitionedSourceId = partitionedSourceId;
             this.pipelineContext = taskContext.addPipelineContext(driverFactory.isInputDriver(), driverFactory.isOutputDriver());
         }
 
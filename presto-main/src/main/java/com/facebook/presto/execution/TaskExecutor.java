@@ -37,17 +37,18 @@ import javax.inject.Inject;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -55,6 +56,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 import static com.google.common.base.MoreObjects.toStringHelper;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -76,6 +79,9 @@ public class TaskExecutor
     // each time we run a split, run it for this length before returning to the pool
     private static final Duration SPLIT_RUN_QUANTA = new Duration(1, TimeUnit.SECONDS);
 
+    // tasks move to the next level once their accumulated thread time reaches the threshold
+    private static final int[] LEVEL_THRESHOLD_SECONDS = {0, 1, 10, 60, 300};
+
     private static final AtomicLong NEXT_RUNNER_ID = new AtomicLong();
     private static final AtomicLong NEXT_WORKER_ID = new AtomicLong();
 
@@ -99,7 +105,7 @@ public class TaskExecutor
     /**
      * Splits waiting for a runner thread.
      */
-    private final PriorityBlockingQueue<PrioritizedSplitRunner> pendingSplits;
+    private final MultilevelSplitQueue pendingSplits;
 
     /**
      * Splits running on a thread.
@@ -111,7 +117,7 @@ public class TaskExecutor
      */
     private final Map<PrioritizedSplitRunner, Future<?>> blockedSplits = new ConcurrentHashMap<>();
 
-    private final AtomicLongArray completedTasksPerLevel = new AtomicLongArray(5);
+    private final AtomicLongArray completedTasksPerLevel = new AtomicLongArray(LEVEL_THRESHOLD_SECONDS.length);
 
     private final TimeStat queuedTime = new TimeStat(NANOSECONDS);
     private final TimeStat wallTime = new TimeStat(NANOSECONDS);
@@ -121,7 +127,7 @@ public class TaskExecutor
     @Inject
     public TaskExecutor(TaskManagerConfig config)
     {
-        this(checkNotNull(config, "config is null").getMaxWorkerThreads(), config.getMinDrivers());
+        this(checkNotNull(config, "config is null").getMaxWorkerThreads(), config.getMinDrivers(), config.getLevelTimeMultiplier(), Ticker.systemTicker());
     }
 
     public TaskExecutor(int runnerThreads, int minDrivers)
@@ -131,6 +137,12 @@ public class TaskExecutor
 
     @VisibleForTesting
     public TaskExecutor(int runnerThreads, int minDrivers, Ticker ticker)
+    {
+        this(runnerThreads, minDrivers, new TaskManagerConfig().getLevelTimeMultiplier(), ticker);
+    }
+
+    @VisibleForTesting
+    public TaskExecutor(int runnerThreads, int minDrivers, double levelTimeMultiplier, Ticker ticker)
     {
         checkArgument(runnerThreads > 0, "runnerThreads must be at least 1");
 
@@ -142,7 +154,7 @@ public class TaskExecutor
         this.ticker = checkNotNull(ticker, "ticker is null");
 
         this.minimumNumberOfDrivers = minDrivers;
-        this.pendingSplits = new PriorityBlockingQueue<>(Runtime.getRuntime().availableProcessors() * 10);
+        this.pendingSplits = new MultilevelSplitQueue(levelTimeMultiplier);
         this.tasks = new LinkedList<>();
     }
 
@@ -223,7 +235,7 @@ public class TaskExecutor
         List<ListenableFuture<?>> finishedFutures = new ArrayList<>(taskSplits.size());
         synchronized (this) {
             for (SplitRunner taskSplit : taskSplits) {
-                PrioritizedSplitRunner prioritizedSplitRunner = new PrioritizedSplitRunner(taskHandle, taskSplit, ticker);
+                PrioritizedSplitRunner prioritizedSplitRunner = new PrioritizedSplitRunner(taskHandle, taskSplit, pendingSplits, ticker);
 
                 if (taskHandle.isDestroyed()) {
                     // If the handle is destroyed, we destroy the task splits to complete the future
@@ -303,7 +315,7 @@ public class TaskExecutor
     private synchronized void startSplit(PrioritizedSplitRunner split)
     {
         allSplits.add(split);
-        pendingSplits.put(split);
+        pendingSplits.offer(split);
     }
 
     private synchronized PrioritizedSplitRunner pollNextSplitWorker()
@@ -440,6 +452,7 @@ public class TaskExecutor
         private final int splitId;
         private final long workerId;
         private final SplitRunner split;
+        private final MultilevelSplitQueue splitQueue;
 
         private final Ticker ticker;
 
@@ -455,11 +468,12 @@ public class TaskExecutor
         private final AtomicLong cpuTime = new AtomicLong();
         private final AtomicLong processCalls = new AtomicLong();
 
-        private PrioritizedSplitRunner(TaskHandle taskHandle, SplitRunner split, Ticker ticker)
+        private PrioritizedSplitRunner(TaskHandle taskHandle, SplitRunner split, MultilevelSplitQueue splitQueue, Ticker ticker)
         {
             this.taskHandle = taskHandle;
             this.splitId = taskHandle.getNextSplitId();
             this.split = split;
+            this.splitQueue = splitQueue;
             this.ticker = ticker;
             this.workerId = NEXT_WORKER_ID.getAndIncrement();
         }
@@ -501,19 +515,25 @@ public class TaskExecutor
                 start.compareAndSet(0, System.currentTimeMillis());
 
                 processCalls.incrementAndGet();
+                int level = priorityLevel.get();
+                long startNanos = ticker.read();
                 CpuTimer timer = new CpuTimer();
                 ListenableFuture<?> blocked = split.processFor(SPLIT_RUN_QUANTA);
 
                 CpuTimer.CpuDuration elapsed = timer.elapsedTime();
+                long endNanos = ticker.read();
+
+                // charge the time to the level the split was scheduled from
+                long durationNanos = endNanos - startNanos;
+                splitQueue.addLevelTime(level, durationNanos);
 
                 // update priority level base on total thread usage of task
-                long durationNanos = elapsed.getWall().roundTo(NANOSECONDS);
                 long threadUsageNanos = taskHandle.addThreadUsageNanos(durationNanos);
                 this.threadUsageNanos.set(threadUsageNanos);
                 priorityLevel.set(calculatePriorityLevel(threadUsageNanos));
 
                 // record last run for prioritization within a level
-                lastRun.set(ticker.read());
+                lastRun.set(endNanos);
 
                 cpuTime.addAndGet(elapsed.getCpu().roundTo(NANOSECONDS));
                 return blocked;
@@ -524,6 +544,11 @@ public class TaskExecutor
             }
         }
 
+        public int getPriorityLevel()
+        {
+            return priorityLevel.get();
+        }
+
         public boolean updatePriorityLevel()
         {
             int newPriority = calculatePriorityLevel(taskHandle.getThreadUsageNanos());
@@ -546,7 +571,7 @@ public class TaskExecutor
                 return result;
             }
 
-            if (level < 4) {
+            if (level < LEVEL_THRESHOLD_SECONDS.length - 1) {
                 result = Long.compare(threadUsageNanos.get(), o.threadUsageNanos.get());
             }
             else {
@@ -584,25 +609,162 @@ public class TaskExecutor
 
     private static int calculatePriorityLevel(long threadUsageNanos)
     {
-        long millis = NANOSECONDS.toMillis(threadUsageNanos);
+        long seconds = NANOSECONDS.toSeconds(threadUsageNanos);
+        for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length - 1; level++) {
+            if (seconds < LEVEL_THRESHOLD_SECONDS[level + 1]) {
+                return level;
+            }
+        }
+        return LEVEL_THRESHOLD_SECONDS.length - 1;
+    }
 
-        int priorityLevel;
-        if (millis < 1000) {
-            priorityLevel = 0;
+    /**
+     * Multi-level feedback queue for splits waiting on a runner thread. A split is queued on the
+     * level of its task, which is derived from the thread time the task has used so far. Each level
+     * is guaranteed a share of the thread time that is {@code levelTimeMultiplier} times the share
+     * of the next level, so short queries are not starved by long running ones, while the long
+     * running queries still make progress.
+     */
+    @ThreadSafe
+    private static class MultilevelSplitQueue
+    {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+
+        @GuardedBy("lock")
+        private final List<PriorityQueue<PrioritizedSplitRunner>> levelWaitingSplits = new ArrayList<>(LEVEL_THRESHOLD_SECONDS.length);
+
+        @GuardedBy("lock")
+        private final long[] levelScheduledNanos = new long[LEVEL_THRESHOLD_SECONDS.length];
+
+        private final double[] levelTimeShares = new double[LEVEL_THRESHOLD_SECONDS.length];
+
+        private final AtomicInteger size = new AtomicInteger();
+
+        public MultilevelSplitQueue(double levelTimeMultiplier)
+        {
+            checkArgument(levelTimeMultiplier >= 1, "levelTimeMultiplier must be at least 1");
+            for (int level = 0; level < LEVEL_THRESHOLD_SECONDS.length; level++) {
+                levelWaitingSplits.add(new PriorityQueue<>());
+                levelTimeShares[level] = Math.pow(levelTimeMultiplier, LEVEL_THRESHOLD_SECONDS.length - 1 - level);
+            }
+        }
+
+        public void offer(PrioritizedSplitRunner split)
+        {
+            int level = split.getPriorityLevel();
+            lock.lock();
+            try {
+                PriorityQueue<PrioritizedSplitRunner> queue = levelWaitingSplits.get(level);
+                if (queue.isEmpty()) {
+                    // a level that was idle must not use up its unused share in one burst
+                    double minNormalizedTime = Double.MAX_VALUE;
+                    for (int i = 0; i < levelWaitingSplits.size(); i++) {
+                        if (!levelWaitingSplits.get(i).isEmpty()) {
+                            minNormalizedTime = Math.min(minNormalizedTime, levelScheduledNanos[i] / levelTimeShares[i]);
+                        }
+                    }
+                    if (minNormalizedTime != Double.MAX_VALUE) {
+                        levelScheduledNanos[level] = Math.max(levelScheduledNanos[level], (long) (minNormalizedTime * levelTimeShares[level]));
+                    }
+                }
+                queue.offer(split);
+                size.incrementAndGet();
+                notEmpty.signal();
+            }
+            finally {
+                lock.unlock();
+            }
         }
-        else if (millis < 10_000) {
-            priorityLevel = 1;
+
+        public PrioritizedSplitRunner take()
+                throws InterruptedException
+        {
+            lock.lockInterruptibly();
+            try {
+                while (true) {
+                    PriorityQueue<PrioritizedSplitRunner> queue = selectLevel();
+                    if (queue != null) {
+                        size.decrementAndGet();
+                        return queue.poll();
+                    }
+                    notEmpty.await();
+                }
+            }
+            finally {
+                lock.unlock();
+            }
         }
-        else if (millis < 60_000) {
-            priorityLevel = 2;
+
+        @GuardedBy("lock")
+        private PriorityQueue<PrioritizedSplitRunner> selectLevel()
+        {
+            // pick the level that is furthest behind its share of the thread time
+            PriorityQueue<PrioritizedSplitRunner> selected = null;
+            double selectedNormalizedTime = Double.MAX_VALUE;
+            for (int level = 0; level < levelWaitingSplits.size(); level++) {
+                PriorityQueue<PrioritizedSplitRunner> queue = levelWaitingSplits.get(level);
+                double normalizedTime = levelScheduledNanos[level] / levelTimeShares[level];
+                if (!queue.isEmpty() && normalizedTime < selectedNormalizedTime) {
+                    selected = queue;
+                    selectedNormalizedTime = normalizedTime;
+                }
+            }
+            return selected;
         }
-        else if (millis < 300_000) {
-            priorityLevel = 3;
+
+        public void addLevelTime(int level, long nanos)
+        {
+            lock.lock();
+            try {
+                levelScheduledNanos[level] += nanos;
+            }
+            finally {
+                lock.unlock();
+            }
         }
-        else {
-            priorityLevel = 4;
+
+        public void removeAll(Collection<PrioritizedSplitRunner> splits)
+        {
+            lock.lock();
+            try {
+                for (PriorityQueue<PrioritizedSplitRunner> queue : levelWaitingSplits) {
+                    int removed = queue.size();
+                    queue.removeAll(splits);
+                    size.addAndGet(queue.size() - removed);
+                }
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        public int size()
+        {
+            return size.get();
+        }
+
+        public int getLevelSize(int level)
+        {
+            lock.lock();
+            try {
+                return levelWaitingSplits.get(level).size();
+            }
+            finally {
+                lock.unlock();
+            }
+        }
+
+        public long getLevelScheduledNanos(int level)
+        {
+            lock.lock();
+            try {
+                return levelScheduledNanos[level];
+            }
+            finally {
+                lock.unlock();
+            }
         }
-        return priorityLevel;
     }
 
     private class Runner
@@ -621,7 +783,7 @@ public class TaskExecutor
                         split = pendingSplits.take();
                         if (split.updatePriorityLevel()) {
                             // priority level changed, return split to queue for re-prioritization
-                            pendingSplits.put(split);
+                            pendingSplits.offer(split);
                             continue;
                         }
                     }
@@ -649,7 +811,7 @@ public class TaskExecutor
                         }
                         else {
                             if (blocked.isDone()) {
-                                pendingSplits.put(split);
+                                pendingSplits.offer(split);
                             }
                             else {
                                 blockedSplits.put(split, blocked);
@@ -660,7 +822,7 @@ public class TaskExecutor
                                     {
                                         blockedSplits.remove(split);
                                         split.updatePriorityLevel();
-                                        pendingSplits.put(split);
+                                        pendingSplits.offer(split);
                                     }
                                 }, executor);
                             }
@@ -793,6 +955,66 @@ public class TaskExecutor
         return calculateRunningTasksForLevel(4);
     }
 
+    @Managed
+    public int getPendingSplitsLevel0()
+    {
+        return pendingSplits.getLevelSize(0);
+    }
+
+    @Managed
+    public int getPendingSplitsLevel1()
+    {
+        return pendingSplits.getLevelSize(1);
+    }
+
+    @Managed
+    public int getPendingSplitsLevel2()
+    {
+        return pendingSplits.getLevelSize(2);
+    }
+
+    @Managed
+    public int getPendingSplitsLevel3()
+    {
+        return pendingSplits.getLevelSize(3);
+    }
+
+    @Managed
+    public int getPendingSplitsLevel4()
+    {
+        return pendingSplits.getLevelSize(4);
+    }
+
+    @Managed
+    public long getScheduledNanosLevel0()
+    {
+        return pendingSplits.getLevelScheduledNanos(0);
+    }
+
+    @Managed
+    public long getScheduledNanosLevel1()
+    {
+        return pendingSplits.getLevelScheduledNanos(1);
+    }
+
+    @Managed
+    public long getScheduledNanosLevel2()
+    {
+        return pendingSplits.getLevelScheduledNanos(2);
+    }
+
+    @Managed
+    public long getScheduledNanosLevel3()
+    {
+        return pendingSplits.getLevelScheduledNanos(3);
+    }
+
+    @Managed
+    public long getScheduledNanosLevel4()
+    {
+        return pendingSplits.getLevelScheduledNanos(4);
+    }
+
     @Managed
     @Nested
     public TimeStat getQueuedTime()
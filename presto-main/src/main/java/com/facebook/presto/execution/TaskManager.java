@@ -22,6 +22,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface TaskManager
 {
@@ -51,13 +52,30 @@ public interface TaskManager
      */
     ListenableFuture<TaskInfo> getTaskInfo(TaskId taskId, TaskState currentState);
 
+    /**
+     * Gets the status for the specified task.  The status is a small subset of
+     * the task info that is cheap to produce and transfer.  If the task has
+     * not been created yet, an uninitialized task is created and the status
+     * is returned.
+     */
+    TaskStatus getTaskStatus(TaskId taskId);
+
+    /**
+     * Gets future status for the task after the state changes from
+     * {@code current state}. If the task has not been created yet, an
+     * uninitialized task is created and the future is returned.  If the task
+     * is already in a final state, the status is returned immediately.
+     */
+    ListenableFuture<TaskStatus> getTaskStatus(TaskId taskId, TaskState currentState);
+
     void updateMemoryPoolAssignments(MemoryPoolAssignmentsRequest assignments);
 
     /**
      * Updates the task plan, sources and output buffers.  If the task does not
-     * already exist, is is created and then updated.
+     * already exist, is is created and then updated.  The fragment is only
+     * required when the task is created.
      */
-    TaskInfo updateTask(Session session, TaskId taskId, PlanFragment fragment, List<TaskSource> sources, OutputBuffers outputBuffers);
+    TaskInfo updateTask(Session session, TaskId taskId, Optional<PlanFragment> fragment, List<TaskSource> sources, OutputBuffers outputBuffers);
 
     /**
      * Cancels a task.  If the task does not already exist, is is created and then
@@ -23,6 +23,7 @@ import io.airlift.units.Duration;
 import io.airlift.units.MaxDuration;
 import io.airlift.units.MinDuration;
 
+import javax.validation.constraints.DecimalMin;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
@@ -35,16 +36,20 @@ public class TaskManagerConfig
     private boolean taskCpuTimerEnabled = true;
     private DataSize maxTaskMemoryUsage = new DataSize(256, Unit.MEGABYTE);
     private DataSize maxPartialAggregationMemoryUsage = new DataSize(16, Unit.MEGABYTE);
+    private boolean adaptivePartialAggregationEnabled = true;
     private DataSize operatorPreAllocatedMemory = new DataSize(16, Unit.MEGABYTE);
     private DataSize maxTaskIndexMemoryUsage = new DataSize(64, Unit.MEGABYTE);
     private int maxWorkerThreads = Runtime.getRuntime().availableProcessors() * 4;
     private Integer minDrivers;
+    private double levelTimeMultiplier = 2;
 
     private DataSize sinkMaxBufferSize = new DataSize(32, Unit.MEGABYTE);
+    private DataSize sinkMinCompressionSize = new DataSize(1, Unit.KILOBYTE);
 
     private Duration clientTimeout = new Duration(2, TimeUnit.MINUTES);
     private Duration infoMaxAge = new Duration(15, TimeUnit.MINUTES);
     private Duration infoRefreshMaxWait = new Duration(200, TimeUnit.MILLISECONDS);
+    private Duration infoUpdateInterval = new Duration(3, TimeUnit.SECONDS);
     private int writerCount = 1;
     private int taskDefaultConcurrency = 1;
     private int httpNotificationThreads = 25;
@@ -64,6 +69,22 @@ public class TaskManagerConfig
         return this;
     }
 
+    @MinDuration("1ms")
+    @MaxDuration("10s")
+    @NotNull
+    public Duration getInfoUpdateInterval()
+    {
+        return infoUpdateInterval;
+    }
+
+    @Config("task.info-update-interval")
+    @ConfigDescription("Interval between refreshing the full task info, which carries the detailed task stats")
+    public TaskManagerConfig setInfoUpdateInterval(Duration infoUpdateInterval)
+    {
+        this.infoUpdateInterval = infoUpdateInterval;
+        return this;
+    }
+
     public boolean isVerboseStats()
     {
         return verboseStats;
@@ -101,6 +122,19 @@ public class TaskManagerConfig
         return this;
     }
 
+    public boolean isAdaptivePartialAggregationEnabled()
+    {
+        return adaptivePartialAggregationEnabled;
+    }
+
+    @Config("task.adaptive-partial-aggregation-enabled")
+    @ConfigDescription("Stop partial aggregation and pass rows through when it does not reduce the number of rows")
+    public TaskManagerConfig setAdaptivePartialAggregationEnabled(boolean adaptivePartialAggregationEnabled)
+    {
+        this.adaptivePartialAggregationEnabled = adaptivePartialAggregationEnabled;
+        return this;
+    }
+
     @NotNull
     public DataSize getMaxTaskMemoryUsage()
     {
@@ -183,6 +217,20 @@ public class TaskManagerConfig
         return this;
     }
 
+    @NotNull
+    public DataSize getSinkMinCompressionSize()
+    {
+        return sinkMinCompressionSize;
+    }
+
+    @Config("sink.min-compression-size")
+    @ConfigDescription("Pages smaller than this are sent uncompressed to clients that request compression")
+    public TaskManagerConfig setSinkMinCompressionSize(DataSize sinkMinCompressionSize)
+    {
+        this.sinkMinCompressionSize = sinkMinCompressionSize;
+        return this;
+    }
+
     @MinDuration("5s")
     @NotNull
     public Duration getClientTimeout()
@@ -250,4 +298,18 @@ public class TaskManagerConfig
         this.httpNotificationThreads = httpNotificationThreads;
         return this;
     }
+
+    @DecimalMin("1.0")
+    public double getLevelTimeMultiplier()
+    {
+        return levelTimeMultiplier;
+    }
+
+    @Config("task.level-time-multiplier")
+    @ConfigDescription("Factor by which each scheduling level gets more thread time than the level below it")
+    public TaskManagerConfig setLevelTimeMultiplier(double levelTimeMultiplier)
+    {
+        this.levelTimeMultiplier = levelTimeMultiplier;
+        return this;
+    }
 }
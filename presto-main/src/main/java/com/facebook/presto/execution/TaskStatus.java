@@ -0,0 +1,159 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+
+import javax.annotation.concurrent.Immutable;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The part of {@link TaskInfo} the coordinator needs to track a remote task:
+ * its state, failures, and the split counts used for scheduling.  Unlike the
+ * task info it does not contain buffer or pipeline stats, so it is cheap to
+ * produce and to parse.
+ */
+@Immutable
+public class TaskStatus
+{
+    private final TaskId taskId;
+    private final Optional<String> nodeInstanceId;
+    private final long version;
+    private final TaskState state;
+    private final URI self;
+    private final List<ExecutionFailureInfo> failures;
+    private final int queuedPartitionedDrivers;
+    private final int runningPartitionedDrivers;
+    private final DataSize memoryReservation;
+
+    @JsonCreator
+    public TaskStatus(@JsonProperty("taskId") TaskId taskId,
+            @JsonProperty("nodeInstanceId") Optional<String> nodeInstanceId,
+            @JsonProperty("version") long version,
+            @JsonProperty("state") TaskState state,
+            @JsonProperty("self") URI self,
+            @JsonProperty("failures") List<ExecutionFailureInfo> failures,
+            @JsonProperty("queuedPartitionedDrivers") int queuedPartitionedDrivers,
+            @JsonProperty("runningPartitionedDrivers") int runningPartitionedDrivers,
+            @JsonProperty("memoryReservation") DataSize memoryReservation)
+    {
+        this.taskId = checkNotNull(taskId, "taskId is null");
+        this.nodeInstanceId = checkNotNull(nodeInstanceId, "nodeInstanceId is null");
+        this.version = version;
+        this.state = checkNotNull(state, "state is null");
+        this.self = checkNotNull(self, "self is null");
+
+        checkArgument(queuedPartitionedDrivers >= 0, "queuedPartitionedDrivers must be positive");
+        this.queuedPartitionedDrivers = queuedPartitionedDrivers;
+
+        checkArgument(runningPartitionedDrivers >= 0, "runningPartitionedDrivers must be positive");
+        this.runningPartitionedDrivers = runningPartitionedDrivers;
+
+        this.memoryReservation = checkNotNull(memoryReservation, "memoryReservation is null");
+
+        if (failures != null) {
+            this.failures = ImmutableList.copyOf(failures);
+        }
+        else {
+            this.failures = ImmutableList.of();
+        }
+    }
+
+    public static TaskStatus fromTaskInfo(TaskInfo taskInfo)
+    {
+        return new TaskStatus(
+                taskInfo.getTaskId(),
+                taskInfo.getNodeInstanceId(),
+                taskInfo.getVersion(),
+                taskInfo.getState(),
+                taskInfo.getSelf(),
+                taskInfo.getFailures(),
+                taskInfo.getStats().getQueuedPartitionedDrivers(),
+                taskInfo.getStats().getRunningPartitionedDrivers(),
+                taskInfo.getStats().getMemoryReservation());
+    }
+
+    @JsonProperty
+    public TaskId getTaskId()
+    {
+        return taskId;
+    }
+
+    @JsonProperty
+    public Optional<String> getNodeInstanceId()
+    {
+        return nodeInstanceId;
+    }
+
+    @JsonProperty
+    public long getVersion()
+    {
+        return version;
+    }
+
+    @JsonProperty
+    public TaskState getState()
+    {
+        return state;
+    }
+
+    @JsonProperty
+    public URI getSelf()
+    {
+        return self;
+    }
+
+    @JsonProperty
+    public List<ExecutionFailureInfo> getFailures()
+    {
+        return failures;
+    }
+
+    @JsonProperty
+    public int getQueuedPartitionedDrivers()
+    {
+        return queuedPartitionedDrivers;
+    }
+
+    @JsonProperty
+    public int getRunningPartitionedDrivers()
+    {
+        return runningPartitionedDrivers;
+    }
+
+    @JsonProperty
+    public DataSize getMemoryReservation()
+    {
+        return memoryReservation;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("taskId", taskId)
+                .add("state", state)
+                .toString();
+    }
+}
@@ -16,11 +16,13 @@ package com.facebook.presto.memory;
 import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.execution.LocationFactory;
 import com.facebook.presto.execution.QueryExecution;
+import com.facebook.presto.execution.QueryId;
 import com.facebook.presto.execution.QueryIdGenerator;
 import com.facebook.presto.server.ServerConfig;
 import com.facebook.presto.spi.Node;
 import com.facebook.presto.spi.NodeManager;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
@@ -65,10 +67,13 @@ public class ClusterMemoryManager
     private final JsonCodec<MemoryPoolAssignmentsRequest> assignmentsRequestJsonCodec;
     private final DataSize maxQueryMemory;
     private final boolean enabled;
+    private final boolean killOnOutOfMemory;
+    private final LowMemoryKiller lowMemoryKiller;
     private final String coordinatorId;
     private final AtomicLong memoryPoolAssignmentsVersion = new AtomicLong();
     private final AtomicLong clusterMemoryUsageBytes = new AtomicLong();
     private final AtomicLong clusterMemoryBytes = new AtomicLong();
+    private final AtomicLong queriesKilledDueToOutOfMemory = new AtomicLong();
     private final Map<String, RemoteNodeMemory> nodes = new HashMap<>();
 
     @GuardedBy("this")
@@ -96,9 +101,11 @@ public class ClusterMemoryManager
         this.maxQueryMemory = config.getMaxQueryMemory();
         this.coordinatorId = queryIdGenerator.getCoordinatorId();
         this.enabled = config.isClusterMemoryManagerEnabled() && serverConfig.isCoordinator();
+        this.killOnOutOfMemory = config.isKillOnOutOfMemory();
+        this.lowMemoryKiller = new LowMemoryKiller(config.getKillOnOutOfMemoryDelay(), Ticker.systemTicker());
     }
 
-    public void process(Iterable<QueryExecution> queries)
+    public synchronized void process(Iterable<QueryExecution> queries)
     {
         if (!enabled) {
             return;
@@ -123,9 +130,31 @@ public class ClusterMemoryManager
 
         updatePools(countByPool);
 
+        if (killOnOutOfMemory && lowMemoryKiller.process(isClusterOutOfMemory(), queries, getQueriesWithMemory())) {
+            queriesKilledDueToOutOfMemory.incrementAndGet();
+        }
+
         updateNodes(updateAssignments(queries));
     }
 
+    /**
+     * The cluster is out of memory when nodes are blocked on the general pool and the reserved
+     * pool is already in use, so promoting another query cannot make progress.
+     */
+    private boolean isClusterOutOfMemory()
+    {
+        ClusterMemoryPool reservedPool = pools.get(RESERVED_POOL);
+        ClusterMemoryPool generalPool = pools.get(GENERAL_POOL);
+        return reservedPool != null && generalPool != null && reservedPool.getQueries() > 0 && generalPool.getBlockedNodes() > 0;
+    }
+
+    private Set<QueryId> getQueriesWithMemory()
+    {
+        return pools.values().stream()
+                .flatMap(pool -> pool.getQueryMemoryReservations().keySet().stream())
+                .collect(toImmutableSet());
+    }
+
     @VisibleForTesting
     synchronized Map<MemoryPoolId, ClusterMemoryPool> getPools()
     {
@@ -282,4 +311,10 @@ public class ClusterMemoryManager
     {
         return clusterMemoryBytes.get();
     }
+
+    @Managed
+    public long getQueriesKilledDueToOutOfMemory()
+    {
+        return queriesKilledDueToOutOfMemory.get();
+    }
 }
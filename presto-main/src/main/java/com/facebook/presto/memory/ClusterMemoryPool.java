@@ -13,14 +13,18 @@
  */
 package com.facebook.presto.memory;
 
+import com.facebook.presto.execution.QueryId;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableMap;
 import org.weakref.jmx.Managed;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static java.util.Objects.requireNonNull;
 
@@ -44,6 +48,9 @@ public class ClusterMemoryPool
     @GuardedBy("this")
     private int queries;
 
+    @GuardedBy("this")
+    private Map<QueryId, Long> queryMemoryReservations = ImmutableMap.of();
+
     public ClusterMemoryPool(MemoryPoolId id)
     {
         this.id = requireNonNull(id, "id is null");
@@ -84,6 +91,15 @@ public class ClusterMemoryPool
         return queries;
     }
 
+    /**
+     * Returns the memory reserved by each query in this pool, summed over the nodes. Queries that
+     * have released all their memory on every node are not included.
+     */
+    public synchronized Map<QueryId, Long> getQueryMemoryReservations()
+    {
+        return queryMemoryReservations;
+    }
+
     public synchronized void update(List<MemoryInfo> memoryInfos, int queries)
     {
         nodes = 0;
@@ -92,6 +108,7 @@ public class ClusterMemoryPool
         freeDistributedBytes = 0;
         this.queries = queries;
 
+        Map<QueryId, Long> queryMemoryReservations = new HashMap<>();
         for (MemoryInfo info : memoryInfos) {
             MemoryPoolInfo poolInfo = info.getPools().get(id);
             if (poolInfo != null) {
@@ -101,8 +118,12 @@ public class ClusterMemoryPool
                 }
                 totalDistributedBytes += poolInfo.getMaxBytes();
                 freeDistributedBytes += poolInfo.getFreeBytes();
+                for (Map.Entry<QueryId, Long> entry : poolInfo.getQueryMemoryReservations().entrySet()) {
+                    queryMemoryReservations.merge(entry.getKey(), entry.getValue(), Long::sum);
+                }
             }
         }
+        this.queryMemoryReservations = ImmutableMap.copyOf(queryMemoryReservations);
     }
 
     @Override
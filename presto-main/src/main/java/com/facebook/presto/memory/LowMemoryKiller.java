@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.execution.QueryExecution;
+import com.facebook.presto.execution.QueryId;
+import com.facebook.presto.spi.PrestoException;
+import com.google.common.base.Ticker;
+import io.airlift.log.Logger;
+import io.airlift.units.DataSize;
+import io.airlift.units.DataSize.Unit;
+import io.airlift.units.Duration;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.util.Set;
+
+import static com.facebook.presto.spi.StandardErrorCode.CLUSTER_OUT_OF_MEMORY;
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Kills the query using the most memory once the cluster has been out of memory for longer than
+ * the configured delay. Only one query is killed at a time: the next one is only considered after
+ * the previous victim has finished and no memory pool in the cluster reports a reservation for it.
+ */
+@NotThreadSafe
+class LowMemoryKiller
+{
+    private static final Logger log = Logger.get(LowMemoryKiller.class);
+
+    private final Duration delay;
+    private final Ticker ticker;
+
+    private long lastTimeNotOutOfMemory;
+    private QueryId lastKilledQuery;
+
+    public LowMemoryKiller(Duration delay, Ticker ticker)
+    {
+        this.delay = requireNonNull(delay, "delay is null");
+        this.ticker = requireNonNull(ticker, "ticker is null");
+        this.lastTimeNotOutOfMemory = ticker.read();
+    }
+
+    /**
+     * Returns true if a query was killed
+     *
+     * @param queriesWithMemory the queries that still have memory reserved in any of the cluster memory pools
+     */
+    public boolean process(boolean outOfMemory, Iterable<QueryExecution> queries, Set<QueryId> queriesWithMemory)
+    {
+        if (!outOfMemory) {
+            lastTimeNotOutOfMemory = ticker.read();
+            return false;
+        }
+
+        Duration outOfMemoryTime = new Duration(ticker.read() - lastTimeNotOutOfMemory, NANOSECONDS);
+        if (outOfMemoryTime.compareTo(delay) <= 0 || !isLastKilledQueryGone(queries, queriesWithMemory)) {
+            return false;
+        }
+
+        QueryExecution biggestQuery = null;
+        long maxMemory = -1;
+        for (QueryExecution query : queries) {
+            if (query.getState().isDone()) {
+                continue;
+            }
+            long bytesUsed = query.getTotalMemoryReservation();
+            if (bytesUsed > maxMemory) {
+                biggestQuery = query;
+                maxMemory = bytesUsed;
+            }
+        }
+        if (biggestQuery == null) {
+            return false;
+        }
+
+        log.info("Cluster has been out of memory for %s, killing query %s using %s", outOfMemoryTime.convertToMostSuccinctTimeUnit(), biggestQuery.getQueryId(), DataSize.succinctDataSize(maxMemory, Unit.BYTE));
+        biggestQuery.fail(new PrestoException(CLUSTER_OUT_OF_MEMORY, "Query killed because the cluster is out of memory. Please try again in a few minutes."));
+        lastKilledQuery = biggestQuery.getQueryId();
+        return true;
+    }
+
+    private boolean isLastKilledQueryGone(Iterable<QueryExecution> queries, Set<QueryId> queriesWithMemory)
+    {
+        if (lastKilledQuery == null) {
+            return true;
+        }
+        // a failed query keeps its memory until its tasks are cleaned up on the workers, so wait for
+        // the workers to report its reservation as released before killing another one. The reservation
+        // of the query execution itself cannot be used, since it is frozen once the query is done.
+        if (queriesWithMemory.contains(lastKilledQuery)) {
+            return false;
+        }
+        for (QueryExecution query : queries) {
+            if (query.getQueryId().equals(lastKilledQuery) && !query.getState().isDone()) {
+                return false;
+            }
+        }
+        lastKilledQuery = null;
+        return true;
+    }
+}
@@ -14,11 +14,14 @@
 package com.facebook.presto.memory;
 
 import io.airlift.configuration.Config;
+import io.airlift.configuration.ConfigDescription;
 import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
 
 import javax.validation.constraints.NotNull;
 
 import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static java.util.concurrent.TimeUnit.MINUTES;
 
 public class MemoryManagerConfig
 {
@@ -27,6 +30,8 @@ public class MemoryManagerConfig
     private DataSize maxQueryMemory = new DataSize(20, GIGABYTE);
     private DataSize maxQueryMemoryPerNode = new DataSize(1, GIGABYTE);
     private boolean clusterMemoryManagerEnabled = true;
+    private boolean killOnOutOfMemory;
+    private Duration killOnOutOfMemoryDelay = new Duration(5, MINUTES);
 
     @NotNull
     public DataSize getMaxQueryMemory()
@@ -65,4 +70,31 @@ public class MemoryManagerConfig
         this.clusterMemoryManagerEnabled = clusterMemoryManagerEnabled;
         return this;
     }
+
+    public boolean isKillOnOutOfMemory()
+    {
+        return killOnOutOfMemory;
+    }
+
+    @Config("query.low-memory-killer.enabled")
+    @ConfigDescription("Kill the query with the largest memory reservation when the cluster runs out of memory")
+    public MemoryManagerConfig setKillOnOutOfMemory(boolean killOnOutOfMemory)
+    {
+        this.killOnOutOfMemory = killOnOutOfMemory;
+        return this;
+    }
+
+    @NotNull
+    public Duration getKillOnOutOfMemoryDelay()
+    {
+        return killOnOutOfMemoryDelay;
+    }
+
+    @Config("query.low-memory-killer.delay")
+    @ConfigDescription("Time the cluster must be out of memory before a query is killed")
+    public MemoryManagerConfig setKillOnOutOfMemoryDelay(Duration killOnOutOfMemoryDelay)
+    {
+        this.killOnOutOfMemoryDelay = killOnOutOfMemoryDelay;
+        return this;
+    }
 }
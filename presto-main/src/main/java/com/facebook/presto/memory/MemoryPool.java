@@ -13,14 +13,19 @@
  */
 package com.facebook.presto.memory;
 
+import com.facebook.presto.execution.QueryId;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import io.airlift.units.DataSize;
 import org.weakref.jmx.Managed;
 
 import javax.annotation.Nullable;
-import javax.annotation.concurrent.GuardedBy;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -33,12 +38,16 @@ public class MemoryPool
     private final long maxBytes;
     private final boolean enableBlocking;
 
-    @GuardedBy("this")
-    private long freeBytes;
+    // Reservations only update this counter. The lock is taken only to create or complete the
+    // future while the pool is exhausted, so concurrent drivers do not serialize on the pool.
+    private final AtomicLong freeBytes;
 
+    // written while holding the lock, read without it on the free path
     @Nullable
-    @GuardedBy("this")
-    private SettableFuture<?> future;
+    private volatile SettableFuture<?> future;
+
+    // queries with no memory reserved are removed, so the coordinator can tell when a query has released its memory
+    private final Map<QueryId, Long> queryMemoryReservations = new ConcurrentHashMap<>();
 
     public MemoryPool(MemoryPoolId id, DataSize size, boolean enableBlocking)
     {
@@ -46,7 +55,7 @@ public class MemoryPool
         requireNonNull(size, "size is null");
         maxBytes = size.toBytes();
         this.enableBlocking = enableBlocking;
-        freeBytes = size.toBytes();
+        freeBytes = new AtomicLong(size.toBytes());
     }
 
     public MemoryPoolId getId()
@@ -54,26 +63,42 @@ public class MemoryPool
         return id;
     }
 
-    public synchronized MemoryPoolInfo getInfo()
+    public MemoryPoolInfo getInfo()
     {
-        return new MemoryPoolInfo(maxBytes, freeBytes);
+        return new MemoryPoolInfo(maxBytes, freeBytes.get(), ImmutableMap.copyOf(queryMemoryReservations));
     }
 
     /**
      * Reserves the given number of bytes. Caller should wait on the returned future, before allocating more memory.
      */
-    public synchronized ListenableFuture<?> reserve(long bytes)
+    public ListenableFuture<?> reserve(QueryId queryId, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
-        freeBytes -= bytes;
-        if (freeBytes <= 0) {
-            if (future == null) {
-                future = SettableFuture.create();
-            }
-            checkState(!future.isDone(), "future is already completed");
-            if (enableBlocking) {
-                return future;
-            }
+        if (bytes != 0) {
+            queryMemoryReservations.merge(queryId, bytes, Long::sum);
+        }
+        if (freeBytes.addAndGet(-bytes) > 0) {
+            return NOT_BLOCKED;
+        }
+        return getBlockedFuture();
+    }
+
+    private synchronized ListenableFuture<?> getBlockedFuture()
+    {
+        if (future == null) {
+            future = SettableFuture.create();
+        }
+        checkState(!future.isDone(), "future is already completed");
+
+        // Re-check after publishing the future: either a concurrent free observes the future and
+        // completes it, or the memory it released is visible here.
+        if (freeBytes.get() > 0) {
+            future.set(null);
+            future = null;
+            return NOT_BLOCKED;
+        }
+        if (enableBlocking) {
+            return future;
         }
         return NOT_BLOCKED;
     }
@@ -81,22 +106,49 @@ public class MemoryPool
     /**
      * Try to reserve the given number of bytes. Return value indicates whether the caller may use the requested memory.
      */
-    public synchronized boolean tryReserve(long bytes)
+    public boolean tryReserve(QueryId queryId, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
-        if (freeBytes - bytes < 0) {
-            return false;
+        while (true) {
+            long free = freeBytes.get();
+            if (free - bytes < 0) {
+                return false;
+            }
+            if (freeBytes.compareAndSet(free, free - bytes)) {
+                if (bytes != 0) {
+                    queryMemoryReservations.merge(queryId, bytes, Long::sum);
+                }
+                return true;
+            }
         }
-        freeBytes -= bytes;
-        return true;
     }
 
-    public synchronized void free(long bytes)
+    public void free(QueryId queryId, long bytes)
     {
         checkArgument(bytes >= 0, "bytes is negative");
-        checkArgument(freeBytes + bytes <= maxBytes, "tried to free more memory than is reserved");
-        freeBytes += bytes;
-        if (freeBytes > 0 && future != null) {
+        if (bytes != 0) {
+            queryMemoryReservations.compute(queryId, (id, reserved) -> {
+                checkArgument(reserved != null && reserved - bytes >= 0, "tried to free more memory than is reserved");
+                return reserved == bytes ? null : reserved - bytes;
+            });
+        }
+        long free;
+        while (true) {
+            long current = freeBytes.get();
+            free = current + bytes;
+            checkArgument(free <= maxBytes, "tried to free more memory than is reserved");
+            if (freeBytes.compareAndSet(current, free)) {
+                break;
+            }
+        }
+        if (free > 0 && future != null) {
+            unblock();
+        }
+    }
+
+    private synchronized void unblock()
+    {
+        if (freeBytes.get() > 0 && future != null) {
             future.set(null);
             future = null;
         }
@@ -106,13 +158,13 @@ public class MemoryPool
      * Returns the number of free bytes. This value may be negative, which indicates that the pool is over-committed.
      */
     @Managed
-    public synchronized long getFreeBytes()
+    public long getFreeBytes()
     {
-        return freeBytes;
+        return freeBytes.get();
     }
 
     @Managed
-    public synchronized long getMaxBytes()
+    public long getMaxBytes()
     {
         return maxBytes;
     }
@@ -124,7 +176,7 @@ public class MemoryPool
                 .add("id", id)
                 .add("maxBytes", maxBytes)
                 .add("enableBlocking", enableBlocking)
-                .add("freeBytes", freeBytes)
+                .add("freeBytes", freeBytes.get())
                 .add("future", future)
                 .toString();
     }
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.metadata;
 
+import com.facebook.presto.spi.ConnectorBucketing;
 import com.facebook.presto.spi.ConnectorPartition;
 import com.facebook.presto.spi.ConnectorTableHandle;
 import com.facebook.presto.spi.ConnectorTableLayoutHandle;
@@ -21,6 +22,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
@@ -32,6 +34,7 @@ public final class LegacyTableLayoutHandle
 {
     private final ConnectorTableHandle table;
     private final List<ConnectorPartition> partitions;
+    private final Optional<ConnectorBucketing> bucketing;
 
     @JsonCreator
     public LegacyTableLayoutHandle(@JsonProperty("table") ConnectorTableHandle table)
@@ -40,15 +43,18 @@ public final class LegacyTableLayoutHandle
 
         this.table = table;
         this.partitions = null;
+        this.bucketing = Optional.empty();
     }
 
-    public LegacyTableLayoutHandle(ConnectorTableHandle table, List<ConnectorPartition> partitions)
+    public LegacyTableLayoutHandle(ConnectorTableHandle table, List<ConnectorPartition> partitions, Optional<ConnectorBucketing> bucketing)
     {
         requireNonNull(table, "table is null");
         requireNonNull(partitions, "partitions is null");
+        requireNonNull(bucketing, "bucketing is null");
 
         this.table = table;
         this.partitions = partitions;
+        this.bucketing = bucketing;
     }
 
     @JsonProperty
@@ -63,6 +69,11 @@ public final class LegacyTableLayoutHandle
         return partitions;
     }
 
+    public Optional<ConnectorBucketing> getBucketing()
+    {
+        return bucketing;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -17,6 +17,7 @@ import com.facebook.presto.Session;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ColumnMetadata;
 import com.facebook.presto.spi.Constraint;
+import com.facebook.presto.spi.TableStatistics;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.spi.type.TypeManager;
@@ -74,6 +75,14 @@ public interface Metadata
     @NotNull
     TableMetadata getTableMetadata(Session session, TableHandle tableHandle);
 
+    /**
+     * Return the estimated statistics for the specified table handle (never null).
+     *
+     * @throws RuntimeException if table handle is no longer valid
+     */
+    @NotNull
+    TableStatistics getTableStatistics(Session session, TableHandle tableHandle);
+
     /**
      * Get the names that match the specified table prefix (never null).
      */
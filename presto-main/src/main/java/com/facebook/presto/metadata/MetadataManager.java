@@ -33,6 +33,7 @@ import com.facebook.presto.spi.Constraint;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SchemaTablePrefix;
+import com.facebook.presto.spi.TableStatistics;
 import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.facebook.presto.spi.type.Type;
@@ -281,7 +282,14 @@ public class MetadataManager
                 effectivePredicate = TupleDomain.columnWiseUnion(partitionDomains);
             }
 
-            ConnectorTableLayout layout = new ConnectorTableLayout(new LegacyTableLayoutHandle(connectorTable, partitions), Optional.empty(), effectivePredicate, Optional.empty(), Optional.of(partitionDomains), ImmutableList.of());
+            ConnectorTableLayout layout = new ConnectorTableLayout(
+                    new LegacyTableLayoutHandle(connectorTable, partitions, result.getBucketing()),
+                    Optional.empty(),
+                    effectivePredicate,
+                    Optional.empty(),
+                    Optional.of(partitionDomains),
+                    ImmutableList.of(),
+                    result.getBucketing());
             layouts = ImmutableList.of(new ConnectorTableLayoutResult(layout, result.getUndeterminedTupleDomain()));
         }
 
@@ -303,7 +311,7 @@ public class MetadataManager
             if (!partitionDomains.isEmpty()) {
                 predicate = TupleDomain.columnWiseUnion(partitionDomains);
             }
-            return new TableLayout(handle, new ConnectorTableLayout(legacyHandle, Optional.empty(), predicate, Optional.empty(), Optional.of(partitionDomains), ImmutableList.of()));
+            return new TableLayout(handle, new ConnectorTableLayout(legacyHandle, Optional.empty(), predicate, Optional.empty(), Optional.of(partitionDomains), ImmutableList.of(), legacyHandle.getBucketing()));
         }
 
         String connectorId = handle.getConnectorId();
@@ -320,6 +328,13 @@ public class MetadataManager
         return new TableMetadata(tableHandle.getConnectorId(), tableMetadata);
     }
 
+    @Override
+    public TableStatistics getTableStatistics(Session session, TableHandle tableHandle)
+    {
+        ConnectorMetadataEntry entry = lookupConnectorFor(tableHandle);
+        return entry.getMetadata().getTableStatistics(session.toConnectorSession(entry.getCatalog()), tableHandle.getConnectorHandle());
+    }
+
     @Override
     public Map<String, ColumnHandle> getColumnHandles(Session session, TableHandle tableHandle)
     {
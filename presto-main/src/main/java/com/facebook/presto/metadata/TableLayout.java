@@ -14,6 +14,7 @@
 package com.facebook.presto.metadata;
 
 import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorBucketing;
 import com.facebook.presto.spi.ConnectorTableLayout;
 import com.facebook.presto.spi.LocalProperty;
 import com.facebook.presto.spi.TupleDomain;
@@ -68,6 +69,11 @@ public class TableLayout
         return layout.getDiscretePredicates();
     }
 
+    public Optional<ConnectorBucketing> getBucketing()
+    {
+        return layout.getBucketing();
+    }
+
     public static TableLayout fromConnectorLayout(String connectorId, ConnectorTableLayout layout)
     {
         return new TableLayout(new TableLayoutHandle(connectorId, layout.getHandle()), layout);
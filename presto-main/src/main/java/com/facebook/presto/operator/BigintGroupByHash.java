@@ -115,13 +115,17 @@ public class BigintGroupByHash
 
         if (outputRawHash) {
             BlockBuilder hashBlockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + 1);
-            if (groupId == nullGroupId) {
-                BIGINT.writeLong(hashBlockBuilder, NULL_HASH_CODE);
-            }
-            else {
-                BIGINT.writeLong(hashBlockBuilder, BigintOperators.hashCode(valuesByGroupId.get(groupId)));
-            }
+            BIGINT.writeLong(hashBlockBuilder, getRawHash(groupId));
+        }
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        if (groupId == nullGroupId) {
+            return NULL_HASH_CODE;
         }
+        return BigintOperators.hashCode(valuesByGroupId.get(groupId));
     }
 
     @Override
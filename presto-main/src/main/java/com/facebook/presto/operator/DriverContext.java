@@ -15,6 +15,7 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.Session;
 import com.facebook.presto.execution.TaskId;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListenableFuture;
@@ -34,12 +35,15 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.getFirst;
 import static com.google.common.collect.Iterables.getLast;
 import static com.google.common.collect.Iterables.transform;
 import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
@@ -48,6 +52,15 @@ public class DriverContext
 {
     private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
 
+    // Small reservations are taken from the pipeline in chunks of this size and handed out
+    // locally, so operators do not go through the task and query locks for every update.
+    @VisibleForTesting
+    static final long MEMORY_RESERVATION_CHUNK_BYTES = new DataSize(64, KILOBYTE).toBytes();
+    // The unused part of the chunks is reserved in the pool, so the drivers of a pipeline stop
+    // taking chunks and keeping freed memory once they hold this much between them.
+    @VisibleForTesting
+    static final long MAX_PIPELINE_UNUSED_MEMORY_BYTES = new DataSize(1, MEGABYTE).toBytes();
+
     private final PipelineContext pipelineContext;
     private final Executor executor;
 
@@ -75,6 +88,8 @@ public class DriverContext
     private final AtomicReference<DateTime> executionEndTime = new AtomicReference<>();
 
     private final AtomicLong memoryReservation = new AtomicLong();
+    // memory reserved from the pipeline, but not yet handed out to an operator
+    private final AtomicLong unusedMemoryReservation = new AtomicLong();
 
     private final List<OperatorContext> operatorContexts = new CopyOnWriteArrayList<>();
     private final boolean partitioned;
@@ -168,6 +183,7 @@ public class DriverContext
         endNanos.set(System.nanoTime());
 
         freeMemory(memoryReservation.get());
+        releaseUnusedMemory(0);
 
         pipelineContext.driverFinished(this);
     }
@@ -195,17 +211,34 @@ public class DriverContext
 
     public ListenableFuture<?> reserveMemory(long bytes)
     {
-        ListenableFuture<?> future = pipelineContext.reserveMemory(bytes);
+        checkArgument(bytes >= 0, "bytes is negative");
+        long taken = takeUnusedMemory(bytes);
+        long missing = bytes - taken;
+        ListenableFuture<?> future = NOT_BLOCKED;
+        if (missing > 0 && !tryReserveChunk(missing)) {
+            try {
+                future = pipelineContext.reserveMemory(missing);
+            }
+            catch (RuntimeException e) {
+                // the reservation failed (e.g. the query exceeded its memory limit), so the memory taken is still unused
+                addUnusedMemory(taken);
+                throw e;
+            }
+        }
         memoryReservation.getAndAdd(bytes);
         return future;
     }
 
     public boolean tryReserveMemory(long bytes)
     {
-        if (pipelineContext.tryReserveMemory(bytes)) {
+        checkArgument(bytes >= 0, "bytes is negative");
+        long taken = takeUnusedMemory(bytes);
+        long missing = bytes - taken;
+        if (missing == 0 || tryReserveChunk(missing) || pipelineContext.tryReserveMemory(missing)) {
             memoryReservation.getAndAdd(bytes);
             return true;
         }
+        addUnusedMemory(taken);
         return false;
     }
 
@@ -213,8 +246,67 @@ public class DriverContext
     {
         checkArgument(bytes >= 0, "bytes is negative");
         checkArgument(bytes <= memoryReservation.get(), "tried to free more memory than is reserved");
-        pipelineContext.freeMemory(bytes);
         memoryReservation.getAndAdd(-bytes);
+        long unused = addUnusedMemory(bytes);
+        if (finished.get() || pipelineContext.getUnusedDriverMemoryReservation() > MAX_PIPELINE_UNUSED_MEMORY_BYTES) {
+            releaseUnusedMemory(0);
+        }
+        else if (unused > MEMORY_RESERVATION_CHUNK_BYTES) {
+            releaseUnusedMemory(MEMORY_RESERVATION_CHUNK_BYTES);
+        }
+    }
+
+    private long takeUnusedMemory(long bytes)
+    {
+        while (true) {
+            long unused = unusedMemoryReservation.get();
+            long taken = Math.min(unused, bytes);
+            if (taken == 0) {
+                return 0;
+            }
+            if (unusedMemoryReservation.compareAndSet(unused, unused - taken)) {
+                pipelineContext.addUnusedDriverMemoryReservation(-taken);
+                return taken;
+            }
+        }
+    }
+
+    private long addUnusedMemory(long bytes)
+    {
+        pipelineContext.addUnusedDriverMemoryReservation(bytes);
+        return unusedMemoryReservation.addAndGet(bytes);
+    }
+
+    private boolean tryReserveChunk(long bytes)
+    {
+        // large reservations go straight to the pipeline, so they still block when the pool is exhausted
+        if (bytes >= MEMORY_RESERVATION_CHUNK_BYTES || finished.get()) {
+            return false;
+        }
+        // with many drivers in the pipeline, the unused chunks would add up to a large phantom reservation
+        if (pipelineContext.getUnusedDriverMemoryReservation() + MEMORY_RESERVATION_CHUNK_BYTES > MAX_PIPELINE_UNUSED_MEMORY_BYTES) {
+            return false;
+        }
+        if (!pipelineContext.tryReserveMemory(MEMORY_RESERVATION_CHUNK_BYTES)) {
+            return false;
+        }
+        addUnusedMemory(MEMORY_RESERVATION_CHUNK_BYTES - bytes);
+        return true;
+    }
+
+    private void releaseUnusedMemory(long retainedBytes)
+    {
+        while (true) {
+            long unused = unusedMemoryReservation.get();
+            if (unused <= retainedBytes) {
+                return;
+            }
+            if (unusedMemoryReservation.compareAndSet(unused, retainedBytes)) {
+                pipelineContext.addUnusedDriverMemoryReservation(retainedBytes - unused);
+                pipelineContext.freeMemory(unused - retainedBytes);
+                return;
+            }
+        }
     }
 
     public void moreMemoryAvailable()
@@ -0,0 +1,256 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.Range;
+import com.facebook.presto.spi.SortedRangeSet;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.primitives.Primitives.wrap;
+
+/**
+ * Summary of the join keys seen by a hash build, published as a {@link TupleDomain}
+ * over the probe side table scan columns. Since only probe rows matching a build
+ * row survive an inner join, the probe scan can skip any data outside of it.
+ */
+@ThreadSafe
+public class DynamicFilter
+{
+    private static final int MAX_DISTINCT_VALUES = 100;
+
+    private final Map<Integer, ColumnHandle> joinClauseColumns;
+    private final SettableFuture<TupleDomain<ColumnHandle>> tupleDomain = SettableFuture.create();
+
+    @GuardedBy("this")
+    private final List<TupleDomain<ColumnHandle>> collected = new ArrayList<>();
+    @GuardedBy("this")
+    private int pendingCollectors;
+    @GuardedBy("this")
+    private boolean noMoreCollectors;
+
+    /**
+     * @param joinClauseColumns the probe scan column compared by each join clause, keyed by the position of the clause in the join criteria
+     */
+    public DynamicFilter(Map<Integer, ColumnHandle> joinClauseColumns)
+    {
+        this.joinClauseColumns = ImmutableMap.copyOf(checkNotNull(joinClauseColumns, "joinClauseColumns is null"));
+    }
+
+    public static boolean isSupportedType(Type type)
+    {
+        Class<?> javaType = type.getJavaType();
+        return type.isOrderable() && (javaType == long.class || javaType == double.class || javaType == boolean.class || javaType == Slice.class);
+    }
+
+    public ListenableFuture<TupleDomain<ColumnHandle>> getTupleDomain()
+    {
+        return tupleDomain;
+    }
+
+    public synchronized Collector createCollector(List<Type> buildTypes, List<Integer> buildJoinChannels)
+    {
+        checkState(!noMoreCollectors, "No more collectors can be created");
+        pendingCollectors++;
+        return new Collector(buildTypes, buildJoinChannels);
+    }
+
+    /**
+     * Signals that all collectors have been created. The filter is published once
+     * every collector created so far has finished.
+     */
+    public synchronized void noMoreCollectors()
+    {
+        noMoreCollectors = true;
+        publishIfComplete();
+    }
+
+    private synchronized void collectorFinished(TupleDomain<ColumnHandle> domain)
+    {
+        collected.add(domain);
+        pendingCollectors--;
+        publishIfComplete();
+    }
+
+    @GuardedBy("this")
+    private void publishIfComplete()
+    {
+        if (!noMoreCollectors || pendingCollectors > 0 || tupleDomain.isDone()) {
+            return;
+        }
+        if (collected.isEmpty()) {
+            // no build rows were seen
+            tupleDomain.set(TupleDomain.none());
+            return;
+        }
+        tupleDomain.set(TupleDomain.columnWiseUnion(collected));
+    }
+
+    @NotThreadSafe
+    public class Collector
+    {
+        private final List<ChannelSummary> summaries;
+        private boolean finished;
+
+        private Collector(List<Type> buildTypes, List<Integer> buildJoinChannels)
+        {
+            ImmutableList.Builder<ChannelSummary> summaries = ImmutableList.builder();
+            for (Map.Entry<Integer, ColumnHandle> entry : joinClauseColumns.entrySet()) {
+                int channel = buildJoinChannels.get(entry.getKey());
+                summaries.add(new ChannelSummary(channel, buildTypes.get(channel), entry.getValue()));
+            }
+            this.summaries = summaries.build();
+        }
+
+        public void add(Page page)
+        {
+            checkState(!finished, "Collector is already finished");
+            for (ChannelSummary summary : summaries) {
+                summary.add(page.getBlock(summary.getChannel()));
+            }
+        }
+
+        public void finish()
+        {
+            if (finished) {
+                return;
+            }
+            finished = true;
+
+            TupleDomain<ColumnHandle> result = TupleDomain.all();
+            for (ChannelSummary summary : summaries) {
+                result = result.intersect(TupleDomain.withColumnDomains(ImmutableMap.of(summary.getColumn(), summary.toDomain())));
+            }
+            collectorFinished(result);
+        }
+    }
+
+    private static class ChannelSummary
+    {
+        private final int channel;
+        private final Type type;
+        private final ColumnHandle column;
+
+        private Set<Comparable<?>> values = new HashSet<>();
+        private Comparable<Object> min;
+        private Comparable<Object> max;
+
+        public ChannelSummary(int channel, Type type, ColumnHandle column)
+        {
+            this.channel = channel;
+            this.type = checkNotNull(type, "type is null");
+            this.column = checkNotNull(column, "column is null");
+        }
+
+        public int getChannel()
+        {
+            return channel;
+        }
+
+        public ColumnHandle getColumn()
+        {
+            return column;
+        }
+
+        public void add(Block block)
+        {
+            for (int position = 0; position < block.getPositionCount(); position++) {
+                // null keys never match
+                if (block.isNull(position)) {
+                    continue;
+                }
+                Comparable<Object> value = getValue(block, position);
+                if (value == null) {
+                    continue;
+                }
+
+                if (min == null || value.compareTo(min) < 0) {
+                    min = value;
+                }
+                if (max == null || value.compareTo(max) > 0) {
+                    max = value;
+                }
+
+                if (values != null) {
+                    values.add(value);
+                    if (values.size() > MAX_DISTINCT_VALUES) {
+                        // too many values to enumerate, fall back to the value range
+                        values = null;
+                    }
+                }
+            }
+        }
+
+        public Domain toDomain()
+        {
+            Class<?> javaType = wrap(type.getJavaType());
+            if (min == null) {
+                return Domain.none(javaType);
+            }
+            if (values == null) {
+                return Domain.create(SortedRangeSet.of(Range.range(min, true, max, true)), false);
+            }
+
+            List<Range> ranges = new ArrayList<>(values.size());
+            for (Comparable<?> value : values) {
+                ranges.add(Range.equal(value));
+            }
+            return Domain.create(SortedRangeSet.copyOf(javaType, ranges), false);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Comparable<Object> getValue(Block block, int position)
+        {
+            Class<?> javaType = type.getJavaType();
+            if (javaType == long.class) {
+                return (Comparable<Object>) (Comparable<?>) type.getLong(block, position);
+            }
+            if (javaType == double.class) {
+                double value = type.getDouble(block, position);
+                // NaN is not equal to any value
+                if (Double.isNaN(value)) {
+                    return null;
+                }
+                return (Comparable<Object>) (Comparable<?>) value;
+            }
+            if (javaType == boolean.class) {
+                return (Comparable<Object>) (Comparable<?>) type.getBoolean(block, position);
+            }
+            // copy the value so the summary does not retain the build pages
+            return (Comparable<Object>) (Comparable<?>) Slices.copyOf(type.getSlice(block, position));
+        }
+    }
+}
@@ -13,9 +13,12 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.block.PageCompression;
+import com.facebook.presto.block.PagesCompressionStats;
 import com.facebook.presto.operator.HttpPageBufferClient.ClientCallback;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.google.common.base.Stopwatch;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
@@ -33,9 +36,11 @@ import java.io.Closeable;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -48,20 +53,25 @@ import java.util.concurrent.atomic.AtomicReference;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Sets.newConcurrentHashSet;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 
 @ThreadSafe
 public class ExchangeClient
         implements Closeable
 {
     private static final Page NO_MORE_PAGES = new Page(0);
+    private static final long MIN_REQUEST_CREDIT_BYTES = new DataSize(64, KILOBYTE).toBytes();
 
     private final BlockEncodingSerde blockEncodingSerde;
     private final long maxBufferedBytes;
     private final DataSize maxResponseSize;
     private final int concurrentRequestMultiplier;
     private final Duration minErrorDuration;
+    private final PageCompression compression;
     private final HttpClient httpClient;
     private final ScheduledExecutorService executor;
+    private final PagesCompressionStats compressionStats = new PagesCompressionStats();
 
     @GuardedBy("this")
     private final Set<URI> locations = new HashSet<>();
@@ -83,6 +93,10 @@ public class ExchangeClient
     @GuardedBy("this")
     private long bufferBytes;
     @GuardedBy("this")
+    private final Map<HttpPageBufferClient, Long> outstandingCredits = new HashMap<>();
+    @GuardedBy("this")
+    private long outstandingCreditBytes;
+    @GuardedBy("this")
     private long successfulRequests;
     @GuardedBy("this")
     private long averageBytesPerRequest;
@@ -98,12 +112,26 @@ public class ExchangeClient
             Duration minErrorDuration,
             HttpClient httpClient,
             ScheduledExecutorService executor)
+    {
+        this(blockEncodingSerde, maxBufferedBytes, maxResponseSize, concurrentRequestMultiplier, minErrorDuration, PageCompression.NONE, httpClient, executor);
+    }
+
+    public ExchangeClient(
+            BlockEncodingSerde blockEncodingSerde,
+            DataSize maxBufferedBytes,
+            DataSize maxResponseSize,
+            int concurrentRequestMultiplier,
+            Duration minErrorDuration,
+            PageCompression compression,
+            HttpClient httpClient,
+            ScheduledExecutorService executor)
     {
         this.blockEncodingSerde = blockEncodingSerde;
         this.maxBufferedBytes = maxBufferedBytes.toBytes();
         this.maxResponseSize = maxResponseSize;
         this.concurrentRequestMultiplier = concurrentRequestMultiplier;
         this.minErrorDuration = minErrorDuration;
+        this.compression = checkNotNull(compression, "compression is null");
         this.httpClient = httpClient;
         this.executor = executor;
     }
@@ -119,7 +147,16 @@ public class ExchangeClient
         for (HttpPageBufferClient client : allClients.values()) {
             exchangeStatus.add(client.getStatus());
         }
-        return new ExchangeClientStatus(bufferBytes, averageBytesPerRequest, bufferedPages, noMoreLocations, exchangeStatus.build());
+        return new ExchangeClientStatus(
+                bufferBytes,
+                averageBytesPerRequest,
+                bufferedPages,
+                noMoreLocations,
+                compressionStats.getCompressedDataSize(),
+                compressionStats.getUncompressedDataSize(),
+                compressionStats.getCompressionRatio(),
+                compressionStats.getDecompressionCpuTime(),
+                exchangeStatus.build());
     }
 
     public synchronized void addLocation(URI location)
@@ -221,6 +258,8 @@ public class ExchangeClient
         }
         pageBuffer.clear();
         bufferBytes = 0;
+        outstandingCredits.clear();
+        outstandingCreditBytes = 0;
         if (pageBuffer.peekLast() != NO_MORE_PAGES) {
             checkState(pageBuffer.add(NO_MORE_PAGES), "Could not add no more pages marker");
         }
@@ -255,7 +294,10 @@ public class ExchangeClient
                         location,
                         new ExchangeClientCallback(),
                         blockEncodingSerde,
-                        executor);
+                        compression,
+                        compressionStats,
+                        executor,
+                        Stopwatch.createUnstarted());
                 allClients.put(location, client);
                 queuedClients.add(client);
             }
@@ -271,14 +313,28 @@ public class ExchangeClient
 
         int pendingClients = allClients.size() - queuedClients.size() - completedClients.size();
         clientCount -= pendingClients;
+        clientCount = Math.min(clientCount, queuedClients.size());
+        if (clientCount <= 0) {
+            return;
+        }
+
+        // Split the buffer space not already promised to in-flight requests between the requests
+        // scheduled now, instead of letting the first request take all of it. Every request gets a
+        // minimum credit, so fewer requests are scheduled when the space left is small. When all of
+        // it is promised, a request is only sent if none is in flight, so the exchange makes progress.
+        long minCredit = Math.max(Math.min(MIN_REQUEST_CREDIT_BYTES, Math.min(maxResponseSize.toBytes(), maxBufferedBytes)), 1);
+        long availableCredit = Math.max(neededBytes - outstandingCreditBytes, 0);
+        if (availableCredit < minCredit && pendingClients > 0) {
+            return;
+        }
+        clientCount = (int) Math.min(clientCount, Math.max(availableCredit / minCredit, 1));
+        long credit = Math.min(maxResponseSize.toBytes(), Math.max(availableCredit / clientCount, minCredit));
 
         for (int i = 0; i < clientCount; i++) {
             HttpPageBufferClient client = queuedClients.poll();
-            if (client == null) {
-                // no more clients available
-                return;
-            }
-            client.scheduleRequest();
+            outstandingCredits.put(client, credit);
+            outstandingCreditBytes += credit;
+            client.scheduleRequest(new DataSize(credit, BYTE));
         }
     }
 
@@ -321,8 +377,17 @@ public class ExchangeClient
         }
     }
 
+    private synchronized void releaseCredit(HttpPageBufferClient client)
+    {
+        Long credit = outstandingCredits.remove(client);
+        if (credit != null) {
+            outstandingCreditBytes -= credit;
+        }
+    }
+
     private synchronized void requestComplete(HttpPageBufferClient client)
     {
+        releaseCredit(client);
         if (!queuedClients.contains(client)) {
             queuedClients.add(client);
         }
@@ -332,6 +397,7 @@ public class ExchangeClient
     private synchronized void clientFinished(HttpPageBufferClient client)
     {
         checkNotNull(client, "client is null");
+        releaseCredit(client);
         completedClients.add(client);
         scheduleRequestIfNecessary();
     }
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.block.PageCompression;
 import io.airlift.configuration.Config;
 import io.airlift.http.client.HttpClientConfig;
 import io.airlift.units.DataSize;
@@ -32,6 +33,7 @@ public class ExchangeClientConfig
     private Duration minErrorDuration = new Duration(1, TimeUnit.MINUTES);
     private DataSize maxResponseSize = new HttpClientConfig().getMaxContentLength();
     private int clientThreads = 25;
+    private PageCompression compressionCodec = PageCompression.NONE;
 
     @NotNull
     public DataSize getMaxBufferSize()
@@ -98,4 +100,17 @@ public class ExchangeClientConfig
         this.clientThreads = clientThreads;
         return this;
     }
+
+    @NotNull
+    public PageCompression getCompressionCodec()
+    {
+        return compressionCodec;
+    }
+
+    @Config("exchange.compression-codec")
+    public ExchangeClientConfig setCompressionCodec(PageCompression compressionCodec)
+    {
+        this.compressionCodec = compressionCodec;
+        return this;
+    }
 }
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.block.PageCompression;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import io.airlift.http.client.HttpClient;
 import io.airlift.units.DataSize;
@@ -33,6 +34,7 @@ public class ExchangeClientFactory
     private final DataSize maxBufferedBytes;
     private final int concurrentRequestMultiplier;
     private final Duration minErrorDuration;
+    private final PageCompression compression;
     private final HttpClient httpClient;
     private final DataSize maxResponseSize;
     private final ScheduledExecutorService executor;
@@ -48,6 +50,7 @@ public class ExchangeClientFactory
                 config.getMaxResponseSize(),
                 config.getConcurrentRequestMultiplier(),
                 config.getMinErrorDuration(),
+                config.getCompressionCodec(),
                 httpClient,
                 executor);
     }
@@ -60,11 +63,25 @@ public class ExchangeClientFactory
             Duration minErrorDuration,
             HttpClient httpClient,
             ScheduledExecutorService executor)
+    {
+        this(blockEncodingSerde, maxBufferedBytes, maxResponseSize, concurrentRequestMultiplier, minErrorDuration, PageCompression.NONE, httpClient, executor);
+    }
+
+    public ExchangeClientFactory(
+            BlockEncodingSerde blockEncodingSerde,
+            DataSize maxBufferedBytes,
+            DataSize maxResponseSize,
+            int concurrentRequestMultiplier,
+            Duration minErrorDuration,
+            PageCompression compression,
+            HttpClient httpClient,
+            ScheduledExecutorService executor)
     {
         this.blockEncodingSerde = blockEncodingSerde;
         this.maxBufferedBytes = checkNotNull(maxBufferedBytes, "maxBufferedBytes is null");
         this.concurrentRequestMultiplier = concurrentRequestMultiplier;
         this.minErrorDuration = checkNotNull(minErrorDuration, "minErrorDuration is null");
+        this.compression = checkNotNull(compression, "compression is null");
         this.httpClient = checkNotNull(httpClient, "httpClient is null");
         this.maxResponseSize = checkNotNull(maxResponseSize, "maxResponseSize is null");
         this.executor = checkNotNull(executor, "executor is null");
@@ -83,6 +100,7 @@ public class ExchangeClientFactory
                 maxResponseSize,
                 concurrentRequestMultiplier,
                 minErrorDuration,
+                compression,
                 httpClient,
                 executor);
     }
@@ -16,6 +16,8 @@ package com.facebook.presto.operator;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.google.common.collect.ImmutableList;
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
 
 import java.util.List;
 
@@ -28,6 +30,10 @@ public class ExchangeClientStatus
     private final long averageBytesPerRequest;
     private final int bufferedPages;
     private final boolean noMoreLocations;
+    private final DataSize compressedDataSize;
+    private final DataSize uncompressedDataSize;
+    private final double compressionRatio;
+    private final Duration decompressionCpuTime;
     private final List<PageBufferClientStatus> pageBufferClientStatuses;
 
     @JsonCreator
@@ -36,12 +42,20 @@ public class ExchangeClientStatus
             @JsonProperty("averageBytesPerRequest") long averageBytesPerRequest,
             @JsonProperty("bufferedPages") int bufferedPages,
             @JsonProperty("noMoreLocations") boolean noMoreLocations,
+            @JsonProperty("compressedDataSize") DataSize compressedDataSize,
+            @JsonProperty("uncompressedDataSize") DataSize uncompressedDataSize,
+            @JsonProperty("compressionRatio") double compressionRatio,
+            @JsonProperty("decompressionCpuTime") Duration decompressionCpuTime,
             @JsonProperty("pageBufferClientStatuses") List<PageBufferClientStatus> pageBufferClientStatuses)
     {
         this.bufferedBytes = bufferedBytes;
         this.averageBytesPerRequest = averageBytesPerRequest;
         this.bufferedPages = bufferedPages;
         this.noMoreLocations = noMoreLocations;
+        this.compressedDataSize = checkNotNull(compressedDataSize, "compressedDataSize is null");
+        this.uncompressedDataSize = checkNotNull(uncompressedDataSize, "uncompressedDataSize is null");
+        this.compressionRatio = compressionRatio;
+        this.decompressionCpuTime = checkNotNull(decompressionCpuTime, "decompressionCpuTime is null");
         this.pageBufferClientStatuses = ImmutableList.copyOf(checkNotNull(pageBufferClientStatuses, "pageBufferClientStatuses is null"));
     }
 
@@ -69,8 +83,34 @@ public class ExchangeClientStatus
         return noMoreLocations;
     }
 
+    /**
+     * Size of the received pages as transferred, including the pages the sender left uncompressed.
+     */
     @JsonProperty
+    public DataSize getCompressedDataSize()
+    {
+        return compressedDataSize;
+    }
+
+    @JsonProperty
+    public DataSize getUncompressedDataSize()
+    {
+        return uncompressedDataSize;
+    }
 
+    @JsonProperty
+    public double getCompressionRatio()
+    {
+        return compressionRatio;
+    }
+
+    @JsonProperty
+    public Duration getDecompressionCpuTime()
+    {
+        return decompressionCpuTime;
+    }
+
+    @JsonProperty
     public List<PageBufferClientStatus> getPageBufferClientStatuses()
     {
         return pageBufferClientStatuses;
@@ -84,6 +124,8 @@ public class ExchangeClientStatus
                 .add("averageBytesPerRequest", averageBytesPerRequest)
                 .add("bufferedPages", bufferedPages)
                 .add("noMoreLocations", noMoreLocations)
+                .add("compressionRatio", compressionRatio)
+                .add("decompressionCpuTime", decompressionCpuTime)
                 .add("pageBufferClientStatuses", pageBufferClientStatuses)
                 .toString();
     }
@@ -87,6 +87,14 @@ public class FilterAndProjectOperator
     @Override
     public final Page getOutput()
     {
+        if (currentPage != null && currentPosition == 0 && pageBuilder.isEmpty()) {
+            Page page = processor.processColumnarDictionary(operatorContext.getSession().toConnectorSession(), currentPage);
+            if (page != null) {
+                currentPage = null;
+                return page.getPositionCount() > 0 ? page : null;
+            }
+        }
+
         if (!pageBuilder.isFull() && currentPage != null) {
             currentPosition = processor.process(operatorContext.getSession().toConnectorSession(), currentPage, currentPosition, currentPage.getPositionCount(), pageBuilder);
             if (currentPosition == currentPage.getPositionCount()) {
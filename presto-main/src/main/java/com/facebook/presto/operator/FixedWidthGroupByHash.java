@@ -0,0 +1,400 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.util.array.BooleanBigArray;
+import com.facebook.presto.util.array.IntBigArray;
+import com.facebook.presto.util.array.LongBigArray;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.DateType.DATE;
+import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
+import static com.facebook.presto.spi.type.TimeType.TIME;
+import static com.facebook.presto.spi.type.TimestampType.TIMESTAMP;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.airlift.slice.SizeOf.sizeOf;
+import static it.unimi.dsi.fastutil.HashCommon.arraySize;
+import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+
+/**
+ * Group by hash for keys of fixed width types, whose values are equal if and only if their
+ * binary representations are equal. The keys of all groups are stored inline in a single flat
+ * array, instead of in blocks addressed from the hash table, so that a lookup touches at most
+ * the hash table and one region of the key array, and the hash holds very few objects.
+ */
+// This implementation assumes arrays used in the hash are always a power of 2
+public class FixedWidthGroupByHash
+        implements GroupByHash
+{
+    private static final Set<Type> SUPPORTED_TYPES = ImmutableSet.of(BIGINT, DOUBLE, BOOLEAN, DATE, TIME, TIMESTAMP);
+
+    private static final float FILL_RATIO = 0.9f;
+
+    private final List<Type> keyTypes;
+    private final List<Type> types;
+    private final int[] channels;
+    private final int[] keySizes;
+    private final int keyCount;
+    private final int maskChannel;
+    private final boolean outputRawHash;
+
+    private final HashGenerator hashGenerator;
+    private final HashGenerator rowHashGenerator;
+
+    private int maxFill;
+    private int mask;
+    private int[] groupIdsByHash;
+
+    // keys and null flags of group g are stored at [g * keyCount, (g + 1) * keyCount)
+    private final LongBigArray keysByGroupId;
+    private final BooleanBigArray nullsByGroupId;
+    private final IntBigArray rawHashByGroupId;
+
+    private int nextGroupId;
+
+    public static boolean isSupportedType(Type type)
+    {
+        return SUPPORTED_TYPES.contains(type);
+    }
+
+    public FixedWidthGroupByHash(List<? extends Type> hashTypes, int[] hashChannels, Optional<Integer> maskChannel, Optional<Integer> inputHashChannel, int expectedSize)
+    {
+        checkNotNull(hashTypes, "hashTypes is null");
+        checkNotNull(hashChannels, "hashChannels is null");
+        checkArgument(hashTypes.size() == hashChannels.length, "hashTypes and hashChannels have different sizes");
+        checkNotNull(inputHashChannel, "inputHashChannel is null");
+        checkArgument(expectedSize > 0, "expectedSize must be greater than zero");
+
+        this.keyTypes = ImmutableList.copyOf(hashTypes);
+        this.types = inputHashChannel.isPresent() ? ImmutableList.copyOf(Iterables.concat(hashTypes, ImmutableList.of(BIGINT))) : keyTypes;
+        this.channels = hashChannels.clone();
+        this.keyCount = hashChannels.length;
+        this.maskChannel = checkNotNull(maskChannel, "maskChannel is null").orElse(-1);
+        this.outputRawHash = inputHashChannel.isPresent();
+
+        this.keySizes = new int[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            Type type = keyTypes.get(i);
+            checkArgument(isSupportedType(type), "Unsupported type: %s", type);
+            keySizes[i] = ((FixedWidthType) type).getFixedSize();
+        }
+
+        this.rowHashGenerator = new InterpretedHashGenerator(keyTypes, channels);
+        this.hashGenerator = inputHashChannel.isPresent() ? new PrecomputedHashGenerator(inputHashChannel.get()) : rowHashGenerator;
+
+        int hashSize = arraySize(expectedSize, FILL_RATIO);
+        maxFill = calculateMaxFill(hashSize);
+        mask = hashSize - 1;
+        groupIdsByHash = new int[hashSize];
+        Arrays.fill(groupIdsByHash, -1);
+
+        keysByGroupId = new LongBigArray();
+        keysByGroupId.ensureCapacity((long) maxFill * keyCount);
+        nullsByGroupId = new BooleanBigArray();
+        nullsByGroupId.ensureCapacity((long) maxFill * keyCount);
+        rawHashByGroupId = new IntBigArray();
+        rawHashByGroupId.ensureCapacity(maxFill);
+    }
+
+    @Override
+    public long getEstimatedSize()
+    {
+        return sizeOf(groupIdsByHash) +
+                keysByGroupId.sizeOf() +
+                nullsByGroupId.sizeOf() +
+                rawHashByGroupId.sizeOf();
+    }
+
+    @Override
+    public List<Type> getTypes()
+    {
+        return types;
+    }
+
+    @Override
+    public int getGroupCount()
+    {
+        return nextGroupId;
+    }
+
+    @Override
+    public void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset)
+    {
+        long offset = (long) groupId * keyCount;
+        for (int i = 0; i < keyCount; i++) {
+            BlockBuilder blockBuilder = pageBuilder.getBlockBuilder(outputChannelOffset + i);
+            if (nullsByGroupId.get(offset + i)) {
+                blockBuilder.appendNull();
+            }
+            else {
+                writeKey(keyTypes.get(i), blockBuilder, keysByGroupId.get(offset + i));
+            }
+        }
+
+        if (outputRawHash) {
+            BIGINT.writeLong(pageBuilder.getBlockBuilder(outputChannelOffset + keyCount), rawHashByGroupId.get(groupId));
+        }
+    }
+
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return rawHashByGroupId.get(groupId);
+    }
+
+    @Override
+    public void addPage(Page page)
+    {
+        Block[] hashBlocks = extractHashColumns(page);
+
+        Block maskBlock = null;
+        if (maskChannel >= 0) {
+            maskBlock = page.getBlock(maskChannel);
+        }
+
+        // get the group id for each position
+        int positionCount = page.getPositionCount();
+        for (int position = 0; position < positionCount; position++) {
+            // skip masked rows
+            if (maskBlock != null && !BOOLEAN.getBoolean(maskBlock, position)) {
+                continue;
+            }
+
+            // get the group for the current row
+            putIfAbsent(position, hashGenerator.hashPosition(position, page), hashBlocks);
+        }
+    }
+
+    @Override
+    public GroupByIdBlock getGroupIds(Page page)
+    {
+        int positionCount = page.getPositionCount();
+
+        // we know the exact size required for the block
+        BlockBuilder blockBuilder = BIGINT.createFixedSizeBlockBuilder(positionCount);
+
+        Block maskBlock = null;
+        if (maskChannel >= 0) {
+            maskBlock = page.getBlock(maskChannel);
+        }
+
+        // extract the hash columns
+        Block[] hashBlocks = extractHashColumns(page);
+
+        // get the group id for each position
+        for (int position = 0; position < positionCount; position++) {
+            // skip masked rows
+            if (maskBlock != null && !BOOLEAN.getBoolean(maskBlock, position)) {
+                blockBuilder.appendNull();
+                continue;
+            }
+
+            // get the group for the current row
+            int groupId = putIfAbsent(position, hashGenerator.hashPosition(position, page), hashBlocks);
+
+            // output the group id for this row
+            BIGINT.writeLong(blockBuilder, groupId);
+        }
+        return new GroupByIdBlock(nextGroupId, blockBuilder.build());
+    }
+
+    @Override
+    public boolean contains(int position, Page page)
+    {
+        Block[] hashBlocks = extractHashColumns(page);
+        return findGroupId(position, rowHashGenerator.hashPosition(position, page), hashBlocks) >= 0;
+    }
+
+    @Override
+    public int putIfAbsent(int position, Page page)
+    {
+        return putIfAbsent(position, hashGenerator.hashPosition(position, page), extractHashColumns(page));
+    }
+
+    private int putIfAbsent(int position, int rawHash, Block[] hashBlocks)
+    {
+        int hashPosition = getHashPosition(rawHash, mask);
+
+        // look for an empty slot or a slot containing this key
+        while (true) {
+            int groupId = groupIdsByHash[hashPosition];
+            if (groupId == -1) {
+                break;
+            }
+            if (rawHashByGroupId.get(groupId) == rawHash && keyEqualsRow(groupId, position, hashBlocks)) {
+                return groupId;
+            }
+            // increment position and mask to handle wrap around
+            hashPosition = (hashPosition + 1) & mask;
+        }
+
+        return addNewGroup(hashPosition, position, rawHash, hashBlocks);
+    }
+
+    private int findGroupId(int position, int rawHash, Block[] hashBlocks)
+    {
+        int hashPosition = getHashPosition(rawHash, mask);
+        while (true) {
+            int groupId = groupIdsByHash[hashPosition];
+            if (groupId == -1) {
+                return -1;
+            }
+            if (rawHashByGroupId.get(groupId) == rawHash && keyEqualsRow(groupId, position, hashBlocks)) {
+                return groupId;
+            }
+            hashPosition = (hashPosition + 1) & mask;
+        }
+    }
+
+    private boolean keyEqualsRow(int groupId, int position, Block[] hashBlocks)
+    {
+        long offset = (long) groupId * keyCount;
+        for (int i = 0; i < keyCount; i++) {
+            Block block = hashBlocks[i];
+            boolean isNull = block.isNull(position);
+            if (isNull != nullsByGroupId.get(offset + i)) {
+                return false;
+            }
+            if (!isNull && keysByGroupId.get(offset + i) != readKey(block, position, keySizes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int addNewGroup(int hashPosition, int position, int rawHash, Block[] hashBlocks)
+    {
+        // record group id in hash
+        int groupId = nextGroupId++;
+
+        long offset = (long) groupId * keyCount;
+        for (int i = 0; i < keyCount; i++) {
+            Block block = hashBlocks[i];
+            if (block.isNull(position)) {
+                nullsByGroupId.set(offset + i, true);
+                keysByGroupId.set(offset + i, 0);
+            }
+            else {
+                nullsByGroupId.set(offset + i, false);
+                keysByGroupId.set(offset + i, readKey(block, position, keySizes[i]));
+            }
+        }
+        rawHashByGroupId.set(groupId, rawHash);
+        groupIdsByHash[hashPosition] = groupId;
+
+        // increase capacity, if necessary
+        if (nextGroupId >= maxFill) {
+            rehash(maxFill * 2);
+        }
+        return groupId;
+    }
+
+    private void rehash(int size)
+    {
+        int newSize = arraySize(size + 1, FILL_RATIO);
+
+        int newMask = newSize - 1;
+        int[] newGroupIdsByHash = new int[newSize];
+        Arrays.fill(newGroupIdsByHash, -1);
+
+        for (int groupId = 0; groupId < nextGroupId; groupId++) {
+            // find an empty slot for the group
+            int hashPosition = getHashPosition(rawHashByGroupId.get(groupId), newMask);
+            while (newGroupIdsByHash[hashPosition] != -1) {
+                hashPosition = (hashPosition + 1) & newMask;
+            }
+            newGroupIdsByHash[hashPosition] = groupId;
+        }
+
+        mask = newMask;
+        maxFill = calculateMaxFill(newSize);
+        groupIdsByHash = newGroupIdsByHash;
+
+        keysByGroupId.ensureCapacity((long) maxFill * keyCount);
+        nullsByGroupId.ensureCapacity((long) maxFill * keyCount);
+        rawHashByGroupId.ensureCapacity(maxFill);
+    }
+
+    private Block[] extractHashColumns(Page page)
+    {
+        Block[] hashBlocks = new Block[channels.length];
+        for (int i = 0; i < channels.length; i++) {
+            hashBlocks[i] = page.getBlock(channels[i]);
+        }
+        return hashBlocks;
+    }
+
+    private static long readKey(Block block, int position, int size)
+    {
+        switch (size) {
+            case Long.BYTES:
+                return block.getLong(position, 0);
+            case Integer.BYTES:
+                return block.getInt(position, 0);
+            case Byte.BYTES:
+                return block.getByte(position, 0);
+            default:
+                throw new IllegalArgumentException("Unsupported key size: " + size);
+        }
+    }
+
+    private static void writeKey(Type type, BlockBuilder blockBuilder, long value)
+    {
+        Class<?> javaType = type.getJavaType();
+        if (javaType == long.class) {
+            type.writeLong(blockBuilder, value);
+        }
+        else if (javaType == double.class) {
+            type.writeDouble(blockBuilder, Double.longBitsToDouble(value));
+        }
+        else if (javaType == boolean.class) {
+            type.writeBoolean(blockBuilder, value != 0);
+        }
+        else {
+            throw new IllegalArgumentException("Unsupported type: " + type);
+        }
+    }
+
+    private static int getHashPosition(int rawHash, int mask)
+    {
+        return murmurHash3(rawHash) & mask;
+    }
+
+    private static int calculateMaxFill(int hashSize)
+    {
+        checkArgument(hashSize > 0, "hashSize must greater than 0");
+        int maxFill = (int) Math.ceil(hashSize * FILL_RATIO);
+        if (maxFill == hashSize) {
+            maxFill--;
+        }
+        checkArgument(hashSize > maxFill, "hashSize must be larger than maxFill");
+        return maxFill;
+    }
+}
@@ -29,6 +29,9 @@ public interface GroupByHash
         if (hashTypes.size() == 1 && hashTypes.get(0).equals(BIGINT) && hashChannels.length == 1) {
             return new BigintGroupByHash(hashChannels[0], maskChannel, inputHashChannel.isPresent(), expectedSize);
         }
+        if (hashTypes.stream().allMatch(FixedWidthGroupByHash::isSupportedType)) {
+            return new FixedWidthGroupByHash(hashTypes, hashChannels, maskChannel, inputHashChannel, expectedSize);
+        }
         return new MultiChannelGroupByHash(hashTypes, hashChannels, maskChannel, inputHashChannel, expectedSize);
     }
 
@@ -40,6 +43,12 @@ public interface GroupByHash
 
     void appendValuesTo(int groupId, PageBuilder pageBuilder, int outputChannelOffset);
 
+    /**
+     * Returns the hash of the group keys for the specified group. Groups with
+     * equal keys always have the same raw hash.
+     */
+    long getRawHash(int groupId);
+
     void addPage(Page page);
 
     GroupByIdBlock getGroupIds(Page page);
@@ -17,13 +17,19 @@ import com.facebook.presto.operator.aggregation.AccumulatorFactory;
 import com.facebook.presto.operator.aggregation.GroupedAccumulator;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.sql.planner.plan.AggregationNode.Step;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
 import com.google.common.primitives.Ints;
 import io.airlift.units.DataSize;
+import it.unimi.dsi.fastutil.ints.AbstractIntComparator;
+import it.unimi.dsi.fastutil.ints.IntArrays;
 
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -31,6 +37,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
+import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -39,6 +46,9 @@ import static com.google.common.base.Preconditions.checkState;
 public class HashAggregationOperator
         implements Operator
 {
+    // a partial aggregation that keeps more groups than this fraction of its input is not worth the hash table
+    private static final double PASS_THROUGH_GROUP_RATIO = 0.8;
+
     public static class HashAggregationOperatorFactory
             implements OperatorFactory
     {
@@ -54,6 +64,8 @@ public class HashAggregationOperator
         private final List<Type> types;
         private boolean closed;
         private final long maxPartialMemory;
+        private final Optional<SpillerFactory> spillerFactory;
+        private final boolean adaptivePartialAggregation;
 
         public HashAggregationOperatorFactory(
                 int operatorId,
@@ -65,6 +77,37 @@ public class HashAggregationOperator
                 Optional<Integer> hashChannel,
                 int expectedGroups,
                 DataSize maxPartialMemory)
+        {
+            this(operatorId, groupByTypes, groupByChannels, step, accumulatorFactories, maskChannel, hashChannel, expectedGroups, maxPartialMemory, Optional.empty());
+        }
+
+        public HashAggregationOperatorFactory(
+                int operatorId,
+                List<? extends Type> groupByTypes,
+                List<Integer> groupByChannels,
+                Step step,
+                List<AccumulatorFactory> accumulatorFactories,
+                Optional<Integer> maskChannel,
+                Optional<Integer> hashChannel,
+                int expectedGroups,
+                DataSize maxPartialMemory,
+                Optional<SpillerFactory> spillerFactory)
+        {
+            this(operatorId, groupByTypes, groupByChannels, step, accumulatorFactories, maskChannel, hashChannel, expectedGroups, maxPartialMemory, spillerFactory, false);
+        }
+
+        public HashAggregationOperatorFactory(
+                int operatorId,
+                List<? extends Type> groupByTypes,
+                List<Integer> groupByChannels,
+                Step step,
+                List<AccumulatorFactory> accumulatorFactories,
+                Optional<Integer> maskChannel,
+                Optional<Integer> hashChannel,
+                int expectedGroups,
+                DataSize maxPartialMemory,
+                Optional<SpillerFactory> spillerFactory,
+                boolean adaptivePartialAggregation)
         {
             this.operatorId = operatorId;
             this.maskChannel = checkNotNull(maskChannel, "maskChannel is null");
@@ -75,6 +118,8 @@ public class HashAggregationOperator
             this.accumulatorFactories = ImmutableList.copyOf(accumulatorFactories);
             this.expectedGroups = expectedGroups;
             this.maxPartialMemory = checkNotNull(maxPartialMemory, "maxPartialMemory is null").toBytes();
+            this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
+            this.adaptivePartialAggregation = adaptivePartialAggregation;
 
             this.types = toTypes(groupByTypes, step, accumulatorFactories, hashChannel);
         }
@@ -105,7 +150,10 @@ public class HashAggregationOperator
                     accumulatorFactories,
                     maskChannel,
                     hashChannel,
-                    expectedGroups);
+                    expectedGroups,
+                    // partial aggregations flush instead of spilling
+                    step == Step.PARTIAL ? Optional.empty() : spillerFactory,
+                    adaptivePartialAggregation);
             return hashAggregationOperator;
         }
 
@@ -124,13 +172,23 @@ public class HashAggregationOperator
     private final Optional<Integer> maskChannel;
     private final Optional<Integer> hashChannel;
     private final int expectedGroups;
+    private final Optional<SpillerFactory> spillerFactory;
+    private final boolean adaptivePartialAggregation;
 
     private final List<Type> types;
 
     private GroupByHashAggregationBuilder aggregationBuilder;
     private Iterator<Page> outputIterator;
+    private Optional<SortedRunSpiller> spiller = Optional.empty();
+    private List<Type> spillTypes;
+    private boolean spillsMerged;
     private boolean finishing;
 
+    private boolean passThrough;
+    private volatile long aggregatedPositions;
+    private volatile long flushedGroups;
+    private volatile long passThroughPositions;
+
     public HashAggregationOperator(
             OperatorContext operatorContext,
             List<Type> groupByTypes,
@@ -140,6 +198,35 @@ public class HashAggregationOperator
             Optional<Integer> maskChannel,
             Optional<Integer> hashChannel,
             int expectedGroups)
+    {
+        this(operatorContext, groupByTypes, groupByChannels, step, accumulatorFactories, maskChannel, hashChannel, expectedGroups, Optional.empty());
+    }
+
+    public HashAggregationOperator(
+            OperatorContext operatorContext,
+            List<Type> groupByTypes,
+            List<Integer> groupByChannels,
+            Step step,
+            List<AccumulatorFactory> accumulatorFactories,
+            Optional<Integer> maskChannel,
+            Optional<Integer> hashChannel,
+            int expectedGroups,
+            Optional<SpillerFactory> spillerFactory)
+    {
+        this(operatorContext, groupByTypes, groupByChannels, step, accumulatorFactories, maskChannel, hashChannel, expectedGroups, spillerFactory, false);
+    }
+
+    public HashAggregationOperator(
+            OperatorContext operatorContext,
+            List<Type> groupByTypes,
+            List<Integer> groupByChannels,
+            Step step,
+            List<AccumulatorFactory> accumulatorFactories,
+            Optional<Integer> maskChannel,
+            Optional<Integer> hashChannel,
+            int expectedGroups,
+            Optional<SpillerFactory> spillerFactory,
+            boolean adaptivePartialAggregation)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
         checkNotNull(step, "step is null");
@@ -153,7 +240,15 @@ public class HashAggregationOperator
         this.hashChannel = checkNotNull(hashChannel, "hashChannel is null");
         this.step = step;
         this.expectedGroups = expectedGroups;
+        this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
+        checkArgument(step != Step.PARTIAL || !spillerFactory.isPresent(), "partial aggregation can not spill");
+        // masked rows must be dropped by the hash table, so they can not be passed through
+        this.adaptivePartialAggregation = adaptivePartialAggregation && step == Step.PARTIAL && !maskChannel.isPresent();
         this.types = toTypes(groupByTypes, step, accumulatorFactories, hashChannel);
+
+        if (step == Step.PARTIAL) {
+            operatorContext.setInfoSupplier(this::getPartialAggregationInfo);
+        }
     }
 
     @Override
@@ -177,7 +272,7 @@ public class HashAggregationOperator
     @Override
     public boolean isFinished()
     {
-        return finishing && aggregationBuilder == null && (outputIterator == null || !outputIterator.hasNext());
+        return finishing && aggregationBuilder == null && (outputIterator == null || !outputIterator.hasNext()) && (!spiller.isPresent() || spillsMerged);
     }
 
     @Override
@@ -191,16 +286,21 @@ public class HashAggregationOperator
     {
         checkState(!finishing, "Operator is already finishing");
         checkNotNull(page, "page is null");
+        if (passThrough) {
+            outputIterator = Iterators.singletonIterator(toIntermediatePage(page));
+            passThroughPositions += page.getPositionCount();
+            return;
+        }
         if (aggregationBuilder == null) {
             aggregationBuilder = new GroupByHashAggregationBuilder(
-                    accumulatorFactories,
-                    step,
+                    toAggregators(accumulatorFactories, step),
                     expectedGroups,
                     groupByTypes,
                     groupByChannels,
                     maskChannel,
                     hashChannel,
-                    operatorContext);
+                    operatorContext,
+                    step == Step.PARTIAL || spillerFactory.isPresent());
 
             // assume initial aggregationBuilder is not full
         }
@@ -208,6 +308,7 @@ public class HashAggregationOperator
             checkState(!aggregationBuilder.isFull(), "Aggregation buffer is full");
         }
         aggregationBuilder.processPage(page);
+        aggregatedPositions += page.getPositionCount();
     }
 
     @Override
@@ -217,20 +318,47 @@ public class HashAggregationOperator
             // current output iterator is done
             outputIterator = null;
 
-            // no data
-            if (aggregationBuilder == null) {
-                return null;
-            }
+            if (aggregationBuilder != null) {
+                // only flush if we are finishing or the aggregation builder is full
+                if (!finishing && !aggregationBuilder.isFull()) {
+                    return null;
+                }
 
-            // only flush if we are finishing or the aggregation builder is full
-            if (!finishing && !aggregationBuilder.isFull()) {
-                return null;
+                if (spillerFactory.isPresent() && (!finishing || spiller.isPresent())) {
+                    // move the groups to disk, either to make room for more input or to merge them with the earlier runs
+                    spillAggregationBuilder();
+                }
+                else {
+                    if (adaptivePartialAggregation && !finishing) {
+                        // the builder is full, so this is a good sample of how much the aggregation reduces the input
+                        passThrough = aggregationBuilder.getGroupCount() > aggregationBuilder.getInputPositions() * PASS_THROUGH_GROUP_RATIO;
+                    }
+                    flushedGroups += aggregationBuilder.getGroupCount();
+                    outputIterator = aggregationBuilder.build();
+                    aggregationBuilder = null;
+                    if (passThrough) {
+                        operatorContext.setMemoryReservation(0);
+                    }
+                }
             }
 
-            outputIterator = aggregationBuilder.build();
-            aggregationBuilder = null;
+            if (finishing && spiller.isPresent() && !spillsMerged) {
+                Iterator<Page> mergedRuns = spiller.get().mergeRuns();
+                long readBufferSize = spiller.get().getReadBufferSizeInBytes();
+                operatorContext.setMemoryReservation(readBufferSize);
+                outputIterator = new SpilledRunsMerger(
+                        mergedRuns,
+                        spillTypes,
+                        accumulatorFactories,
+                        expectedGroups,
+                        groupByTypes,
+                        hashChannel.isPresent(),
+                        operatorContext,
+                        readBufferSize);
+                spillsMerged = true;
+            }
 
-            if (!outputIterator.hasNext()) {
+            if (outputIterator == null || !outputIterator.hasNext()) {
                 // current output iterator is done
                 outputIterator = null;
                 return null;
@@ -240,6 +368,80 @@ public class HashAggregationOperator
         return outputIterator.next();
     }
 
+    @Override
+    public void close()
+    {
+        aggregationBuilder = null;
+        outputIterator = null;
+        spiller.ifPresent(SortedRunSpiller::close);
+    }
+
+    private PartialAggregationInfo getPartialAggregationInfo()
+    {
+        return new PartialAggregationInfo(aggregatedPositions, flushedGroups, passThroughPositions, passThrough ? 1 : 0);
+    }
+
+    /**
+     * Converts the page to the output layout of the partial aggregation without grouping it,
+     * by treating every position as a group of its own.
+     */
+    private Page toIntermediatePage(Page page)
+    {
+        int positionCount = page.getPositionCount();
+        Block[] blocks = new Block[types.size()];
+        int channel = 0;
+        for (int groupByChannel : groupByChannels) {
+            blocks[channel++] = page.getBlock(groupByChannel);
+        }
+        if (hashChannel.isPresent()) {
+            blocks[channel++] = page.getBlock(hashChannel.get());
+        }
+
+        if (!accumulatorFactories.isEmpty()) {
+            BlockBuilder groupIdsBuilder = BIGINT.createFixedSizeBlockBuilder(positionCount);
+            for (int position = 0; position < positionCount; position++) {
+                BIGINT.writeLong(groupIdsBuilder, position);
+            }
+            GroupByIdBlock groupIds = new GroupByIdBlock(positionCount, groupIdsBuilder.build());
+
+            for (Aggregator aggregator : toAggregators(accumulatorFactories, step)) {
+                aggregator.processPage(groupIds, page);
+                BlockBuilder output = aggregator.getType().createBlockBuilder(new BlockBuilderStatus(), positionCount);
+                for (int groupId = 0; groupId < positionCount; groupId++) {
+                    aggregator.evaluate(groupId, output);
+                }
+                blocks[channel++] = output.build();
+            }
+        }
+        return new Page(positionCount, blocks);
+    }
+
+    private void spillAggregationBuilder()
+    {
+        if (!spiller.isPresent()) {
+            // the runs are sorted by the raw hash of the group, so they are merged on that channel
+            spillTypes = aggregationBuilder.getSpillTypes();
+            spiller = Optional.of(new SortedRunSpiller(
+                    spillerFactory.get(),
+                    spillTypes,
+                    ImmutableList.of(aggregationBuilder.getRawHashChannel()),
+                    ImmutableList.of(ASC_NULLS_LAST)));
+        }
+        spiller.get().spill(aggregationBuilder.buildHashSortedIntermediate());
+        aggregationBuilder = null;
+        operatorContext.setMemoryReservation(0);
+    }
+
+    private static List<Aggregator> toAggregators(List<AccumulatorFactory> accumulatorFactories, Step step)
+    {
+        // wrapper each function with an aggregator
+        ImmutableList.Builder<Aggregator> builder = ImmutableList.builder();
+        for (AccumulatorFactory accumulatorFactory : accumulatorFactories) {
+            builder.add(new Aggregator(accumulatorFactory, step));
+        }
+        return builder.build();
+    }
+
     private static List<Type> toTypes(List<? extends Type> groupByType, Step step, List<AccumulatorFactory> factories, Optional<Integer> hashChannel)
     {
         ImmutableList.Builder<Type> types = ImmutableList.builder();
@@ -258,34 +460,44 @@ public class HashAggregationOperator
         private final GroupByHash groupByHash;
         private final List<Aggregator> aggregators;
         private final OperatorContext operatorContext;
-        private final boolean partial;
+        private final boolean tryReserveMemory;
+        private final long readBufferSize;
+        private long inputPositions;
 
         private GroupByHashAggregationBuilder(
-                List<AccumulatorFactory> accumulatorFactories,
-                Step step,
+                List<Aggregator> aggregators,
+                int expectedGroups,
+                List<Type> groupByTypes,
+                List<Integer> groupByChannels,
+                Optional<Integer> maskChannel,
+                Optional<Integer> hashChannel,
+                OperatorContext operatorContext,
+                boolean tryReserveMemory)
+        {
+            this(aggregators, expectedGroups, groupByTypes, groupByChannels, maskChannel, hashChannel, operatorContext, tryReserveMemory, 0);
+        }
+
+        private GroupByHashAggregationBuilder(
+                List<Aggregator> aggregators,
                 int expectedGroups,
                 List<Type> groupByTypes,
                 List<Integer> groupByChannels,
                 Optional<Integer> maskChannel,
                 Optional<Integer> hashChannel,
-                OperatorContext operatorContext)
+                OperatorContext operatorContext,
+                boolean tryReserveMemory,
+                long readBufferSize)
         {
             this.groupByHash = createGroupByHash(groupByTypes, Ints.toArray(groupByChannels), maskChannel, hashChannel, expectedGroups);
+            this.aggregators = ImmutableList.copyOf(checkNotNull(aggregators, "aggregators is null"));
             this.operatorContext = operatorContext;
-            this.partial = (step == Step.PARTIAL);
-
-            // wrapper each function with an aggregator
-            ImmutableList.Builder<Aggregator> builder = ImmutableList.builder();
-            checkNotNull(accumulatorFactories, "accumulatorFactories is null");
-            for (int i = 0; i < accumulatorFactories.size(); i++) {
-                AccumulatorFactory accumulatorFactory = accumulatorFactories.get(i);
-                builder.add(new Aggregator(accumulatorFactory, step));
-            }
-            aggregators = builder.build();
+            this.tryReserveMemory = tryReserveMemory;
+            this.readBufferSize = readBufferSize;
         }
 
         private void processPage(Page page)
         {
+            inputPositions += page.getPositionCount();
             if (aggregators.isEmpty()) {
                 groupByHash.addPage(page);
                 return;
@@ -298,6 +510,16 @@ public class HashAggregationOperator
             }
         }
 
+        public long getInputPositions()
+        {
+            return inputPositions;
+        }
+
+        public int getGroupCount()
+        {
+            return groupByHash.getGroupCount();
+        }
+
         public boolean isFull()
         {
             long memorySize = groupByHash.getEstimatedSize();
@@ -308,7 +530,9 @@ public class HashAggregationOperator
             if (memorySize < 0) {
                 memorySize = 0;
             }
-            if (partial) {
+            // the buffers of the spilled runs that are read while this builder is filled
+            memorySize += readBufferSize;
+            if (tryReserveMemory) {
                 return !operatorContext.trySetMemoryReservation(memorySize);
             }
             else {
@@ -357,6 +581,228 @@ public class HashAggregationOperator
                 }
             };
         }
+
+        /**
+         * Layout is the group by channels (including the precomputed hash, if any),
+         * followed by the raw hash of the group, followed by the intermediate state
+         * of each aggregation.
+         */
+        public List<Type> getSpillTypes()
+        {
+            List<Type> types = new ArrayList<>(groupByHash.getTypes());
+            types.add(BIGINT);
+            for (Aggregator aggregator : aggregators) {
+                types.add(aggregator.getIntermediateType());
+            }
+            return types;
+        }
+
+        public int getRawHashChannel()
+        {
+            return groupByHash.getTypes().size();
+        }
+
+        public Iterator<Page> buildHashSortedIntermediate()
+        {
+            int[] groupIds = new int[groupByHash.getGroupCount()];
+            long[] rawHashes = new long[groupIds.length];
+            for (int groupId = 0; groupId < groupIds.length; groupId++) {
+                groupIds[groupId] = groupId;
+                rawHashes[groupId] = groupByHash.getRawHash(groupId);
+            }
+            IntArrays.quickSort(groupIds, new AbstractIntComparator()
+            {
+                @Override
+                public int compare(int leftGroupId, int rightGroupId)
+                {
+                    return Long.compare(rawHashes[leftGroupId], rawHashes[rightGroupId]);
+                }
+            });
+
+            final PageBuilder pageBuilder = new PageBuilder(getSpillTypes());
+            return new AbstractIterator<Page>()
+            {
+                private int index;
+
+                @Override
+                protected Page computeNext()
+                {
+                    if (index >= groupIds.length) {
+                        return endOfData();
+                    }
+
+                    pageBuilder.reset();
+
+                    int rawHashChannel = getRawHashChannel();
+                    while (!pageBuilder.isFull() && index < groupIds.length) {
+                        int groupId = groupIds[index];
+                        groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+                        BIGINT.writeLong(pageBuilder.getBlockBuilder(rawHashChannel), rawHashes[groupId]);
+
+                        pageBuilder.declarePosition();
+                        for (int i = 0; i < aggregators.size(); i++) {
+                            Aggregator aggregator = aggregators.get(i);
+                            BlockBuilder output = pageBuilder.getBlockBuilder(rawHashChannel + 1 + i);
+                            aggregator.evaluateIntermediate(groupId, output);
+                        }
+
+                        index++;
+                    }
+
+                    return pageBuilder.build();
+                }
+            };
+        }
+    }
+
+    /**
+     * Combines the runs produced by {@link GroupByHashAggregationBuilder#buildHashSortedIntermediate},
+     * merged in the order of the raw hash of the group, so all the partial states of a group
+     * arrive together, and the combined groups can be flushed whenever memory is exhausted
+     * at a hash boundary.
+     */
+    private static class SpilledRunsMerger
+            extends AbstractIterator<Page>
+    {
+        private final SpilledRunCursor cursor;
+        private final List<Type> spillTypes;
+        private final List<AccumulatorFactory> accumulatorFactories;
+        private final int expectedGroups;
+        private final List<Type> groupByTypes;
+        private final List<Integer> groupByChannels;
+        private final Optional<Integer> hashChannel;
+        private final int intermediateChannelOffset;
+        private final OperatorContext operatorContext;
+        private final long readBufferSize;
+        private final PageBuilder pageBuilder;
+
+        private GroupByHashAggregationBuilder aggregationBuilder;
+        private Iterator<Page> outputIterator;
+        private boolean hasRow;
+
+        private SpilledRunsMerger(
+                Iterator<Page> mergedRuns,
+                List<Type> spillTypes,
+                List<AccumulatorFactory> accumulatorFactories,
+                int expectedGroups,
+                List<Type> groupByTypes,
+                boolean hashChannelPresent,
+                OperatorContext operatorContext,
+                long readBufferSize)
+        {
+            this.spillTypes = ImmutableList.copyOf(checkNotNull(spillTypes, "spillTypes is null"));
+            this.accumulatorFactories = accumulatorFactories;
+            this.expectedGroups = expectedGroups;
+            this.groupByTypes = groupByTypes;
+            this.operatorContext = operatorContext;
+            this.readBufferSize = readBufferSize;
+            this.pageBuilder = new PageBuilder(spillTypes);
+
+            ImmutableList.Builder<Integer> groupByChannels = ImmutableList.builder();
+            for (int channel = 0; channel < groupByTypes.size(); channel++) {
+                groupByChannels.add(channel);
+            }
+            this.groupByChannels = groupByChannels.build();
+            this.hashChannel = hashChannelPresent ? Optional.of(groupByTypes.size()) : Optional.empty();
+
+            int rawHashChannel = groupByTypes.size() + (hashChannelPresent ? 1 : 0);
+            this.intermediateChannelOffset = rawHashChannel + 1;
+
+            this.cursor = new SpilledRunCursor(checkNotNull(mergedRuns, "mergedRuns is null"), rawHashChannel);
+            this.hasRow = cursor.advance();
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            while (true) {
+                if (outputIterator != null && outputIterator.hasNext()) {
+                    return outputIterator.next();
+                }
+                outputIterator = null;
+
+                if (!hasRow) {
+                    if (aggregationBuilder == null) {
+                        return endOfData();
+                    }
+                    outputIterator = aggregationBuilder.build();
+                    aggregationBuilder = null;
+                    continue;
+                }
+
+                if (aggregationBuilder == null) {
+                    ImmutableList.Builder<Aggregator> aggregators = ImmutableList.builder();
+                    for (int i = 0; i < accumulatorFactories.size(); i++) {
+                        aggregators.add(new Aggregator(accumulatorFactories.get(i), Step.FINAL, intermediateChannelOffset + i));
+                    }
+                    aggregationBuilder = new GroupByHashAggregationBuilder(
+                            aggregators.build(),
+                            expectedGroups,
+                            groupByTypes,
+                            groupByChannels,
+                            Optional.empty(),
+                            hashChannel,
+                            operatorContext,
+                            true,
+                            readBufferSize);
+                }
+
+                // copy rows in hash order, never ending a page in the middle of a run of equal hashes
+                pageBuilder.reset();
+                long rawHash = 0;
+                while (hasRow && (!pageBuilder.isFull() || cursor.getRawHash() == rawHash)) {
+                    rawHash = cursor.getRawHash();
+                    cursor.appendTo(pageBuilder, spillTypes);
+                    hasRow = cursor.advance();
+                }
+                aggregationBuilder.processPage(pageBuilder.build());
+
+                if (aggregationBuilder.isFull()) {
+                    outputIterator = aggregationBuilder.build();
+                    aggregationBuilder = null;
+                }
+            }
+        }
+    }
+
+    private static class SpilledRunCursor
+    {
+        private final Iterator<Page> pages;
+        private final int rawHashChannel;
+        private Page page;
+        private int position;
+
+        private SpilledRunCursor(Iterator<Page> pages, int rawHashChannel)
+        {
+            this.pages = pages;
+            this.rawHashChannel = rawHashChannel;
+        }
+
+        public boolean advance()
+        {
+            position++;
+            while (page == null || position >= page.getPositionCount()) {
+                if (!pages.hasNext()) {
+                    return false;
+                }
+                page = pages.next();
+                position = 0;
+            }
+            return true;
+        }
+
+        public long getRawHash()
+        {
+            return BIGINT.getLong(page.getBlock(rawHashChannel), position);
+        }
+
+        public void appendTo(PageBuilder pageBuilder, List<Type> types)
+        {
+            pageBuilder.declarePosition();
+            for (int channel = 0; channel < types.size(); channel++) {
+                types.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+            }
+        }
     }
 
     private static class Aggregator
@@ -366,19 +812,29 @@ public class HashAggregationOperator
         private final int intermediateChannel;
 
         private Aggregator(AccumulatorFactory accumulatorFactory, Step step)
+        {
+            this(accumulatorFactory, step, step == Step.FINAL ? getIntermediateChannel(accumulatorFactory) : -1);
+        }
+
+        private Aggregator(AccumulatorFactory accumulatorFactory, Step step, int intermediateChannel)
         {
             if (step == Step.FINAL) {
-                checkArgument(accumulatorFactory.getInputChannels().size() == 1, "expected 1 input channel for intermediate aggregation");
-                intermediateChannel = accumulatorFactory.getInputChannels().get(0);
+                checkArgument(intermediateChannel >= 0, "intermediateChannel is negative");
                 aggregation = accumulatorFactory.createGroupedIntermediateAccumulator();
             }
             else {
-                intermediateChannel = -1;
                 aggregation = accumulatorFactory.createGroupedAccumulator();
             }
+            this.intermediateChannel = intermediateChannel;
             this.step = step;
         }
 
+        private static int getIntermediateChannel(AccumulatorFactory accumulatorFactory)
+        {
+            checkArgument(accumulatorFactory.getInputChannels().size() == 1, "expected 1 input channel for intermediate aggregation");
+            return accumulatorFactory.getInputChannels().get(0);
+        }
+
         public long getEstimatedSize()
         {
             return aggregation.getEstimatedSize();
@@ -394,6 +850,11 @@ public class HashAggregationOperator
             }
         }
 
+        public Type getIntermediateType()
+        {
+            return aggregation.getIntermediateType();
+        }
+
         public void processPage(GroupByIdBlock groupIds, Page page)
         {
             if (step == Step.FINAL) {
@@ -413,5 +874,10 @@ public class HashAggregationOperator
                 aggregation.evaluateFinal(groupId, output);
             }
         }
+
+        public void evaluateIntermediate(int groupId, BlockBuilder output)
+        {
+            aggregation.evaluateIntermediate(groupId, output);
+        }
     }
 }
@@ -39,6 +39,7 @@ public class HashBuilderOperator
         private final Optional<Integer> hashChannel;
 
         private final int expectedPositions;
+        private final Optional<DynamicFilter> dynamicFilter;
         private boolean closed;
 
         public HashBuilderOperatorFactory(
@@ -47,6 +48,17 @@ public class HashBuilderOperator
                 List<Integer> hashChannels,
                 Optional<Integer> hashChannel,
                 int expectedPositions)
+        {
+            this(operatorId, types, hashChannels, hashChannel, expectedPositions, Optional.empty());
+        }
+
+        public HashBuilderOperatorFactory(
+                int operatorId,
+                List<Type> types,
+                List<Integer> hashChannels,
+                Optional<Integer> hashChannel,
+                int expectedPositions,
+                Optional<DynamicFilter> dynamicFilter)
         {
             this.operatorId = operatorId;
             this.lookupSourceSupplier = new SettableLookupSourceSupplier(checkNotNull(types, "types is null"));
@@ -56,6 +68,7 @@ public class HashBuilderOperator
             this.hashChannel = checkNotNull(hashChannel, "hashChannel is null");
 
             this.expectedPositions = expectedPositions;
+            this.dynamicFilter = checkNotNull(dynamicFilter, "dynamicFilter is null");
         }
 
         public LookupSourceSupplier getLookupSourceSupplier()
@@ -79,13 +92,18 @@ public class HashBuilderOperator
                     lookupSourceSupplier,
                     hashChannels,
                     hashChannel,
-                    expectedPositions);
+                    expectedPositions,
+                    dynamicFilter.map(filter -> filter.createCollector(lookupSourceSupplier.getTypes(), hashChannels)));
         }
 
         @Override
         public void close()
         {
+            if (closed) {
+                return;
+            }
             closed = true;
+            dynamicFilter.ifPresent(DynamicFilter::noMoreCollectors);
         }
     }
 
@@ -95,6 +113,7 @@ public class HashBuilderOperator
     private final Optional<Integer> hashChannel;
 
     private final PagesIndex pagesIndex;
+    private final Optional<DynamicFilter.Collector> dynamicFilterCollector;
 
     private boolean finished;
 
@@ -104,6 +123,17 @@ public class HashBuilderOperator
             List<Integer> hashChannels,
             Optional<Integer> hashChannel,
             int expectedPositions)
+    {
+        this(operatorContext, lookupSourceSupplier, hashChannels, hashChannel, expectedPositions, Optional.empty());
+    }
+
+    public HashBuilderOperator(
+            OperatorContext operatorContext,
+            SettableLookupSourceSupplier lookupSourceSupplier,
+            List<Integer> hashChannels,
+            Optional<Integer> hashChannel,
+            int expectedPositions,
+            Optional<DynamicFilter.Collector> dynamicFilterCollector)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
 
@@ -114,6 +144,7 @@ public class HashBuilderOperator
         this.hashChannel = checkNotNull(hashChannel, "hashChannel is null");
 
         this.pagesIndex = new PagesIndex(lookupSourceSupplier.getTypes(), expectedPositions);
+        this.dynamicFilterCollector = checkNotNull(dynamicFilterCollector, "dynamicFilterCollector is null");
     }
 
     @Override
@@ -135,6 +166,8 @@ public class HashBuilderOperator
             return;
         }
 
+        dynamicFilterCollector.ifPresent(DynamicFilter.Collector::finish);
+
         // Free memory, as the SharedLookupSource is going to take it over
         operatorContext.setMemoryReservation(0);
         lookupSourceSupplier.setLookupSource(new SharedLookupSource(pagesIndex.createLookupSource(hashChannels, hashChannel), operatorContext.getDriverContext().getPipelineContext().getTaskContext()));
@@ -159,6 +192,7 @@ public class HashBuilderOperator
         checkNotNull(page, "page is null");
         checkState(!isFinished(), "Operator is already finished");
 
+        dynamicFilterCollector.ifPresent(collector -> collector.add(page));
         pagesIndex.addPage(page);
         if (!operatorContext.trySetMemoryReservation(pagesIndex.getEstimatedSize().toBytes())) {
             pagesIndex.compact();
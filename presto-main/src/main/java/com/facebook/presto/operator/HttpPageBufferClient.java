@@ -13,6 +13,8 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.block.PageCompression;
+import com.facebook.presto.block.PagesCompressionStats;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
@@ -50,8 +52,10 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.facebook.presto.PrestoMediaTypes.PRESTO_PAGES_TYPE;
+import static com.facebook.presto.block.PagesSerde.readCompressedPages;
 import static com.facebook.presto.block.PagesSerde.readPages;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_SIZE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_COMPRESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_TOKEN;
 import static com.facebook.presto.operator.HttpPageBufferClient.PagesResponse.createClosedResponse;
@@ -102,6 +106,8 @@ public final class HttpPageBufferClient
     private final URI location;
     private final ClientCallback clientCallback;
     private final BlockEncodingSerde blockEncodingSerde;
+    private final PageCompression compression;
+    private final PagesCompressionStats compressionStats;
     private final ScheduledExecutorService executor;
 
     @GuardedBy("this")
@@ -119,6 +125,8 @@ public final class HttpPageBufferClient
     private boolean scheduled;
     @GuardedBy("this")
     private long errorDelayMillis;
+    @GuardedBy("this")
+    private DataSize requestMaxSize;
 
     private final AtomicInteger pagesReceived = new AtomicInteger();
 
@@ -147,6 +155,21 @@ public final class HttpPageBufferClient
             BlockEncodingSerde blockEncodingSerde,
             ScheduledExecutorService executor,
             Stopwatch errorStopwatch)
+    {
+        this(httpClient, maxResponseSize, minErrorDuration, location, clientCallback, blockEncodingSerde, PageCompression.NONE, new PagesCompressionStats(), executor, errorStopwatch);
+    }
+
+    public HttpPageBufferClient(
+            HttpClient httpClient,
+            DataSize maxResponseSize,
+            Duration minErrorDuration,
+            URI location,
+            ClientCallback clientCallback,
+            BlockEncodingSerde blockEncodingSerde,
+            PageCompression compression,
+            PagesCompressionStats compressionStats,
+            ScheduledExecutorService executor,
+            Stopwatch errorStopwatch)
     {
         this.httpClient = checkNotNull(httpClient, "httpClient is null");
         this.maxResponseSize = checkNotNull(maxResponseSize, "maxResponseSize is null");
@@ -154,6 +177,8 @@ public final class HttpPageBufferClient
         this.location = checkNotNull(location, "location is null");
         this.clientCallback = checkNotNull(clientCallback, "clientCallback is null");
         this.blockEncodingSerde = checkNotNull(blockEncodingSerde, "blockEncodingManager is null");
+        this.compression = checkNotNull(compression, "compression is null");
+        this.compressionStats = checkNotNull(compressionStats, "compressionStats is null");
         this.executor = checkNotNull(executor, "executor is null");
         this.errorStopwatch = checkNotNull(errorStopwatch, "errorStopwatch is null").reset();
     }
@@ -221,10 +246,22 @@ public final class HttpPageBufferClient
 
     public synchronized void scheduleRequest()
     {
+        scheduleRequest(maxResponseSize);
+    }
+
+    /**
+     * Schedules a request that may return at most {@code maxSize} bytes of pages.
+     * The size is sent to the server as the credit for this request, so a consumer
+     * with little free buffer space only receives what it can hold.
+     */
+    public synchronized void scheduleRequest(DataSize maxSize)
+    {
+        checkNotNull(maxSize, "maxSize is null");
         if (closed || (future != null) || scheduled) {
             return;
         }
         scheduled = true;
+        requestMaxSize = maxSize.toBytes() < maxResponseSize.toBytes() ? maxSize : maxResponseSize;
 
         // start before scheduling to include error delay
         errorStopwatch.start();
@@ -251,11 +288,13 @@ public final class HttpPageBufferClient
         }
 
         final URI uri = HttpUriBuilder.uriBuilderFrom(location).appendPath(String.valueOf(token)).build();
-        future = httpClient.executeAsync(
-                prepareGet()
-                        .setHeader(PRESTO_MAX_SIZE, maxResponseSize.toString())
-                        .setUri(uri).build(),
-                new PageResponseHandler(blockEncodingSerde));
+        Request.Builder request = prepareGet()
+                .setHeader(PRESTO_MAX_SIZE, requestMaxSize.toString())
+                .setUri(uri);
+        if (compression != PageCompression.NONE) {
+            request.setHeader(PRESTO_PAGE_COMPRESSION, compression.name());
+        }
+        future = httpClient.executeAsync(request.build(), new PageResponseHandler(blockEncodingSerde, compressionStats));
 
         Futures.addCallback(future, new FutureCallback<PagesResponse>()
         {
@@ -422,10 +461,17 @@ public final class HttpPageBufferClient
             implements ResponseHandler<PagesResponse, RuntimeException>
     {
         private final BlockEncodingSerde blockEncodingSerde;
+        private final PagesCompressionStats compressionStats;
 
         public PageResponseHandler(BlockEncodingSerde blockEncodingSerde)
+        {
+            this(blockEncodingSerde, new PagesCompressionStats());
+        }
+
+        public PageResponseHandler(BlockEncodingSerde blockEncodingSerde, PagesCompressionStats compressionStats)
         {
             this.blockEncodingSerde = blockEncodingSerde;
+            this.compressionStats = compressionStats;
         }
 
         @Override
@@ -461,8 +507,17 @@ public final class HttpPageBufferClient
             long token = getToken(response);
             long nextToken = getNextToken(response);
 
+            // servers that do not support the requested codec respond without the compression header
+            PageCompression compression = PageCompression.fromHeader(response.getHeader(PRESTO_PAGE_COMPRESSION));
+
             try (SliceInput input = new InputStreamSliceInput(response.getInputStream())) {
-                List<Page> pages = ImmutableList.copyOf(readPages(blockEncodingSerde, input));
+                List<Page> pages;
+                if (compression == PageCompression.NONE) {
+                    pages = ImmutableList.copyOf(readPages(blockEncodingSerde, input));
+                }
+                else {
+                    pages = ImmutableList.copyOf(readCompressedPages(blockEncodingSerde, input, compressionStats));
+                }
                 return createPagesResponse(token, nextToken, pages);
             }
             catch (IOException e) {
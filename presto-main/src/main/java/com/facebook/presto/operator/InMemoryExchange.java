@@ -14,18 +14,24 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.slice.XxHash64;
 import io.airlift.units.DataSize;
 
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static com.facebook.presto.operator.Operator.NOT_BLOCKED;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -96,10 +102,50 @@ public class InMemoryExchange
         return buffers.size();
     }
 
+    /**
+     * Creates a sink that copies every page into all buffers.
+     */
     public synchronized OperatorFactory createSinkFactory(int operatorId)
     {
         sinkFactories++;
-        return new InMemoryExchangeSinkOperatorFactory(operatorId);
+        return new InMemoryExchangeSinkOperatorFactory(operatorId, () -> this::addPage);
+    }
+
+    /**
+     * Creates a sink that sends every row to exactly one buffer, chosen by the hash of the partition channels,
+     * so all rows with the same values in the partition channels end up in the same buffer.
+     */
+    public synchronized OperatorFactory createHashPartitionedSinkFactory(int operatorId, List<Integer> partitionChannels, Optional<Integer> hashChannel)
+    {
+        checkNotNull(partitionChannels, "partitionChannels is null");
+        checkArgument(!partitionChannels.isEmpty(), "partitionChannels is empty");
+        checkNotNull(hashChannel, "hashChannel is null");
+        checkState(buffers.size() > 1, "partitioned exchange must have more than one buffer");
+
+        HashGenerator hashGenerator;
+        if (hashChannel.isPresent()) {
+            hashGenerator = new PrecomputedHashGenerator(hashChannel.get());
+        }
+        else {
+            ImmutableList.Builder<Type> partitionTypes = ImmutableList.builder();
+            for (int channel : partitionChannels) {
+                partitionTypes.add(types.get(channel));
+            }
+            hashGenerator = new InterpretedHashGenerator(partitionTypes.build(), Ints.toArray(partitionChannels));
+        }
+
+        sinkFactories++;
+        return new InMemoryExchangeSinkOperatorFactory(operatorId, () -> new HashPartitioner(hashGenerator));
+    }
+
+    /**
+     * Creates a sink that sends whole pages to the buffers in turn.
+     */
+    public synchronized OperatorFactory createRoundRobinSinkFactory(int operatorId)
+    {
+        checkState(buffers.size() > 1, "partitioned exchange must have more than one buffer");
+        sinkFactories++;
+        return new InMemoryExchangeSinkOperatorFactory(operatorId, RoundRobinPartitioner::new);
     }
 
     private synchronized void addSink()
@@ -166,6 +212,16 @@ public class InMemoryExchange
         notifyBlockedReaders();
     }
 
+    public synchronized void addPage(Page page, int bufferIndex)
+    {
+        if (finishing) {
+            return;
+        }
+        buffers.get(bufferIndex).add(new PageReference(page, 1));
+        bufferBytes += page.getSizeInBytes();
+        notifyBlockedReaders();
+    }
+
     private synchronized void notifyBlockedReaders()
     {
         if (readerFuture != null) {
@@ -245,15 +301,72 @@ public class InMemoryExchange
         }
     }
 
+    private class HashPartitioner
+            implements Consumer<Page>
+    {
+        private final HashGenerator hashGenerator;
+        private final List<PageBuilder> pageBuilders;
+
+        private HashPartitioner(HashGenerator hashGenerator)
+        {
+            this.hashGenerator = hashGenerator;
+
+            ImmutableList.Builder<PageBuilder> pageBuilders = ImmutableList.builder();
+            for (int i = 0; i < buffers.size(); i++) {
+                pageBuilders.add(new PageBuilder(types));
+            }
+            this.pageBuilders = pageBuilders.build();
+        }
+
+        @Override
+        public void accept(Page page)
+        {
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                int rawHash = hashGenerator.hashPosition(position, page);
+                // mix the bits so we don't use the same hash used to distribute between stages
+                rawHash = ((int) XxHash64.hash(Integer.reverse(rawHash))) & 0x7fff_ffff;
+
+                PageBuilder pageBuilder = pageBuilders.get(rawHash % pageBuilders.size());
+                pageBuilder.declarePosition();
+                for (int channel = 0; channel < types.size(); channel++) {
+                    types.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+                }
+            }
+
+            for (int bufferIndex = 0; bufferIndex < pageBuilders.size(); bufferIndex++) {
+                PageBuilder pageBuilder = pageBuilders.get(bufferIndex);
+                if (!pageBuilder.isEmpty()) {
+                    addPage(pageBuilder.build(), bufferIndex);
+                    pageBuilder.reset();
+                }
+            }
+        }
+    }
+
+    private class RoundRobinPartitioner
+            implements Consumer<Page>
+    {
+        private int nextBuffer;
+
+        @Override
+        public void accept(Page page)
+        {
+            addPage(page, nextBuffer);
+            nextBuffer = (nextBuffer + 1) % buffers.size();
+        }
+    }
+
     private class InMemoryExchangeSinkOperatorFactory
             implements OperatorFactory
     {
         private final int operatorId;
+        private final Supplier<Consumer<Page>> partitionerFactory;
         private boolean closed;
 
-        private InMemoryExchangeSinkOperatorFactory(int operatorId)
+        private InMemoryExchangeSinkOperatorFactory(int operatorId, Supplier<Consumer<Page>> partitionerFactory)
         {
             this.operatorId = operatorId;
+            this.partitionerFactory = partitionerFactory;
         }
 
         @Override
@@ -268,7 +381,7 @@ public class InMemoryExchange
             checkState(!closed, "Factory is already closed");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, InMemoryExchangeSinkOperator.class.getSimpleName());
             addSink();
-            return new InMemoryExchangeSinkOperator(operatorContext, InMemoryExchange.this);
+            return new InMemoryExchangeSinkOperator(operatorContext, InMemoryExchange.this, partitionerFactory.get());
         }
 
         @Override
@@ -18,6 +18,7 @@ import com.facebook.presto.spi.type.Type;
 import com.google.common.util.concurrent.ListenableFuture;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
@@ -27,12 +28,14 @@ public class InMemoryExchangeSinkOperator
 {
     private final OperatorContext operatorContext;
     private final InMemoryExchange inMemoryExchange;
+    private final Consumer<Page> partitioner;
     private boolean finished;
 
-    InMemoryExchangeSinkOperator(OperatorContext operatorContext, InMemoryExchange inMemoryExchange)
+    InMemoryExchangeSinkOperator(OperatorContext operatorContext, InMemoryExchange inMemoryExchange, Consumer<Page> partitioner)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
         this.inMemoryExchange = checkNotNull(inMemoryExchange, "inMemoryExchange is null");
+        this.partitioner = checkNotNull(partitioner, "partitioner is null");
     }
 
     @Override
@@ -86,7 +89,7 @@ public class InMemoryExchangeSinkOperator
     {
         checkNotNull(page, "page is null");
         checkState(!finished, "Already finished");
-        inMemoryExchange.addPage(page);
+        partitioner.accept(page);
         operatorContext.recordGeneratedOutput(page.getSizeInBytes(), page.getPositionCount());
     }
 
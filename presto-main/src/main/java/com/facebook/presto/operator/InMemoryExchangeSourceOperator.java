@@ -32,7 +32,7 @@ public class InMemoryExchangeSourceOperator
     {
         private final int operatorId;
         private final InMemoryExchange inMemoryExchange;
-        private final boolean broadcast;
+        private final boolean bufferPerOperator;
         private int bufferIndex;
         private boolean closed;
 
@@ -50,12 +50,18 @@ public class InMemoryExchangeSourceOperator
             return new InMemoryExchangeSourceOperatorFactory(operatorId, inMemoryExchange, true);
         }
 
-        private InMemoryExchangeSourceOperatorFactory(int operatorId, InMemoryExchange inMemoryExchange, boolean broadcast)
+        public static InMemoryExchangeSourceOperatorFactory createPartitionedDistribution(int operatorId, InMemoryExchange inMemoryExchange)
+        {
+            // each operator reads its own buffer, exactly as for a broadcast; the sinks decide which rows go to which buffer
+            return createBroadcastDistribution(operatorId, inMemoryExchange);
+        }
+
+        private InMemoryExchangeSourceOperatorFactory(int operatorId, InMemoryExchange inMemoryExchange, boolean bufferPerOperator)
         {
             this.operatorId = operatorId;
             this.inMemoryExchange = requireNonNull(inMemoryExchange, "inMemoryExchange is null");
             checkArgument(bufferIndex < inMemoryExchange.getBufferCount());
-            this.broadcast = broadcast;
+            this.bufferPerOperator = bufferPerOperator;
         }
 
         @Override
@@ -71,7 +77,7 @@ public class InMemoryExchangeSourceOperator
             checkState(bufferIndex < inMemoryExchange.getBufferCount(), "All operators already created");
             OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, InMemoryExchangeSourceOperator.class.getSimpleName());
             Operator operator = new InMemoryExchangeSourceOperator(operatorContext, inMemoryExchange, bufferIndex);
-            if (broadcast) {
+            if (bufferPerOperator) {
                 bufferIndex++;
             }
             return operator;
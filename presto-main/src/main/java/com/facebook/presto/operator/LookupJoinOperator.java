@@ -16,18 +16,25 @@ package com.facebook.presto.operator;
 import com.facebook.presto.operator.LookupJoinOperators.JoinType;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitionedSpiller;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.ListenableFuture;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.longs.LongIterator;
 
 import java.io.Closeable;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import static com.facebook.presto.operator.LookupJoinOperators.JoinType.FULL_OUTER;
 import static com.facebook.presto.operator.LookupJoinOperators.JoinType.LOOKUP_OUTER;
 import static com.facebook.presto.operator.LookupJoinOperators.JoinType.PROBE_OUTER;
 import static com.facebook.presto.util.MoreFutures.tryGetUnchecked;
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
@@ -46,8 +53,23 @@ public class LookupJoinOperator
     private final boolean lookupOnOuterSide;
     private final boolean probeOnOuterSide;
 
+    private final Optional<HashGenerator> probeHashGenerator;
+    private final Optional<SpillerFactory> spillerFactory;
+
     private LookupSource lookupSource;
     private JoinProbe probe;
+    // the lookup source the current probe was created for
+    private LookupSource probeLookupSource;
+
+    // only set if the build side spilled some of its partitions
+    private SpilledBuildPartitions spilledPartitions;
+    private PartitionedSpiller probeSpiller;
+    private long reportedSpilledBytes;
+    private Iterator<Integer> unprocessedSpilledPartitions;
+    // the spilled partition being joined, its lookup source is shared with the other probe operators
+    private int spilledPartition = -1;
+    private LookupSource spilledPartitionLookupSource;
+    private Iterator<Page> spilledProbePages;
 
     private boolean closed;
     private boolean finishing;
@@ -61,6 +83,18 @@ public class LookupJoinOperator
             List<Type> probeTypes,
             JoinType joinType,
             JoinProbeFactory joinProbeFactory)
+    {
+        this(operatorContext, lookupSourceSupplier, probeTypes, joinType, joinProbeFactory, Optional.empty(), Optional.empty());
+    }
+
+    public LookupJoinOperator(
+            OperatorContext operatorContext,
+            LookupSourceSupplier lookupSourceSupplier,
+            List<Type> probeTypes,
+            JoinType joinType,
+            JoinProbeFactory joinProbeFactory,
+            Optional<HashGenerator> probeHashGenerator,
+            Optional<SpillerFactory> spillerFactory)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
 
@@ -76,6 +110,11 @@ public class LookupJoinOperator
         probeOnOuterSide = joinType == PROBE_OUTER || joinType == FULL_OUTER;
         lookupOnOuterSide = joinType == LOOKUP_OUTER || joinType == FULL_OUTER;
 
+        this.probeHashGenerator = checkNotNull(probeHashGenerator, "probeHashGenerator is null");
+        this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
+        checkArgument(!spillerFactory.isPresent() || probeHashGenerator.isPresent(), "spilling requires a probe hash generator");
+        checkArgument(!spillerFactory.isPresent() || !lookupOnOuterSide, "spilling is not supported for joins with an outer lookup side");
+
         this.types = ImmutableList.<Type>builder()
                 .addAll(probeTypes)
                 .addAll(lookupSourceSupplier.getTypes())
@@ -109,6 +148,7 @@ public class LookupJoinOperator
                 finishing &&
                 probe == null &&
                 pageBuilder.isEmpty() &&
+                !hasPendingSpilledProbes() &&
                 (!lookupOnOuterSide || (unvisitedJoinPositions != null && !unvisitedJoinPositions.hasNext()));
 
         // if finished drop references so memory is freed early
@@ -118,7 +158,9 @@ public class LookupJoinOperator
                 lookupSource = null;
             }
             probe = null;
+            probeLookupSource = null;
             pageBuilder.reset();
+            closeSpill();
         }
         return finished;
     }
@@ -136,10 +178,7 @@ public class LookupJoinOperator
             return false;
         }
 
-        if (lookupSource == null) {
-            lookupSource = tryGetUnchecked(lookupSourceFuture);
-        }
-        return lookupSource != null && probe == null;
+        return tryFetchLookupSource() && probe == null;
     }
 
     @Override
@@ -150,22 +189,186 @@ public class LookupJoinOperator
         checkState(lookupSource != null, "Lookup source has not been built yet");
         checkState(probe == null, "Current page has not been completely processed yet");
 
-        // create probe
+        if (spilledPartitions != null) {
+            // rows of spilled partitions are joined after the probe side is finished
+            page = spillProbeRows(page);
+            if (page == null) {
+                return;
+            }
+        }
+
+        createProbe(lookupSource, page);
+    }
+
+    private void createProbe(LookupSource lookupSource, Page page)
+    {
         probe = joinProbeFactory.createJoinProbe(lookupSource, page);
+        probeLookupSource = lookupSource;
 
         // initialize to invalid join position to force output code to advance the cursors
         joinPosition = -1;
     }
 
+    private boolean tryFetchLookupSource()
+    {
+        if (lookupSource != null) {
+            return true;
+        }
+
+        lookupSource = tryGetUnchecked(lookupSourceFuture);
+        if (lookupSource == null) {
+            return false;
+        }
+
+        if (spillerFactory.isPresent() && lookupSource instanceof PartitionedLookupSource) {
+            PartitionedLookupSource partitionedLookupSource = (PartitionedLookupSource) lookupSource;
+            if (!partitionedLookupSource.getSpilledPartitions().isEmpty()) {
+                spilledPartitions = partitionedLookupSource.getSpilledPartitions();
+                spilledPartitions.retain();
+                probeSpiller = new PartitionedSpiller(probeTypes, spillerFactory.get(), partitionedLookupSource.getPartitionCount());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Spills the rows of the page that belong to spilled build partitions.
+     *
+     * @return the remaining rows, or null if all rows were spilled
+     */
+    private Page spillProbeRows(Page page)
+    {
+        PartitionedLookupSource partitionedLookupSource = (PartitionedLookupSource) lookupSource;
+        HashGenerator hashGenerator = probeHashGenerator.get();
+
+        IntArrayList inMemoryPositions = new IntArrayList(page.getPositionCount());
+        IntArrayList[] spilledPositions = new IntArrayList[partitionedLookupSource.getPartitionCount()];
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            int partition = partitionedLookupSource.getPartition(hashGenerator.hashPosition(position, page));
+            if (spilledPartitions.isSpilled(partition)) {
+                if (spilledPositions[partition] == null) {
+                    spilledPositions[partition] = new IntArrayList();
+                }
+                spilledPositions[partition].add(position);
+            }
+            else {
+                inMemoryPositions.add(position);
+            }
+        }
+
+        for (int partition = 0; partition < spilledPositions.length; partition++) {
+            if (spilledPositions[partition] != null) {
+                probeSpiller.append(partition, copyPositions(page, spilledPositions[partition]));
+            }
+        }
+        operatorContext.setMemoryReservation(probeSpiller.getBufferedBytes());
+        updateSpillStats();
+
+        if (inMemoryPositions.size() == page.getPositionCount()) {
+            return page;
+        }
+        if (inMemoryPositions.isEmpty()) {
+            return null;
+        }
+        return copyPositions(page, inMemoryPositions);
+    }
+
+    private static Page copyPositions(Page page, List<Integer> positions)
+    {
+        Block[] blocks = new Block[page.getChannelCount()];
+        for (int channel = 0; channel < blocks.length; channel++) {
+            blocks[channel] = page.getBlock(channel).copyPositions(positions);
+        }
+        return new Page(positions.size(), blocks);
+    }
+
+    private boolean hasPendingSpilledProbes()
+    {
+        if (spilledPartitions == null) {
+            return false;
+        }
+        if (unprocessedSpilledPartitions == null) {
+            return true;
+        }
+        return unprocessedSpilledPartitions.hasNext() || (spilledProbePages != null && spilledProbePages.hasNext());
+    }
+
+    /**
+     * Creates a probe for the next page of spilled probe rows, loading the matching
+     * build partition from disk when moving to the next spilled partition.
+     */
+    private void advanceSpilledProbe()
+    {
+        if (unprocessedSpilledPartitions == null) {
+            unprocessedSpilledPartitions = spilledPartitions.getPartitions().iterator();
+        }
+
+        while (spilledProbePages == null || !spilledProbePages.hasNext()) {
+            releaseSpilledPartition();
+            if (!unprocessedSpilledPartitions.hasNext()) {
+                return;
+            }
+
+            spilledPartition = unprocessedSpilledPartitions.next();
+            spilledProbePages = probeSpiller.getSpilledPages(spilledPartition);
+            operatorContext.setMemoryReservation(probeSpiller.getBufferedBytes());
+            updateSpillStats();
+            if (spilledProbePages.hasNext()) {
+                spilledPartitionLookupSource = spilledPartitions.getLookupSource(spilledPartition);
+            }
+        }
+
+        createProbe(spilledPartitionLookupSource, spilledProbePages.next());
+    }
+
+    private void releaseSpilledPartition()
+    {
+        if (spilledPartition >= 0) {
+            spilledPartitions.release(spilledPartition);
+            spilledPartition = -1;
+            spilledPartitionLookupSource = null;
+        }
+    }
+
+    private void updateSpillStats()
+    {
+        long spilledBytes = probeSpiller.getSpilledBytes();
+        operatorContext.recordSpill(spilledBytes - reportedSpilledBytes);
+        reportedSpilledBytes = spilledBytes;
+    }
+
+    private void closeSpill()
+    {
+        if (spilledPartitions == null) {
+            return;
+        }
+        releaseSpilledPartition();
+        // the shared lookup sources are freed once every probe operator has released their partitions
+        if (unprocessedSpilledPartitions == null) {
+            unprocessedSpilledPartitions = spilledPartitions.getPartitions().iterator();
+        }
+        while (unprocessedSpilledPartitions.hasNext()) {
+            spilledPartitions.release(unprocessedSpilledPartitions.next());
+        }
+        spilledProbePages = null;
+        if (probeSpiller != null) {
+            probeSpiller.close();
+            probeSpiller = null;
+            operatorContext.setMemoryReservation(0);
+        }
+    }
+
     @Override
     public Page getOutput()
     {
         // If needsInput was never called, lookupSource has not been initialized so far.
-        if (lookupSource == null) {
-            lookupSource = tryGetUnchecked(lookupSourceFuture);
-            if (lookupSource == null) {
-                return null;
-            }
+        if (!tryFetchLookupSource()) {
+            return null;
+        }
+
+        // once all probe input is consumed, join the spilled partitions one at a time
+        if (finishing && probe == null && spilledPartitions != null) {
+            advanceSpilledProbe();
         }
 
         // join probe page with the lookup source
@@ -185,7 +388,7 @@ public class LookupJoinOperator
         }
 
         // only flush full pages unless we are done
-        if (pageBuilder.isFull() || (finishing && !pageBuilder.isEmpty() && probe == null)) {
+        if (pageBuilder.isFull() || (finishing && !pageBuilder.isEmpty() && probe == null && !hasPendingSpilledProbes())) {
             Page page = pageBuilder.build();
             pageBuilder.reset();
             return page;
@@ -201,6 +404,7 @@ public class LookupJoinOperator
             lookupSource.close();
             lookupSource = null;
         }
+        closeSpill();
         // Closing the lookupSource is always safe to do, but we don't want to release the supplier multiple times, since its reference counted
         if (closed) {
             return;
@@ -219,10 +423,10 @@ public class LookupJoinOperator
             probe.appendTo(pageBuilder);
 
             // write build columns
-            lookupSource.appendTo(joinPosition, pageBuilder, probe.getChannelCount());
+            probeLookupSource.appendTo(joinPosition, pageBuilder, probe.getChannelCount());
 
             // get next join position for this row
-            joinPosition = lookupSource.getNextJoinPosition(joinPosition);
+            joinPosition = probeLookupSource.getNextJoinPosition(joinPosition);
             if (pageBuilder.isFull()) {
                 return false;
             }
@@ -251,7 +455,7 @@ public class LookupJoinOperator
 
             // write nulls into build columns
             int outputIndex = probe.getChannelCount();
-            for (int buildChannel = 0; buildChannel < lookupSource.getChannelCount(); buildChannel++) {
+            for (int buildChannel = 0; buildChannel < probeLookupSource.getChannelCount(); buildChannel++) {
                 pageBuilder.getBlockBuilder(outputIndex).appendNull();
                 outputIndex++;
             }
@@ -15,9 +15,11 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.operator.LookupJoinOperators.JoinType;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.google.common.collect.ImmutableList;
 
 import java.util.List;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkState;
 
@@ -30,6 +32,8 @@ public class LookupJoinOperatorFactory
     private final JoinType joinType;
     private final List<Type> types;
     private final JoinProbeFactory joinProbeFactory;
+    private final Optional<HashGenerator> probeHashGenerator;
+    private final Optional<SpillerFactory> spillerFactory;
     private boolean closed;
 
     public LookupJoinOperatorFactory(int operatorId,
@@ -37,6 +41,17 @@ public class LookupJoinOperatorFactory
             List<Type> probeTypes,
             JoinType joinType,
             JoinProbeFactory joinProbeFactory)
+    {
+        this(operatorId, lookupSourceSupplier, probeTypes, joinType, joinProbeFactory, Optional.empty(), Optional.empty());
+    }
+
+    public LookupJoinOperatorFactory(int operatorId,
+            LookupSourceSupplier lookupSourceSupplier,
+            List<Type> probeTypes,
+            JoinType joinType,
+            JoinProbeFactory joinProbeFactory,
+            Optional<HashGenerator> probeHashGenerator,
+            Optional<SpillerFactory> spillerFactory)
     {
         this.operatorId = operatorId;
         this.lookupSourceSupplier = lookupSourceSupplier;
@@ -44,6 +59,8 @@ public class LookupJoinOperatorFactory
         this.joinType = joinType;
 
         this.joinProbeFactory = joinProbeFactory;
+        this.probeHashGenerator = probeHashGenerator;
+        this.spillerFactory = spillerFactory;
 
         this.types = ImmutableList.<Type>builder()
                 .addAll(probeTypes)
@@ -62,7 +79,7 @@ public class LookupJoinOperatorFactory
     {
         checkState(!closed, "Factory is already closed");
         OperatorContext operatorContext = driverContext.addOperatorContext(operatorId, LookupJoinOperator.class.getSimpleName());
-        return new LookupJoinOperator(operatorContext, lookupSourceSupplier, probeTypes, joinType, joinProbeFactory);
+        return new LookupJoinOperator(operatorContext, lookupSourceSupplier, probeTypes, joinType, joinProbeFactory, probeHashGenerator, spillerFactory);
     }
 
     @Override
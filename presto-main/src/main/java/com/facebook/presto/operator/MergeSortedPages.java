@@ -0,0 +1,146 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.SortOrder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * K-way merge of page streams that are each sorted on the same channels.
+ */
+public final class MergeSortedPages
+{
+    private MergeSortedPages() {}
+
+    public static Iterator<Page> mergeSortedPages(List<Iterator<Page>> sortedRuns, List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders)
+    {
+        checkNotNull(sortedRuns, "sortedRuns is null");
+        checkNotNull(types, "types is null");
+        checkNotNull(sortChannels, "sortChannels is null");
+        checkNotNull(sortOrders, "sortOrders is null");
+        checkArgument(sortChannels.size() == sortOrders.size(), "sortChannels size (%s) doesn't match sortOrders size (%s)", sortChannels.size(), sortOrders.size());
+
+        return new MergingIterator(sortedRuns, types, sortChannels, sortOrders);
+    }
+
+    private static class MergingIterator
+            extends AbstractIterator<Page>
+    {
+        private final List<Type> types;
+        private final PriorityQueue<PageCursor> cursors;
+        private final PageBuilder pageBuilder;
+
+        private MergingIterator(List<Iterator<Page>> sortedRuns, List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders)
+        {
+            this.types = ImmutableList.copyOf(types);
+            this.pageBuilder = new PageBuilder(types);
+
+            List<Integer> channels = ImmutableList.copyOf(sortChannels);
+            List<SortOrder> orders = ImmutableList.copyOf(sortOrders);
+            Comparator<PageCursor> comparator = (left, right) -> {
+                for (int i = 0; i < channels.size(); i++) {
+                    int channel = channels.get(i);
+                    int comparison = orders.get(i).compareBlockValue(
+                            this.types.get(channel),
+                            left.getPage().getBlock(channel),
+                            left.getPosition(),
+                            right.getPage().getBlock(channel),
+                            right.getPosition());
+                    if (comparison != 0) {
+                        return comparison;
+                    }
+                }
+                return 0;
+            };
+            this.cursors = new PriorityQueue<>(Math.max(1, sortedRuns.size()), comparator);
+
+            for (Iterator<Page> sortedRun : sortedRuns) {
+                PageCursor cursor = new PageCursor(sortedRun);
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        protected Page computeNext()
+        {
+            if (cursors.isEmpty()) {
+                return endOfData();
+            }
+
+            pageBuilder.reset();
+            while (!pageBuilder.isFull() && !cursors.isEmpty()) {
+                PageCursor cursor = cursors.poll();
+
+                pageBuilder.declarePosition();
+                for (int channel = 0; channel < types.size(); channel++) {
+                    types.get(channel).appendTo(cursor.getPage().getBlock(channel), cursor.getPosition(), pageBuilder.getBlockBuilder(channel));
+                }
+
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+            return pageBuilder.build();
+        }
+    }
+
+    private static class PageCursor
+    {
+        private final Iterator<Page> pages;
+        private Page page;
+        private int position;
+
+        private PageCursor(Iterator<Page> pages)
+        {
+            this.pages = pages;
+        }
+
+        public Page getPage()
+        {
+            return page;
+        }
+
+        public int getPosition()
+        {
+            return position;
+        }
+
+        public boolean advance()
+        {
+            position++;
+            while (page == null || position >= page.getPositionCount()) {
+                if (!pages.hasNext()) {
+                    return false;
+                }
+                page = pages.next();
+                position = 0;
+            }
+            return true;
+        }
+    }
+}
@@ -17,6 +17,7 @@ import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.DictionaryBlock;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.util.array.LongBigArray;
@@ -24,10 +25,13 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
+import javax.annotation.Nullable;
+
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
+import static com.facebook.presto.block.BlockUtils.getDictionaryBlock;
 import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
 import static com.facebook.presto.operator.SyntheticAddress.encodeSyntheticAddress;
@@ -148,6 +152,12 @@ public class MultiChannelGroupByHash
         hashStrategy.appendTo(blockIndex, position, pageBuilder, outputChannelOffset);
     }
 
+    @Override
+    public long getRawHash(int groupId)
+    {
+        return hashPosition(groupAddressByGroupId.get(groupId));
+    }
+
     @Override
     public void addPage(Page page)
     {
@@ -160,6 +170,7 @@ public class MultiChannelGroupByHash
 
         // get the group id for each position
         int positionCount = page.getPositionCount();
+        int[] dictionaryGroupIds = createDictionaryGroupIds(hashBlocks, positionCount);
         for (int position = 0; position < positionCount; position++) {
             // skip masked rows
             if (maskBlock != null && !BOOLEAN.getBoolean(maskBlock, position)) {
@@ -167,7 +178,7 @@ public class MultiChannelGroupByHash
             }
 
             // get the group for the current row
-            putIfAbsent(position, page, hashBlocks);
+            putIfAbsent(position, page, hashBlocks, dictionaryGroupIds);
         }
     }
 
@@ -186,6 +197,7 @@ public class MultiChannelGroupByHash
 
         // extract the hash columns
         Block[] hashBlocks = extractHashColumns(page);
+        int[] dictionaryGroupIds = createDictionaryGroupIds(hashBlocks, positionCount);
 
         // get the group id for each position
         for (int position = 0; position < positionCount; position++) {
@@ -196,7 +208,7 @@ public class MultiChannelGroupByHash
             }
 
             // get the group for the current row
-            int groupId = putIfAbsent(position, page, hashBlocks);
+            int groupId = putIfAbsent(position, page, hashBlocks, dictionaryGroupIds);
 
             // output the group id for this row
             BIGINT.writeLong(blockBuilder, groupId);
@@ -256,6 +268,44 @@ public class MultiChannelGroupByHash
         return groupId;
     }
 
+    private int putIfAbsent(int position, Page page, Block[] hashBlocks, @Nullable int[] dictionaryGroupIds)
+    {
+        if (dictionaryGroupIds == null) {
+            return putIfAbsent(position, page, hashBlocks);
+        }
+
+        // rows with the same dictionary id belong to the same group, so only the first one is hashed
+        int dictionaryId = ((DictionaryBlock) hashBlocks[0]).getId(position);
+        int groupId = dictionaryGroupIds[dictionaryId];
+        if (groupId < 0) {
+            groupId = putIfAbsent(position, page, hashBlocks);
+            dictionaryGroupIds[dictionaryId] = groupId;
+        }
+        return groupId;
+    }
+
+    /**
+     * When grouping on a single dictionary encoded column, returns an array for caching
+     * the group id of each dictionary entry, or null if the page should be grouped row by row.
+     * The hash block is replaced by its dictionary form.
+     */
+    @Nullable
+    private static int[] createDictionaryGroupIds(Block[] hashBlocks, int positionCount)
+    {
+        if (hashBlocks.length != 1) {
+            return null;
+        }
+        DictionaryBlock dictionaryBlock = getDictionaryBlock(hashBlocks[0]);
+        if (dictionaryBlock == null || dictionaryBlock.getDictionary().getPositionCount() > positionCount) {
+            return null;
+        }
+        hashBlocks[0] = dictionaryBlock;
+
+        int[] dictionaryGroupIds = new int[dictionaryBlock.getDictionary().getPositionCount()];
+        Arrays.fill(dictionaryGroupIds, -1);
+        return dictionaryGroupIds;
+    }
+
     private int addNewGroup(int hashPosition, int position, Page page, int rawHash)
     {
         // add the row to the open page
@@ -80,6 +80,8 @@ public class OperatorContext
     private final AtomicLong memoryReservation = new AtomicLong();
     private final long maxMemoryReservation;
 
+    private final CounterStat spilledDataSize = new CounterStat();
+
     private final AtomicReference<Supplier<Object>> infoSupplier = new AtomicReference<>();
     private final boolean collectTimings;
 
@@ -339,6 +341,11 @@ public class OperatorContext
         return outputPositions;
     }
 
+    public void recordSpill(long sizeInBytes)
+    {
+        spilledDataSize.update(sizeInBytes);
+    }
+
     public OperatorStats getOperatorStats()
     {
         Supplier<Object> infoSupplier = this.infoSupplier.get();
@@ -373,6 +380,7 @@ public class OperatorContext
                 new Duration(finishUserNanos.get(), NANOSECONDS).convertToMostSuccinctTimeUnit(),
 
                 new DataSize(memoryReservation.get(), BYTE).convertToMostSuccinctDataSize(),
+                new DataSize(spilledDataSize.getTotalCount(), BYTE).convertToMostSuccinctDataSize(),
                 memoryFuture.get().isDone() ? Optional.empty() : Optional.of(WAITING_FOR_MEMORY),
                 info);
     }
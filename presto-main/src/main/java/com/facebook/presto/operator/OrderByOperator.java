@@ -15,15 +15,21 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.google.common.collect.ImmutableList;
 import com.google.common.primitives.Ints;
+import io.airlift.units.DataSize;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.units.DataSize.Unit.BYTE;
 
 public class OrderByOperator
         implements Operator
@@ -38,6 +44,8 @@ public class OrderByOperator
         private final List<Integer> sortChannels;
         private final List<SortOrder> sortOrder;
         private final List<Type> types;
+        private final Optional<SpillerFactory> spillerFactory;
+        private final DataSize memoryLimitBeforeSpill;
         private boolean closed;
 
         public OrderByOperatorFactory(
@@ -47,6 +55,19 @@ public class OrderByOperator
                 int expectedPositions,
                 List<Integer> sortChannels,
                 List<SortOrder> sortOrder)
+        {
+            this(operatorId, sourceTypes, outputChannels, expectedPositions, sortChannels, sortOrder, Optional.empty(), new DataSize(0, BYTE));
+        }
+
+        public OrderByOperatorFactory(
+                int operatorId,
+                List<? extends Type> sourceTypes,
+                List<Integer> outputChannels,
+                int expectedPositions,
+                List<Integer> sortChannels,
+                List<SortOrder> sortOrder,
+                Optional<SpillerFactory> spillerFactory,
+                DataSize memoryLimitBeforeSpill)
         {
             this.operatorId = operatorId;
             this.sourceTypes = ImmutableList.copyOf(checkNotNull(sourceTypes, "sourceTypes is null"));
@@ -54,6 +75,8 @@ public class OrderByOperator
             this.expectedPositions = expectedPositions;
             this.sortChannels = ImmutableList.copyOf(checkNotNull(sortChannels, "sortChannels is null"));
             this.sortOrder = ImmutableList.copyOf(checkNotNull(sortOrder, "sortOrder is null"));
+            this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
+            this.memoryLimitBeforeSpill = checkNotNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null");
 
             this.types = toTypes(sourceTypes, outputChannels);
         }
@@ -76,7 +99,9 @@ public class OrderByOperator
                     outputChannels,
                     expectedPositions,
                     sortChannels,
-                    sortOrder);
+                    sortOrder,
+                    spillerFactory,
+                    memoryLimitBeforeSpill);
         }
 
         @Override
@@ -94,6 +119,7 @@ public class OrderByOperator
     }
 
     private final OperatorContext operatorContext;
+    private final List<Type> sourceTypes;
     private final List<Integer> sortChannels;
     private final List<SortOrder> sortOrder;
     private final int[] outputChannels;
@@ -104,6 +130,11 @@ public class OrderByOperator
     private final PageBuilder pageBuilder;
     private int currentPosition;
 
+    private final Optional<SpillerFactory> spillerFactory;
+    private final long memoryLimitBeforeSpill;
+    private Optional<SortedRunSpiller> spiller = Optional.empty();
+    private Iterator<Page> mergedPages;
+
     private State state = State.NEEDS_INPUT;
 
     public OrderByOperator(
@@ -113,8 +144,22 @@ public class OrderByOperator
             int expectedPositions,
             List<Integer> sortChannels,
             List<SortOrder> sortOrder)
+    {
+        this(operatorContext, sourceTypes, outputChannels, expectedPositions, sortChannels, sortOrder, Optional.empty(), new DataSize(0, BYTE));
+    }
+
+    public OrderByOperator(
+            OperatorContext operatorContext,
+            List<Type> sourceTypes,
+            List<Integer> outputChannels,
+            int expectedPositions,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrder,
+            Optional<SpillerFactory> spillerFactory,
+            DataSize memoryLimitBeforeSpill)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
+        this.sourceTypes = ImmutableList.copyOf(checkNotNull(sourceTypes, "sourceTypes is null"));
         this.outputChannels = Ints.toArray(checkNotNull(outputChannels, "outputChannels is null"));
         this.types = toTypes(sourceTypes, outputChannels);
         this.sortChannels = ImmutableList.copyOf(checkNotNull(sortChannels, "sortChannels is null"));
@@ -123,6 +168,9 @@ public class OrderByOperator
         this.pageIndex = new PagesIndex(sourceTypes, expectedPositions);
 
         this.pageBuilder = new PageBuilder(this.types);
+
+        this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
+        this.memoryLimitBeforeSpill = checkNotNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null").toBytes();
     }
 
     @Override
@@ -143,6 +191,16 @@ public class OrderByOperator
         if (state == State.NEEDS_INPUT) {
             state = State.HAS_OUTPUT;
 
+            if (spiller.isPresent()) {
+                // spill the remainder so all runs are merged uniformly
+                if (pageIndex.getPositionCount() > 0) {
+                    spillPagesIndex();
+                }
+                mergedPages = spiller.get().mergeRuns();
+                operatorContext.setMemoryReservation(spiller.get().getReadBufferSizeInBytes());
+                return;
+            }
+
             // sort the index
             pageIndex.sort(sortChannels, sortOrder);
         }
@@ -167,6 +225,24 @@ public class OrderByOperator
         checkNotNull(page, "page is null");
 
         pageIndex.addPage(page);
+
+        long memorySize = pageIndex.getEstimatedSize().toBytes();
+        if (!spillerFactory.isPresent()) {
+            operatorContext.setMemoryReservation(memorySize);
+        }
+        else if (memorySize > memoryLimitBeforeSpill || !operatorContext.trySetMemoryReservation(memorySize)) {
+            spillPagesIndex();
+        }
+    }
+
+    private void spillPagesIndex()
+    {
+        if (!spiller.isPresent()) {
+            spiller = Optional.of(new SortedRunSpiller(spillerFactory.get(), sourceTypes, sortChannels, sortOrder));
+        }
+        pageIndex.sort(sortChannels, sortOrder);
+        spiller.get().spill(pageIndex.getSortedPages());
+        pageIndex.clear();
         operatorContext.setMemoryReservation(pageIndex.getEstimatedSize().toBytes());
     }
 
@@ -177,6 +253,19 @@ public class OrderByOperator
             return null;
         }
 
+        if (mergedPages != null) {
+            if (!mergedPages.hasNext()) {
+                state = State.FINISHED;
+                return null;
+            }
+            Page page = mergedPages.next();
+            Block[] blocks = new Block[outputChannels.length];
+            for (int i = 0; i < outputChannels.length; i++) {
+                blocks[i] = page.getBlock(outputChannels[i]);
+            }
+            return new Page(page.getPositionCount(), blocks);
+        }
+
         if (currentPosition >= pageIndex.getPositionCount()) {
             state = State.FINISHED;
             return null;
@@ -196,6 +285,13 @@ public class OrderByOperator
         return page;
     }
 
+    @Override
+    public void close()
+    {
+        mergedPages = null;
+        spiller.ifPresent(SortedRunSpiller::close);
+    }
+
     private static List<Type> toTypes(List<? extends Type> sourceTypes, List<Integer> outputChannels)
     {
         ImmutableList.Builder<Type> types = ImmutableList.builder();
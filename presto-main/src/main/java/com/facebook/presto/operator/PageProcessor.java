@@ -20,4 +20,14 @@ import com.facebook.presto.spi.PageBuilder;
 public interface PageProcessor
 {
     int process(ConnectorSession session, Page page, int start, int end, PageBuilder pageBuilder);
+
+    /**
+     * Processes the whole page one column at a time, so dictionary encoded columns are output as dictionary blocks
+     * instead of being copied into a page builder. Returns null if the page must be processed with
+     * {@link #process} instead, which is decided before the filter is evaluated and without loading lazy blocks.
+     */
+    default Page processColumnarDictionary(ConnectorSession session, Page page)
+    {
+        return null;
+    }
 }
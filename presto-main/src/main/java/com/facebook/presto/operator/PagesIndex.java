@@ -21,6 +21,7 @@ import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.gen.JoinCompiler;
 import com.facebook.presto.sql.gen.OrderingCompiler;
+import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableList;
 import io.airlift.log.Logger;
 import io.airlift.slice.Slice;
@@ -29,8 +30,10 @@ import it.unimi.dsi.fastutil.Swapper;
 import it.unimi.dsi.fastutil.longs.LongArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.IntStream;
 
 import static com.facebook.presto.operator.SyntheticAddress.decodePosition;
 import static com.facebook.presto.operator.SyntheticAddress.decodeSliceIndex;
@@ -152,8 +155,6 @@ public class PagesIndex
             return;
         }
 
-        positionCount += page.getPositionCount();
-
         int pageIndex = (channels.length > 0) ? channels[0].size() : 0;
         for (int i = 0; i < channels.length; i++) {
             Block block = page.getBlock(i);
@@ -240,6 +241,31 @@ public class PagesIndex
         return position;
     }
 
+    /**
+     * Returns all channels of all positions as pages, in the current order of the index.
+     */
+    public Iterator<Page> getSortedPages()
+    {
+        return new AbstractIterator<Page>()
+        {
+            private final int[] outputChannels = IntStream.range(0, types.size()).toArray();
+            private final PageBuilder pageBuilder = new PageBuilder(types);
+            private int currentPosition;
+
+            @Override
+            protected Page computeNext()
+            {
+                if (currentPosition >= positionCount) {
+                    return endOfData();
+                }
+
+                pageBuilder.reset();
+                currentPosition = buildPage(currentPosition, outputChannels, pageBuilder);
+                return pageBuilder.build();
+            }
+        };
+    }
+
     public void appendTo(int channel, int position, BlockBuilder output)
     {
         long pageAddress = valueAddresses.getLong(position);
@@ -18,11 +18,16 @@ import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitionedSpiller;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
+import io.airlift.units.DataSize;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -33,6 +38,7 @@ import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
 import static java.util.Objects.requireNonNull;
 
@@ -44,8 +50,12 @@ public class ParallelHashBuilder
     private final int expectedPositions;
     private final List<SettableFuture<PagesIndex>> pagesIndexFutures;
     private final List<SettableFuture<SharedLookupSource>> lookupSourceFutures;
+    private final SettableFuture<SpilledBuildPartitions> spilledPartitionsFuture = SettableFuture.create();
     private final LookupSourceSupplier lookupSourceSupplier;
     private final List<Type> types;
+    private final Optional<SpillerFactory> spillerFactory;
+    private final long memoryLimitBeforeSpill;
+    private final Optional<DynamicFilter> dynamicFilter;
 
     public ParallelHashBuilder(
             List<Type> types,
@@ -53,12 +63,40 @@ public class ParallelHashBuilder
             Optional<Integer> hashChannel,
             int expectedPositions,
             int partitionCount)
+    {
+        this(types, hashChannels, hashChannel, expectedPositions, partitionCount, Optional.empty(), new DataSize(0, BYTE));
+    }
+
+    public ParallelHashBuilder(
+            List<Type> types,
+            List<Integer> hashChannels,
+            Optional<Integer> hashChannel,
+            int expectedPositions,
+            int partitionCount,
+            Optional<SpillerFactory> spillerFactory,
+            DataSize memoryLimitBeforeSpill)
+    {
+        this(types, hashChannels, hashChannel, expectedPositions, partitionCount, spillerFactory, memoryLimitBeforeSpill, Optional.empty());
+    }
+
+    public ParallelHashBuilder(
+            List<Type> types,
+            List<Integer> hashChannels,
+            Optional<Integer> hashChannel,
+            int expectedPositions,
+            int partitionCount,
+            Optional<SpillerFactory> spillerFactory,
+            DataSize memoryLimitBeforeSpill,
+            Optional<DynamicFilter> dynamicFilter)
     {
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.hashChannels = ImmutableList.copyOf(requireNonNull(hashChannels, "hashChannels is null"));
         this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
         checkArgument(expectedPositions >= 0, "expectedPositions is negative");
         this.expectedPositions = expectedPositions;
+        this.spillerFactory = requireNonNull(spillerFactory, "spillerFactory is null");
+        this.memoryLimitBeforeSpill = requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null").toBytes();
+        this.dynamicFilter = requireNonNull(dynamicFilter, "dynamicFilter is null");
 
         checkArgument(Integer.bitCount(partitionCount) == 1, "partitionCount must be a power of 2");
         ImmutableList.Builder<SettableFuture<PagesIndex>> pagesIndexFutures = ImmutableList.builder();
@@ -70,7 +108,7 @@ public class ParallelHashBuilder
         this.pagesIndexFutures = pagesIndexFutures.build();
         this.lookupSourceFutures = lookupSourceFutures.build();
 
-        lookupSourceSupplier = new ParallelLookupSourceSupplier(types, hashChannels, this.lookupSourceFutures);
+        lookupSourceSupplier = new ParallelLookupSourceSupplier(types, hashChannels, this.lookupSourceFutures, spilledPartitionsFuture);
     }
 
     public OperatorFactory getCollectOperatorFactory(int operatorId)
@@ -78,10 +116,14 @@ public class ParallelHashBuilder
         return new ParallelHashCollectOperatorFactory(
                 operatorId,
                 pagesIndexFutures,
+                spilledPartitionsFuture,
                 types,
                 hashChannels,
                 hashChannel,
-                expectedPositions);
+                expectedPositions,
+                spillerFactory,
+                memoryLimitBeforeSpill,
+                dynamicFilter);
     }
 
     public OperatorFactory getBuildOperatorFactory()
@@ -105,27 +147,39 @@ public class ParallelHashBuilder
     {
         private final int operatorId;
         private final List<SettableFuture<PagesIndex>> partitionFutures;
+        private final SettableFuture<SpilledBuildPartitions> spilledPartitionsFuture;
         private final List<Type> types;
         private final List<Integer> hashChannels;
         private final Optional<Integer> hashChannel;
 
         private final int expectedPositions;
+        private final Optional<SpillerFactory> spillerFactory;
+        private final long memoryLimitBeforeSpill;
+        private final Optional<DynamicFilter> dynamicFilter;
         private boolean closed;
 
         public ParallelHashCollectOperatorFactory(
                 int operatorId,
                 List<SettableFuture<PagesIndex>> partitionFutures,
+                SettableFuture<SpilledBuildPartitions> spilledPartitionsFuture,
                 List<Type> types,
                 List<Integer> hashChannels,
                 Optional<Integer> hashChannel,
-                int expectedPositions)
+                int expectedPositions,
+                Optional<SpillerFactory> spillerFactory,
+                long memoryLimitBeforeSpill,
+                Optional<DynamicFilter> dynamicFilter)
         {
             this.operatorId = operatorId;
             this.partitionFutures = partitionFutures;
+            this.spilledPartitionsFuture = spilledPartitionsFuture;
             this.types = types;
             this.hashChannels = hashChannels;
             this.hashChannel = hashChannel;
             this.expectedPositions = expectedPositions;
+            this.spillerFactory = spillerFactory;
+            this.memoryLimitBeforeSpill = memoryLimitBeforeSpill;
+            this.dynamicFilter = dynamicFilter;
         }
 
         @Override
@@ -142,16 +196,24 @@ public class ParallelHashBuilder
             return new ParallelHashCollectOperator(
                     operatorContext,
                     partitionFutures,
+                    spilledPartitionsFuture,
                     types,
                     hashChannels,
                     hashChannel,
-                    expectedPositions);
+                    expectedPositions,
+                    spillerFactory,
+                    memoryLimitBeforeSpill,
+                    dynamicFilter.map(filter -> filter.createCollector(types, hashChannels)));
         }
 
         @Override
         public void close()
         {
+            if (closed) {
+                return;
+            }
             closed = true;
+            dynamicFilter.ifPresent(DynamicFilter::noMoreCollectors);
         }
     }
 
@@ -160,26 +222,45 @@ public class ParallelHashBuilder
     {
         private final OperatorContext operatorContext;
         private final List<SettableFuture<PagesIndex>> partitionFutures;
+        private final SettableFuture<SpilledBuildPartitions> spilledPartitionsFuture;
 
         private final HashGenerator hashGenerator;
         private final int parallelStreamMask;
         private final PagesIndex[] partitions;
         private final List<Type> types;
+        private final List<Integer> hashChannels;
+        private final Optional<Integer> hashChannel;
+
+        private final Optional<SpillerFactory> spillerFactory;
+        private final long memoryLimitBeforeSpill;
+        private Optional<PartitionedSpiller> spiller = Optional.empty();
+        private long reportedSpilledBytes;
+        private final Optional<DynamicFilter.Collector> dynamicFilterCollector;
 
         private boolean finished;
 
         public ParallelHashCollectOperator(
                 OperatorContext operatorContext,
                 List<SettableFuture<PagesIndex>> partitionFutures,
+                SettableFuture<SpilledBuildPartitions> spilledPartitionsFuture,
                 List<Type> types,
                 List<Integer> hashChannels,
                 Optional<Integer> hashChannel,
-                int expectedPositions)
+                int expectedPositions,
+                Optional<SpillerFactory> spillerFactory,
+                long memoryLimitBeforeSpill,
+                Optional<DynamicFilter.Collector> dynamicFilterCollector)
         {
             this.operatorContext = operatorContext;
             this.partitionFutures = partitionFutures;
+            this.spilledPartitionsFuture = spilledPartitionsFuture;
 
             this.types = types;
+            this.hashChannels = hashChannels;
+            this.hashChannel = hashChannel;
+            this.spillerFactory = spillerFactory;
+            this.memoryLimitBeforeSpill = memoryLimitBeforeSpill;
+            this.dynamicFilterCollector = dynamicFilterCollector;
 
             if (hashChannel.isPresent()) {
                 this.hashGenerator = new PrecomputedHashGenerator(hashChannel.get());
@@ -218,6 +299,32 @@ public class ParallelHashBuilder
                 return;
             }
 
+            dynamicFilterCollector.ifPresent(DynamicFilter.Collector::finish);
+
+            // the spilled partitions must be published before any partition can be built
+            if (spiller.isPresent()) {
+                spiller.get().flush();
+                operatorContext.setMemoryReservation(getInMemorySize());
+                updateSpillStats();
+
+                ImmutableSet.Builder<Integer> spilledPartitions = ImmutableSet.builder();
+                for (int partition = 0; partition < partitions.length; partition++) {
+                    if (spiller.get().isSpilled(partition)) {
+                        spilledPartitions.add(partition);
+                    }
+                }
+                spilledPartitionsFuture.set(new SpilledBuildPartitions(
+                        types,
+                        hashChannels,
+                        hashChannel,
+                        spilledPartitions.build(),
+                        spiller,
+                        Optional.of(operatorContext.getDriverContext().getPipelineContext().getTaskContext())));
+            }
+            else {
+                spilledPartitionsFuture.set(SpilledBuildPartitions.noSpilledPartitions());
+            }
+
             for (int partition = 0; partition < partitions.length; partition++) {
                 partitionFutures.get(partition).set(partitions[partition]);
             }
@@ -243,6 +350,12 @@ public class ParallelHashBuilder
             checkNotNull(page, "page is null");
             checkState(!isFinished(), "Operator is already finished");
 
+            dynamicFilterCollector.ifPresent(collector -> collector.add(page));
+            if (spillerFactory.isPresent()) {
+                addInputWithSpill(page);
+                return;
+            }
+
             // build a block containing the partition id of each position
             BlockBuilder blockBuilder = BIGINT.createBlockBuilder(new BlockBuilderStatus(), page.getPositionCount());
             for (int position = 0; position < page.getPositionCount(); position++) {
@@ -263,6 +376,109 @@ public class ParallelHashBuilder
             operatorContext.recordGeneratedOutput(page.getSizeInBytes(), page.getPositionCount());
         }
 
+        private void addInputWithSpill(Page page)
+        {
+            // copy the rows of each partition, so spilling a partition actually releases its memory
+            IntArrayList[] partitionPositions = new IntArrayList[partitions.length];
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                int rawHash = hashGenerator.hashPosition(position, page);
+                int partition = murmurHash3(rawHash) & parallelStreamMask;
+                if (partitionPositions[partition] == null) {
+                    partitionPositions[partition] = new IntArrayList();
+                }
+                partitionPositions[partition].add(position);
+            }
+
+            for (int partition = 0; partition < partitions.length; partition++) {
+                IntArrayList positions = partitionPositions[partition];
+                if (positions == null) {
+                    continue;
+                }
+
+                Block[] blocks = new Block[page.getChannelCount()];
+                for (int channel = 0; channel < blocks.length; channel++) {
+                    blocks[channel] = page.getBlock(channel).copyPositions(positions);
+                }
+                Page partitionPage = new Page(positions.size(), blocks);
+
+                if (spiller.isPresent() && spiller.get().isSpilled(partition)) {
+                    spiller.get().append(partition, partitionPage);
+                }
+                else {
+                    partitions[partition].addPage(partitionPage);
+                }
+            }
+
+            long size = getInMemorySize();
+            while (size > memoryLimitBeforeSpill || !operatorContext.trySetMemoryReservation(size)) {
+                int largestPartition = getLargestInMemoryPartition();
+                if (largestPartition < 0) {
+                    break;
+                }
+                spillPartition(largestPartition);
+                size = getInMemorySize();
+            }
+            operatorContext.setMemoryReservation(size);
+            updateSpillStats();
+            operatorContext.recordGeneratedOutput(page.getSizeInBytes(), page.getPositionCount());
+        }
+
+        private long getInMemorySize()
+        {
+            long size = 0;
+            for (PagesIndex partition : partitions) {
+                size += partition.getEstimatedSize().toBytes();
+            }
+            // rows appended to spilled partitions are buffered until a page fills up
+            if (spiller.isPresent()) {
+                size += spiller.get().getBufferedBytes();
+            }
+            return size;
+        }
+
+        private int getLargestInMemoryPartition()
+        {
+            int largestPartition = -1;
+            long largestSize = 0;
+            for (int partition = 0; partition < partitions.length; partition++) {
+                PagesIndex index = partitions[partition];
+                if (index.getPositionCount() > 0 && index.getEstimatedSize().toBytes() > largestSize) {
+                    largestPartition = partition;
+                    largestSize = index.getEstimatedSize().toBytes();
+                }
+            }
+            return largestPartition;
+        }
+
+        private void spillPartition(int partition)
+        {
+            if (!spiller.isPresent()) {
+                spiller = Optional.of(new PartitionedSpiller(types, spillerFactory.get(), partitions.length));
+            }
+            spiller.get().spill(partition, partitions[partition].getSortedPages());
+            // the builder for this partition gets an empty index, the rows are joined from disk
+            partitions[partition] = new PagesIndex(types, 0);
+        }
+
+        private void updateSpillStats()
+        {
+            if (!spiller.isPresent()) {
+                return;
+            }
+            long spilledBytes = spiller.get().getSpilledBytes();
+            operatorContext.recordSpill(spilledBytes - reportedSpilledBytes);
+            reportedSpilledBytes = spilledBytes;
+        }
+
+        @Override
+        public void close()
+        {
+            // on success the spiller is owned by the SpilledBuildPartitions
+            if (!spilledPartitionsFuture.isDone()) {
+                spiller.ifPresent(PartitionedSpiller::close);
+            }
+        }
+
         @Override
         public Page getOutput()
         {
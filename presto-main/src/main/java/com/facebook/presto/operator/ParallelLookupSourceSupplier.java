@@ -24,6 +24,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.facebook.presto.util.ImmutableCollectors.toImmutableList;
 import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.requireNonNull;
 
 public final class ParallelLookupSourceSupplier
@@ -33,12 +34,23 @@ public final class ParallelLookupSourceSupplier
     private final List<Type> hashChannelTypes;
     private final ListenableFuture<LookupSource> lookupSourceFuture;
     private final List<? extends ListenableFuture<SharedLookupSource>> partitions;
+    private final ListenableFuture<SpilledBuildPartitions> spilledPartitions;
     private final AtomicInteger referenceCount = new AtomicInteger(1);
 
     public ParallelLookupSourceSupplier(List<Type> types, List<Integer> hashChannels, List<? extends ListenableFuture<SharedLookupSource>> partitions)
+    {
+        this(types, hashChannels, partitions, Futures.immediateFuture(SpilledBuildPartitions.noSpilledPartitions()));
+    }
+
+    public ParallelLookupSourceSupplier(
+            List<Type> types,
+            List<Integer> hashChannels,
+            List<? extends ListenableFuture<SharedLookupSource>> partitions,
+            ListenableFuture<SpilledBuildPartitions> spilledPartitions)
     {
         this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
         this.partitions = requireNonNull(partitions, "partitions is null");
+        this.spilledPartitions = requireNonNull(spilledPartitions, "spilledPartitions is null");
 
         hashChannelTypes = hashChannels.stream()
                 .map(types::get)
@@ -46,7 +58,9 @@ public final class ParallelLookupSourceSupplier
 
         checkArgument(Integer.bitCount(partitions.size()) == 1, "partitions must be a power of 2");
         lookupSourceFuture = Futures.transform(Futures.allAsList(partitions), (List<SharedLookupSource> input) -> {
-            return new PartitionedLookupSource(input, hashChannelTypes);
+            // spilled partitions are published before any of the partitions can be built
+            checkState(spilledPartitions.isDone(), "spilled partitions are not set");
+            return new PartitionedLookupSource(input, hashChannelTypes, Futures.getUnchecked(spilledPartitions));
         });
 
     }
@@ -89,6 +103,19 @@ public final class ParallelLookupSourceSupplier
                     }
                 });
             }
+            Futures.addCallback(spilledPartitions, new FutureCallback<SpilledBuildPartitions>() {
+                @Override
+                public void onSuccess(SpilledBuildPartitions result)
+                {
+                    result.close();
+                }
+
+                @Override
+                public void onFailure(Throwable t)
+                {
+                    // ignored
+                }
+            });
         }
     }
 }
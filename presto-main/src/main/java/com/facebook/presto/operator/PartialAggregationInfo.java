@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+
+public class PartialAggregationInfo
+        implements Mergeable<PartialAggregationInfo>
+{
+    private final long aggregatedPositions;
+    private final long flushedGroups;
+    private final long passThroughPositions;
+    private final int passThroughOperators;
+
+    @JsonCreator
+    public PartialAggregationInfo(
+            @JsonProperty("aggregatedPositions") long aggregatedPositions,
+            @JsonProperty("flushedGroups") long flushedGroups,
+            @JsonProperty("passThroughPositions") long passThroughPositions,
+            @JsonProperty("passThroughOperators") int passThroughOperators)
+    {
+        this.aggregatedPositions = aggregatedPositions;
+        this.flushedGroups = flushedGroups;
+        this.passThroughPositions = passThroughPositions;
+        this.passThroughOperators = passThroughOperators;
+    }
+
+    /**
+     * Number of input positions added to the hash table.
+     */
+    @JsonProperty
+    public long getAggregatedPositions()
+    {
+        return aggregatedPositions;
+    }
+
+    /**
+     * Number of groups produced by the hash table from {@link #getAggregatedPositions()}.
+     */
+    @JsonProperty
+    public long getFlushedGroups()
+    {
+        return flushedGroups;
+    }
+
+    /**
+     * Number of input positions emitted in intermediate form without being aggregated.
+     */
+    @JsonProperty
+    public long getPassThroughPositions()
+    {
+        return passThroughPositions;
+    }
+
+    /**
+     * Number of operators that stopped aggregating because it did not reduce the rows.
+     */
+    @JsonProperty
+    public int getPassThroughOperators()
+    {
+        return passThroughOperators;
+    }
+
+    @Override
+    public PartialAggregationInfo mergeWith(PartialAggregationInfo other)
+    {
+        return new PartialAggregationInfo(
+                aggregatedPositions + other.aggregatedPositions,
+                flushedGroups + other.flushedGroups,
+                passThroughPositions + other.passThroughPositions,
+                passThroughOperators + other.passThroughOperators);
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("aggregatedPositions", aggregatedPositions)
+                .add("flushedGroups", flushedGroups)
+                .add("passThroughPositions", passThroughPositions)
+                .add("passThroughOperators", passThroughOperators)
+                .toString();
+    }
+}
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import static it.unimi.dsi.fastutil.HashCommon.murmurHash3;
+import static java.util.Objects.requireNonNull;
 
 public class PartitionedLookupSource
         implements LookupSource
@@ -29,8 +30,14 @@ public class PartitionedLookupSource
     private final LookupSource[] lookupSources;
     private final HashGenerator hashGenerator;
     private final int partitionMask;
+    private final SpilledBuildPartitions spilledPartitions;
 
     public PartitionedLookupSource(List<? extends LookupSource> lookupSources, List<Type> hashChannelTypes)
+    {
+        this(lookupSources, hashChannelTypes, SpilledBuildPartitions.noSpilledPartitions());
+    }
+
+    public PartitionedLookupSource(List<? extends LookupSource> lookupSources, List<Type> hashChannelTypes, SpilledBuildPartitions spilledPartitions)
     {
         this.lookupSources = lookupSources.toArray(new LookupSource[lookupSources.size()]);
 
@@ -43,6 +50,27 @@ public class PartitionedLookupSource
         this.hashGenerator = new InterpretedHashGenerator(hashChannelTypes, hashChannels);
 
         this.partitionMask = lookupSources.size() - 1;
+        this.spilledPartitions = requireNonNull(spilledPartitions, "spilledPartitions is null");
+    }
+
+    /**
+     * Build side partitions that were spilled to disk. The in-memory lookup source
+     * for these partitions is empty, so probe rows hashing to them must be joined
+     * separately against {@link SpilledBuildPartitions#getLookupSource(int)}.
+     */
+    public SpilledBuildPartitions getSpilledPartitions()
+    {
+        return spilledPartitions;
+    }
+
+    public int getPartitionCount()
+    {
+        return lookupSources.length;
+    }
+
+    public int getPartition(int rawHash)
+    {
+        return murmurHash3(rawHash) & partitionMask;
     }
 
     @Override
@@ -66,7 +94,7 @@ public class PartitionedLookupSource
     @Override
     public long getJoinPosition(int position, Page page, int rawHash)
     {
-        int partition = murmurHash3(rawHash) & partitionMask;
+        int partition = getPartition(rawHash);
         LookupSource lookupSource = lookupSources[partition];
         long joinPosition = lookupSource.getJoinPosition(position, page, rawHash);
         if (joinPosition < 0) {
@@ -21,6 +21,7 @@ import com.facebook.presto.execution.SharedBuffer;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
@@ -33,6 +34,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.OptionalInt;
 
+import static com.facebook.presto.block.BlockUtils.isDictionaryEncoded;
 import static com.facebook.presto.operator.PartitionGenerator.createHashPartitionGenerator;
 import static com.facebook.presto.operator.PartitionGenerator.createRoundRobinPartitionGenerator;
 import static com.facebook.presto.sql.planner.PlanFragment.NullPartitioning.REPLICATE;
@@ -173,12 +175,16 @@ public class PartitionedOutputOperator
 
     private static class PartitionFunction
     {
+        // pages with fewer positions per partition than this are not worth splitting into separate dictionary pages
+        private static final int MIN_DICTIONARY_POSITIONS_PER_PARTITION = 64;
+
         private final SharedBuffer sharedBuffer;
         private final List<Type> sourceTypes;
         private final PartitionGenerator partitionGenerator;
         private final int partitionCount;
         private final List<PageBuilder> pageBuilders;
         private final OptionalInt nullChannel; // when present, send the position to every partition if this channel is null.
+        private final boolean copyPositionsSupported;
 
         public PartitionFunction(SharedBuffer sharedBuffer, List<Type> sourceTypes, OutputBuffers outputBuffers)
         {
@@ -228,12 +234,19 @@ public class PartitionedOutputOperator
                 pageBuilders.add(new PageBuilder(sourceTypes));
             }
             this.pageBuilders = pageBuilders.build();
+
+            // blocks of structural types do not support copying positions
+            this.copyPositionsSupported = sourceTypes.stream().allMatch(type -> type.getTypeParameters().isEmpty());
         }
 
         public ListenableFuture<?> partitionPage(Page page)
         {
             requireNonNull(page, "page is null");
 
+            if (isPartitionedByCopy(page)) {
+                return partitionPageByCopy(page);
+            }
+
             for (int position = 0; position < page.getPositionCount(); position++) {
                 if (nullChannel.isPresent() && page.getBlock(nullChannel.getAsInt()).isNull(position)) {
                     for (int i = 0; i < partitionCount; i++) {
@@ -260,6 +273,61 @@ public class PartitionedOutputOperator
             return flush(false);
         }
 
+        /**
+         * Appending dictionary encoded values to a page builder one at a time materializes them,
+         * so pages containing dictionary blocks are split by copying the positions of each partition,
+         * which keeps a compacted dictionary in every partition page.
+         */
+        private boolean isPartitionedByCopy(Page page)
+        {
+            if (!copyPositionsSupported || page.getPositionCount() < partitionCount * MIN_DICTIONARY_POSITIONS_PER_PARTITION) {
+                return false;
+            }
+            for (Block block : page.getBlocks()) {
+                if (isDictionaryEncoded(block)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private ListenableFuture<?> partitionPageByCopy(Page page)
+        {
+            List<List<Integer>> partitionPositions = new ArrayList<>(partitionCount);
+            for (int partition = 0; partition < partitionCount; partition++) {
+                partitionPositions.add(new ArrayList<>());
+            }
+
+            for (int position = 0; position < page.getPositionCount(); position++) {
+                if (nullChannel.isPresent() && page.getBlock(nullChannel.getAsInt()).isNull(position)) {
+                    for (List<Integer> positions : partitionPositions) {
+                        positions.add(position);
+                    }
+                }
+                else {
+                    partitionPositions.get(partitionGenerator.getPartitionBucket(partitionCount, position, page)).add(position);
+                }
+            }
+
+            List<ListenableFuture<?>> blockedFutures = new ArrayList<>();
+            for (int partition = 0; partition < partitionCount; partition++) {
+                List<Integer> positions = partitionPositions.get(partition);
+                if (positions.isEmpty()) {
+                    continue;
+                }
+                Block[] blocks = new Block[page.getChannelCount()];
+                for (int channel = 0; channel < blocks.length; channel++) {
+                    blocks[channel] = page.getBlock(channel).copyPositions(positions);
+                }
+                blockedFutures.add(sharedBuffer.enqueue(partition, new Page(positions.size(), blocks)));
+            }
+            ListenableFuture<?> future = Futures.allAsList(blockedFutures);
+            if (future.isDone()) {
+                return NOT_BLOCKED;
+            }
+            return future;
+        }
+
         public ListenableFuture<?> flush(boolean force)
         {
             // add all full pages to output buffer
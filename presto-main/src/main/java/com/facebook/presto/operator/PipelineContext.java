@@ -57,8 +57,11 @@ public class PipelineContext
     private final List<DriverContext> drivers = new CopyOnWriteArrayList<>();
 
     private final AtomicInteger completedDrivers = new AtomicInteger();
+    private final AtomicInteger completedPartitionedDrivers = new AtomicInteger();
 
     private final AtomicLong memoryReservation = new AtomicLong();
+    // memory reserved by the drivers in chunks, but not yet handed out to their operators
+    private final AtomicLong unusedDriverMemoryReservation = new AtomicLong();
 
     private final Distribution queuedTime = new Distribution();
     private final Distribution elapsedTime = new Distribution();
@@ -135,6 +138,9 @@ public class PipelineContext
         DriverStats driverStats = driverContext.getDriverStats();
 
         completedDrivers.getAndIncrement();
+        if (driverContext.isPartitioned()) {
+            completedPartitionedDrivers.getAndIncrement();
+        }
 
         queuedTime.add(driverStats.getQueuedTime().roundTo(NANOSECONDS));
         elapsedTime.add(driverStats.getElapsedTime().roundTo(NANOSECONDS));
@@ -222,6 +228,16 @@ public class PipelineContext
         memoryReservation.getAndAdd(-bytes);
     }
 
+    public long getUnusedDriverMemoryReservation()
+    {
+        return unusedDriverMemoryReservation.get();
+    }
+
+    public void addUnusedDriverMemoryReservation(long bytes)
+    {
+        unusedDriverMemoryReservation.getAndAdd(bytes);
+    }
+
     public void moreMemoryAvailable()
     {
         drivers.stream().forEach(DriverContext::moreMemoryAvailable);
@@ -287,6 +303,7 @@ public class PipelineContext
         int runningDrivers = 0;
         int runningPartitionedDrivers = 0;
         int completedDrivers = this.completedDrivers.get();
+        int completedPartitionedDrivers = this.completedPartitionedDrivers.get();
 
         Distribution queuedTime = new Distribution(this.queuedTime);
         Distribution elapsedTime = new Distribution(this.elapsedTime);
@@ -378,6 +395,7 @@ public class PipelineContext
                 runningDrivers,
                 runningPartitionedDrivers,
                 completedDrivers,
+                completedPartitionedDrivers,
 
                 new DataSize(memoryReservation.get(), BYTE).convertToMostSuccinctDataSize(),
 
@@ -42,6 +42,7 @@ public class PipelineStats
     private final int runningDrivers;
     private final int runningPartitionedDrivers;
     private final int completedDrivers;
+    private final int completedPartitionedDrivers;
 
     private final DataSize memoryReservation;
 
@@ -78,6 +79,7 @@ public class PipelineStats
             @JsonProperty("runningDrivers") int runningDrivers,
             @JsonProperty("runningPartitionedDrivers") int runningPartitionedDrivers,
             @JsonProperty("completedDrivers") int completedDrivers,
+            @JsonProperty("completedPartitionedDrivers") int completedPartitionedDrivers,
 
             @JsonProperty("memoryReservation") DataSize memoryReservation,
 
@@ -118,6 +120,8 @@ public class PipelineStats
         this.runningPartitionedDrivers = runningPartitionedDrivers;
         checkArgument(completedDrivers >= 0, "completedDrivers is negative");
         this.completedDrivers = completedDrivers;
+        checkArgument(completedPartitionedDrivers >= 0, "completedPartitionedDrivers is negative");
+        this.completedPartitionedDrivers = completedPartitionedDrivers;
 
         this.memoryReservation = checkNotNull(memoryReservation, "memoryReservation is null");
 
@@ -195,6 +199,12 @@ public class PipelineStats
         return completedDrivers;
     }
 
+    @JsonProperty
+    public int getCompletedPartitionedDrivers()
+    {
+        return completedPartitionedDrivers;
+    }
+
     @JsonProperty
     public DataSize getMemoryReservation()
     {
@@ -308,6 +318,7 @@ public class PipelineStats
                 runningDrivers,
                 runningPartitionedDrivers,
                 completedDrivers,
+                completedPartitionedDrivers,
                 memoryReservation,
                 queuedTime,
                 elapsedTime,
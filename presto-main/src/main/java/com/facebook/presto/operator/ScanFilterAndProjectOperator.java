@@ -16,16 +16,19 @@ package com.facebook.presto.operator;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.RecordCursor;
 import com.facebook.presto.spi.RecordPageSource;
+import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.UpdatablePageSource;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.PageSourceProvider;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
@@ -51,6 +54,7 @@ public class ScanFilterAndProjectOperator
     private final PageBuilder pageBuilder;
     private final CursorProcessor cursorProcessor;
     private final PageProcessor pageProcessor;
+    private final Optional<DynamicFilter> dynamicFilter;
     private final SettableFuture<?> blocked = SettableFuture.create();
 
     private RecordCursor cursor;
@@ -73,6 +77,19 @@ public class ScanFilterAndProjectOperator
             PageProcessor pageProcessor,
             Iterable<ColumnHandle> columns,
             Iterable<Type> types)
+    {
+        this(operatorContext, sourceId, pageSourceProvider, cursorProcessor, pageProcessor, columns, types, Optional.empty());
+    }
+
+    protected ScanFilterAndProjectOperator(
+            OperatorContext operatorContext,
+            PlanNodeId sourceId,
+            PageSourceProvider pageSourceProvider,
+            CursorProcessor cursorProcessor,
+            PageProcessor pageProcessor,
+            Iterable<ColumnHandle> columns,
+            Iterable<Type> types,
+            Optional<DynamicFilter> dynamicFilter)
     {
         this.cursorProcessor = checkNotNull(cursorProcessor, "cursorProcessor is null");
         this.pageProcessor = checkNotNull(pageProcessor, "pageProcessor is null");
@@ -81,6 +98,7 @@ public class ScanFilterAndProjectOperator
         this.pageSourceProvider = checkNotNull(pageSourceProvider, "pageSourceManager is null");
         this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
         this.columns = ImmutableList.copyOf(checkNotNull(columns, "columns is null"));
+        this.dynamicFilter = checkNotNull(dynamicFilter, "dynamicFilter is null");
 
         this.pageBuilder = new PageBuilder(getTypes());
     }
@@ -179,6 +197,10 @@ public class ScanFilterAndProjectOperator
     @Override
     public ListenableFuture<?> isBlocked()
     {
+        // wait for the build side before opening the split, so the connector can prune with the filter
+        if (!finishing && split != null && pageSource == null && cursor == null && dynamicFilter.isPresent() && !dynamicFilter.get().getTupleDomain().isDone()) {
+            return dynamicFilter.get().getTupleDomain();
+        }
         return blocked;
     }
 
@@ -212,7 +234,7 @@ public class ScanFilterAndProjectOperator
                     finishing = true;
                 }
             }
-            else {
+            else if (pageSource != null) {
                 if (currentPage == null) {
                     currentPage = pageSource.getNextPage();
 
@@ -228,6 +250,15 @@ public class ScanFilterAndProjectOperator
                     currentPosition = 0;
                 }
 
+                if (currentPage != null && currentPosition == 0 && pageBuilder.isEmpty()) {
+                    // dictionary encoded columns are passed on as dictionary blocks
+                    Page page = pageProcessor.processColumnarDictionary(operatorContext.getSession().toConnectorSession(), currentPage);
+                    if (page != null) {
+                        currentPage = null;
+                        return page.getPositionCount() > 0 ? page : null;
+                    }
+                }
+
                 if (currentPage != null) {
                     currentPosition = pageProcessor.process(operatorContext.getSession().toConnectorSession(), currentPage, currentPosition, currentPage.getPositionCount(), pageBuilder);
                     if (currentPosition == currentPage.getPositionCount()) {
@@ -251,7 +282,24 @@ public class ScanFilterAndProjectOperator
     private void createSourceIfNecessary()
     {
         if ((split != null) && (pageSource == null) && (cursor == null)) {
-            ConnectorPageSource source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns);
+            ConnectorPageSource source;
+            if (dynamicFilter.isPresent()) {
+                ListenableFuture<TupleDomain<ColumnHandle>> filter = dynamicFilter.get().getTupleDomain();
+                if (!filter.isDone()) {
+                    return;
+                }
+                TupleDomain<ColumnHandle> tupleDomain = Futures.getUnchecked(filter);
+                if (tupleDomain.isNone()) {
+                    // the build side is empty, so no probe row can match
+                    source = new FixedPageSource(ImmutableList.of());
+                }
+                else {
+                    source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns, tupleDomain);
+                }
+            }
+            else {
+                source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns);
+            }
             if (source instanceof RecordPageSource) {
                 cursor = ((RecordPageSource) source).getCursor();
             }
@@ -271,6 +319,7 @@ public class ScanFilterAndProjectOperator
         private final PageSourceProvider pageSourceProvider;
         private final List<ColumnHandle> columns;
         private final List<Type> types;
+        private final Optional<DynamicFilter> dynamicFilter;
         private boolean closed;
 
         public ScanFilterAndProjectOperatorFactory(
@@ -281,6 +330,19 @@ public class ScanFilterAndProjectOperator
                 PageProcessor pageProcessor,
                 Iterable<ColumnHandle> columns,
                 List<Type> types)
+        {
+            this(operatorId, sourceId, pageSourceProvider, cursorProcessor, pageProcessor, columns, types, Optional.empty());
+        }
+
+        public ScanFilterAndProjectOperatorFactory(
+                int operatorId,
+                PlanNodeId sourceId,
+                PageSourceProvider pageSourceProvider,
+                CursorProcessor cursorProcessor,
+                PageProcessor pageProcessor,
+                Iterable<ColumnHandle> columns,
+                List<Type> types,
+                Optional<DynamicFilter> dynamicFilter)
         {
             this.operatorId = operatorId;
             this.cursorProcessor = checkNotNull(cursorProcessor, "cursorProcessor is null");
@@ -289,6 +351,7 @@ public class ScanFilterAndProjectOperator
             this.pageSourceProvider = checkNotNull(pageSourceProvider, "pageSourceProvider is null");
             this.columns = ImmutableList.copyOf(checkNotNull(columns, "columns is null"));
             this.types = checkNotNull(types, "types is null");
+            this.dynamicFilter = checkNotNull(dynamicFilter, "dynamicFilter is null");
         }
 
         @Override
@@ -315,7 +378,8 @@ public class ScanFilterAndProjectOperator
                     cursorProcessor,
                     pageProcessor,
                     columns,
-                    types);
+                    types,
+                    dynamicFilter);
         }
 
         @Override
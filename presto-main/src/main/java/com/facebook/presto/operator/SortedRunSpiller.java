@@ -0,0 +1,133 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.SortOrder;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.Spiller;
+import com.facebook.presto.spiller.SpillerFactory;
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.facebook.presto.operator.MergeSortedPages.mergeSortedPages;
+import static com.facebook.presto.util.ImmutableCollectors.toImmutableList;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Writes sorted runs to disk and merges them back in sorted order. Every run that is read
+ * holds an open file and a read buffer, so at most maxFanIn runs are read at the same time.
+ * If more runs were written, groups of runs are first merged into longer runs on disk.
+ */
+@NotThreadSafe
+public class SortedRunSpiller
+        implements Closeable
+{
+    public static final int DEFAULT_MAX_FAN_IN = 64;
+
+    private final SpillerFactory spillerFactory;
+    private final List<Type> types;
+    private final List<Integer> sortChannels;
+    private final List<SortOrder> sortOrders;
+    private final int maxFanIn;
+
+    // each spiller holds a single run, so the runs can be read and removed independently
+    private final List<Spiller> runs = new ArrayList<>();
+    private boolean merged;
+
+    public SortedRunSpiller(SpillerFactory spillerFactory, List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders)
+    {
+        this(spillerFactory, types, sortChannels, sortOrders, DEFAULT_MAX_FAN_IN);
+    }
+
+    public SortedRunSpiller(SpillerFactory spillerFactory, List<Type> types, List<Integer> sortChannels, List<SortOrder> sortOrders, int maxFanIn)
+    {
+        this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
+        this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+        this.sortChannels = ImmutableList.copyOf(checkNotNull(sortChannels, "sortChannels is null"));
+        this.sortOrders = ImmutableList.copyOf(checkNotNull(sortOrders, "sortOrders is null"));
+        checkArgument(maxFanIn >= 2, "maxFanIn must be at least 2");
+        this.maxFanIn = maxFanIn;
+    }
+
+    /**
+     * Writes pages that are sorted on the sort channels to disk as a new run.
+     */
+    public void spill(Iterator<Page> sortedPages)
+    {
+        checkState(!merged, "Runs are already merged");
+        Spiller run = spillerFactory.create(types);
+        runs.add(run);
+        run.spill(sortedPages);
+    }
+
+    /**
+     * Returns the rows of all runs in sorted order.
+     */
+    public Iterator<Page> mergeRuns()
+    {
+        checkState(!merged, "Runs are already merged");
+        merged = true;
+
+        while (runs.size() > maxFanIn) {
+            List<Spiller> group = ImmutableList.copyOf(runs.subList(0, maxFanIn));
+            runs.subList(0, maxFanIn).clear();
+
+            Spiller mergedRun = spillerFactory.create(types);
+            runs.add(mergedRun);
+            try {
+                mergedRun.spill(merge(group));
+            }
+            finally {
+                group.forEach(Spiller::close);
+            }
+        }
+        return merge(runs);
+    }
+
+    /**
+     * Returns the memory buffered for reading the runs while they are merged.
+     */
+    public long getReadBufferSizeInBytes()
+    {
+        long size = 0;
+        for (Spiller run : runs.subList(0, Math.min(runs.size(), maxFanIn))) {
+            size += run.getReadBufferSizeInBytes();
+        }
+        return size;
+    }
+
+    private Iterator<Page> merge(List<Spiller> runs)
+    {
+        List<Iterator<Page>> sortedRuns = runs.stream()
+                .flatMap(run -> run.getSpills().stream())
+                .collect(toImmutableList());
+        return mergeSortedPages(sortedRuns, types, sortChannels, sortOrders);
+    }
+
+    @Override
+    public void close()
+    {
+        runs.forEach(Spiller::close);
+        runs.clear();
+    }
+}
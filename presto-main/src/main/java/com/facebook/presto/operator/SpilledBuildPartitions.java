@@ -0,0 +1,178 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.PartitionedSpiller;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Build side partitions of a partitioned hash join that were spilled to disk.
+ * The lookup source of a partition is built on demand, once, and shared by all
+ * probe operators of the join. Each probe operator retains the partitions before
+ * joining them and releases every partition when it is done with it; the lookup
+ * source and its memory are freed when the last probe operator releases it.
+ */
+@ThreadSafe
+public class SpilledBuildPartitions
+{
+    private final List<Type> types;
+    private final List<Integer> hashChannels;
+    private final Optional<Integer> hashChannel;
+    private final Set<Integer> partitions;
+    private final Optional<PartitionedSpiller> spiller;
+    private final Optional<TaskContext> taskContext;
+
+    @GuardedBy("this")
+    private final Map<Integer, Integer> referenceCounts = new HashMap<>();
+    @GuardedBy("this")
+    private final Map<Integer, SharedLookupSource> lookupSources = new HashMap<>();
+    @GuardedBy("this")
+    private boolean closed;
+
+    public static SpilledBuildPartitions noSpilledPartitions()
+    {
+        return new SpilledBuildPartitions(ImmutableList.of(), ImmutableList.of(), Optional.empty(), ImmutableSortedSet.of(), Optional.empty(), Optional.empty());
+    }
+
+    public SpilledBuildPartitions(
+            List<Type> types,
+            List<Integer> hashChannels,
+            Optional<Integer> hashChannel,
+            Set<Integer> partitions,
+            Optional<PartitionedSpiller> spiller,
+            Optional<TaskContext> taskContext)
+    {
+        this.types = ImmutableList.copyOf(requireNonNull(types, "types is null"));
+        this.hashChannels = ImmutableList.copyOf(requireNonNull(hashChannels, "hashChannels is null"));
+        this.hashChannel = requireNonNull(hashChannel, "hashChannel is null");
+        this.partitions = ImmutableSortedSet.copyOf(requireNonNull(partitions, "partitions is null"));
+        this.spiller = requireNonNull(spiller, "spiller is null");
+        this.taskContext = requireNonNull(taskContext, "taskContext is null");
+        checkArgument(this.partitions.isEmpty() || (spiller.isPresent() && taskContext.isPresent()), "spilled partitions require a spiller and a task context");
+    }
+
+    public boolean isEmpty()
+    {
+        return partitions.isEmpty();
+    }
+
+    public boolean isSpilled(int partition)
+    {
+        return partitions.contains(partition);
+    }
+
+    /**
+     * @return the spilled partitions in ascending order
+     */
+    public Set<Integer> getPartitions()
+    {
+        return partitions;
+    }
+
+    /**
+     * Registers a probe operator that will join the spilled partitions. The operator
+     * must {@link #release(int) release} every spilled partition exactly once.
+     */
+    public synchronized void retain()
+    {
+        checkState(!closed, "Spilled partitions are closed");
+        for (int partition : partitions) {
+            referenceCounts.merge(partition, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * Returns the lookup source of the partition, reading the partition back from disk
+     * if no other probe operator has done so yet. The lookup source is owned by this
+     * object and must not be closed by the caller.
+     */
+    public synchronized LookupSource getLookupSource(int partition)
+    {
+        checkArgument(isSpilled(partition), "partition %s is not spilled", partition);
+        checkState(!closed, "Spilled partitions are closed");
+        checkState(referenceCounts.getOrDefault(partition, 0) > 0, "partition %s is not retained", partition);
+
+        SharedLookupSource lookupSource = lookupSources.get(partition);
+        if (lookupSource == null) {
+            PagesIndex pagesIndex = new PagesIndex(types, 10_000);
+            Iterator<Page> pages = spiller.get().getSpilledPages(partition);
+            while (pages.hasNext()) {
+                pagesIndex.addPage(pages.next());
+            }
+            lookupSource = new SharedLookupSource(pagesIndex.createLookupSource(hashChannels, hashChannel), taskContext.get());
+            lookupSources.put(partition, lookupSource);
+        }
+        return lookupSource;
+    }
+
+    /**
+     * Releases the partition for one probe operator, freeing its lookup source once
+     * no probe operator needs it anymore.
+     */
+    public synchronized void release(int partition)
+    {
+        checkArgument(isSpilled(partition), "partition %s is not spilled", partition);
+        if (closed) {
+            // the lookup sources were already freed
+            return;
+        }
+        int referenceCount = referenceCounts.getOrDefault(partition, 0);
+        checkState(referenceCount > 0, "partition %s is not retained", partition);
+        if (referenceCount > 1) {
+            referenceCounts.put(partition, referenceCount - 1);
+            return;
+        }
+        referenceCounts.remove(partition);
+        freeLookupSource(partition);
+    }
+
+    private synchronized void freeLookupSource(int partition)
+    {
+        SharedLookupSource lookupSource = lookupSources.remove(partition);
+        if (lookupSource != null) {
+            lookupSource.freeMemory();
+            lookupSource.close();
+        }
+    }
+
+    public synchronized void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int partition : ImmutableList.copyOf(lookupSources.keySet())) {
+            freeLookupSource(partition);
+        }
+        referenceCounts.clear();
+        spiller.ifPresent(PartitionedSpiller::close);
+    }
+}
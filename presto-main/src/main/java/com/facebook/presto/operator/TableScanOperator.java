@@ -16,13 +16,16 @@ package com.facebook.presto.operator;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
+import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.UpdatablePageSource;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.PageSourceProvider;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 
@@ -46,6 +49,7 @@ public class TableScanOperator
         private final PageSourceProvider pageSourceProvider;
         private final List<Type> types;
         private final List<ColumnHandle> columns;
+        private final Optional<DynamicFilter> dynamicFilter;
         private boolean closed;
 
         public TableScanOperatorFactory(
@@ -54,12 +58,24 @@ public class TableScanOperator
                 PageSourceProvider pageSourceProvider,
                 List<Type> types,
                 Iterable<ColumnHandle> columns)
+        {
+            this(operatorId, sourceId, pageSourceProvider, types, columns, Optional.empty());
+        }
+
+        public TableScanOperatorFactory(
+                int operatorId,
+                PlanNodeId sourceId,
+                PageSourceProvider pageSourceProvider,
+                List<Type> types,
+                Iterable<ColumnHandle> columns,
+                Optional<DynamicFilter> dynamicFilter)
         {
             this.operatorId = operatorId;
             this.sourceId = checkNotNull(sourceId, "sourceId is null");
             this.types = checkNotNull(types, "types is null");
             this.pageSourceProvider = checkNotNull(pageSourceProvider, "pageSourceManager is null");
             this.columns = ImmutableList.copyOf(checkNotNull(columns, "columns is null"));
+            this.dynamicFilter = checkNotNull(dynamicFilter, "dynamicFilter is null");
         }
 
         @Override
@@ -84,7 +100,8 @@ public class TableScanOperator
                     sourceId,
                     pageSourceProvider,
                     types,
-                    columns);
+                    columns,
+                    dynamicFilter);
         }
 
         @Override
@@ -99,6 +116,7 @@ public class TableScanOperator
     private final PageSourceProvider pageSourceProvider;
     private final List<Type> types;
     private final List<ColumnHandle> columns;
+    private final Optional<DynamicFilter> dynamicFilter;
     private final SettableFuture<?> blocked = SettableFuture.create();
 
     private Split split;
@@ -115,12 +133,24 @@ public class TableScanOperator
             PageSourceProvider pageSourceProvider,
             List<Type> types,
             Iterable<ColumnHandle> columns)
+    {
+        this(operatorContext, planNodeId, pageSourceProvider, types, columns, Optional.empty());
+    }
+
+    public TableScanOperator(
+            OperatorContext operatorContext,
+            PlanNodeId planNodeId,
+            PageSourceProvider pageSourceProvider,
+            List<Type> types,
+            Iterable<ColumnHandle> columns,
+            Optional<DynamicFilter> dynamicFilter)
     {
         this.operatorContext = checkNotNull(operatorContext, "operatorContext is null");
         this.planNodeId = checkNotNull(planNodeId, "planNodeId is null");
         this.types = checkNotNull(types, "types is null");
         this.pageSourceProvider = checkNotNull(pageSourceProvider, "pageSourceManager is null");
         this.columns = ImmutableList.copyOf(checkNotNull(columns, "columns is null"));
+        this.dynamicFilter = checkNotNull(dynamicFilter, "dynamicFilter is null");
     }
 
     @Override
@@ -213,6 +243,10 @@ public class TableScanOperator
     @Override
     public ListenableFuture<?> isBlocked()
     {
+        // wait for the build side before opening the split, so the connector can prune with the filter
+        if (!finished && split != null && source == null && dynamicFilter.isPresent() && !dynamicFilter.get().getTupleDomain().isDone()) {
+            return dynamicFilter.get().getTupleDomain();
+        }
         return blocked;
     }
 
@@ -255,7 +289,22 @@ public class TableScanOperator
     private void createSourceIfNecessary()
     {
         if ((split != null) && (source == null)) {
-            source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns);
+            if (!dynamicFilter.isPresent()) {
+                source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns);
+                return;
+            }
+
+            ListenableFuture<TupleDomain<ColumnHandle>> filter = dynamicFilter.get().getTupleDomain();
+            if (!filter.isDone()) {
+                return;
+            }
+            TupleDomain<ColumnHandle> tupleDomain = Futures.getUnchecked(filter);
+            if (tupleDomain.isNone()) {
+                // the build side is empty, so no probe row can match
+                source = new FixedPageSource(ImmutableList.of());
+                return;
+            }
+            source = pageSourceProvider.createPageSource(operatorContext.getSession(), split, columns, tupleDomain);
         }
     }
 }
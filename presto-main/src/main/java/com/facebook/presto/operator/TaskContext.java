@@ -267,6 +267,7 @@ public class TaskContext
         int runningDrivers = 0;
         int runningPartitionedDrivers = 0;
         int completedDrivers = 0;
+        int completedPartitionedDrivers = 0;
 
         long totalScheduledTime = 0;
         long totalCpuTime = 0;
@@ -289,6 +290,7 @@ public class TaskContext
             runningDrivers += pipeline.getRunningDrivers();
             runningPartitionedDrivers += pipeline.getRunningPartitionedDrivers();
             completedDrivers += pipeline.getCompletedDrivers();
+            completedPartitionedDrivers += pipeline.getCompletedPartitionedDrivers();
 
             totalScheduledTime += pipeline.getTotalScheduledTime().roundTo(NANOSECONDS);
             totalCpuTime += pipeline.getTotalCpuTime().roundTo(NANOSECONDS);
@@ -344,6 +346,7 @@ public class TaskContext
                 runningDrivers,
                 runningPartitionedDrivers,
                 completedDrivers,
+                completedPartitionedDrivers,
                 new DataSize(memoryReservation.get(), BYTE).convertToMostSuccinctDataSize(),
                 new Duration(totalScheduledTime, NANOSECONDS).convertToMostSuccinctTimeUnit(),
                 new Duration(totalCpuTime, NANOSECONDS).convertToMostSuccinctTimeUnit(),
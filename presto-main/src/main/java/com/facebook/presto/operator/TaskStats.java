@@ -48,6 +48,7 @@ public class TaskStats
     private final int runningDrivers;
     private final int runningPartitionedDrivers;
     private final int completedDrivers;
+    private final int completedPartitionedDrivers;
 
     private final DataSize memoryReservation;
 
@@ -83,6 +84,7 @@ public class TaskStats
                 0,
                 0,
                 0,
+                0,
                 new DataSize(0, BYTE),
                 new Duration(0, MILLISECONDS),
                 new Duration(0, MILLISECONDS),
@@ -114,6 +116,7 @@ public class TaskStats
             @JsonProperty("runningDrivers") int runningDrivers,
             @JsonProperty("runningPartitionedDrivers") int runningPartitionedDrivers,
             @JsonProperty("completedDrivers") int completedDrivers,
+            @JsonProperty("completedPartitionedDrivers") int completedPartitionedDrivers,
 
             @JsonProperty("memoryReservation") DataSize memoryReservation,
 
@@ -156,6 +159,8 @@ public class TaskStats
 
         checkArgument(completedDrivers >= 0, "completedDrivers is negative");
         this.completedDrivers = completedDrivers;
+        checkArgument(completedPartitionedDrivers >= 0, "completedPartitionedDrivers is negative");
+        this.completedPartitionedDrivers = completedPartitionedDrivers;
 
         this.memoryReservation = checkNotNull(memoryReservation, "memoryReservation is null");
 
@@ -244,6 +249,12 @@ public class TaskStats
         return completedDrivers;
     }
 
+    @JsonProperty
+    public int getCompletedPartitionedDrivers()
+    {
+        return completedPartitionedDrivers;
+    }
+
     @JsonProperty
     public DataSize getMemoryReservation()
     {
@@ -355,6 +366,7 @@ public class TaskStats
                 runningDrivers,
                 runningPartitionedDrivers,
                 completedDrivers,
+                completedPartitionedDrivers,
                 memoryReservation,
                 totalScheduledTime,
                 totalCpuTime,
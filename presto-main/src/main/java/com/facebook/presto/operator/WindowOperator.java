@@ -21,11 +21,14 @@ import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.primitives.Ints;
+import io.airlift.units.DataSize;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -36,6 +39,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkPositionIndex;
 import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.collect.Iterables.concat;
+import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.Collections.nCopies;
 import static java.util.Objects.requireNonNull;
 
@@ -57,6 +61,8 @@ public class WindowOperator
         private final FrameInfo frameInfo;
         private final int expectedPositions;
         private final List<Type> types;
+        private final Optional<SpillerFactory> spillerFactory;
+        private final DataSize memoryLimitBeforeSpill;
         private boolean closed;
 
         public WindowOperatorFactory(
@@ -71,6 +77,36 @@ public class WindowOperator
                 int preSortedChannelPrefix,
                 FrameInfo frameInfo,
                 int expectedPositions)
+        {
+            this(operatorId,
+                    sourceTypes,
+                    outputChannels,
+                    windowFunctionDefinitions,
+                    partitionChannels,
+                    preGroupedChannels,
+                    sortChannels,
+                    sortOrder,
+                    preSortedChannelPrefix,
+                    frameInfo,
+                    expectedPositions,
+                    Optional.empty(),
+                    new DataSize(0, BYTE));
+        }
+
+        public WindowOperatorFactory(
+                int operatorId,
+                List<? extends Type> sourceTypes,
+                List<Integer> outputChannels,
+                List<WindowFunctionDefinition> windowFunctionDefinitions,
+                List<Integer> partitionChannels,
+                List<Integer> preGroupedChannels,
+                List<Integer> sortChannels,
+                List<SortOrder> sortOrder,
+                int preSortedChannelPrefix,
+                FrameInfo frameInfo,
+                int expectedPositions,
+                Optional<SpillerFactory> spillerFactory,
+                DataSize memoryLimitBeforeSpill)
         {
             requireNonNull(sourceTypes, "sourceTypes is null");
             requireNonNull(outputChannels, "outputChannels is null");
@@ -84,6 +120,8 @@ public class WindowOperator
             checkArgument(preSortedChannelPrefix <= sortChannels.size(), "Cannot have more pre-sorted channels than specified sorted channels");
             checkArgument(preSortedChannelPrefix == 0 || ImmutableSet.copyOf(preGroupedChannels).equals(ImmutableSet.copyOf(partitionChannels)), "preSortedChannelPrefix can only be greater than zero if all partition channels are pre-grouped");
             requireNonNull(frameInfo, "frameInfo is null");
+            requireNonNull(spillerFactory, "spillerFactory is null");
+            requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null");
 
             this.operatorId = operatorId;
             this.sourceTypes = ImmutableList.copyOf(sourceTypes);
@@ -96,6 +134,8 @@ public class WindowOperator
             this.preSortedChannelPrefix = preSortedChannelPrefix;
             this.frameInfo = frameInfo;
             this.expectedPositions = expectedPositions;
+            this.spillerFactory = spillerFactory;
+            this.memoryLimitBeforeSpill = memoryLimitBeforeSpill;
             this.types = Stream.concat(
                     outputChannels.stream()
                             .map(sourceTypes::get),
@@ -127,7 +167,9 @@ public class WindowOperator
                     sortOrder,
                     preSortedChannelPrefix,
                     frameInfo,
-                    expectedPositions);
+                    expectedPositions,
+                    spillerFactory,
+                    memoryLimitBeforeSpill);
         }
 
         @Override
@@ -146,6 +188,7 @@ public class WindowOperator
     }
 
     private final OperatorContext operatorContext;
+    private final List<Type> sourceTypes;
     private final int[] outputChannels;
     private final List<WindowFunction> windowFunctions;
     private final List<Integer> orderChannels;
@@ -153,6 +196,7 @@ public class WindowOperator
     private final List<Type> types;
 
     private final int[] preGroupedChannels;
+    private final int[] unGroupedPartitionChannels;
 
     private final PagesHashStrategy preGroupedPartitionHashStrategy;
     private final PagesHashStrategy unGroupedPartitionHashStrategy;
@@ -171,6 +215,12 @@ public class WindowOperator
 
     private Page pendingInput;
 
+    private final Optional<SpillerFactory> spillerFactory;
+    private final long memoryLimitBeforeSpill;
+    private Optional<SortedRunSpiller> spiller = Optional.empty();
+    private Iterator<Page> spilledPages;
+    private Page pendingSpilledPage;
+
     public WindowOperator(
             OperatorContext operatorContext,
             List<Type> sourceTypes,
@@ -183,6 +233,36 @@ public class WindowOperator
             int preSortedChannelPrefix,
             FrameInfo frameInfo,
             int expectedPositions)
+    {
+        this(operatorContext,
+                sourceTypes,
+                outputChannels,
+                windowFunctionDefinitions,
+                partitionChannels,
+                preGroupedChannels,
+                sortChannels,
+                sortOrder,
+                preSortedChannelPrefix,
+                frameInfo,
+                expectedPositions,
+                Optional.empty(),
+                new DataSize(0, BYTE));
+    }
+
+    public WindowOperator(
+            OperatorContext operatorContext,
+            List<Type> sourceTypes,
+            List<Integer> outputChannels,
+            List<WindowFunctionDefinition> windowFunctionDefinitions,
+            List<Integer> partitionChannels,
+            List<Integer> preGroupedChannels,
+            List<Integer> sortChannels,
+            List<SortOrder> sortOrder,
+            int preSortedChannelPrefix,
+            FrameInfo frameInfo,
+            int expectedPositions,
+            Optional<SpillerFactory> spillerFactory,
+            DataSize memoryLimitBeforeSpill)
     {
         requireNonNull(operatorContext, "operatorContext is null");
         requireNonNull(outputChannels, "outputChannels is null");
@@ -196,8 +276,11 @@ public class WindowOperator
         checkArgument(preSortedChannelPrefix <= sortChannels.size(), "Cannot have more pre-sorted channels than specified sorted channels");
         checkArgument(preSortedChannelPrefix == 0 || ImmutableSet.copyOf(preGroupedChannels).equals(ImmutableSet.copyOf(partitionChannels)), "preSortedChannelPrefix can only be greater than zero if all partition channels are pre-grouped");
         requireNonNull(frameInfo, "frameInfo is null");
+        requireNonNull(spillerFactory, "spillerFactory is null");
+        requireNonNull(memoryLimitBeforeSpill, "memoryLimitBeforeSpill is null");
 
         this.operatorContext = operatorContext;
+        this.sourceTypes = ImmutableList.copyOf(sourceTypes);
         this.outputChannels = Ints.toArray(outputChannels);
         this.windowFunctions = windowFunctionDefinitions.stream()
                 .map(WindowFunctionDefinition::createWindowFunction)
@@ -217,6 +300,7 @@ public class WindowOperator
         List<Integer> unGroupedPartitionChannels = partitionChannels.stream()
                 .filter(channel -> !preGroupedChannels.contains(channel))
                 .collect(toImmutableList());
+        this.unGroupedPartitionChannels = Ints.toArray(unGroupedPartitionChannels);
         this.unGroupedPartitionHashStrategy = pagesIndex.createPagesHashStrategy(unGroupedPartitionChannels, Optional.empty());
         List<Integer> preSortedChannels = sortChannels.stream()
                 .limit(preSortedChannelPrefix)
@@ -236,6 +320,16 @@ public class WindowOperator
             this.orderChannels = ImmutableList.copyOf(concat(unGroupedPartitionChannels, sortChannels));
             this.ordering = ImmutableList.copyOf(concat(nCopies(unGroupedPartitionChannels.size(), ASC_NULLS_LAST), sortOrder));
         }
+
+        // Pre-grouped input is already released one group at a time, and a single
+        // partition can not be split, so only fully ungrouped, partitioned input spills
+        if (preGroupedChannels.isEmpty() && !unGroupedPartitionChannels.isEmpty()) {
+            this.spillerFactory = spillerFactory;
+        }
+        else {
+            this.spillerFactory = Optional.empty();
+        }
+        this.memoryLimitBeforeSpill = memoryLimitBeforeSpill.toBytes();
     }
 
     @Override
@@ -257,8 +351,18 @@ public class WindowOperator
             return;
         }
         if (state == State.NEEDS_INPUT) {
-            // Since was waiting for more input, prepare what we have for output since we will not be getting any more input
-            sortPagesIndexIfNecessary();
+            if (spiller.isPresent()) {
+                // Spill the remainder and stream partitions back from the merged runs
+                if (pagesIndex.getPositionCount() > 0) {
+                    spillPagesIndex();
+                }
+                spilledPages = spiller.get().mergeRuns();
+                updateMemoryReservation();
+            }
+            else {
+                // Since was waiting for more input, prepare what we have for output since we will not be getting any more input
+                sortPagesIndexIfNecessary();
+            }
         }
         state = State.FINISHING;
     }
@@ -290,9 +394,67 @@ public class WindowOperator
         if (processPendingInput()) {
             state = State.HAS_OUTPUT;
         }
+
+        long memorySize = pagesIndex.getEstimatedSize().toBytes();
+        if (!spillerFactory.isPresent()) {
+            operatorContext.setMemoryReservation(memorySize);
+        }
+        else if (memorySize > memoryLimitBeforeSpill || !operatorContext.trySetMemoryReservation(memorySize)) {
+            spillPagesIndex();
+        }
+    }
+
+    private void spillPagesIndex()
+    {
+        if (!spiller.isPresent()) {
+            spiller = Optional.of(new SortedRunSpiller(spillerFactory.get(), sourceTypes, orderChannels, ordering));
+        }
+        sortPagesIndexIfNecessary();
+        spiller.get().spill(pagesIndex.getSortedPages());
+        pagesIndex.clear();
         operatorContext.setMemoryReservation(pagesIndex.getEstimatedSize().toBytes());
     }
 
+    /**
+     * Loads the next partition from the merged spilled runs into pagesIndex.
+     *
+     * @return true if a partition was loaded, false if the spilled runs are exhausted
+     */
+    private boolean loadNextSpilledPartition()
+    {
+        checkState(pagesIndex.getPositionCount() == 0, "pagesIndex must be empty");
+
+        while (true) {
+            if (pendingSpilledPage == null) {
+                if (!spilledPages.hasNext()) {
+                    break;
+                }
+                pendingSpilledPage = spilledPages.next();
+                if (pendingSpilledPage.getPositionCount() == 0) {
+                    pendingSpilledPage = null;
+                    continue;
+                }
+            }
+
+            Page page = pendingSpilledPage;
+            Page partitionPage = rearrangePage(page, unGroupedPartitionChannels);
+            if (pagesIndex.getPositionCount() > 0 && !pagesIndex.positionEqualsRow(unGroupedPartitionHashStrategy, 0, 0, partitionPage.getBlocks())) {
+                // The page starts a new partition
+                break;
+            }
+
+            int groupEnd = findGroupEnd(partitionPage, unGroupedPartitionHashStrategy, 0);
+            pagesIndex.addPage(page.getRegion(0, groupEnd));
+            if (groupEnd < page.getPositionCount()) {
+                pendingSpilledPage = page.getRegion(groupEnd, page.getPositionCount() - groupEnd);
+                break;
+            }
+            pendingSpilledPage = null;
+        }
+        // rows arrive from the merge already sorted, so the index does not need to be sorted again
+        return pagesIndex.getPositionCount() > 0;
+    }
+
     /**
      * @return true if a full group has been buffered after processing the pendingInput, false otherwise
      */
@@ -360,10 +522,20 @@ public class WindowOperator
         }
 
         Page page = extractOutput();
-        operatorContext.setMemoryReservation(pagesIndex.getEstimatedSize().toBytes());
+        updateMemoryReservation();
         return page;
     }
 
+    private void updateMemoryReservation()
+    {
+        long memorySize = pagesIndex.getEstimatedSize().toBytes();
+        if (spilledPages != null) {
+            // the read buffers of the merged runs are held until every partition is read back
+            memorySize += spiller.get().getReadBufferSizeInBytes();
+        }
+        operatorContext.setMemoryReservation(memorySize);
+    }
+
     private Page extractOutput()
     {
         // INVARIANT: pagesIndex contains the full grouped & sorted data for one or more partitions
@@ -382,6 +554,9 @@ public class WindowOperator
                     if (pendingInput != null && processPendingInput()) {
                         partitionStart = 0;
                     }
+                    else if (spilledPages != null && loadNextSpilledPartition()) {
+                        partitionStart = 0;
+                    }
                     else if (state == State.FINISHING) {
                         state = State.FINISHED;
                         // Output the remaining page if we have anything buffered
@@ -410,6 +585,14 @@ public class WindowOperator
         return page;
     }
 
+    @Override
+    public void close()
+    {
+        spilledPages = null;
+        pendingSpilledPage = null;
+        spiller.ifPresent(SortedRunSpiller::close);
+    }
+
     private void sortPagesIndexIfNecessary()
     {
         if (pagesIndex.getPositionCount() > 1 && !orderChannels.isEmpty()) {
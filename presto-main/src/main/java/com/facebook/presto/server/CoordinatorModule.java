@@ -32,6 +32,7 @@ import com.facebook.presto.execution.QueryQueueManager;
 import com.facebook.presto.execution.RenameColumnTask;
 import com.facebook.presto.execution.RenameTableTask;
 import com.facebook.presto.execution.ResetSessionTask;
+import com.facebook.presto.execution.ResourceGroupManager;
 import com.facebook.presto.execution.SetSessionTask;
 import com.facebook.presto.execution.SqlQueryManager;
 import com.facebook.presto.execution.SqlQueryQueueManager;
@@ -68,10 +69,14 @@ import com.facebook.presto.sql.tree.Use;
 import com.google.inject.Binder;
 import com.google.inject.Key;
 import com.google.inject.Module;
+import com.google.inject.Provides;
 import com.google.inject.Scopes;
 import com.google.inject.TypeLiteral;
 import com.google.inject.multibindings.MapBinder;
 
+import javax.inject.Provider;
+import javax.inject.Singleton;
+
 import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.execution.DataDefinitionExecution.DataDefinitionExecutionFactory;
@@ -105,7 +110,6 @@ public class CoordinatorModule
         jaxrsBinder(binder).bind(StageResource.class);
         binder.bind(QueryIdGenerator.class).in(Scopes.SINGLETON);
         binder.bind(QueryManager.class).to(SqlQueryManager.class).in(Scopes.SINGLETON);
-        binder.bind(QueryQueueManager.class).to(SqlQueryQueueManager.class).in(Scopes.SINGLETON);
         newExporter(binder).export(QueryManager.class).withGeneratedName();
         configBinder(binder).bindConfig(QueryManagerConfig.class);
 
@@ -167,6 +171,19 @@ public class CoordinatorModule
         jsonCodecBinder(binder).bindJsonCodec(ViewDefinition.class);
     }
 
+    @Provides
+    @Singleton
+    public static QueryQueueManager createQueryQueueManager(
+            QueryManagerConfig config,
+            Provider<SqlQueryQueueManager> queueManager,
+            Provider<ResourceGroupManager> resourceGroupManager)
+    {
+        if (config.getResourceGroupConfigFile() != null) {
+            return resourceGroupManager.get();
+        }
+        return queueManager.get();
+    }
+
     private static <T extends Statement> void bindDataDefinitionTask(
             Binder binder,
             MapBinder<Class<? extends Statement>, QueryExecutionFactory<?>> executionBinder,
@@ -29,6 +29,7 @@ import com.facebook.presto.execution.StateMachine.StateChangeListener;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.execution.TaskInfo;
 import com.facebook.presto.execution.TaskState;
+import com.facebook.presto.execution.TaskStatus;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.operator.TaskStats;
 import com.facebook.presto.spi.PrestoException;
@@ -66,6 +67,7 @@ import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
@@ -117,6 +119,7 @@ public class HttpRemoteTask
     private final AtomicLong nextSplitId = new AtomicLong();
 
     private final StateMachine<TaskInfo> taskInfo;
+    private final StateMachine<TaskStatus> taskStatus;
 
     @GuardedBy("this")
     private Future<?> currentRequest;
@@ -127,20 +130,28 @@ public class HttpRemoteTask
     private final SetMultimap<PlanNodeId, ScheduledSplit> pendingSplits = HashMultimap.create();
     @GuardedBy("this")
     private volatile int pendingSourceSplitCount;
+    // splits with a lower sequence id have been sent to the worker, and may already be running there
+    @GuardedBy("this")
+    private long firstUnsentSplitId;
     @GuardedBy("this")
     private final Set<PlanNodeId> noMoreSplits = new HashSet<>();
     @GuardedBy("this")
     private final AtomicReference<OutputBuffers> outputBuffers = new AtomicReference<>();
+    @GuardedBy("this")
+    private boolean sendPlan = true;
 
+    private final ContinuousTaskStatusFetcher continuousTaskStatusFetcher;
     private final ContinuousTaskInfoFetcher continuousTaskInfoFetcher;
 
     private final HttpClient httpClient;
     private final Executor executor;
+    private final JsonCodec<TaskStatus> taskStatusCodec;
     private final JsonCodec<TaskInfo> taskInfoCodec;
     private final JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec;
 
     private final RequestErrorTracker updateErrorTracker;
     private final RequestErrorTracker getErrorTracker;
+    private final RequestErrorTracker statusErrorTracker;
 
     private final AtomicBoolean needsUpdate = new AtomicBoolean(true);
 
@@ -156,6 +167,8 @@ public class HttpRemoteTask
             int maxConsecutiveErrorCount,
             Duration minErrorDuration,
             Duration refreshMaxWait,
+            Duration taskInfoUpdateInterval,
+            JsonCodec<TaskStatus> taskStatusCodec,
             JsonCodec<TaskInfo> taskInfoCodec,
             JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec)
     {
@@ -167,6 +180,7 @@ public class HttpRemoteTask
         checkNotNull(outputBuffers, "outputBuffers is null");
         checkNotNull(httpClient, "httpClient is null");
         checkNotNull(executor, "executor is null");
+        checkNotNull(taskStatusCodec, "taskStatusCodec is null");
         checkNotNull(taskInfoCodec, "taskInfoCodec is null");
         checkNotNull(taskUpdateRequestCodec, "taskUpdateRequestCodec is null");
 
@@ -178,17 +192,19 @@ public class HttpRemoteTask
             this.outputBuffers.set(outputBuffers);
             this.httpClient = httpClient;
             this.executor = executor;
+            this.taskStatusCodec = taskStatusCodec;
             this.taskInfoCodec = taskInfoCodec;
             this.taskUpdateRequestCodec = taskUpdateRequestCodec;
             this.updateErrorTracker = new RequestErrorTracker(taskId, location, maxConsecutiveErrorCount, minErrorDuration);
             this.getErrorTracker = new RequestErrorTracker(taskId, location, maxConsecutiveErrorCount, minErrorDuration);
+            this.statusErrorTracker = new RequestErrorTracker(taskId, location, maxConsecutiveErrorCount, minErrorDuration);
 
             for (Entry<PlanNodeId, Split> entry : checkNotNull(initialSplits, "initialSplits is null").entries()) {
                 ScheduledSplit scheduledSplit = new ScheduledSplit(nextSplitId.getAndIncrement(), entry.getValue());
                 pendingSplits.put(entry.getKey(), scheduledSplit);
             }
-            if (initialSplits.containsKey(planFragment.getPartitionedSource())) {
-                pendingSourceSplitCount = initialSplits.get(planFragment.getPartitionedSource()).size();
+            for (PlanNodeId partitionedSource : planFragment.getPartitionedSources()) {
+                pendingSourceSplitCount += initialSplits.get(partitionedSource).size();
             }
 
             List<BufferInfo> bufferStates = outputBuffers.getBuffers()
@@ -198,7 +214,7 @@ public class HttpRemoteTask
 
             TaskStats taskStats = new TaskStats(DateTime.now(), null);
 
-            taskInfo = new StateMachine<>("task " + taskId, executor, new TaskInfo(
+            TaskInfo initialTaskInfo = new TaskInfo(
                     taskId,
                     Optional.empty(),
                     TaskInfo.MIN_VERSION,
@@ -208,9 +224,14 @@ public class HttpRemoteTask
                     new SharedBufferInfo(BufferState.OPEN, true, true, 0, 0, 0, 0, bufferStates),
                     ImmutableSet.<PlanNodeId>of(),
                     taskStats,
-                    ImmutableList.<ExecutionFailureInfo>of()));
-
-            continuousTaskInfoFetcher = new ContinuousTaskInfoFetcher(refreshMaxWait);
+                    ImmutableList.<ExecutionFailureInfo>of());
+            taskInfo = new StateMachine<>("task " + taskId, executor, initialTaskInfo);
+            taskStatus = new StateMachine<>("task status " + taskId, executor, TaskStatus.fromTaskInfo(initialTaskInfo));
+
+            // state changes are tracked through the cheap task status, while the full
+            // task info (with detailed stats) is only refreshed at a slower interval
+            continuousTaskStatusFetcher = new ContinuousTaskStatusFetcher(refreshMaxWait);
+            continuousTaskInfoFetcher = new ContinuousTaskInfoFetcher(taskInfoUpdateInterval);
         }
     }
 
@@ -226,6 +247,12 @@ public class HttpRemoteTask
         return taskInfo.get();
     }
 
+    @Override
+    public TaskStatus getTaskStatus()
+    {
+        return taskStatus.get();
+    }
+
     @Override
     public void start()
     {
@@ -233,7 +260,8 @@ public class HttpRemoteTask
             // to start we just need to trigger an update
             scheduleUpdate();
 
-            // begin the info fetcher
+            // begin the status and info fetchers
+            continuousTaskStatusFetcher.start();
             continuousTaskInfoFetcher.start();
         }
     }
@@ -254,7 +282,7 @@ public class HttpRemoteTask
                         added++;
                     }
                 }
-                if (sourceId.equals(planFragment.getPartitionedSource())) {
+                if (planFragment.getPartitionedSources().contains(sourceId)) {
                     pendingSourceSplitCount += added;
                 }
                 needsUpdate.set(true);
@@ -287,18 +315,43 @@ public class HttpRemoteTask
         }
     }
 
+    @Override
+    public synchronized List<Split> reclaimPartitionedSplits(int maxSplits)
+    {
+        PlanNode partitionedSource = planFragment.getPartitionedSourceNode();
+        // the splits of a bucketed fragment must be processed by the task they were assigned to
+        if (partitionedSource == null || !planFragment.getColocatedSources().isEmpty() || noMoreSplits.contains(partitionedSource.getId()) || getTaskInfo().getState().isDone()) {
+            return ImmutableList.of();
+        }
+
+        ImmutableList.Builder<Split> reclaimed = ImmutableList.builder();
+        int removed = 0;
+        Iterator<ScheduledSplit> iterator = pendingSplits.get(partitionedSource.getId()).iterator();
+        while (removed < maxSplits && iterator.hasNext()) {
+            ScheduledSplit split = iterator.next();
+            if (split.getSequenceId() >= firstUnsentSplitId) {
+                iterator.remove();
+                reclaimed.add(split.getSplit());
+                removed++;
+            }
+        }
+        pendingSourceSplitCount -= removed;
+        return reclaimed.build();
+    }
+
     @Override
     public int getPartitionedSplitCount()
     {
         int splitCount = pendingSourceSplitCount;
-        return splitCount + taskInfo.get().getStats().getQueuedPartitionedDrivers() + taskInfo.get().getStats().getRunningPartitionedDrivers();
+        TaskStatus taskStatus = this.taskStatus.get();
+        return splitCount + taskStatus.getQueuedPartitionedDrivers() + taskStatus.getRunningPartitionedDrivers();
     }
 
     @Override
     public int getQueuedPartitionedSplitCount()
     {
         int splitCount = pendingSourceSplitCount;
-        return splitCount + taskInfo.get().getStats().getQueuedPartitionedDrivers();
+        return splitCount + taskStatus.get().getQueuedPartitionedDrivers();
     }
 
     @Override
@@ -309,12 +362,55 @@ public class HttpRemoteTask
         }
     }
 
+    @Override
+    public void addStatusChangeListener(StateChangeListener<TaskStatus> statusChangeListener)
+    {
+        try (SetThreadName ignored = new SetThreadName("HttpRemoteTask-%s", taskId)) {
+            taskStatus.addStateChangeListener(statusChangeListener);
+        }
+    }
+
     private synchronized void updateTaskInfo(TaskInfo newValue)
     {
         updateTaskInfo(newValue, ImmutableList.of());
     }
 
     private synchronized void updateTaskInfo(TaskInfo newValue, List<TaskSource> sources)
+    {
+        setTaskStatus(TaskStatus.fromTaskInfo(newValue));
+        setTaskInfo(newValue, sources);
+    }
+
+    private synchronized void updateTaskStatus(TaskStatus newValue)
+    {
+        setTaskStatus(newValue);
+
+        TaskInfo currentInfo = taskInfo.get();
+        boolean workerRestarted = currentInfo.getNodeInstanceId().isPresent() && !currentInfo.getNodeInstanceId().equals(newValue.getNodeInstanceId());
+        if (newValue.getState().isDone() && !workerRestarted) {
+            // the terminal state is recorded from the task info, so listeners see the final stats
+            return;
+        }
+
+        // keep the last fetched stats and buffers until the next task info refresh
+        setTaskInfo(new TaskInfo(currentInfo.getTaskId(),
+                newValue.getNodeInstanceId(),
+                newValue.getVersion(),
+                newValue.getState(),
+                newValue.getSelf(),
+                currentInfo.getLastHeartbeat(),
+                currentInfo.getOutputBuffers(),
+                currentInfo.getNoMoreSplits(),
+                currentInfo.getStats(),
+                newValue.getFailures()), ImmutableList.of());
+    }
+
+    private void setTaskStatus(TaskStatus newValue)
+    {
+        taskStatus.setIf(newValue, oldValue -> newValue.getVersion() >= oldValue.getVersion());
+    }
+
+    private synchronized void setTaskInfo(TaskInfo newValue, List<TaskSource> sources)
     {
         if (newValue.getState().isDone()) {
             // splits can be huge so clear the list
@@ -357,7 +453,7 @@ public class HttpRemoteTask
                     removed++;
                 }
             }
-            if (planNodeId.equals(planFragment.getPartitionedSource())) {
+            if (planFragment.getPartitionedSources().contains(planNodeId)) {
                 pendingSourceSplitCount -= removed;
             }
         }
@@ -386,8 +482,12 @@ public class HttpRemoteTask
         updateErrorTracker.acquireRequestPermit();
 
         List<TaskSource> sources = getSources();
+        // every pending split is part of this request
+        firstUnsentSplitId = nextSplitId.get();
+        // the plan is only needed until the worker has created the task
+        Optional<PlanFragment> fragment = sendPlan ? Optional.of(planFragment) : Optional.empty();
         TaskUpdateRequest updateRequest = new TaskUpdateRequest(session.toSessionRepresentation(),
-                planFragment,
+                fragment,
                 sources,
                 outputBuffers.get());
 
@@ -410,9 +510,10 @@ public class HttpRemoteTask
 
     private synchronized List<TaskSource> getSources()
     {
-        return Stream.concat(Stream.of(planFragment.getPartitionedSourceNode()), planFragment.getRemoteSourceNodes().stream())
+        Stream<PlanNodeId> sourceIds = Stream.concat(Stream.of(planFragment.getPartitionedSourceNode()), planFragment.getRemoteSourceNodes().stream())
                 .filter(Objects::nonNull)
-                .map(PlanNode::getId)
+                .map(PlanNode::getId);
+        return Stream.concat(sourceIds, planFragment.getColocatedSources().stream())
                 .map(this::getSource)
                 .filter(Objects::nonNull)
                 .collect(toImmutableList());
@@ -584,6 +685,7 @@ public class HttpRemoteTask
                 try {
                     synchronized (HttpRemoteTask.this) {
                         currentRequest = null;
+                        sendPlan = false;
                     }
                     updateTaskInfo(value, sources);
                     updateErrorTracker.requestSucceeded();
@@ -637,9 +739,136 @@ public class HttpRemoteTask
     }
 
     /**
-     * Continuous update loop for task info.  Wait for a short period for task state to change, and
-     * if it does not, return the current state of the task.  This will cause stats to be updated at a
-     * regular interval, and state changes will be immediately recorded.
+     * Continuous update loop for task status.  Wait for a short period for task state to change, and
+     * if it does not, return the current status of the task.  The status is small, so it can be polled
+     * frequently to pick up state changes and split counts without transferring the task stats.
+     */
+    private class ContinuousTaskStatusFetcher
+            implements SimpleHttpResponseCallback<TaskStatus>
+    {
+        private final Duration refreshMaxWait;
+
+        @GuardedBy("this")
+        private boolean running;
+
+        @GuardedBy("this")
+        private ListenableFuture<JsonResponse<TaskStatus>> future;
+
+        public ContinuousTaskStatusFetcher(Duration refreshMaxWait)
+        {
+            this.refreshMaxWait = refreshMaxWait;
+        }
+
+        public synchronized void start()
+        {
+            if (running) {
+                // already running
+                return;
+            }
+            running = true;
+            scheduleNextRequest();
+        }
+
+        public synchronized void stop()
+        {
+            running = false;
+            if (future != null) {
+                future.cancel(true);
+                future = null;
+            }
+        }
+
+        private synchronized void scheduleNextRequest()
+        {
+            // stopped or done?  once the remote task is done, the info fetcher delivers the final info
+            TaskStatus taskStatus = HttpRemoteTask.this.taskStatus.get();
+            if (!running || taskStatus.getState().isDone() || taskInfo.get().getState().isDone()) {
+                return;
+            }
+
+            // outstanding request?
+            if (future != null && !future.isDone()) {
+                // this should never happen
+                log.error("Can not reschedule update because an update is already running");
+                return;
+            }
+
+            Request request = prepareGet()
+                    .setUri(uriBuilderFrom(taskStatus.getSelf()).appendPath("status").build())
+                    .setHeader(HttpHeaders.CONTENT_TYPE, MediaType.JSON_UTF_8.toString())
+                    .setHeader(PrestoHeaders.PRESTO_CURRENT_STATE, taskStatus.getState().toString())
+                    .setHeader(PrestoHeaders.PRESTO_MAX_WAIT, refreshMaxWait.toString())
+                    .build();
+
+            future = httpClient.executeAsync(request, createFullJsonResponseHandler(taskStatusCodec));
+            Futures.addCallback(future, new SimpleHttpResponseHandler<>(this, request.getUri()), executor);
+        }
+
+        @Override
+        public void success(TaskStatus value)
+        {
+            try (SetThreadName ignored = new SetThreadName("ContinuousTaskStatusFetcher-%s", taskId)) {
+                synchronized (this) {
+                    future = null;
+                }
+
+                try {
+                    updateTaskStatus(value);
+                    statusErrorTracker.requestSucceeded();
+                }
+                finally {
+                    scheduleNextRequest();
+                }
+            }
+        }
+
+        @Override
+        public void failed(Throwable cause)
+        {
+            try (SetThreadName ignored = new SetThreadName("ContinuousTaskStatusFetcher-%s", taskId)) {
+                synchronized (this) {
+                    future = null;
+                }
+
+                try {
+                    // if task not already done, record error
+                    TaskInfo taskInfo = getTaskInfo();
+                    if (!taskInfo.getState().isDone()) {
+                        statusErrorTracker.requestFailed(cause);
+                    }
+                }
+                catch (Error e) {
+                    failTask(e);
+                    abort();
+                    throw e;
+                }
+                catch (RuntimeException e) {
+                    failTask(e);
+                    abort();
+                }
+                finally {
+                    scheduleNextRequest();
+                }
+            }
+        }
+
+        @Override
+        public void fatal(Throwable cause)
+        {
+            try (SetThreadName ignored = new SetThreadName("ContinuousTaskStatusFetcher-%s", taskId)) {
+                synchronized (this) {
+                    future = null;
+                }
+
+                failTask(cause);
+            }
+        }
+    }
+
+    /**
+     * Continuous update loop for task info.  Wait for the task state to change, and if it does not,
+     * return the current info of the task after the update interval.  This will cause stats to be
+     * updated at a regular interval, and the final info will be immediately recorded.
      */
     private class ContinuousTaskInfoFetcher
             implements SimpleHttpResponseCallback<TaskInfo>
@@ -22,6 +22,7 @@ import com.facebook.presto.execution.RemoteTaskFactory;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.execution.TaskInfo;
 import com.facebook.presto.execution.TaskManagerConfig;
+import com.facebook.presto.execution.TaskStatus;
 import com.facebook.presto.metadata.Split;
 import com.facebook.presto.operator.ForScheduler;
 import com.facebook.presto.spi.Node;
@@ -50,11 +51,13 @@ public class HttpRemoteTaskFactory
 {
     private final HttpClient httpClient;
     private final LocationFactory locationFactory;
+    private final JsonCodec<TaskStatus> taskStatusCodec;
     private final JsonCodec<TaskInfo> taskInfoCodec;
     private final JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec;
     private final int maxConsecutiveErrorCount;
     private final Duration minErrorDuration;
     private final Duration taskInfoRefreshMaxWait;
+    private final Duration taskInfoUpdateInterval;
     private final ExecutorService executor;
     private final ThreadPoolExecutorMBean executorMBean;
 
@@ -63,16 +66,19 @@ public class HttpRemoteTaskFactory
             TaskManagerConfig taskConfig,
             @ForScheduler HttpClient httpClient,
             LocationFactory locationFactory,
+            JsonCodec<TaskStatus> taskStatusCodec,
             JsonCodec<TaskInfo> taskInfoCodec,
             JsonCodec<TaskUpdateRequest> taskUpdateRequestCodec)
     {
         this.httpClient = httpClient;
         this.locationFactory = locationFactory;
+        this.taskStatusCodec = taskStatusCodec;
         this.taskInfoCodec = taskInfoCodec;
         this.taskUpdateRequestCodec = taskUpdateRequestCodec;
         this.maxConsecutiveErrorCount = config.getRemoteTaskMaxConsecutiveErrorCount();
         this.minErrorDuration = config.getRemoteTaskMinErrorDuration();
         this.taskInfoRefreshMaxWait = taskConfig.getInfoRefreshMaxWait();
+        this.taskInfoUpdateInterval = taskConfig.getInfoUpdateInterval();
         ExecutorService coreExecutor = newCachedThreadPool(daemonThreadsNamed("remote-task-callback-%s"));
         this.executor = ExecutorServiceAdapter.from(new BoundedExecutor(coreExecutor, config.getRemoteTaskMaxCallbackThreads()));
         this.executorMBean = new ThreadPoolExecutorMBean((ThreadPoolExecutor) coreExecutor);
@@ -105,6 +111,8 @@ public class HttpRemoteTaskFactory
                 maxConsecutiveErrorCount,
                 minErrorDuration,
                 taskInfoRefreshMaxWait,
+                taskInfoUpdateInterval,
+                taskStatusCodec,
                 taskInfoCodec,
                 taskUpdateRequestCodec
         );
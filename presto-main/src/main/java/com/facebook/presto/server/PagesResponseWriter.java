@@ -13,13 +13,18 @@
  */
 package com.facebook.presto.server;
 
+import com.facebook.presto.block.PageCompression;
+import com.facebook.presto.block.PagesCompressionStats;
 import com.facebook.presto.block.PagesSerde;
+import com.facebook.presto.execution.TaskManagerConfig;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.google.common.base.Throwables;
 import com.google.common.reflect.TypeToken;
 import io.airlift.slice.OutputStreamSliceOutput;
 import io.airlift.slice.RuntimeIOException;
+import io.airlift.units.DataSize;
+import org.weakref.jmx.Managed;
 
 import javax.inject.Inject;
 import javax.ws.rs.Produces;
@@ -37,6 +42,9 @@ import java.lang.reflect.Type;
 import java.util.List;
 
 import static com.facebook.presto.PrestoMediaTypes.PRESTO_PAGES;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_COMPRESSION;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 
 @Provider
 @Produces(PRESTO_PAGES)
@@ -56,11 +64,43 @@ public class PagesResponseWriter
     }
 
     private final BlockEncodingSerde blockEncodingSerde;
+    private final long minCompressionSize;
+    private final PagesCompressionStats compressionStats = new PagesCompressionStats();
 
     @Inject
-    public PagesResponseWriter(BlockEncodingSerde blockEncodingSerde)
+    public PagesResponseWriter(BlockEncodingSerde blockEncodingSerde, TaskManagerConfig config)
     {
-        this.blockEncodingSerde = blockEncodingSerde;
+        this(blockEncodingSerde, config.getSinkMinCompressionSize());
+    }
+
+    public PagesResponseWriter(BlockEncodingSerde blockEncodingSerde, DataSize minCompressionSize)
+    {
+        this.blockEncodingSerde = checkNotNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this.minCompressionSize = checkNotNull(minCompressionSize, "minCompressionSize is null").toBytes();
+    }
+
+    @Managed
+    public long getCompressedBytes()
+    {
+        return compressionStats.getCompressedDataSize().toBytes();
+    }
+
+    @Managed
+    public long getUncompressedBytes()
+    {
+        return compressionStats.getUncompressedDataSize().toBytes();
+    }
+
+    @Managed
+    public double getCompressionRatio()
+    {
+        return compressionStats.getCompressionRatio();
+    }
+
+    @Managed
+    public long getCompressionCpuNanos()
+    {
+        return (long) compressionStats.getCompressionCpuTime().getValue(NANOSECONDS);
     }
 
     @Override
@@ -87,8 +127,16 @@ public class PagesResponseWriter
             OutputStream output)
             throws IOException, WebApplicationException
     {
+        // the resource only sets the compression header when the client asked for a codec
+        Object compressionHeader = httpHeaders.getFirst(PRESTO_PAGE_COMPRESSION);
+        PageCompression compression = PageCompression.fromHeader(compressionHeader == null ? null : compressionHeader.toString());
         try {
-            PagesSerde.writePages(blockEncodingSerde, new OutputStreamSliceOutput(output), pages);
+            if (compression == PageCompression.NONE) {
+                PagesSerde.writePages(blockEncodingSerde, new OutputStreamSliceOutput(output), pages);
+            }
+            else {
+                PagesSerde.writeCompressedPages(blockEncodingSerde, new OutputStreamSliceOutput(output), compression, minCompressionSize, compressionStats, pages);
+            }
         }
         catch (RuntimeIOException e) {
             // EOF exception occurs when the client disconnects while writing data
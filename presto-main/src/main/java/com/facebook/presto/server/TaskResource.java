@@ -14,11 +14,13 @@
 package com.facebook.presto.server;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.block.PageCompression;
 import com.facebook.presto.execution.BufferResult;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.execution.TaskInfo;
 import com.facebook.presto.execution.TaskManager;
 import com.facebook.presto.execution.TaskState;
+import com.facebook.presto.execution.TaskStatus;
 import com.facebook.presto.metadata.SessionPropertyManager;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.util.MoreFutures;
@@ -55,7 +57,9 @@ import java.util.concurrent.ScheduledExecutorService;
 
 import static com.facebook.presto.PrestoMediaTypes.PRESTO_PAGES;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_CURRENT_STATE;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_SIZE;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_MAX_WAIT;
+import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_COMPRESSION;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_NEXT_TOKEN;
 import static com.facebook.presto.client.PrestoHeaders.PRESTO_PAGE_TOKEN;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -156,6 +160,33 @@ public class TaskResource
                 .withTimeout(timeout);
     }
 
+    @GET
+    @Path("{taskId}/status")
+    @Produces(MediaType.APPLICATION_JSON)
+    public void getTaskStatus(@PathParam("taskId") final TaskId taskId,
+            @HeaderParam(PRESTO_CURRENT_STATE) TaskState currentState,
+            @HeaderParam(PRESTO_MAX_WAIT) Duration maxWait,
+            @Suspended AsyncResponse asyncResponse)
+    {
+        checkNotNull(taskId, "taskId is null");
+
+        if (currentState == null || maxWait == null) {
+            asyncResponse.resume(taskManager.getTaskStatus(taskId));
+            return;
+        }
+
+        ListenableFuture<TaskStatus> futureTaskStatus = MoreFutures.addTimeout(
+                taskManager.getTaskStatus(taskId, currentState),
+                () -> taskManager.getTaskStatus(taskId),
+                maxWait,
+                executor);
+
+        // For hard timeout, add an additional 5 seconds to max wait for thread scheduling contention and GC
+        Duration timeout = new Duration(maxWait.toMillis() + 5000, MILLISECONDS);
+        bindAsyncResponse(asyncResponse, futureTaskStatus, executor)
+                .withTimeout(timeout);
+    }
+
     @DELETE
     @Path("{taskId}")
     @Produces(MediaType.APPLICATION_JSON)
@@ -185,13 +216,24 @@ public class TaskResource
     public void getResults(@PathParam("taskId") TaskId taskId,
             @PathParam("outputId") TaskId outputId,
             @PathParam("token") final long token,
+            @HeaderParam(PRESTO_MAX_SIZE) DataSize maxSize,
+            @HeaderParam(PRESTO_PAGE_COMPRESSION) String pageCompression,
             @Suspended AsyncResponse asyncResponse)
             throws InterruptedException
     {
         checkNotNull(taskId, "taskId is null");
         checkNotNull(outputId, "outputId is null");
 
-        ListenableFuture<BufferResult> bufferResultFuture = taskManager.getTaskResults(taskId, outputId, token, DEFAULT_MAX_SIZE);
+        // codecs unknown to this server are answered with uncompressed pages
+        PageCompression compression = PageCompression.fromHeader(pageCompression);
+
+        // the requested size is the credit the client has left in its buffer
+        DataSize resultsMaxSize = DEFAULT_MAX_SIZE;
+        if (maxSize != null && maxSize.toBytes() > 0 && maxSize.compareTo(DEFAULT_MAX_SIZE) < 0) {
+            resultsMaxSize = maxSize;
+        }
+
+        ListenableFuture<BufferResult> bufferResultFuture = taskManager.getTaskResults(taskId, outputId, token, resultsMaxSize);
         bufferResultFuture = MoreFutures.addTimeout(
                 bufferResultFuture,
                 () -> BufferResult.emptyResults(token, false),
@@ -214,11 +256,14 @@ public class TaskResource
                 status = Status.NO_CONTENT;
             }
 
-            return Response.status(status)
+            Response.ResponseBuilder response = Response.status(status)
                     .entity(entity)
                     .header(PRESTO_PAGE_TOKEN, result.getToken())
-                    .header(PRESTO_PAGE_NEXT_TOKEN, result.getNextToken())
-                    .build();
+                    .header(PRESTO_PAGE_NEXT_TOKEN, result.getNextToken());
+            if (compression != PageCompression.NONE) {
+                response.header(PRESTO_PAGE_COMPRESSION, compression.name());
+            }
+            return response.build();
         });
 
         // For hard timeout, add an additional 5 seconds to max wait for thread scheduling contention and GC
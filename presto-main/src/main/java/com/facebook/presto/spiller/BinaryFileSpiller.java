@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.block.PagesSerde;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PrestoException;
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import io.airlift.slice.InputStreamSliceInput;
+import io.airlift.slice.OutputStreamSliceOutput;
+import io.airlift.slice.SliceInput;
+import io.airlift.slice.SliceOutput;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.facebook.presto.spi.StandardErrorCode.INTERNAL_ERROR;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+@NotThreadSafe
+public class BinaryFileSpiller
+        implements Spiller
+{
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BlockEncodingSerde blockEncodingSerde;
+    private final Path spillPath;
+    private final List<Type> types;
+    private final List<Path> spillFiles = new ArrayList<>();
+    private final List<Closeable> openInputs = new ArrayList<>();
+    private boolean closed;
+
+    public BinaryFileSpiller(BlockEncodingSerde blockEncodingSerde, Path spillPath, List<Type> types)
+    {
+        this.blockEncodingSerde = checkNotNull(blockEncodingSerde, "blockEncodingSerde is null");
+        this.spillPath = checkNotNull(spillPath, "spillPath is null");
+        this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+    }
+
+    @Override
+    public void spill(Iterator<Page> pageIterator)
+    {
+        checkState(!closed, "Spiller is closed");
+        checkNotNull(pageIterator, "pageIterator is null");
+
+        Path spillFile;
+        try {
+            Files.createDirectories(spillPath);
+            spillFile = Files.createTempFile(spillPath, "spill", ".bin");
+        }
+        catch (IOException e) {
+            throw new PrestoException(INTERNAL_ERROR, "Failed to create spill file in " + spillPath, e);
+        }
+        spillFiles.add(spillFile);
+
+        try (SliceOutput output = new OutputStreamSliceOutput(new BufferedOutputStream(Files.newOutputStream(spillFile), BUFFER_SIZE))) {
+            PagesSerde.writePages(blockEncodingSerde, output, Iterators.transform(pageIterator, this::checkPage));
+        }
+        catch (IOException e) {
+            throw new PrestoException(INTERNAL_ERROR, "Failed to spill pages to " + spillFile, e);
+        }
+    }
+
+    private Page checkPage(Page page)
+    {
+        checkArgument(page.getChannelCount() == types.size(), "Expected pages with %s channels, but got %s", types.size(), page.getChannelCount());
+        return page;
+    }
+
+    @Override
+    public List<Iterator<Page>> getSpills()
+    {
+        checkState(!closed, "Spiller is closed");
+
+        ImmutableList.Builder<Iterator<Page>> spills = ImmutableList.builder();
+        for (Path spillFile : spillFiles) {
+            spills.add(readPages(spillFile));
+        }
+        return spills.build();
+    }
+
+    @Override
+    public long getReadBufferSizeInBytes()
+    {
+        return BUFFER_SIZE;
+    }
+
+    private Iterator<Page> readPages(Path spillFile)
+    {
+        try {
+            SliceInput input = new InputStreamSliceInput(new BufferedInputStream(Files.newInputStream(spillFile), BUFFER_SIZE));
+            openInputs.add(input);
+            return PagesSerde.readPages(blockEncodingSerde, input);
+        }
+        catch (IOException e) {
+            throw new PrestoException(INTERNAL_ERROR, "Failed to read spilled pages from " + spillFile, e);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        for (Closeable input : openInputs) {
+            try {
+                input.close();
+            }
+            catch (IOException ignored) {
+            }
+        }
+        openInputs.clear();
+
+        for (Path spillFile : spillFiles) {
+            try {
+                Files.deleteIfExists(spillFile);
+            }
+            catch (IOException ignored) {
+            }
+        }
+        spillFiles.clear();
+    }
+}
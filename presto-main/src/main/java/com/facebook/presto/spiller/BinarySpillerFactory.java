@@ -0,0 +1,47 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.spi.block.BlockEncodingSerde;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+
+import javax.inject.Inject;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public class BinarySpillerFactory
+        implements SpillerFactory
+{
+    private final BlockEncodingSerde blockEncodingSerde;
+    private final Path spillPath;
+
+    @Inject
+    public BinarySpillerFactory(BlockEncodingSerde blockEncodingSerde, FeaturesConfig featuresConfig)
+    {
+        this.blockEncodingSerde = checkNotNull(blockEncodingSerde, "blockEncodingSerde is null");
+        checkNotNull(featuresConfig, "featuresConfig is null");
+        this.spillPath = Paths.get(featuresConfig.getSpillerSpillPath());
+    }
+
+    @Override
+    public Spiller create(List<Type> types)
+    {
+        return new BinaryFileSpiller(blockEncodingSerde, spillPath, types);
+    }
+}
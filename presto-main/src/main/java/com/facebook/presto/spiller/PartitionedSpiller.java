@@ -0,0 +1,177 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Spills rows to one {@link Spiller} per hash partition. Appended rows are
+ * buffered per partition and written out as a run once a page fills up.
+ */
+@NotThreadSafe
+public class PartitionedSpiller
+        implements Closeable
+{
+    private final List<Type> types;
+    private final SpillerFactory spillerFactory;
+    private final Spiller[] spillers;
+    private final PageBuilder[] pageBuilders;
+    private long spilledBytes;
+    private boolean closed;
+
+    public PartitionedSpiller(List<Type> types, SpillerFactory spillerFactory, int partitionCount)
+    {
+        this.types = ImmutableList.copyOf(checkNotNull(types, "types is null"));
+        this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
+        this.spillers = new Spiller[partitionCount];
+        this.pageBuilders = new PageBuilder[partitionCount];
+    }
+
+    public boolean isSpilled(int partition)
+    {
+        checkElementIndex(partition, spillers.length, "partition");
+        return spillers[partition] != null;
+    }
+
+    /**
+     * Writes the pages to disk as a new run of the partition.
+     */
+    public void spill(int partition, Iterator<Page> pages)
+    {
+        checkState(!closed, "Spiller is closed");
+        getSpiller(partition).spill(Iterators.transform(pages, page -> {
+            spilledBytes += page.getSizeInBytes();
+            return page;
+        }));
+    }
+
+    /**
+     * Buffers the rows of the page for the partition, spilling the buffer once it is full.
+     */
+    public void append(int partition, Page page)
+    {
+        checkState(!closed, "Spiller is closed");
+        getSpiller(partition);
+
+        PageBuilder pageBuilder = pageBuilders[partition];
+        if (pageBuilder == null) {
+            pageBuilder = new PageBuilder(types);
+            pageBuilders[partition] = pageBuilder;
+        }
+
+        for (int position = 0; position < page.getPositionCount(); position++) {
+            pageBuilder.declarePosition();
+            for (int channel = 0; channel < types.size(); channel++) {
+                types.get(channel).appendTo(page.getBlock(channel), position, pageBuilder.getBlockBuilder(channel));
+            }
+            if (pageBuilder.isFull()) {
+                flush(partition);
+            }
+        }
+    }
+
+    /**
+     * Writes out the buffered rows of every partition.
+     */
+    public void flush()
+    {
+        for (int partition = 0; partition < pageBuilders.length; partition++) {
+            flush(partition);
+        }
+    }
+
+    private void flush(int partition)
+    {
+        PageBuilder pageBuilder = pageBuilders[partition];
+        if (pageBuilder == null || pageBuilder.isEmpty()) {
+            return;
+        }
+        Page page = pageBuilder.build();
+        pageBuilder.reset();
+        spill(partition, Iterators.singletonIterator(page));
+    }
+
+    /**
+     * Returns the spilled rows of the partition, in the order they were spilled.
+     */
+    public Iterator<Page> getSpilledPages(int partition)
+    {
+        checkState(!closed, "Spiller is closed");
+        flush(partition);
+        if (!isSpilled(partition)) {
+            return Collections.emptyIterator();
+        }
+        return Iterators.concat(spillers[partition].getSpills().iterator());
+    }
+
+    /**
+     * Returns the size of the rows buffered in memory that have not been written to disk yet.
+     */
+    public long getBufferedBytes()
+    {
+        long bufferedBytes = 0;
+        for (PageBuilder pageBuilder : pageBuilders) {
+            if (pageBuilder != null) {
+                bufferedBytes += pageBuilder.getSizeInBytes();
+            }
+        }
+        return bufferedBytes;
+    }
+
+    /**
+     * Returns the in-memory size of all pages written to disk so far.
+     */
+    public long getSpilledBytes()
+    {
+        return spilledBytes;
+    }
+
+    private Spiller getSpiller(int partition)
+    {
+        checkElementIndex(partition, spillers.length, "partition");
+        if (spillers[partition] == null) {
+            spillers[partition] = spillerFactory.create(types);
+        }
+        return spillers[partition];
+    }
+
+    @Override
+    public void close()
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (Spiller spiller : spillers) {
+            if (spiller != null) {
+                spiller.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spiller;
+
+import com.facebook.presto.spi.Page;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.List;
+
+public interface Spiller
+        extends Closeable
+{
+    /**
+     * Writes the pages to a new run on local disk. The pages are written in
+     * iteration order, and are returned in the same order by {@link #getSpills()}.
+     */
+    void spill(Iterator<Page> pageIterator);
+
+    /**
+     * Returns an iterator over the pages of each run written so far.
+     */
+    List<Iterator<Page>> getSpills();
+
+    /**
+     * Returns the memory buffered for reading back each run returned by {@link #getSpills()}.
+     */
+    long getReadBufferSizeInBytes();
+
+    /**
+     * Releases any open readers and removes all spilled runs from disk.
+     */
+    @Override
+    void close();
+}
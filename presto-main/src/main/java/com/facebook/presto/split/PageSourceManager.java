@@ -19,6 +19,7 @@ import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.TupleDomain;
 
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
@@ -48,6 +49,18 @@ public class PageSourceManager
         return getPageSourceProvider(split).createPageSource(connectorSession, split.getConnectorSplit(), columns);
     }
 
+    @Override
+    public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        checkNotNull(split, "split is null");
+        checkNotNull(columns, "columns is null");
+        checkNotNull(dynamicFilter, "dynamicFilter is null");
+
+        // assumes connectorId and catalog are the same
+        ConnectorSession connectorSession = session.toConnectorSession(split.getConnectorId());
+        return getPageSourceProvider(split).createPageSource(connectorSession, split.getConnectorSplit(), columns, dynamicFilter);
+    }
+
     private ConnectorPageSourceProvider getPageSourceProvider(Split split)
     {
         ConnectorPageSourceProvider provider = pageSourceProviders.get(split.getConnectorId());
@@ -15,6 +15,13 @@ package com.facebook.presto.sql.analyzer;
 
 import io.airlift.configuration.Config;
 import io.airlift.configuration.LegacyConfig;
+import io.airlift.units.DataSize;
+
+import javax.validation.constraints.NotNull;
+
+import java.nio.file.Paths;
+
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class FeaturesConfig
 {
@@ -25,6 +32,14 @@ public class FeaturesConfig
     private boolean optimizeMetadataQueries;
     private boolean optimizeHashGeneration;
     private boolean optimizeSingleDistinct = true;
+    private boolean reorderJoins;
+    private boolean automaticJoinDistribution;
+    private DataSize broadcastJoinMaxBuildSize = new DataSize(100, MEGABYTE);
+    private boolean spillEnabled;
+    private String spillerSpillPath = Paths.get(System.getProperty("java.io.tmpdir"), "presto", "spills").toString();
+    private DataSize operatorMemoryLimitBeforeSpill = new DataSize(4, MEGABYTE);
+    private boolean dynamicFilteringEnabled;
+    private boolean colocatedJoinsEnabled;
 
     @LegacyConfig("analyzer.experimental-syntax-enabled")
     @Config("experimental-syntax-enabled")
@@ -110,4 +125,103 @@ public class FeaturesConfig
         this.optimizeSingleDistinct = optimizeSingleDistinct;
         return this;
     }
+
+    public boolean isReorderJoins()
+    {
+        return reorderJoins;
+    }
+
+    @Config("optimizer.reorder-joins")
+    public FeaturesConfig setReorderJoins(boolean reorderJoins)
+    {
+        this.reorderJoins = reorderJoins;
+        return this;
+    }
+
+    public boolean isAutomaticJoinDistribution()
+    {
+        return automaticJoinDistribution;
+    }
+
+    @Config("optimizer.automatic-join-distribution")
+    public FeaturesConfig setAutomaticJoinDistribution(boolean automaticJoinDistribution)
+    {
+        this.automaticJoinDistribution = automaticJoinDistribution;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getBroadcastJoinMaxBuildSize()
+    {
+        return broadcastJoinMaxBuildSize;
+    }
+
+    @Config("optimizer.broadcast-join-max-build-size")
+    public FeaturesConfig setBroadcastJoinMaxBuildSize(DataSize broadcastJoinMaxBuildSize)
+    {
+        this.broadcastJoinMaxBuildSize = broadcastJoinMaxBuildSize;
+        return this;
+    }
+
+    public boolean isSpillEnabled()
+    {
+        return spillEnabled;
+    }
+
+    @Config("experimental.spill-enabled")
+    public FeaturesConfig setSpillEnabled(boolean spillEnabled)
+    {
+        this.spillEnabled = spillEnabled;
+        return this;
+    }
+
+    @NotNull
+    public String getSpillerSpillPath()
+    {
+        return spillerSpillPath;
+    }
+
+    @Config("experimental.spiller-spill-path")
+    public FeaturesConfig setSpillerSpillPath(String spillerSpillPath)
+    {
+        this.spillerSpillPath = spillerSpillPath;
+        return this;
+    }
+
+    @NotNull
+    public DataSize getOperatorMemoryLimitBeforeSpill()
+    {
+        return operatorMemoryLimitBeforeSpill;
+    }
+
+    @Config("experimental.operator-memory-limit-before-spill")
+    public FeaturesConfig setOperatorMemoryLimitBeforeSpill(DataSize operatorMemoryLimitBeforeSpill)
+    {
+        this.operatorMemoryLimitBeforeSpill = operatorMemoryLimitBeforeSpill;
+        return this;
+    }
+
+    public boolean isDynamicFilteringEnabled()
+    {
+        return dynamicFilteringEnabled;
+    }
+
+    @Config("experimental.dynamic-filtering-enabled")
+    public FeaturesConfig setDynamicFilteringEnabled(boolean dynamicFilteringEnabled)
+    {
+        this.dynamicFilteringEnabled = dynamicFilteringEnabled;
+        return this;
+    }
+
+    public boolean isColocatedJoinsEnabled()
+    {
+        return colocatedJoinsEnabled;
+    }
+
+    @Config("optimizer.colocated-joins-enabled")
+    public FeaturesConfig setColocatedJoinsEnabled(boolean colocatedJoinsEnabled)
+    {
+        this.colocatedJoinsEnabled = colocatedJoinsEnabled;
+        return this;
+    }
 }
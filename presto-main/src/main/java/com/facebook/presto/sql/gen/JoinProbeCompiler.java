@@ -24,6 +24,8 @@ import com.facebook.presto.byteCode.control.IfStatement;
 import com.facebook.presto.byteCode.expression.ByteCodeExpression;
 import com.facebook.presto.byteCode.instruction.JumpInstruction;
 import com.facebook.presto.byteCode.instruction.LabelNode;
+import com.facebook.presto.operator.HashGenerator;
+import com.facebook.presto.operator.InterpretedHashGenerator;
 import com.facebook.presto.operator.JoinProbe;
 import com.facebook.presto.operator.JoinProbeFactory;
 import com.facebook.presto.operator.LookupJoinOperator;
@@ -32,17 +34,20 @@ import com.facebook.presto.operator.LookupJoinOperators.JoinType;
 import com.facebook.presto.operator.LookupSource;
 import com.facebook.presto.operator.LookupSourceSupplier;
 import com.facebook.presto.operator.OperatorFactory;
+import com.facebook.presto.operator.PrecomputedHashGenerator;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.type.BigintType;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Throwables;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
 import com.google.common.util.concurrent.ExecutionError;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
@@ -85,10 +90,21 @@ public class JoinProbeCompiler
             List<Integer> probeJoinChannel,
             Optional<Integer> probeHashChannel,
             JoinType joinType)
+    {
+        return compileJoinOperatorFactory(operatorId, lookupSourceSupplier, probeTypes, probeJoinChannel, probeHashChannel, joinType, Optional.empty());
+    }
+
+    public OperatorFactory compileJoinOperatorFactory(int operatorId,
+            LookupSourceSupplier lookupSourceSupplier,
+            List<? extends Type> probeTypes,
+            List<Integer> probeJoinChannel,
+            Optional<Integer> probeHashChannel,
+            JoinType joinType,
+            Optional<SpillerFactory> spillerFactory)
     {
         try {
             HashJoinOperatorFactoryFactory operatorFactoryFactory = joinProbeFactories.get(new JoinOperatorCacheKey(probeTypes, probeJoinChannel, probeHashChannel, joinType));
-            return operatorFactoryFactory.createHashJoinOperatorFactory(operatorId, lookupSourceSupplier, probeTypes, probeJoinChannel, joinType);
+            return operatorFactoryFactory.createHashJoinOperatorFactory(operatorId, lookupSourceSupplier, probeTypes, probeJoinChannel, probeHashChannel, joinType, spillerFactory);
         }
         catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
             throw Throwables.propagate(e.getCause());
@@ -485,7 +501,7 @@ public class JoinProbeCompiler
             this.joinProbeFactory = joinProbeFactory;
 
             try {
-                constructor = operatorFactoryClass.getConstructor(int.class, LookupSourceSupplier.class, List.class, JoinType.class, JoinProbeFactory.class);
+                constructor = operatorFactoryClass.getConstructor(int.class, LookupSourceSupplier.class, List.class, JoinType.class, JoinProbeFactory.class, Optional.class, Optional.class);
             }
             catch (NoSuchMethodException e) {
                 throw Throwables.propagate(e);
@@ -497,10 +513,27 @@ public class JoinProbeCompiler
                 LookupSourceSupplier lookupSourceSupplier,
                 List<? extends Type> probeTypes,
                 List<Integer> probeJoinChannel,
-                JoinType joinType)
+                Optional<Integer> probeHashChannel,
+                JoinType joinType,
+                Optional<SpillerFactory> spillerFactory)
         {
+            // spilled probe rows are routed to the build partitions with the same hash the build side used
+            Optional<HashGenerator> probeHashGenerator = Optional.empty();
+            if (spillerFactory.isPresent()) {
+                if (probeHashChannel.isPresent()) {
+                    probeHashGenerator = Optional.of(new PrecomputedHashGenerator(probeHashChannel.get()));
+                }
+                else {
+                    ImmutableList.Builder<Type> probeJoinTypes = ImmutableList.builder();
+                    for (int channel : probeJoinChannel) {
+                        probeJoinTypes.add(probeTypes.get(channel));
+                    }
+                    probeHashGenerator = Optional.of(new InterpretedHashGenerator(probeJoinTypes.build(), Ints.toArray(probeJoinChannel)));
+                }
+            }
+
             try {
-                return constructor.newInstance(operatorId, lookupSourceSupplier, probeTypes, joinType, joinProbeFactory);
+                return constructor.newInstance(operatorId, lookupSourceSupplier, probeTypes, joinType, joinProbeFactory, probeHashGenerator, spillerFactory);
             }
             catch (Exception e) {
                 throw Throwables.propagate(e);
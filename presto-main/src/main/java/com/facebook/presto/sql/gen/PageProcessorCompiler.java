@@ -17,19 +17,27 @@ import com.facebook.presto.byteCode.Block;
 import com.facebook.presto.byteCode.ByteCodeNode;
 import com.facebook.presto.byteCode.ClassDefinition;
 import com.facebook.presto.byteCode.MethodDefinition;
+import com.facebook.presto.byteCode.OpCode;
 import com.facebook.presto.byteCode.Parameter;
-import com.facebook.presto.byteCode.ParameterizedType;
 import com.facebook.presto.byteCode.Scope;
 import com.facebook.presto.byteCode.Variable;
 import com.facebook.presto.byteCode.control.ForLoop;
 import com.facebook.presto.byteCode.control.IfStatement;
+import com.facebook.presto.byteCode.control.WhileLoop;
+import com.facebook.presto.byteCode.expression.ByteCodeExpression;
 import com.facebook.presto.byteCode.instruction.LabelNode;
+import com.facebook.presto.block.BlockUtils;
+import com.facebook.presto.metadata.FunctionInfo;
+import com.facebook.presto.metadata.FunctionRegistry;
 import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.metadata.Signature;
 import com.facebook.presto.operator.PageProcessor;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.DictionaryBlock;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.sql.relational.CallExpression;
 import com.facebook.presto.sql.relational.ConstantExpression;
@@ -37,27 +45,60 @@ import com.facebook.presto.sql.relational.Expressions;
 import com.facebook.presto.sql.relational.InputReferenceExpression;
 import com.facebook.presto.sql.relational.RowExpression;
 import com.facebook.presto.sql.relational.RowExpressionVisitor;
+import com.facebook.presto.sql.tree.QualifiedName;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.primitives.Primitives;
 import io.airlift.slice.Slice;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
 
 import static com.facebook.presto.byteCode.Access.PUBLIC;
 import static com.facebook.presto.byteCode.Access.a;
-import static com.facebook.presto.byteCode.OpCode.NOP;
 import static com.facebook.presto.byteCode.Parameter.arg;
 import static com.facebook.presto.byteCode.ParameterizedType.type;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.add;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.constantFalse;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.constantInt;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.constantNull;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.equal;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.greaterThan;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.invokeStatic;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.lessThan;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.lessThanOrEqual;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.newInstance;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.not;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.notEqual;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.or;
+import static com.facebook.presto.byteCode.expression.ByteCodeExpressions.subtract;
 import static com.facebook.presto.sql.gen.ByteCodeUtils.generateWrite;
 import static com.facebook.presto.sql.gen.ByteCodeUtils.loadConstant;
+import static com.facebook.presto.sql.gen.SqlTypeByteCodeExpression.constantType;
+import static com.facebook.presto.sql.relational.Signatures.CAST;
+import static com.facebook.presto.sql.relational.Signatures.COALESCE;
+import static com.facebook.presto.sql.relational.Signatures.IF;
+import static com.facebook.presto.sql.relational.Signatures.IN;
+import static com.facebook.presto.sql.relational.Signatures.IS_NULL;
+import static com.facebook.presto.sql.relational.Signatures.NULL_IF;
+import static com.facebook.presto.sql.relational.Signatures.SWITCH;
+import static com.facebook.presto.sql.relational.Signatures.TRY_CAST;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static java.lang.String.format;
-import static java.util.Collections.nCopies;
 
 public class PageProcessorCompiler
         implements BodyCompiler<PageProcessor>
 {
+    // number of positions projected between page builder full checks
+    private static final int PROJECT_BATCH_SIZE = 256;
+
+    // special forms are compiled inline and are deterministic when their arguments are
+    private static final Set<String> SPECIAL_FORMS = ImmutableSet.of(CAST, TRY_CAST, IF, NULL_IF, SWITCH, "WHEN", IS_NULL, "IS_DISTINCT_FROM", COALESCE, IN, "AND", "OR");
+
     private final Metadata metadata;
 
     public PageProcessorCompiler(Metadata metadata)
@@ -68,15 +109,23 @@ public class PageProcessorCompiler
     @Override
     public void generateMethods(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, RowExpression filter, List<RowExpression> projections)
     {
-        generateProcessMethod(classDefinition, filter, projections);
+        generateProcessMethod(classDefinition, callSiteBinder, filter, projections);
+        if (isColumnarDictionaryProjection(projections)) {
+            generateProcessColumnarDictionaryMethod(classDefinition, callSiteBinder, filter, projections);
+        }
+        generateFilterPositionsMethod(classDefinition, filter);
         generateFilterMethod(classDefinition, callSiteBinder, filter);
 
         for (int i = 0; i < projections.size(); i++) {
             generateProjectMethod(classDefinition, callSiteBinder, "project_" + i, projections.get(i));
+            generateProjectPositionsMethod(classDefinition, i, projections.get(i));
+            if (isDictionaryProjection(projections.get(i))) {
+                generateProjectDictionaryMethod(classDefinition, callSiteBinder, i, projections.get(i));
+            }
         }
     }
 
-    private void generateProcessMethod(ClassDefinition classDefinition, RowExpression filter, List<RowExpression> projections)
+    private void generateProcessMethod(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, RowExpression filter, List<RowExpression> projections)
     {
         Parameter session = arg("session", ConnectorSession.class);
         Parameter page = arg("page", Page.class);
@@ -87,18 +136,16 @@ public class PageProcessorCompiler
 
         Scope scope = method.getScope();
         Variable thisVariable = method.getThis();
-        Variable position = scope.declareVariable(int.class, "position");
+        Block body = method.getBody();
 
-        method.getBody()
-                .comment("int position = start;")
-                .getVariable(start)
-                .putVariable(position);
+        body.append(new IfStatement("if (pageBuilder.isFull()) return start;")
+                .condition(pageBuilder.invoke("isFull", boolean.class))
+                .ifTrue(start.ret()));
 
         List<Integer> allInputChannels = getInputChannels(Iterables.concat(projections, ImmutableList.of(filter)));
         for (int channel : allInputChannels) {
             Variable blockVariable = scope.declareVariable(com.facebook.presto.spi.block.Block.class, "block_" + channel);
-            method.getBody()
-                    .comment("Block %s = page.getBlock(%s);", blockVariable.getName(), channel)
+            body.comment("Block %s = page.getBlock(%s);", blockVariable.getName(), channel)
                     .getVariable(page)
                     .push(channel)
                     .invokeVirtual(Page.class, "getBlock", com.facebook.presto.spi.block.Block.class, int.class)
@@ -106,86 +153,471 @@ public class PageProcessorCompiler
         }
 
         //
-        // for loop loop body
+        // evaluate the filter for the whole range, producing the selected positions
         //
-        LabelNode done = new LabelNode("done");
-
-        Block loopBody = new Block();
-
-        ForLoop loop = new ForLoop()
-                .initialize(NOP)
-                .condition(new Block()
-                                .comment("position < end")
-                                .getVariable(position)
-                                .getVariable(end)
-                                .invokeStatic(CompilerOperations.class, "lessThan", boolean.class, int.class, int.class)
-                )
-                .update(new Block()
-                        .comment("position++")
-                        .incrementVariable(position, (byte) 1))
-                .body(loopBody);
-
-        loopBody.comment("if (pageBuilder.isFull()) break;")
-                .getVariable(pageBuilder)
-                .invokeVirtual(PageBuilder.class, "isFull", boolean.class)
-                .ifTrueGoto(done);
-
-        // if (filter(cursor))
-        IfStatement filterBlock = new IfStatement();
-        filterBlock.condition()
-                .append(thisVariable)
-                .getVariable(session)
-                .append(pushBlockVariables(scope, getInputChannels(filter)))
-                .getVariable(position)
-                .invokeVirtual(classDefinition.getType(),
-                        "filter",
-                        type(boolean.class),
-                        ImmutableList.<ParameterizedType>builder()
-                                .add(type(ConnectorSession.class))
-                                .addAll(nCopies(getInputChannels(filter).size(), type(com.facebook.presto.spi.block.Block.class)))
-                                .add(type(int.class))
-                                .build());
+        Variable selectedPositions = scope.declareVariable(int[].class, "selectedPositions");
+        Variable selectedCount = scope.declareVariable(int.class, "selectedCount");
+        body.append(selectedPositions.set(invokeStatic(PageProcessorOperations.class, "newPositionsArray", int[].class, subtract(end, start))))
+                .append(selectedCount.set(thisVariable.invoke(
+                        "filterPositions",
+                        type(int.class),
+                        ImmutableList.<ByteCodeExpression>builder()
+                                .add(session)
+                                .addAll(blockVariables(scope, getInputChannels(filter)))
+                                .add(start)
+                                .add(end)
+                                .add(selectedPositions)
+                                .build())));
+
+        // columns only read by the projections are loaded after the filter, so lazy blocks can decode just the
+        // selected positions (a nondeterministic filter could select other positions when processing resumes)
+        if (isDeterministic(filter)) {
+            List<Integer> filterChannels = getInputChannels(filter);
+            for (int channel : getInputChannels(projections)) {
+                if (!filterChannels.contains(channel)) {
+                    body.append(invokeStatic(
+                            PageProcessorOperations.class,
+                            "loadSelectedPositions",
+                            void.class,
+                            scope.getVariable("block_" + channel),
+                            selectedPositions,
+                            selectedCount,
+                            subtract(end, start)));
+                }
+            }
+        }
+
+        // evaluate dictionary projections once per referenced dictionary entry
+        Map<Integer, Variable> dictionaryProjections = new HashMap<>();
+        for (int projectionIndex = 0; projectionIndex < projections.size(); projectionIndex++) {
+            RowExpression projection = projections.get(projectionIndex);
+            if (isDictionaryProjection(projection)) {
+                Variable dictionaryProjection = scope.declareVariable(DictionaryBlock.class, "dictionaryProjection_" + projectionIndex);
+                body.append(dictionaryProjection.set(thisVariable.invoke(
+                        "projectDictionary_" + projectionIndex,
+                        type(DictionaryBlock.class),
+                        ImmutableList.<ByteCodeExpression>builder()
+                                .add(session)
+                                .addAll(blockVariables(scope, getInputChannels(projection)))
+                                .add(selectedPositions)
+                                .add(selectedCount)
+                                .build())));
+                dictionaryProjections.put(projectionIndex, dictionaryProjection);
+            }
+        }
+
+        //
+        // project the selected positions one column at a time, in batches so the page builder size limit is honored
+        //
+        Variable batchStart = scope.declareVariable(int.class, "batchStart");
+        Variable batchEnd = scope.declareVariable(int.class, "batchEnd");
+
+        Block loopBody = new Block()
+                .append(new IfStatement("if (pageBuilder.isFull()) return selectedPositions[batchStart];")
+                        .condition(pageBuilder.invoke("isFull", boolean.class))
+                        .ifTrue(selectedPositions.getElement(batchStart).ret()))
+                .append(batchEnd.set(invokeStatic(Math.class, "min", int.class, selectedCount, add(batchStart, constantInt(PROJECT_BATCH_SIZE)))))
+                .append(pageBuilder.invoke("declarePositions", void.class, subtract(batchEnd, batchStart)));
+
+        for (int projectionIndex = 0; projectionIndex < projections.size(); projectionIndex++) {
+            RowExpression projection = projections.get(projectionIndex);
+            List<Integer> inputChannels = getInputChannels(projection);
+            ByteCodeExpression blockBuilder = pageBuilder.invoke("getBlockBuilder", BlockBuilder.class, constantInt(projectionIndex));
+
+            ByteCodeExpression projectPositions = thisVariable.invoke(
+                    "projectPositions_" + projectionIndex,
+                    type(void.class),
+                    ImmutableList.<ByteCodeExpression>builder()
+                            .add(session)
+                            .addAll(blockVariables(scope, inputChannels))
+                            .add(selectedPositions)
+                            .add(batchStart)
+                            .add(batchEnd)
+                            .add(blockBuilder)
+                            .build());
+
+            Variable dictionaryProjection = dictionaryProjections.get(projectionIndex);
+            if (dictionaryProjection == null) {
+                loopBody.append(projectPositions);
+                continue;
+            }
+
+            loopBody.append(new IfStatement("if (dictionaryProjection_%s != null)", projectionIndex)
+                    .condition(notEqual(dictionaryProjection, constantNull(DictionaryBlock.class)))
+                    .ifTrue(invokeStatic(
+                            PageProcessorOperations.class,
+                            "appendDictionaryPositions",
+                            void.class,
+                            constantType(callSiteBinder, projection.getType()),
+                            dictionaryProjection,
+                            selectedPositions,
+                            batchStart,
+                            batchEnd,
+                            blockBuilder))
+                    .ifFalse(projectPositions));
+        }
+
+        loopBody.append(batchStart.set(batchEnd));
+
+        body.append(batchStart.set(constantInt(0)))
+                .append(new WhileLoop("while (batchStart < selectedCount)")
+                        .condition(lessThan(batchStart, selectedCount))
+                        .body(loopBody))
+                .comment("return end;")
+                .append(end.ret());
+    }
+
+    private void generateProcessColumnarDictionaryMethod(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, RowExpression filter, List<RowExpression> projections)
+    {
+        Parameter session = arg("session", ConnectorSession.class);
+        Parameter page = arg("page", Page.class);
+        MethodDefinition method = classDefinition.declareMethod(a(PUBLIC), "processColumnarDictionary", type(Page.class), session, page);
 
-        filterBlock.ifTrue()
-                .append(pageBuilder)
-                .invokeVirtual(PageBuilder.class, "declarePosition", void.class);
+        Scope scope = method.getScope();
+        Variable thisVariable = method.getThis();
+        Block body = method.getBody();
 
+        List<Integer> allInputChannels = getInputChannels(Iterables.concat(projections, ImmutableList.of(filter)));
+        for (int channel : allInputChannels) {
+            Variable blockVariable = scope.declareVariable(com.facebook.presto.spi.block.Block.class, "block_" + channel);
+            body.append(blockVariable.set(page.invoke("getBlock", com.facebook.presto.spi.block.Block.class, constantInt(channel))));
+        }
+
+        // the page is only processed column at a time when a projected column may be dictionary encoded, which is
+        // decided without loading lazy blocks, so that projected columns are still only loaded after the filter
+        ByteCodeExpression mayHaveDictionary = constantFalse();
+        for (int channel : getInputChannels(projections)) {
+            mayHaveDictionary = or(mayHaveDictionary, invokeStatic(PageProcessorOperations.class, "mayBeDictionaryEncoded", boolean.class, scope.getVariable("block_" + channel)));
+        }
+        body.append(new IfStatement("if (!mayHaveDictionary) return null;")
+                .condition(not(mayHaveDictionary))
+                .ifTrue(constantNull(Page.class).ret()));
+
+        Variable positionCount = scope.declareVariable(int.class, "positionCount");
+        Variable selectedPositions = scope.declareVariable(int[].class, "selectedPositions");
+        Variable selectedCount = scope.declareVariable(int.class, "selectedCount");
+        body.append(positionCount.set(page.invoke("getPositionCount", int.class)))
+                .append(selectedPositions.set(invokeStatic(PageProcessorOperations.class, "newPositionsArray", int[].class, positionCount)))
+                .append(selectedCount.set(thisVariable.invoke(
+                        "filterPositions",
+                        type(int.class),
+                        ImmutableList.<ByteCodeExpression>builder()
+                                .add(session)
+                                .addAll(blockVariables(scope, getInputChannels(filter)))
+                                .add(constantInt(0))
+                                .add(positionCount)
+                                .add(selectedPositions)
+                                .build())));
+
+        Variable outputBlocks = scope.declareVariable(com.facebook.presto.spi.block.Block[].class, "outputBlocks");
+        body.append(outputBlocks.set(invokeStatic(PageProcessorOperations.class, "newBlockArray", com.facebook.presto.spi.block.Block[].class, constantInt(projections.size()))));
+
+        // when no position is selected the projected columns are not touched at all
+        Block emptyPage = new Block();
         for (int projectionIndex = 0; projectionIndex < projections.size(); projectionIndex++) {
-            List<Integer> inputChannels = getInputChannels(projections.get(projectionIndex));
-
-            filterBlock.ifTrue()
-                    .append(thisVariable)
-                    .append(session)
-                    .append(pushBlockVariables(scope, inputChannels))
-                    .getVariable(position);
-
-            filterBlock.ifTrue()
-                    .comment("pageBuilder.getBlockBuilder(%d)", projectionIndex)
-                    .append(pageBuilder)
-                    .push(projectionIndex)
-                    .invokeVirtual(PageBuilder.class, "getBlockBuilder", BlockBuilder.class, int.class);
-
-            filterBlock.ifTrue()
-                    .comment("project_%d(session, block_%s, position, blockBuilder)", projectionIndex, inputChannels)
-                    .invokeVirtual(classDefinition.getType(),
-                            "project_" + projectionIndex,
-                            type(void.class),
-                            ImmutableList.<ParameterizedType>builder()
-                                    .add(type(ConnectorSession.class))
-                                    .addAll(nCopies(inputChannels.size(), type(com.facebook.presto.spi.block.Block.class)))
-                                    .add(type(int.class))
-                                    .add(type(BlockBuilder.class))
-                                    .build());
+            emptyPage.comment("outputBlocks[%s] = emptyBlock(type_%s);", projectionIndex, projectionIndex)
+                    .append(outputBlocks)
+                    .append(constantInt(projectionIndex))
+                    .append(invokeStatic(
+                            PageProcessorOperations.class,
+                            "emptyBlock",
+                            com.facebook.presto.spi.block.Block.class,
+                            constantType(callSiteBinder, projections.get(projectionIndex).getType())))
+                    .append(OpCode.AASTORE);
+        }
+        emptyPage.append(newInstance(Page.class, constantInt(0), outputBlocks).ret());
+        body.append(new IfStatement("if (selectedCount == 0) return emptyPage;")
+                .condition(equal(selectedCount, constantInt(0)))
+                .ifTrue(emptyPage));
+
+        if (isDeterministic(filter)) {
+            List<Integer> filterChannels = getInputChannels(filter);
+            for (int channel : getInputChannels(projections)) {
+                if (!filterChannels.contains(channel)) {
+                    body.append(invokeStatic(
+                            PageProcessorOperations.class,
+                            "loadSelectedPositions",
+                            void.class,
+                            scope.getVariable("block_" + channel),
+                            selectedPositions,
+                            selectedCount,
+                            positionCount));
+                }
+            }
+        }
+
+        Variable dictionaryProjection = scope.declareVariable(DictionaryBlock.class, "dictionaryProjection");
+        Variable blockBuilder = scope.declareVariable(BlockBuilder.class, "blockBuilder");
+
+        for (int projectionIndex = 0; projectionIndex < projections.size(); projectionIndex++) {
+            RowExpression projection = projections.get(projectionIndex);
+            Variable outputBlock = scope.declareVariable(com.facebook.presto.spi.block.Block.class, "outputBlock_" + projectionIndex);
+
+            if (projection instanceof InputReferenceExpression) {
+                // field references pass the input block through, keeping its dictionary
+                body.append(outputBlock.set(invokeStatic(
+                        PageProcessorOperations.class,
+                        "selectPositions",
+                        com.facebook.presto.spi.block.Block.class,
+                        scope.getVariable("block_" + ((InputReferenceExpression) projection).getField()),
+                        selectedPositions,
+                        selectedCount,
+                        positionCount)));
+            }
+            else {
+                // evaluate over the dictionary when the input is dictionary encoded, otherwise project the selected positions
+                List<ByteCodeExpression> blocks = blockVariables(scope, getInputChannels(projection));
+                Block projectPositions = new Block()
+                        .append(blockBuilder.set(constantType(callSiteBinder, projection.getType()).invoke(
+                                "createBlockBuilder",
+                                BlockBuilder.class,
+                                newInstance(BlockBuilderStatus.class),
+                                selectedCount)))
+                        .append(thisVariable.invoke(
+                                "projectPositions_" + projectionIndex,
+                                type(void.class),
+                                ImmutableList.<ByteCodeExpression>builder()
+                                        .add(session)
+                                        .addAll(blocks)
+                                        .add(selectedPositions)
+                                        .add(constantInt(0))
+                                        .add(selectedCount)
+                                        .add(blockBuilder)
+                                        .build()))
+                        .append(outputBlock.set(blockBuilder.invoke("build", com.facebook.presto.spi.block.Block.class)));
+
+                body.append(dictionaryProjection.set(thisVariable.invoke(
+                        "projectDictionary_" + projectionIndex,
+                        type(DictionaryBlock.class),
+                        ImmutableList.<ByteCodeExpression>builder()
+                                .add(session)
+                                .addAll(blocks)
+                                .add(selectedPositions)
+                                .add(selectedCount)
+                                .build())))
+                        .append(new IfStatement("if (dictionaryProjection != null)")
+                                .condition(notEqual(dictionaryProjection, constantNull(DictionaryBlock.class)))
+                                .ifTrue(outputBlock.set(invokeStatic(
+                                        PageProcessorOperations.class,
+                                        "selectPositions",
+                                        com.facebook.presto.spi.block.Block.class,
+                                        dictionaryProjection.cast(com.facebook.presto.spi.block.Block.class),
+                                        selectedPositions,
+                                        selectedCount,
+                                        positionCount)))
+                                .ifFalse(projectPositions));
+            }
+
+            body.comment("outputBlocks[%s] = outputBlock_%s;", projectionIndex, projectionIndex)
+                    .append(outputBlocks)
+                    .append(constantInt(projectionIndex))
+                    .append(outputBlock)
+                    .append(OpCode.AASTORE);
+        }
+
+        body.append(newInstance(Page.class, selectedCount, outputBlocks).ret());
+    }
+
+    private void generateFilterPositionsMethod(ClassDefinition classDefinition, RowExpression filter)
+    {
+        Parameter session = arg("session", ConnectorSession.class);
+        List<Integer> inputChannels = getInputChannels(filter);
+        List<Parameter> blocks = toBlockParameters(inputChannels);
+        Parameter start = arg("start", int.class);
+        Parameter end = arg("end", int.class);
+        Parameter selectedPositions = arg("selectedPositions", int[].class);
+        MethodDefinition method = classDefinition.declareMethod(
+                a(PUBLIC),
+                "filterPositions",
+                type(int.class),
+                ImmutableList.<Parameter>builder()
+                        .add(session)
+                        .addAll(blocks)
+                        .add(start)
+                        .add(end)
+                        .add(selectedPositions)
+                        .build());
+
+        Scope scope = method.getScope();
+        Variable thisVariable = method.getThis();
+        Block body = method.getBody();
+
+        if (inputChannels.size() == 1 && isDeterministic(filter)) {
+            // the filter only depends on one block, so a dictionary block can be filtered once per referenced dictionary entry
+            Parameter block = getOnlyElement(blocks);
+            Variable dictionaryBlock = scope.declareVariable(DictionaryBlock.class, "dictionaryBlock");
+            Variable dictionary = scope.declareVariable(com.facebook.presto.spi.block.Block.class, "dictionary");
+            Variable dictionaryResults = scope.declareVariable(boolean[].class, "dictionaryResults");
+            Variable dictionaryPosition = scope.declareVariable(int.class, "dictionaryPosition");
+
+            IfStatement filterDictionaryEntries = new IfStatement()
+                    .condition(dictionaryResults.getElement(dictionaryPosition))
+                    .ifTrue(new Block()
+                            .comment("dictionaryResults[dictionaryPosition] = filter(session, dictionary, dictionaryPosition);")
+                            .append(dictionaryResults)
+                            .append(dictionaryPosition)
+                            .append(thisVariable.invoke("filter", boolean.class, session, dictionary, dictionaryPosition))
+                            .append(OpCode.BASTORE));
+
+            Block filterDictionary = new Block()
+                    .append(dictionaryResults.set(invokeStatic(PageProcessorOperations.class, "markReferencedIds", boolean[].class, dictionaryBlock, start, end)))
+                    .append(new ForLoop()
+                            .initialize(dictionaryPosition.set(constantInt(0)))
+                            .condition(lessThan(dictionaryPosition, dictionary.invoke("getPositionCount", int.class)))
+                            .update(new Block().incrementVariable(dictionaryPosition, (byte) 1))
+                            .body(filterDictionaryEntries))
+                    .append(invokeStatic(
+                            PageProcessorOperations.class,
+                            "selectDictionaryPositions",
+                            int.class,
+                            dictionaryResults,
+                            dictionaryBlock,
+                            start,
+                            end,
+                            selectedPositions).ret());
+
+            body.append(dictionaryBlock.set(invokeStatic(BlockUtils.class, "getDictionaryBlock", DictionaryBlock.class, block)))
+                    .append(new IfStatement("if (dictionaryBlock != null)")
+                            .condition(notEqual(dictionaryBlock, constantNull(DictionaryBlock.class)))
+                            .ifTrue(new Block()
+                                    .append(dictionary.set(dictionaryBlock.invoke("getDictionary", com.facebook.presto.spi.block.Block.class)))
+                                    .append(new IfStatement("if (dictionary.getPositionCount() <= end - start)")
+                                            .condition(lessThanOrEqual(dictionary.invoke("getPositionCount", int.class), subtract(end, start)))
+                                            .ifTrue(filterDictionary))));
         }
 
-        loopBody.append(filterBlock);
+        Variable selectedCount = scope.declareVariable(int.class, "selectedCount");
+        Variable position = scope.declareVariable(int.class, "position");
+
+        IfStatement selectPosition = new IfStatement()
+                .condition(thisVariable.invoke(
+                        "filter",
+                        type(boolean.class),
+                        ImmutableList.<ByteCodeExpression>builder()
+                                .add(session)
+                                .addAll(blocks)
+                                .add(position)
+                                .build()))
+                .ifTrue(new Block()
+                        .comment("selectedPositions[selectedCount++] = position;")
+                        .append(selectedPositions)
+                        .append(selectedCount)
+                        .append(position)
+                        .append(OpCode.IASTORE)
+                        .incrementVariable(selectedCount, (byte) 1));
+
+        body.append(selectedCount.set(constantInt(0)))
+                .append(new ForLoop()
+                        .initialize(position.set(start))
+                        .condition(lessThan(position, end))
+                        .update(new Block().incrementVariable(position, (byte) 1))
+                        .body(selectPosition))
+                .append(selectedCount.ret());
+    }
+
+    private void generateProjectPositionsMethod(ClassDefinition classDefinition, int projectionIndex, RowExpression projection)
+    {
+        Parameter session = arg("session", ConnectorSession.class);
+        List<Parameter> blocks = toBlockParameters(getInputChannels(projection));
+        Parameter selectedPositions = arg("selectedPositions", int[].class);
+        Parameter from = arg("from", int.class);
+        Parameter to = arg("to", int.class);
+        Parameter output = arg("output", BlockBuilder.class);
+        MethodDefinition method = classDefinition.declareMethod(
+                a(PUBLIC),
+                "projectPositions_" + projectionIndex,
+                type(void.class),
+                ImmutableList.<Parameter>builder()
+                        .add(session)
+                        .addAll(blocks)
+                        .add(selectedPositions)
+                        .add(from)
+                        .add(to)
+                        .add(output)
+                        .build());
+
+        Scope scope = method.getScope();
+        Variable thisVariable = method.getThis();
+        Variable index = scope.declareVariable(int.class, "index");
+
+        method.getBody()
+                .append(new ForLoop()
+                        .initialize(index.set(from))
+                        .condition(lessThan(index, to))
+                        .update(new Block().incrementVariable(index, (byte) 1))
+                        .body(thisVariable.invoke(
+                                "project_" + projectionIndex,
+                                type(void.class),
+                                ImmutableList.<ByteCodeExpression>builder()
+                                        .add(session)
+                                        .addAll(blocks)
+                                        .add(selectedPositions.getElement(index))
+                                        .add(output)
+                                        .build())))
+                .ret();
+    }
+
+    private void generateProjectDictionaryMethod(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, int projectionIndex, RowExpression projection)
+    {
+        Parameter session = arg("session", ConnectorSession.class);
+        Parameter block = getOnlyElement(toBlockParameters(getInputChannels(projection)));
+        Parameter selectedPositions = arg("selectedPositions", int[].class);
+        Parameter selectedCount = arg("selectedCount", int.class);
+        MethodDefinition method = classDefinition.declareMethod(
+                a(PUBLIC),
+                "projectDictionary_" + projectionIndex,
+                type(DictionaryBlock.class),
+                session,
+                block,
+                selectedPositions,
+                selectedCount);
+
+        method.comment("Projection over dictionary: %s", projection.toString());
+
+        Scope scope = method.getScope();
+        Variable thisVariable = method.getThis();
+        Variable dictionaryBlock = scope.declareVariable(DictionaryBlock.class, "dictionaryBlock");
+        Variable dictionary = scope.declareVariable(com.facebook.presto.spi.block.Block.class, "dictionary");
+        Variable referenced = scope.declareVariable(boolean[].class, "referenced");
+        Variable dictionaryPosition = scope.declareVariable(int.class, "dictionaryPosition");
+        Variable blockBuilder = scope.declareVariable(BlockBuilder.class, "blockBuilder");
+
+        // the result shares the ids of the input, so the evaluated dictionary is indexed the same way
+        // unreferenced entries are never read, so they are not evaluated (evaluation could fail)
+        IfStatement projectDictionaryEntry = new IfStatement()
+                .condition(referenced.getElement(dictionaryPosition))
+                .ifTrue(thisVariable.invoke("project_" + projectionIndex, void.class, session, dictionary, dictionaryPosition, blockBuilder))
+                .ifFalse(blockBuilder.invoke("appendNull", BlockBuilder.class).pop());
 
         method.getBody()
-                .append(loop)
-                .visitLabel(done)
-                .comment("return position;")
-                .getVariable(position)
-                .retInt();
+                .append(new IfStatement("if (selectedCount == 0) return null;")
+                        .condition(equal(selectedCount, constantInt(0)))
+                        .ifTrue(constantNull(DictionaryBlock.class).ret()))
+                .append(dictionaryBlock.set(invokeStatic(BlockUtils.class, "getDictionaryBlock", DictionaryBlock.class, block)))
+                .append(new IfStatement("if (dictionaryBlock == null) return null;")
+                        .condition(equal(dictionaryBlock, constantNull(DictionaryBlock.class)))
+                        .ifTrue(constantNull(DictionaryBlock.class).ret()))
+                .append(dictionary.set(dictionaryBlock.invoke("getDictionary", com.facebook.presto.spi.block.Block.class)))
+                .append(new IfStatement("if (dictionary.getPositionCount() > selectedCount) return null;")
+                        .condition(greaterThan(dictionary.invoke("getPositionCount", int.class), selectedCount))
+                        .ifTrue(constantNull(DictionaryBlock.class).ret()))
+                .append(referenced.set(invokeStatic(PageProcessorOperations.class, "markReferencedIds", boolean[].class, dictionaryBlock, selectedPositions, selectedCount)))
+                .append(blockBuilder.set(constantType(callSiteBinder, projection.getType()).invoke(
+                        "createBlockBuilder",
+                        BlockBuilder.class,
+                        newInstance(BlockBuilderStatus.class),
+                        dictionary.invoke("getPositionCount", int.class))))
+                .append(new ForLoop()
+                        .initialize(dictionaryPosition.set(constantInt(0)))
+                        .condition(lessThan(dictionaryPosition, dictionary.invoke("getPositionCount", int.class)))
+                        .update(new Block().incrementVariable(dictionaryPosition, (byte) 1))
+                        .body(projectDictionaryEntry))
+                .comment("return new DictionaryBlock(dictionaryBlock.getPositionCount(), blockBuilder.build(), dictionaryBlock.getIds());")
+                .append(newInstance(
+                        DictionaryBlock.class,
+                        dictionaryBlock.invoke("getPositionCount", int.class),
+                        blockBuilder.invoke("build", com.facebook.presto.spi.block.Block.class),
+                        dictionaryBlock.invoke("getIds", Slice.class)).ret());
     }
 
     private void generateFilterMethod(ClassDefinition classDefinition, CallSiteBinder callSiteBinder, RowExpression filter)
@@ -288,13 +720,64 @@ public class PageProcessorCompiler
         return parameters.build();
     }
 
-    private static ByteCodeNode pushBlockVariables(Scope scope, List<Integer> inputs)
+    private static List<ByteCodeExpression> blockVariables(Scope scope, List<Integer> inputs)
     {
-        Block block = new Block();
+        ImmutableList.Builder<ByteCodeExpression> blocks = ImmutableList.builder();
         for (int channel : inputs) {
-            block.append(scope.getVariable("block_" + channel));
+            blocks.add(scope.getVariable("block_" + channel));
+        }
+        return blocks.build();
+    }
+
+    /**
+     * A projection of a single block can be evaluated once per dictionary entry instead of once per position.
+     * Plain field references are excluded since there is nothing to evaluate.
+     */
+    private boolean isDictionaryProjection(RowExpression projection)
+    {
+        return !(projection instanceof InputReferenceExpression) &&
+                getInputChannels(projection).size() == 1 &&
+                isDeterministic(projection);
+    }
+
+    /**
+     * The output page can be assembled one column at a time, keeping dictionary blocks, when every projection is
+     * either a field reference or a dictionary projection.
+     */
+    private boolean isColumnarDictionaryProjection(List<RowExpression> projections)
+    {
+        if (projections.isEmpty()) {
+            return false;
+        }
+        for (RowExpression projection : projections) {
+            if (!(projection instanceof InputReferenceExpression) && !isDictionaryProjection(projection)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isDeterministic(RowExpression expression)
+    {
+        FunctionRegistry registry = metadata.getFunctionRegistry();
+        for (RowExpression subExpression : Expressions.subExpressions(ImmutableList.of(expression))) {
+            if (!(subExpression instanceof CallExpression)) {
+                continue;
+            }
+            Signature signature = ((CallExpression) subExpression).getSignature();
+            if (SPECIAL_FORMS.contains(signature.getName())) {
+                continue;
+            }
+            FunctionInfo function = registry.getExactFunction(signature);
+            if (function == null) {
+                // TODO: temporary hack to deal with magic timestamp literal functions which don't have an "exact" form and need to be "resolved"
+                function = registry.resolveFunction(QualifiedName.of(signature.getName()), signature.getArgumentTypes(), false);
+            }
+            if (function == null || !function.isDeterministic()) {
+                return false;
+            }
         }
-        return block;
+        return true;
     }
 
     private RowExpressionVisitor<Scope, ByteCodeNode> fieldReferenceCompiler(final CallSiteBinder callSiteBinder, final Variable positionVariable, final Variable wasNullVariable)
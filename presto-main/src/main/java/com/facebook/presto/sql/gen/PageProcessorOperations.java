@@ -0,0 +1,135 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.LazySliceArrayBlock;
+import com.facebook.presto.spi.type.Type;
+import com.google.common.primitives.Ints;
+
+// These methods are statically bound by the page processor compiler
+@SuppressWarnings("UnusedDeclaration")
+public final class PageProcessorOperations
+{
+    // lazy blocks only decode the selected positions when at most one in this many positions is selected
+    private static final int SELECTIVE_LOAD_RATIO = 4;
+
+    private PageProcessorOperations()
+    {
+    }
+
+    public static int[] newPositionsArray(int size)
+    {
+        return new int[size];
+    }
+
+    public static Block[] newBlockArray(int size)
+    {
+        return new Block[size];
+    }
+
+    public static Block emptyBlock(Type type)
+    {
+        return type.createBlockBuilder(new BlockBuilderStatus(), 0).build();
+    }
+
+    /**
+     * Returns true if the block is dictionary encoded, or is a lazy block that has not been loaded yet
+     * and therefore could be. Lazy blocks are not loaded by this call.
+     */
+    public static boolean mayBeDictionaryEncoded(Block block)
+    {
+        if (block instanceof LazySliceArrayBlock) {
+            LazySliceArrayBlock lazyBlock = (LazySliceArrayBlock) block;
+            return !lazyBlock.isLoaded() || lazyBlock.isDictionary();
+        }
+        return block instanceof DictionaryBlock;
+    }
+
+    /**
+     * Returns the selected positions of the block, keeping dictionary blocks dictionary encoded. When every
+     * position is selected the block itself is returned, after loading it if it is lazy.
+     */
+    public static Block selectPositions(Block block, int[] selectedPositions, int selectedCount, int positionCount)
+    {
+        if (selectedCount == positionCount) {
+            if (block instanceof LazySliceArrayBlock) {
+                return ((LazySliceArrayBlock) block).createNonLazyBlock();
+            }
+            return block;
+        }
+        return block.copyPositions(Ints.asList(selectedPositions).subList(0, selectedCount));
+    }
+
+    /**
+     * Loads a lazy block that the filter did not read, only decoding the selected positions when few
+     * positions were selected. Nothing is loaded when no position is selected.
+     */
+    public static void loadSelectedPositions(Block block, int[] selectedPositions, int selectedCount, int positionCount)
+    {
+        if (selectedCount == 0 || !(block instanceof LazySliceArrayBlock)) {
+            return;
+        }
+        if (selectedCount * SELECTIVE_LOAD_RATIO <= positionCount) {
+            ((LazySliceArrayBlock) block).assureLoaded(selectedPositions, selectedCount);
+        }
+    }
+
+    /**
+     * Marks the dictionary entries referenced by positions [start, end) of the block
+     */
+    public static boolean[] markReferencedIds(DictionaryBlock block, int start, int end)
+    {
+        boolean[] referenced = new boolean[block.getDictionary().getPositionCount()];
+        for (int position = start; position < end; position++) {
+            referenced[block.getId(position)] = true;
+        }
+        return referenced;
+    }
+
+    /**
+     * Marks the dictionary entries referenced by the first count selected positions of the block
+     */
+    public static boolean[] markReferencedIds(DictionaryBlock block, int[] selectedPositions, int count)
+    {
+        boolean[] referenced = new boolean[block.getDictionary().getPositionCount()];
+        for (int index = 0; index < count; index++) {
+            referenced[block.getId(selectedPositions[index])] = true;
+        }
+        return referenced;
+    }
+
+    public static int selectDictionaryPositions(boolean[] dictionaryResults, DictionaryBlock block, int start, int end, int[] selectedPositions)
+    {
+        int selectedCount = 0;
+        for (int position = start; position < end; position++) {
+            if (dictionaryResults[block.getId(position)]) {
+                selectedPositions[selectedCount] = position;
+                selectedCount++;
+            }
+        }
+        return selectedCount;
+    }
+
+    public static void appendDictionaryPositions(Type type, DictionaryBlock block, int[] selectedPositions, int from, int to, BlockBuilder output)
+    {
+        Block dictionary = block.getDictionary();
+        for (int index = from; index < to; index++) {
+            type.appendTo(dictionary, block.getId(selectedPositions[index]), output);
+        }
+    }
+}
@@ -27,6 +27,7 @@ import com.facebook.presto.sql.planner.plan.LimitNode;
 import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
 import com.facebook.presto.sql.planner.plan.OutputNode;
 import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.sql.planner.plan.PlanVisitor;
 import com.facebook.presto.sql.planner.plan.ProjectNode;
 import com.facebook.presto.sql.planner.plan.RemoteSourceNode;
@@ -44,9 +45,12 @@ import com.facebook.presto.sql.planner.plan.UnnestNode;
 import com.facebook.presto.sql.planner.plan.ValuesNode;
 import com.facebook.presto.sql.planner.plan.WindowNode;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 
 import javax.inject.Inject;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -66,7 +70,7 @@ public class DistributedExecutionPlanner
         PlanFragment currentFragment = root.getFragment();
 
         // get splits for this fragment, this is lazy so split assignments aren't actually calculated here
-        Visitor visitor = new Visitor(session);
+        Visitor visitor = new Visitor(session, currentFragment.getColocatedSources());
         Optional<SplitSource> splits = currentFragment.getRoot().accept(visitor, null);
 
         // create child stages
@@ -77,6 +81,7 @@ public class DistributedExecutionPlanner
 
         return new StageExecutionPlan(currentFragment,
                 splits,
+                visitor.getColocatedSplits(),
                 dependencies.build()
         );
     }
@@ -85,10 +90,18 @@ public class DistributedExecutionPlanner
             extends PlanVisitor<Void, Optional<SplitSource>>
     {
         private final Session session;
+        private final List<PlanNodeId> colocatedSources;
+        private final ImmutableMap.Builder<PlanNodeId, SplitSource> colocatedSplits = ImmutableMap.builder();
 
-        private Visitor(Session session)
+        private Visitor(Session session, List<PlanNodeId> colocatedSources)
         {
             this.session = session;
+            this.colocatedSources = colocatedSources;
+        }
+
+        public Map<PlanNodeId, SplitSource> getColocatedSplits()
+        {
+            return colocatedSplits.build();
         }
 
         @Override
@@ -97,6 +110,12 @@ public class DistributedExecutionPlanner
             // get dataSource for table
             SplitSource splitSource = splitManager.getSplits(session, node.getLayout().get());
 
+            // the splits of a colocated scan are scheduled by bucket along with the splits of the partitioned source
+            if (colocatedSources.contains(node.getId())) {
+                colocatedSplits.put(node.getId(), splitSource);
+                return Optional.empty();
+            }
+
             return Optional.of(splitSource);
         }
 
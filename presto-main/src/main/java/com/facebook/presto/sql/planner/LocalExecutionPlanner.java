@@ -24,6 +24,7 @@ import com.facebook.presto.operator.AggregationOperator.AggregationOperatorFacto
 import com.facebook.presto.operator.CursorProcessor;
 import com.facebook.presto.operator.DeleteOperator.DeleteOperatorFactory;
 import com.facebook.presto.operator.DriverFactory;
+import com.facebook.presto.operator.DynamicFilter;
 import com.facebook.presto.operator.ExchangeClient;
 import com.facebook.presto.operator.ExchangeOperator.ExchangeOperatorFactory;
 import com.facebook.presto.operator.FilterAndProjectOperator;
@@ -33,7 +34,6 @@ import com.facebook.presto.operator.GenericCursorProcessor;
 import com.facebook.presto.operator.GenericPageProcessor;
 import com.facebook.presto.operator.HashAggregationOperator.HashAggregationOperatorFactory;
 import com.facebook.presto.operator.HashBuilderOperator.HashBuilderOperatorFactory;
-import com.facebook.presto.operator.HashPartitionMaskOperator.HashPartitionMaskOperatorFactory;
 import com.facebook.presto.operator.HashSemiJoinOperator.HashSemiJoinOperatorFactory;
 import com.facebook.presto.operator.InMemoryExchange;
 import com.facebook.presto.operator.LimitOperator.LimitOperatorFactory;
@@ -74,6 +74,7 @@ import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.RecordSet;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.SpillerFactory;
 import com.facebook.presto.split.MappedRecordSet;
 import com.facebook.presto.split.PageSinkManager;
 import com.facebook.presto.split.PageSourceProvider;
@@ -93,6 +94,7 @@ import com.facebook.presto.sql.planner.plan.LimitNode;
 import com.facebook.presto.sql.planner.plan.MarkDistinctNode;
 import com.facebook.presto.sql.planner.plan.OutputNode;
 import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.sql.planner.plan.PlanVisitor;
 import com.facebook.presto.sql.planner.plan.ProjectNode;
 import com.facebook.presto.sql.planner.plan.RemoteSourceNode;
@@ -151,12 +153,16 @@ import java.util.Set;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
+import static com.facebook.presto.SystemSessionProperties.getOperatorMemoryLimitBeforeSpill;
 import static com.facebook.presto.SystemSessionProperties.getTaskAggregationConcurrency;
+import static com.facebook.presto.SystemSessionProperties.getTaskDefaultConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskHashBuildConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskJoinConcurrency;
 import static com.facebook.presto.SystemSessionProperties.getTaskWriterCount;
+import static com.facebook.presto.SystemSessionProperties.isDynamicFilteringEnabled;
+import static com.facebook.presto.SystemSessionProperties.isSpillEnabled;
 import static com.facebook.presto.operator.DistinctLimitOperator.DistinctLimitOperatorFactory;
-import static com.facebook.presto.operator.InMemoryExchangeSourceOperator.InMemoryExchangeSourceOperatorFactory.createBroadcastDistribution;
+import static com.facebook.presto.operator.InMemoryExchangeSourceOperator.InMemoryExchangeSourceOperatorFactory.createPartitionedDistribution;
 import static com.facebook.presto.operator.InMemoryExchangeSourceOperator.InMemoryExchangeSourceOperatorFactory.createRandomDistribution;
 import static com.facebook.presto.operator.TableCommitOperator.TableCommitOperatorFactory;
 import static com.facebook.presto.operator.TableCommitOperator.TableCommitter;
@@ -167,6 +173,7 @@ import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.sql.analyzer.ExpressionAnalyzer.getExpressionTypes;
 import static com.facebook.presto.sql.analyzer.ExpressionAnalyzer.getExpressionTypesFromInput;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.FULL;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.RIGHT;
 import static com.facebook.presto.sql.planner.plan.TableWriterNode.CreateHandle;
 import static com.facebook.presto.sql.planner.plan.TableWriterNode.InsertHandle;
@@ -186,6 +193,8 @@ public class LocalExecutionPlanner
 {
     private static final Logger log = Logger.get(LocalExecutionPlanner.class);
 
+    private static final int MIN_SPILLABLE_JOIN_PARTITIONS = 8;
+
     private final Metadata metadata;
     private final SqlParser sqlParser;
 
@@ -198,6 +207,8 @@ public class LocalExecutionPlanner
     private final DataSize maxIndexMemorySize;
     private final IndexJoinLookupStats indexJoinLookupStats;
     private final DataSize maxPartialAggregationMemorySize;
+    private final boolean adaptivePartialAggregationEnabled;
+    private final SpillerFactory spillerFactory;
 
     @Inject
     public LocalExecutionPlanner(
@@ -210,7 +221,8 @@ public class LocalExecutionPlanner
             ExpressionCompiler compiler,
             IndexJoinLookupStats indexJoinLookupStats,
             CompilerConfig compilerConfig,
-            TaskManagerConfig taskManagerConfig)
+            TaskManagerConfig taskManagerConfig,
+            SpillerFactory spillerFactory)
     {
         checkNotNull(compilerConfig, "compilerConfig is null");
         this.pageSourceProvider = checkNotNull(pageSourceProvider, "pageSourceProvider is null");
@@ -223,6 +235,8 @@ public class LocalExecutionPlanner
         this.indexJoinLookupStats = checkNotNull(indexJoinLookupStats, "indexJoinLookupStats is null");
         this.maxIndexMemorySize = checkNotNull(taskManagerConfig, "taskManagerConfig is null").getMaxTaskIndexMemoryUsage();
         this.maxPartialAggregationMemorySize = taskManagerConfig.getMaxPartialAggregationMemoryUsage();
+        this.adaptivePartialAggregationEnabled = taskManagerConfig.isAdaptivePartialAggregationEnabled();
+        this.spillerFactory = checkNotNull(spillerFactory, "spillerFactory is null");
 
         interpreterEnabled = compilerConfig.isInterpreterEnabled();
     }
@@ -232,11 +246,12 @@ public class LocalExecutionPlanner
             List<Symbol> outputLayout,
             Map<Symbol, Type> types,
             PlanDistribution distribution,
+            List<PlanNodeId> partitionedSources,
             OutputFactory outputOperatorFactory)
     {
         LocalExecutionPlanContext context = new LocalExecutionPlanContext(session, types, distribution != PlanDistribution.SOURCE);
 
-        PhysicalOperation physicalOperation = enforceLayout(outputLayout, context, plan.accept(new Visitor(session), context));
+        PhysicalOperation physicalOperation = enforceLayout(outputLayout, context, plan.accept(new Visitor(session, partitionedSources), context));
 
         DriverFactory driverFactory = new DriverFactory(
                 context.isInputDriver(),
@@ -279,9 +294,10 @@ public class LocalExecutionPlanner
     {
         private final Session session;
         private final Map<Symbol, Type> types;
-        private final boolean allowLocalParallel;
+        private boolean allowLocalParallel;
         private final List<DriverFactory> driverFactories;
         private final Optional<IndexSourceContext> indexSourceContext;
+        private final Map<PlanNodeId, DynamicFilter> dynamicFilters;
 
         private int nextOperatorId;
         private boolean inputDriver = true;
@@ -289,7 +305,7 @@ public class LocalExecutionPlanner
 
         public LocalExecutionPlanContext(Session session, Map<Symbol, Type> types, boolean allowLocalParallel)
         {
-            this(session, types, allowLocalParallel, new ArrayList<>(), Optional.empty());
+            this(session, types, allowLocalParallel, new ArrayList<>(), Optional.empty(), new HashMap<>());
         }
 
         private LocalExecutionPlanContext(
@@ -297,13 +313,15 @@ public class LocalExecutionPlanner
                 Map<Symbol, Type> types,
                 boolean allowLocalParallel,
                 List<DriverFactory> driverFactories,
-                Optional<IndexSourceContext> indexSourceContext)
+                Optional<IndexSourceContext> indexSourceContext,
+                Map<PlanNodeId, DynamicFilter> dynamicFilters)
         {
             this.session = session;
             this.types = types;
             this.allowLocalParallel = allowLocalParallel;
             this.driverFactories = driverFactories;
             this.indexSourceContext = indexSourceContext;
+            this.dynamicFilters = dynamicFilters;
         }
 
         public void addDriverFactory(DriverFactory driverFactory)
@@ -331,6 +349,16 @@ public class LocalExecutionPlanner
             return indexSourceContext;
         }
 
+        private void addDynamicFilter(PlanNodeId tableScanId, DynamicFilter dynamicFilter)
+        {
+            checkState(dynamicFilters.put(tableScanId, checkNotNull(dynamicFilter, "dynamicFilter is null")) == null, "Table scan %s already has a dynamic filter", tableScanId);
+        }
+
+        private Optional<DynamicFilter> getDynamicFilter(PlanNodeId tableScanId)
+        {
+            return Optional.ofNullable(dynamicFilters.get(tableScanId));
+        }
+
         private int getNextOperatorId()
         {
             return nextOperatorId++;
@@ -349,12 +377,12 @@ public class LocalExecutionPlanner
         public LocalExecutionPlanContext createSubContext()
         {
             checkState(!indexSourceContext.isPresent(), "index build plan can not have sub-contexts");
-            return new LocalExecutionPlanContext(session, types, allowLocalParallel, driverFactories, indexSourceContext);
+            return new LocalExecutionPlanContext(session, types, allowLocalParallel, driverFactories, indexSourceContext, dynamicFilters);
         }
 
         public LocalExecutionPlanContext createIndexSourceSubContext(IndexSourceContext indexSourceContext)
         {
-            return new LocalExecutionPlanContext(session, types, false, driverFactories, Optional.of(indexSourceContext));
+            return new LocalExecutionPlanContext(session, types, false, driverFactories, Optional.of(indexSourceContext), dynamicFilters);
         }
 
         public boolean isAllowLocalParallel()
@@ -362,6 +390,11 @@ public class LocalExecutionPlanner
             return allowLocalParallel;
         }
 
+        private void setAllowLocalParallel(boolean allowLocalParallel)
+        {
+            this.allowLocalParallel = allowLocalParallel;
+        }
+
         public int getDriverInstanceCount()
         {
             return driverInstanceCount;
@@ -408,10 +441,12 @@ public class LocalExecutionPlanner
             extends PlanVisitor<LocalExecutionPlanContext, PhysicalOperation>
     {
         private final Session session;
+        private final Set<PlanNodeId> partitionedSources;
 
-        private Visitor(Session session)
+        private Visitor(Session session, List<PlanNodeId> partitionedSources)
         {
             this.session = session;
+            this.partitionedSources = ImmutableSet.copyOf(partitionedSources);
         }
 
         @Override
@@ -520,8 +555,36 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitWindow(WindowNode node, LocalExecutionPlanContext context)
         {
-            PhysicalOperation source = node.getSource().accept(this, context);
+            boolean preservesInputOrder = !node.getPrePartitionedInputs().isEmpty() || node.getPreSortedOrderPrefix() > 0;
+            int windowConcurrency = getTaskDefaultConcurrency(session);
+            if (!preservesInputOrder && !node.getPartitionBy().isEmpty() && context.isAllowLocalParallel() && context.getDriverInstanceCount() == 1 && windowConcurrency > 1) {
+                LocalExecutionPlanContext parallelContext = context.createSubContext();
+                parallelContext.setDriverInstanceCount(windowConcurrency);
 
+                // each parallel driver sees all rows of the window partitions assigned to it
+                PhysicalOperation source = createLocalPartitionedExchange(node.getSource(), parallelContext, node.getPartitionBy(), node.getHashSymbol());
+                PhysicalOperation operation = planWindow(node, source, parallelContext);
+
+                // merge parallel tasks back into a single stream
+                return addInMemoryExchange(context, operation, parallelContext);
+            }
+
+            PhysicalOperation source;
+            if (preservesInputOrder) {
+                // the input must arrive grouped as the source produced it, so the source can not gather rows from parallel drivers
+                boolean allowLocalParallel = context.isAllowLocalParallel();
+                context.setAllowLocalParallel(false);
+                source = node.getSource().accept(this, context);
+                context.setAllowLocalParallel(allowLocalParallel);
+            }
+            else {
+                source = node.getSource().accept(this, context);
+            }
+            return planWindow(node, source, context);
+        }
+
+        private PhysicalOperation planWindow(WindowNode node, PhysicalOperation source, LocalExecutionPlanContext context)
+        {
             List<Symbol> partitionBySymbols = node.getPartitionBy();
             List<Symbol> orderBySymbols = node.getOrderBy();
             List<Integer> partitionChannels = ImmutableList.copyOf(getChannelsForSymbols(partitionBySymbols, source.getLayout()));
@@ -590,7 +653,9 @@ public class LocalExecutionPlanner
                     sortOrder,
                     node.getPreSortedOrderPrefix(),
                     new FrameInfo(frame.getType(), frame.getStartType(), frameStartChannel, frame.getEndType(), frameEndChannel),
-                    10_000);
+                    10_000,
+                    isSpillEnabled(context.getSession()) ? Optional.of(spillerFactory) : Optional.empty(),
+                    getOperatorMemoryLimitBeforeSpill(context.getSession()));
 
             return new PhysicalOperation(operatorFactory, outputMappings.build(), source);
         }
@@ -598,8 +663,23 @@ public class LocalExecutionPlanner
         @Override
         public PhysicalOperation visitTopN(TopNNode node, LocalExecutionPlanContext context)
         {
+            int topNConcurrency = getTaskDefaultConcurrency(session);
+            if (!node.isPartial() && context.isAllowLocalParallel() && context.getDriverInstanceCount() == 1 && topNConcurrency > 1) {
+                LocalExecutionPlanContext parallelContext = context.createSubContext();
+                parallelContext.setDriverInstanceCount(topNConcurrency);
+
+                // every parallel driver computes the top N of its share of the rows, and the final top N is chosen from those
+                PhysicalOperation source = createLocalPartitionedExchange(node.getSource(), parallelContext, ImmutableList.of(), Optional.empty());
+                PhysicalOperation operation = planTopN(node, source, parallelContext);
+                return planTopN(node, addInMemoryExchange(context, operation, parallelContext), context);
+            }
+
             PhysicalOperation source = node.getSource().accept(this, context);
+            return planTopN(node, source, context);
+        }
 
+        private PhysicalOperation planTopN(TopNNode node, PhysicalOperation source, LocalExecutionPlanContext context)
+        {
             List<Symbol> orderBySymbols = node.getOrderBy();
 
             List<Integer> sortChannels = new ArrayList<>();
@@ -645,7 +725,9 @@ public class LocalExecutionPlanner
                     outputChannels.build(),
                     10_000,
                     orderByChannels,
-                    sortOrder.build());
+                    sortOrder.build(),
+                    isSpillEnabled(context.getSession()) ? Optional.of(spillerFactory) : Optional.empty(),
+                    getOperatorMemoryLimitBeforeSpill(context.getSession()));
 
             return new PhysicalOperation(operator, source.getLayout(), source);
         }
@@ -694,41 +776,11 @@ public class LocalExecutionPlanner
             LocalExecutionPlanContext parallelContext = context.createSubContext();
             parallelContext.setDriverInstanceCount(aggregationConcurrency);
 
-            // create context for source operators
-            LocalExecutionPlanContext sourceContext = parallelContext.createSubContext();
-            parallelContext.setInputDriver(false);
-
-            // plan aggregation source
-            PhysicalOperation source = node.getSource().accept(this, sourceContext);
-
-            // add a broadcast exchange which copies every page into all parallel workers
-            InMemoryExchange exchange = new InMemoryExchange(source.getTypes(), aggregationConcurrency);
-
-            // finish source operator
-            List<OperatorFactory> factories = ImmutableList.<OperatorFactory>builder()
-                    .addAll(source.getOperatorFactories())
-                    .add(exchange.createSinkFactory(sourceContext.getNextOperatorId()))
-                    .build();
-            exchange.noMoreSinkFactories();
-            parallelContext.addDriverFactory(new DriverFactory(sourceContext.isInputDriver(), false, factories));
-
-            // add broadcast exchange as first parallel operator
-            OperatorFactory exchangeSource = createBroadcastDistribution(parallelContext.getNextOperatorId(), exchange);
-            source = new PhysicalOperation(exchangeSource, source.getLayout());
-
-            // mask each parallel driver to only see one partition of groups
-            HashPartitionMaskOperatorFactory hashPartitionMask = new HashPartitionMaskOperatorFactory(
-                    parallelContext.getNextOperatorId(),
-                    aggregationConcurrency,
-                    exchangeSource.getTypes(),
-                    getChannelsForSymbols(ImmutableList.copyOf(node.getMasks().values()), source.getLayout()),
-                    getChannelsForSymbols(ImmutableList.copyOf(node.getGroupBy()), source.getLayout()),
-                    node.getHashSymbol().map(channelGetter(source)));
-            int defaultMaskChannel = hashPartitionMask.getDefaultMaskChannel();
-            source = new PhysicalOperation(hashPartitionMask, source.getLayout(), source);
+            // each parallel driver sees only its own partition of the groups
+            PhysicalOperation source = createLocalPartitionedExchange(node.getSource(), parallelContext, node.getGroupBy(), node.getHashSymbol());
 
             // plan aggregation
-            PhysicalOperation operation = planGroupByAggregation(node, source, parallelContext, Optional.of(defaultMaskChannel));
+            PhysicalOperation operation = planGroupByAggregation(node, source, parallelContext, Optional.empty());
 
             // merge parallel tasks back into a single stream
             operation = addInMemoryExchange(context, operation, parallelContext);
@@ -883,7 +935,8 @@ public class LocalExecutionPlanner
                             cursorProcessor,
                             pageProcessor,
                             columns,
-                            Lists.transform(rewrittenProjections, forMap(expressionTypes)));
+                            Lists.transform(rewrittenProjections, forMap(expressionTypes)),
+                            context.getDynamicFilter(sourceNode.getId()));
 
                     return new PhysicalOperation(operatorFactory, outputMappings);
                 }
@@ -944,7 +997,8 @@ public class LocalExecutionPlanner
                         new GenericCursorProcessor(filterFunction, projectionFunctions),
                         new GenericPageProcessor(filterFunction, projectionFunctions),
                         columns,
-                        toTypes(projectionFunctions));
+                        toTypes(projectionFunctions),
+                        context.getDynamicFilter(sourceNode.getId()));
 
                 return new PhysicalOperation(operatorFactory, outputMappings);
             }
@@ -981,7 +1035,7 @@ public class LocalExecutionPlanner
             }
 
             List<Type> types = getSourceOperatorTypes(node, context.getTypes());
-            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, types, columns);
+            OperatorFactory operatorFactory = new TableScanOperatorFactory(context.getNextOperatorId(), node.getId(), pageSourceProvider, types, columns, context.getDynamicFilter(node.getId()));
             return new PhysicalOperation(operatorFactory, makeLayout(node));
         }
 
@@ -1274,6 +1328,12 @@ public class LocalExecutionPlanner
                 Optional<Symbol> buildHashSymbol,
                 LocalExecutionPlanContext context)
         {
+            // register the dynamic filter before planning the probe, so the probe side scan picks it up
+            Optional<DynamicFilter> dynamicFilter = Optional.empty();
+            if (isDynamicFilteringEnabled(session) && (node.getType() == INNER || node.getType() == RIGHT)) {
+                dynamicFilter = createDynamicFilter(probeNode, probeSymbols, context);
+            }
+
             // Plan probe and introduce a projection to put all fields from the probe side into a single channel if necessary
             PhysicalOperation probeSource;
             LocalExecutionPlanContext parallelParentContext = null;
@@ -1293,19 +1353,32 @@ public class LocalExecutionPlanner
 
             // do the same on the build side
             LocalExecutionPlanContext buildContext = context.createSubContext();
-            PhysicalOperation buildSource = buildNode.accept(this, buildContext);
+            PhysicalOperation buildSource;
+            if (containsPartitionedSource(buildNode)) {
+                // a colocated build side gets a driver per split, so collect the splits into the single hash build
+                buildSource = createInMemoryExchange(buildNode, buildContext);
+            }
+            else {
+                buildSource = buildNode.accept(this, buildContext);
+            }
             List<Integer> buildChannels = ImmutableList.copyOf(getChannelsForSymbols(buildSymbols, buildSource.getLayout()));
             Optional<Integer> buildHashChannel = buildHashSymbol.map(channelGetter(buildSource));
 
             LookupSourceSupplier lookupSourceSupplier;
             int hashBuildConcurrency = getTaskHashBuildConcurrency(session);
-            if (isBuildOuter(node) || hashBuildConcurrency <= 1) {
+            // spilling requires a partitioned build, which does not support an outer build side
+            Optional<SpillerFactory> joinSpillerFactory = Optional.empty();
+            if (isSpillEnabled(session) && !isBuildOuter(node)) {
+                joinSpillerFactory = Optional.of(spillerFactory);
+            }
+            if (isBuildOuter(node) || (hashBuildConcurrency <= 1 && !joinSpillerFactory.isPresent())) {
                 HashBuilderOperatorFactory hashBuilderOperatorFactory = new HashBuilderOperatorFactory(
                         buildContext.getNextOperatorId(),
                         buildSource.getTypes(),
                         buildChannels,
                         buildHashChannel,
-                        10_000);
+                        10_000,
+                        dynamicFilter);
 
                 context.addDriverFactory(new DriverFactory(
                         buildContext.isInputDriver(),
@@ -1320,13 +1393,20 @@ public class LocalExecutionPlanner
             else {
                 // round partitionCount down to the last power of 2
                 int parallelBuildCount = Integer.highestOneBit(hashBuildConcurrency);
+                if (joinSpillerFactory.isPresent()) {
+                    // spill at a finer grain than the whole build side
+                    parallelBuildCount = Math.max(parallelBuildCount, MIN_SPILLABLE_JOIN_PARTITIONS);
+                }
 
                 ParallelHashBuilder parallelHashBuilder = new ParallelHashBuilder(
                         buildSource.getTypes(),
                         buildChannels,
                         buildHashChannel,
                         10_000,
-                        parallelBuildCount);
+                        parallelBuildCount,
+                        joinSpillerFactory,
+                        getOperatorMemoryLimitBeforeSpill(session),
+                        dynamicFilter);
 
                 context.addDriverFactory(new DriverFactory(
                         buildContext.isInputDriver(),
@@ -1356,7 +1436,7 @@ public class LocalExecutionPlanner
                 outputMappings.put(entry.getKey(), offset + input);
             }
 
-            OperatorFactory operator = createJoinOperator(node.getType(), lookupSourceSupplier, probeSource.getTypes(), probeChannels, probeHashChannel, context);
+            OperatorFactory operator = createJoinOperator(node.getType(), lookupSourceSupplier, probeSource.getTypes(), probeChannels, probeHashChannel, joinSpillerFactory, context);
             PhysicalOperation operation = new PhysicalOperation(operator, outputMappings.build(), probeSource);
 
             // merge parallel joiners back into a single stream
@@ -1367,6 +1447,63 @@ public class LocalExecutionPlanner
             return operation;
         }
 
+        private Optional<DynamicFilter> createDynamicFilter(PlanNode probeNode, List<Symbol> probeSymbols, LocalExecutionPlanContext context)
+        {
+            // follow the probe join symbols through filters and identity projections down to a table scan
+            List<Symbol> sourceSymbols = new ArrayList<>(probeSymbols);
+            PlanNode node = probeNode;
+            while (!(node instanceof TableScanNode)) {
+                if (node instanceof FilterNode) {
+                    node = ((FilterNode) node).getSource();
+                }
+                else if (node instanceof ProjectNode) {
+                    ProjectNode projectNode = (ProjectNode) node;
+                    for (int i = 0; i < sourceSymbols.size(); i++) {
+                        Symbol symbol = sourceSymbols.get(i);
+                        if (symbol == null) {
+                            continue;
+                        }
+                        Expression expression = projectNode.getAssignments().get(symbol);
+                        if (expression instanceof QualifiedNameReference) {
+                            sourceSymbols.set(i, Symbol.fromQualifiedName(((QualifiedNameReference) expression).getName()));
+                        }
+                        else {
+                            sourceSymbols.set(i, null);
+                        }
+                    }
+                    node = projectNode.getSource();
+                }
+                else {
+                    return Optional.empty();
+                }
+            }
+            TableScanNode tableScanNode = (TableScanNode) node;
+            if (context.getDynamicFilter(tableScanNode.getId()).isPresent()) {
+                return Optional.empty();
+            }
+
+            ImmutableMap.Builder<Integer, ColumnHandle> joinClauseColumns = ImmutableMap.builder();
+            for (int i = 0; i < sourceSymbols.size(); i++) {
+                Symbol symbol = sourceSymbols.get(i);
+                if (symbol == null) {
+                    continue;
+                }
+                ColumnHandle column = tableScanNode.getAssignments().get(symbol);
+                Type type = context.getTypes().get(symbol);
+                if (column != null && type != null && DynamicFilter.isSupportedType(type)) {
+                    joinClauseColumns.put(i, column);
+                }
+            }
+            Map<Integer, ColumnHandle> columns = joinClauseColumns.build();
+            if (columns.isEmpty()) {
+                return Optional.empty();
+            }
+
+            DynamicFilter dynamicFilter = new DynamicFilter(columns);
+            context.addDynamicFilter(tableScanNode.getId(), dynamicFilter);
+            return Optional.of(dynamicFilter);
+        }
+
         private boolean isBuildOuter(JoinNode node)
         {
             return node.getType() == RIGHT || node.getType() == FULL;
@@ -1378,13 +1515,14 @@ public class LocalExecutionPlanner
                 List<Type> probeTypes,
                 List<Integer> probeJoinChannels,
                 Optional<Integer> probeHashChannel,
+                Optional<SpillerFactory> spillerFactory,
                 LocalExecutionPlanContext context)
         {
             switch (type) {
                 case INNER:
-                    return LookupJoinOperators.innerJoin(context.getNextOperatorId(), lookupSourceSupplier, probeTypes, probeJoinChannels, probeHashChannel);
+                    return LookupJoinOperators.innerJoin(context.getNextOperatorId(), lookupSourceSupplier, probeTypes, probeJoinChannels, probeHashChannel, spillerFactory);
                 case LEFT:
-                    return LookupJoinOperators.probeOuterJoin(context.getNextOperatorId(), lookupSourceSupplier, probeTypes, probeJoinChannels, probeHashChannel);
+                    return LookupJoinOperators.probeOuterJoin(context.getNextOperatorId(), lookupSourceSupplier, probeTypes, probeJoinChannels, probeHashChannel, spillerFactory);
                 case RIGHT:
                     return LookupJoinOperators.lookupOuterJoin(context.getNextOperatorId(), lookupSourceSupplier, probeTypes, probeJoinChannels, probeHashChannel);
                 case FULL:
@@ -1474,6 +1612,51 @@ public class LocalExecutionPlanner
             return new PhysicalOperation(operatorFactory, layout, exchange);
         }
 
+        /**
+         * Plans the node in its own single driver pipeline and distributes its output over the drivers of the
+         * parallel context. Rows are hash partitioned on the partition symbols, or when there are none, whole
+         * pages are handed to the parallel drivers in turn.
+         */
+        private PhysicalOperation createLocalPartitionedExchange(PlanNode node, LocalExecutionPlanContext parallelContext, List<Symbol> partitionSymbols, Optional<Symbol> hashSymbol)
+        {
+            // create context for source operators
+            LocalExecutionPlanContext sourceContext = parallelContext.createSubContext();
+            parallelContext.setInputDriver(false);
+
+            PhysicalOperation source = node.accept(this, sourceContext);
+
+            InMemoryExchange exchange = new InMemoryExchange(source.getTypes(), parallelContext.getDriverInstanceCount());
+            OperatorFactory sinkFactory;
+            if (partitionSymbols.isEmpty()) {
+                sinkFactory = exchange.createRoundRobinSinkFactory(sourceContext.getNextOperatorId());
+            }
+            else {
+                sinkFactory = exchange.createHashPartitionedSinkFactory(
+                        sourceContext.getNextOperatorId(),
+                        getChannelsForSymbols(partitionSymbols, source.getLayout()),
+                        hashSymbol.map(channelGetter(source)));
+            }
+
+            // finish source operator
+            List<OperatorFactory> factories = ImmutableList.<OperatorFactory>builder()
+                    .addAll(source.getOperatorFactories())
+                    .add(sinkFactory)
+                    .build();
+            exchange.noMoreSinkFactories();
+            parallelContext.addDriverFactory(new DriverFactory(sourceContext.isInputDriver(), false, factories, sourceContext.getDriverInstanceCount()));
+
+            // add exchange source as first parallel operator
+            return new PhysicalOperation(createPartitionedDistribution(parallelContext.getNextOperatorId(), exchange), source.getLayout());
+        }
+
+        private boolean containsPartitionedSource(PlanNode node)
+        {
+            if (node instanceof TableScanNode && partitionedSources.contains(node.getId())) {
+                return true;
+            }
+            return node.getSources().stream().anyMatch(this::containsPartitionedSource);
+        }
+
         private PhysicalOperation createInMemoryExchange(PlanNode node, LocalExecutionPlanContext context)
         {
             LocalExecutionPlanContext subContext = context.createSubContext();
@@ -1691,7 +1874,9 @@ public class LocalExecutionPlanner
                     defaultMaskChannel,
                     hashChannel,
                     10_000,
-                    maxPartialAggregationMemorySize);
+                    maxPartialAggregationMemorySize,
+                    isSpillEnabled(context.getSession()) ? Optional.of(spillerFactory) : Optional.empty(),
+                    adaptivePartialAggregationEnabled);
 
             return new PhysicalOperation(operatorFactory, outputMappings.build(), source);
         }
@@ -66,6 +66,7 @@ public class PlanFragment
     private final List<Symbol> outputLayout;
     private final PlanDistribution distribution;
     private final PlanNodeId partitionedSource;
+    private final List<PlanNodeId> colocatedSources;
     private final List<Type> types;
     private final PlanNode partitionedSourceNode;
     private final List<RemoteSourceNode> remoteSourceNodes;
@@ -82,6 +83,7 @@ public class PlanFragment
             @JsonProperty("outputLayout") List<Symbol> outputLayout,
             @JsonProperty("distribution") PlanDistribution distribution,
             @JsonProperty("partitionedSource") PlanNodeId partitionedSource,
+            @JsonProperty("colocatedSources") List<PlanNodeId> colocatedSources,
             @JsonProperty("outputPartitioning") OutputPartitioning outputPartitioning,
             @JsonProperty("partitionBy") Optional<List<Symbol>> partitionBy,
             @JsonProperty("nullPartitionPolicy") Optional<NullPartitioning> nullPartitionPolicy,
@@ -93,10 +95,12 @@ public class PlanFragment
         this.outputLayout = checkNotNull(outputLayout, "outputLayout is null");
         this.distribution = checkNotNull(distribution, "distribution is null");
         this.partitionedSource = partitionedSource;
+        this.colocatedSources = ImmutableList.copyOf(checkNotNull(colocatedSources, "colocatedSources is null"));
         this.partitionBy = checkNotNull(partitionBy, "partitionBy is null").map(ImmutableList::copyOf);
         this.nullPartitionPolicy = checkNotNull(nullPartitionPolicy, "nullPartitioningPolicy is null");
         this.hash = hash;
 
+        checkArgument(colocatedSources.isEmpty() || distribution == PlanDistribution.SOURCE, "colocated sources are only supported in a SOURCE distributed fragment");
         checkArgument(ImmutableSet.copyOf(root.getOutputSymbols()).containsAll(outputLayout),
                 "Root node outputs (%s) don't include all fragment outputs (%s)", root.getOutputSymbols(), outputLayout);
 
@@ -149,6 +153,25 @@ public class PlanFragment
         return partitionedSource;
     }
 
+    /**
+     * Table scans whose splits are assigned to tasks by bucket along with the splits of the
+     * partitioned source, so that the rows of matching buckets are processed by the same task.
+     */
+    @JsonProperty
+    public List<PlanNodeId> getColocatedSources()
+    {
+        return colocatedSources;
+    }
+
+    public List<PlanNodeId> getPartitionedSources()
+    {
+        ImmutableList.Builder<PlanNodeId> partitionedSources = ImmutableList.builder();
+        if (partitionedSource != null) {
+            partitionedSources.add(partitionedSource);
+        }
+        return partitionedSources.addAll(colocatedSources).build();
+    }
+
     @JsonProperty
     public OutputPartitioning getOutputPartitioning()
     {
@@ -218,6 +241,7 @@ public class PlanFragment
                 .add("id", id)
                 .add("distribution", distribution)
                 .add("partitionedSource", partitionedSource)
+                .add("colocatedSources", colocatedSources)
                 .add("outputPartitioning", outputPartitioning)
                 .add("hash", hash)
                 .toString();
@@ -93,6 +93,7 @@ public class PlanFragmenter
                     properties.getOutputLayout(),
                     properties.getDistribution(),
                     properties.getDistributeBy(),
+                    properties.getColocatedSources(),
                     properties.getOutputPartitioning(),
                     properties.getPartitionBy(),
                     properties.getNullPartitionPolicy(),
@@ -207,6 +208,7 @@ public class PlanFragmenter
 
         private Optional<PlanDistribution> distribution = Optional.empty();
         private PlanNodeId distributeBy;
+        private final List<PlanNodeId> colocatedSources = new ArrayList<>();
 
         public List<SubPlan> getChildren()
         {
@@ -254,7 +256,11 @@ public class PlanFragmenter
 
         public FragmentProperties setSourceDistribution(PlanNodeId source)
         {
-            if (distribution.isPresent()) {
+            if (distribution.isPresent() && distribution.get() == PlanDistribution.SOURCE) {
+                // a second table scan without an exchange in between is only planned for a colocated join
+                colocatedSources.add(source);
+            }
+            else if (distribution.isPresent()) {
                 // If already SINGLE or COORDINATOR_ONLY, leave it as is (this is for single-node execution)
                 checkState(distribution.get() == PlanDistribution.SINGLE || distribution.get() == PlanDistribution.COORDINATOR_ONLY,
                         "Cannot overwrite distribution with %s (currently set to %s)",
@@ -361,5 +367,10 @@ public class PlanFragmenter
         {
             return distributeBy;
         }
+
+        public List<PlanNodeId> getColocatedSources()
+        {
+            return colocatedSources;
+        }
     }
 }
@@ -21,6 +21,7 @@ import com.facebook.presto.metadata.Signature;
 import com.facebook.presto.metadata.TableLayoutResult;
 import com.facebook.presto.operator.aggregation.InternalAggregationFunction;
 import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorBucketing;
 import com.facebook.presto.spi.Constraint;
 import com.facebook.presto.spi.GroupingProperty;
 import com.facebook.presto.spi.LocalProperty;
@@ -77,6 +78,7 @@ import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
+import io.airlift.units.DataSize;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
@@ -104,6 +106,8 @@ import static com.facebook.presto.sql.planner.plan.ExchangeNode.gatheringExchang
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.partitionedExchange;
 import static com.facebook.presto.sql.planner.plan.ExchangeNode.partitionedExchangeNullReplicate;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.FULL;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.INNER;
+import static com.facebook.presto.sql.planner.plan.JoinNode.Type.LEFT;
 import static com.facebook.presto.sql.planner.plan.JoinNode.Type.RIGHT;
 import static com.facebook.presto.util.ImmutableCollectors.toImmutableSet;
 import static com.google.common.base.Preconditions.checkArgument;
@@ -131,10 +135,47 @@ public class AddExchanges
         boolean distributedJoinEnabled = SystemSessionProperties.isDistributedJoinEnabled(session);
         boolean redistributeWrites = SystemSessionProperties.isRedistributeWrites(session);
         boolean preferStreamingOperators = SystemSessionProperties.preferStreamingOperators(session);
-        PlanWithProperties result = plan.accept(new Rewriter(symbolAllocator, idAllocator, symbolAllocator, session, distributedIndexJoins, distributedJoinEnabled, preferStreamingOperators, redistributeWrites), new Context(PreferredProperties.any(), false));
+        JoinDistribution joinDistribution = new JoinDistribution(distributedJoinEnabled, session, types);
+        PlanWithProperties result = plan.accept(new Rewriter(symbolAllocator, idAllocator, symbolAllocator, session, distributedIndexJoins, joinDistribution, preferStreamingOperators, redistributeWrites), new Context(PreferredProperties.any(), false));
         return result.getNode();
     }
 
+    private class JoinDistribution
+    {
+        private final boolean distributedJoins;
+        private final Optional<StatisticsEstimator> estimator;
+        private final DataSize broadcastJoinMaxBuildSize;
+        private final Map<Symbol, Type> types;
+
+        JoinDistribution(boolean distributedJoins, Session session, Map<Symbol, Type> types)
+        {
+            this.distributedJoins = distributedJoins;
+            if (SystemSessionProperties.isAutomaticJoinDistribution(session)) {
+                this.estimator = Optional.of(new StatisticsEstimator(metadata, session));
+            }
+            else {
+                this.estimator = Optional.empty();
+            }
+            this.broadcastJoinMaxBuildSize = SystemSessionProperties.getBroadcastJoinMaxBuildSize(session);
+            this.types = types;
+        }
+
+        /**
+         * Decides if a join with the given build side should hash partition both sides, instead of replicating the build side.
+         * When the size of the build side can not be estimated, the distributed_join session property decides.
+         */
+        boolean isDistributed(PlanNode buildSide)
+        {
+            if (estimator.isPresent()) {
+                Optional<Double> buildSize = estimator.get().estimateSizeInBytes(buildSide, types);
+                if (buildSize.isPresent()) {
+                    return buildSize.get() > broadcastJoinMaxBuildSize.toBytes();
+                }
+            }
+            return distributedJoins;
+        }
+    }
+
     private static class Context
     {
         private PreferredProperties preferredProperties;
@@ -177,18 +218,18 @@ public class AddExchanges
         private final SymbolAllocator symbolAllocator;
         private final Session session;
         private final boolean distributedIndexJoins;
-        private final boolean distributedJoins;
+        private final JoinDistribution joinDistribution;
         private final boolean preferStreamingOperators;
         private final boolean redistributeWrites;
 
-        public Rewriter(SymbolAllocator allocator, PlanNodeIdAllocator idAllocator, SymbolAllocator symbolAllocator, Session session, boolean distributedIndexJoins, boolean distributedJoins, boolean preferStreamingOperators, boolean redistributeWrites)
+        public Rewriter(SymbolAllocator allocator, PlanNodeIdAllocator idAllocator, SymbolAllocator symbolAllocator, Session session, boolean distributedIndexJoins, JoinDistribution joinDistribution, boolean preferStreamingOperators, boolean redistributeWrites)
         {
             this.allocator = allocator;
             this.idAllocator = idAllocator;
             this.symbolAllocator = symbolAllocator;
             this.session = session;
             this.distributedIndexJoins = distributedIndexJoins;
-            this.distributedJoins = distributedJoins;
+            this.joinDistribution = joinDistribution;
             this.preferStreamingOperators = preferStreamingOperators;
             this.redistributeWrites = redistributeWrites;
         }
@@ -729,12 +770,16 @@ public class AddExchanges
             PlanWithProperties left;
             PlanWithProperties right;
 
-            if (distributedJoins || node.getType() == FULL || node.getType() == RIGHT) {
+            if (node.getType() == FULL || node.getType() == RIGHT || joinDistribution.isDistributed(node.getRight())) {
                 // The implementation of full outer join only works if the data is hash partitioned. See LookupJoinOperators#buildSideOuterJoinUnvisitedPositions
 
                 left = node.getLeft().accept(this, context.withPreferredProperties(PreferredProperties.hashPartitioned(leftSymbols)));
                 right = node.getRight().accept(this, context.withPreferredProperties(PreferredProperties.hashPartitioned(rightSymbols)));
 
+                if (isColocatedJoin(node, left.getNode(), right.getNode())) {
+                    return planJoin(node, left, right);
+                }
+
                 // force partitioning
                 if (!left.getProperties().isHashPartitionedOn(leftSymbols)) {
                     left = withDerivedProperties(
@@ -754,6 +799,10 @@ public class AddExchanges
                 left = node.getLeft().accept(this, context.withPreferredProperties(PreferredProperties.any()));
                 right = node.getRight().accept(this, context.withPreferredProperties(PreferredProperties.any()));
 
+                if (isColocatedJoin(node, left.getNode(), right.getNode())) {
+                    return planJoin(node, left, right);
+                }
+
                 if (!left.getProperties().isDistributed() && right.getProperties().isDistributed()) {
                     // force single-node join
                     // TODO: if inner join, flip order and do a broadcast join
@@ -772,6 +821,11 @@ public class AddExchanges
                 }
             }
 
+            return planJoin(node, left, right);
+        }
+
+        private PlanWithProperties planJoin(JoinNode node, PlanWithProperties left, PlanWithProperties right)
+        {
             JoinNode result = new JoinNode(node.getId(),
                     node.getType(),
                     left.getNode(),
@@ -783,13 +837,112 @@ public class AddExchanges
             return new PlanWithProperties(result, deriveProperties(result, ImmutableList.of(left.getProperties(), right.getProperties())));
         }
 
+        /**
+         * A join of two scans bucketed the same way on the join keys does not need an exchange:
+         * the scheduler assigns the splits of matching buckets of both tables to the same task.
+         */
+        private boolean isColocatedJoin(JoinNode node, PlanNode left, PlanNode right)
+        {
+            if (!SystemSessionProperties.isColocatedJoinEnabled(session) || (node.getType() != INNER && node.getType() != LEFT)) {
+                return false;
+            }
+
+            Optional<ScanBucketing> leftBucketing = getScanBucketing(left);
+            Optional<ScanBucketing> rightBucketing = getScanBucketing(right);
+            if (!leftBucketing.isPresent() || !rightBucketing.isPresent()) {
+                return false;
+            }
+
+            ConnectorBucketing leftTableBucketing = leftBucketing.get().getBucketing();
+            ConnectorBucketing rightTableBucketing = rightBucketing.get().getBucketing();
+            if (!leftTableBucketing.getBucketFunction().equals(rightTableBucketing.getBucketFunction()) ||
+                    leftTableBucketing.getBucketCount() != rightTableBucketing.getBucketCount()) {
+                return false;
+            }
+
+            // every pair of bucket columns must be joined on, otherwise equal join keys can be in different buckets
+            List<Symbol> leftBucketSymbols = leftBucketing.get().getBucketSymbols();
+            List<Symbol> rightBucketSymbols = rightBucketing.get().getBucketSymbols();
+            for (int i = 0; i < leftBucketSymbols.size(); i++) {
+                Symbol leftSymbol = leftBucketSymbols.get(i);
+                Symbol rightSymbol = rightBucketSymbols.get(i);
+                if (node.getCriteria().stream().noneMatch(clause -> clause.getLeft().equals(leftSymbol) && clause.getRight().equals(rightSymbol))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Optional<ScanBucketing> getScanBucketing(PlanNode node)
+        {
+            if (node instanceof TableScanNode) {
+                TableScanNode tableScan = (TableScanNode) node;
+                if (!tableScan.getLayout().isPresent()) {
+                    return Optional.empty();
+                }
+
+                Optional<ConnectorBucketing> bucketing = metadata.getLayout(session, tableScan.getLayout().get()).getBucketing();
+                if (!bucketing.isPresent()) {
+                    return Optional.empty();
+                }
+
+                Map<ColumnHandle, Symbol> assignments = ImmutableBiMap.copyOf(tableScan.getAssignments()).inverse();
+                ImmutableList.Builder<Symbol> bucketSymbols = ImmutableList.builder();
+                for (ColumnHandle column : bucketing.get().getBucketColumns()) {
+                    Symbol symbol = assignments.get(column);
+                    if (symbol == null) {
+                        return Optional.empty();
+                    }
+                    bucketSymbols.add(symbol);
+                }
+                return Optional.of(new ScanBucketing(bucketing.get(), bucketSymbols.build()));
+            }
+
+            if (node instanceof FilterNode) {
+                return getScanBucketing(((FilterNode) node).getSource());
+            }
+
+            if (node instanceof ProjectNode) {
+                ProjectNode project = (ProjectNode) node;
+                Optional<ScanBucketing> sourceBucketing = getScanBucketing(project.getSource());
+                if (!sourceBucketing.isPresent()) {
+                    return Optional.empty();
+                }
+
+                Map<Symbol, Symbol> inputToOutput = new HashMap<>();
+                for (Map.Entry<Symbol, Symbol> entry : computeIdentityTranslations(project.getAssignments()).entrySet()) {
+                    inputToOutput.putIfAbsent(entry.getValue(), entry.getKey());
+                }
+
+                ImmutableList.Builder<Symbol> bucketSymbols = ImmutableList.builder();
+                for (Symbol symbol : sourceBucketing.get().getBucketSymbols()) {
+                    Symbol output = inputToOutput.get(symbol);
+                    if (output == null) {
+                        return Optional.empty();
+                    }
+                    bucketSymbols.add(output);
+                }
+                return Optional.of(new ScanBucketing(sourceBucketing.get().getBucketing(), bucketSymbols.build()));
+            }
+
+            if (node instanceof JoinNode) {
+                // the output of a colocated join is bucketed like its probe side
+                JoinNode join = (JoinNode) node;
+                if (join.getType() == INNER || join.getType() == LEFT) {
+                    return getScanBucketing(join.getLeft());
+                }
+            }
+
+            return Optional.empty();
+        }
+
         @Override
         public PlanWithProperties visitSemiJoin(SemiJoinNode node, Context context)
         {
             PlanWithProperties source;
             PlanWithProperties filteringSource;
 
-            if (distributedJoins && !context.isDownstreamIsDelete()) {
+            if (!context.isDownstreamIsDelete() && joinDistribution.isDistributed(node.getFilteringSource())) {
                 List<Symbol> sourceSymbols = ImmutableList.of(node.getSourceJoinSymbol());
                 List<Symbol> filteringSourceSymbols = ImmutableList.of(node.getFilteringSourceJoinSymbol());
 
@@ -1006,6 +1159,28 @@ public class AddExchanges
         }
     }
 
+    private static class ScanBucketing
+    {
+        private final ConnectorBucketing bucketing;
+        private final List<Symbol> bucketSymbols;
+
+        public ScanBucketing(ConnectorBucketing bucketing, List<Symbol> bucketSymbols)
+        {
+            this.bucketing = bucketing;
+            this.bucketSymbols = bucketSymbols;
+        }
+
+        public ConnectorBucketing getBucketing()
+        {
+            return bucketing;
+        }
+
+        public List<Symbol> getBucketSymbols()
+        {
+            return bucketSymbols;
+        }
+    }
+
     private static Map<Symbol, Symbol> computeIdentityTranslations(Map<Symbol, Expression> assignments)
     {
         Map<Symbol, Symbol> outputToInput = new HashMap<>();
@@ -0,0 +1,196 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.SymbolAllocator;
+import com.facebook.presto.sql.planner.optimizations.StatisticsEstimator.Estimate;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanRewriter;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.tree.Expression;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.SystemSessionProperties.isReorderJoinsEnabled;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Reorders trees of inner equi joins using the statistics reported by the connectors.
+ * The largest relation becomes the probe side, and the remaining relations are joined
+ * to it smallest first, so that the smaller side of every join is the one hashed.
+ * Trees with any relation whose size can not be estimated are left unchanged.
+ */
+public class ReorderJoins
+        extends PlanOptimizer
+{
+    private final Metadata metadata;
+
+    public ReorderJoins(Metadata metadata)
+    {
+        this.metadata = checkNotNull(metadata, "metadata is null");
+    }
+
+    @Override
+    public PlanNode optimize(PlanNode plan, Session session, Map<Symbol, Type> types, SymbolAllocator symbolAllocator, PlanNodeIdAllocator idAllocator)
+    {
+        checkNotNull(plan, "plan is null");
+        checkNotNull(session, "session is null");
+        checkNotNull(types, "types is null");
+        checkNotNull(symbolAllocator, "symbolAllocator is null");
+        checkNotNull(idAllocator, "idAllocator is null");
+
+        if (!isReorderJoinsEnabled(session)) {
+            return plan;
+        }
+
+        return PlanRewriter.rewriteWith(new Rewriter(new StatisticsEstimator(metadata, session), idAllocator), plan);
+    }
+
+    private static class Rewriter
+            extends PlanRewriter<Void>
+    {
+        private final StatisticsEstimator estimator;
+        private final PlanNodeIdAllocator idAllocator;
+
+        public Rewriter(StatisticsEstimator estimator, PlanNodeIdAllocator idAllocator)
+        {
+            this.estimator = estimator;
+            this.idAllocator = idAllocator;
+        }
+
+        @Override
+        public PlanNode visitJoin(JoinNode node, RewriteContext<Void> context)
+        {
+            if (!isReorderable(node)) {
+                return context.defaultRewrite(node);
+            }
+
+            List<PlanNode> sources = new ArrayList<>();
+            List<JoinNode.EquiJoinClause> criteria = new ArrayList<>();
+            flatten(node, sources, criteria);
+
+            List<Double> rowCounts = new ArrayList<>();
+            for (PlanNode source : sources) {
+                Optional<Estimate> estimate = estimator.estimate(source);
+                if (!estimate.isPresent()) {
+                    return context.defaultRewrite(node);
+                }
+                rowCounts.add(estimate.get().getRowCount());
+            }
+
+            // the largest relation is the probe side of every join, ties keep the original order
+            int probe = 0;
+            for (int i = 1; i < sources.size(); i++) {
+                if (rowCounts.get(i) > rowCounts.get(probe)) {
+                    probe = i;
+                }
+            }
+
+            PlanNode result = context.rewrite(sources.get(probe));
+            Set<Symbol> joinedSymbols = new HashSet<>(sources.get(probe).getOutputSymbols());
+            Set<Integer> remaining = new HashSet<>();
+            for (int i = 0; i < sources.size(); i++) {
+                if (i != probe) {
+                    remaining.add(i);
+                }
+            }
+
+            while (!remaining.isEmpty()) {
+                // join the smallest relation connected to the relations joined so far
+                int build = -1;
+                for (int i = 0; i < sources.size(); i++) {
+                    if (remaining.contains(i) && !connectingClauses(criteria, joinedSymbols, sources.get(i)).isEmpty()) {
+                        if (build == -1 || rowCounts.get(i) < rowCounts.get(build)) {
+                            build = i;
+                        }
+                    }
+                }
+                if (build == -1) {
+                    // the remaining relations are only connected through a cross join, keep the original order
+                    return context.defaultRewrite(node);
+                }
+
+                PlanNode source = sources.get(build);
+                List<JoinNode.EquiJoinClause> clauses = connectingClauses(criteria, joinedSymbols, source);
+                result = new JoinNode(idAllocator.getNextId(), JoinNode.Type.INNER, result, context.rewrite(source), clauses, Optional.empty(), Optional.empty());
+                joinedSymbols.addAll(source.getOutputSymbols());
+                remaining.remove(build);
+            }
+
+            if (result.getOutputSymbols().equals(node.getOutputSymbols())) {
+                return result;
+            }
+
+            // restore the order of the output symbols of the original join
+            ImmutableMap.Builder<Symbol, Expression> assignments = ImmutableMap.builder();
+            for (Symbol symbol : node.getOutputSymbols()) {
+                assignments.put(symbol, symbol.toQualifiedNameReference());
+            }
+            return new ProjectNode(idAllocator.getNextId(), result, assignments.build());
+        }
+
+        private static boolean isReorderable(JoinNode node)
+        {
+            return node.getType() == JoinNode.Type.INNER &&
+                    !node.getCriteria().isEmpty() &&
+                    !node.getLeftHashSymbol().isPresent() &&
+                    !node.getRightHashSymbol().isPresent();
+        }
+
+        private static void flatten(PlanNode node, List<PlanNode> sources, List<JoinNode.EquiJoinClause> criteria)
+        {
+            if (!(node instanceof JoinNode) || !isReorderable((JoinNode) node)) {
+                sources.add(node);
+                return;
+            }
+
+            JoinNode join = (JoinNode) node;
+            flatten(join.getLeft(), sources, criteria);
+            flatten(join.getRight(), sources, criteria);
+            criteria.addAll(join.getCriteria());
+        }
+
+        /**
+         * Returns the clauses joining the given symbols to the source, with the joined symbols on the left.
+         */
+        private static List<JoinNode.EquiJoinClause> connectingClauses(List<JoinNode.EquiJoinClause> criteria, Set<Symbol> joinedSymbols, PlanNode source)
+        {
+            Set<Symbol> sourceSymbols = ImmutableSet.copyOf(source.getOutputSymbols());
+            ImmutableList.Builder<JoinNode.EquiJoinClause> clauses = ImmutableList.builder();
+            for (JoinNode.EquiJoinClause clause : criteria) {
+                if (joinedSymbols.contains(clause.getLeft()) && sourceSymbols.contains(clause.getRight())) {
+                    clauses.add(clause);
+                }
+                else if (joinedSymbols.contains(clause.getRight()) && sourceSymbols.contains(clause.getLeft())) {
+                    clauses.add(new JoinNode.EquiJoinClause(clause.getRight(), clause.getLeft()));
+                }
+            }
+            return clauses.build();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.metadata.Metadata;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ColumnStatistics;
+import com.facebook.presto.spi.TableStatistics;
+import com.facebook.presto.spi.type.FixedWidthType;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.plan.AggregationNode;
+import com.facebook.presto.sql.planner.plan.FilterNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.LimitNode;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.PlanNodeId;
+import com.facebook.presto.sql.planner.plan.PlanVisitor;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.planner.plan.SemiJoinNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.facebook.presto.sql.tree.Expression;
+import com.facebook.presto.sql.tree.QualifiedNameReference;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Estimates the number of rows produced by a plan, and the number of distinct values
+ * of its output symbols, from the statistics reported by the connectors.
+ * Plans containing nodes whose output can not be estimated have no estimate.
+ */
+public class StatisticsEstimator
+{
+    // selectivity assumed for filters, since predicates are not analyzed
+    private static final double FILTER_SELECTIVITY = 0.5;
+    // size assumed for values of variable width types
+    private static final int VARIABLE_WIDTH_VALUE_SIZE = 32;
+
+    private final Metadata metadata;
+    private final Session session;
+    private final Map<PlanNodeId, Optional<Estimate>> estimates = new HashMap<>();
+
+    public StatisticsEstimator(Metadata metadata, Session session)
+    {
+        this.metadata = checkNotNull(metadata, "metadata is null");
+        this.session = checkNotNull(session, "session is null");
+    }
+
+    public Optional<Estimate> estimate(PlanNode node)
+    {
+        Optional<Estimate> estimate = estimates.get(node.getId());
+        if (estimate == null) {
+            estimate = node.accept(new Visitor(), null);
+            estimates.put(node.getId(), estimate);
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimates the size in bytes of the output of the plan, from the estimated row count
+     * and the width of the types of the output symbols.
+     */
+    public Optional<Double> estimateSizeInBytes(PlanNode node, Map<Symbol, Type> types)
+    {
+        Optional<Estimate> estimate = estimate(node);
+        if (!estimate.isPresent()) {
+            return Optional.empty();
+        }
+
+        long rowSize = 0;
+        for (Symbol symbol : node.getOutputSymbols()) {
+            Type type = types.get(symbol);
+            if (type instanceof FixedWidthType) {
+                rowSize += ((FixedWidthType) type).getFixedSize();
+            }
+            else {
+                rowSize += VARIABLE_WIDTH_VALUE_SIZE;
+            }
+        }
+        return Optional.of(estimate.get().getRowCount() * rowSize);
+    }
+
+    public static class Estimate
+    {
+        private final double rowCount;
+        private final Map<Symbol, Double> distinctValues;
+
+        public Estimate(double rowCount, Map<Symbol, Double> distinctValues)
+        {
+            checkArgument(rowCount >= 0, "rowCount is negative");
+            this.rowCount = rowCount;
+            this.distinctValues = ImmutableMap.copyOf(checkNotNull(distinctValues, "distinctValues is null"));
+        }
+
+        public double getRowCount()
+        {
+            return rowCount;
+        }
+
+        /**
+         * Number of distinct values of the symbol, if known. Never larger than the row count.
+         */
+        public Optional<Double> getDistinctValues(Symbol symbol)
+        {
+            Double distinct = distinctValues.get(symbol);
+            if (distinct == null) {
+                return Optional.empty();
+            }
+            return Optional.of(Math.min(distinct, rowCount));
+        }
+
+        private Estimate scale(double selectivity)
+        {
+            ImmutableMap.Builder<Symbol, Double> distinctValues = ImmutableMap.builder();
+            double rowCount = this.rowCount * selectivity;
+            for (Map.Entry<Symbol, Double> entry : this.distinctValues.entrySet()) {
+                distinctValues.put(entry.getKey(), Math.min(entry.getValue(), rowCount));
+            }
+            return new Estimate(rowCount, distinctValues.build());
+        }
+    }
+
+    private class Visitor
+            extends PlanVisitor<Void, Optional<Estimate>>
+    {
+        @Override
+        protected Optional<Estimate> visitPlan(PlanNode node, Void context)
+        {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<Estimate> visitTableScan(TableScanNode node, Void context)
+        {
+            TableStatistics statistics = metadata.getTableStatistics(session, node.getTable());
+            if (!statistics.getRowCount().isPresent()) {
+                return Optional.empty();
+            }
+
+            ImmutableMap.Builder<Symbol, Double> distinctValues = ImmutableMap.builder();
+            for (Map.Entry<Symbol, ColumnHandle> entry : node.getAssignments().entrySet()) {
+                ColumnStatistics columnStatistics = statistics.getColumnStatistics().get(entry.getValue());
+                if (columnStatistics != null && columnStatistics.getDistinctValuesCount().isPresent()) {
+                    distinctValues.put(entry.getKey(), (double) columnStatistics.getDistinctValuesCount().getAsLong());
+                }
+            }
+            return Optional.of(new Estimate(statistics.getRowCount().getAsLong(), distinctValues.build()));
+        }
+
+        @Override
+        public Optional<Estimate> visitFilter(FilterNode node, Void context)
+        {
+            return estimate(node.getSource()).map(estimate -> estimate.scale(FILTER_SELECTIVITY));
+        }
+
+        @Override
+        public Optional<Estimate> visitProject(ProjectNode node, Void context)
+        {
+            Optional<Estimate> source = estimate(node.getSource());
+            if (!source.isPresent()) {
+                return Optional.empty();
+            }
+
+            // distinct values are only known for symbols passed through unchanged
+            ImmutableMap.Builder<Symbol, Double> distinctValues = ImmutableMap.builder();
+            for (Map.Entry<Symbol, Expression> entry : node.getAssignments().entrySet()) {
+                if (entry.getValue() instanceof QualifiedNameReference) {
+                    Symbol reference = Symbol.fromQualifiedName(((QualifiedNameReference) entry.getValue()).getName());
+                    source.get().getDistinctValues(reference).ifPresent(distinct -> distinctValues.put(entry.getKey(), distinct));
+                }
+            }
+            return Optional.of(new Estimate(source.get().getRowCount(), distinctValues.build()));
+        }
+
+        @Override
+        public Optional<Estimate> visitLimit(LimitNode node, Void context)
+        {
+            Optional<Estimate> source = estimate(node.getSource());
+            if (!source.isPresent()) {
+                return Optional.of(new Estimate(node.getCount(), ImmutableMap.of()));
+            }
+            double rowCount = source.get().getRowCount();
+            return Optional.of(source.get().scale(rowCount == 0 ? 1 : Math.min(1, node.getCount() / rowCount)));
+        }
+
+        @Override
+        public Optional<Estimate> visitSemiJoin(SemiJoinNode node, Void context)
+        {
+            // a semi join adds a column, but does not remove rows
+            return estimate(node.getSource());
+        }
+
+        @Override
+        public Optional<Estimate> visitAggregation(AggregationNode node, Void context)
+        {
+            Optional<Estimate> source = estimate(node.getSource());
+            if (!source.isPresent()) {
+                return Optional.empty();
+            }
+            if (node.getGroupBy().isEmpty()) {
+                return Optional.of(new Estimate(1, ImmutableMap.of()));
+            }
+
+            double groups = 1;
+            ImmutableMap.Builder<Symbol, Double> distinctValues = ImmutableMap.builder();
+            for (Symbol symbol : node.getGroupBy()) {
+                Optional<Double> distinct = source.get().getDistinctValues(symbol);
+                if (!distinct.isPresent()) {
+                    // without distinct values, assume no reduction
+                    groups = Double.POSITIVE_INFINITY;
+                    continue;
+                }
+                groups *= distinct.get();
+                distinctValues.put(symbol, distinct.get());
+            }
+            return Optional.of(new Estimate(Math.min(groups, source.get().getRowCount()), distinctValues.build()));
+        }
+
+        @Override
+        public Optional<Estimate> visitJoin(JoinNode node, Void context)
+        {
+            Optional<Estimate> left = estimate(node.getLeft());
+            Optional<Estimate> right = estimate(node.getRight());
+            if (!left.isPresent() || !right.isPresent()) {
+                return Optional.empty();
+            }
+            return Optional.of(estimateJoin(node.getType(), left.get(), right.get(), node));
+        }
+    }
+
+    private static Estimate estimateJoin(JoinNode.Type type, Estimate left, Estimate right, JoinNode node)
+    {
+        Map<Symbol, Double> distinctValues = new HashMap<>();
+        distinctValues.putAll(left.distinctValues);
+        distinctValues.putAll(right.distinctValues);
+
+        double crossProduct = left.getRowCount() * right.getRowCount();
+        double rowCount;
+        if (node.getCriteria().isEmpty()) {
+            rowCount = crossProduct;
+        }
+        else {
+            // each equi join clause matches a row with the rows sharing its value on the other side,
+            // assuming the values of the side with fewer distinct values are contained in the other side
+            double selectivity = 1;
+            boolean known = false;
+            for (JoinNode.EquiJoinClause clause : node.getCriteria()) {
+                Optional<Double> leftDistinct = left.getDistinctValues(clause.getLeft());
+                Optional<Double> rightDistinct = right.getDistinctValues(clause.getRight());
+                if (leftDistinct.isPresent() && rightDistinct.isPresent()) {
+                    double distinct = Math.max(leftDistinct.get(), rightDistinct.get());
+                    if (distinct > 0) {
+                        selectivity = Math.min(selectivity, 1 / distinct);
+                        known = true;
+                    }
+                }
+            }
+            if (known) {
+                rowCount = crossProduct * selectivity;
+            }
+            else {
+                // without distinct values, assume a foreign key join
+                rowCount = Math.max(left.getRowCount(), right.getRowCount());
+            }
+        }
+
+        switch (type) {
+            case LEFT:
+                rowCount = Math.max(rowCount, left.getRowCount());
+                break;
+            case RIGHT:
+                rowCount = Math.max(rowCount, right.getRowCount());
+                break;
+            case FULL:
+                rowCount = Math.max(rowCount, Math.max(left.getRowCount(), right.getRowCount()));
+                break;
+            default:
+                break;
+        }
+        return new Estimate(rowCount, distinctValues);
+    }
+}
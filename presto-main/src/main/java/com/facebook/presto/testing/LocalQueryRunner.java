@@ -63,6 +63,7 @@ import com.facebook.presto.spi.block.Block;
 import com.facebook.presto.spi.block.BlockBuilder;
 import com.facebook.presto.spi.block.BlockEncodingSerde;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.BinarySpillerFactory;
 import com.facebook.presto.split.PageSinkManager;
 import com.facebook.presto.split.PageSourceManager;
 import com.facebook.presto.split.SplitManager;
@@ -386,7 +387,8 @@ public class LocalQueryRunner
                 compiler,
                 new IndexJoinLookupStats(),
                 new CompilerConfig().setInterpreterEnabled(false), // make sure tests fail if compiler breaks
-                new TaskManagerConfig().setTaskDefaultConcurrency(4)
+                new TaskManagerConfig().setTaskDefaultConcurrency(4),
+                new BinarySpillerFactory(blockEncodingSerde, new FeaturesConfig())
         );
 
         // plan query
@@ -395,6 +397,7 @@ public class LocalQueryRunner
                 subplan.getFragment().getOutputLayout(),
                 plan.getTypes(),
                 subplan.getFragment().getDistribution(),
+                subplan.getFragment().getPartitionedSources(),
                 outputFactory);
 
         // generate sources
@@ -14,6 +14,7 @@
 package com.facebook.presto.testing;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.execution.QueryId;
 import com.facebook.presto.execution.TaskId;
 import com.facebook.presto.execution.TaskStateMachine;
 import com.facebook.presto.memory.MemoryPool;
@@ -45,7 +46,7 @@ public final class TestingTaskContext
     {
         MemoryPool memoryPool = new MemoryPool(new MemoryPoolId("test"), new DataSize(1, GIGABYTE), false);
         MemoryPool systemMemoryPool = new MemoryPool(new MemoryPoolId("testSystem"), new DataSize(1, GIGABYTE), false);
-        QueryContext queryContext = new QueryContext(false, new DataSize(10, MEGABYTE), memoryPool, systemMemoryPool, executor);
+        QueryContext queryContext = new QueryContext(new QueryId("query"), false, new DataSize(10, MEGABYTE), memoryPool, systemMemoryPool, executor);
         return createTaskContext(queryContext, executor, session, maxMemory, new DataSize(1, MEGABYTE));
     }
 
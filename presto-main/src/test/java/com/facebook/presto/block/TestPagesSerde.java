@@ -27,13 +27,16 @@ import org.testng.annotations.Test;
 import java.util.Iterator;
 import java.util.List;
 
+import static com.facebook.presto.block.PagesSerde.readCompressedPages;
 import static com.facebook.presto.block.PagesSerde.readPages;
+import static com.facebook.presto.block.PagesSerde.writeCompressedPages;
 import static com.facebook.presto.block.PagesSerde.writePages;
 import static com.facebook.presto.operator.PageAssertions.assertPageEquals;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestPagesSerde
 {
@@ -62,6 +65,41 @@ public class TestPagesSerde
         assertFalse(pageIterator.hasNext());
     }
 
+    @Test
+    public void testCompressedRoundTrip()
+    {
+        BlockBuilder smallBlockBuilder = VARCHAR.createBlockBuilder(new BlockBuilderStatus(), 1);
+        VARCHAR.writeString(smallBlockBuilder, "alice");
+        Page smallPage = new Page(smallBlockBuilder.build());
+
+        BlockBuilder largeBlockBuilder = VARCHAR.createBlockBuilder(new BlockBuilderStatus(), 1000);
+        for (int i = 0; i < 1000; i++) {
+            VARCHAR.writeString(largeBlockBuilder, "alice");
+        }
+        Page largePage = new Page(largeBlockBuilder.build());
+
+        DynamicSliceOutput sliceOutput = new DynamicSliceOutput(1024);
+        PagesCompressionStats writerStats = new PagesCompressionStats();
+        writeCompressedPages(blockEncodingManager, sliceOutput, PageCompression.SNAPPY, 100, writerStats, ImmutableList.of(smallPage, largePage, smallPage));
+
+        PagesCompressionStats stats = new PagesCompressionStats();
+        List<Type> types = ImmutableList.<Type>of(VARCHAR);
+        Iterator<Page> pageIterator = readCompressedPages(blockEncodingManager, sliceOutput.slice().getInput(), stats);
+        assertPageEquals(types, pageIterator.next(), smallPage);
+        assertPageEquals(types, pageIterator.next(), largePage);
+        assertPageEquals(types, pageIterator.next(), smallPage);
+        assertFalse(pageIterator.hasNext());
+
+        // only the large page is above the threshold, so only it is compressed
+        assertTrue(stats.getCompressionRatio() > 1.0);
+        assertTrue(stats.getUncompressedDataSize().toBytes() > stats.getCompressedDataSize().toBytes());
+        assertTrue(sliceOutput.size() < serializedSize(types, largePage));
+
+        // the writer and the reader agree on the transferred and uncompressed sizes
+        assertEquals(writerStats.getCompressedDataSize(), stats.getCompressedDataSize());
+        assertEquals(writerStats.getUncompressedDataSize(), stats.getUncompressedDataSize());
+    }
+
     @Test
     public void testBigintSerializedSize()
     {
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.execution.StateMachine.StateChangeListener;
+import com.facebook.presto.memory.VersionedMemoryPoolId;
+import io.airlift.units.Duration;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.execution.QueryState.FAILED;
+import static com.facebook.presto.execution.QueryState.QUEUED;
+import static com.facebook.presto.execution.QueryState.RUNNING;
+import static com.facebook.presto.memory.LocalMemoryManager.GENERAL_POOL;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+public class MockQueryExecution
+        implements QueryExecution
+{
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private final QueryId queryId = new QueryId("query_" + NEXT_ID.getAndIncrement());
+    private final long memoryUsage;
+    private QueryState state = QUEUED;
+
+    public MockQueryExecution(long memoryUsage)
+    {
+        this.memoryUsage = memoryUsage;
+    }
+
+    @Override
+    public QueryId getQueryId()
+    {
+        return queryId;
+    }
+
+    @Override
+    public QueryInfo getQueryInfo()
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public QueryState getState()
+    {
+        return state;
+    }
+
+    @Override
+    public Duration waitForStateChange(QueryState currentState, Duration maxWait)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public VersionedMemoryPoolId getMemoryPool()
+    {
+        return new VersionedMemoryPoolId(GENERAL_POOL, 0);
+    }
+
+    @Override
+    public void setMemoryPool(VersionedMemoryPoolId poolId)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public long getTotalMemoryReservation()
+    {
+        return memoryUsage;
+    }
+
+    @Override
+    public Duration getTotalCpuTime()
+    {
+        return new Duration(0, NANOSECONDS);
+    }
+
+    @Override
+    public Session getSession()
+    {
+        return TEST_SESSION;
+    }
+
+    @Override
+    public void start()
+    {
+        state = RUNNING;
+    }
+
+    @Override
+    public void fail(Throwable cause)
+    {
+        state = FAILED;
+    }
+
+    @Override
+    public void cancelStage(StageId stageId)
+    {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void recordHeartbeat()
+    {
+    }
+
+    @Override
+    public void pruneInfo()
+    {
+    }
+
+    @Override
+    public void addStateChangeListener(StateChangeListener<QueryState> stateChangeListener)
+    {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -37,6 +37,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
 import io.airlift.units.DataSize;
 import org.joda.time.DateTime;
@@ -76,7 +77,6 @@ public class MockRemoteTaskFactory
         TaskId taskId = new TaskId(new StageId("test", "1"), "1");
         Symbol symbol = new Symbol("column");
         PlanNodeId tableScanNodeId = new PlanNodeId("test");
-        PlanNodeId sourceId = new PlanNodeId("sourceId");
         PlanFragment testFragment = new PlanFragment(
                 new PlanFragmentId("test"),
                 new TableScanNode(
@@ -91,6 +91,7 @@ public class MockRemoteTaskFactory
                 ImmutableList.of(symbol),
                 PlanFragment.PlanDistribution.SOURCE,
                 tableScanNodeId,
+                ImmutableList.of(),
                 PlanFragment.OutputPartitioning.NONE,
                 Optional.empty(),
                 Optional.empty(),
@@ -99,7 +100,7 @@ public class MockRemoteTaskFactory
 
         ImmutableMultimap.Builder<PlanNodeId, Split> initialSplits = ImmutableMultimap.builder();
         for (Split sourceSplit : splits) {
-            initialSplits.put(sourceId, sourceSplit);
+            initialSplits.put(tableScanNodeId, sourceSplit);
         }
         return createRemoteTask(TEST_SESSION, taskId, newNode, testFragment, initialSplits.build(), OutputBuffers.INITIAL_EMPTY_OUTPUT_BUFFERS);
     }
@@ -145,7 +146,7 @@ public class MockRemoteTaskFactory
 
             MemoryPool memoryPool = new MemoryPool(new MemoryPoolId("test"), new DataSize(1, GIGABYTE), false);
             MemoryPool memorySystemPool = new MemoryPool(new MemoryPoolId("testSystem"), new DataSize(1, GIGABYTE), false);
-            this.taskContext = new QueryContext(false, new DataSize(1, MEGABYTE), memoryPool, memorySystemPool, executor).addTaskContext(taskStateMachine, TEST_SESSION, new DataSize(256, MEGABYTE), new DataSize(1, MEGABYTE), true, true);
+            this.taskContext = new QueryContext(taskId.getQueryId(), false, new DataSize(1, MEGABYTE), memoryPool, memorySystemPool, executor).addTaskContext(taskStateMachine, TEST_SESSION, new DataSize(256, MEGABYTE), new DataSize(1, MEGABYTE), true, true);
 
             this.location = URI.create("fake://task/" + taskId);
 
@@ -183,6 +184,12 @@ public class MockRemoteTaskFactory
                     failures);
         }
 
+        @Override
+        public TaskStatus getTaskStatus()
+        {
+            return TaskStatus.fromTaskInfo(getTaskInfo());
+        }
+
         @Override
         public void start()
         {
@@ -212,6 +219,19 @@ public class MockRemoteTaskFactory
             }
         }
 
+        @Override
+        public synchronized List<Split> reclaimPartitionedSplits(int maxSplits)
+        {
+            if (fragment.getPartitionedSource() == null) {
+                return ImmutableList.of();
+            }
+            List<Split> reclaimed = ImmutableList.copyOf(Iterables.limit(splits.get(fragment.getPartitionedSource()), maxSplits));
+            for (Split split : reclaimed) {
+                splits.remove(fragment.getPartitionedSource(), split);
+            }
+            return reclaimed;
+        }
+
         @Override
         public void setOutputBuffers(OutputBuffers outputBuffers)
         {
@@ -224,6 +244,12 @@ public class MockRemoteTaskFactory
             taskStateMachine.addStateChangeListener(newValue -> stateChangeListener.stateChanged(getTaskInfo()));
         }
 
+        @Override
+        public void addStatusChangeListener(StateChangeListener<TaskStatus> statusChangeListener)
+        {
+            taskStateMachine.addStateChangeListener(newValue -> statusChangeListener.stateChanged(getTaskStatus()));
+        }
+
         @Override
         public void cancel()
         {
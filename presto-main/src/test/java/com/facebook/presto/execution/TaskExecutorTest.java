@@ -17,15 +17,23 @@ import com.facebook.presto.execution.TaskExecutor.TaskHandle;
 import com.google.common.collect.ImmutableList;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import io.airlift.testing.TestingTicker;
 import io.airlift.units.Duration;
 import org.testng.annotations.Test;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Phaser;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.collect.Iterables.getOnlyElement;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 public class TaskExecutorTest
 {
@@ -142,6 +150,121 @@ public class TaskExecutorTest
         }
     }
 
+    @Test
+    public void testLevelPromotion()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(1, 1, ticker);
+        List<String> runs = new CopyOnWriteArrayList<>();
+
+        try {
+            TaskHandle taskHandle = taskExecutor.addTask(new TaskId("test", "test", "long"));
+            TimedJob job = new TimedJob("long", ticker, runs, 70, SECONDS.toNanos(1));
+            ListenableFuture<?> future = getOnlyElement(taskExecutor.enqueueSplits(taskHandle, false, ImmutableList.of(job)));
+
+            taskExecutor.start();
+            future.get(10, TimeUnit.SECONDS);
+
+            // each quantum is charged to the level the task was on when the split was scheduled
+            assertEquals(taskExecutor.getScheduledNanosLevel0(), SECONDS.toNanos(1));
+            assertEquals(taskExecutor.getScheduledNanosLevel1(), SECONDS.toNanos(9));
+            assertEquals(taskExecutor.getScheduledNanosLevel2(), SECONDS.toNanos(50));
+            assertEquals(taskExecutor.getScheduledNanosLevel3(), SECONDS.toNanos(10));
+            assertEquals(taskExecutor.getScheduledNanosLevel4(), 0);
+
+            taskExecutor.removeTask(taskHandle);
+            assertEquals(taskExecutor.getCompletedTasksLevel0(), 0);
+            assertEquals(taskExecutor.getCompletedTasksLevel3(), 1);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    @Test
+    public void testShortTaskScheduledAheadOfLongTask()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(1, 1, ticker);
+        List<String> runs = new CopyOnWriteArrayList<>();
+
+        try {
+            TaskHandle longTask = taskExecutor.addTask(new TaskId("test", "test", "long"));
+            CountDownLatch reachedLevel3 = new CountDownLatch(1);
+            CountDownLatch resume = new CountDownLatch(1);
+            TimedJob longJob = new TimedJob("long", ticker, runs, 80, SECONDS.toNanos(1))
+            {
+                @Override
+                public ListenableFuture<?> processFor(Duration duration)
+                        throws Exception
+                {
+                    if (getCompletedCalls() == 65) {
+                        reachedLevel3.countDown();
+                        resume.await();
+                    }
+                    return super.processFor(duration);
+                }
+            };
+            ListenableFuture<?> longFuture = getOnlyElement(taskExecutor.enqueueSplits(longTask, false, ImmutableList.of(longJob)));
+            taskExecutor.start();
+
+            // add a short task while the long task is on a runner thread
+            assertTrue(reachedLevel3.await(10, TimeUnit.SECONDS));
+            TaskHandle shortTask = taskExecutor.addTask(new TaskId("test", "test", "short"));
+            List<ListenableFuture<?>> shortFutures = taskExecutor.enqueueSplits(shortTask, false, ImmutableList.of(
+                    new TimedJob("short", ticker, runs, 2, MILLISECONDS.toNanos(10)),
+                    new TimedJob("short", ticker, runs, 2, MILLISECONDS.toNanos(10)),
+                    new TimedJob("short", ticker, runs, 2, MILLISECONDS.toNanos(10))));
+            resume.countDown();
+
+            for (ListenableFuture<?> future : shortFutures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            longFuture.get(10, TimeUnit.SECONDS);
+
+            // the long task finishes its current quantum, then all short splits run before it is scheduled again
+            assertEquals(runs.subList(0, 66), Collections.nCopies(66, "long"));
+            assertEquals(runs.subList(66, 72), Collections.nCopies(6, "short"));
+            assertEquals(runs.subList(72, runs.size()), Collections.nCopies(14, "long"));
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
+    @Test
+    public void testLevelTimeShares()
+            throws Exception
+    {
+        TestingTicker ticker = new TestingTicker();
+        TaskExecutor taskExecutor = new TaskExecutor(1, 1, 2, ticker);
+        List<String> runs = new CopyOnWriteArrayList<>();
+
+        try {
+            // the first quantum of each job moves its task straight to level 4 and level 3 respectively
+            TimedJob level4Job = new TimedJob("level4", ticker, runs, 40, SECONDS.toNanos(1), SECONDS.toNanos(300));
+            TimedJob level3Job = new TimedJob("level3", ticker, runs, 40, SECONDS.toNanos(1), SECONDS.toNanos(60));
+            ListenableFuture<?> level4Future = getOnlyElement(taskExecutor.enqueueSplits(taskExecutor.addTask(new TaskId("test", "test", "level4")), false, ImmutableList.of(level4Job)));
+            ListenableFuture<?> level3Future = getOnlyElement(taskExecutor.enqueueSplits(taskExecutor.addTask(new TaskId("test", "test", "level3")), false, ImmutableList.of(level3Job)));
+
+            taskExecutor.start();
+            level4Future.get(10, TimeUnit.SECONDS);
+            level3Future.get(10, TimeUnit.SECONDS);
+
+            assertEquals(runs.subList(0, 2), ImmutableList.of("level4", "level3"));
+
+            // while both levels have work, level 3 gets twice the thread time of level 4
+            List<String> contended = runs.subList(2, 32);
+            assertEquals(Collections.frequency(contended, "level3"), 20);
+            assertEquals(Collections.frequency(contended, "level4"), 10);
+        }
+        finally {
+            taskExecutor.stop();
+        }
+    }
+
     private static class TestingJob
             implements SplitRunner
     {
@@ -206,4 +329,57 @@ public class TaskExecutorTest
         {
         }
     }
+
+    private static class TimedJob
+            implements SplitRunner
+    {
+        private final String name;
+        private final TestingTicker ticker;
+        private final List<String> runs;
+        private final int requiredCalls;
+        private final long quantaNanos;
+        private final long firstQuantaNanos;
+        private final AtomicInteger completedCalls = new AtomicInteger();
+
+        public TimedJob(String name, TestingTicker ticker, List<String> runs, int requiredCalls, long quantaNanos)
+        {
+            this(name, ticker, runs, requiredCalls, quantaNanos, quantaNanos);
+        }
+
+        public TimedJob(String name, TestingTicker ticker, List<String> runs, int requiredCalls, long quantaNanos, long firstQuantaNanos)
+        {
+            this.name = name;
+            this.ticker = ticker;
+            this.runs = runs;
+            this.requiredCalls = requiredCalls;
+            this.quantaNanos = quantaNanos;
+            this.firstQuantaNanos = firstQuantaNanos;
+        }
+
+        protected int getCompletedCalls()
+        {
+            return completedCalls.get();
+        }
+
+        @Override
+        public ListenableFuture<?> processFor(Duration duration)
+                throws Exception
+        {
+            runs.add(name);
+            ticker.increment(completedCalls.get() == 0 ? firstQuantaNanos : quantaNanos, TimeUnit.NANOSECONDS);
+            completedCalls.incrementAndGet();
+            return Futures.immediateFuture(null);
+        }
+
+        @Override
+        public boolean isFinished()
+        {
+            return completedCalls.get() >= requiredCalls;
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
 }
@@ -24,8 +24,10 @@ import com.facebook.presto.metadata.TableHandle;
 import com.facebook.presto.operator.index.IndexJoinLookupStats;
 import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.BinarySpillerFactory;
 import com.facebook.presto.split.PageSinkManager;
 import com.facebook.presto.split.PageSourceManager;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.sql.gen.ExpressionCompiler;
 import com.facebook.presto.sql.parser.SqlParser;
 import com.facebook.presto.sql.planner.CompilerConfig;
@@ -76,6 +78,7 @@ public final class TaskTestUtils
             ImmutableList.of(SYMBOL),
             PlanDistribution.SOURCE,
             TABLE_SCAN_NODE_ID,
+            ImmutableList.of(),
             OutputPartitioning.NONE,
             Optional.empty(),
             Optional.empty(),
@@ -97,11 +100,12 @@ public final class TaskTestUtils
                 new ExpressionCompiler(metadata),
                 new IndexJoinLookupStats(),
                 new CompilerConfig(),
-                new TaskManagerConfig());
+                new TaskManagerConfig(),
+                new BinarySpillerFactory(metadata.getBlockEncodingSerde(), new FeaturesConfig()));
     }
 
     public static TaskInfo updateTask(SqlTask sqlTask, List<TaskSource> taskSources, OutputBuffers outputBuffers)
     {
-        return sqlTask.updateTask(TEST_SESSION, PLAN_FRAGMENT, taskSources, outputBuffers);
+        return sqlTask.updateTask(TEST_SESSION, Optional.of(PLAN_FRAGMENT), taskSources, outputBuffers);
     }
 }
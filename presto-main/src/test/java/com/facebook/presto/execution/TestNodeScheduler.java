@@ -236,6 +236,78 @@ public class TestNodeScheduler
         assertFalse(assignments.keySet().contains(newNode)); // No splits scheduled on the maxed out node
     }
 
+    @Test
+    public void testAssignmentFavorsFasterNodes()
+            throws Exception
+    {
+        List<Node> nodes = ImmutableList.copyOf(nodeManager.getActiveDatasourceNodes("foo"));
+        Node fastNode = nodes.get(0);
+        Node slowNode = nodes.get(1);
+        Node unknownNode = nodes.get(2);
+
+        NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerNodePerTask(10)
+                .setAdaptiveSplitAssignmentEnabled(true);
+        NodeScheduler.NodeSelector nodeSelector = new NodeScheduler(nodeManager, nodeSchedulerConfig, nodeTaskMap).createNodeSelector("foo");
+
+        // the slow node needs a hundred times longer per split
+        nodeTaskMap.recordSplitProgress(fastNode, 100, 10);
+        nodeTaskMap.recordSplitProgress(slowNode, 100, 1000);
+        assertTrue(nodeTaskMap.getSplitThroughput(fastNode).getAsDouble() > nodeTaskMap.getSplitThroughput(slowNode).getAsDouble());
+        assertFalse(nodeTaskMap.getSplitThroughput(unknownNode).isPresent());
+
+        Set<Split> splits = new HashSet<>();
+        for (int i = 0; i < 30; i++) {
+            splits.add(new Split("foo", new TestSplitRemote()));
+        }
+        Multimap<Node, Split> assignments = nodeSelector.computeAssignments(splits, taskMap.values());
+
+        // the slow node is limited to a fraction of maxSplitsPerNode, and the rest is spread over the other nodes
+        assertEquals(assignments.get(slowNode).size(), 2);
+        assertEquals(assignments.get(fastNode).size(), 14);
+        assertEquals(assignments.get(unknownNode).size(), 14);
+    }
+
+    @Test
+    public void testSlowNodeSplitsAreReassigned()
+            throws Exception
+    {
+        List<Node> nodes = ImmutableList.copyOf(nodeManager.getActiveDatasourceNodes("foo"));
+        Node fastNode = nodes.get(0);
+        Node slowNode = nodes.get(1);
+        Node unknownNode = nodes.get(2);
+
+        NodeSchedulerConfig nodeSchedulerConfig = new NodeSchedulerConfig()
+                .setMaxSplitsPerNode(20)
+                .setIncludeCoordinator(false)
+                .setMaxPendingSplitsPerNodePerTask(10)
+                .setAdaptiveSplitAssignmentEnabled(true);
+        NodeScheduler.NodeSelector nodeSelector = new NodeScheduler(nodeManager, nodeSchedulerConfig, nodeTaskMap).createNodeSelector("foo");
+
+        nodeTaskMap.recordSplitProgress(fastNode, 100, 10);
+        nodeTaskMap.recordSplitProgress(slowNode, 100, 1000);
+
+        // the slow node received its splits before it fell behind
+        ImmutableList.Builder<Split> initialSplits = ImmutableList.builder();
+        for (int i = 0; i < 20; i++) {
+            initialSplits.add(new Split("foo", new TestSplitRemote()));
+        }
+        MockRemoteTaskFactory remoteTaskFactory = new MockRemoteTaskFactory(remoteTaskExecutor);
+        RemoteTask slowTask = remoteTaskFactory.createTableScanTask(slowNode, initialSplits.build());
+        taskMap.put(slowNode, slowTask);
+        nodeTaskMap.addTask(slowNode, slowTask);
+
+        Multimap<Node, Split> assignments = nodeSelector.computeAssignments(ImmutableSet.of(), taskMap.values());
+
+        // the slow node keeps its share of maxSplitsPerNode, and the rest moves to the other nodes
+        assertEquals(slowTask.getPartitionedSplitCount(), 2);
+        assertFalse(assignments.containsKey(slowNode));
+        assertEquals(assignments.get(fastNode).size(), 9);
+        assertEquals(assignments.get(unknownNode).size(), 9);
+    }
+
     @Test
     public void testTaskCompletion()
             throws Exception
@@ -30,7 +30,8 @@ public class TestNodeSchedulerConfig
                 .setMaxPendingSplitsPerNodePerTask(10)
                 .setIncludeCoordinator(true)
                 .setLocationAwareSchedulingEnabled(true)
-                .setMultipleTasksPerNodeEnabled(false));
+                .setMultipleTasksPerNodeEnabled(false)
+                .setAdaptiveSplitAssignmentEnabled(false));
     }
 
     @Test
@@ -43,6 +44,7 @@ public class TestNodeSchedulerConfig
                 .put("node-scheduler.max-pending-splits-per-node-per-task", "11")
                 .put("node-scheduler.max-splits-per-node", "101")
                 .put("node-scheduler.multiple-tasks-per-node-enabled", "true")
+                .put("node-scheduler.adaptive-split-assignment-enabled", "true")
                 .build();
 
         NodeSchedulerConfig expected = new NodeSchedulerConfig()
@@ -51,7 +53,8 @@ public class TestNodeSchedulerConfig
                 .setMultipleTasksPerNodeEnabled(true)
                 .setMaxSplitsPerNode(101)
                 .setMaxPendingSplitsPerNodePerTask(11)
-                .setMinCandidates(11);
+                .setMinCandidates(11)
+                .setAdaptiveSplitAssignmentEnabled(true);
 
         ConfigAssertions.assertFullMapping(properties, expected);
     }
@@ -34,6 +34,7 @@ public class TestQueryManagerConfig
                 .setMaxConcurrentQueries(1000)
                 .setMaxQueuedQueries(5000)
                 .setQueueConfigFile(null)
+                .setResourceGroupConfigFile(null)
                 .setInitialHashPartitions(8)
                 .setQueryManagerExecutorPoolSize(5)
                 .setRemoteTaskMaxConsecutiveErrorCount(10)
@@ -52,6 +53,7 @@ public class TestQueryManagerConfig
                 .put("query.max-concurrent-queries", "10")
                 .put("query.max-queued-queries", "15")
                 .put("query.queue-config-file", "/etc/presto/queues.json")
+                .put("query.resource-group-config-file", "/etc/presto/resource_groups.json")
                 .put("query.initial-hash-partitions", "16")
                 .put("query.manager-executor-pool-size", "11")
                 .put("query.remote-task.max-consecutive-error-count", "300")
@@ -67,6 +69,7 @@ public class TestQueryManagerConfig
                 .setMaxConcurrentQueries(10)
                 .setMaxQueuedQueries(15)
                 .setQueueConfigFile("/etc/presto/queues.json")
+                .setResourceGroupConfigFile("/etc/presto/resource_groups.json")
                 .setInitialHashPartitions(16)
                 .setQueryManagerExecutorPoolSize(11)
                 .setRemoteTaskMaxConsecutiveErrorCount(300)
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import com.facebook.presto.execution.ResourceGroupManager.GroupSpec;
+import com.facebook.presto.execution.ResourceGroupManager.ManagerSpec;
+import com.facebook.presto.execution.ResourceGroupManager.SelectorSpec;
+import com.facebook.presto.execution.TestSqlTaskManager.MockLocationFactory;
+import com.facebook.presto.metadata.InMemoryNodeManager;
+import com.facebook.presto.split.SplitManager;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.google.common.collect.ImmutableList;
+import io.airlift.json.ObjectMapperProvider;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+import org.weakref.jmx.MBeanExporter;
+
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestResourceGroupManager
+{
+    private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-%s"));
+
+    @AfterClass
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testJsonParsing()
+    {
+        parse("resource_groups_config.json");
+        assertFails("resource_groups_config_bad_selector.json", "Selector must refer to a leaf resource group, but global has sub groups");
+    }
+
+    @Test(timeOut = 10_000)
+    public void testRefreshWithUnplannedQueries()
+            throws Exception
+    {
+        GroupSpec global = new GroupSpec("global", 1, 10, null, null, null, null);
+        ManagerSpec spec = new ManagerSpec(ImmutableList.of(global), ImmutableList.of(new SelectorSpec(null, null, "global")), null);
+        ResourceGroupManager manager = new ResourceGroupManager(spec, new MBeanExporter(ManagementFactory.getPlatformMBeanServer()));
+
+        // queries handed to this executor are never started, so they are never planned
+        List<Runnable> startedQueries = new CopyOnWriteArrayList<>();
+        SqlQueryExecution first = createUnplannedQuery("first");
+        SqlQueryExecution second = createUnplannedQuery("second");
+        assertTrue(manager.submit(first, startedQueries::add, new SqlQueryManagerStats()));
+        assertTrue(manager.submit(second, startedQueries::add, new SqlQueryManagerStats()));
+        assertEquals(startedQueries.size(), 1);
+
+        // the running query has no output stage yet, which must not abort the refresh
+        manager.refreshAndStartQueries();
+        assertEquals(startedQueries.size(), 1);
+
+        // once the running query finishes, the queued query is started
+        first.fail(new RuntimeException("test failure"));
+        while (startedQueries.size() < 2) {
+            Thread.sleep(10);
+        }
+        manager.refreshAndStartQueries();
+        assertEquals(startedQueries.size(), 2);
+    }
+
+    private SqlQueryExecution createUnplannedQuery(String queryId)
+    {
+        SqlParser sqlParser = new SqlParser();
+        NodeTaskMap nodeTaskMap = new NodeTaskMap();
+        return new SqlQueryExecution(
+                new QueryId(queryId),
+                "SELECT 1",
+                TEST_SESSION,
+                URI.create("fake://query/" + queryId),
+                sqlParser.createStatement("SELECT 1"),
+                createTestMetadataManager(),
+                sqlParser,
+                new SplitManager(),
+                new NodeScheduler(new InMemoryNodeManager(), new NodeSchedulerConfig(), nodeTaskMap),
+                ImmutableList.of(),
+                new MockRemoteTaskFactory(executor),
+                new MockLocationFactory(),
+                1000,
+                8,
+                false,
+                executor,
+                nodeTaskMap);
+    }
+
+    private void parse(String fileName)
+    {
+        String path = this.getClass().getClassLoader().getResource(fileName).getPath();
+        QueryManagerConfig config = new QueryManagerConfig();
+        config.setResourceGroupConfigFile(path);
+        new ResourceGroupManager(config, new ObjectMapperProvider().get(), new MBeanExporter(ManagementFactory.getPlatformMBeanServer()));
+    }
+
+    private void assertFails(String fileName, String expectedMessage)
+    {
+        try {
+            parse(fileName);
+            fail("Expected to throw an IllegalArgumentException with message " + expectedMessage);
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals(e.getMessage(), expectedMessage);
+        }
+    }
+}
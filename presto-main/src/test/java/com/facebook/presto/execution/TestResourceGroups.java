@@ -0,0 +1,164 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.execution;
+
+import io.airlift.units.DataSize;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.facebook.presto.execution.QueryState.QUEUED;
+import static com.facebook.presto.execution.QueryState.RUNNING;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestResourceGroups
+{
+    @Test
+    public void testQueueFull()
+    {
+        ResourceGroup root = new ResourceGroup("root", QueryExecution::start);
+        root.setMaxRunningQueries(1);
+        root.setMaxQueuedQueries(1);
+
+        MockQueryExecution query1 = new MockQueryExecution(0);
+        assertTrue(root.add(query1));
+        assertEquals(query1.getState(), RUNNING);
+        MockQueryExecution query2 = new MockQueryExecution(0);
+        assertTrue(root.add(query2));
+        assertEquals(query2.getState(), QUEUED);
+        assertFalse(root.add(new MockQueryExecution(0)));
+
+        root.queryFinished(query1);
+        root.processQueuedQueries();
+        assertEquals(query2.getState(), RUNNING);
+        assertEquals(root.getRunningQueries(), 1);
+        assertEquals(root.getQueuedQueries(), 0);
+    }
+
+    @Test
+    public void testLimitsApplyToAncestors()
+    {
+        ResourceGroup root = new ResourceGroup("root", QueryExecution::start);
+        root.setMaxRunningQueries(1);
+        ResourceGroup group1 = root.getOrCreateSubGroup("1");
+        ResourceGroup group2 = root.getOrCreateSubGroup("2");
+
+        MockQueryExecution query1 = new MockQueryExecution(0);
+        assertTrue(group1.add(query1));
+        MockQueryExecution query2 = new MockQueryExecution(0);
+        assertTrue(group2.add(query2));
+        assertEquals(query1.getState(), RUNNING);
+        assertEquals(query2.getState(), QUEUED);
+        assertEquals(root.getQueuedQueries(), 1);
+
+        group1.queryFinished(query1);
+        root.processQueuedQueries();
+        assertEquals(query2.getState(), RUNNING);
+    }
+
+    @Test
+    public void testWeightedScheduling()
+    {
+        ResourceGroup root = new ResourceGroup("root", QueryExecution::start);
+        root.setMaxRunningQueries(4);
+        ResourceGroup group1 = root.getOrCreateSubGroup("1");
+        group1.setSchedulingWeight(1);
+        ResourceGroup group2 = root.getOrCreateSubGroup("2");
+        group2.setSchedulingWeight(3);
+
+        List<MockQueryExecution> running = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            MockQueryExecution query = new MockQueryExecution(0);
+            assertTrue(group1.add(query));
+            running.add(query);
+        }
+        List<MockQueryExecution> queued1 = new ArrayList<>();
+        List<MockQueryExecution> queued2 = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            queued1.add(new MockQueryExecution(0));
+            queued2.add(new MockQueryExecution(0));
+            assertTrue(group1.add(queued1.get(i)));
+            assertTrue(group2.add(queued2.get(i)));
+        }
+        assertEquals(root.getQueuedQueries(), 8);
+
+        running.forEach(group1::queryFinished);
+        root.processQueuedQueries();
+
+        // the slots are shared one to three
+        assertEquals(group1.getRunningQueries(), 1);
+        assertEquals(group2.getRunningQueries(), 3);
+        assertEquals(queued1.stream().filter(query -> query.getState() == RUNNING).count(), 1);
+        assertEquals(queued2.stream().filter(query -> query.getState() == RUNNING).count(), 3);
+    }
+
+    @Test
+    public void testSoftMemoryLimit()
+    {
+        ResourceGroup root = new ResourceGroup("root", QueryExecution::start);
+        root.setSoftMemoryLimit(new DataSize(1, MEGABYTE));
+
+        MockQueryExecution query1 = new MockQueryExecution(new DataSize(2, MEGABYTE).toBytes());
+        assertTrue(root.add(query1));
+        assertEquals(query1.getState(), RUNNING);
+        root.updateUsage(new Duration(1, SECONDS));
+        assertEquals(root.getMemoryUsageBytes(), new DataSize(2, MEGABYTE).toBytes());
+
+        MockQueryExecution query2 = new MockQueryExecution(0);
+        assertTrue(root.add(query2));
+        assertEquals(query2.getState(), QUEUED);
+
+        // memory usage is only refreshed periodically
+        root.queryFinished(query1);
+        root.processQueuedQueries();
+        assertEquals(query2.getState(), QUEUED);
+
+        root.updateUsage(new Duration(1, SECONDS));
+        root.processQueuedQueries();
+        assertEquals(query2.getState(), RUNNING);
+    }
+
+    @Test
+    public void testHardCpuLimit()
+    {
+        ResourceGroup root = new ResourceGroup("root", QueryExecution::start);
+        // one second of CPU time every ten seconds
+        root.setHardCpuLimit(new Duration(1, SECONDS), new Duration(10, SECONDS));
+
+        MockQueryExecution query1 = new MockQueryExecution(0);
+        assertTrue(root.add(query1));
+        assertEquals(query1.getState(), RUNNING);
+        root.chargeCpu(new Duration(2, SECONDS));
+        root.queryFinished(query1);
+
+        MockQueryExecution query2 = new MockQueryExecution(0);
+        assertTrue(root.add(query2));
+        assertEquals(query2.getState(), QUEUED);
+
+        root.updateUsage(new Duration(10, SECONDS));
+        root.processQueuedQueries();
+        assertEquals(root.getCpuUsageMillis(), 1000);
+        assertEquals(query2.getState(), QUEUED);
+
+        root.updateUsage(new Duration(1, SECONDS));
+        root.processQueuedQueries();
+        assertEquals(query2.getState(), RUNNING);
+    }
+}
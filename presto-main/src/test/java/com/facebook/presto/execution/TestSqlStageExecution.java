@@ -312,6 +312,7 @@ public class TestSqlStageExecution
                 joinNode.getOutputSymbols(),
                 PlanDistribution.SOURCE,
                 new PlanNodeId(planId),
+                ImmutableList.of(),
                 OutputPartitioning.NONE,
                 Optional.empty(),
                 Optional.empty(),
@@ -343,6 +344,7 @@ public class TestSqlStageExecution
                 ImmutableList.of(symbol),
                 PlanDistribution.SOURCE,
                 tableScanNodeId,
+                ImmutableList.of(),
                 OutputPartitioning.NONE,
                 Optional.empty(),
                 Optional.empty(),
@@ -409,7 +411,7 @@ public class TestSqlStageExecution
 
                 MemoryPool memoryPool = new MemoryPool(new MemoryPoolId("test"), new DataSize(1, GIGABYTE), false);
                 MemoryPool systemMemoryPool = new MemoryPool(new MemoryPoolId("testSystem"), new DataSize(1, GIGABYTE), false);
-                this.taskContext = new QueryContext(false, new DataSize(1, MEGABYTE), memoryPool, systemMemoryPool, executor).addTaskContext(taskStateMachine, TEST_SESSION, new DataSize(256, MEGABYTE), new DataSize(1, MEGABYTE), true, true);
+                this.taskContext = new QueryContext(taskId.getQueryId(), false, new DataSize(1, MEGABYTE), memoryPool, systemMemoryPool, executor).addTaskContext(taskStateMachine, TEST_SESSION, new DataSize(256, MEGABYTE), new DataSize(1, MEGABYTE), true, true);
 
                 this.location = URI.create("fake://task/" + taskId);
 
@@ -451,6 +453,12 @@ public class TestSqlStageExecution
                 taskStateMachine.finished();
             }
 
+            @Override
+            public TaskStatus getTaskStatus()
+            {
+                return TaskStatus.fromTaskInfo(getTaskInfo());
+            }
+
             @Override
             public void start()
             {
@@ -471,6 +479,12 @@ public class TestSqlStageExecution
                 noMoreSplits.add(sourceId);
             }
 
+            @Override
+            public List<Split> reclaimPartitionedSplits(int maxSplits)
+            {
+                return ImmutableList.of();
+            }
+
             @Override
             public void setOutputBuffers(OutputBuffers outputBuffers)
             {
@@ -483,6 +497,12 @@ public class TestSqlStageExecution
                 taskStateMachine.addStateChangeListener(newValue -> stateChangeListener.stateChanged(getTaskInfo()));
             }
 
+            @Override
+            public void addStatusChangeListener(StateChangeListener<TaskStatus> statusChangeListener)
+            {
+                taskStateMachine.addStateChangeListener(newValue -> statusChangeListener.stateChanged(getTaskStatus()));
+            }
+
             @Override
             public void cancel()
             {
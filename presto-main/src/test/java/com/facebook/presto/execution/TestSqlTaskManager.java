@@ -35,6 +35,7 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
 import java.net.URI;
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
@@ -48,6 +49,7 @@ import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNotNull;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 @Test
 public class TestSqlTaskManager
@@ -80,7 +82,7 @@ public class TestSqlTaskManager
             TaskId taskId = TASK_ID;
             TaskInfo taskInfo = sqlTaskManager.updateTask(TEST_SESSION,
                     taskId,
-                    PLAN_FRAGMENT,
+                    Optional.of(PLAN_FRAGMENT),
                     ImmutableList.<TaskSource>of(),
                     INITIAL_EMPTY_OUTPUT_BUFFERS);
             assertEquals(taskInfo.getState(), TaskState.RUNNING);
@@ -90,7 +92,7 @@ public class TestSqlTaskManager
 
             taskInfo = sqlTaskManager.updateTask(TEST_SESSION,
                     taskId,
-                    PLAN_FRAGMENT,
+                    Optional.of(PLAN_FRAGMENT),
                     ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.<ScheduledSplit>of(), true)),
                     INITIAL_EMPTY_OUTPUT_BUFFERS.withNoMoreBufferIds());
             assertEquals(taskInfo.getState(), TaskState.FINISHED);
@@ -100,6 +102,36 @@ public class TestSqlTaskManager
         }
     }
 
+    @Test
+    public void testUpdateWithoutFragment()
+            throws Exception
+    {
+        try (SqlTaskManager sqlTaskManager = createSqlTaskManager(new TaskManagerConfig())) {
+            TaskId taskId = TASK_ID;
+            TaskInfo taskInfo = sqlTaskManager.updateTask(TEST_SESSION,
+                    taskId,
+                    Optional.of(PLAN_FRAGMENT),
+                    ImmutableList.<TaskSource>of(),
+                    INITIAL_EMPTY_OUTPUT_BUFFERS);
+            assertEquals(taskInfo.getState(), TaskState.RUNNING);
+
+            TaskStatus taskStatus = sqlTaskManager.getTaskStatus(taskId);
+            assertEquals(taskStatus.getState(), TaskState.RUNNING);
+            assertTrue(taskStatus.getVersion() > taskInfo.getVersion());
+
+            // once the task exists, updates do not need to carry the plan
+            taskInfo = sqlTaskManager.updateTask(TEST_SESSION,
+                    taskId,
+                    Optional.empty(),
+                    ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.<ScheduledSplit>of(), true)),
+                    INITIAL_EMPTY_OUTPUT_BUFFERS.withNoMoreBufferIds());
+            assertEquals(taskInfo.getState(), TaskState.FINISHED);
+
+            taskStatus = sqlTaskManager.getTaskStatus(taskId, TaskState.RUNNING).get(1, TimeUnit.SECONDS);
+            assertEquals(taskStatus.getState(), TaskState.FINISHED);
+        }
+    }
+
     @Test
     public void testSimpleQuery()
             throws Exception
@@ -108,7 +140,7 @@ public class TestSqlTaskManager
             TaskId taskId = TASK_ID;
             TaskInfo taskInfo = sqlTaskManager.updateTask(TEST_SESSION,
                     taskId,
-                    PLAN_FRAGMENT,
+                    Optional.of(PLAN_FRAGMENT),
                     ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(SPLIT), true)),
                     INITIAL_EMPTY_OUTPUT_BUFFERS.withBuffer(OUT, new UnpartitionedPagePartitionFunction()).withNoMoreBufferIds());
             assertEquals(taskInfo.getState(), TaskState.RUNNING);
@@ -140,7 +172,7 @@ public class TestSqlTaskManager
             TaskId taskId = TASK_ID;
             TaskInfo taskInfo = sqlTaskManager.updateTask(TEST_SESSION,
                     taskId,
-                    PLAN_FRAGMENT,
+                    Optional.of(PLAN_FRAGMENT),
                     ImmutableList.<TaskSource>of(),
                     INITIAL_EMPTY_OUTPUT_BUFFERS);
             assertEquals(taskInfo.getState(), TaskState.RUNNING);
@@ -168,7 +200,7 @@ public class TestSqlTaskManager
             TaskId taskId = TASK_ID;
             TaskInfo taskInfo = sqlTaskManager.updateTask(TEST_SESSION,
                     taskId,
-                    PLAN_FRAGMENT,
+                    Optional.of(PLAN_FRAGMENT),
                     ImmutableList.<TaskSource>of(),
                     INITIAL_EMPTY_OUTPUT_BUFFERS);
             assertEquals(taskInfo.getState(), TaskState.RUNNING);
@@ -196,7 +228,7 @@ public class TestSqlTaskManager
             TaskId taskId = TASK_ID;
             TaskInfo taskInfo = sqlTaskManager.updateTask(TEST_SESSION,
                     taskId,
-                    PLAN_FRAGMENT,
+                    Optional.of(PLAN_FRAGMENT),
                     ImmutableList.of(new TaskSource(TABLE_SCAN_NODE_ID, ImmutableSet.of(SPLIT), true)),
                     INITIAL_EMPTY_OUTPUT_BUFFERS.withBuffer(OUT, new UnpartitionedPagePartitionFunction()).withNoMoreBufferIds());
             assertEquals(taskInfo.getState(), TaskState.RUNNING);
@@ -223,7 +255,7 @@ public class TestSqlTaskManager
 
             TaskInfo taskInfo = sqlTaskManager.updateTask(TEST_SESSION,
                     taskId,
-                    PLAN_FRAGMENT,
+                    Optional.of(PLAN_FRAGMENT),
                     ImmutableList.<TaskSource>of(),
                     INITIAL_EMPTY_OUTPUT_BUFFERS);
             assertEquals(taskInfo.getState(), TaskState.RUNNING);
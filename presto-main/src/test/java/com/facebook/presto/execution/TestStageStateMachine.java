@@ -328,6 +328,7 @@ public class TestStageStateMachine
                 ImmutableList.of(symbol),
                 PlanDistribution.SINGLE,
                 valuesNodeId,
+                ImmutableList.of(),
                 OutputPartitioning.NONE,
                 Optional.empty(),
                 Optional.empty(),
@@ -33,6 +33,7 @@ public class TestTaskManagerConfig
     {
         assertRecordedDefaults(recordDefaults(TaskManagerConfig.class)
                 .setInfoRefreshMaxWait(new Duration(200, TimeUnit.MILLISECONDS))
+                .setInfoUpdateInterval(new Duration(3, TimeUnit.SECONDS))
                 .setVerboseStats(false)
                 .setTaskCpuTimerEnabled(true)
                 .setMaxWorkerThreads(Runtime.getRuntime().availableProcessors() * 4)
@@ -43,10 +44,13 @@ public class TestTaskManagerConfig
                 .setMaxTaskIndexMemoryUsage(new DataSize(64, Unit.MEGABYTE))
                 .setOperatorPreAllocatedMemory(new DataSize(16, Unit.MEGABYTE))
                 .setMaxPartialAggregationMemoryUsage(new DataSize(16, Unit.MEGABYTE))
+                .setAdaptivePartialAggregationEnabled(true)
                 .setSinkMaxBufferSize(new DataSize(32, Unit.MEGABYTE))
+                .setSinkMinCompressionSize(new DataSize(1, Unit.KILOBYTE))
                 .setWriterCount(1)
                 .setTaskDefaultConcurrency(1)
-                .setHttpNotificationThreads(25));
+                .setHttpNotificationThreads(25)
+                .setLevelTimeMultiplier(2.0));
     }
 
     @Test
@@ -54,38 +58,46 @@ public class TestTaskManagerConfig
     {
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("task.info-refresh-max-wait", "1s")
+                .put("task.info-update-interval", "2s")
                 .put("task.verbose-stats", "true")
                 .put("task.cpu-timer-enabled", "false")
                 .put("task.max-memory", "2GB")
                 .put("task.max-index-memory", "512MB")
                 .put("task.operator-pre-allocated-memory", "2MB")
                 .put("task.max-partial-aggregation-memory", "32MB")
+                .put("task.adaptive-partial-aggregation-enabled", "false")
                 .put("task.max-worker-threads", "3")
                 .put("task.min-drivers", "2")
                 .put("task.info.max-age", "22m")
                 .put("task.client.timeout", "10s")
                 .put("sink.max-buffer-size", "42MB")
+                .put("sink.min-compression-size", "64kB")
                 .put("task.writer-count", "3")
                 .put("task.default-concurrency", "7")
                 .put("task.http-notification-threads", "4")
+                .put("task.level-time-multiplier", "4.5")
                 .build();
 
         TaskManagerConfig expected = new TaskManagerConfig()
                 .setInfoRefreshMaxWait(new Duration(1, TimeUnit.SECONDS))
+                .setInfoUpdateInterval(new Duration(2, TimeUnit.SECONDS))
                 .setVerboseStats(true)
                 .setTaskCpuTimerEnabled(false)
                 .setMaxTaskMemoryUsage(new DataSize(2, Unit.GIGABYTE))
                 .setMaxTaskIndexMemoryUsage(new DataSize(512, Unit.MEGABYTE))
                 .setOperatorPreAllocatedMemory(new DataSize(2, Unit.MEGABYTE))
                 .setMaxPartialAggregationMemoryUsage(new DataSize(32, Unit.MEGABYTE))
+                .setAdaptivePartialAggregationEnabled(false)
                 .setMaxWorkerThreads(3)
                 .setMinDrivers(2)
                 .setInfoMaxAge(new Duration(22, TimeUnit.MINUTES))
                 .setClientTimeout(new Duration(10, TimeUnit.SECONDS))
                 .setSinkMaxBufferSize(new DataSize(42, Unit.MEGABYTE))
+                .setSinkMinCompressionSize(new DataSize(64, Unit.KILOBYTE))
                 .setWriterCount(3)
                 .setTaskDefaultConcurrency(7)
-                .setHttpNotificationThreads(4);
+                .setHttpNotificationThreads(4)
+                .setLevelTimeMultiplier(4.5);
 
         assertFullMapping(properties, expected);
     }
@@ -0,0 +1,155 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.execution.QueryId;
+import com.facebook.presto.operator.DriverContext;
+import com.facebook.presto.operator.TaskContext;
+import io.airlift.units.DataSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.VerboseMode;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.GIGABYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+
+@SuppressWarnings("MethodMayBeStatic")
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(2)
+@Threads(16)
+@Warmup(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.AverageTime)
+public class BenchmarkMemoryPool
+{
+    private static final QueryId QUERY_ID = new QueryId("query");
+    private static final long RESERVATION_BYTES = 4096;
+
+    @Benchmark
+    public boolean poolReserveAndFree(PoolData data)
+    {
+        MemoryPool pool = data.getPool();
+        boolean done = pool.reserve(QUERY_ID, RESERVATION_BYTES).isDone();
+        pool.free(QUERY_ID, RESERVATION_BYTES);
+        return done;
+    }
+
+    @Benchmark
+    public boolean driverReserveAndFree(DriverData data)
+    {
+        DriverContext driverContext = data.getDriverContext();
+        boolean done = driverContext.reserveMemory(RESERVATION_BYTES).isDone();
+        driverContext.freeMemory(RESERVATION_BYTES);
+        return done;
+    }
+
+    @State(Scope.Benchmark)
+    public static class PoolData
+    {
+        private final ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-%s"));
+        private MemoryPool pool;
+        private TaskContext taskContext;
+
+        @Setup
+        public void setup()
+        {
+            pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(1, GIGABYTE), true);
+            MemoryPool systemPool = new MemoryPool(new MemoryPoolId("testSystem"), new DataSize(1, GIGABYTE), true);
+            QueryContext queryContext = new QueryContext(QUERY_ID, true, new DataSize(1, GIGABYTE), pool, systemPool, executor);
+            taskContext = createTaskContext(queryContext, executor, TEST_SESSION, new DataSize(1, GIGABYTE), new DataSize(0, BYTE));
+        }
+
+        @TearDown
+        public void tearDown()
+        {
+            executor.shutdownNow();
+        }
+
+        public MemoryPool getPool()
+        {
+            return pool;
+        }
+
+        public TaskContext getTaskContext()
+        {
+            return taskContext;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class DriverData
+    {
+        private DriverContext driverContext;
+
+        @Setup(Level.Iteration)
+        public void setup(PoolData data)
+        {
+            // one driver per thread, all sharing the same task, query and pool
+            driverContext = data.getTaskContext().addPipelineContext(true, true).addDriverContext();
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown()
+        {
+            driverContext.finished();
+        }
+
+        public DriverContext getDriverContext()
+        {
+            return driverContext;
+        }
+    }
+
+    public static void main(String[] args)
+            throws RunnerException
+    {
+        // assure the benchmarks are valid before running
+        PoolData poolData = new PoolData();
+        poolData.setup();
+        DriverData driverData = new DriverData();
+        driverData.setup(poolData);
+        new BenchmarkMemoryPool().poolReserveAndFree(poolData);
+        new BenchmarkMemoryPool().driverReserveAndFree(driverData);
+        driverData.tearDown();
+        poolData.tearDown();
+
+        Options options = new OptionsBuilder()
+                .verbosity(VerboseMode.NORMAL)
+                .include(".*" + BenchmarkMemoryPool.class.getSimpleName() + ".*")
+                .build();
+        new Runner(options).run();
+    }
+}
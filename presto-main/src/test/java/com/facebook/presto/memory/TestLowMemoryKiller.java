@@ -0,0 +1,180 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.memory;
+
+import com.facebook.presto.execution.MockQueryExecution;
+import com.facebook.presto.execution.QueryExecution;
+import com.facebook.presto.execution.QueryId;
+import com.facebook.presto.execution.QueryState;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import io.airlift.testing.TestingTicker;
+import io.airlift.units.Duration;
+import org.testng.annotations.Test;
+
+import java.util.Set;
+
+import static com.facebook.presto.execution.QueryState.FAILED;
+import static com.facebook.presto.execution.QueryState.FINISHED;
+import static com.facebook.presto.execution.QueryState.RUNNING;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestLowMemoryKiller
+{
+    private static final Set<QueryId> NO_MEMORY = ImmutableSet.of();
+
+    @Test
+    public void testKillsBiggestQueryAfterDelay()
+    {
+        TestingTicker ticker = new TestingTicker();
+        LowMemoryKiller killer = new LowMemoryKiller(new Duration(5, SECONDS), ticker);
+        QueryExecution small = runningQuery(10);
+        QueryExecution big = runningQuery(100);
+        QueryExecution medium = runningQuery(50);
+        Iterable<QueryExecution> queries = ImmutableList.of(small, big, medium);
+
+        assertFalse(killer.process(true, queries, NO_MEMORY));
+        ticker.increment(5, SECONDS);
+        assertFalse(killer.process(true, queries, NO_MEMORY));
+        assertEquals(big.getState(), RUNNING);
+
+        ticker.increment(1, SECONDS);
+        assertTrue(killer.process(true, queries, NO_MEMORY));
+        assertEquals(big.getState(), FAILED);
+        assertEquals(small.getState(), RUNNING);
+        assertEquals(medium.getState(), RUNNING);
+    }
+
+    @Test
+    public void testWaitsForKilledQueryToReleaseMemory()
+    {
+        TestingTicker ticker = new TestingTicker();
+        LowMemoryKiller killer = new LowMemoryKiller(new Duration(5, SECONDS), ticker);
+        QueryExecution small = runningQuery(10);
+        QueryExecution big = runningQuery(100);
+        QueryExecution medium = runningQuery(50);
+        Iterable<QueryExecution> queries = ImmutableList.of(small, big, medium);
+
+        ticker.increment(10, SECONDS);
+        assertTrue(killer.process(true, queries, NO_MEMORY));
+        assertEquals(big.getState(), FAILED);
+
+        // the victim is failed but the workers still report memory reserved for it
+        ticker.increment(10, SECONDS);
+        assertFalse(killer.process(true, queries, ImmutableSet.of(small.getQueryId(), big.getQueryId(), medium.getQueryId())));
+        assertEquals(medium.getState(), RUNNING);
+
+        // the reservation of the failed query is frozen at its last value, but the workers have released its memory
+        assertEquals(big.getTotalMemoryReservation(), 100);
+        assertTrue(killer.process(true, queries, ImmutableSet.of(small.getQueryId(), medium.getQueryId())));
+        assertEquals(medium.getState(), FAILED);
+        assertEquals(small.getState(), RUNNING);
+
+        // the victim is no longer tracked at all
+        assertTrue(killer.process(true, ImmutableList.of(small), NO_MEMORY));
+        assertEquals(small.getState(), FAILED);
+    }
+
+    @Test
+    public void testWaitsForKilledQueryToFinish()
+    {
+        TestingTicker ticker = new TestingTicker();
+        LowMemoryKiller killer = new LowMemoryKiller(new Duration(5, SECONDS), ticker);
+        QueryExecution small = runningQuery(10);
+        IgnoringFailureQueryExecution big = new IgnoringFailureQueryExecution(100);
+        Iterable<QueryExecution> queries = ImmutableList.of(small, big);
+
+        ticker.increment(10, SECONDS);
+        assertTrue(killer.process(true, queries, NO_MEMORY));
+
+        // the victim has not reached a final state yet, so it may still reserve memory
+        assertFalse(killer.process(true, queries, NO_MEMORY));
+        assertEquals(small.getState(), RUNNING);
+
+        big.finish();
+        assertTrue(killer.process(true, queries, NO_MEMORY));
+        assertEquals(small.getState(), FAILED);
+    }
+
+    @Test
+    public void testDelayResetsWhenMemoryIsAvailable()
+    {
+        TestingTicker ticker = new TestingTicker();
+        LowMemoryKiller killer = new LowMemoryKiller(new Duration(5, SECONDS), ticker);
+        QueryExecution query = runningQuery(100);
+        Iterable<QueryExecution> queries = ImmutableList.of(query);
+
+        ticker.increment(4, SECONDS);
+        assertFalse(killer.process(true, queries, NO_MEMORY));
+        assertFalse(killer.process(false, queries, NO_MEMORY));
+        ticker.increment(4, SECONDS);
+        assertFalse(killer.process(true, queries, NO_MEMORY));
+        assertEquals(query.getState(), RUNNING);
+
+        ticker.increment(2, SECONDS);
+        assertTrue(killer.process(true, queries, NO_MEMORY));
+        assertEquals(query.getState(), FAILED);
+    }
+
+    @Test
+    public void testIgnoresFinishedQueries()
+    {
+        TestingTicker ticker = new TestingTicker();
+        LowMemoryKiller killer = new LowMemoryKiller(new Duration(5, SECONDS), ticker);
+        QueryExecution query = runningQuery(100);
+        query.fail(new RuntimeException("failed"));
+
+        ticker.increment(10, SECONDS);
+        assertFalse(killer.process(true, ImmutableList.of(query), NO_MEMORY));
+    }
+
+    private static QueryExecution runningQuery(long memoryReservation)
+    {
+        QueryExecution query = new MockQueryExecution(memoryReservation);
+        query.start();
+        return query;
+    }
+
+    private static class IgnoringFailureQueryExecution
+            extends MockQueryExecution
+    {
+        private boolean finished;
+
+        public IgnoringFailureQueryExecution(long memoryReservation)
+        {
+            super(memoryReservation);
+            start();
+        }
+
+        public void finish()
+        {
+            finished = true;
+        }
+
+        @Override
+        public QueryState getState()
+        {
+            return finished ? FINISHED : RUNNING;
+        }
+
+        @Override
+        public void fail(Throwable cause)
+        {
+            // the query is still cleaning up
+        }
+    }
+}
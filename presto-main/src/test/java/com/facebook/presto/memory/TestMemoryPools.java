@@ -13,27 +13,42 @@
  */
 package com.facebook.presto.memory;
 
+import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.Session;
+import com.facebook.presto.execution.QueryId;
 import com.facebook.presto.metadata.InMemoryNodeManager;
 import com.facebook.presto.operator.Driver;
+import com.facebook.presto.operator.DriverContext;
+import com.facebook.presto.operator.PipelineContext;
 import com.facebook.presto.operator.TaskContext;
 import com.facebook.presto.testing.LocalQueryRunner;
 import com.facebook.presto.tpch.TpchConnectorFactory;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ListenableFuture;
 import io.airlift.units.DataSize;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.units.DataSize.Unit.BYTE;
+import static io.airlift.units.DataSize.Unit.KILOBYTE;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class TestMemoryPools
 {
     private static final long TEN_MEGABYTES = new DataSize(10, MEGABYTE).toBytes();
+    private static final QueryId QUERY_ID = new QueryId("query");
 
     @Test
     public void testBlocking()
@@ -50,10 +65,10 @@ public class TestMemoryPools
 
         // reserve all the memory in the pool
         MemoryPool pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(10, MEGABYTE), true);
-        assertTrue(pool.tryReserve(TEN_MEGABYTES));
+        assertTrue(pool.tryReserve(QUERY_ID, TEN_MEGABYTES));
         MemoryPool systemPool = new MemoryPool(new MemoryPoolId("testSystem"), new DataSize(10, MEGABYTE), true);
 
-        QueryContext queryContext = new QueryContext(true, new DataSize(10, MEGABYTE), pool, systemPool, localQueryRunner.getExecutor());
+        QueryContext queryContext = new QueryContext(QUERY_ID, true, new DataSize(10, MEGABYTE), pool, systemPool, localQueryRunner.getExecutor());
         LocalQueryRunner.MaterializedOutputFactory outputFactory = new LocalQueryRunner.MaterializedOutputFactory();
         TaskContext taskContext = createTaskContext(queryContext, localQueryRunner.getExecutor(), session, new DataSize(10, MEGABYTE), new DataSize(0, BYTE));
         Driver driver = Iterables.getOnlyElement(localQueryRunner.createDrivers("SELECT COUNT(*), clerk FROM orders GROUP BY clerk", outputFactory, taskContext));
@@ -69,11 +84,183 @@ public class TestMemoryPools
         assertFalse(driver.isFinished());
         assertTrue(pool.getFreeBytes() <= 0);
 
-        pool.free(TEN_MEGABYTES);
+        pool.free(QUERY_ID, TEN_MEGABYTES);
         do {
             // driver should not block
             assertTrue(driver.process().isDone());
         }
         while (!driver.isFinished());
     }
+
+    @Test
+    public void testUnblockOnFree()
+            throws Exception
+    {
+        MemoryPool pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(1, MEGABYTE), true);
+        assertTrue(pool.reserve(QUERY_ID, new DataSize(512, KILOBYTE).toBytes()).isDone());
+
+        ListenableFuture<?> future = pool.reserve(QUERY_ID, new DataSize(512, KILOBYTE).toBytes());
+        assertFalse(future.isDone());
+        assertFalse(pool.tryReserve(QUERY_ID, 1));
+
+        pool.free(QUERY_ID, 1);
+        assertTrue(future.isDone());
+        assertEquals(pool.getFreeBytes(), 1);
+    }
+
+    @Test
+    public void testFreeMoreThanReserved()
+    {
+        MemoryPool pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(1, MEGABYTE), true);
+        assertTrue(pool.tryReserve(QUERY_ID, 100));
+        try {
+            pool.free(QUERY_ID, 101);
+            fail("expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals(e.getMessage(), "tried to free more memory than is reserved");
+        }
+        // the failed free does not change the pool
+        assertEquals(pool.getFreeBytes(), new DataSize(1, MEGABYTE).toBytes() - 100);
+        pool.free(QUERY_ID, 100);
+        assertEquals(pool.getFreeBytes(), new DataSize(1, MEGABYTE).toBytes());
+    }
+
+    @Test
+    public void testQueryMemoryReservations()
+    {
+        MemoryPool pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(1, MEGABYTE), true);
+        QueryId otherQuery = new QueryId("other");
+        assertTrue(pool.reserve(QUERY_ID, 100).isDone());
+        assertTrue(pool.tryReserve(QUERY_ID, 50));
+        assertTrue(pool.tryReserve(otherQuery, 10));
+        assertEquals(pool.getInfo().getQueryMemoryReservations(), ImmutableMap.of(QUERY_ID, 150L, otherQuery, 10L));
+
+        try {
+            pool.free(otherQuery, 11);
+            fail("expected IllegalArgumentException");
+        }
+        catch (IllegalArgumentException e) {
+            assertEquals(e.getMessage(), "tried to free more memory than is reserved");
+        }
+
+        // queries that released all their memory are no longer reported
+        pool.free(QUERY_ID, 150);
+        assertEquals(pool.getInfo().getQueryMemoryReservations(), ImmutableMap.of(otherQuery, 10L));
+        pool.free(otherQuery, 10);
+        assertEquals(pool.getInfo().getQueryMemoryReservations(), ImmutableMap.of());
+        assertEquals(pool.getFreeBytes(), new DataSize(1, MEGABYTE).toBytes());
+    }
+
+    @Test
+    public void testDriverReservesInChunks()
+            throws Exception
+    {
+        ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-%s"));
+        try {
+            MemoryPool pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(10, MEGABYTE), true);
+            MemoryPool systemPool = new MemoryPool(new MemoryPoolId("testSystem"), new DataSize(10, MEGABYTE), true);
+            QueryContext queryContext = new QueryContext(QUERY_ID, true, new DataSize(10, MEGABYTE), pool, systemPool, executor);
+            TaskContext taskContext = createTaskContext(queryContext, executor, TEST_SESSION, new DataSize(10, MEGABYTE), new DataSize(0, BYTE));
+            DriverContext driverContext = taskContext.addPipelineContext(true, true).addDriverContext();
+
+            // small reservations are served from a single chunk reserved from the pool
+            for (int i = 0; i < 10; i++) {
+                assertTrue(driverContext.reserveMemory(1000).isDone());
+            }
+            long chunkFreeBytes = pool.getFreeBytes();
+            assertTrue(chunkFreeBytes < TEN_MEGABYTES - 10_000);
+            assertTrue(driverContext.tryReserveMemory(1000));
+            assertEquals(pool.getFreeBytes(), chunkFreeBytes);
+
+            // large reservations go to the pool directly
+            assertTrue(driverContext.reserveMemory(new DataSize(1, MEGABYTE).toBytes()).isDone());
+            assertEquals(pool.getFreeBytes(), chunkFreeBytes - new DataSize(1, MEGABYTE).toBytes());
+
+            driverContext.freeMemory(new DataSize(1, MEGABYTE).toBytes() + 11_000);
+            assertTrue(pool.getFreeBytes() > chunkFreeBytes - new DataSize(1, MEGABYTE).toBytes());
+
+            // all memory is returned to the pool when the driver finishes
+            driverContext.finished();
+            assertEquals(pool.getFreeBytes(), TEN_MEGABYTES);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testUnusedMemoryOfManyDriversIsBounded()
+            throws Exception
+    {
+        ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-%s"));
+        try {
+            MemoryPool pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(100, MEGABYTE), true);
+            MemoryPool systemPool = new MemoryPool(new MemoryPoolId("testSystem"), new DataSize(10, MEGABYTE), true);
+            QueryContext queryContext = new QueryContext(QUERY_ID, true, new DataSize(100, MEGABYTE), pool, systemPool, executor);
+            TaskContext taskContext = createTaskContext(queryContext, executor, TEST_SESSION, new DataSize(100, MEGABYTE), new DataSize(0, BYTE));
+            PipelineContext pipelineContext = taskContext.addPipelineContext(true, true);
+
+            List<DriverContext> driverContexts = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                DriverContext driverContext = pipelineContext.addDriverContext();
+                assertTrue(driverContext.reserveMemory(1000).isDone());
+                driverContexts.add(driverContext);
+            }
+            // a chunk for every driver would reserve more than 10MB, but the unused memory of the pipeline is capped
+            long maxUnusedBytes = new DataSize(1, MEGABYTE).toBytes() + new DataSize(64, KILOBYTE).toBytes();
+            assertTrue(pool.getMaxBytes() - pool.getFreeBytes() <= 200 * 1000 + maxUnusedBytes);
+
+            // the drivers keep freed memory only up to the same cap
+            for (DriverContext driverContext : driverContexts) {
+                driverContext.freeMemory(1000);
+            }
+            assertTrue(pool.getMaxBytes() - pool.getFreeBytes() <= maxUnusedBytes);
+
+            for (DriverContext driverContext : driverContexts) {
+                driverContext.finished();
+            }
+            assertEquals(pool.getFreeBytes(), pool.getMaxBytes());
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testFailedReservationKeepsUnusedMemory()
+            throws Exception
+    {
+        ExecutorService executor = newCachedThreadPool(daemonThreadsNamed("test-%s"));
+        try {
+            MemoryPool pool = new MemoryPool(new MemoryPoolId("test"), new DataSize(10, MEGABYTE), true);
+            MemoryPool systemPool = new MemoryPool(new MemoryPoolId("testSystem"), new DataSize(10, MEGABYTE), true);
+            QueryContext queryContext = new QueryContext(QUERY_ID, true, new DataSize(10, MEGABYTE), pool, systemPool, executor);
+            TaskContext taskContext = createTaskContext(queryContext, executor, TEST_SESSION, new DataSize(1, MEGABYTE), new DataSize(0, BYTE));
+            DriverContext driverContext = taskContext.addPipelineContext(true, true).addDriverContext();
+
+            // reserve a chunk from the pool, most of which is left unused by the driver
+            assertTrue(driverContext.reserveMemory(1000).isDone());
+            long chunkFreeBytes = pool.getFreeBytes();
+
+            try {
+                driverContext.reserveMemory(new DataSize(2, MEGABYTE).toBytes());
+                fail("expected ExceededMemoryLimitException");
+            }
+            catch (ExceededMemoryLimitException e) {
+                // expected
+            }
+            assertEquals(pool.getFreeBytes(), chunkFreeBytes);
+
+            // the unused part of the chunk is still owned by the driver and is returned when it finishes
+            assertTrue(driverContext.tryReserveMemory(1000));
+            assertEquals(pool.getFreeBytes(), chunkFreeBytes);
+            driverContext.freeMemory(2000);
+            driverContext.finished();
+            assertEquals(pool.getFreeBytes(), TEN_MEGABYTES);
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
 }
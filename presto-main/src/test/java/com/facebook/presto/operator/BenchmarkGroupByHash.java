@@ -106,6 +106,27 @@ public class BenchmarkGroupByHash
         return pageBuilder.build();
     }
 
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public Object fixedWidthGroupByHash(BenchmarkData data)
+    {
+        GroupByHash groupByHash = new FixedWidthGroupByHash(data.getTypes(), data.getChannels(), Optional.empty(), data.getHashChannel(), EXPECTED_SIZE);
+        data.getPages().forEach(groupByHash::getGroupIds);
+
+        ImmutableList.Builder<Page> pages = ImmutableList.builder();
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int groupId = 0; groupId < groupByHash.getGroupCount(); groupId++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(groupId, pageBuilder, 0);
+            if (pageBuilder.isFull()) {
+                pages.add(pageBuilder.build());
+                pageBuilder.reset();
+            }
+        }
+        pages.add(pageBuilder.build());
+        return pageBuilder.build();
+    }
+
     @Benchmark
     @OperationsPerInvocation(POSITIONS)
     public Object bigintGroupByHash(SingleChannelBenchmarkData data)
@@ -344,6 +365,7 @@ public class BenchmarkGroupByHash
         data.setup();
         new BenchmarkGroupByHash().groupByHashPreCompute(data);
         new BenchmarkGroupByHash().addPagePreCompute(data);
+        new BenchmarkGroupByHash().fixedWidthGroupByHash(data);
 
         SingleChannelBenchmarkData singleChannelBenchmarkData = new SingleChannelBenchmarkData();
         singleChannelBenchmarkData.setup();
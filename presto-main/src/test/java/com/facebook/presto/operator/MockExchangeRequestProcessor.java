@@ -61,10 +61,17 @@ public class MockExchangeRequestProcessor
     });
 
     private final DataSize expectedMaxSize;
+    private final boolean exactMaxSize;
 
     public MockExchangeRequestProcessor(DataSize expectedMaxSize)
+    {
+        this(expectedMaxSize, true);
+    }
+
+    public MockExchangeRequestProcessor(DataSize expectedMaxSize, boolean exactMaxSize)
     {
         this.expectedMaxSize = expectedMaxSize;
+        this.exactMaxSize = exactMaxSize;
     }
 
     public void addPage(URI location, Page page)
@@ -87,7 +94,12 @@ public class MockExchangeRequestProcessor
         // verify we got a data size and it parses correctly
         assertTrue(!request.getHeaders().get(PrestoHeaders.PRESTO_MAX_SIZE).isEmpty());
         DataSize maxSize = DataSize.valueOf(request.getHeader(PrestoHeaders.PRESTO_MAX_SIZE));
-        assertEquals(maxSize, expectedMaxSize);
+        if (exactMaxSize) {
+            assertEquals(maxSize, expectedMaxSize);
+        }
+        else {
+            assertTrue(maxSize.toBytes() > 0 && maxSize.toBytes() <= expectedMaxSize.toBytes(), "max size " + maxSize + " exceeds " + expectedMaxSize);
+        }
 
         RequestLocation requestLocation = new RequestLocation(request.getUri());
         URI location = requestLocation.getLocation();
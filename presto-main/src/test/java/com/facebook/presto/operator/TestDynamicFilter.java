@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.Range;
+import com.facebook.presto.spi.SortedRangeSet;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.TestingColumnHandle;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+public class TestDynamicFilter
+{
+    private static final List<Type> BUILD_TYPES = ImmutableList.of(VARCHAR, BIGINT);
+    private static final ColumnHandle PROBE_COLUMN = new TestingColumnHandle("probe");
+
+    @Test
+    public void testDistinctValues()
+    {
+        DynamicFilter dynamicFilter = new DynamicFilter(ImmutableMap.of(0, PROBE_COLUMN));
+        DynamicFilter.Collector collector = dynamicFilter.createCollector(BUILD_TYPES, ImmutableList.of(1));
+        dynamicFilter.noMoreCollectors();
+
+        List<Page> pages = rowPagesBuilder(BUILD_TYPES)
+                .row("a", 3)
+                .row("b", 1)
+                .row("c", null)
+                .pageBreak()
+                .row("d", 3)
+                .build();
+        pages.forEach(collector::add);
+        assertFalse(dynamicFilter.getTupleDomain().isDone());
+
+        collector.finish();
+        assertTrue(dynamicFilter.getTupleDomain().isDone());
+        assertEquals(
+                Futures.getUnchecked(dynamicFilter.getTupleDomain()),
+                TupleDomain.withColumnDomains(ImmutableMap.of(PROBE_COLUMN, Domain.create(SortedRangeSet.of(Range.equal(1L), Range.equal(3L)), false))));
+    }
+
+    @Test
+    public void testTooManyValuesFallsBackToRange()
+    {
+        DynamicFilter dynamicFilter = new DynamicFilter(ImmutableMap.of(0, PROBE_COLUMN));
+        DynamicFilter.Collector collector = dynamicFilter.createCollector(BUILD_TYPES, ImmutableList.of(0));
+        dynamicFilter.noMoreCollectors();
+
+        RowPagesBuilder pages = rowPagesBuilder(BUILD_TYPES);
+        for (int i = 100; i < 1000; i++) {
+            pages.row(String.valueOf(i), i);
+        }
+        pages.build().forEach(collector::add);
+        collector.finish();
+
+        assertEquals(
+                Futures.getUnchecked(dynamicFilter.getTupleDomain()),
+                TupleDomain.withColumnDomains(ImmutableMap.of(PROBE_COLUMN, Domain.create(SortedRangeSet.of(Range.range(utf8Slice("100"), true, utf8Slice("999"), true)), false))));
+    }
+
+    @Test
+    public void testEmptyBuild()
+    {
+        DynamicFilter dynamicFilter = new DynamicFilter(ImmutableMap.of(0, PROBE_COLUMN));
+        dynamicFilter.createCollector(BUILD_TYPES, ImmutableList.of(1)).finish();
+        dynamicFilter.noMoreCollectors();
+
+        assertTrue(Futures.getUnchecked(dynamicFilter.getTupleDomain()).isNone());
+    }
+
+    @Test
+    public void testMultipleCollectors()
+    {
+        DynamicFilter dynamicFilter = new DynamicFilter(ImmutableMap.of(0, PROBE_COLUMN));
+        DynamicFilter.Collector first = dynamicFilter.createCollector(BUILD_TYPES, ImmutableList.of(1));
+        DynamicFilter.Collector second = dynamicFilter.createCollector(BUILD_TYPES, ImmutableList.of(1));
+        dynamicFilter.noMoreCollectors();
+
+        rowPagesBuilder(BUILD_TYPES).row("a", 1).build().forEach(first::add);
+        first.finish();
+        assertFalse(dynamicFilter.getTupleDomain().isDone());
+
+        rowPagesBuilder(BUILD_TYPES).row("b", 2).build().forEach(second::add);
+        second.finish();
+        assertEquals(
+                Futures.getUnchecked(dynamicFilter.getTupleDomain()),
+                TupleDomain.withColumnDomains(ImmutableMap.of(PROBE_COLUMN, Domain.create(SortedRangeSet.of(Range.equal(1L), Range.equal(2L)), false))));
+    }
+}
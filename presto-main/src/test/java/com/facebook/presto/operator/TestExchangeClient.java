@@ -27,6 +27,8 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -252,6 +254,78 @@ public class TestExchangeClient
         assertStatus(exchangeClient.getStatus().getPageBufferClientStatuses().get(0), location, "closed", 3, 4, 4, "not scheduled");
     }
 
+    @Test(timeOut = 10000)
+    public void testRequestSizeLimitedByBufferSpace()
+            throws Exception
+    {
+        // the buffer is smaller than the maximum response size, so every request
+        // must ask for no more than the free space left in the buffer
+        DataSize maxBufferedBytes = new DataSize(1, Unit.KILOBYTE);
+        MockExchangeRequestProcessor processor = new MockExchangeRequestProcessor(maxBufferedBytes, false);
+
+        URI location = URI.create("http://localhost:8080");
+        for (int i = 0; i < 10; i++) {
+            processor.addPage(location, createPage(10));
+        }
+        processor.setComplete(location);
+
+        @SuppressWarnings("resource")
+        ExchangeClient exchangeClient = new ExchangeClient(
+                blockEncodingManager,
+                maxBufferedBytes,
+                new DataSize(10, Unit.MEGABYTE),
+                1,
+                new Duration(1, TimeUnit.MINUTES),
+                new TestingHttpClient(processor, newCachedThreadPool(daemonThreadsNamed("test-%s"))),
+                executor);
+        exchangeClient.addLocation(location);
+        exchangeClient.noMoreLocations();
+
+        for (int i = 0; i < 10; i++) {
+            assertPageEquals(exchangeClient.getNextPage(new Duration(1, TimeUnit.SECONDS)), createPage(10));
+        }
+        assertNull(exchangeClient.getNextPage(new Duration(1, TimeUnit.SECONDS)));
+        assertEquals(exchangeClient.isClosed(), true);
+    }
+
+    @Test(timeOut = 10000)
+    public void testBufferSpaceSplitBetweenClients()
+            throws Exception
+    {
+        // many sources share a small buffer: no request may ask for more than the whole buffer,
+        // and every source must still be read to the end
+        DataSize maxBufferedBytes = new DataSize(256, Unit.KILOBYTE);
+        MockExchangeRequestProcessor processor = new MockExchangeRequestProcessor(maxBufferedBytes, false);
+
+        List<URI> locations = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            URI location = URI.create("http://localhost:" + (8080 + i));
+            for (int page = 0; page < 5; page++) {
+                processor.addPage(location, createPage(10));
+            }
+            processor.setComplete(location);
+            locations.add(location);
+        }
+
+        @SuppressWarnings("resource")
+        ExchangeClient exchangeClient = new ExchangeClient(
+                blockEncodingManager,
+                maxBufferedBytes,
+                new DataSize(10, Unit.MEGABYTE),
+                4,
+                new Duration(1, TimeUnit.MINUTES),
+                new TestingHttpClient(processor, newCachedThreadPool(daemonThreadsNamed("test-%s"))),
+                executor);
+        locations.forEach(exchangeClient::addLocation);
+        exchangeClient.noMoreLocations();
+
+        for (int i = 0; i < 40; i++) {
+            assertPageEquals(exchangeClient.getNextPage(new Duration(1, TimeUnit.SECONDS)), createPage(10));
+        }
+        assertNull(exchangeClient.getNextPage(new Duration(1, TimeUnit.SECONDS)));
+        assertEquals(exchangeClient.isClosed(), true);
+    }
+
     @Test
     public void testClose()
             throws Exception
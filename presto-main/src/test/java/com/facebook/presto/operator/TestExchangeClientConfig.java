@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.operator;
 
+import com.facebook.presto.block.PageCompression;
 import com.google.common.collect.ImmutableMap;
 import io.airlift.http.client.HttpClientConfig;
 import io.airlift.units.DataSize;
@@ -37,7 +38,8 @@ public class TestExchangeClientConfig
                 .setConcurrentRequestMultiplier(3)
                 .setMinErrorDuration(new Duration(1, TimeUnit.MINUTES))
                 .setMaxResponseSize(new HttpClientConfig().getMaxContentLength())
-                .setClientThreads(25));
+                .setClientThreads(25)
+                .setCompressionCodec(PageCompression.NONE));
     }
 
     @Test
@@ -49,6 +51,7 @@ public class TestExchangeClientConfig
                 .put("exchange.min-error-duration", "13s")
                 .put("exchange.max-response-size", "1kB")
                 .put("exchange.client-threads", "2")
+                .put("exchange.compression-codec", "SNAPPY")
                 .build();
 
         ExchangeClientConfig expected = new ExchangeClientConfig()
@@ -56,7 +59,8 @@ public class TestExchangeClientConfig
                 .setConcurrentRequestMultiplier(13)
                 .setMinErrorDuration(new Duration(13, TimeUnit.SECONDS))
                 .setMaxResponseSize(new DataSize(1, Unit.KILOBYTE))
-                .setClientThreads(2);
+                .setClientThreads(2)
+                .setCompressionCodec(PageCompression.SNAPPY);
 
         assertFullMapping(properties, expected);
     }
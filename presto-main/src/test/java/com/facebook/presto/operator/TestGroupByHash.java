@@ -17,6 +17,10 @@ import com.facebook.presto.block.BlockAssertions;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.PageBuilder;
 import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.type.TypeUtils;
 import com.google.common.collect.ImmutableList;
 import org.testng.annotations.Test;
@@ -29,6 +33,7 @@ import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.wrappedIntArray;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertTrue;
@@ -200,4 +205,83 @@ public class TestGroupByHash
             assertTrue(groupByHash.contains(i, new Page(valuesBlock, hashBlock)));
         }
     }
+
+    @Test
+    public void testFixedWidthMultipleColumns()
+            throws Exception
+    {
+        List<Type> types = ImmutableList.of(BIGINT, DOUBLE);
+        BlockBuilder longs = BIGINT.createBlockBuilder(new BlockBuilderStatus(), 100);
+        BlockBuilder doubles = DOUBLE.createBlockBuilder(new BlockBuilderStatus(), 100);
+        for (int i = 0; i < 100; i++) {
+            // 25 distinct keys, including keys with null values
+            int key = i % 25;
+            if (key == 0) {
+                longs.appendNull();
+            }
+            else {
+                BIGINT.writeLong(longs, key % 5);
+            }
+            if (key == 1) {
+                doubles.appendNull();
+            }
+            else {
+                DOUBLE.writeDouble(doubles, key / 5);
+            }
+        }
+        Block longsBlock = longs.build();
+        Block doublesBlock = doubles.build();
+        Block hashBlock = TypeUtils.getHashBlock(types, longsBlock, doublesBlock);
+        Page page = new Page(longsBlock, doublesBlock, hashBlock);
+
+        // force rehashing with a small expected size
+        GroupByHash groupByHash = createGroupByHash(types, new int[] {0, 1}, Optional.<Integer>empty(), Optional.of(2), 4);
+        assertTrue(groupByHash instanceof FixedWidthGroupByHash);
+
+        GroupByIdBlock groupIds = groupByHash.getGroupIds(page);
+        assertEquals(groupByHash.getGroupCount(), 25);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(groupIds.getGroupId(i), i % 25);
+            assertTrue(groupByHash.contains(i, page));
+            assertEquals(groupByHash.getRawHash((int) groupIds.getGroupId(i)), BIGINT.getLong(hashBlock, i));
+        }
+
+        PageBuilder pageBuilder = new PageBuilder(groupByHash.getTypes());
+        for (int i = 0; i < groupByHash.getGroupCount(); i++) {
+            pageBuilder.declarePosition();
+            groupByHash.appendValuesTo(i, pageBuilder, 0);
+        }
+        Page outputPage = pageBuilder.build();
+        assertEquals(outputPage.getPositionCount(), 25);
+        BlockAssertions.assertBlockEquals(BIGINT, outputPage.getBlock(0), longsBlock.getRegion(0, 25));
+        BlockAssertions.assertBlockEquals(DOUBLE, outputPage.getBlock(1), doublesBlock.getRegion(0, 25));
+        BlockAssertions.assertBlockEquals(BIGINT, outputPage.getBlock(2), hashBlock.getRegion(0, 25));
+
+        Block missingLongs = BlockAssertions.createLongsBlock(100L);
+        Block missingDoubles = BlockAssertions.createDoublesBlock(0.0);
+        assertFalse(groupByHash.contains(0, new Page(missingLongs, missingDoubles, TypeUtils.getHashBlock(types, missingLongs, missingDoubles))));
+    }
+
+    @Test
+    public void testDictionaryBlock()
+            throws Exception
+    {
+        Block dictionary = BlockAssertions.createStringsBlock("a", "b", "c");
+        Block block = new DictionaryBlock(6, dictionary, wrappedIntArray(2, 0, 2, 1, 0, 2));
+
+        GroupByHash groupByHash = createGroupByHash(ImmutableList.of(VARCHAR), new int[] {0}, Optional.<Integer>empty(), Optional.empty(), 100);
+        GroupByIdBlock groupIds = groupByHash.getGroupIds(new Page(block));
+        assertEquals(groupByHash.getGroupCount(), 3);
+        long[] expectedGroupIds = {0, 1, 0, 2, 1, 0};
+        for (int i = 0; i < expectedGroupIds.length; i++) {
+            assertEquals(groupIds.getGroupId(i), expectedGroupIds[i]);
+        }
+
+        // plain blocks must resolve to the groups created from the dictionary
+        groupIds = groupByHash.getGroupIds(new Page(BlockAssertions.createStringsBlock("c", "a", "b")));
+        assertEquals(groupByHash.getGroupCount(), 3);
+        assertEquals(groupIds.getGroupId(0), 0);
+        assertEquals(groupIds.getGroupId(1), 1);
+        assertEquals(groupIds.getGroupId(2), 2);
+    }
 }
@@ -25,10 +25,14 @@ import com.facebook.presto.spi.block.BlockBuilderStatus;
 import com.facebook.presto.spi.block.PageBuilderStatus;
 import com.facebook.presto.spi.type.StandardTypes;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.BinarySpillerFactory;
+import com.facebook.presto.spiller.SpillerFactory;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.sql.planner.plan.AggregationNode.Step;
 import com.facebook.presto.sql.tree.QualifiedName;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
 import com.google.common.primitives.Ints;
 import io.airlift.slice.Slices;
 import io.airlift.units.DataSize;
@@ -38,6 +42,7 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -66,6 +71,7 @@ import static io.airlift.concurrent.Threads.daemonThreadsNamed;
 import static io.airlift.slice.SizeOf.SIZE_OF_DOUBLE;
 import static io.airlift.slice.SizeOf.SIZE_OF_LONG;
 import static io.airlift.testing.Assertions.assertEqualsIgnoreOrder;
+import static io.airlift.testing.FileUtils.deleteRecursively;
 import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
@@ -186,6 +192,68 @@ public class TestHashAggregationOperator
         toPages(operator, input);
     }
 
+    @Test(dataProvider = "hashEnabledValues")
+    public void testHashAggregationWithSpill(boolean hashEnabled)
+            throws Exception
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, hashChannels, BIGINT, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(20_000, 0, 0)
+                .addSequencePage(20_000, 0, 0)
+                .addSequencePage(20_000, 10_000, 10_000)
+                .build();
+
+        // the task memory limit is too small to hold a single page of groups, so every page is spilled,
+        // but large enough for the read buffers of the spilled runs while they are merged
+        DriverContext driverContext = createTaskContext(executor, TEST_SESSION, new DataSize(512, Unit.KILOBYTE))
+                .addPipelineContext(true, true)
+                .addDriverContext();
+
+        File spillPath = Files.createTempDir();
+        try {
+            SpillerFactory spillerFactory = new BinarySpillerFactory(
+                    MetadataManager.createTestMetadataManager().getBlockEncodingSerde(),
+                    new FeaturesConfig().setSpillerSpillPath(spillPath.getAbsolutePath()));
+
+            HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                    0,
+                    ImmutableList.of(BIGINT),
+                    hashChannels,
+                    Step.SINGLE,
+                    ImmutableList.of(COUNT.bind(ImmutableList.of(0), Optional.empty(), Optional.empty(), 1.0),
+                            LONG_SUM.bind(ImmutableList.of(1), Optional.empty(), Optional.empty(), 1.0)),
+                    Optional.<Integer>empty(),
+                    rowPagesBuilder.getHashChannel(),
+                    10,
+                    new DataSize(16, MEGABYTE),
+                    Optional.of(spillerFactory));
+
+            Operator operator = operatorFactory.createOperator(driverContext);
+
+            MaterializedResult.Builder expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT, BIGINT);
+            for (int i = 0; i < 30_000; i++) {
+                if (i < 10_000) {
+                    expected.row(i, 2, 2 * i);
+                }
+                else if (i < 20_000) {
+                    expected.row(i, 3, 3 * i);
+                }
+                else {
+                    expected.row(i, 1, i);
+                }
+            }
+
+            assertOperatorEqualsIgnoreOrder(operator, input, expected.build(), hashEnabled, Optional.of(hashChannels.size()));
+
+            operator.close();
+            assertEquals(spillPath.list().length, 0);
+        }
+        finally {
+            deleteRecursively(spillPath);
+        }
+    }
+
     @Test(dataProvider = "hashEnabledValues")
     public void testHashBuilderResize(boolean hashEnabled)
     {
@@ -363,4 +431,61 @@ public class TestHashAggregationOperator
         assertEquals(actual.getTypes(), expected.getTypes());
         assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
     }
+
+    @Test(dataProvider = "hashEnabledValues")
+    public void testPartialAggregationPassThrough(boolean hashEnabled)
+            throws Exception
+    {
+        List<Integer> hashChannels = Ints.asList(0);
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, hashChannels, BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(500, 0)
+                .addSequencePage(500, 500)
+                .addSequencePage(500, 1000)
+                .addSequencePage(500, 1500)
+                .build();
+
+        HashAggregationOperatorFactory operatorFactory = new HashAggregationOperatorFactory(
+                0,
+                ImmutableList.of(BIGINT),
+                hashChannels,
+                Step.PARTIAL,
+                ImmutableList.of(LONG_SUM.bind(ImmutableList.of(0), Optional.empty(), Optional.empty(), 1.0)),
+                Optional.<Integer>empty(),
+                rowPagesBuilder.getHashChannel(),
+                100_000,
+                new DataSize(16, MEGABYTE),
+                Optional.empty(),
+                true);
+
+        DriverContext driverContext = createTaskContext(executor, TEST_SESSION, new DataSize(1, Unit.KILOBYTE))
+                .addPipelineContext(true, true)
+                .addDriverContext();
+        Operator operator = operatorFactory.createOperator(driverContext);
+
+        List<Page> outputPages = toPages(operator, input);
+
+        // every key is distinct, so the operator must give up on aggregating after the first flush
+        PartialAggregationInfo info = (PartialAggregationInfo) operator.getOperatorContext().getOperatorStats().getInfo();
+        assertEquals(info.getPassThroughOperators(), 1);
+        assertTrue(info.getPassThroughPositions() > 0);
+        assertEquals(info.getAggregatedPositions() + info.getPassThroughPositions(), 2000);
+
+        MaterializedResult expected = resultBuilder(driverContext.getSession(), BIGINT, BIGINT)
+                .pages(rowPagesBuilder(BIGINT, BIGINT).addSequencePage(2000, 0, 0).build())
+                .build();
+
+        MaterializedResult actual;
+        if (hashEnabled) {
+            List<Page> actualPages = dropChannel(outputPages, hashChannels);
+            List<Type> expectedTypes = without(operator.getTypes(), hashChannels);
+            actual = toMaterializedResult(operator.getOperatorContext().getSession(), expectedTypes, actualPages);
+        }
+        else {
+            actual = toMaterializedResult(operator.getOperatorContext().getSession(), operator.getTypes(), outputPages);
+        }
+
+        assertEquals(actual.getTypes(), expected.getTypes());
+        assertEqualsIgnoreOrder(actual.getMaterializedRows(), expected.getMaterializedRows());
+    }
 }
@@ -15,13 +15,18 @@ package com.facebook.presto.operator;
 
 import com.facebook.presto.ExceededMemoryLimitException;
 import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.metadata.MetadataManager;
 import com.facebook.presto.operator.HashBuilderOperator.HashBuilderOperatorFactory;
 import com.facebook.presto.operator.ValuesOperator.ValuesOperatorFactory;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.BinarySpillerFactory;
+import com.facebook.presto.spiller.SpillerFactory;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.testing.MaterializedResult;
 import com.facebook.presto.testing.TestingTaskContext;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
 import com.google.common.primitives.Ints;
 import io.airlift.units.DataSize;
 import org.testng.annotations.AfterClass;
@@ -29,18 +34,24 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
 import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEquals;
+import static com.facebook.presto.operator.OperatorAssertion.assertOperatorEqualsIgnoreOrder;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.google.common.collect.Iterables.concat;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.FileUtils.deleteRecursively;
 import static io.airlift.units.DataSize.Unit.BYTE;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
 
 @Test(singleThreaded = true)
 public class TestHashJoinOperator
@@ -424,6 +435,79 @@ public class TestHashJoinOperator
         assertOperatorEquals(joinOperator, probeInput, expected, true, getHashChannels(probePages, buildPages));
     }
 
+    @DataProvider(name = "probeHashEnabledValues")
+    public static Object[][] probeHashEnabledValuesProvider()
+    {
+        return new Object[][] {{true}, {false}};
+    }
+
+    @Test(dataProvider = "probeHashEnabledValues")
+    public void testInnerJoinWithSpill(boolean probeHashEnabled)
+            throws Exception
+    {
+        TaskContext taskContext = createTaskContext();
+
+        File spillPath = Files.createTempDir();
+        try {
+            SpillerFactory spillerFactory = new BinarySpillerFactory(
+                    MetadataManager.createTestMetadataManager().getBlockEncodingSerde(),
+                    new FeaturesConfig().setSpillerSpillPath(spillPath.getAbsolutePath()));
+
+            // build, every partition exceeds the limit and is spilled
+            RowPagesBuilder buildPages = rowPagesBuilder(false, Ints.asList(0), ImmutableList.of(VARCHAR, BIGINT, BIGINT))
+                    .addSequencePage(10, 20, 30, 40);
+            ParallelHashBuilder parallelHashBuilder = new ParallelHashBuilder(
+                    buildPages.getTypes(),
+                    Ints.asList(0),
+                    buildPages.getHashChannel(),
+                    100,
+                    PARTITION_COUNT,
+                    Optional.of(spillerFactory),
+                    new DataSize(1, BYTE));
+            LookupSourceSupplier lookupSourceSupplier = buildParallelHash(parallelHashBuilder, taskContext, buildPages);
+
+            // probe
+            RowPagesBuilder probePages = rowPagesBuilder(probeHashEnabled, Ints.asList(0), ImmutableList.<Type>of(VARCHAR, BIGINT, BIGINT));
+            List<Page> probeInput = probePages
+                    .addSequencePage(1000, 0, 1000, 2000)
+                    .build();
+            OperatorFactory joinOperatorFactory = LookupJoinOperators.innerJoin(
+                    0,
+                    lookupSourceSupplier,
+                    probePages.getTypes(),
+                    Ints.asList(0),
+                    probePages.getHashChannel(),
+                    Optional.of(spillerFactory));
+
+            Operator joinOperator = joinOperatorFactory.createOperator(taskContext.addPipelineContext(true, true).addDriverContext());
+
+            // expected
+            MaterializedResult expected = MaterializedResult.resultBuilder(taskContext.getSession(), concat(probePages.getTypes(), buildPages.getTypes()))
+                    .row("20", 1020, 2020, "20", 30, 40)
+                    .row("21", 1021, 2021, "21", 31, 41)
+                    .row("22", 1022, 2022, "22", 32, 42)
+                    .row("23", 1023, 2023, "23", 33, 43)
+                    .row("24", 1024, 2024, "24", 34, 44)
+                    .row("25", 1025, 2025, "25", 35, 45)
+                    .row("26", 1026, 2026, "26", 36, 46)
+                    .row("27", 1027, 2027, "27", 37, 47)
+                    .row("28", 1028, 2028, "28", 38, 48)
+                    .row("29", 1029, 2029, "29", 39, 49)
+                    .build();
+
+            // spilled partitions are joined after the in-memory ones, so the output order is not preserved
+            assertOperatorEqualsIgnoreOrder(joinOperator, probeInput, expected, probeHashEnabled, probePages.getHashChannel());
+            assertTrue(joinOperator.getOperatorContext().getOperatorStats().getSpilledDataSize().toBytes() > 0);
+
+            joinOperator.close();
+            joinOperatorFactory.close();
+            assertEquals(spillPath.list().length, 0);
+        }
+        finally {
+            deleteRecursively(spillPath);
+        }
+    }
+
     @Test(expectedExceptions = ExceededMemoryLimitException.class, expectedExceptionsMessageRegExp = "Task exceeded max memory size.*", dataProvider = "hashEnabledValues")
     public void testMemoryLimit(boolean parallelBuild, boolean probeHashEnabled, boolean buildHashEnabled)
             throws Exception
@@ -456,33 +540,7 @@ public class TestHashJoinOperator
     {
         if (parallelBuild) {
             ParallelHashBuilder parallelHashBuilder = new ParallelHashBuilder(buildPages.getTypes(), hashChannels, buildPages.getHashChannel(), 100, PARTITION_COUNT);
-
-            // collect input data
-            DriverContext collectDriverContext = taskContext.addPipelineContext(true, true).addDriverContext();
-            ValuesOperatorFactory valuesOperatorFactory = new ValuesOperatorFactory(0, buildPages.getTypes(), buildPages.build());
-            OperatorFactory collectOperatorFactory = parallelHashBuilder.getCollectOperatorFactory(1);
-            Driver driver = new Driver(collectDriverContext,
-                    valuesOperatorFactory.createOperator(collectDriverContext),
-                    collectOperatorFactory.createOperator(collectDriverContext));
-
-            while (!driver.isFinished()) {
-                driver.process();
-            }
-
-            // build hash tables
-            PipelineContext buildPipeline = taskContext.addPipelineContext(true, true);
-            OperatorFactory buildOperatorFactory = parallelHashBuilder.getBuildOperatorFactory();
-            for (int i = 0; i < PARTITION_COUNT; i++) {
-                DriverContext buildDriverContext = buildPipeline.addDriverContext();
-                Driver buildDriver = new Driver(buildDriverContext,
-                        buildOperatorFactory.createOperator(buildDriverContext));
-
-                while (!buildDriver.isFinished()) {
-                    buildDriver.process();
-                }
-            }
-
-            return parallelHashBuilder.getLookupSourceSupplier();
+            return buildParallelHash(parallelHashBuilder, taskContext, buildPages);
         }
         else {
             DriverContext driverContext = taskContext.addPipelineContext(true, true).addDriverContext();
@@ -500,4 +558,34 @@ public class TestHashJoinOperator
             return hashBuilderOperatorFactory.getLookupSourceSupplier();
         }
     }
+
+    private static LookupSourceSupplier buildParallelHash(ParallelHashBuilder parallelHashBuilder, TaskContext taskContext, RowPagesBuilder buildPages)
+    {
+        // collect input data
+        DriverContext collectDriverContext = taskContext.addPipelineContext(true, true).addDriverContext();
+        ValuesOperatorFactory valuesOperatorFactory = new ValuesOperatorFactory(0, buildPages.getTypes(), buildPages.build());
+        OperatorFactory collectOperatorFactory = parallelHashBuilder.getCollectOperatorFactory(1);
+        Driver driver = new Driver(collectDriverContext,
+                valuesOperatorFactory.createOperator(collectDriverContext),
+                collectOperatorFactory.createOperator(collectDriverContext));
+
+        while (!driver.isFinished()) {
+            driver.process();
+        }
+
+        // build hash tables
+        PipelineContext buildPipeline = taskContext.addPipelineContext(true, true);
+        OperatorFactory buildOperatorFactory = parallelHashBuilder.getBuildOperatorFactory();
+        for (int i = 0; i < PARTITION_COUNT; i++) {
+            DriverContext buildDriverContext = buildPipeline.addDriverContext();
+            Driver buildDriver = new Driver(buildDriverContext,
+                    buildOperatorFactory.createOperator(buildDriverContext));
+
+            while (!buildDriver.isFinished()) {
+                buildDriver.process();
+            }
+        }
+
+        return parallelHashBuilder.getLookupSourceSupplier();
+    }
 }
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.block.Block;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test
+public class TestInMemoryExchange
+{
+    private static final int PARTITION_COUNT = 5;
+    private static final int ROW_COUNT = 100;
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-%s"));
+    }
+
+    @AfterClass
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @DataProvider(name = "hashEnabledValues")
+    public static Object[][] hashEnabledValuesProvider()
+    {
+        return new Object[][] { { true }, { false } };
+    }
+
+    @Test(dataProvider = "hashEnabledValues")
+    public void testHashPartitionedSink(boolean hashEnabled)
+            throws Exception
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(hashEnabled, Ints.asList(0), BIGINT);
+        List<Page> input = rowPagesBuilder
+                .addSequencePage(ROW_COUNT, 0)
+                .addSequencePage(ROW_COUNT, 0)
+                .build();
+
+        InMemoryExchange exchange = new InMemoryExchange(rowPagesBuilder.getTypes(), PARTITION_COUNT);
+        OperatorFactory sinkFactory = exchange.createHashPartitionedSinkFactory(0, ImmutableList.of(0), rowPagesBuilder.getHashChannel());
+        writeAll(exchange, sinkFactory, input);
+
+        // every value is sent twice, always to the same buffer
+        Map<Long, Integer> valuePartition = new HashMap<>();
+        int rows = 0;
+        for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            for (Page page : readAll(exchange, partition)) {
+                Block block = page.getBlock(0);
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    Integer previous = valuePartition.put(BIGINT.getLong(block, position), partition);
+                    assertTrue(previous == null || previous == partition);
+                    rows++;
+                }
+            }
+            assertTrue(exchange.isFinished(partition));
+        }
+        assertEquals(rows, 2 * ROW_COUNT);
+        assertEquals(valuePartition.size(), ROW_COUNT);
+        assertTrue(valuePartition.values().stream().distinct().count() > 1);
+    }
+
+    @Test
+    public void testRoundRobinSink()
+            throws Exception
+    {
+        RowPagesBuilder rowPagesBuilder = rowPagesBuilder(BIGINT);
+        for (int i = 0; i < 2 * PARTITION_COUNT; i++) {
+            rowPagesBuilder.addSequencePage(ROW_COUNT, i * ROW_COUNT);
+        }
+        List<Page> input = rowPagesBuilder.build();
+
+        InMemoryExchange exchange = new InMemoryExchange(rowPagesBuilder.getTypes(), PARTITION_COUNT);
+        writeAll(exchange, exchange.createRoundRobinSinkFactory(0), input);
+
+        for (int partition = 0; partition < PARTITION_COUNT; partition++) {
+            List<Page> pages = readAll(exchange, partition);
+            assertEquals(pages.size(), 2);
+            assertTrue(exchange.isFinished(partition));
+        }
+    }
+
+    private void writeAll(InMemoryExchange exchange, OperatorFactory sinkFactory, List<Page> input)
+            throws Exception
+    {
+        DriverContext driverContext = createTaskContext(executor, TEST_SESSION)
+                .addPipelineContext(true, true)
+                .addDriverContext();
+        Operator sink = sinkFactory.createOperator(driverContext);
+        sinkFactory.close();
+        exchange.noMoreSinkFactories();
+
+        for (Page page : input) {
+            assertTrue(sink.needsInput());
+            sink.addInput(page);
+        }
+        sink.finish();
+        sink.close();
+    }
+
+    private static List<Page> readAll(InMemoryExchange exchange, int bufferIndex)
+    {
+        List<Page> pages = new ArrayList<>();
+        for (Page page = exchange.removePage(bufferIndex); page != null; page = exchange.removePage(bufferIndex)) {
+            pages.add(page);
+        }
+        return pages;
+    }
+}
@@ -14,17 +14,24 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.ExceededMemoryLimitException;
+import com.facebook.presto.metadata.MetadataManager;
 import com.facebook.presto.operator.OrderByOperator.OrderByOperatorFactory;
 import com.facebook.presto.spi.Page;
+import com.facebook.presto.spiller.BinarySpillerFactory;
+import com.facebook.presto.spiller.SpillerFactory;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
 import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
 import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
 
 import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
@@ -39,7 +46,9 @@ import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.FileUtils.deleteRecursively;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
 
 @Test(singleThreaded = true)
 public class TestOrderByOperator
@@ -158,6 +167,64 @@ public class TestOrderByOperator
         assertOperatorEquals(operator, input, expected);
     }
 
+    @Test
+    public void testSpill()
+            throws Exception
+    {
+        List<Page> input = rowPagesBuilder(BIGINT, DOUBLE)
+                .row(1, 0.1)
+                .row(7, 0.7)
+                .pageBreak()
+                .row(-1, -0.1)
+                .row(4, 0.4)
+                .pageBreak()
+                .row(2, 0.2)
+                .row(6, 0.6)
+                .pageBreak()
+                .row(5, 0.5)
+                .row(3, 0.3)
+                .build();
+
+        File spillPath = Files.createTempDir();
+        try {
+            SpillerFactory spillerFactory = new BinarySpillerFactory(
+                    MetadataManager.createTestMetadataManager().getBlockEncodingSerde(),
+                    new FeaturesConfig().setSpillerSpillPath(spillPath.getAbsolutePath()));
+
+            // every page exceeds the limit, so each page becomes its own sorted run
+            OrderByOperatorFactory operatorFactory = new OrderByOperatorFactory(
+                    0,
+                    ImmutableList.of(BIGINT, DOUBLE),
+                    ImmutableList.of(1),
+                    10,
+                    ImmutableList.of(0),
+                    ImmutableList.of(ASC_NULLS_LAST),
+                    Optional.of(spillerFactory),
+                    new DataSize(1, Unit.BYTE));
+
+            Operator operator = operatorFactory.createOperator(driverContext);
+
+            MaterializedResult expected = resultBuilder(driverContext.getSession(), DOUBLE)
+                    .row(-0.1)
+                    .row(0.1)
+                    .row(0.2)
+                    .row(0.3)
+                    .row(0.4)
+                    .row(0.5)
+                    .row(0.6)
+                    .row(0.7)
+                    .build();
+
+            assertOperatorEquals(operator, input, expected);
+
+            operator.close();
+            assertEquals(spillPath.list().length, 0);
+        }
+        finally {
+            deleteRecursively(spillPath);
+        }
+    }
+
     @Test(expectedExceptions = ExceededMemoryLimitException.class, expectedExceptionsMessageRegExp = "Task exceeded max memory size of 10B")
     public void testMemoryLimit()
             throws Exception
@@ -40,6 +40,7 @@ public class TestPipelineStats
             3,
             2,
             4,
+            3,
 
             new DataSize(5, BYTE),
 
@@ -87,6 +88,7 @@ public class TestPipelineStats
         assertEquals(actual.getRunningDrivers(), 3);
         assertEquals(actual.getRunningPartitionedDrivers(), 2);
         assertEquals(actual.getCompletedDrivers(), 4);
+        assertEquals(actual.getCompletedPartitionedDrivers(), 3);
 
         assertEquals(actual.getMemoryReservation(), new DataSize(5, BYTE));
 
@@ -23,25 +23,51 @@ import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.FixedPageSource;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.RecordPageSource;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.LazyBlockLoader;
+import com.facebook.presto.spi.block.LazySliceArrayBlock;
 import com.facebook.presto.spi.type.Type;
 import com.facebook.presto.split.PageSourceProvider;
+import com.facebook.presto.sql.gen.ExpressionCompiler;
+import com.facebook.presto.sql.planner.TestingColumnHandle;
 import com.facebook.presto.sql.planner.plan.PlanNodeId;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.Futures;
+import io.airlift.slice.Slice;
 import org.testng.annotations.Test;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.block.BlockAssertions.createLongSequenceBlock;
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.operator.GroupByHash.createGroupByHash;
 import static com.facebook.presto.operator.OperatorAssertion.toMaterializedResult;
 import static com.facebook.presto.operator.ProjectionFunctions.singleColumn;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.sql.relational.Signatures.comparisonExpressionSignature;
+import static com.facebook.presto.sql.tree.ComparisonExpression.Type.GREATER_THAN;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
+import static com.google.common.collect.Iterables.getOnlyElement;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.slice.Slices.utf8Slice;
 import static java.util.concurrent.Executors.newCachedThreadPool;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
 public class TestScanFilterAndProjectOperator
 {
@@ -85,6 +111,164 @@ public class TestScanFilterAndProjectOperator
         assertEquals(actual, expected);
     }
 
+    @Test
+    public void testDictionaryPageSource()
+            throws Exception
+    {
+        // a dictionary encoded string column, as produced by the ORC reader
+        Slice[] dictionary = {utf8Slice("a"), utf8Slice("b"), utf8Slice("c")};
+        int[] ids = {2, 0, 2, 1, 0, 2};
+        LazySliceArrayBlock block = new LazySliceArrayBlock(ids.length, new LazyBlockLoader<LazySliceArrayBlock>()
+        {
+            @Override
+            public void load(LazySliceArrayBlock block)
+            {
+                block.setValues(dictionary, ids, new boolean[ids.length]);
+            }
+
+            @Override
+            public void load(LazySliceArrayBlock block, int[] positions, int positionCount)
+            {
+                load(block);
+            }
+        });
+        Page input = new Page(block);
+        DriverContext driverContext = newDriverContext();
+
+        ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory factory = new ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory(
+                0,
+                new PlanNodeId("0"),
+                new PageSourceProvider() {
+                    @Override
+                    public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns)
+                    {
+                        return new FixedPageSource(ImmutableList.of(input));
+                    }
+                },
+                new GenericCursorProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 0))),
+                new ExpressionCompiler(createTestMetadataManager()).compilePageProcessor(constant(true, BOOLEAN), ImmutableList.of(field(0, VARCHAR))),
+                ImmutableList.<ColumnHandle>of(),
+                ImmutableList.<Type>of(VARCHAR));
+
+        SourceOperator operator = factory.createOperator(driverContext);
+        operator.addSplit(new Split("test", TestingSplit.createLocalSplit()));
+        operator.noMoreSplits();
+
+        // the scan outputs the dictionary, so grouping computes one hash per dictionary entry
+        Page output = getOnlyElement(toPages(operator));
+        assertTrue(output.getBlock(0) instanceof DictionaryBlock);
+        assertEquals(((DictionaryBlock) output.getBlock(0)).getDictionary().getPositionCount(), dictionary.length);
+
+        GroupByHash groupByHash = createGroupByHash(ImmutableList.of(VARCHAR), new int[] {0}, Optional.<Integer>empty(), Optional.empty(), 100);
+        GroupByIdBlock groupIds = groupByHash.getGroupIds(output);
+        assertEquals(groupByHash.getGroupCount(), 3);
+        long[] expectedGroupIds = {0, 1, 0, 2, 1, 0};
+        for (int i = 0; i < expectedGroupIds.length; i++) {
+            assertEquals(groupIds.getGroupId(i), expectedGroupIds[i]);
+        }
+    }
+
+    @Test
+    public void testFilterRejectingAllRowsDoesNotLoadProjectedColumns()
+            throws Exception
+    {
+        LazySliceArrayBlock block = new LazySliceArrayBlock(100, new LazyBlockLoader<LazySliceArrayBlock>()
+        {
+            @Override
+            public void load(LazySliceArrayBlock block)
+            {
+                fail("block should not be loaded");
+            }
+
+            @Override
+            public void load(LazySliceArrayBlock block, int[] positions, int positionCount)
+            {
+                fail("block should not be loaded");
+            }
+        });
+        Page input = new Page(createLongSequenceBlock(0, 100), block);
+        DriverContext driverContext = newDriverContext();
+
+        ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory factory = new ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory(
+                0,
+                new PlanNodeId("0"),
+                new PageSourceProvider() {
+                    @Override
+                    public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns)
+                    {
+                        return new FixedPageSource(ImmutableList.of(input));
+                    }
+                },
+                new GenericCursorProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 1))),
+                new ExpressionCompiler(createTestMetadataManager()).compilePageProcessor(
+                        call(comparisonExpressionSignature(GREATER_THAN, BIGINT, BIGINT), BOOLEAN, field(0, BIGINT), constant(1000L, BIGINT)),
+                        ImmutableList.of(field(1, VARCHAR))),
+                ImmutableList.<ColumnHandle>of(),
+                ImmutableList.<Type>of(VARCHAR));
+
+        SourceOperator operator = factory.createOperator(driverContext);
+        operator.addSplit(new Split("test", TestingSplit.createLocalSplit()));
+        operator.noMoreSplits();
+
+        assertTrue(toPages(operator).isEmpty());
+        assertFalse(block.isLoaded());
+    }
+
+    @Test
+    public void testProjectedLazyColumnOnlyLoadsSelectedPositions()
+            throws Exception
+    {
+        LazySliceArrayBlock block = new LazySliceArrayBlock(100, new LazyBlockLoader<LazySliceArrayBlock>()
+        {
+            @Override
+            public void load(LazySliceArrayBlock block)
+            {
+                fail("block should only be loaded at the selected positions");
+            }
+
+            @Override
+            public void load(LazySliceArrayBlock block, int[] positions, int positionCount)
+            {
+                assertEquals(positionCount, 4);
+                Slice[] values = new Slice[100];
+                for (int i = 0; i < positionCount; i++) {
+                    assertEquals(positions[i], 96 + i);
+                    values[positions[i]] = utf8Slice("value" + positions[i]);
+                }
+                block.setValues(values);
+            }
+        });
+        Page input = new Page(createLongSequenceBlock(0, 100), block);
+        DriverContext driverContext = newDriverContext();
+
+        ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory factory = new ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory(
+                0,
+                new PlanNodeId("0"),
+                new PageSourceProvider() {
+                    @Override
+                    public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns)
+                    {
+                        return new FixedPageSource(ImmutableList.of(input));
+                    }
+                },
+                new GenericCursorProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 1))),
+                new ExpressionCompiler(createTestMetadataManager()).compilePageProcessor(
+                        call(comparisonExpressionSignature(GREATER_THAN, BIGINT, BIGINT), BOOLEAN, field(0, BIGINT), constant(95L, BIGINT)),
+                        ImmutableList.of(field(1, VARCHAR))),
+                ImmutableList.<ColumnHandle>of(),
+                ImmutableList.<Type>of(VARCHAR));
+
+        SourceOperator operator = factory.createOperator(driverContext);
+        operator.addSplit(new Split("test", TestingSplit.createLocalSplit()));
+        operator.noMoreSplits();
+
+        Page output = getOnlyElement(toPages(operator));
+        assertEquals(output.getPositionCount(), 4);
+        for (int position = 0; position < 4; position++) {
+            assertEquals(VARCHAR.getSlice(output.getBlock(0), position), utf8Slice("value" + (96 + position)));
+        }
+    }
+
     @Test
     public void testRecordCursorSource()
             throws Exception
@@ -118,6 +302,97 @@ public class TestScanFilterAndProjectOperator
         assertEquals(actual, expected);
     }
 
+    @Test
+    public void testDynamicFilter()
+            throws Exception
+    {
+        final Page input = SequencePageBuilder.createSequencePage(ImmutableList.of(VARCHAR), 10_000, 0);
+        DriverContext driverContext = newDriverContext();
+
+        ColumnHandle column = new TestingColumnHandle("column");
+        DynamicFilter dynamicFilter = new DynamicFilter(ImmutableMap.of(0, column));
+        AtomicReference<TupleDomain<ColumnHandle>> pushedDown = new AtomicReference<>();
+
+        ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory factory = new ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory(
+                0,
+                new PlanNodeId("0"),
+                new PageSourceProvider() {
+                    @Override
+                    public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns)
+                    {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+                    {
+                        pushedDown.set(dynamicFilter);
+                        return new FixedPageSource(ImmutableList.of(input));
+                    }
+                },
+                new GenericCursorProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 0))),
+                new GenericPageProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 0))),
+                ImmutableList.of(column),
+                ImmutableList.<Type>of(VARCHAR),
+                Optional.of(dynamicFilter));
+
+        SourceOperator operator = factory.createOperator(driverContext);
+        operator.addSplit(new Split("test", TestingSplit.createLocalSplit()));
+        operator.noMoreSplits();
+
+        // the split is not opened until the build side publishes the filter
+        assertFalse(operator.isBlocked().isDone());
+        assertFalse(operator.isFinished());
+        assertNull(pushedDown.get());
+
+        DynamicFilter.Collector collector = dynamicFilter.createCollector(ImmutableList.of(VARCHAR), ImmutableList.of(0));
+        dynamicFilter.noMoreCollectors();
+        collector.add(input);
+        collector.finish();
+        assertTrue(operator.isBlocked().isDone());
+
+        MaterializedResult expected = toMaterializedResult(driverContext.getSession(), ImmutableList.<Type>of(VARCHAR), ImmutableList.of(input));
+        MaterializedResult actual = toMaterializedResult(driverContext.getSession(), ImmutableList.<Type>of(VARCHAR), toPages(operator));
+        assertEquals(actual, expected);
+        assertEquals(pushedDown.get(), Futures.getUnchecked(dynamicFilter.getTupleDomain()));
+    }
+
+    @Test
+    public void testDynamicFilterWithEmptyBuild()
+            throws Exception
+    {
+        DriverContext driverContext = newDriverContext();
+
+        ColumnHandle column = new TestingColumnHandle("column");
+        DynamicFilter dynamicFilter = new DynamicFilter(ImmutableMap.of(0, column));
+
+        ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory factory = new ScanFilterAndProjectOperator.ScanFilterAndProjectOperatorFactory(
+                0,
+                new PlanNodeId("0"),
+                new PageSourceProvider() {
+                    @Override
+                    public ConnectorPageSource createPageSource(Session session, Split split, List<ColumnHandle> columns)
+                    {
+                        throw new UnsupportedOperationException();
+                    }
+                },
+                new GenericCursorProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 0))),
+                new GenericPageProcessor(FilterFunctions.TRUE_FUNCTION, ImmutableList.of(singleColumn(VARCHAR, 0))),
+                ImmutableList.of(column),
+                ImmutableList.<Type>of(VARCHAR),
+                Optional.of(dynamicFilter));
+
+        SourceOperator operator = factory.createOperator(driverContext);
+        operator.addSplit(new Split("test", TestingSplit.createLocalSplit()));
+        operator.noMoreSplits();
+
+        dynamicFilter.createCollector(ImmutableList.of(VARCHAR), ImmutableList.of(0)).finish();
+        dynamicFilter.noMoreCollectors();
+
+        // the split is never opened, since no probe row can match an empty build
+        assertTrue(toPages(operator).isEmpty());
+    }
+
     public static List<Page> toPages(Operator operator)
     {
         ImmutableList.Builder<Page> outputPages = ImmutableList.builder();
@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.BinarySpillerFactory;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.spi.block.SortOrder.ASC_NULLS_LAST;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static org.testng.Assert.assertEquals;
+
+public class TestSortedRunSpiller
+{
+    @Test
+    public void testMergeWithLimitedFanIn()
+            throws Exception
+    {
+        List<Type> types = ImmutableList.of(BIGINT);
+
+        File spillPath = Files.createTempDir();
+        try {
+            BinarySpillerFactory spillerFactory = new BinarySpillerFactory(
+                    MetadataManager.createTestMetadataManager().getBlockEncodingSerde(),
+                    new FeaturesConfig().setSpillerSpillPath(spillPath.getAbsolutePath()));
+            SortedRunSpiller spiller = new SortedRunSpiller(spillerFactory, types, ImmutableList.of(0), ImmutableList.of(ASC_NULLS_LAST), 2);
+
+            // five interleaved runs of four rows each
+            for (int run = 0; run < 5; run++) {
+                spiller.spill(rowPagesBuilder(types)
+                        .row(run)
+                        .row(run + 5)
+                        .pageBreak()
+                        .row(run + 10)
+                        .row(run + 15)
+                        .build()
+                        .iterator());
+            }
+            assertEquals(spillPath.list().length, 5);
+
+            Iterator<Page> mergedPages = spiller.mergeRuns();
+
+            // the runs were merged until no more than two remained
+            assertEquals(spillPath.list().length, 2);
+            assertEquals(spiller.getReadBufferSizeInBytes(), 2 * spillerFactory.create(types).getReadBufferSizeInBytes());
+
+            List<Long> values = new ArrayList<>();
+            while (mergedPages.hasNext()) {
+                Page page = mergedPages.next();
+                for (int position = 0; position < page.getPositionCount(); position++) {
+                    values.add(BIGINT.getLong(page.getBlock(0), position));
+                }
+            }
+            List<Long> expected = new ArrayList<>();
+            for (long value = 0; value < 20; value++) {
+                expected.add(value);
+            }
+            assertEquals(values, expected);
+
+            spiller.close();
+            assertEquals(spillPath.list().length, 0);
+        }
+        finally {
+            deleteRecursively(spillPath);
+        }
+    }
+}
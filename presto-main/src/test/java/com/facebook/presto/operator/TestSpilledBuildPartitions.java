@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.operator;
+
+import com.facebook.presto.RowPagesBuilder;
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.BinarySpillerFactory;
+import com.facebook.presto.spiller.PartitionedSpiller;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
+import com.facebook.presto.testing.TestingTaskContext;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Files;
+import com.google.common.primitives.Ints;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static com.facebook.presto.RowPagesBuilder.rowPagesBuilder;
+import static com.facebook.presto.SessionTestUtils.TEST_SESSION;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.FileUtils.deleteRecursively;
+import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+public class TestSpilledBuildPartitions
+{
+    private ExecutorService executor;
+
+    @BeforeClass
+    public void setUp()
+    {
+        executor = newCachedThreadPool(daemonThreadsNamed("test-%s"));
+    }
+
+    @AfterClass
+    public void tearDown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testLookupSourceIsSharedUntilReleased()
+            throws Exception
+    {
+        TaskContext taskContext = TestingTaskContext.createTaskContext(executor, TEST_SESSION);
+        List<Type> types = ImmutableList.of(VARCHAR, BIGINT);
+        RowPagesBuilder buildPages = rowPagesBuilder(types)
+                .addSequencePage(10, 20, 30);
+
+        File spillPath = Files.createTempDir();
+        try {
+            BinarySpillerFactory spillerFactory = new BinarySpillerFactory(
+                    MetadataManager.createTestMetadataManager().getBlockEncodingSerde(),
+                    new FeaturesConfig().setSpillerSpillPath(spillPath.getAbsolutePath()));
+            PartitionedSpiller spiller = new PartitionedSpiller(types, spillerFactory, 2);
+            spiller.spill(0, buildPages.build().iterator());
+            spiller.spill(1, buildPages.build().iterator());
+
+            SpilledBuildPartitions spilledPartitions = new SpilledBuildPartitions(
+                    types,
+                    Ints.asList(0),
+                    Optional.empty(),
+                    ImmutableSet.of(0, 1),
+                    Optional.of(spiller),
+                    Optional.of(taskContext));
+
+            // two probe operators join the spilled partitions
+            spilledPartitions.retain();
+            spilledPartitions.retain();
+
+            // the partition is read back from disk once and charged to the task once
+            LookupSource lookupSource = spilledPartitions.getLookupSource(0);
+            long lookupSourceBytes = lookupSource.getInMemorySizeInBytes();
+            assertTrue(lookupSourceBytes > 0);
+            assertSame(spilledPartitions.getLookupSource(0), lookupSource);
+            assertEquals(getTaskMemoryReservation(taskContext), lookupSourceBytes);
+
+            // the lookup source is kept until the last probe operator releases it
+            spilledPartitions.release(0);
+            assertSame(spilledPartitions.getLookupSource(0), lookupSource);
+            assertEquals(getTaskMemoryReservation(taskContext), lookupSourceBytes);
+            spilledPartitions.release(0);
+            assertEquals(getTaskMemoryReservation(taskContext), 0);
+
+            // a partition released by every probe operator is built again for a new probe operator
+            spilledPartitions.retain();
+            assertNotSame(spilledPartitions.getLookupSource(0), lookupSource);
+            spilledPartitions.release(0);
+
+            // closing frees the lookup sources that are still in use
+            spilledPartitions.getLookupSource(1);
+            assertTrue(getTaskMemoryReservation(taskContext) > 0);
+            spilledPartitions.close();
+            assertEquals(getTaskMemoryReservation(taskContext), 0);
+            assertEquals(spillPath.list().length, 0);
+        }
+        finally {
+            deleteRecursively(spillPath);
+        }
+    }
+
+    private static long getTaskMemoryReservation(TaskContext taskContext)
+    {
+        return taskContext.getTaskStats().getMemoryReservation().toBytes();
+    }
+}
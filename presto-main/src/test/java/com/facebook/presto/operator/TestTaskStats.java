@@ -43,6 +43,7 @@ public class TestTaskStats
             8,
             6,
             10,
+            9,
 
             new DataSize(11, BYTE),
             new Duration(12, NANOSECONDS),
@@ -89,6 +90,7 @@ public class TestTaskStats
         assertEquals(actual.getRunningDrivers(), 8);
         assertEquals(actual.getRunningPartitionedDrivers(), 6);
         assertEquals(actual.getCompletedDrivers(), 10);
+        assertEquals(actual.getCompletedPartitionedDrivers(), 9);
 
         assertEquals(actual.getMemoryReservation(), new DataSize(11, BYTE));
 
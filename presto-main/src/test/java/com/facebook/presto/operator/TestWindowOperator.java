@@ -14,6 +14,7 @@
 package com.facebook.presto.operator;
 
 import com.facebook.presto.ExceededMemoryLimitException;
+import com.facebook.presto.metadata.MetadataManager;
 import com.facebook.presto.operator.WindowOperator.WindowOperatorFactory;
 import com.facebook.presto.operator.window.FirstValueFunction;
 import com.facebook.presto.operator.window.FrameInfo;
@@ -26,8 +27,12 @@ import com.facebook.presto.operator.window.RowNumberFunction;
 import com.facebook.presto.spi.Page;
 import com.facebook.presto.spi.block.SortOrder;
 import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.spiller.BinarySpillerFactory;
+import com.facebook.presto.spiller.SpillerFactory;
+import com.facebook.presto.sql.analyzer.FeaturesConfig;
 import com.facebook.presto.testing.MaterializedResult;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.Files;
 import com.google.common.primitives.Ints;
 import io.airlift.units.DataSize;
 import io.airlift.units.DataSize.Unit;
@@ -35,6 +40,7 @@ import org.testng.annotations.AfterMethod;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.io.File;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutorService;
@@ -55,7 +61,9 @@ import static com.facebook.presto.sql.tree.WindowFrame.Type.RANGE;
 import static com.facebook.presto.testing.MaterializedResult.resultBuilder;
 import static com.facebook.presto.testing.TestingTaskContext.createTaskContext;
 import static io.airlift.concurrent.Threads.daemonThreadsNamed;
+import static io.airlift.testing.FileUtils.deleteRecursively;
 import static java.util.concurrent.Executors.newCachedThreadPool;
+import static org.testng.Assert.assertEquals;
 
 @Test(singleThreaded = true)
 public class TestWindowOperator
@@ -170,6 +178,64 @@ public class TestWindowOperator
         assertOperatorEquals(operator, input, expected);
     }
 
+    @Test
+    public void testRowNumberPartitionWithSpill()
+            throws Exception
+    {
+        List<Page> input = rowPagesBuilder(VARCHAR, BIGINT, DOUBLE, BOOLEAN)
+                .row("b", -1, -0.1, true)
+                .row("a", 2, 0.3, false)
+                .pageBreak()
+                .row("c", 7, 0.5, false)
+                .row("a", 4, 0.2, true)
+                .pageBreak()
+                .row("b", 5, 0.4, false)
+                .row("a", 6, 0.1, true)
+                .build();
+
+        File spillPath = Files.createTempDir();
+        try {
+            SpillerFactory spillerFactory = new BinarySpillerFactory(
+                    MetadataManager.createTestMetadataManager().getBlockEncodingSerde(),
+                    new FeaturesConfig().setSpillerSpillPath(spillPath.getAbsolutePath()));
+
+            // every page exceeds the limit, so partitions are reassembled from the spilled runs
+            WindowOperatorFactory operatorFactory = new WindowOperatorFactory(
+                    0,
+                    ImmutableList.of(VARCHAR, BIGINT, DOUBLE, BOOLEAN),
+                    Ints.asList(0, 1, 2, 3),
+                    ROW_NUMBER,
+                    Ints.asList(0),
+                    ImmutableList.of(),
+                    Ints.asList(1),
+                    ImmutableList.of(SortOrder.ASC_NULLS_LAST),
+                    0,
+                    new FrameInfo(RANGE, UNBOUNDED_PRECEDING, Optional.empty(), UNBOUNDED_FOLLOWING, Optional.empty()),
+                    10,
+                    Optional.of(spillerFactory),
+                    new DataSize(1, Unit.BYTE));
+
+            Operator operator = operatorFactory.createOperator(driverContext);
+
+            MaterializedResult expected = resultBuilder(driverContext.getSession(), VARCHAR, BIGINT, DOUBLE, BOOLEAN, BIGINT)
+                    .row("a", 2, 0.3, false, 1)
+                    .row("a", 4, 0.2, true, 2)
+                    .row("a", 6, 0.1, true, 3)
+                    .row("b", -1, -0.1, true, 1)
+                    .row("b", 5, 0.4, false, 2)
+                    .row("c", 7, 0.5, false, 1)
+                    .build();
+
+            assertOperatorEquals(operator, input, expected);
+
+            operator.close();
+            assertEquals(spillPath.list().length, 0);
+        }
+        finally {
+            deleteRecursively(spillPath);
+        }
+    }
+
     @Test
     public void testRowNumberArbitrary()
             throws Exception
@@ -15,13 +15,16 @@ package com.facebook.presto.sql.analyzer;
 
 import com.google.common.collect.ImmutableMap;
 import io.airlift.configuration.testing.ConfigAssertions;
+import io.airlift.units.DataSize;
 import org.testng.annotations.Test;
 
+import java.nio.file.Paths;
 import java.util.Map;
 
 import static io.airlift.configuration.testing.ConfigAssertions.assertDeprecatedEquivalence;
 import static io.airlift.configuration.testing.ConfigAssertions.assertFullMapping;
 import static io.airlift.configuration.testing.ConfigAssertions.assertRecordedDefaults;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 
 public class TestFeaturesConfig
 {
@@ -35,7 +38,15 @@ public class TestFeaturesConfig
                 .setRedistributeWrites(true)
                 .setOptimizeMetadataQueries(false)
                 .setOptimizeHashGeneration(false)
-                .setOptimizeSingleDistinct(true));
+                .setOptimizeSingleDistinct(true)
+                .setReorderJoins(false)
+                .setAutomaticJoinDistribution(false)
+                .setBroadcastJoinMaxBuildSize(new DataSize(100, MEGABYTE))
+                .setSpillEnabled(false)
+                .setSpillerSpillPath(Paths.get(System.getProperty("java.io.tmpdir"), "presto", "spills").toString())
+                .setOperatorMemoryLimitBeforeSpill(new DataSize(4, MEGABYTE))
+                .setDynamicFilteringEnabled(false)
+                .setColocatedJoinsEnabled(false));
     }
 
     @Test
@@ -49,6 +60,14 @@ public class TestFeaturesConfig
                 .put("optimizer.optimize-metadata-queries", "true")
                 .put("optimizer.optimize-hash-generation", "true")
                 .put("optimizer.optimize-single-distinct", "false")
+                .put("optimizer.reorder-joins", "true")
+                .put("optimizer.automatic-join-distribution", "true")
+                .put("optimizer.broadcast-join-max-build-size", "10MB")
+                .put("experimental.spill-enabled", "true")
+                .put("experimental.spiller-spill-path", "/tmp/custom/spill/path")
+                .put("experimental.operator-memory-limit-before-spill", "100MB")
+                .put("experimental.dynamic-filtering-enabled", "true")
+                .put("optimizer.colocated-joins-enabled", "true")
                 .build();
         Map<String, String> properties = new ImmutableMap.Builder<String, String>()
                 .put("experimental-syntax-enabled", "true")
@@ -58,6 +77,14 @@ public class TestFeaturesConfig
                 .put("optimizer.optimize-metadata-queries", "true")
                 .put("optimizer.optimize-hash-generation", "true")
                 .put("optimizer.optimize-single-distinct", "false")
+                .put("optimizer.reorder-joins", "true")
+                .put("optimizer.automatic-join-distribution", "true")
+                .put("optimizer.broadcast-join-max-build-size", "10MB")
+                .put("experimental.spill-enabled", "true")
+                .put("experimental.spiller-spill-path", "/tmp/custom/spill/path")
+                .put("experimental.operator-memory-limit-before-spill", "100MB")
+                .put("experimental.dynamic-filtering-enabled", "true")
+                .put("optimizer.colocated-joins-enabled", "true")
                 .build();
 
         FeaturesConfig expected = new FeaturesConfig()
@@ -67,7 +94,15 @@ public class TestFeaturesConfig
                 .setRedistributeWrites(false)
                 .setOptimizeMetadataQueries(true)
                 .setOptimizeHashGeneration(true)
-                .setOptimizeSingleDistinct(false);
+                .setOptimizeSingleDistinct(false)
+                .setReorderJoins(true)
+                .setAutomaticJoinDistribution(true)
+                .setBroadcastJoinMaxBuildSize(new DataSize(10, MEGABYTE))
+                .setSpillEnabled(true)
+                .setSpillerSpillPath("/tmp/custom/spill/path")
+                .setOperatorMemoryLimitBeforeSpill(new DataSize(100, MEGABYTE))
+                .setDynamicFilteringEnabled(true)
+                .setColocatedJoinsEnabled(true);
 
         assertFullMapping(properties, expected);
         assertDeprecatedEquivalence(FeaturesConfig.class, properties, propertiesLegacy);
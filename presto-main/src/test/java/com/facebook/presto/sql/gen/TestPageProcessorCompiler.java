@@ -0,0 +1,228 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.gen;
+
+import com.facebook.presto.operator.PageProcessor;
+import com.facebook.presto.spi.Page;
+import com.facebook.presto.spi.PageBuilder;
+import com.facebook.presto.spi.block.Block;
+import com.facebook.presto.spi.block.BlockBuilder;
+import com.facebook.presto.spi.block.BlockBuilderStatus;
+import com.facebook.presto.spi.block.DictionaryBlock;
+import com.facebook.presto.spi.block.LazyBlockLoader;
+import com.facebook.presto.spi.block.LazySliceArrayBlock;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.relational.RowExpression;
+import com.google.common.collect.ImmutableList;
+import io.airlift.slice.Slice;
+import org.testng.annotations.Test;
+
+import static com.facebook.presto.metadata.MetadataManager.createTestMetadataManager;
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.BooleanType.BOOLEAN;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static com.facebook.presto.sql.relational.Expressions.call;
+import static com.facebook.presto.sql.relational.Expressions.constant;
+import static com.facebook.presto.sql.relational.Expressions.field;
+import static com.facebook.presto.sql.relational.Signatures.arithmeticExpressionSignature;
+import static com.facebook.presto.sql.relational.Signatures.comparisonExpressionSignature;
+import static com.facebook.presto.sql.tree.ArithmeticBinaryExpression.Type.ADD;
+import static com.facebook.presto.sql.tree.ArithmeticBinaryExpression.Type.DIVIDE;
+import static com.facebook.presto.sql.tree.ComparisonExpression.Type.GREATER_THAN;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.slice.Slices.wrappedIntArray;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+public class TestPageProcessorCompiler
+{
+    private static final RowExpression GREATER_THAN_15 = call(comparisonExpressionSignature(GREATER_THAN, BIGINT, BIGINT), BOOLEAN, field(0, BIGINT), constant(15L, BIGINT));
+    private static final RowExpression PLUS_1 = call(arithmeticExpressionSignature(ADD, BIGINT, BIGINT, BIGINT), BIGINT, field(0, BIGINT), constant(1L, BIGINT));
+
+    private final ExpressionCompiler compiler = new ExpressionCompiler(createTestMetadataManager());
+
+    @Test
+    public void testFilterAndProject()
+    {
+        PageProcessor processor = compiler.compilePageProcessor(GREATER_THAN_15, ImmutableList.of(PLUS_1, field(0, BIGINT)));
+
+        Page page = new Page(createLongsBlock(10, 20, 30, 20, 10, 30));
+        Page output = process(processor, page, 2);
+
+        assertEquals(output.getPositionCount(), 4);
+        assertLongs(output.getBlock(0), 21, 31, 21, 31);
+        assertLongs(output.getBlock(1), 20, 30, 20, 30);
+    }
+
+    @Test
+    public void testDictionaryBlock()
+    {
+        PageProcessor processor = compiler.compilePageProcessor(GREATER_THAN_15, ImmutableList.of(PLUS_1, field(0, BIGINT)));
+
+        Block dictionary = createLongsBlock(10, 20, 30);
+        Page page = new Page(new DictionaryBlock(6, dictionary, wrappedIntArray(0, 1, 2, 1, 0, 2)));
+        Page output = process(processor, page, 2);
+
+        assertEquals(output.getPositionCount(), 4);
+        assertLongs(output.getBlock(0), 21, 31, 21, 31);
+        assertLongs(output.getBlock(1), 20, 30, 20, 30);
+    }
+
+    @Test
+    public void testUnreferencedDictionaryEntriesAreNotEvaluated()
+    {
+        RowExpression divide = call(arithmeticExpressionSignature(DIVIDE, BIGINT, BIGINT, BIGINT), BIGINT, constant(60L, BIGINT), field(0, BIGINT));
+        PageProcessor processor = compiler.compilePageProcessor(constant(true, BOOLEAN), ImmutableList.of(divide));
+
+        // the zero entry would fail with division by zero if it were evaluated
+        Block dictionary = createLongsBlock(0, 2, 3);
+        Page page = new Page(new DictionaryBlock(4, dictionary, wrappedIntArray(1, 2, 2, 1)));
+        Page output = process(processor, page, 1);
+
+        assertLongs(output.getBlock(0), 30, 20, 20, 30);
+    }
+
+    @Test
+    public void testColumnarDictionaryProjection()
+    {
+        PageProcessor processor = compiler.compilePageProcessor(GREATER_THAN_15, ImmutableList.of(PLUS_1, field(0, BIGINT)));
+
+        Block dictionary = createLongsBlock(10, 20, 30);
+        Page page = new Page(new DictionaryBlock(6, dictionary, wrappedIntArray(0, 1, 2, 1, 0, 2)));
+        Page output = processor.processColumnarDictionary(null, page);
+
+        // both the evaluated and the passed through column stay dictionary encoded, keeping only the selected entries
+        assertEquals(output.getPositionCount(), 4);
+        assertTrue(output.getBlock(0) instanceof DictionaryBlock);
+        assertTrue(output.getBlock(1) instanceof DictionaryBlock);
+        assertEquals(((DictionaryBlock) output.getBlock(1)).getDictionary().getPositionCount(), 2);
+        assertLongs(output.getBlock(0), 21, 31, 21, 31);
+        assertLongs(output.getBlock(1), 20, 30, 20, 30);
+
+        // pages without a dictionary encoded column are processed into a page builder
+        assertNull(processor.processColumnarDictionary(null, new Page(createLongsBlock(10, 20, 30))));
+    }
+
+    @Test
+    public void testColumnarDictionaryProjectionWithPlainColumn()
+    {
+        RowExpression add = call(arithmeticExpressionSignature(ADD, BIGINT, BIGINT, BIGINT), BIGINT, field(0, BIGINT), field(1, BIGINT));
+        PageProcessor processor = compiler.compilePageProcessor(constant(true, BOOLEAN), ImmutableList.of(field(0, BIGINT), add));
+
+        // a projection of several columns can not be evaluated over a dictionary
+        Page page = new Page(new DictionaryBlock(3, createLongsBlock(10, 20), wrappedIntArray(0, 1, 0)), createLongsBlock(1, 2, 3));
+        assertNull(processor.processColumnarDictionary(null, page));
+
+        // when the whole page is selected the input dictionary block is passed through as is
+        processor = compiler.compilePageProcessor(constant(true, BOOLEAN), ImmutableList.of(field(0, BIGINT), field(1, BIGINT), PLUS_1));
+        Page output = processor.processColumnarDictionary(null, page);
+        assertEquals(output.getPositionCount(), 3);
+        assertTrue(output.getBlock(0) == page.getBlock(0));
+        assertLongs(output.getBlock(0), 10, 20, 10);
+        assertLongs(output.getBlock(1), 1, 2, 3);
+        assertLongs(output.getBlock(2), 11, 21, 11);
+    }
+
+    @Test
+    public void testResumeWhenPageBuilderIsFull()
+    {
+        PageProcessor processor = compiler.compilePageProcessor(constant(true, BOOLEAN), ImmutableList.of(field(0, BIGINT)));
+
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i;
+        }
+        Page page = new Page(createLongsBlock(values));
+
+        int position = 0;
+        long expected = 0;
+        while (position < page.getPositionCount()) {
+            PageBuilder pageBuilder = new PageBuilder(ImmutableList.of(BIGINT));
+            int next = processor.process(null, page, position, page.getPositionCount(), pageBuilder);
+            assertTrue(next > position);
+
+            Page output = pageBuilder.build();
+            assertEquals(output.getPositionCount(), next - position);
+            for (int i = 0; i < output.getPositionCount(); i++) {
+                assertEquals(BIGINT.getLong(output.getBlock(0), i), expected);
+                expected++;
+            }
+            position = next;
+        }
+        assertEquals(expected, values.length);
+    }
+
+    @Test
+    public void testProjectedLazyBlockOnlyLoadsSelectedPositions()
+    {
+        PageProcessor processor = compiler.compilePageProcessor(GREATER_THAN_15, ImmutableList.of(field(1, VARCHAR)));
+
+        Block block = new LazySliceArrayBlock(8, new LazyBlockLoader<LazySliceArrayBlock>()
+        {
+            @Override
+            public void load(LazySliceArrayBlock block)
+            {
+                fail("block should only be loaded at the selected positions");
+            }
+
+            @Override
+            public void load(LazySliceArrayBlock block, int[] positions, int positionCount)
+            {
+                assertEquals(positionCount, 1);
+                assertEquals(positions[0], 2);
+                Slice[] values = new Slice[8];
+                values[2] = utf8Slice("selected");
+                block.setValues(values);
+            }
+        });
+        Page page = new Page(createLongsBlock(10, 10, 30, 10, 10, 10, 10, 10), block);
+
+        PageBuilder pageBuilder = new PageBuilder(ImmutableList.of(VARCHAR));
+        assertEquals(processor.process(null, page, 0, page.getPositionCount(), pageBuilder), page.getPositionCount());
+        Page output = pageBuilder.build();
+
+        assertEquals(output.getPositionCount(), 1);
+        assertEquals(VARCHAR.getSlice(output.getBlock(0), 0), utf8Slice("selected"));
+    }
+
+    private static Page process(PageProcessor processor, Page page, int channels)
+    {
+        ImmutableList.Builder<Type> types = ImmutableList.builder();
+        for (int i = 0; i < channels; i++) {
+            types.add(BIGINT);
+        }
+        PageBuilder pageBuilder = new PageBuilder(types.build());
+        assertEquals(processor.process(null, page, 0, page.getPositionCount(), pageBuilder), page.getPositionCount());
+        return pageBuilder.build();
+    }
+
+    private static Block createLongsBlock(long... values)
+    {
+        BlockBuilder builder = BIGINT.createBlockBuilder(new BlockBuilderStatus(), values.length);
+        for (long value : values) {
+            BIGINT.writeLong(builder, value);
+        }
+        return builder.build();
+    }
+
+    private static void assertLongs(Block block, long... expected)
+    {
+        assertEquals(block.getPositionCount(), expected.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(BIGINT.getLong(block, i), expected[i]);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.metadata.LegacyTableLayoutHandle;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ConnectorBucketing;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.ConnectorTableHandle;
+import com.facebook.presto.spi.ConnectorTableLayout;
+import com.facebook.presto.spi.ConnectorTableLayoutResult;
+import com.facebook.presto.spi.Constraint;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.sql.parser.SqlParser;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.SymbolAllocator;
+import com.facebook.presto.sql.planner.plan.ExchangeNode;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.JoinNode.EquiJoinClause;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static com.facebook.presto.SystemSessionProperties.AUTOMATIC_JOIN_DISTRIBUTION;
+import static com.facebook.presto.SystemSessionProperties.BROADCAST_JOIN_MAX_BUILD_SIZE;
+import static com.facebook.presto.SystemSessionProperties.COLOCATED_JOIN;
+import static com.facebook.presto.SystemSessionProperties.DISTRIBUTED_JOIN;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.Type.REPARTITION;
+import static com.facebook.presto.sql.planner.plan.ExchangeNode.Type.REPLICATE;
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestJoinDistribution
+{
+    private final Map<ConnectorTableHandle, ConnectorBucketing> bucketings = new HashMap<>();
+    private PlanNodeIdAllocator idAllocator;
+    private TestingStatisticsMetadata metadata;
+    private AddExchanges optimizer;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        bucketings.clear();
+        idAllocator = new PlanNodeIdAllocator();
+        metadata = new TestingStatisticsMetadata(idAllocator)
+        {
+            @Override
+            public List<ConnectorTableLayoutResult> getTableLayouts(ConnectorSession session, ConnectorTableHandle table, Constraint<ColumnHandle> constraint, Optional<Set<ColumnHandle>> desiredColumns)
+            {
+                ConnectorTableLayout layout = new ConnectorTableLayout(
+                        new LegacyTableLayoutHandle(table, ImmutableList.of(), Optional.ofNullable(bucketings.get(table))),
+                        Optional.empty(),
+                        TupleDomain.all(),
+                        Optional.empty(),
+                        Optional.empty(),
+                        ImmutableList.of(),
+                        Optional.ofNullable(bucketings.get(table)));
+                return ImmutableList.of(new ConnectorTableLayoutResult(layout, constraint.getSummary()));
+            }
+        };
+        optimizer = new AddExchanges(metadata.createMetadataManager(), new SqlParser(), false);
+    }
+
+    @Test
+    public void testSmallBuildSideIsReplicated()
+    {
+        // 1000 BIGINT rows are estimated at 8000 bytes
+        JoinNode join = join(tableScan("a", 1_000_000), tableScan("b", 1000));
+
+        assertReplicated(optimize(join, automaticSession("10kB", true)));
+    }
+
+    @Test
+    public void testLargeBuildSideIsPartitioned()
+    {
+        JoinNode join = join(tableScan("a", 1_000_000), tableScan("b", 1000));
+
+        assertPartitioned(optimize(join, automaticSession("1kB", false)));
+    }
+
+    @Test
+    public void testUnknownBuildSizeUsesDistributedJoin()
+    {
+        JoinNode join = join(tableScan("a", 1_000_000), tableScan("b", -1));
+        assertPartitioned(optimize(join, automaticSession("10kB", true)));
+
+        join = join(tableScan("c", 1_000_000), tableScan("d", -1));
+        assertReplicated(optimize(join, automaticSession("10kB", false)));
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        // without automatic join distribution the estimate is ignored
+        Session session = testSessionBuilder().build()
+                .withSystemProperty(DISTRIBUTED_JOIN, "true")
+                .withSystemProperty(BROADCAST_JOIN_MAX_BUILD_SIZE, "10kB");
+        JoinNode join = join(tableScan("a", 1_000_000), tableScan("b", 1000));
+
+        assertPartitioned(optimize(join, session));
+    }
+
+    @Test
+    public void testColocatedJoinOfEquallyBucketedTables()
+    {
+        JoinNode join = join(bucketedTableScan("a", 32), bucketedTableScan("b", 32));
+
+        assertColocated(optimize(join, colocatedSession(true)));
+    }
+
+    @Test
+    public void testColocatedJoinRequiresSameBucketCount()
+    {
+        JoinNode join = join(bucketedTableScan("a", 32), bucketedTableScan("b", 16));
+
+        assertPartitioned(optimize(join, colocatedSession(true)));
+    }
+
+    @Test
+    public void testColocatedJoinRequiresBucketingOnBothSides()
+    {
+        JoinNode join = join(bucketedTableScan("a", 32), tableScan("b", 1000));
+
+        assertPartitioned(optimize(join, colocatedSession(true)));
+    }
+
+    @Test
+    public void testColocatedJoinDisabled()
+    {
+        JoinNode join = join(bucketedTableScan("a", 32), bucketedTableScan("b", 32));
+
+        assertPartitioned(optimize(join, colocatedSession(false)));
+    }
+
+    private static Session colocatedSession(boolean colocatedJoin)
+    {
+        return testSessionBuilder().build()
+                .withSystemProperty(DISTRIBUTED_JOIN, "true")
+                .withSystemProperty(COLOCATED_JOIN, String.valueOf(colocatedJoin));
+    }
+
+    private static Session automaticSession(String broadcastJoinMaxBuildSize, boolean distributedJoin)
+    {
+        return testSessionBuilder().build()
+                .withSystemProperty(AUTOMATIC_JOIN_DISTRIBUTION, "true")
+                .withSystemProperty(BROADCAST_JOIN_MAX_BUILD_SIZE, broadcastJoinMaxBuildSize)
+                .withSystemProperty(DISTRIBUTED_JOIN, String.valueOf(distributedJoin));
+    }
+
+    private static void assertReplicated(PlanNode plan)
+    {
+        JoinNode join = (JoinNode) plan;
+        assertTrue(join.getLeft() instanceof TableScanNode);
+        assertExchange(join.getRight(), REPLICATE);
+    }
+
+    private static void assertPartitioned(PlanNode plan)
+    {
+        JoinNode join = (JoinNode) plan;
+        assertExchange(join.getLeft(), REPARTITION);
+        assertExchange(join.getRight(), REPARTITION);
+    }
+
+    private static void assertColocated(PlanNode plan)
+    {
+        JoinNode join = (JoinNode) plan;
+        assertTrue(join.getLeft() instanceof TableScanNode);
+        assertTrue(join.getRight() instanceof TableScanNode);
+    }
+
+    private static void assertExchange(PlanNode node, ExchangeNode.Type type)
+    {
+        assertTrue(node instanceof ExchangeNode, "expected an exchange but was " + node);
+        assertEquals(((ExchangeNode) node).getType(), type);
+    }
+
+    private PlanNode optimize(PlanNode plan, Session session)
+    {
+        return optimizer.optimize(plan, session, metadata.getTypes(), new SymbolAllocator(), idAllocator);
+    }
+
+    private TableScanNode tableScan(String column, long rowCount)
+    {
+        return metadata.tableScan(column, rowCount);
+    }
+
+    private TableScanNode bucketedTableScan(String column, int bucketCount)
+    {
+        TableScanNode tableScan = tableScan(column, -1);
+        ColumnHandle columnHandle = tableScan.getAssignments().get(new Symbol(column));
+        bucketings.put(tableScan.getTable().getConnectorHandle(), new ConnectorBucketing("test(bigint)", bucketCount, ImmutableList.of(columnHandle)));
+        return tableScan;
+    }
+
+    private JoinNode join(TableScanNode left, TableScanNode right)
+    {
+        Symbol leftSymbol = left.getOutputSymbols().get(0);
+        Symbol rightSymbol = right.getOutputSymbols().get(0);
+        return new JoinNode(idAllocator.getNextId(), JoinNode.Type.INNER, left, right, ImmutableList.of(new EquiJoinClause(leftSymbol, rightSymbol)), Optional.empty(), Optional.empty());
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.Session;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.SymbolAllocator;
+import com.facebook.presto.sql.planner.plan.JoinNode;
+import com.facebook.presto.sql.planner.plan.JoinNode.EquiJoinClause;
+import com.facebook.presto.sql.planner.plan.PlanNode;
+import com.facebook.presto.sql.planner.plan.ProjectNode;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.google.common.collect.ImmutableList;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.Optional;
+
+import static com.facebook.presto.testing.TestingSession.testSessionBuilder;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+@Test(singleThreaded = true)
+public class TestReorderJoins
+{
+    private static final Session SESSION = testSessionBuilder().build().withSystemProperty("reorder_joins", "true");
+
+    private PlanNodeIdAllocator idAllocator;
+    private TestingStatisticsMetadata metadata;
+    private ReorderJoins optimizer;
+
+    @BeforeMethod
+    public void setUp()
+    {
+        idAllocator = new PlanNodeIdAllocator();
+        metadata = new TestingStatisticsMetadata(idAllocator);
+
+        optimizer = new ReorderJoins(metadata.createMetadataManager());
+    }
+
+    @Test
+    public void testFlipBuildSide()
+    {
+        TableScanNode small = tableScan("a", 10);
+        TableScanNode large = tableScan("b", 1000);
+        JoinNode join = join(small, large, symbol("a"), symbol("b"));
+
+        PlanNode result = optimize(join, SESSION);
+
+        // the original output order is restored on top of the flipped join
+        assertTrue(result instanceof ProjectNode);
+        assertEquals(result.getOutputSymbols(), join.getOutputSymbols());
+
+        JoinNode flipped = (JoinNode) ((ProjectNode) result).getSource();
+        assertSame(flipped.getLeft(), large);
+        assertSame(flipped.getRight(), small);
+        assertCriteria(flipped, symbol("b"), symbol("a"));
+    }
+
+    @Test
+    public void testKeepSmallerBuildSide()
+    {
+        JoinNode join = join(tableScan("a", 1000), tableScan("b", 10), symbol("a"), symbol("b"));
+        PlanNode result = optimize(join, SESSION);
+
+        JoinNode reordered = (JoinNode) result;
+        assertSame(reordered.getLeft(), join.getLeft());
+        assertSame(reordered.getRight(), join.getRight());
+        assertCriteria(reordered, symbol("a"), symbol("b"));
+    }
+
+    @Test
+    public void testReorderJoinTree()
+    {
+        TableScanNode large = tableScan("a", 100_000);
+        TableScanNode medium = tableScan("b", 1000);
+        TableScanNode small = tableScan("c", 10);
+
+        // (medium JOIN large) JOIN small
+        JoinNode join = join(join(medium, large, symbol("b"), symbol("a")), small, symbol("a"), symbol("c"));
+
+        PlanNode result = optimize(join, SESSION);
+        assertEquals(result.getOutputSymbols(), join.getOutputSymbols());
+
+        // expect (large JOIN small) JOIN medium
+        JoinNode top = (JoinNode) ((ProjectNode) result).getSource();
+        assertSame(top.getRight(), medium);
+        assertCriteria(top, symbol("a"), symbol("b"));
+
+        JoinNode bottom = (JoinNode) top.getLeft();
+        assertSame(bottom.getLeft(), large);
+        assertSame(bottom.getRight(), small);
+        assertCriteria(bottom, symbol("a"), symbol("c"));
+    }
+
+    @Test
+    public void testDistinctValuesEstimate()
+    {
+        TableScanNode left = tableScan("a", 1000, 100);
+        TableScanNode right = tableScan("b", 50, 50);
+
+        StatisticsEstimator estimator = new StatisticsEstimator(metadata.createMetadataManager(), SESSION);
+        Optional<StatisticsEstimator.Estimate> estimate = estimator.estimate(join(left, right, symbol("a"), symbol("b")));
+        assertTrue(estimate.isPresent());
+        assertEquals(estimate.get().getRowCount(), 1000.0 * 50 / 100);
+    }
+
+    @Test
+    public void testSizeInBytesEstimate()
+    {
+        StatisticsEstimator estimator = new StatisticsEstimator(metadata.createMetadataManager(), SESSION);
+        // one BIGINT column
+        assertEquals(estimator.estimateSizeInBytes(tableScan("a", 1000), metadata.getTypes()), Optional.of(8000.0));
+        assertEquals(estimator.estimateSizeInBytes(tableScan("b", -1), metadata.getTypes()), Optional.empty());
+    }
+
+    @Test
+    public void testUnknownStatistics()
+    {
+        TableScanNode unknown = tableScan("a", -1);
+        JoinNode join = join(unknown, tableScan("b", 1000), symbol("a"), symbol("b"));
+        assertSame(optimize(join, SESSION), join);
+    }
+
+    @Test
+    public void testDisabled()
+    {
+        JoinNode join = join(tableScan("a", 10), tableScan("b", 1000), symbol("a"), symbol("b"));
+        assertSame(optimize(join, testSessionBuilder().build()), join);
+    }
+
+    @Test
+    public void testOuterJoinNotReordered()
+    {
+        TableScanNode small = tableScan("a", 10);
+        TableScanNode large = tableScan("b", 1000);
+        JoinNode join = new JoinNode(idAllocator.getNextId(), JoinNode.Type.LEFT, small, large, ImmutableList.of(new EquiJoinClause(symbol("a"), symbol("b"))), Optional.empty(), Optional.empty());
+        assertSame(optimize(join, SESSION), join);
+    }
+
+    private PlanNode optimize(PlanNode plan, Session session)
+    {
+        return optimizer.optimize(plan, session, metadata.getTypes(), new SymbolAllocator(), idAllocator);
+    }
+
+    private TableScanNode tableScan(String column, long rowCount)
+    {
+        return metadata.tableScan(column, rowCount);
+    }
+
+    private TableScanNode tableScan(String column, long rowCount, long distinctValues)
+    {
+        return metadata.tableScan(column, rowCount, distinctValues);
+    }
+
+    private JoinNode join(PlanNode left, PlanNode right, Symbol leftSymbol, Symbol rightSymbol)
+    {
+        return new JoinNode(idAllocator.getNextId(), JoinNode.Type.INNER, left, right, ImmutableList.of(new EquiJoinClause(leftSymbol, rightSymbol)), Optional.empty(), Optional.empty());
+    }
+
+    private static void assertCriteria(JoinNode join, Symbol left, Symbol right)
+    {
+        assertEquals(join.getCriteria().size(), 1);
+        assertEquals(join.getCriteria().get(0).getLeft(), left);
+        assertEquals(join.getCriteria().get(0).getRight(), right);
+    }
+
+    private static Symbol symbol(String name)
+    {
+        return new Symbol(name);
+    }
+}
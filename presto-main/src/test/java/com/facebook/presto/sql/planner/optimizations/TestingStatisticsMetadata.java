@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.sql.planner.optimizations;
+
+import com.facebook.presto.metadata.MetadataManager;
+import com.facebook.presto.metadata.TableHandle;
+import com.facebook.presto.metadata.TestingMetadata;
+import com.facebook.presto.spi.ColumnHandle;
+import com.facebook.presto.spi.ColumnStatistics;
+import com.facebook.presto.spi.ConnectorSession;
+import com.facebook.presto.spi.ConnectorTableHandle;
+import com.facebook.presto.spi.TableStatistics;
+import com.facebook.presto.spi.TupleDomain;
+import com.facebook.presto.spi.type.Type;
+import com.facebook.presto.sql.planner.PlanNodeIdAllocator;
+import com.facebook.presto.sql.planner.Symbol;
+import com.facebook.presto.sql.planner.TestingColumnHandle;
+import com.facebook.presto.sql.planner.TestingTableHandle;
+import com.facebook.presto.sql.planner.plan.TableScanNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Metadata of the "test" connector that returns the statistics of the single column
+ * table scans created by {@link #tableScan}, for the tests of the cost based optimizers.
+ */
+public class TestingStatisticsMetadata
+        extends TestingMetadata
+{
+    public static final String CONNECTOR_ID = "test";
+
+    private final Map<ConnectorTableHandle, TableStatistics> statistics = new HashMap<>();
+    private final Map<Symbol, Type> types = new HashMap<>();
+    private final PlanNodeIdAllocator idAllocator;
+
+    public TestingStatisticsMetadata(PlanNodeIdAllocator idAllocator)
+    {
+        this.idAllocator = checkNotNull(idAllocator, "idAllocator is null");
+    }
+
+    public MetadataManager createMetadataManager()
+    {
+        MetadataManager metadata = MetadataManager.createTestMetadataManager();
+        metadata.addConnectorMetadata(CONNECTOR_ID, CONNECTOR_ID, this);
+        return metadata;
+    }
+
+    @Override
+    public TableStatistics getTableStatistics(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        return statistics.getOrDefault(tableHandle, TableStatistics.empty());
+    }
+
+    /**
+     * The types of the symbols of all the table scans created so far.
+     */
+    public Map<Symbol, Type> getTypes()
+    {
+        return types;
+    }
+
+    /**
+     * Creates a scan of a new table with a BIGINT column. A negative row count leaves the statistics of the table unknown.
+     */
+    public TableScanNode tableScan(String column, long rowCount)
+    {
+        return tableScan(column, rowCount, -1);
+    }
+
+    /**
+     * Creates a scan of a new table with a BIGINT column. A negative row count or distinct
+     * values count leaves that statistic unknown.
+     */
+    public TableScanNode tableScan(String column, long rowCount, long distinctValues)
+    {
+        Symbol symbol = new Symbol(column);
+        ColumnHandle columnHandle = new TestingColumnHandle(column);
+        ConnectorTableHandle tableHandle = new TestingTableHandle();
+        types.put(symbol, BIGINT);
+
+        if (rowCount >= 0) {
+            Map<ColumnHandle, ColumnStatistics> columnStatistics = ImmutableMap.of();
+            if (distinctValues >= 0) {
+                columnStatistics = ImmutableMap.of(columnHandle, ColumnStatistics.builder().setDistinctValuesCount(distinctValues).build());
+            }
+            statistics.put(tableHandle, new TableStatistics(OptionalLong.of(rowCount), columnStatistics));
+        }
+
+        return new TableScanNode(
+                idAllocator.getNextId(),
+                new TableHandle(CONNECTOR_ID, tableHandle),
+                ImmutableList.of(symbol),
+                ImmutableMap.of(symbol, columnHandle),
+                Optional.empty(),
+                TupleDomain.all(),
+                null);
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc;
+
+import com.facebook.presto.orc.metadata.ColumnStatistics;
+import com.facebook.presto.orc.metadata.CompressionKind;
+import com.facebook.presto.orc.metadata.Footer;
+import com.facebook.presto.orc.metadata.Metadata;
+import com.facebook.presto.orc.metadata.MetadataReader;
+import com.facebook.presto.orc.metadata.OrcType;
+import com.facebook.presto.orc.metadata.PostScript;
+import com.facebook.presto.orc.metadata.StringStatistics;
+import com.facebook.presto.orc.metadata.StripeStatistics;
+import com.facebook.presto.orc.stream.OrcInputStream;
+import com.google.common.base.Joiner;
+import com.google.common.primitives.Ints;
+import io.airlift.log.Logger;
+import io.airlift.slice.Slice;
+import io.airlift.slice.Slices;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static io.airlift.slice.SizeOf.SIZE_OF_BYTE;
+import static java.lang.Math.min;
+
+/**
+ * The decoded tail of an ORC file: the PostScript settings, the file Footer
+ * and the file Metadata. The tail is immutable once read, so it can be shared
+ * by every reader of the same (unchanged) file.
+ */
+public class OrcFileTail
+{
+    private static final Logger log = Logger.get(OrcFileTail.class);
+
+    private static final Slice MAGIC = Slices.utf8Slice("ORC");
+    private static final int CURRENT_MAJOR_VERSION = 0;
+    private static final int CURRENT_MINOR_VERSION = 12;
+    private static final int EXPECTED_FOOTER_SIZE = 16 * 1024;
+
+    // estimated heap used by the decoded objects, including object headers and the references to them
+    private static final int INSTANCE_SIZE = 96;
+    private static final int STRIPE_INFORMATION_SIZE = 56;
+    private static final int TYPE_SIZE = 96;
+    private static final int TYPE_FIELD_SIZE = 24;
+    private static final int STRING_SIZE = 40;
+    private static final int STRIPE_STATISTICS_SIZE = 40;
+    private static final int COLUMN_STATISTICS_SIZE = 120;
+
+    private final CompressionKind compressionKind;
+    private final int bufferSize;
+    private final Footer footer;
+    private final Metadata metadata;
+    private final int serializedSize;
+    private final long retainedSizeInBytes;
+
+    public OrcFileTail(CompressionKind compressionKind, int bufferSize, Footer footer, Metadata metadata, int serializedSize)
+    {
+        this.compressionKind = checkNotNull(compressionKind, "compressionKind is null");
+        this.bufferSize = bufferSize;
+        this.footer = checkNotNull(footer, "footer is null");
+        this.metadata = checkNotNull(metadata, "metadata is null");
+        checkArgument(serializedSize >= 0, "serializedSize is negative");
+        this.serializedSize = serializedSize;
+        this.retainedSizeInBytes = estimateRetainedSize(footer, metadata);
+    }
+
+    public CompressionKind getCompressionKind()
+    {
+        return compressionKind;
+    }
+
+    public int getBufferSize()
+    {
+        return bufferSize;
+    }
+
+    public Footer getFooter()
+    {
+        return footer;
+    }
+
+    public Metadata getMetadata()
+    {
+        return metadata;
+    }
+
+    /**
+     * Size in bytes of the tail as stored in the file (PostScript, Footer and Metadata).
+     */
+    public int getSerializedSize()
+    {
+        return serializedSize;
+    }
+
+    /**
+     * Estimated size in bytes of the decoded tail in memory, which is usually several
+     * times the serialized size, since every statistics entry becomes an object.
+     */
+    public long getRetainedSizeInBytes()
+    {
+        return retainedSizeInBytes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("compressionKind", compressionKind)
+                .add("bufferSize", bufferSize)
+                .add("serializedSize", serializedSize)
+                .add("retainedSizeInBytes", retainedSizeInBytes)
+                .toString();
+    }
+
+    private static long estimateRetainedSize(Footer footer, Metadata metadata)
+    {
+        long size = INSTANCE_SIZE;
+        size += (long) footer.getStripes().size() * STRIPE_INFORMATION_SIZE;
+        for (OrcType type : footer.getTypes()) {
+            size += TYPE_SIZE + (long) type.getFieldCount() * TYPE_FIELD_SIZE;
+            for (String fieldName : type.getFieldNames()) {
+                size += STRING_SIZE + 2L * fieldName.length();
+            }
+        }
+        size += getRetainedSize(footer.getFileStats());
+        for (StripeStatistics stripeStatistics : metadata.getStripeStatsList()) {
+            size += STRIPE_STATISTICS_SIZE + getRetainedSize(stripeStatistics.getColumnStatistics());
+        }
+        return size;
+    }
+
+    private static long getRetainedSize(List<ColumnStatistics> columnStatistics)
+    {
+        long size = 0;
+        for (ColumnStatistics statistics : columnStatistics) {
+            size += COLUMN_STATISTICS_SIZE;
+            StringStatistics stringStatistics = statistics.getStringStatistics();
+            if (stringStatistics != null) {
+                size += getRetainedSize(stringStatistics.getMin()) + getRetainedSize(stringStatistics.getMax());
+            }
+        }
+        return size;
+    }
+
+    private static long getRetainedSize(Slice slice)
+    {
+        return slice == null ? 0 : slice.getRetainedSize();
+    }
+
+    // This is based on the Apache Hive ORC code
+    public static OrcFileTail readFileTail(OrcDataSource orcDataSource, MetadataReader metadataReader)
+            throws IOException
+    {
+        checkNotNull(orcDataSource, "orcDataSource is null");
+        checkNotNull(metadataReader, "metadataReader is null");
+
+        //
+        // Read the file tail:
+        //
+        // variable: Footer
+        // variable: Metadata
+        // variable: PostScript - contains length of footer and metadata
+        // 3 bytes: file magic "ORC"
+        // 1 byte: postScriptSize = PostScript + Magic
+
+        // figure out the size of the file using the option or filesystem
+        long size = orcDataSource.getSize();
+        if (size <= 0) {
+            throw new OrcCorruptionException("Malformed ORC file %s. Invalid file size %s", orcDataSource, size);
+        }
+
+        // Read the tail of the file
+        byte[] buffer = new byte[Ints.checkedCast(min(size, EXPECTED_FOOTER_SIZE))];
+        orcDataSource.readFully(size - buffer.length, buffer);
+
+        // get length of PostScript - last byte of the file
+        int postScriptSize = buffer[buffer.length - SIZE_OF_BYTE] & 0xff;
+
+        // make sure this is an ORC file and not an RCFile or something else
+        verifyOrcFooter(orcDataSource, postScriptSize, buffer);
+
+        // decode the post script
+        int postScriptOffset = buffer.length - SIZE_OF_BYTE - postScriptSize;
+        PostScript postScript = metadataReader.readPostScript(buffer, postScriptOffset, postScriptSize);
+
+        // verify this is a supported version
+        checkOrcVersion(orcDataSource, postScript.getVersion());
+
+        // check compression codec is supported
+        CompressionKind compressionKind = postScript.getCompression();
+
+        int bufferSize = Ints.checkedCast(postScript.getCompressionBlockSize());
+
+        int footerSize = Ints.checkedCast(postScript.getFooterLength());
+        int metadataSize = Ints.checkedCast(postScript.getMetadataLength());
+
+        // check if extra bytes need to be read
+        Slice completeFooterSlice;
+        int completeFooterSize = footerSize + metadataSize + postScriptSize + SIZE_OF_BYTE;
+        if (completeFooterSize > buffer.length) {
+            // allocate a new buffer large enough for the complete footer
+            byte[] newBuffer = new byte[completeFooterSize];
+            completeFooterSlice = Slices.wrappedBuffer(newBuffer);
+
+            // initial read was not large enough, so read missing section
+            orcDataSource.readFully(size - completeFooterSize, newBuffer, 0, completeFooterSize - buffer.length);
+
+            // copy already read bytes into the new buffer
+            completeFooterSlice.setBytes(completeFooterSize - buffer.length, buffer);
+        }
+        else {
+            // footer is already in the bytes in buffer, just adjust position, length
+            completeFooterSlice = Slices.wrappedBuffer(buffer, buffer.length - completeFooterSize, completeFooterSize);
+        }
+
+        // read metadata
+        Slice metadataSlice = completeFooterSlice.slice(0, metadataSize);
+        InputStream metadataInputStream = new OrcInputStream(orcDataSource.toString(), metadataSlice.getInput(), compressionKind, bufferSize);
+        Metadata metadata = metadataReader.readMetadata(metadataInputStream);
+
+        // read footer
+        Slice footerSlice = completeFooterSlice.slice(metadataSize, footerSize);
+        InputStream footerInputStream = new OrcInputStream(orcDataSource.toString(), footerSlice.getInput(), compressionKind, bufferSize);
+        Footer footer = metadataReader.readFooter(footerInputStream);
+
+        return new OrcFileTail(compressionKind, bufferSize, footer, metadata, completeFooterSize);
+    }
+
+    /**
+     * Verify this is an ORC file to prevent users from trying to read text
+     * files or RC files as ORC files.
+     */
+    // This is based on the Apache Hive ORC code
+    private static void verifyOrcFooter(
+            OrcDataSource source,
+            int postScriptSize,
+            byte[] buffer)
+            throws IOException
+    {
+        int magicLength = MAGIC.length();
+        if (postScriptSize < magicLength + 1) {
+            throw new OrcCorruptionException("Malformed ORC file %s. Invalid postscript length %s", source, postScriptSize);
+        }
+
+        if (!MAGIC.equals(Slices.wrappedBuffer(buffer, buffer.length - 1 - magicLength, magicLength))) {
+            // Old versions of ORC (0.11) wrote the magic to the head of the file
+            byte[] headerMagic = new byte[magicLength];
+            source.readFully(0, headerMagic);
+
+            // if it isn't there, this isn't an ORC file
+            if  (!MAGIC.equals(Slices.wrappedBuffer(headerMagic))) {
+                throw new OrcCorruptionException("Malformed ORC file %s. Invalid postscript.", source);
+            }
+        }
+    }
+
+    /**
+     * Check to see if this ORC file is from a future version and if so,
+     * warn the user that we may not be able to read all of the column encodings.
+     */
+    // This is based on the Apache Hive ORC code
+    private static void checkOrcVersion(OrcDataSource orcDataSource, List<Integer> version)
+    {
+        if (version.size() >= 1) {
+            int major = version.get(0);
+            int minor = 0;
+            if (version.size() > 1) {
+                minor = version.get(1);
+            }
+
+            if (major > CURRENT_MAJOR_VERSION || (major == CURRENT_MAJOR_VERSION && minor > CURRENT_MINOR_VERSION)) {
+                log.warn("ORC file %s was written by a newer Hive version %s. This file may not be readable by this version of Hive (%s.%s).",
+                        orcDataSource,
+                        Joiner.on('.').join(version),
+                        CURRENT_MAJOR_VERSION,
+                        CURRENT_MINOR_VERSION);
+            }
+        }
+    }
+}
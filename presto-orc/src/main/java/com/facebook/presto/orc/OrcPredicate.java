@@ -37,4 +37,13 @@ public interface OrcPredicate
      * in the file; this will match the field order from the hive metastore
      */
     boolean matches(long numberOfRows, Map<Integer, ColumnStatistics> statisticsByColumnIndex);
+
+    /**
+     * Can the bloom filters of the column at the specified ordinal position reject
+     * a row group. The bloom filters of other columns are not read.
+     */
+    default boolean usesBloomFilter(int columnIndex)
+    {
+        return false;
+    }
 }
@@ -279,6 +279,12 @@ public class OrcRecordReader
         streamReaders[columnIndex].readBatch(vector);
     }
 
+    public void readVector(int columnIndex, Object vector, int[] positions, int positionCount)
+            throws IOException
+    {
+        streamReaders[columnIndex].readBatch(vector, positions, positionCount);
+    }
+
     public void readVector(Type type, int columnIndex, Object vector)
             throws IOException
     {
@@ -15,6 +15,7 @@ package com.facebook.presto.orc;
 
 import com.facebook.presto.orc.checkpoint.InvalidCheckpointException;
 import com.facebook.presto.orc.checkpoint.StreamCheckpoint;
+import com.facebook.presto.orc.metadata.BloomFilter;
 import com.facebook.presto.orc.metadata.ColumnEncoding;
 import com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind;
 import com.facebook.presto.orc.metadata.ColumnStatistics;
@@ -55,10 +56,12 @@ import static com.facebook.presto.orc.checkpoint.Checkpoints.getDictionaryStream
 import static com.facebook.presto.orc.checkpoint.Checkpoints.getStreamCheckpoints;
 import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DICTIONARY;
 import static com.facebook.presto.orc.metadata.ColumnEncoding.ColumnEncodingKind.DICTIONARY_V2;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.BLOOM_FILTER;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.DICTIONARY_COUNT;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.DICTIONARY_DATA;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.LENGTH;
 import static com.facebook.presto.orc.metadata.Stream.StreamKind.ROW_INDEX;
+import static com.facebook.presto.orc.metadata.Stream.StreamKind.UNKNOWN;
 import static com.facebook.presto.orc.stream.CheckpointStreamSource.createCheckpointStreamSource;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -70,6 +73,7 @@ public class StripeReader
     private final List<OrcType> types;
     private final int bufferSize;
     private final Set<Integer> includedOrcColumns;
+    private final Set<Integer> bloomFilterOrcColumns;
     private final int rowsInRowGroup;
     private final OrcPredicate predicate;
     private final MetadataReader metadataReader;
@@ -91,6 +95,7 @@ public class StripeReader
         this.rowsInRowGroup = rowsInRowGroup;
         this.predicate = checkNotNull(predicate, "predicate is null");
         this.metadataReader = checkNotNull(metadataReader, "metadataReader is null");
+        this.bloomFilterOrcColumns = getBloomFilterOrcColumns(types, predicate);
     }
 
     public Stripe readStripe(StripeInformation stripe)
@@ -104,7 +109,11 @@ public class StripeReader
         Map<StreamId, Stream> streams = new HashMap<>();
         boolean hasRowGroupDictionary = false;
         for (Stream stream : stripeFooter.getStreams()) {
-            if (includedOrcColumns.contains(stream.getColumn())) {
+            if (stream.getStreamKind() == UNKNOWN) {
+                continue;
+            }
+            // bloom filters are only read for the columns where the predicate can use them
+            if (includedOrcColumns.contains(stream.getColumn()) && (stream.getStreamKind() != BLOOM_FILTER || bloomFilterOrcColumns.contains(stream.getColumn()))) {
                 streams.put(new StreamId(stream), stream);
 
                 ColumnEncodingKind columnEncoding = columnEncodings.get(stream.getColumn()).getColumnEncodingKind();
@@ -126,8 +135,11 @@ public class StripeReader
             // read the row index for each column
             Map<Integer, List<RowGroupIndex>> columnIndexes = readColumnIndexes(streams, streamsData);
 
+            // read the bloom filters of the columns that have them
+            Map<Integer, List<BloomFilter>> bloomFilterIndexes = readBloomFilterIndexes(streams, streamsData);
+
             // select the row groups matching the tuple domain
-            Set<Integer> selectedRowGroups = selectRowGroups(stripe, columnIndexes);
+            Set<Integer> selectedRowGroups = selectRowGroups(stripe, columnIndexes, bloomFilterIndexes);
 
             // if all row groups are skipped, return null
             if (selectedRowGroups.isEmpty()) {
@@ -166,7 +178,7 @@ public class StripeReader
         ImmutableMap.Builder<StreamId, DiskRange> diskRangesBuilder = ImmutableMap.builder();
         for (Entry<StreamId, DiskRange> entry : getDiskRanges(stripeFooter.getStreams()).entrySet()) {
             StreamId streamId = entry.getKey();
-            if (streamId.getStreamKind() != ROW_INDEX && streams.keySet().contains(streamId)) {
+            if (streamId.getStreamKind() != ROW_INDEX && streamId.getStreamKind() != BLOOM_FILTER && streams.keySet().contains(streamId)) {
                 diskRangesBuilder.put(entry);
             }
         }
@@ -335,7 +347,21 @@ public class StripeReader
         return columnIndexes.build();
     }
 
-    private Set<Integer> selectRowGroups(StripeInformation stripe,  Map<Integer, List<RowGroupIndex>> columnIndexes)
+    private Map<Integer, List<BloomFilter>> readBloomFilterIndexes(Map<StreamId, Stream> streams, Map<StreamId, OrcInputStream> streamsData)
+            throws IOException
+    {
+        ImmutableMap.Builder<Integer, List<BloomFilter>> bloomFilterIndexes = ImmutableMap.builder();
+        for (Entry<StreamId, Stream> entry : streams.entrySet()) {
+            Stream stream = entry.getValue();
+            if (stream.getStreamKind() == BLOOM_FILTER) {
+                OrcInputStream inputStream = streamsData.get(entry.getKey());
+                bloomFilterIndexes.put(stream.getColumn(), metadataReader.readBloomFilterIndexes(inputStream));
+            }
+        }
+        return bloomFilterIndexes.build();
+    }
+
+    private Set<Integer> selectRowGroups(StripeInformation stripe, Map<Integer, List<RowGroupIndex>> columnIndexes, Map<Integer, List<BloomFilter>> bloomFilterIndexes)
             throws IOException
     {
         int rowsInStripe = Ints.checkedCast(stripe.getNumberOfRows());
@@ -345,7 +371,7 @@ public class StripeReader
         int remainingRows = rowsInStripe;
         for (int rowGroup = 0; rowGroup < groupsInStripe; ++rowGroup) {
             int rows = Math.min(remainingRows, rowsInRowGroup);
-            Map<Integer, ColumnStatistics> statistics = getRowGroupStatistics(types.get(0), columnIndexes, rowGroup);
+            Map<Integer, ColumnStatistics> statistics = getRowGroupStatistics(types.get(0), columnIndexes, bloomFilterIndexes, rowGroup);
             if (predicate.matches(rows, statistics)) {
                 selectedRowGroups.add(rowGroup);
             }
@@ -354,18 +380,29 @@ public class StripeReader
         return selectedRowGroups.build();
     }
 
-    private static Map<Integer, ColumnStatistics> getRowGroupStatistics(OrcType rootStructType, Map<Integer, List<RowGroupIndex>> columnIndexes, int rowGroup)
+    private static Map<Integer, ColumnStatistics> getRowGroupStatistics(
+            OrcType rootStructType,
+            Map<Integer, List<RowGroupIndex>> columnIndexes,
+            Map<Integer, List<BloomFilter>> bloomFilterIndexes,
+            int rowGroup)
     {
         checkNotNull(rootStructType, "rootStructType is null");
         checkArgument(rootStructType.getOrcTypeKind() == OrcTypeKind.STRUCT);
         checkNotNull(columnIndexes, "columnIndexes is null");
+        checkNotNull(bloomFilterIndexes, "bloomFilterIndexes is null");
         checkArgument(rowGroup >= 0, "rowGroup is negative");
 
         ImmutableMap.Builder<Integer, ColumnStatistics> statistics = ImmutableMap.builder();
         for (int ordinal = 0; ordinal < rootStructType.getFieldCount(); ordinal++) {
-            List<RowGroupIndex> rowGroupIndexes = columnIndexes.get(rootStructType.getFieldTypeIndex(ordinal));
+            int column = rootStructType.getFieldTypeIndex(ordinal);
+            List<RowGroupIndex> rowGroupIndexes = columnIndexes.get(column);
             if (rowGroupIndexes != null) {
-                statistics.put(ordinal, rowGroupIndexes.get(rowGroup).getColumnStatistics());
+                ColumnStatistics columnStatistics = rowGroupIndexes.get(rowGroup).getColumnStatistics();
+                List<BloomFilter> bloomFilters = bloomFilterIndexes.get(column);
+                if (bloomFilters != null && rowGroup < bloomFilters.size()) {
+                    columnStatistics = columnStatistics.withBloomFilter(bloomFilters.get(rowGroup));
+                }
+                statistics.put(ordinal, columnStatistics);
             }
         }
         return statistics.build();
@@ -373,7 +410,7 @@ public class StripeReader
 
     private static boolean isIndexStream(Stream stream)
     {
-        return stream.getStreamKind() == ROW_INDEX || stream.getStreamKind() == DICTIONARY_COUNT;
+        return stream.getStreamKind() == ROW_INDEX || stream.getStreamKind() == DICTIONARY_COUNT || stream.getStreamKind() == BLOOM_FILTER;
     }
 
     private static boolean isDictionary(Stream stream, ColumnEncodingKind columnEncoding)
@@ -387,7 +424,10 @@ public class StripeReader
         long stripeOffset = 0;
         for (Stream stream : streams) {
             int streamLength = Ints.checkedCast(stream.getLength());
-            streamDiskRanges.put(new StreamId(stream), new DiskRange(stripeOffset, streamLength));
+            // unknown streams are never read, and a column can have several of them
+            if (stream.getStreamKind() != UNKNOWN) {
+                streamDiskRanges.put(new StreamId(stream), new DiskRange(stripeOffset, streamLength));
+            }
             stripeOffset += streamLength;
         }
         return streamDiskRanges.build();
@@ -405,6 +445,18 @@ public class StripeReader
         return includes;
     }
 
+    private static Set<Integer> getBloomFilterOrcColumns(List<OrcType> types, OrcPredicate predicate)
+    {
+        ImmutableSet.Builder<Integer> columns = ImmutableSet.builder();
+        OrcType root = types.get(0);
+        for (int ordinal = 0; ordinal < root.getFieldCount(); ordinal++) {
+            if (predicate.usesBloomFilter(ordinal)) {
+                columns.add(root.getFieldTypeIndex(ordinal));
+            }
+        }
+        return columns.build();
+    }
+
     private static void includeOrcColumnsRecursive(List<OrcType> types, Set<Integer> result, int typeId)
     {
         result.add(typeId);
@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.orc;
 
+import com.facebook.presto.orc.metadata.BloomFilter;
 import com.facebook.presto.orc.metadata.BooleanStatistics;
 import com.facebook.presto.orc.metadata.ColumnStatistics;
 import com.facebook.presto.orc.metadata.RangeStatistics;
@@ -51,6 +52,11 @@ public class TupleDomainOrcPredicate<C>
     @Override
     public boolean matches(long numberOfRows, Map<Integer, ColumnStatistics> statisticsByColumnIndex)
     {
+        if (effectivePredicate.isNone()) {
+            return false;
+        }
+        Map<C, Domain> effectivePredicateDomains = effectivePredicate.getDomains();
+
         ImmutableMap.Builder<C, Domain> domains = ImmutableMap.builder();
 
         for (ColumnReference<C> columnReference : columnReferences) {
@@ -63,6 +69,13 @@ public class TupleDomainOrcPredicate<C>
             }
             else {
                 domain = getDomain(columnReference.getType(), numberOfRows, columnStatistics);
+
+                Domain predicateDomain = effectivePredicateDomains.get(columnReference.getColumn());
+                BloomFilter bloomFilter = columnStatistics.getBloomFilter();
+                if (predicateDomain != null && bloomFilter != null && isBloomFilterSupported(columnReference.getType()) &&
+                        !checkInBloomFilter(bloomFilter, predicateDomain, domain.isNullAllowed())) {
+                    return false;
+                }
             }
             domains.put(columnReference.getColumn(), domain);
         }
@@ -71,6 +84,84 @@ public class TupleDomainOrcPredicate<C>
         return effectivePredicate.overlaps(stripeDomain);
     }
 
+    @Override
+    public boolean usesBloomFilter(int columnIndex)
+    {
+        if (effectivePredicate.isNone()) {
+            return false;
+        }
+        Map<C, Domain> effectivePredicateDomains = effectivePredicate.getDomains();
+        for (ColumnReference<C> columnReference : columnReferences) {
+            if (columnReference.getOrdinal() == columnIndex && isBloomFilterSupported(columnReference.getType())) {
+                Domain predicateDomain = effectivePredicateDomains.get(columnReference.getColumn());
+                if (predicateDomain != null && isDiscrete(predicateDomain)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDiscrete(Domain domain)
+    {
+        if (domain.getRanges().getRangeCount() == 0) {
+            return false;
+        }
+        for (Range range : domain.getRanges()) {
+            if (!range.isSingleValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns false only if the predicate is a set of discrete values (such as an IN list)
+     * and the bloom filter guarantees that none of them is present.
+     */
+    @VisibleForTesting
+    public static boolean checkInBloomFilter(BloomFilter bloomFilter, Domain predicateDomain, boolean hasNullValue)
+    {
+        if (predicateDomain.isNullAllowed() && hasNullValue) {
+            return true;
+        }
+
+        for (Range range : predicateDomain.getRanges()) {
+            if (!range.isSingleValue()) {
+                return true;
+            }
+            if (mightContain(bloomFilter, range.getSingleValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBloomFilterSupported(Type type)
+    {
+        // timestamps are hashed in the time zone of the writer
+        String base = type.getTypeSignature().getBase();
+        return base.equals(StandardTypes.BIGINT) ||
+                base.equals(StandardTypes.DOUBLE) ||
+                base.equals(StandardTypes.VARCHAR) ||
+                base.equals(StandardTypes.DATE);
+    }
+
+    private static boolean mightContain(BloomFilter bloomFilter, Comparable<?> value)
+    {
+        if (value instanceof Long) {
+            return bloomFilter.mightContain((Long) value);
+        }
+        if (value instanceof Double) {
+            return bloomFilter.mightContain((Double) value);
+        }
+        if (value instanceof Slice) {
+            return bloomFilter.mightContain((Slice) value);
+        }
+        // booleans and other values are not added to bloom filters
+        return true;
+    }
+
     @VisibleForTesting
     public static Domain getDomain(Type type, long rowCount, ColumnStatistics columnStatistics)
     {
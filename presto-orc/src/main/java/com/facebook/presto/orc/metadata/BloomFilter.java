@@ -0,0 +1,201 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.orc.metadata;
+
+import com.google.common.annotations.VisibleForTesting;
+import io.airlift.slice.Slice;
+
+import static com.google.common.base.MoreObjects.toStringHelper;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+/**
+ * Bloom filter of the values in an ORC row group, as written by Hive. Longs (including dates)
+ * and doubles are hashed with a 64 bit integer mix of their bits, and strings with the 64 bit
+ * variant of Murmur3 over their UTF-8 bytes. Each of the hash functions is derived from the
+ * two halves of the 64 bit hash.
+ */
+public class BloomFilter
+{
+    private static final int MURMUR3_SEED = 104729;
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+    private static final int R1 = 31;
+    private static final int R2 = 27;
+    private static final int M = 5;
+    private static final int N1 = 0x52dce729;
+
+    private final long[] bitSet;
+    private final int numBits;
+    private final int numHashFunctions;
+
+    public BloomFilter(long[] bitSet, int numHashFunctions)
+    {
+        checkNotNull(bitSet, "bitSet is null");
+        checkArgument(numHashFunctions >= 0, "numHashFunctions is negative");
+        this.bitSet = bitSet;
+        this.numBits = bitSet.length * Long.SIZE;
+        this.numHashFunctions = numHashFunctions;
+    }
+
+    public int getNumHashFunctions()
+    {
+        return numHashFunctions;
+    }
+
+    public long[] getBitSet()
+    {
+        return bitSet;
+    }
+
+    @VisibleForTesting
+    public void add(long value)
+    {
+        addHash(getLongHash(value));
+    }
+
+    @VisibleForTesting
+    public void add(double value)
+    {
+        add(Double.doubleToLongBits(value));
+    }
+
+    @VisibleForTesting
+    public void add(Slice value)
+    {
+        addHash(murmur3Hash64(value));
+    }
+
+    public boolean mightContain(long value)
+    {
+        return testHash(getLongHash(value));
+    }
+
+    public boolean mightContain(double value)
+    {
+        return mightContain(Double.doubleToLongBits(value));
+    }
+
+    public boolean mightContain(Slice value)
+    {
+        return testHash(murmur3Hash64(value));
+    }
+
+    private void addHash(long hash64)
+    {
+        checkState(numBits > 0, "bloom filter is empty");
+
+        int hash1 = (int) hash64;
+        int hash2 = (int) (hash64 >>> 32);
+
+        for (int i = 1; i <= numHashFunctions; i++) {
+            int position = getPosition(hash1, hash2, i);
+            bitSet[position >>> 6] |= 1L << position;
+        }
+    }
+
+    private boolean testHash(long hash64)
+    {
+        if (numBits == 0) {
+            // an empty filter can not exclude anything
+            return true;
+        }
+
+        int hash1 = (int) hash64;
+        int hash2 = (int) (hash64 >>> 32);
+
+        for (int i = 1; i <= numHashFunctions; i++) {
+            int position = getPosition(hash1, hash2, i);
+            if ((bitSet[position >>> 6] & (1L << position)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int getPosition(int hash1, int hash2, int hashFunction)
+    {
+        int combinedHash = hash1 + (hashFunction * hash2);
+        // hashes are positive
+        if (combinedHash < 0) {
+            combinedHash = ~combinedHash;
+        }
+        return combinedHash % numBits;
+    }
+
+    private static long getLongHash(long key)
+    {
+        // Thomas Wang's integer hash function
+        key = (~key) + (key << 21);
+        key = key ^ (key >> 24);
+        key = (key + (key << 3)) + (key << 8);
+        key = key ^ (key >> 14);
+        key = (key + (key << 2)) + (key << 4);
+        key = key ^ (key >> 28);
+        key = key + (key << 31);
+        return key;
+    }
+
+    private static long murmur3Hash64(Slice data)
+    {
+        int length = data.length();
+        long hash = MURMUR3_SEED;
+
+        int blocks = length >> 3;
+        for (int i = 0; i < blocks; i++) {
+            long k = data.getLong(i << 3);
+            k *= C1;
+            k = Long.rotateLeft(k, R1);
+            k *= C2;
+            hash ^= k;
+            hash = Long.rotateLeft(hash, R2) * M + N1;
+        }
+
+        int tailStart = blocks << 3;
+        int tailLength = length - tailStart;
+        if (tailLength > 0) {
+            long k = 0;
+            for (int i = tailLength - 1; i >= 0; i--) {
+                k ^= ((long) data.getUnsignedByte(tailStart + i)) << (i * 8);
+            }
+            k *= C1;
+            k = Long.rotateLeft(k, R1);
+            k *= C2;
+            hash ^= k;
+        }
+
+        hash ^= length;
+        return fmix64(hash);
+    }
+
+    private static long fmix64(long hash)
+    {
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= (hash >>> 33);
+        return hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        return toStringHelper(this)
+                .add("numBits", numBits)
+                .add("numHashFunctions", numHashFunctions)
+                .toString();
+    }
+}
@@ -135,6 +135,14 @@ public class DwrfMetadataReader
         return ImmutableList.copyOf(Iterables.transform(rowIndex.getEntryList(), DwrfMetadataReader::toRowGroupIndex));
     }
 
+    @Override
+    public List<BloomFilter> readBloomFilterIndexes(InputStream inputStream)
+            throws IOException
+    {
+        // DWRF files do not contain bloom filters
+        return ImmutableList.of();
+    }
+
     private static RowGroupIndex toRowGroupIndex(OrcProto.RowIndexEntry rowIndexEntry)
     {
         List<Long> positionsList = rowIndexEntry.getPositionsList();
@@ -28,8 +28,12 @@ import org.apache.hadoop.hive.ql.io.orc.OrcProto.RowIndexEntry;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.List;
 
+import static com.facebook.presto.hive.protobuf.WireFormat.WIRETYPE_FIXED64;
+import static com.facebook.presto.hive.protobuf.WireFormat.WIRETYPE_LENGTH_DELIMITED;
+import static com.facebook.presto.hive.protobuf.WireFormat.WIRETYPE_VARINT;
 import static com.facebook.presto.orc.metadata.CompressionKind.SNAPPY;
 import static com.facebook.presto.orc.metadata.CompressionKind.UNCOMPRESSED;
 import static com.facebook.presto.orc.metadata.CompressionKind.ZLIB;
@@ -41,6 +45,13 @@ public class OrcMetadataReader
 {
     private static final Slice MAX_BYTE = Slices.wrappedBuffer(new byte[] { (byte) 0xFF });
 
+    // BloomFilterIndex { repeated BloomFilter bloomFilter = 1; }
+    // BloomFilter { optional uint32 numHashFunctions = 1; repeated fixed64 bitset = 2; }
+    private static final int BLOOM_FILTER_INDEX_ENTRY_TAG = makeTag(1, WIRETYPE_LENGTH_DELIMITED);
+    private static final int NUM_HASH_FUNCTIONS_TAG = makeTag(1, WIRETYPE_VARINT);
+    private static final int BITSET_TAG = makeTag(2, WIRETYPE_FIXED64);
+    private static final int PACKED_BITSET_TAG = makeTag(2, WIRETYPE_LENGTH_DELIMITED);
+
     @Override
     public PostScript readPostScript(byte[] data, int offset, int length)
             throws IOException
@@ -115,7 +126,17 @@ public class OrcMetadataReader
 
     private static Stream toStream(OrcProto.Stream stream)
     {
-        return new Stream(stream.getColumn(), toStreamKind(stream.getKind()), Ints.checkedCast(stream.getLength()), true);
+        return new Stream(stream.getColumn(), toStreamKind(stream), Ints.checkedCast(stream.getLength()), true);
+    }
+
+    private static StreamKind toStreamKind(OrcProto.Stream stream)
+    {
+        if (!stream.hasKind()) {
+            // kinds newer than the bundled protocol definition (e.g. BLOOM_FILTER_UTF8) are only available as
+            // unknown fields, and are optional, so the stream can be skipped
+            return StreamKind.UNKNOWN;
+        }
+        return toStreamKind(stream.getKind());
     }
 
     private static List<Stream> toStream(List<OrcProto.Stream> streams)
@@ -142,6 +163,67 @@ public class OrcMetadataReader
         return ImmutableList.copyOf(Iterables.transform(rowIndex.getEntryList(), OrcMetadataReader::toRowGroupIndex));
     }
 
+    @Override
+    public List<BloomFilter> readBloomFilterIndexes(InputStream inputStream)
+            throws IOException
+    {
+        CodedInputStream input = CodedInputStream.newInstance(inputStream);
+        ImmutableList.Builder<BloomFilter> bloomFilters = ImmutableList.builder();
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            if (tag == BLOOM_FILTER_INDEX_ENTRY_TAG) {
+                int oldLimit = input.pushLimit(input.readRawVarint32());
+                bloomFilters.add(readBloomFilter(input));
+                input.popLimit(oldLimit);
+            }
+            else {
+                input.skipField(tag);
+            }
+        }
+        return bloomFilters.build();
+    }
+
+    private static BloomFilter readBloomFilter(CodedInputStream input)
+            throws IOException
+    {
+        int numHashFunctions = 0;
+        long[] bitSet = new long[16];
+        int bitSetSize = 0;
+        for (int tag = input.readTag(); tag != 0; tag = input.readTag()) {
+            if (tag == NUM_HASH_FUNCTIONS_TAG) {
+                numHashFunctions = input.readUInt32();
+            }
+            else if (tag == BITSET_TAG) {
+                bitSet = ensureCapacity(bitSet, bitSetSize + 1);
+                bitSet[bitSetSize++] = input.readFixed64();
+            }
+            else if (tag == PACKED_BITSET_TAG) {
+                int oldLimit = input.pushLimit(input.readRawVarint32());
+                while (input.getBytesUntilLimit() > 0) {
+                    bitSet = ensureCapacity(bitSet, bitSetSize + 1);
+                    bitSet[bitSetSize++] = input.readFixed64();
+                }
+                input.popLimit(oldLimit);
+            }
+            else {
+                input.skipField(tag);
+            }
+        }
+        return new BloomFilter(Arrays.copyOf(bitSet, bitSetSize), numHashFunctions);
+    }
+
+    private static long[] ensureCapacity(long[] array, int capacity)
+    {
+        if (array.length >= capacity) {
+            return array;
+        }
+        return Arrays.copyOf(array, Math.max(capacity, array.length * 2));
+    }
+
+    private static int makeTag(int fieldNumber, int wireType)
+    {
+        return (fieldNumber << 3) | wireType;
+    }
+
     private static RowGroupIndex toRowGroupIndex(RowIndexEntry rowIndexEntry)
     {
         List<Long> positionsList = rowIndexEntry.getPositionsList();
@@ -393,6 +475,8 @@ public class OrcMetadataReader
                 return StreamKind.SECONDARY;
             case ROW_INDEX:
                 return StreamKind.ROW_INDEX;
+            case BLOOM_FILTER:
+                return StreamKind.BLOOM_FILTER;
             default:
                 throw new IllegalStateException(streamKind + " stream type not implemented yet");
         }
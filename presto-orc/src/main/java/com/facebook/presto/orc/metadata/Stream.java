@@ -30,6 +30,9 @@ public class Stream
         IN_DICTIONARY,
         ROW_GROUP_DICTIONARY,
         ROW_GROUP_DICTIONARY_LENGTH,
+        BLOOM_FILTER,
+        // a stream kind written by a newer writer, which the reader skips
+        UNKNOWN,
     }
 
     private final int column;
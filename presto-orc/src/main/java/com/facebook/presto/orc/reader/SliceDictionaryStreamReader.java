@@ -67,6 +67,10 @@ public class SliceDictionaryStreamReader
     @Nonnull
     private Slice[] dictionary = new Slice[0];
 
+    // copy of the stripe dictionary shared by all batches of the stripe, since the dictionary array is reused by the next stripe
+    @Nonnull
+    private Slice[] stripeDictionary = new Slice[0];
+
     @Nonnull
     private StreamSource<LongStream> dictionaryLengthStreamSource = missingStreamSource(LongStream.class);
     @Nonnull
@@ -184,8 +188,7 @@ public class SliceDictionaryStreamReader
         else {
             int[] ids = Arrays.copyOfRange(dataVector, 0, nextBatchSize);
             boolean[] isNullVector = Arrays.copyOfRange(this.isNullVector, 0, nextBatchSize);
-            Slice[] values = Arrays.copyOf(dictionary, dictionary.length);
-            sliceVector.setDictionary(values, ids, isNullVector);
+            sliceVector.setDictionary(stripeDictionary, ids, isNullVector);
         }
 
         readOffset = 0;
@@ -213,6 +216,9 @@ public class SliceDictionaryStreamReader
             ByteArrayStream dictionaryDataStream = dictionaryDataStreamSource.openStream();
             readDictionary(dictionaryDataStream, dictionarySize, dictionaryLength, dictionary);
         }
+        if (!dictionaryOpen) {
+            stripeDictionary = Arrays.copyOf(dictionary, dictionarySize);
+        }
         dictionaryOpen = true;
 
         // read row group dictionary
@@ -85,6 +85,99 @@ public class SliceDirectStreamReader
     @Override
     public void readBatch(Object vector)
             throws IOException
+    {
+        int totalLength = readLengths();
+
+        byte[] data = EMPTY_BYTE_ARRAY;
+        if (totalLength > 0) {
+            if (dataStream == null) {
+                throw new OrcCorruptionException("Value is not null but data stream is not present");
+            }
+            data = dataStream.next(totalLength);
+        }
+
+        SliceVector sliceVector = castOrcVector(vector, SliceVector.class);
+        sliceVector.initialize(nextBatchSize);
+
+        int offset = 0;
+        for (int i = 0; i < nextBatchSize; i++) {
+            if (!isNullVector[i]) {
+                int length = lengthVector[i];
+                sliceVector.vector[i] = Slices.wrappedBuffer(data, offset, length);
+                offset += length;
+            }
+            else {
+                sliceVector.vector[i] = null;
+            }
+        }
+
+        readOffset = 0;
+        nextBatchSize = 0;
+    }
+
+    @Override
+    public void readBatch(Object vector, int[] positions, int positionCount)
+            throws IOException
+    {
+        int totalLength = readLengths();
+        if (totalLength > 0 && dataStream == null) {
+            throw new OrcCorruptionException("Value is not null but data stream is not present");
+        }
+
+        // only the bytes of the selected values are copied, the rest are skipped
+        int selectedLength = 0;
+        for (int i = 0; i < positionCount; i++) {
+            int position = positions[i];
+            if (!isNullVector[position]) {
+                selectedLength += lengthVector[position];
+            }
+        }
+        byte[] data = selectedLength == 0 ? EMPTY_BYTE_ARRAY : new byte[selectedLength];
+
+        SliceVector sliceVector = castOrcVector(vector, SliceVector.class);
+        sliceVector.initialize(nextBatchSize);
+
+        int offset = 0;
+        int skipSize = 0;
+        int nextSelected = 0;
+        for (int i = 0; i < nextBatchSize; i++) {
+            boolean selected = nextSelected < positionCount && positions[nextSelected] == i;
+            if (selected) {
+                nextSelected++;
+            }
+            if (isNullVector[i]) {
+                continue;
+            }
+
+            int length = lengthVector[i];
+            if (!selected) {
+                skipSize += length;
+                continue;
+            }
+            if (length > 0) {
+                if (skipSize > 0) {
+                    dataStream.skip(skipSize);
+                    skipSize = 0;
+                }
+                dataStream.next(data, offset, length);
+            }
+            sliceVector.vector[i] = Slices.wrappedBuffer(data, offset, length);
+            offset += length;
+        }
+        if (skipSize > 0) {
+            dataStream.skip(skipSize);
+        }
+
+        readOffset = 0;
+        nextBatchSize = 0;
+    }
+
+    /**
+     * Skips the values before the batch and reads the lengths and null flags of the batch,
+     * returning the total length of the values.
+     */
+    private int readLengths()
+            throws IOException
     {
         if (!rowGroupOpen) {
             openRowGroup();
@@ -132,32 +225,7 @@ public class SliceDirectStreamReader
                 totalLength += lengthVector[i];
             }
         }
-
-        byte[] data = EMPTY_BYTE_ARRAY;
-        if (totalLength > 0) {
-            if (dataStream == null) {
-                throw new OrcCorruptionException("Value is not null but data stream is not present");
-            }
-            data = dataStream.next(totalLength);
-        }
-
-        SliceVector sliceVector = castOrcVector(vector, SliceVector.class);
-        sliceVector.initialize(nextBatchSize);
-
-        int offset = 0;
-        for (int i = 0; i < nextBatchSize; i++) {
-            if (!isNullVector[i]) {
-                int length = lengthVector[i];
-                sliceVector.vector[i] = Slices.wrappedBuffer(data, offset, length);
-                offset += length;
-            }
-            else {
-                sliceVector.vector[i] = null;
-            }
-        }
-
-        readOffset = 0;
-        nextBatchSize = 0;
+        return totalLength;
     }
 
     private void openRowGroup()
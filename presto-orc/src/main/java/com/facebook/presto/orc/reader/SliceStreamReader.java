@@ -51,6 +51,13 @@ public class SliceStreamReader
         currentReader.readBatch(vector);
     }
 
+    @Override
+    public void readBatch(Object vector, int[] positions, int positionCount)
+            throws IOException
+    {
+        currentReader.readBatch(vector, positions, positionCount);
+    }
+
     @Override
     public void prepareNextRead(int batchSize)
     {
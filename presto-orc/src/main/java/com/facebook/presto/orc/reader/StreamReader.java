@@ -31,6 +31,16 @@ public interface StreamReader
         readBatch(vector);
     }
 
+    /**
+     * Reads the next batch, only materializing the values at the given positions of the batch,
+     * which must be in increasing order. The other values are skipped and must not be read.
+     */
+    default void readBatch(Object vector, int[] positions, int positionCount)
+            throws IOException
+    {
+        readBatch(vector);
+    }
+
     void prepareNextRead(int batchSize);
 
     void startStripe(StreamSources dictionaryStreamSources, List<ColumnEncoding> encoding)
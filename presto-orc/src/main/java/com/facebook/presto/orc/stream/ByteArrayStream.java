@@ -45,6 +45,12 @@ public class ByteArrayStream
         readFully(inputStream, data, 0, length);
     }
 
+    public void next(byte[] data, int offset, int length)
+            throws IOException
+    {
+        readFully(inputStream, data, offset, length);
+    }
+
     @Override
     public Class<ByteArrayStreamCheckpoint> getCheckpointType()
     {
@@ -44,8 +44,9 @@ final class OrcStreamUtils
     public static void readFully(InputStream input, byte[] buffer, int offset, int length)
             throws IOException
     {
-        while (offset < length) {
-            int result = input.read(buffer, offset, length - offset);
+        int end = offset + length;
+        while (offset < end) {
+            int result = input.read(buffer, offset, end - offset);
             if (result < 0) {
                 throw new OrcCorruptionException("Unexpected end of stream");
             }
@@ -14,8 +14,18 @@
 package com.facebook.presto.orc;
 
 import com.facebook.presto.orc.OrcTester.TempFile;
+import com.facebook.presto.orc.TupleDomainOrcPredicate.ColumnReference;
 import com.facebook.presto.orc.metadata.IntegerStatistics;
 import com.facebook.presto.orc.metadata.OrcMetadataReader;
+import com.facebook.presto.spi.Domain;
+import com.facebook.presto.spi.Range;
+import com.facebook.presto.spi.SortedRangeSet;
+import com.facebook.presto.spi.TupleDomain;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.Resources;
+import io.airlift.slice.Slice;
+import io.airlift.units.DataSize;
 import org.apache.hadoop.hive.ql.exec.FileSinkOperator;
 import org.apache.hadoop.hive.ql.io.orc.OrcOutputFormat;
 import org.apache.hadoop.hive.ql.io.orc.OrcSerde;
@@ -30,14 +40,24 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
 
 import static com.facebook.presto.orc.OrcTester.Format.ORC_12;
+import static com.facebook.presto.orc.OrcTester.HIVE_STORAGE_TIME_ZONE;
 import static com.facebook.presto.orc.OrcTester.createCustomOrcRecordReader;
 import static com.facebook.presto.orc.OrcTester.createOrcRecordWriter;
 import static com.facebook.presto.orc.OrcTester.createSettableStructObjectInspector;
 import static com.facebook.presto.spi.type.BigintType.BIGINT;
+import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
+import static io.airlift.slice.Slices.utf8Slice;
+import static io.airlift.units.DataSize.Unit.MEGABYTE;
 import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaLongObjectInspector;
+import static org.apache.hadoop.hive.serde2.objectinspector.primitive.PrimitiveObjectInspectorFactory.javaStringObjectInspector;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 public class TestOrcReaderPositions
 {
@@ -160,6 +180,168 @@ public class TestOrcReaderPositions
         }
     }
 
+    @Test
+    public void testBloomFilterRowGroupSkipping()
+            throws Exception
+    {
+        // written by Hive 1.2.1 with bloom filters on both columns, and a row index stride of 1000:
+        // a single stripe with three row groups of rows (id, name) = (2 * i, 'value' || (2 * i))
+        File file = new File(Resources.getResource("bloom_filter_hive_1.2.orc").toURI());
+
+        // the odd values are inside the min/max ranges of the first two row groups, so only the bloom filters can skip
+        // them, and the third row group is only read if the filters were hashed the way Hive does
+        TupleDomainOrcPredicate<String> predicate = new TupleDomainOrcPredicate<>(
+                TupleDomain.withColumnDomains(ImmutableMap.of("id", Domain.create(SortedRangeSet.of(Range.equal(1L), Range.equal(2001L), Range.equal(4002L)), false))),
+                ImmutableList.of(new ColumnReference<>("id", 0, BIGINT)));
+        assertTrue(predicate.usesBloomFilter(0));
+        assertEquals(readBloomFilterFile(file, predicate), 2000);
+
+        predicate = new TupleDomainOrcPredicate<>(
+                TupleDomain.withColumnDomains(ImmutableMap.of("name", Domain.create(SortedRangeSet.of(Range.equal(utf8Slice("value1")), Range.equal(utf8Slice("value2001")), Range.equal(utf8Slice("value4002"))), false))),
+                ImmutableList.of(new ColumnReference<>("name", 1, VARCHAR)));
+        assertTrue(predicate.usesBloomFilter(1));
+        assertEquals(readBloomFilterFile(file, predicate), 2000);
+
+        // ranges can not be checked against the bloom filters, so every row group is read
+        predicate = new TupleDomainOrcPredicate<>(
+                TupleDomain.withColumnDomains(ImmutableMap.of("id", Domain.create(SortedRangeSet.of(Range.range(1L, true, 5_999L, true)), false))),
+                ImmutableList.of(new ColumnReference<>("id", 0, BIGINT)));
+        assertFalse(predicate.usesBloomFilter(0));
+        assertEquals(readBloomFilterFile(file, predicate), 0);
+    }
+
+    // returns the position of the first row read, after checking that every row from there on was read
+    private static long readBloomFilterFile(File file, OrcPredicate predicate)
+            throws IOException
+    {
+        OrcDataSource orcDataSource = new FileOrcDataSource(file, new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE), new DataSize(1, MEGABYTE));
+        OrcReader orcReader = new OrcReader(orcDataSource, new OrcMetadataReader());
+        assertEquals(orcReader.getColumnNames(), ImmutableList.of("id", "name"));
+        assertEquals(orcReader.getFooter().getRowsInRowGroup(), 1000);
+
+        OrcRecordReader reader = orcReader.createRecordReader(ImmutableMap.of(0, BIGINT, 1, VARCHAR), predicate, HIVE_STORAGE_TIME_ZONE);
+        assertEquals(reader.getFileRowCount(), 3000);
+
+        long firstPosition = -1;
+        long position = -1;
+        while (true) {
+            int batchSize = reader.nextBatch();
+            if (batchSize == -1) {
+                break;
+            }
+            if (firstPosition == -1) {
+                firstPosition = reader.getFilePosition();
+                position = firstPosition;
+            }
+            assertEquals(reader.getFilePosition(), position);
+
+            LongVector longVector = new LongVector(batchSize);
+            reader.readVector(0, longVector);
+            for (int i = 0; i < batchSize; i++) {
+                assertEquals(longVector.vector[i], (position + i) * 2);
+            }
+            position += batchSize;
+        }
+        assertEquals(position, 3000);
+        reader.close();
+        return firstPosition;
+    }
+
+    @Test
+    public void testReadSelectedPositions()
+            throws Exception
+    {
+        try (TempFile tempFile = new TempFile("test", "orc")) {
+            // a single row group of mostly distinct strings, so the column is direct encoded
+            int rowCount = 10_000;
+            createStringFile(tempFile.getFile(), rowCount);
+
+            OrcRecordReader reader = createCustomOrcRecordReader(tempFile, new OrcMetadataReader(), OrcPredicate.TRUE, VARCHAR);
+
+            int batch = 0;
+            long batchStart = 0;
+            while (true) {
+                int batchSize = reader.nextBatch();
+                if (batchSize == -1) {
+                    break;
+                }
+                assertEquals(reader.getFilePosition(), batchStart);
+
+                List<Integer> selected = new ArrayList<>();
+                switch (batch % 4) {
+                    case 0:
+                        // every third position, with unselected runs at the start and end of the batch
+                        for (int position = 100; position < batchSize - 100; position += 3) {
+                            selected.add(position);
+                        }
+                        break;
+                    case 1:
+                        // only the last position
+                        selected.add(batchSize - 1);
+                        break;
+                    case 2:
+                        // the batch is read without selected positions
+                        for (int position = 0; position < batchSize; position++) {
+                            selected.add(position);
+                        }
+                        SliceVector vector = new SliceVector(batchSize);
+                        reader.readVector(0, vector);
+                        assertSelectedValues(vector, batchStart, selected);
+                        selected = null;
+                        break;
+                    case 3:
+                        // the batch is not read at all
+                        selected = null;
+                        break;
+                    default:
+                        throw new AssertionError();
+                }
+
+                if (selected != null) {
+                    int[] positions = new int[selected.size()];
+                    for (int i = 0; i < positions.length; i++) {
+                        positions[i] = selected.get(i);
+                    }
+                    SliceVector vector = new SliceVector(batchSize);
+                    reader.readVector(0, vector, positions, positions.length);
+                    assertSelectedValues(vector, batchStart, selected);
+                }
+
+                batch++;
+                batchStart += batchSize;
+            }
+
+            // the batches following selective reads had the right values, so the streams were left at the end of each batch
+            assertTrue(batch >= 8);
+            assertEquals(batchStart, rowCount);
+            reader.close();
+        }
+    }
+
+    private static void assertSelectedValues(SliceVector vector, long batchStart, List<Integer> selected)
+    {
+        for (int position : selected) {
+            Slice expected = getStringValue(batchStart + position);
+            if (expected == null) {
+                assertNull(vector.vector[position], "position " + (batchStart + position));
+            }
+            else {
+                assertEquals(vector.vector[position], expected, "position " + (batchStart + position));
+            }
+        }
+    }
+
+    private static Slice getStringValue(long row)
+    {
+        if (row % 7 == 3) {
+            return null;
+        }
+        if (row % 11 == 5) {
+            return utf8Slice("");
+        }
+        return utf8Slice("value " + row);
+    }
+
     private static void assertCurrentBatch(OrcRecordReader reader, int stripe)
             throws IOException
     {
@@ -204,6 +386,26 @@ public class TestOrcReaderPositions
         ((Writer) field.get(writer)).writeIntermediateFooter();
     }
 
+    private static void createStringFile(File file, int count)
+            throws IOException, SerDeException
+    {
+        FileSinkOperator.RecordWriter writer = createOrcRecordWriter(file, ORC_12, OrcTester.Compression.NONE, javaStringObjectInspector);
+
+        @SuppressWarnings("deprecation") Serializer serde = new OrcSerde();
+        SettableStructObjectInspector objectInspector = createSettableStructObjectInspector("test", javaStringObjectInspector);
+        Object row = objectInspector.create();
+        StructField field = objectInspector.getAllStructFieldRefs().get(0);
+
+        for (int i = 0; i < count; i++) {
+            Slice value = getStringValue(i);
+            objectInspector.setStructFieldData(row, field, value == null ? null : value.toStringUtf8());
+            Writable record = serde.serialize(row, objectInspector);
+            writer.write(record);
+        }
+
+        writer.close(false);
+    }
+
     private static void createSequentialFile(File file, int count)
             throws IOException, ReflectiveOperationException, SerDeException
     {
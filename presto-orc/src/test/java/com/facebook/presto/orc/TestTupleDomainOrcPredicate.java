@@ -13,6 +13,7 @@
  */
 package com.facebook.presto.orc;
 
+import com.facebook.presto.orc.metadata.BloomFilter;
 import com.facebook.presto.orc.metadata.BooleanStatistics;
 import com.facebook.presto.orc.metadata.ColumnStatistics;
 import com.facebook.presto.orc.metadata.DateStatistics;
@@ -25,6 +26,7 @@ import com.facebook.presto.spi.SortedRangeSet;
 import io.airlift.slice.Slice;
 import org.testng.annotations.Test;
 
+import static com.facebook.presto.orc.TupleDomainOrcPredicate.checkInBloomFilter;
 import static com.facebook.presto.orc.TupleDomainOrcPredicate.getDomain;
 import static com.facebook.presto.orc.metadata.OrcMetadataReader.getMaxSlice;
 import static com.facebook.presto.orc.metadata.OrcMetadataReader.getMinSlice;
@@ -44,6 +46,8 @@ import static com.facebook.presto.spi.type.DoubleType.DOUBLE;
 import static com.facebook.presto.spi.type.VarcharType.VARCHAR;
 import static io.airlift.slice.Slices.utf8Slice;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
 
 public class TestTupleDomainOrcPredicate
 {
@@ -198,4 +202,32 @@ public class TestTupleDomainOrcPredicate
     {
         return new ColumnStatistics(numberOfValues, null, null, null, null, new DateStatistics(minimum, maximum));
     }
+
+    @Test
+    public void testBloomFilter()
+            throws Exception
+    {
+        BloomFilter bloomFilter = new BloomFilter(new long[256], 3);
+        for (long value = 0; value < 100; value++) {
+            bloomFilter.add(value);
+            bloomFilter.add((double) value);
+            bloomFilter.add(utf8Slice("value" + value));
+        }
+
+        assertTrue(checkInBloomFilter(bloomFilter, singleValue(42L), false));
+        assertTrue(checkInBloomFilter(bloomFilter, singleValue(42.0), false));
+        assertTrue(checkInBloomFilter(bloomFilter, singleValue(utf8Slice("value42")), false));
+        assertFalse(checkInBloomFilter(bloomFilter, singleValue(1000L), false));
+        assertFalse(checkInBloomFilter(bloomFilter, singleValue(1000.5), false));
+        assertFalse(checkInBloomFilter(bloomFilter, singleValue(utf8Slice("value1000")), false));
+
+        // in list
+        assertTrue(checkInBloomFilter(bloomFilter, create(SortedRangeSet.of(Range.equal(1000L), Range.equal(2000L), Range.equal(42L)), false), false));
+        assertFalse(checkInBloomFilter(bloomFilter, create(SortedRangeSet.of(Range.equal(1000L), Range.equal(2000L), Range.equal(3000L)), false), false));
+
+        // ranges and nulls can not be checked
+        assertTrue(checkInBloomFilter(bloomFilter, create(SortedRangeSet.of(range(1000L, true, 2000L, true)), false), false));
+        assertTrue(checkInBloomFilter(bloomFilter, create(SortedRangeSet.of(Range.equal(1000L)), true), true));
+        assertFalse(checkInBloomFilter(bloomFilter, create(SortedRangeSet.of(Range.equal(1000L)), true), false));
+    }
 }
@@ -13,20 +13,58 @@
  */
 package com.facebook.presto.orc.metadata;
 
+import com.facebook.presto.hive.protobuf.UnknownFieldSet;
+import com.facebook.presto.orc.metadata.Stream.StreamKind;
+import com.google.common.collect.ImmutableList;
 import io.airlift.slice.Slice;
 import io.airlift.slice.Slices;
+import org.apache.hadoop.hive.ql.io.orc.OrcProto;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
 import static com.facebook.presto.orc.metadata.OrcMetadataReader.concatSlices;
 import static com.facebook.presto.orc.metadata.OrcMetadataReader.firstSurrogateCharacter;
 import static com.facebook.presto.orc.metadata.OrcMetadataReader.getMaxSlice;
 import static com.facebook.presto.orc.metadata.OrcMetadataReader.getMinSlice;
 import static java.lang.Character.MAX_CODE_POINT;
 import static java.lang.Character.MIN_CODE_POINT;
+import static com.google.common.collect.Iterables.transform;
 import static org.testng.Assert.assertEquals;
 
 public class TestOrcMetadataReader
 {
+    @Test
+    public void testUnknownStreamKind()
+            throws Exception
+    {
+        // BLOOM_FILTER_UTF8 (8) and other kinds added by newer writers are not in the bundled protocol definition
+        OrcProto.StripeFooter footer = OrcProto.StripeFooter.newBuilder()
+                .addStreams(OrcProto.Stream.newBuilder().setColumn(1).setKind(OrcProto.Stream.Kind.DATA).setLength(10))
+                .addStreams(OrcProto.Stream.newBuilder().setColumn(1).setKind(OrcProto.Stream.Kind.BLOOM_FILTER).setLength(20))
+                .addStreams(createStreamWithUnknownKind(1, 8, 30))
+                .addStreams(createStreamWithUnknownKind(1, 9, 40))
+                .addColumns(OrcProto.ColumnEncoding.newBuilder().setKind(OrcProto.ColumnEncoding.Kind.DIRECT))
+                .addColumns(OrcProto.ColumnEncoding.newBuilder().setKind(OrcProto.ColumnEncoding.Kind.DIRECT_V2))
+                .build();
+
+        StripeFooter stripeFooter = new OrcMetadataReader().readStripeFooter(ImmutableList.of(), new ByteArrayInputStream(footer.toByteArray()));
+        List<Stream> streams = stripeFooter.getStreams();
+        assertEquals(ImmutableList.copyOf(transform(streams, Stream::getStreamKind)), ImmutableList.of(StreamKind.DATA, StreamKind.BLOOM_FILTER, StreamKind.UNKNOWN, StreamKind.UNKNOWN));
+        assertEquals(ImmutableList.copyOf(transform(streams, Stream::getLength)), ImmutableList.of(10, 20, 30, 40));
+    }
+
+    private static OrcProto.Stream createStreamWithUnknownKind(int column, int kind, int length)
+    {
+        UnknownFieldSet.Field kindField = UnknownFieldSet.Field.newBuilder().addVarint(kind).build();
+        return OrcProto.Stream.newBuilder()
+                .setColumn(column)
+                .setLength(length)
+                .setUnknownFields(UnknownFieldSet.newBuilder().addField(1, kindField).build())
+                .build();
+    }
+
     @Test
     public void testGetMinSlice()
             throws Exception
@@ -25,6 +25,7 @@ import com.facebook.presto.raptor.metadata.TableColumn;
 import com.facebook.presto.raptor.metadata.ViewResult;
 import com.facebook.presto.spi.ColumnHandle;
 import com.facebook.presto.spi.ColumnMetadata;
+import com.facebook.presto.spi.ColumnStatistics;
 import com.facebook.presto.spi.ConnectorInsertTableHandle;
 import com.facebook.presto.spi.ConnectorMetadata;
 import com.facebook.presto.spi.ConnectorOutputTableHandle;
@@ -34,6 +35,7 @@ import com.facebook.presto.spi.ConnectorTableMetadata;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.SchemaTableName;
 import com.facebook.presto.spi.SchemaTablePrefix;
+import com.facebook.presto.spi.TableStatistics;
 import com.facebook.presto.spi.ViewNotFoundException;
 import com.facebook.presto.spi.type.Type;
 import com.google.common.collect.ImmutableList;
@@ -56,6 +58,7 @@ import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.UUID;
 import java.util.function.Predicate;
 
@@ -187,6 +190,26 @@ public class RaptorMetadata
         return builder.build();
     }
 
+    @Override
+    public TableStatistics getTableStatistics(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        long tableId = checkType(tableHandle, RaptorTableHandle.class, "tableHandle").getTableId();
+        List<RaptorColumnHandle> columnHandles = getColumnHandles(session, tableHandle).values().stream()
+                .map(handle -> checkType(handle, RaptorColumnHandle.class, "columnHandle"))
+                .collect(toList());
+        List<ColumnInfo> columns = columnHandles.stream().map(ColumnInfo::fromHandle).collect(toList());
+
+        Map<Long, ColumnStatistics> columnRanges = shardManager.getColumnStatistics(tableId, columns);
+        ImmutableMap.Builder<ColumnHandle, ColumnStatistics> columnStatistics = ImmutableMap.builder();
+        for (RaptorColumnHandle columnHandle : columnHandles) {
+            ColumnStatistics statistics = columnRanges.get(columnHandle.getColumnId());
+            if (statistics != null) {
+                columnStatistics.put(columnHandle, statistics);
+            }
+        }
+        return new TableStatistics(OptionalLong.of(shardManager.getTableRowCount(tableId)), columnStatistics.build());
+    }
+
     @Override
     public ColumnHandle getSampleWeightColumnHandle(ConnectorSession session, ConnectorTableHandle tableHandle)
     {
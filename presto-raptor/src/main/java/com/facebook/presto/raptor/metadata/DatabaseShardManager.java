@@ -16,6 +16,7 @@ package com.facebook.presto.raptor.metadata;
 import com.facebook.presto.raptor.RaptorColumnHandle;
 import com.facebook.presto.raptor.util.CloseableIterator;
 import com.facebook.presto.raptor.util.UuidUtil.UuidArgument;
+import com.facebook.presto.spi.ColumnStatistics;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.TupleDomain;
 import com.facebook.presto.spi.type.Type;
@@ -25,6 +26,7 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Maps;
 import com.google.common.util.concurrent.ExecutionError;
@@ -72,6 +74,7 @@ import static java.lang.String.format;
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
 import static java.util.Arrays.asList;
 import static java.util.Collections.nCopies;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
 
 public class DatabaseShardManager
@@ -280,6 +283,66 @@ public class DatabaseShardManager
         return new ShardIterator(tableId, effectivePredicate, dbi);
     }
 
+    @Override
+    public long getTableRowCount(long tableId)
+    {
+        return dao.getTableRowCount(tableId);
+    }
+
+    @Override
+    public Map<Long, ColumnStatistics> getColumnStatistics(long tableId, List<ColumnInfo> columns)
+    {
+        List<ColumnInfo> numericColumns = columns.stream()
+                .filter(column -> (jdbcType(column.getType()) == JDBCType.BIGINT) || (jdbcType(column.getType()) == JDBCType.DOUBLE))
+                .collect(toList());
+        if (numericColumns.isEmpty()) {
+            return ImmutableMap.of();
+        }
+
+        StringJoiner ranges = new StringJoiner(", ");
+        for (ColumnInfo column : numericColumns) {
+            ranges.add("MIN(" + minColumn(column.getColumnId()) + ")");
+            ranges.add("MAX(" + maxColumn(column.getColumnId()) + ")");
+        }
+        String sql = "SELECT " + ranges + " FROM " + shardIndexTable(tableId);
+
+        try (Handle handle = dbi.open()) {
+            return handle.createQuery(sql)
+                    .map((index, resultSet, context) -> {
+                        ImmutableMap.Builder<Long, ColumnStatistics> statistics = ImmutableMap.builder();
+                        for (int i = 0; i < numericColumns.size(); i++) {
+                            ColumnInfo column = numericColumns.get(i);
+                            Optional<Comparable<?>> min = getNumericValue(resultSet, (i * 2) + 1, column.getType());
+                            Optional<Comparable<?>> max = getNumericValue(resultSet, (i * 2) + 2, column.getType());
+                            if (min.isPresent() && max.isPresent()) {
+                                statistics.put(column.getColumnId(), ColumnStatistics.builder()
+                                        .setMin(min.get())
+                                        .setMax(max.get())
+                                        .build());
+                            }
+                        }
+                        return statistics.build();
+                    })
+                    .first();
+        }
+    }
+
+    private static Optional<Comparable<?>> getNumericValue(ResultSet resultSet, int index, Type type)
+            throws SQLException
+    {
+        Comparable<?> value;
+        if (jdbcType(type) == JDBCType.BIGINT) {
+            value = resultSet.getLong(index);
+        }
+        else {
+            value = resultSet.getDouble(index);
+        }
+        if (resultSet.wasNull()) {
+            return Optional.empty();
+        }
+        return Optional.of(value);
+    }
+
     @Override
     public Set<UUID> getNodeShards(String nodeIdentifier)
     {
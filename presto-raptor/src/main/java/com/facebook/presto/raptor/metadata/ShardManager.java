@@ -15,10 +15,12 @@ package com.facebook.presto.raptor.metadata;
 
 import com.facebook.presto.raptor.RaptorColumnHandle;
 import com.facebook.presto.raptor.util.CloseableIterator;
+import com.facebook.presto.spi.ColumnStatistics;
 import com.facebook.presto.spi.TupleDomain;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -55,6 +57,16 @@ public interface ShardManager
      */
     CloseableIterator<ShardNodes> getShardNodes(long tableId, TupleDomain<RaptorColumnHandle> effectivePredicate);
 
+    /**
+     * Return the total number of rows in the shards of a table.
+     */
+    long getTableRowCount(long tableId);
+
+    /**
+     * Return the minimum and maximum values of the numeric columns of a table, keyed by column ID.
+     */
+    Map<Long, ColumnStatistics> getColumnStatistics(long tableId, List<ColumnInfo> columns);
+
     /**
      * Return the shards for a given node
      */
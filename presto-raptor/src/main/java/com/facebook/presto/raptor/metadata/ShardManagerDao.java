@@ -101,6 +101,9 @@ public interface ShardManagerDao
     @SqlQuery("SELECT shard_uuid FROM shards WHERE table_id = :tableId")
     List<UUID> getShards(@Bind("tableId") long tableId);
 
+    @SqlQuery("SELECT COALESCE(SUM(row_count), 0) FROM shards WHERE table_id = :tableId")
+    long getTableRowCount(@Bind("tableId") long tableId);
+
     @SqlQuery("SELECT s.shard_uuid\n" +
             "FROM shards s\n" +
             "JOIN shard_nodes sn ON (s.shard_id = sn.shard_id)\n" +
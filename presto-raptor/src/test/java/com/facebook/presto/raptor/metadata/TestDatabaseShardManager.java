@@ -15,6 +15,7 @@ package com.facebook.presto.raptor.metadata;
 
 import com.facebook.presto.raptor.RaptorColumnHandle;
 import com.facebook.presto.raptor.util.CloseableIterator;
+import com.facebook.presto.spi.ColumnStatistics;
 import com.facebook.presto.spi.Domain;
 import com.facebook.presto.spi.PrestoException;
 import com.facebook.presto.spi.Range;
@@ -22,6 +23,7 @@ import com.facebook.presto.spi.SortedRangeSet;
 import com.facebook.presto.spi.TupleDomain;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.io.Files;
@@ -475,6 +477,59 @@ public class TestDatabaseShardManager
         shardAssertion(tableId).equal(c1, 3).expected(shards);
     }
 
+    @Test
+    public void testTableStatistics()
+            throws Exception
+    {
+        List<ShardInfo> shards = ImmutableList.<ShardInfo>builder()
+                .add(new ShardInfo(
+                        UUID.randomUUID(),
+                        ImmutableSet.of("node1"),
+                        ImmutableList.of(new ColumnStats(1, 5, 10), new ColumnStats(2, -20.0, 20.0), new ColumnStats(3, "hello", "world")),
+                        10, 0, 0))
+                .add(new ShardInfo(
+                        UUID.randomUUID(),
+                        ImmutableSet.of("node2"),
+                        ImmutableList.of(new ColumnStats(1, 2, 8), new ColumnStats(2, null, 50.0), new ColumnStats(3, "cat", "dog")),
+                        20, 0, 0))
+                .add(new ShardInfo(
+                        UUID.randomUUID(),
+                        ImmutableSet.of("node3"),
+                        ImmutableList.of(new ColumnStats(1, 15, 20), new ColumnStats(2, null, null)),
+                        30, 0, 0))
+                .build();
+
+        List<ColumnInfo> columns = ImmutableList.of(new ColumnInfo(1, BIGINT), new ColumnInfo(2, DOUBLE), new ColumnInfo(3, VARCHAR));
+
+        long tableId = 1;
+        shardManager.createTable(tableId, columns);
+        shardManager.commitShards(tableId, columns, shards, Optional.empty());
+
+        assertEquals(shardManager.getTableRowCount(tableId), 60);
+
+        // only numeric columns have statistics, and missing shard values are ignored
+        assertEquals(shardManager.getColumnStatistics(tableId, columns), ImmutableMap.of(
+                1L, ColumnStatistics.builder().setMin(2L).setMax(20L).build(),
+                2L, ColumnStatistics.builder().setMin(-20.0).setMax(50.0).build()));
+    }
+
+    @Test
+    public void testTableStatisticsNoStats()
+            throws Exception
+    {
+        long tableId = 1;
+        List<ColumnInfo> columns = ImmutableList.of(new ColumnInfo(1, BIGINT));
+        shardManager.createTable(tableId, columns);
+
+        assertEquals(shardManager.getTableRowCount(tableId), 0);
+        assertEquals(shardManager.getColumnStatistics(tableId, columns), ImmutableMap.of());
+
+        shardManager.commitShards(tableId, columns, ImmutableList.of(shardInfo(UUID.randomUUID(), "node")), Optional.empty());
+
+        assertEquals(shardManager.getTableRowCount(tableId), 0);
+        assertEquals(shardManager.getColumnStatistics(tableId, columns), ImmutableMap.of());
+    }
+
     private Set<ShardNodes> getShardNodes(long tableId, TupleDomain<RaptorColumnHandle> predicate)
     {
         try (CloseableIterator<ShardNodes> iterator = shardManager.getShardNodes(tableId, predicate)) {
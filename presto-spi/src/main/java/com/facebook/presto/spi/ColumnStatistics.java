@@ -0,0 +1,160 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi;
+
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Estimated statistics of a column. The minimum and maximum values use the same
+ * representation as the values of a {@link Range} over the column type.
+ */
+public class ColumnStatistics
+{
+    private static final ColumnStatistics EMPTY = builder().build();
+
+    private final OptionalLong distinctValuesCount;
+    private final OptionalDouble nullsFraction;
+    private final Optional<Comparable<?>> min;
+    private final Optional<Comparable<?>> max;
+
+    public ColumnStatistics(
+            OptionalLong distinctValuesCount,
+            OptionalDouble nullsFraction,
+            Optional<Comparable<?>> min,
+            Optional<Comparable<?>> max)
+    {
+        requireNonNull(distinctValuesCount, "distinctValuesCount is null");
+        requireNonNull(nullsFraction, "nullsFraction is null");
+        requireNonNull(min, "min is null");
+        requireNonNull(max, "max is null");
+        if (distinctValuesCount.isPresent() && distinctValuesCount.getAsLong() < 0) {
+            throw new IllegalArgumentException("distinctValuesCount is negative");
+        }
+        if (nullsFraction.isPresent() && (nullsFraction.getAsDouble() < 0 || nullsFraction.getAsDouble() > 1)) {
+            throw new IllegalArgumentException("nullsFraction must be between 0 and 1");
+        }
+
+        this.distinctValuesCount = distinctValuesCount;
+        this.nullsFraction = nullsFraction;
+        this.min = min;
+        this.max = max;
+    }
+
+    public static ColumnStatistics empty()
+    {
+        return EMPTY;
+    }
+
+    public static Builder builder()
+    {
+        return new Builder();
+    }
+
+    public OptionalLong getDistinctValuesCount()
+    {
+        return distinctValuesCount;
+    }
+
+    public OptionalDouble getNullsFraction()
+    {
+        return nullsFraction;
+    }
+
+    public Optional<Comparable<?>> getMin()
+    {
+        return min;
+    }
+
+    public Optional<Comparable<?>> getMax()
+    {
+        return max;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(distinctValuesCount, nullsFraction, min, max);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        ColumnStatistics other = (ColumnStatistics) obj;
+        return Objects.equals(this.distinctValuesCount, other.distinctValuesCount) &&
+                Objects.equals(this.nullsFraction, other.nullsFraction) &&
+                Objects.equals(this.min, other.min) &&
+                Objects.equals(this.max, other.max);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ColumnStatistics{" +
+                "distinctValuesCount=" + distinctValuesCount +
+                ", nullsFraction=" + nullsFraction +
+                ", min=" + min +
+                ", max=" + max +
+                '}';
+    }
+
+    public static class Builder
+    {
+        private OptionalLong distinctValuesCount = OptionalLong.empty();
+        private OptionalDouble nullsFraction = OptionalDouble.empty();
+        private Optional<Comparable<?>> min = Optional.empty();
+        private Optional<Comparable<?>> max = Optional.empty();
+
+        private Builder() {}
+
+        public Builder setDistinctValuesCount(long distinctValuesCount)
+        {
+            this.distinctValuesCount = OptionalLong.of(distinctValuesCount);
+            return this;
+        }
+
+        public Builder setNullsFraction(double nullsFraction)
+        {
+            this.nullsFraction = OptionalDouble.of(nullsFraction);
+            return this;
+        }
+
+        public Builder setMin(Comparable<?> min)
+        {
+            this.min = Optional.of(min);
+            return this;
+        }
+
+        public Builder setMax(Comparable<?> max)
+        {
+            this.max = Optional.of(max);
+            return this;
+        }
+
+        public ColumnStatistics build()
+        {
+            return new ColumnStatistics(distinctValuesCount, nullsFraction, min, max);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Describes how the rows of a table are divided into buckets.
+ * <p>
+ * Each row is placed in the bucket computed by the bucket function from the values of the
+ * bucketing columns. Two tables with equal bucket functions and bucket counts place rows with
+ * equal values in their bucketing columns in buckets with the same number.
+ */
+public final class ConnectorBucketing
+{
+    private final String bucketFunction;
+    private final int bucketCount;
+    private final List<ColumnHandle> bucketColumns;
+
+    public ConnectorBucketing(String bucketFunction, int bucketCount, List<ColumnHandle> bucketColumns)
+    {
+        requireNonNull(bucketFunction, "bucketFunction is null");
+        requireNonNull(bucketColumns, "bucketColumns is null");
+        if (bucketCount <= 0) {
+            throw new IllegalArgumentException("bucketCount must be greater than zero");
+        }
+        if (bucketColumns.isEmpty()) {
+            throw new IllegalArgumentException("bucketColumns is empty");
+        }
+
+        this.bucketFunction = bucketFunction;
+        this.bucketCount = bucketCount;
+        this.bucketColumns = Collections.unmodifiableList(new ArrayList<>(bucketColumns));
+    }
+
+    /**
+     * Identifies the function that computes the bucket of a row, including the types of the
+     * values it hashes. Only layouts with equal bucket functions can be joined bucket by bucket.
+     */
+    public String getBucketFunction()
+    {
+        return bucketFunction;
+    }
+
+    public int getBucketCount()
+    {
+        return bucketCount;
+    }
+
+    public List<ColumnHandle> getBucketColumns()
+    {
+        return bucketColumns;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(bucketFunction, bucketCount, bucketColumns);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        ConnectorBucketing other = (ConnectorBucketing) obj;
+        return Objects.equals(this.bucketFunction, other.bucketFunction) &&
+                this.bucketCount == other.bucketCount &&
+                Objects.equals(this.bucketColumns, other.bucketColumns);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConnectorBucketing{" +
+                "bucketFunction=" + bucketFunction +
+                ", bucketCount=" + bucketCount +
+                ", bucketColumns=" + bucketColumns +
+                '}';
+    }
+}
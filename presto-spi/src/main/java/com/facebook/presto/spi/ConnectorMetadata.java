@@ -61,6 +61,17 @@ public interface ConnectorMetadata
      */
     ConnectorTableMetadata getTableMetadata(ConnectorSession session, ConnectorTableHandle table);
 
+    /**
+     * Returns estimated statistics of the specified table, used for cost based optimizations.
+     * Connectors without statistics return {@link TableStatistics#empty()}.
+     *
+     * @throws RuntimeException if table handle is no longer valid
+     */
+    default TableStatistics getTableStatistics(ConnectorSession session, ConnectorTableHandle tableHandle)
+    {
+        return TableStatistics.empty();
+    }
+
     /**
      * List table names, possibly filtered by schema. An empty list is returned if none match.
      */
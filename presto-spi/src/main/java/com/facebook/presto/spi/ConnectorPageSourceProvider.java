@@ -18,4 +18,15 @@ import java.util.List;
 public interface ConnectorPageSourceProvider
 {
     ConnectorPageSource createPageSource(ConnectorSession session, ConnectorSplit split, List<ColumnHandle> columns);
+
+    /**
+     * Creates a page source for the split, given a filter derived at execution time
+     * (for example from the build side of a join). The filter is only a hint: rows
+     * outside of it are discarded by the engine anyway, so the page source may still
+     * return them, but it can use the filter to skip data that can not match.
+     */
+    default ConnectorPageSource createPageSource(ConnectorSession session, ConnectorSplit split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        return createPageSource(session, split, columns);
+    }
 }
@@ -14,6 +14,7 @@
 package com.facebook.presto.spi;
 
 import java.util.List;
+import java.util.Optional;
 
 import static java.util.Objects.requireNonNull;
 
@@ -30,11 +31,18 @@ public class ConnectorPartitionResult
 {
     private final List<ConnectorPartition> partitions;
     private final TupleDomain<ColumnHandle> undeterminedTupleDomain;
+    private final Optional<ConnectorBucketing> bucketing;
 
     public ConnectorPartitionResult(List<ConnectorPartition> partitions, TupleDomain<ColumnHandle> undeterminedTupleDomain)
+    {
+        this(partitions, undeterminedTupleDomain, Optional.empty());
+    }
+
+    public ConnectorPartitionResult(List<ConnectorPartition> partitions, TupleDomain<ColumnHandle> undeterminedTupleDomain, Optional<ConnectorBucketing> bucketing)
     {
         this.partitions = requireNonNull(partitions, "partitions is null");
         this.undeterminedTupleDomain = requireNonNull(undeterminedTupleDomain, "undeterminedTupleDomain is null");
+        this.bucketing = requireNonNull(bucketing, "bucketing is null");
     }
 
     public List<ConnectorPartition> getPartitions()
@@ -46,4 +54,9 @@ public class ConnectorPartitionResult
     {
         return undeterminedTupleDomain;
     }
+
+    public Optional<ConnectorBucketing> getBucketing()
+    {
+        return bucketing;
+    }
 }
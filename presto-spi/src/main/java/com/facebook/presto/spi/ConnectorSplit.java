@@ -14,6 +14,7 @@
 package com.facebook.presto.spi;
 
 import java.util.List;
+import java.util.OptionalInt;
 
 public interface ConnectorSplit
 {
@@ -22,4 +23,12 @@ public interface ConnectorSplit
     List<HostAddress> getAddresses();
 
     Object getInfo();
+
+    /**
+     * The bucket the rows of this split belong to, if the layout the split was created for is bucketed.
+     */
+    default OptionalInt getBucketNumber()
+    {
+        return OptionalInt.empty();
+    }
 }
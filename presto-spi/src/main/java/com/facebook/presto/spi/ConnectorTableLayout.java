@@ -28,6 +28,7 @@ public class ConnectorTableLayout
     private final Optional<List<TupleDomain<ColumnHandle>>> discretePredicates;
     private final Optional<Set<ColumnHandle>> partitioningColumns;
     private final List<LocalProperty<ColumnHandle>> localProperties;
+    private final Optional<ConnectorBucketing> bucketing;
 
     public ConnectorTableLayout(
             ConnectorTableLayoutHandle handle,
@@ -36,6 +37,18 @@ public class ConnectorTableLayout
             Optional<Set<ColumnHandle>> partitioningColumns,
             Optional<List<TupleDomain<ColumnHandle>>> discretePredicates,
             List<LocalProperty<ColumnHandle>> localProperties)
+    {
+        this(handle, columns, predicate, partitioningColumns, discretePredicates, localProperties, Optional.empty());
+    }
+
+    public ConnectorTableLayout(
+            ConnectorTableLayoutHandle handle,
+            Optional<List<ColumnHandle>> columns,
+            TupleDomain<ColumnHandle> predicate,
+            Optional<Set<ColumnHandle>> partitioningColumns,
+            Optional<List<TupleDomain<ColumnHandle>>> discretePredicates,
+            List<LocalProperty<ColumnHandle>> localProperties,
+            Optional<ConnectorBucketing> bucketing)
     {
         requireNonNull(handle, "handle is null");
         requireNonNull(columns, "columns is null");
@@ -43,6 +56,7 @@ public class ConnectorTableLayout
         requireNonNull(predicate, "predicate is null");
         requireNonNull(discretePredicates, "discretePredicates is null");
         requireNonNull(localProperties, "localProperties is null");
+        requireNonNull(bucketing, "bucketing is null");
 
         this.handle = handle;
         this.columns = columns;
@@ -50,6 +64,7 @@ public class ConnectorTableLayout
         this.predicate = predicate;
         this.discretePredicates = discretePredicates;
         this.localProperties = localProperties;
+        this.bucketing = bucketing;
     }
 
     public ConnectorTableLayoutHandle getHandle()
@@ -106,10 +121,20 @@ public class ConnectorTableLayout
         return localProperties;
     }
 
+    /**
+     * The bucketing of the table.
+     * If present, every split of this layout reports the bucket its rows belong to, so the engine
+     * may join it with another layout of the same bucketing without exchanging any data.
+     */
+    public Optional<ConnectorBucketing> getBucketing()
+    {
+        return bucketing;
+    }
+
     @Override
     public int hashCode()
     {
-        return Objects.hash(handle, columns, predicate, discretePredicates, partitioningColumns, localProperties);
+        return Objects.hash(handle, columns, predicate, discretePredicates, partitioningColumns, localProperties, bucketing);
     }
 
     @Override
@@ -127,6 +152,7 @@ public class ConnectorTableLayout
                 && Objects.equals(this.predicate, other.predicate)
                 && Objects.equals(this.discretePredicates, other.discretePredicates)
                 && Objects.equals(this.partitioningColumns, other.partitioningColumns)
-                && Objects.equals(this.localProperties, other.localProperties);
+                && Objects.equals(this.localProperties, other.localProperties)
+                && Objects.equals(this.bucketing, other.bucketing);
     }
 }
@@ -78,6 +78,17 @@ public class PageBuilder
         declaredPositions++;
     }
 
+    /**
+     * Declare a batch of positions whose values are written one channel at a time
+     */
+    public void declarePositions(int positions)
+    {
+        if (positions < 0) {
+            throw new IllegalArgumentException("positions is negative");
+        }
+        declaredPositions += positions;
+    }
+
     public boolean isFull()
     {
         return declaredPositions == Integer.MAX_VALUE || pageBuilderStatus.isFull();
@@ -0,0 +1,93 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.facebook.presto.spi;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Estimated statistics of a table. Every statistic is optional, so connectors
+ * can report only what they know without an expensive computation.
+ */
+public class TableStatistics
+{
+    private static final TableStatistics EMPTY = new TableStatistics(OptionalLong.empty(), Collections.emptyMap());
+
+    private final OptionalLong rowCount;
+    private final Map<ColumnHandle, ColumnStatistics> columnStatistics;
+
+    public TableStatistics(OptionalLong rowCount, Map<ColumnHandle, ColumnStatistics> columnStatistics)
+    {
+        requireNonNull(rowCount, "rowCount is null");
+        requireNonNull(columnStatistics, "columnStatistics is null");
+        if (rowCount.isPresent() && rowCount.getAsLong() < 0) {
+            throw new IllegalArgumentException("rowCount is negative");
+        }
+
+        this.rowCount = rowCount;
+        this.columnStatistics = Collections.unmodifiableMap(new HashMap<>(columnStatistics));
+    }
+
+    public static TableStatistics empty()
+    {
+        return EMPTY;
+    }
+
+    public OptionalLong getRowCount()
+    {
+        return rowCount;
+    }
+
+    /**
+     * Statistics of the columns the connector has any information about.
+     */
+    public Map<ColumnHandle, ColumnStatistics> getColumnStatistics()
+    {
+        return columnStatistics;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(rowCount, columnStatistics);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        TableStatistics other = (TableStatistics) obj;
+        return Objects.equals(this.rowCount, other.rowCount) &&
+                Objects.equals(this.columnStatistics, other.columnStatistics);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "TableStatistics{" +
+                "rowCount=" + rowCount +
+                ", columnStatistics=" + columnStatistics +
+                '}';
+    }
+}
@@ -24,7 +24,6 @@ import static io.airlift.slice.SizeOf.SIZE_OF_INT;
 import static io.airlift.slice.Slices.copyOf;
 import static io.airlift.slice.Slices.wrappedIntArray;
 import static java.util.Objects.requireNonNull;
-import static java.util.stream.Collectors.toList;
 
 public class DictionaryBlock
         implements Block
@@ -185,17 +184,21 @@ public class DictionaryBlock
     {
         checkValidPositions(positions, positionCount);
 
-        List<Integer> distinctPositions = positions.stream().distinct().collect(toList());
-        List<Integer> currentDictionaryIndexes = distinctPositions.stream().map(this::getIndex).collect(toList());
-
-        List<Integer> positionsToCopy = currentDictionaryIndexes.stream().distinct().collect(toList());
-        Block dictionaryBlock = dictionary.copyPositions(positionsToCopy);
+        // dictionary entries are copied in the order they are first referenced
+        int[] remapIndex = new int[dictionary.getPositionCount()];
+        Arrays.fill(remapIndex, -1);
+        List<Integer> positionsToCopy = new ArrayList<>();
 
         int[] newIds = new int[positions.size()];
         for (int i = 0; i < positions.size(); i++) {
-            int oldIndex = currentDictionaryIndexes.get(distinctPositions.indexOf(positions.get(i)));
-            newIds[i] = positionsToCopy.indexOf(oldIndex);
+            int oldIndex = getIndex(positions.get(i));
+            if (remapIndex[oldIndex] == -1) {
+                remapIndex[oldIndex] = positionsToCopy.size();
+                positionsToCopy.add(oldIndex);
+            }
+            newIds[i] = remapIndex[oldIndex];
         }
+        Block dictionaryBlock = dictionary.copyPositions(positionsToCopy);
         return new DictionaryBlock(positions.size(), dictionaryBlock, wrappedIntArray(newIds));
     }
 
@@ -240,6 +243,11 @@ public class DictionaryBlock
         return ids;
     }
 
+    public int getId(int position)
+    {
+        return getIndex(position);
+    }
+
     private int getIndex(int position)
     {
         return ids.getInt(position * SIZE_OF_INT);
@@ -16,4 +16,14 @@ package com.facebook.presto.spi.block;
 public interface LazyBlockLoader<T extends Block>
 {
     void load(T block);
+
+    /**
+     * Loads the block, only guaranteeing the values at the given positions, which are in
+     * increasing order. The other positions of the block must not be read after this call.
+     * By default the whole block is loaded.
+     */
+    default void load(T block, int[] positions, int positionCount)
+    {
+        load(block);
+    }
 }
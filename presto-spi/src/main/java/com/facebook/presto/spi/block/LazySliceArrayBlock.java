@@ -187,6 +187,25 @@ public class LazySliceArrayBlock
         loader = null;
     }
 
+    /**
+     * Loads the block if it is not loaded, only guaranteeing the values at the given positions,
+     * which must be in increasing order. The other positions must not be read afterwards.
+     */
+    public void assureLoaded(int[] positions, int positionCount)
+    {
+        if (values != null) {
+            return;
+        }
+        loader.load(this, positions, positionCount);
+
+        if (values == null) {
+            throw new IllegalArgumentException("Lazy block loader did not load this block");
+        }
+
+        // clear reference to loader to free resources, since load was successful
+        loader = null;
+    }
+
     @Override
     public String toString()
     {
@@ -266,6 +285,11 @@ public class LazySliceArrayBlock
         return ids;
     }
 
+    public boolean isLoaded()
+    {
+        return values != null;
+    }
+
     public boolean isDictionary()
     {
         assureLoaded();
@@ -18,6 +18,7 @@ import com.facebook.presto.spi.ConnectorPageSource;
 import com.facebook.presto.spi.ConnectorPageSourceProvider;
 import com.facebook.presto.spi.ConnectorSession;
 import com.facebook.presto.spi.ConnectorSplit;
+import com.facebook.presto.spi.TupleDomain;
 
 import java.util.List;
 
@@ -44,6 +45,14 @@ public class ClassLoaderSafeConnectorPageSourceProvider
         }
     }
 
+    @Override
+    public ConnectorPageSource createPageSource(ConnectorSession session, ConnectorSplit split, List<ColumnHandle> columns, TupleDomain<ColumnHandle> dynamicFilter)
+    {
+        try (ThreadContextClassLoader ignored = new ThreadContextClassLoader(classLoader)) {
+            return delegate.createPageSource(session, split, columns, dynamicFilter);
+        }
+    }
+
     @Override
     public String toString()
     {
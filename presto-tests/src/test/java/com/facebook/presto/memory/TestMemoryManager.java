@@ -14,6 +14,7 @@
 package com.facebook.presto.memory;
 
 import com.facebook.presto.Session;
+import com.facebook.presto.execution.QueryId;
 import com.facebook.presto.execution.QueryInfo;
 import com.facebook.presto.execution.TaskInfo;
 import com.facebook.presto.operator.DriverStats;
@@ -60,6 +61,8 @@ public class TestMemoryManager
             .setSchema("tiny")
             .build();
 
+    private static final QueryId FAKE_QUERY_ID = new QueryId("fake");
+
     private final ExecutorService executor = newCachedThreadPool();
 
     @Test(timeOut = 240_000)
@@ -75,7 +78,7 @@ public class TestMemoryManager
             // Reserve all the memory
             for (TestingPrestoServer server : queryRunner.getServers()) {
                 for (MemoryPool pool : server.getLocalMemoryManager().getPools()) {
-                    assertTrue(pool.tryReserve(pool.getMaxBytes()));
+                    assertTrue(pool.tryReserve(FAKE_QUERY_ID, pool.getMaxBytes()));
                 }
             }
 
@@ -119,12 +122,12 @@ public class TestMemoryManager
             for (TestingPrestoServer server : queryRunner.getServers()) {
                 MemoryPool reserved = server.getLocalMemoryManager().getPool(RESERVED_POOL);
                 // Free up the entire pool
-                reserved.free(reserved.getMaxBytes());
+                reserved.free(FAKE_QUERY_ID, reserved.getMaxBytes());
                 assertTrue(reserved.getFreeBytes() > 0);
 
                 MemoryPool system = server.getLocalMemoryManager().getPool(SYSTEM_POOL);
                 // Free up the entire pool
-                system.free(system.getMaxBytes());
+                system.free(FAKE_QUERY_ID, system.getMaxBytes());
                 assertTrue(system.getFreeBytes() > 0);
             }
 
@@ -145,7 +148,7 @@ public class TestMemoryManager
                 assertEquals(reserved.getMaxBytes(), reserved.getFreeBytes());
                 MemoryPool general = worker.getLocalMemoryManager().getPool(GENERAL_POOL);
                 // Free up the memory we reserved earlier
-                general.free(general.getMaxBytes());
+                general.free(FAKE_QUERY_ID, general.getMaxBytes());
                 assertEquals(general.getMaxBytes(), general.getFreeBytes());
                 MemoryPool system = worker.getLocalMemoryManager().getPool(SYSTEM_POOL);
                 assertEquals(system.getMaxBytes(), system.getFreeBytes());